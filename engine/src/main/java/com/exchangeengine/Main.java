@@ -4,7 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.exchangeengine.bootstrap.EngineServiceMain;
+import com.exchangeengine.bootstrap.QueryReplicaMain;
 import com.exchangeengine.bootstrap.ServiceInitializer;
+import com.exchangeengine.storage.BackupService;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
 import com.exchangeengine.util.EnvManager;
 
 import java.time.ZoneId;
@@ -48,12 +51,22 @@ public class Main {
         envManager.getEnvironment(), VERSION, currentTime);
 
     try {
-      // Initialize common components
-      ServiceInitializer.initialize();
-      logger.info("Initialized ServiceInitializer with all common components");
+      if (restoreBackupIfRequested()) {
+        return;
+      }
 
-      // Start services
-      startServices();
+      if (RocksDBConfig.isQueryReplicaMode()) {
+        // Query replica: chỉ mở RocksDB secondary và phục vụ query
+        QueryReplicaMain.start();
+        logger.info("QueryReplica started");
+      } else {
+        // Initialize common components
+        ServiceInitializer.initialize();
+        logger.info("Initialized ServiceInitializer with all common components");
+
+        // Start services
+        startServices();
+      }
       logger.info("========================*.*========================");
 
       // Use CountDownLatch to keep application running
@@ -78,6 +91,24 @@ public class Main {
     logger.info("Hệ thống đã dừng vào lúc {}", getCurrentTimeUTC7());
   }
 
+  /**
+   * Khôi phục backup vào thư mục mới thay vì chạy engine nếu
+   * BACKUP_RESTORE_TARGET_DIR được đặt.
+   *
+   * @return true nếu đã khôi phục
+   */
+  private static boolean restoreBackupIfRequested() throws Exception {
+    String targetDir = envManager.get("BACKUP_RESTORE_TARGET_DIR", "");
+    if (targetDir == null || targetDir.isEmpty()) {
+      return false;
+    }
+
+    BackupService.restoreToNewDir(BackupService.getBackupDir(), envManager.getInt("BACKUP_RESTORE_ID", 0),
+        targetDir);
+    logger.info("Đã khôi phục backup vào {}, trỏ ROCKSDB_DATA_DIR tới thư mục này để chạy engine", targetDir);
+    return true;
+  }
+
   /**
    * Khởi động các service.
    */
@@ -99,6 +130,12 @@ public class Main {
       logger.info("Đang dừng hệ thống Exchange Engine v{} vào lúc {}...", VERSION != null ? VERSION : "Dev", stopTime);
 
       try {
+        if (RocksDBConfig.isQueryReplicaMode()) {
+          QueryReplicaMain.stop();
+          logger.info("Đã dừng QueryReplica");
+          return;
+        }
+
         // Dừng các service theo thứ tự ngược lại
         EngineServiceMain.stop();
         logger.info("Đã dừng EngineService");
@@ -0,0 +1,132 @@
+package com.exchangeengine.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.messaging.common.KafkaConfig;
+import com.exchangeengine.messaging.consumer.KafkaConsumerQueryService;
+import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process query replica (QUERY_REPLICA_MODE=true).
+ * Mở database của engine dưới dạng RocksDB secondary, định kỳ catch up với
+ * primary và phục vụ các topic query chỉ đọc. Không khởi tạo disruptor, cache
+ * hay logic consumer nên không ảnh hưởng tới luồng ghi của engine.
+ */
+public class QueryReplicaMain {
+  private static final Logger logger = LoggerFactory.getLogger(QueryReplicaMain.class);
+  private static KafkaProducerService producerService;
+  private static KafkaConsumerQueryService queryConsumerService;
+  private static ScheduledExecutorService catchUpExecutorService;
+  private static ExecutorService queryExecutorService;
+
+  private static boolean isRunning = false;
+
+  private QueryReplicaMain() {
+    // do nothing
+  }
+
+  /**
+   * Khởi động query replica.
+   * Phương thức này được gọi từ Main.
+   */
+  public static synchronized void start() {
+    if (isRunning) {
+      logger.warn("QueryReplica already started");
+      return;
+    }
+
+    logger.info("Starting QueryReplica...");
+
+    try {
+      // Mở RocksDB secondary và chuyển read snapshot sang đọc trực tiếp từ RocksDB
+      RocksDBService.getInstance();
+      ReadSnapshotCache readSnapshotCache = ReadSnapshotCache.getInstance();
+      readSnapshotCache.enableReplicaMode();
+      logger.info("Opened RocksDB secondary, replica mode enabled");
+
+      long interval = RocksDBConfig.getSecondaryCatchUpIntervalMs();
+      catchUpExecutorService = Executors.newSingleThreadScheduledExecutor();
+      catchUpExecutorService.scheduleWithFixedDelay(readSnapshotCache::catchUpWithPrimary,
+          interval, interval, TimeUnit.MILLISECONDS);
+      logger.info("Catch up with primary scheduled every {} ms", interval);
+
+      KafkaConfig.getInstance();
+      producerService = KafkaProducerService.getInstance();
+
+      queryConsumerService = KafkaConsumerQueryService.getInstance();
+      queryExecutorService = Executors.newSingleThreadExecutor();
+      queryExecutorService.submit(queryConsumerService);
+      logger.info("Query Kafka Consumer started with {} worker threads", queryConsumerService.getQueryThreadsCount());
+
+      isRunning = true;
+      logger.info("QueryReplica started successfully");
+    } catch (Exception e) {
+      logger.error("Error starting QueryReplica: {}", e.getMessage(), e);
+      throw new RuntimeException("Cannot start QueryReplica", e);
+    }
+  }
+
+  /**
+   * Dừng query replica.
+   * Phương thức này được gọi từ Main.
+   */
+  public static synchronized void stop() {
+    if (!isRunning) {
+      logger.warn("QueryReplica is not running or already stopped");
+      return;
+    }
+
+    logger.info("Stopping QueryReplica...");
+
+    try {
+      if (queryConsumerService != null) {
+        queryConsumerService.shutdown();
+        logger.info("Query Kafka Consumer shutdown signal sent");
+      }
+
+      if (queryExecutorService != null) {
+        queryExecutorService.shutdown();
+        if (!queryExecutorService.awaitTermination(5, TimeUnit.SECONDS)) {
+          logger.warn("Query ExecutorService force shutdown");
+          queryExecutorService.shutdownNow();
+        }
+      }
+
+      if (catchUpExecutorService != null) {
+        catchUpExecutorService.shutdownNow();
+        logger.info("Catch up scheduler stopped");
+      }
+
+      if (producerService != null) {
+        producerService.close();
+        logger.info("Kafka Producer stopped");
+      }
+
+      KafkaConfig.getInstance().shutdown();
+      RocksDBService.getInstance().close();
+      logger.info("QueryReplica stopped successfully");
+    } catch (Exception e) {
+      logger.error("Error stopping QueryReplica: {}", e.getMessage(), e);
+    } finally {
+      isRunning = false;
+    }
+  }
+
+  /**
+   * Kiểm tra replica đang chạy hay không.
+   *
+   * @return true nếu đang chạy
+   */
+  public static synchronized boolean isRunning() {
+    return isRunning;
+  }
+}
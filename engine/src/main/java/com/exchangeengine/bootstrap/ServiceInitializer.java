@@ -8,9 +8,19 @@ import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.service.engine.EngineDisruptorService;
 import com.exchangeengine.service.engine.EngineHandler;
 import com.exchangeengine.service.engine.OutputProcessor;
+import com.exchangeengine.service.engine.amm_fee.PositionFeeReportService;
+import com.exchangeengine.service.engine.expiry.ExpiryService;
 import com.exchangeengine.messaging.consumer.KafkaConsumerService;
+import com.exchangeengine.model.DurablePosition;
+import com.exchangeengine.storage.rocksdb.DurablePositionRocksDB;
+import com.exchangeengine.storage.rocksdb.RocksDBMetrics;
 import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.storage.ArchiveService;
+import com.exchangeengine.storage.BackupService;
+import com.exchangeengine.storage.DurabilityTracker;
+import com.exchangeengine.storage.FlushScheduler;
 import com.exchangeengine.storage.StorageService;
+import com.exchangeengine.storage.journal.InputJournal;
 
 /**
  * Lớp này quản lý việc khởi tạo các thành phần dùng chung trong hệ thống.
@@ -86,8 +96,23 @@ public class ServiceInitializer {
     RocksDBService.getInstance();
     logger.info("Initialized RocksDB");
 
+    RocksDBMetrics.getInstance().start();
+    logger.info("Initialized RocksDBMetrics");
+
     StorageService.getInstance();
     logger.info("Initialized StorageService");
+
+    FlushScheduler.getInstance().start();
+    logger.info("Initialized FlushScheduler");
+
+    BackupService.getInstance().start();
+    logger.info("Initialized BackupService");
+
+    ArchiveService.getInstance().start();
+    logger.info("Initialized ArchiveService");
+
+    InputJournal.getInstance();
+    logger.info("Initialized InputJournal");
   }
 
   /**
@@ -97,8 +122,39 @@ public class ServiceInitializer {
     logger.info("Initializing Disruptor...");
 
     try {
-      EngineDisruptorService.getInstance();
+      EngineDisruptorService disruptorService = EngineDisruptorService.getInstance();
       logger.info("Initialized EngineDisruptorService");
+
+      DurablePositionRocksDB durablePositionRocksDB = DurablePositionRocksDB.getInstance();
+      DurablePosition durablePosition = durablePositionRocksDB.getDurablePosition().orElseGet(DurablePosition::new);
+      InputJournal inputJournal = InputJournal.getInstance();
+
+      // Vị trí Disruptor/Kafka/journal đã bền sau mỗi lần flush, được ghi kèm mỗi backup.
+      // Gắn trước replay để event replay cũng chỉ được flush theo lát cắt có vị trí
+      FlushScheduler.getInstance().setDurabilityTracker(new DurabilityTracker(
+          disruptorService::getPublishedSequence,
+          disruptorService::runPaused,
+          KafkaConsumerService.getInstance()::getConsumedOffsets,
+          inputJournal.isEnabled() ? inputJournal::toJournalSequence : null,
+          position -> {
+            durablePositionRocksDB.saveDurablePosition(position);
+            inputJournal.markDurable(position.getJournalSequence());
+          },
+          durablePosition));
+      logger.info("Initialized DurabilityTracker");
+
+      // Event đã vào journal nhưng chưa được flush xuống RocksDB được xử lý lại,
+      // trước khi Kafka và các job nền publish event mới
+      long replayed = inputJournal.replay(durablePosition.getJournalSequence(), disruptorService::publishEvent);
+      logger.info("Replayed {} events from InputJournal", replayed);
+
+      // Timer wheel cho trade/lock hết hạn, publish event vào Disruptor
+      ExpiryService.getInstance().start();
+      logger.info("Initialized ExpiryService");
+
+      // Job nền báo cáo phí chưa thu của các AMM position
+      PositionFeeReportService.getInstance().start();
+      logger.info("Initialized PositionFeeReportService");
     } catch (Exception e) {
       logger.error("Error initializing Disruptor: {}", e.getMessage(), e);
       throw new RuntimeException("Cannot initialize Disruptor", e);
@@ -181,10 +237,18 @@ public class ServiceInitializer {
     logger.info("Shutting down Disruptor...");
 
     try {
+      // Dừng các job nền trước để không publish thêm event
+      PositionFeeReportService.getInstance().shutdown();
+      ExpiryService.getInstance().shutdown();
+
       // Shutdown EngineDisruptorService
       EngineDisruptorService.getInstance().shutdown();
       logger.info("Shutdown Disruptor");
 
+      // Disruptor đã xử lý hết event, force journal xuống đĩa
+      InputJournal.getInstance().close();
+      logger.info("Shutdown InputJournal");
+
       // Shutdown OutputProcessor
       OutputProcessor.getInstance().shutdown();
       logger.info("Shutdown OutputProcessor");
@@ -200,10 +264,32 @@ public class ServiceInitializer {
     logger.info("Shutting down StorageService and RocksDB...");
 
     try {
-      StorageService.getInstance().shutdown();
-      logger.info("Shutdown StorageService");
+      ArchiveService.getInstance().shutdown();
+      logger.info("Shutdown ArchiveService");
+    } catch (Exception e) {
+      logger.error("Error shutting down ArchiveService: {}", e.getMessage(), e);
+    }
+
+    try {
+      BackupService.getInstance().shutdown();
+      logger.info("Shutdown BackupService");
+    } catch (Exception e) {
+      logger.error("Error shutting down BackupService: {}", e.getMessage(), e);
+    }
+
+    try {
+      // Lần flush cuối lưu toàn bộ dữ liệu còn lại
+      FlushScheduler.getInstance().shutdown();
+      logger.info("Shutdown FlushScheduler");
+    } catch (Exception e) {
+      logger.error("Error shutting down FlushScheduler: {}", e.getMessage(), e);
+    }
+
+    try {
+      RocksDBMetrics.getInstance().shutdown();
+      logger.info("Shutdown RocksDBMetrics");
     } catch (Exception e) {
-      logger.error("Error shutting down StorageService: {}", e.getMessage(), e);
+      logger.error("Error shutting down RocksDBMetrics: {}", e.getMessage(), e);
     }
 
     try {
@@ -8,6 +8,7 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.common.config.SslConfigs;
 
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,7 +30,7 @@ public class KafkaConfig {
   private static volatile KafkaConfig instance;
 
   private final String bootstrapServers;
-  private KafkaProducer<String, String> sharedKafkaProducer;
+  private KafkaProducer<String, byte[]> sharedKafkaProducer;
   private AdminClient kafkaAdminClient;
 
   /**
@@ -92,7 +93,8 @@ public class KafkaConfig {
     Properties producerProps = new Properties();
     producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    // Value là bytes để hỗ trợ cả JSON lẫn Smile/CBOR (xem WireFormat)
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
 
     // Thêm SSL settings khi ở môi trường production
     if (envManager.isProduction()) {
@@ -111,7 +113,7 @@ public class KafkaConfig {
    *
    * @return KafkaProducer instance
    */
-  public KafkaProducer<String, String> getProducer() {
+  public KafkaProducer<String, byte[]> getProducer() {
     return sharedKafkaProducer;
   }
 
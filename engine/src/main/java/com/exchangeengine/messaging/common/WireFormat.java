@@ -0,0 +1,170 @@
+package com.exchangeengine.messaging.common;
+
+import com.exchangeengine.util.EnvManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Định dạng mã hóa value của message Kafka.
+ * JSON là mặc định; Smile/CBOR là định dạng nhị phân của Jackson, được chọn
+ * theo từng topic qua EnvManager và được khai báo cho consumer qua header
+ * {@value #CONTENT_TYPE_HEADER}. Message không có header được coi là JSON.
+ */
+public enum WireFormat {
+  JSON("application/json", ObjectMapper::new),
+  SMILE("application/x-jackson-smile", SmileMapper::new),
+  CBOR("application/cbor", CBORMapper::new);
+
+  public static final String CONTENT_TYPE_HEADER = "content-type";
+  public static final String DEFAULT_FORMAT_ENV = "KAFKA_WIRE_FORMAT";
+  public static final String TOPIC_FORMAT_ENV_PREFIX = "KAFKA_WIRE_FORMAT_";
+
+  private final String contentType;
+  private final byte[] contentTypeBytes;
+  private final Supplier<ObjectMapper> mapperFactory;
+
+  // Khởi tạo lazy để topic chỉ dùng JSON không phải nạp Smile/CBOR
+  private volatile ObjectMapper mapper;
+
+  WireFormat(String contentType, Supplier<ObjectMapper> mapperFactory) {
+    this.contentType = contentType;
+    this.contentTypeBytes = contentType.getBytes(StandardCharsets.UTF_8);
+    this.mapperFactory = mapperFactory;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * Giá trị header content-type đã encode sẵn (không copy, không được sửa).
+   *
+   * @return bytes của content type
+   */
+  public byte[] getContentTypeBytes() {
+    return contentTypeBytes;
+  }
+
+  /**
+   * Mã hóa object thành bytes theo định dạng này.
+   *
+   * @param value object cần mã hóa
+   * @return bytes đã mã hóa
+   * @throws IOException nếu không thể mã hóa
+   */
+  public byte[] encode(Object value) throws IOException {
+    return mapper().writeValueAsBytes(value);
+  }
+
+  /**
+   * Giải mã bytes thành JsonNode theo định dạng này.
+   *
+   * @param data bytes cần giải mã
+   * @return JsonNode
+   * @throws IOException nếu dữ liệu không hợp lệ
+   */
+  public JsonNode decode(byte[] data) throws IOException {
+    return mapper().readTree(data);
+  }
+
+  private ObjectMapper mapper() {
+    ObjectMapper result = mapper;
+    if (result == null) {
+      synchronized (this) {
+        result = mapper;
+        if (result == null) {
+          result = mapperFactory.get();
+          mapper = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Tìm định dạng theo content type, mặc định JSON nếu không nhận ra.
+   *
+   * @param contentType giá trị content type (có thể null)
+   * @return WireFormat tương ứng
+   */
+  public static WireFormat fromContentType(String contentType) {
+    if (contentType == null) {
+      return JSON;
+    }
+    String normalized = contentType.trim().toLowerCase(Locale.ROOT);
+    for (WireFormat format : values()) {
+      if (format.contentType.equals(normalized)) {
+        return format;
+      }
+    }
+    return JSON;
+  }
+
+  /**
+   * Tìm định dạng từ header content-type cuối cùng của record.
+   *
+   * @param headers headers của record (có thể null)
+   * @return WireFormat tương ứng, mặc định JSON
+   */
+  public static WireFormat fromHeaders(Headers headers) {
+    if (headers == null) {
+      return JSON;
+    }
+    Header header = headers.lastHeader(CONTENT_TYPE_HEADER);
+    if (header == null || header.value() == null) {
+      return JSON;
+    }
+    return fromContentType(new String(header.value(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Tìm định dạng theo tên (json, smile, cbor), mặc định JSON nếu không nhận ra.
+   *
+   * @param name tên định dạng
+   * @return WireFormat tương ứng
+   */
+  public static WireFormat fromName(String name) {
+    if (name == null || name.isBlank()) {
+      return JSON;
+    }
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return JSON;
+    }
+  }
+
+  /**
+   * Định dạng cấu hình cho topic output.
+   * Ưu tiên KAFKA_WIRE_FORMAT_&lt;TOPIC&gt; (vd: KAFKA_WIRE_FORMAT_EE_O_TICK_UPDATE),
+   * sau đó KAFKA_WIRE_FORMAT, cuối cùng là JSON.
+   *
+   * @param envManager EnvManager để đọc cấu hình
+   * @param topic      tên topic
+   * @return WireFormat cho topic
+   */
+  public static WireFormat forTopic(EnvManager envManager, String topic) {
+    String defaultFormat = envManager.get(DEFAULT_FORMAT_ENV, "json");
+    return fromName(envManager.get(topicEnvKey(topic), defaultFormat));
+  }
+
+  /**
+   * Tên biến môi trường cấu hình định dạng cho một topic.
+   *
+   * @param topic tên topic (vd: EE.O.tick_update)
+   * @return tên biến môi trường (vd: KAFKA_WIRE_FORMAT_EE_O_TICK_UPDATE)
+   */
+  public static String topicEnvKey(String topic) {
+    return TOPIC_FORMAT_ENV_PREFIX + topic.toUpperCase(Locale.ROOT).replace('.', '_');
+  }
+}
@@ -1,14 +1,22 @@
 package com.exchangeengine.messaging.consumer;
 
+import com.exchangeengine.messaging.common.WireFormat;
 import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.BackupRecord;
 import com.exchangeengine.model.KafkaTopics;
-import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.model.event.AccountEvent;
+import com.exchangeengine.model.event.AccountHistoryQueryEvent;
+import com.exchangeengine.model.event.AmmLiquidityQueryEvent;
+import com.exchangeengine.model.event.AmmSwapQuoteEvent;
+import com.exchangeengine.model.event.AmmTwapQueryEvent;
+import com.exchangeengine.model.event.OfferBookQueryEvent;
 import com.exchangeengine.model.event.TickEvent;
+import com.exchangeengine.storage.BackupService;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
 import com.exchangeengine.util.EnvManager;
 import com.exchangeengine.util.KafkaMessageUtils;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -19,7 +27,6 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,9 +46,8 @@ public class KafkaConsumerQueryService implements Runnable {
   // Singleton instance
   private static volatile KafkaConsumerQueryService instance;
 
-  private final KafkaConsumer<String, String> consumer;
+  private final KafkaConsumer<String, byte[]> consumer;
   private final KafkaProducerService producerService;
-  private final ObjectMapper objectMapper;
   private final ExecutorService queryExecutor;
   private final int queryThreadsCount;
 
@@ -55,7 +61,8 @@ public class KafkaConsumerQueryService implements Runnable {
   public static synchronized KafkaConsumerQueryService getInstance() {
     if (instance == null) {
       int threadCount = Integer.parseInt(envManager.get("KAFKA_QUERY_THREADS", "3"));
-      instance = new KafkaConsumerQueryService("engine-query-group", threadCount);
+      String consumerGroup = envManager.get("KAFKA_QUERY_CONSUMER_GROUP", "engine-query-group");
+      instance = new KafkaConsumerQueryService(consumerGroup, threadCount);
     }
     return instance;
   }
@@ -80,22 +87,23 @@ public class KafkaConsumerQueryService implements Runnable {
 
     this.consumer = new KafkaConsumer<>(props);
     this.producerService = KafkaProducerService.getInstance();
-    this.objectMapper = new ObjectMapper();
 
-    // Subscribe vào các topic query
-    consumer.subscribe(Arrays.asList(KafkaTopics.QUERY_TOPICS));
+    // Subscribe vào các topic query; query replica chỉ nhận các topic chỉ đọc
+    String[] topics = RocksDBConfig.isQueryReplicaMode() ? KafkaTopics.READ_ONLY_QUERY_TOPICS
+        : KafkaTopics.QUERY_TOPICS;
+    consumer.subscribe(Arrays.asList(topics));
     logger.info("KafkaConsumerQueryService initialized and subscribed to query topics: {}",
-        Arrays.toString(KafkaTopics.QUERY_TOPICS));
+        Arrays.toString(topics));
   }
 
   @Override
   public void run() {
     try {
       while (running.get()) {
-        ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
-        for (ConsumerRecord<String, String> record : records) {
+        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+        for (ConsumerRecord<String, byte[]> record : records) {
           // Xử lý tất cả các record trong QUERY_TOPICS bằng ThreadPool
-          final ConsumerRecord<String, String> finalRecord = record;
+          final ConsumerRecord<String, byte[]> finalRecord = record;
           queryExecutor.submit(() -> {
             try {
               processQueryRecord(finalRecord);
@@ -130,9 +138,9 @@ public class KafkaConsumerQueryService implements Runnable {
    *
    * @param record Record cần xử lý
    */
-  private void processQueryRecord(ConsumerRecord<String, String> record) {
+  private void processQueryRecord(ConsumerRecord<String, byte[]> record) {
     try {
-      JsonNode messageJson = objectMapper.readTree(record.value());
+      JsonNode messageJson = WireFormat.fromHeaders(record.headers()).decode(record.value());
       logger.debug("Processing query: topic={}, partition={}, offset={}, key={}, value={}",
           record.topic(), record.partition(), record.offset(), record.key(), messageJson);
 
@@ -143,9 +151,27 @@ public class KafkaConsumerQueryService implements Runnable {
         case KafkaTopics.RESET_BALANCE_TOPIC:
           processResetBalanceRequest(messageJson);
           break;
+        case KafkaTopics.BACKUP_TOPIC:
+          processBackupRequest(messageJson);
+          break;
         case KafkaTopics.TICK_QUERY_TOPIC:
           processTickQuery(messageJson);
           break;
+        case KafkaTopics.ACCOUNT_HISTORY_QUERY_TOPIC:
+          processAccountHistoryQuery(messageJson);
+          break;
+        case KafkaTopics.AMM_SWAP_QUOTE_TOPIC:
+          processAmmSwapQuote(messageJson);
+          break;
+        case KafkaTopics.AMM_LIQUIDITY_QUERY_TOPIC:
+          processAmmLiquidityQuery(messageJson);
+          break;
+        case KafkaTopics.AMM_TWAP_QUERY_TOPIC:
+          processAmmTwapQuery(messageJson);
+          break;
+        case KafkaTopics.OFFER_BOOK_QUERY_TOPIC:
+          processOfferBookQuery(messageJson);
+          break;
         default:
           logger.warn("Cannot process topic: {}", record.topic());
       }
@@ -191,6 +217,28 @@ public class KafkaConsumerQueryService implements Runnable {
     }, producerService, LOGGER_CONTEXT);
   }
 
+  /**
+   * Xử lý yêu cầu backup database. Backup chạy trên thread của BackupService,
+   * kết quả được gửi về BACKUP_RESULT_TOPIC khi xong.
+   *
+   * @param messageJson Nội dung yêu cầu, type là checkpoint hoặc backup
+   */
+  private void processBackupRequest(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      String type = messageJson.path("type").asText(BackupRecord.TYPE_BACKUP);
+      if (!BackupRecord.TYPE_CHECKPOINT.equals(type) && !BackupRecord.TYPE_BACKUP.equals(type)) {
+        throw new IllegalArgumentException("type must be checkpoint or backup");
+      }
+
+      logger.info("Processing backup request: type={}", type);
+      BackupService.getInstance().trigger(type).whenComplete((record, error) -> {
+        if (error == null) {
+          producerService.sendBackupResult(record);
+        }
+      });
+    }, producerService, LOGGER_CONTEXT);
+  }
+
   /**
    * Process tick query request
    *
@@ -203,16 +251,100 @@ public class KafkaConsumerQueryService implements Runnable {
       tickEvent.validate();
 
       String poolPair = tickEvent.getPoolPair();
-      logger.debug("Processing query for ticks in pool: {}", poolPair);
+      logger.debug("Processing query for ticks in pool: {}, cursor={}, pageSize={}", poolPair,
+          tickEvent.getCursor(), tickEvent.getPageSize());
 
-      // Get ticks from bitmap
-      List<Tick> ticks = tickEvent.fetchTicksFromBitmap();
+      // Gửi một trang snapshot trong một message thay vì mỗi tick một message
+      TickDelta snapshot = tickEvent.fetchTickSnapshot();
+      snapshot.setInputEventId(tickEvent.getEventId());
+      producerService.sendTickDelta(snapshot);
 
-      // Send each tick to Kafka
-      for (Tick tick : ticks) {
-        producerService.sendTickUpdate(tick);
-      }
+    }, producerService, LOGGER_CONTEXT);
+  }
+
+  /**
+   * Xử lý truy vấn lịch sử giao dịch của account
+   *
+   * @param messageJson Nội dung truy vấn
+   */
+  private void processAccountHistoryQuery(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      AccountHistoryQueryEvent queryEvent = new AccountHistoryQueryEvent().parserData(messageJson);
+      queryEvent.validate();
+
+      logger.debug("Processing history query: accountKey={}, fromTime={}, toTime={}, cursor={}, limit={}",
+          queryEvent.getAccountKey(), queryEvent.getFromTime(), queryEvent.getToTime(), queryEvent.getCursor(),
+          queryEvent.getLimit());
+
+      producerService.sendAccountHistoryPage(queryEvent.fetchPage());
+    }, producerService, LOGGER_CONTEXT);
+  }
+
+  /**
+   * Xử lý truy vấn báo giá swap AMM trên read snapshot
+   *
+   * @param messageJson Nội dung truy vấn
+   */
+  private void processAmmSwapQuote(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      AmmSwapQuoteEvent quoteEvent = new AmmSwapQuoteEvent().parserData(messageJson);
+      quoteEvent.validate();
+
+      logger.debug("Processing swap quote: poolPair={}, zeroForOne={}, amountSpecified={}",
+          quoteEvent.getPoolPair(), quoteEvent.getZeroForOne(), quoteEvent.getAmountSpecified());
+
+      producerService.sendAmmSwapQuote(quoteEvent.fetchQuote());
+    }, producerService, LOGGER_CONTEXT);
+  }
+
+  /**
+   * Xử lý truy vấn thanh khoản / depth chart của pool
+   *
+   * @param messageJson Nội dung truy vấn
+   */
+  private void processAmmLiquidityQuery(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      AmmLiquidityQueryEvent queryEvent = new AmmLiquidityQueryEvent().parserData(messageJson);
+      queryEvent.validate();
+
+      logger.debug("Processing liquidity query: poolPair={}, tickLower={}, tickUpper={}, buckets={}",
+          queryEvent.getPoolPair(), queryEvent.getTickLower(), queryEvent.getTickUpper(), queryEvent.getBuckets());
+
+      producerService.sendAmmLiquidityDepth(queryEvent.fetchDepth());
+    }, producerService, LOGGER_CONTEXT);
+  }
+
+  /**
+   * Xử lý truy vấn TWAP / volatility của pool
+   *
+   * @param messageJson Nội dung truy vấn
+   */
+  private void processAmmTwapQuery(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      AmmTwapQueryEvent queryEvent = new AmmTwapQueryEvent().parserData(messageJson);
+      queryEvent.validate();
+
+      logger.debug("Processing TWAP query: poolPair={}, windowSeconds={}",
+          queryEvent.getPoolPair(), queryEvent.getWindowSeconds());
+
+      producerService.sendAmmTwap(queryEvent.fetchTwap());
+    }, producerService, LOGGER_CONTEXT);
+  }
+
+  /**
+   * Xử lý truy vấn sổ offer P2P
+   *
+   * @param messageJson Nội dung truy vấn
+   */
+  private void processOfferBookQuery(JsonNode messageJson) {
+    KafkaMessageUtils.processWithErrorHandling(messageJson, () -> {
+      OfferBookQueryEvent queryEvent = new OfferBookQueryEvent().parserData(messageJson);
+      queryEvent.validate();
+
+      logger.debug("Processing offer book query: symbol={}, offerType={}",
+          queryEvent.getSymbol(), queryEvent.getOfferType());
 
+      producerService.sendOfferBook(queryEvent.fetchOfferBook());
     }, producerService, LOGGER_CONTEXT);
   }
 
@@ -1,5 +1,6 @@
 package com.exchangeengine.messaging.consumer;
 
+import com.exchangeengine.messaging.common.WireFormat;
 import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.model.event.AccountEvent;
 import com.exchangeengine.model.event.AmmPoolEvent;
@@ -13,7 +14,6 @@ import com.exchangeengine.model.KafkaTopics;
 import com.exchangeengine.service.engine.EngineHandler;
 import com.exchangeengine.util.KafkaMessageUtils;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -24,7 +24,10 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -40,13 +43,15 @@ public class KafkaConsumerService implements Runnable {
   // Singleton instance
   private static volatile KafkaConsumerService instance;
 
-  private final KafkaConsumer<String, String> consumer;
+  private final KafkaConsumer<String, byte[]> consumer;
   private final EngineHandler engineHandler;
   private final KafkaProducerService producerService;
-  private final ObjectMapper objectMapper;
 
   private final AtomicBoolean running = new AtomicBoolean(true);
 
+  // Offset tiếp theo của từng topic-partition đã đưa vào Disruptor, key "topic-partition"
+  private final Map<String, Long> consumedOffsets = new ConcurrentHashMap<>();
+
   /**
    * Lấy instance của KafkaConsumerService.
    *
@@ -93,7 +98,6 @@ public class KafkaConsumerService implements Runnable {
     this.consumer = new KafkaConsumer<>(props);
     this.engineHandler = EngineHandler.getInstance();
     this.producerService = KafkaProducerService.getInstance();
-    this.objectMapper = new ObjectMapper();
 
     // Subscribe vào các topic xử lý logic
     consumer.subscribe(Arrays.asList(KafkaTopics.LOGIC_TOPICS));
@@ -105,11 +109,12 @@ public class KafkaConsumerService implements Runnable {
   public void run() {
     try {
       while (running.get()) {
-        ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
-        for (ConsumerRecord<String, String> record : records) {
+        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+        for (ConsumerRecord<String, byte[]> record : records) {
           try {
             processRecord(record);
             consumer.commitSync();
+            consumedOffsets.put(record.topic() + "-" + record.partition(), record.offset() + 1);
           } catch (Exception e) {
             logger.error("Error processing record: {}", e.getMessage(), e);
           }
@@ -128,14 +133,24 @@ public class KafkaConsumerService implements Runnable {
     }
   }
 
+  /**
+   * Offset tiếp theo của từng topic-partition mà record trước đó đã được đưa vào
+   * Disruptor.
+   *
+   * @return Map "topic-partition" -&gt; offset
+   */
+  public Map<String, Long> getConsumedOffsets() {
+    return new TreeMap<>(consumedOffsets);
+  }
+
   /**
    * Process a record from Kafka.
    *
    * @param record Record to process
    */
-  private void processRecord(ConsumerRecord<String, String> record) {
+  private void processRecord(ConsumerRecord<String, byte[]> record) {
     try {
-      JsonNode messageJson = objectMapper.readTree(record.value());
+      JsonNode messageJson = WireFormat.fromHeaders(record.headers()).decode(record.value());
 
       logger.debug("Received message: topic={}, partition={}, offset={}, key={}, value={}",
           record.topic(), record.partition(), record.offset(), record.key(), messageJson);
@@ -1,12 +1,23 @@
 package com.exchangeengine.messaging.producer;
 
 import com.exchangeengine.messaging.common.KafkaConfig;
+import com.exchangeengine.messaging.common.WireFormat;
 import com.exchangeengine.model.Account;
+import com.exchangeengine.model.AccountHistoryPage;
+import com.exchangeengine.model.AmmLiquidityDepth;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.AmmTwap;
+import com.exchangeengine.model.AmmPositionFee;
+import com.exchangeengine.model.BackupRecord;
+import com.exchangeengine.model.Candle;
 import com.exchangeengine.model.event.DisruptorEvent;
 import com.exchangeengine.model.KafkaTopics;
+import com.exchangeengine.model.OfferBook;
 import com.exchangeengine.model.ProcessResult;
 import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.storage.StorageService;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
 import com.exchangeengine.util.EnvManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -15,9 +26,11 @@ import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -35,10 +48,13 @@ public class KafkaProducerService {
   // Singleton instance
   private static volatile KafkaProducerService instance;
 
-  private final KafkaProducer<String, String> producer;
+  private final KafkaProducer<String, byte[]> producer;
   private final StorageService storageService;
   private final ObjectMapper objectMapper;
 
+  // Cache định dạng wire theo topic, đọc từ EnvManager (xem WireFormat.forTopic)
+  private final Map<String, WireFormat> topicWireFormats = new ConcurrentHashMap<>();
+
   /**
    * Lấy instance của KafkaProducerService.
    *
@@ -73,7 +89,7 @@ public class KafkaProducerService {
    *
    * @param producer KafkaProducer được truyền vào
    */
-  private KafkaProducerService(KafkaProducer<String, String> producer) {
+  private KafkaProducerService(KafkaProducer<String, byte[]> producer) {
     this.producer = producer;
     this.storageService = StorageService.getInstance();
     this.objectMapper = new ObjectMapper();
@@ -88,6 +104,18 @@ public class KafkaProducerService {
 
   public void setEnvManager(EnvManager envManager) {
     this.envManager = envManager;
+    this.topicWireFormats.clear();
+  }
+
+  /**
+   * Lấy định dạng wire đang dùng cho một topic output.
+   * JSON là mặc định, có thể chuyển sang Smile/CBOR qua KAFKA_WIRE_FORMAT_<TOPIC>.
+   *
+   * @param topic tên topic
+   * @return WireFormat của topic
+   */
+  public WireFormat getWireFormat(String topic) {
+    return topicWireFormats.computeIfAbsent(topic, t -> WireFormat.forTopic(envManager, t));
   }
 
   public void sendCoinAccountBalance(String accountKey) {
@@ -230,6 +258,158 @@ public class KafkaProducerService {
     sendEventToKafka(KafkaTopics.TICK_UPDATE_TOPIC, kafkaKey, message);
   }
 
+  /**
+   * Gửi tất cả ticks thay đổi của một pool trong một message (delta hoặc trang
+   * snapshot) thay vì mỗi tick một message.
+   * Nếu bật KAFKA_TICK_UPDATE_PER_TICK, vẫn gửi thêm từng tick lên
+   * EE.O.tick_update cho các consumer cũ.
+   *
+   * @param tickDelta Delta cần gửi
+   */
+  public void sendTickDelta(TickDelta tickDelta) {
+    if (tickDelta == null || tickDelta.getPoolPair() == null) {
+      logger.debug("No tick delta to send");
+      return;
+    }
+
+    String kafkaKey = "tick-delta-" + tickDelta.getPoolPair();
+    sendEventToKafka(KafkaTopics.TICK_DELTA_TOPIC, kafkaKey, tickDelta.toMessageJson());
+
+    if (isPerTickUpdateEnabled()) {
+      tickDelta.getTicks().forEach(this::sendTickUpdate);
+    }
+  }
+
+  /**
+   * Gửi một trang lịch sử giao dịch của account lên EE.O.account_history.
+   *
+   * @param page Trang lịch sử cần gửi
+   */
+  public void sendAccountHistoryPage(AccountHistoryPage page) {
+    if (page == null || page.getAccountKey() == null) {
+      logger.debug("No account history page to send");
+      return;
+    }
+
+    String kafkaKey = "account-history-" + page.getAccountKey();
+    sendEventToKafka(KafkaTopics.ACCOUNT_HISTORY_TOPIC, kafkaKey, page.toMessageJson());
+  }
+
+  /**
+   * Gửi kết quả báo giá swap lên EE.O.amm_swap_quote.
+   *
+   * @param quote Báo giá cần gửi
+   */
+  public void sendAmmSwapQuote(AmmSwapQuote quote) {
+    if (quote == null || quote.getPoolPair() == null) {
+      logger.debug("No swap quote to send");
+      return;
+    }
+
+    String kafkaKey = "amm-swap-quote-" + quote.getPoolPair();
+    sendEventToKafka(KafkaTopics.AMM_SWAP_QUOTE_RESULT_TOPIC, kafkaKey, quote.toMessageJson());
+  }
+
+  /**
+   * Gửi kết quả liquidity query (khoảng tick và depth chart) lên EE.O.amm_liquidity.
+   *
+   * @param depth Kết quả cần gửi
+   */
+  public void sendAmmLiquidityDepth(AmmLiquidityDepth depth) {
+    if (depth == null || depth.getPoolPair() == null) {
+      logger.debug("No liquidity depth to send");
+      return;
+    }
+
+    String kafkaKey = "amm-liquidity-" + depth.getPoolPair();
+    sendEventToKafka(KafkaTopics.AMM_LIQUIDITY_TOPIC, kafkaKey, depth.toMessageJson());
+  }
+
+  /**
+   * Gửi kết quả TWAP query lên EE.O.amm_twap.
+   *
+   * @param twap Kết quả cần gửi
+   */
+  public void sendAmmTwap(AmmTwap twap) {
+    if (twap == null || twap.getPoolPair() == null) {
+      logger.debug("No TWAP to send");
+      return;
+    }
+
+    String kafkaKey = "amm-twap-" + twap.getPoolPair();
+    sendEventToKafka(KafkaTopics.AMM_TWAP_TOPIC, kafkaKey, twap.toMessageJson());
+  }
+
+  /**
+   * Gửi kết quả offer book query lên EE.O.offer_book.
+   *
+   * @param offerBook Kết quả cần gửi
+   */
+  public void sendOfferBook(OfferBook offerBook) {
+    if (offerBook == null || offerBook.getSymbol() == null) {
+      logger.debug("No offer book to send");
+      return;
+    }
+
+    String kafkaKey = "offer-book-" + offerBook.getSymbol();
+    sendEventToKafka(KafkaTopics.OFFER_BOOK_TOPIC, kafkaKey, offerBook.toMessageJson());
+  }
+
+  /**
+   * Gửi nến OHLCV vừa đóng lên EE.O.candle_close.
+   * Key theo market để các nến của một market giữ đúng thứ tự.
+   *
+   * @param candle Nến cần gửi
+   */
+  public void sendCandleClose(Candle candle) {
+    if (candle == null || candle.getMarket() == null) {
+      logger.debug("No candle to send");
+      return;
+    }
+
+    String kafkaKey = "candle-" + candle.getMarket();
+    sendEventToKafka(KafkaTopics.CANDLE_CLOSE_TOPIC, kafkaKey, candle.toMessageJson());
+  }
+
+  /**
+   * Gửi báo cáo phí chưa thu của một AMM position
+   *
+   * @param positionFee Phí tích lũy của position
+   */
+  public void sendAmmPositionFee(AmmPositionFee positionFee) {
+    if (positionFee == null || positionFee.getIdentifier() == null) {
+      logger.debug("No position fee to send");
+      return;
+    }
+
+    String kafkaKey = "amm-position-fee-" + positionFee.getIdentifier();
+    sendEventToKafka(KafkaTopics.AMM_POSITION_FEE_TOPIC, kafkaKey, positionFee.toMessageJson());
+  }
+
+  /**
+   * Gửi kết quả backup database
+   *
+   * @param record Thông tin backup đã tạo
+   */
+  public void sendBackupResult(BackupRecord record) {
+    if (record == null) {
+      logger.debug("No backup result to send");
+      return;
+    }
+
+    String kafkaKey = "backup-" + record.getType() + "-" + record.getCreatedAt();
+    sendEventToKafka(KafkaTopics.BACKUP_RESULT_TOPIC, kafkaKey, record.toMessageJson());
+  }
+
+  /**
+   * Có gửi thêm message từng tick (định dạng cũ) hay không.
+   *
+   * @return true nếu KAFKA_TICK_UPDATE_PER_TICK=true
+   */
+  public boolean isPerTickUpdateEnabled() {
+    return envManager.getBoolean("KAFKA_TICK_UPDATE_PER_TICK", false);
+  }
+
   /**
    * Reset balance for development and test environment only.
    *
@@ -242,6 +422,7 @@ public class KafkaProducerService {
     if ("development".equals(appEnv) || "test".equals(appEnv)) {
       logger.info("Resetting account balance for accountKey={} in {} environment", accountKey, appEnv);
       storageService.getAccountCache().resetAccount(accountKey);
+      ReadSnapshotCache.getInstance().invalidateAccount(accountKey);
     } else {
       logger.info("Cannot reset balance in '{}' environment: accountKey={}", appEnv, accountKey);
     }
@@ -313,9 +494,11 @@ public class KafkaProducerService {
       if (message.get("messageId") == null) {
         message.put("messageId", UUID.randomUUID().toString());
       }
-      String newMessageJson = objectMapper.writeValueAsString(message);
+      WireFormat wireFormat = getWireFormat(topic);
+      byte[] payload = encodeMessage(wireFormat, message);
 
-      ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, newMessageJson);
+      ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+      record.headers().add(WireFormat.CONTENT_TYPE_HEADER, wireFormat.getContentTypeBytes());
 
       Future<RecordMetadata> future = producer.send(record, (metadata, exception) -> {
         if (exception != null) {
@@ -333,13 +516,28 @@ public class KafkaProducerService {
       });
 
       RecordMetadata metadata = future.get();
-      logger.info("Send event {} to Kafka: message={}, partition={}, offset={}", topic, newMessageJson,
-          metadata.partition(), metadata.offset());
+      logger.info("Send event {} to Kafka: format={}, bytes={}, message={}, partition={}, offset={}", topic,
+          wireFormat, payload.length, message, metadata.partition(), metadata.offset());
     } catch (Exception e) {
       logger.error("Error sending event to Kafka: {}, message: {}", e.getMessage(), message);
     }
   }
 
+  /**
+   * Mã hóa message theo định dạng wire của topic.
+   *
+   * @param wireFormat định dạng wire
+   * @param message    message
+   * @return bytes đã mã hóa
+   * @throws IOException nếu không thể mã hóa
+   */
+  private byte[] encodeMessage(WireFormat wireFormat, Map<String, Object> message) throws IOException {
+    if (wireFormat == WireFormat.JSON) {
+      return objectMapper.writeValueAsBytes(message);
+    }
+    return wireFormat.encode(message);
+  }
+
   /**
    * generate message json.
    *
@@ -363,7 +561,8 @@ public class KafkaProducerService {
    * @return message json
    */
   private Map<String, Object> generateBalanceUpdateMessageJson(String accountKey) {
-    Optional<Account> account = storageService.getAccountCache().getAccount(accountKey);
+    // Query thread chỉ đọc snapshot, không đọc Account mà engine đang sửa
+    Optional<Account> account = ReadSnapshotCache.getInstance().getAccount(accountKey);
     if (account.isPresent()) {
       return account.get().toMessageJson();
     } else {
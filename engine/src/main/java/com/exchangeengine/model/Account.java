@@ -1,32 +1,49 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Account {
-  private static final int DEFAULT_SCALE = 16;
-
   private String key;
-  private BigDecimal availableBalance;
-  private BigDecimal frozenBalance;
+
+  /**
+   * Số dư lưu dạng fixed-scale 128 bit để cộng/trừ không tạo object. JSON vẫn
+   * là số thập phân như khi field còn là BigDecimal.
+   */
+  @JsonSerialize(using = FixedScaleBalance.Serializer.class)
+  @JsonDeserialize(using = FixedScaleBalance.Deserializer.class)
+  private FixedScaleBalance availableBalance;
+  @JsonSerialize(using = FixedScaleBalance.Serializer.class)
+  @JsonDeserialize(using = FixedScaleBalance.Deserializer.class)
+  private FixedScaleBalance frozenBalance;
   private long createdAt;
   private long updatedAt;
 
+  // BigDecimal trả ra cho getter, tạo lại sau mỗi lần số dư thay đổi
+  private transient BigDecimal availableView;
+  private transient BigDecimal frozenView;
+  // Dùng lại để đổi amount đầu vào sang fixed-scale
+  private final transient FixedScaleBalance scratch = new FixedScaleBalance();
+  // Phiên bản record trong bảng số dư của AccountCache mà Account được đọc từ
+  // đó hoặc vừa ghi vào, 0 nếu chưa từng đi qua bảng. Không serialize.
+  private transient long version;
+
   /**
    * Constructor không tham số cho Jackson deserialization
    */
   public Account() {
-    this.availableBalance = BigDecimal.ZERO.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.frozenBalance = BigDecimal.ZERO.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.createdAt = Instant.now().toEpochMilli();
+    this.availableBalance = new FixedScaleBalance();
+    this.frozenBalance = new FixedScaleBalance();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -38,70 +55,66 @@ public class Account {
     this.key = key;
   }
 
+  /**
+   * Dựng lại Account từ số dư fixed-scale đã lưu (bảng số dư off-heap của
+   * AccountCache), không đi qua BigDecimal.
+   */
+  public static Account restore(String key, long availableHi, long availableLo, long frozenHi, long frozenLo,
+      long createdAt, long updatedAt, long version) {
+    Account account = new Account(key);
+    account.availableBalance.set(availableHi, availableLo);
+    account.frozenBalance.set(frozenHi, frozenLo);
+    account.createdAt = createdAt;
+    account.updatedAt = updatedAt;
+    account.version = version;
+    return account;
+  }
+
   /**
    * Lấy tổng số dư (available + frozen)
    */
   public BigDecimal getTotalBalance() {
-    return availableBalance.add(frozenBalance).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    FixedScaleBalance total = new FixedScaleBalance();
+    total.set(availableBalance);
+    total.add(frozenBalance);
+    return total.toBigDecimal();
   }
 
   /**
    * Tăng số dư khả dụng
    */
   public void increaseAvailableBalance(BigDecimal amount) {
-    if (amount == null) {
-      throw new IllegalArgumentException("Amount cannot be null");
-    }
-
-    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    FixedScaleBalance scaledAmount = toScaledAmount(amount, "Amount must be greater than or equal to zero");
 
-    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Amount must be greater than or equal to zero");
-    }
-
-    this.availableBalance = this.availableBalance.add(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.updatedAt = Instant.now().toEpochMilli();
+    availableBalance.add(scaledAmount);
+    availableView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
    * Giảm số dư khả dụng
    */
   public void decreaseAvailableBalance(BigDecimal amount) {
-    if (amount == null) {
-      throw new IllegalArgumentException("Amount cannot be null");
-    }
-
-    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-
-    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Amount must be greater than or equal to zero");
-    }
+    FixedScaleBalance scaledAmount = toScaledAmount(amount, "Amount must be greater than or equal to zero");
 
-    if (this.availableBalance.compareTo(scaledAmount) < 0) {
+    if (availableBalance.compareTo(scaledAmount) < 0) {
       throw new IllegalArgumentException("Available balance is not enough to decrease");
     }
 
-    this.availableBalance = this.availableBalance.subtract(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.updatedAt = Instant.now().toEpochMilli();
+    availableBalance.subtract(scaledAmount);
+    availableView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
    * Tăng số dư đóng băng
    */
   public void increaseFrozenBalance(BigDecimal amount) {
-    if (amount == null) {
-      throw new IllegalArgumentException("Amount cannot be null");
-    }
-
-    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE,
-        RoundingMode.HALF_UP);
+    FixedScaleBalance scaledAmount = toScaledAmount(amount, "Amount must be greater than or equal to  zero");
 
-    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Amount must be greater than or equal to  zero");
-    }
-
-    this.frozenBalance = this.frozenBalance.add(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.updatedAt = Instant.now().toEpochMilli();
+    frozenBalance.add(scaledAmount);
+    frozenView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
@@ -116,42 +129,34 @@ public class Account {
       throw new IllegalArgumentException("Identifier cannot be null or empty");
     }
 
-    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-
-    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Amount must be greater than or equal to zero");
-    }
+    FixedScaleBalance scaledAmount = toScaledAmount(amount, "Amount must be greater than or equal to zero");
 
-    if (this.availableBalance.compareTo(scaledAmount) < 0) {
+    if (availableBalance.compareTo(scaledAmount) < 0) {
       throw new IllegalArgumentException(
-          "Available balance is not enough to lock available balance: " + this.availableBalance + " amount: " + scaledAmount);
+          "Available balance is not enough to lock available balance: " + availableBalance.toBigDecimal()
+              + " amount: " + scaledAmount.toBigDecimal());
     }
 
-    this.availableBalance = this.availableBalance.subtract(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.frozenBalance = this.frozenBalance.add(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.updatedAt = Instant.now().toEpochMilli();
+    availableBalance.subtract(scaledAmount);
+    frozenBalance.add(scaledAmount);
+    availableView = null;
+    frozenView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
    * Giảm số dư đóng băng
    */
   public void decreaseFrozenBalance(BigDecimal amount) {
-    if (amount == null) {
-      throw new IllegalArgumentException("Amount cannot be null");
-    }
-
-    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    FixedScaleBalance scaledAmount = toScaledAmount(amount, "Amount must be greater than or equal to zero");
 
-    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Amount must be greater than or equal to zero");
-    }
-
-    if (this.frozenBalance.compareTo(scaledAmount) < 0) {
+    if (frozenBalance.compareTo(scaledAmount) < 0) {
       throw new IllegalArgumentException("Frozen balance is not enough to decrease");
     }
 
-    this.frozenBalance = this.frozenBalance.subtract(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
-    this.updatedAt = Instant.now().toEpochMilli();
+    frozenBalance.subtract(scaledAmount);
+    frozenView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
@@ -162,6 +167,22 @@ public class Account {
     increaseAvailableBalance(amount);
   }
 
+  /**
+   * Đổi amount sang fixed-scale trong scratch, kiểm tra null và số âm
+   */
+  private FixedScaleBalance toScaledAmount(BigDecimal amount, String negativeMessage) {
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount cannot be null");
+    }
+
+    scratch.set(amount);
+
+    if (scratch.signum() < 0) {
+      throw new IllegalArgumentException(negativeMessage);
+    }
+    return scratch;
+  }
+
   // Getters and Setters
   public String getKey() {
     return key;
@@ -169,11 +190,16 @@ public class Account {
 
   public void setKey(String key) {
     this.key = key;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   public BigDecimal getAvailableBalance() {
-    return availableBalance;
+    BigDecimal view = availableView;
+    if (view == null) {
+      view = availableBalance.toBigDecimal();
+      availableView = view;
+    }
+    return view;
   }
 
   public void setAvailableBalance(BigDecimal availableBalance) {
@@ -181,18 +207,24 @@ public class Account {
       throw new IllegalArgumentException("Available balance cannot be null");
     }
 
-    BigDecimal scaledBalance = availableBalance.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    scratch.set(availableBalance);
 
-    if (scaledBalance.compareTo(BigDecimal.ZERO) < 0) {
+    if (scratch.signum() < 0) {
       throw new IllegalArgumentException("Available balance cannot be negative");
     }
 
-    this.availableBalance = scaledBalance;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.availableBalance.set(scratch);
+    this.availableView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   public BigDecimal getFrozenBalance() {
-    return frozenBalance;
+    BigDecimal view = frozenView;
+    if (view == null) {
+      view = frozenBalance.toBigDecimal();
+      frozenView = view;
+    }
+    return view;
   }
 
   public void setFrozenBalance(BigDecimal frozenBalance) {
@@ -200,14 +232,29 @@ public class Account {
       throw new IllegalArgumentException("Frozen balance cannot be null");
     }
 
-    BigDecimal scaledBalance = frozenBalance.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    scratch.set(frozenBalance);
 
-    if (scaledBalance.compareTo(BigDecimal.ZERO) < 0) {
+    if (scratch.signum() < 0) {
       throw new IllegalArgumentException("Frozen balance cannot be negative");
     }
 
-    this.frozenBalance = scaledBalance;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.frozenBalance.set(scratch);
+    this.frozenView = null;
+    this.updatedAt = EventClock.currentTimeMillis();
+  }
+
+  /**
+   * Số dư khả dụng dạng fixed-scale, chỉ để đọc (không sửa trực tiếp)
+   */
+  public FixedScaleBalance getAvailableFixed() {
+    return availableBalance;
+  }
+
+  /**
+   * Số dư đóng băng dạng fixed-scale, chỉ để đọc (không sửa trực tiếp)
+   */
+  public FixedScaleBalance getFrozenFixed() {
+    return frozenBalance;
   }
 
   public long getCreatedAt() {
@@ -226,6 +273,17 @@ public class Account {
     this.updatedAt = updatedAt;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Chỉ AccountCache gán version khi ghi Account vào bảng số dư
+   */
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   /**
    * Convert to message json
    *
@@ -253,8 +311,8 @@ public class Account {
   public String toString() {
     return "Account{" +
         "key='" + key + '\'' +
-        ", availableBalance=" + availableBalance +
-        ", frozenBalance=" + frozenBalance +
+        ", availableBalance=" + getAvailableBalance() +
+        ", frozenBalance=" + getFrozenBalance() +
         ", createdAt=" + createdAt +
         ", updatedAt=" + updatedAt +
         '}';
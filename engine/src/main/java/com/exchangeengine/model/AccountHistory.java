@@ -1,10 +1,13 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.apache.commons.codec.digest.MurmurHash3;
 
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class AccountHistory {
@@ -15,12 +18,18 @@ public class AccountHistory {
   private String availableBalance; // Format: "previous|new|diff" (ví dụ: "100.0|110.0|10.0")
   private String frozenBalance; // Format: "previous|new|diff" (ví dụ: "50.0|40.0|-10.0")
   private long timestamp;
+  // Phân biệt các history cùng account trong cùng một millisecond, lấy từ
+  // sequence của event để replay ghi đè đúng history cũ
+  private long sequence;
+
+  // Byte ngăn cách accountKey và timestamp trong key nhị phân
+  private static final byte KEY_SEPARATOR = 0;
 
   /**
    * Constructor không tham số cho Jackson deserialization
    */
   public AccountHistory() {
-    this.timestamp = Instant.now().toEpochMilli();
+    this.timestamp = EventClock.currentTimeMillis();
   }
 
   /**
@@ -31,6 +40,7 @@ public class AccountHistory {
     this.accountKey = accountKey;
     this.identifier = identifier;
     this.operationType = operationType;
+    this.sequence = EventClock.nextSequence();
     this.key = generateKey(accountKey, identifier, this.timestamp);
   }
 
@@ -39,7 +49,7 @@ public class AccountHistory {
    */
   public static String generateHashedPrefix(String accountKey) {
     // Sử dụng MurmurHash3 từ Apache Commons Codec
-    long[] hash128 = MurmurHash3.hash128(accountKey.getBytes());
+    long[] hash128 = MurmurHash3.hash128(accountKey.getBytes(StandardCharsets.UTF_8));
     String prefix = String.format("%016X", hash128[0]).substring(0, 8);
     return prefix.toLowerCase();
   }
@@ -63,6 +73,87 @@ public class AccountHistory {
     return hashedPrefix;
   }
 
+  /**
+   * Prefix nhị phân của account trong RocksDB:
+   * {hash 8 byte}{accountKey UTF-8}{0x00}.
+   * 8 byte hash khớp với fixed prefix extractor của column family history.
+   */
+  public static byte[] generateBinaryAccountPrefix(String accountKey) {
+    byte[] accountBytes = accountKey.getBytes(StandardCharsets.UTF_8);
+    long[] hash128 = MurmurHash3.hash128(accountBytes);
+    return ByteBuffer.allocate(Long.BYTES + accountBytes.length + 1)
+        .putLong(hash128[0])
+        .put(accountBytes)
+        .put(KEY_SEPARATOR)
+        .array();
+  }
+
+  /**
+   * Key nhị phân lưu trong RocksDB - Format:
+   * {prefix nhị phân}{timestamp big-endian 8 byte}{sequence big-endian 8 byte}.
+   * Các history của một account nằm liền nhau và sắp xếp theo thời gian.
+   */
+  public static byte[] generateBinaryKey(String accountKey, long timestamp, long sequence) {
+    byte[] prefix = generateBinaryAccountPrefix(accountKey);
+    return ByteBuffer.allocate(prefix.length + Long.BYTES * 2)
+        .put(prefix)
+        .putLong(timestamp)
+        .putLong(sequence)
+        .array();
+  }
+
+  /**
+   * Key chặn theo thời gian (không có sequence): đứng trước mọi history của
+   * account có timestamp >= timestamp đã cho.
+   */
+  public static byte[] generateBinaryTimeBound(String accountKey, long timestamp) {
+    byte[] prefix = generateBinaryAccountPrefix(accountKey);
+    return ByteBuffer.allocate(prefix.length + Long.BYTES)
+        .put(prefix)
+        .putLong(timestamp)
+        .array();
+  }
+
+  /**
+   * Chuyển cursor {timestamp}-{sequence} thành key nhị phân của account.
+   *
+   * @throws IllegalArgumentException nếu cursor sai định dạng
+   */
+  public static byte[] cursorToBinaryKey(String accountKey, String cursor) {
+    int separator = cursor.indexOf('-');
+    if (separator <= 0 || separator == cursor.length() - 1) {
+      throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+    }
+    try {
+      long cursorTimestamp = Long.parseLong(cursor.substring(0, separator));
+      long cursorSequence = Long.parseLong(cursor.substring(separator + 1));
+      return generateBinaryKey(accountKey, cursorTimestamp, cursorSequence);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+    }
+  }
+
+  /**
+   * Key nhị phân luôn có byte 0x00 ngăn cách ngay trước 16 byte
+   * timestamp/sequence; key chuỗi cũ chỉ gồm ký tự ASCII nên không có byte 0.
+   */
+  public static boolean isBinaryKey(byte[] key) {
+    return key.length > Long.BYTES * 3 && key[key.length - Long.BYTES * 2 - 1] == KEY_SEPARATOR;
+  }
+
+  @JsonIgnore
+  public byte[] getBinaryKey() {
+    return generateBinaryKey(accountKey, timestamp, sequence);
+  }
+
+  /**
+   * Cursor phân trang của history - Format: {timestamp}-{sequence}
+   */
+  @JsonIgnore
+  public String getCursor() {
+    return timestamp + "-" + sequence;
+  }
+
   /**
    * Thiết lập giá trị availableBalance và frozenBalance
    */
@@ -161,6 +252,14 @@ public class AccountHistory {
     this.timestamp = timestamp;
   }
 
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
   @Override
   public String toString() {
     return "AccountHistory{" +
@@ -171,6 +270,7 @@ public class AccountHistory {
         ", availableBalance='" + availableBalance + '\'' +
         ", frozenBalance='" + frozenBalance + '\'' +
         ", timestamp=" + timestamp +
+        ", sequence=" + sequence +
         '}';
   }
 }
@@ -0,0 +1,63 @@
+package com.exchangeengine.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một trang lịch sử giao dịch của account trả về cho history query.
+ * nextCursor = null nếu không còn trang sau.
+ */
+@Data
+@NoArgsConstructor
+public class AccountHistoryPage {
+  private String accountKey;
+  private String inputEventId;
+  private Long fromTime;
+  private Long toTime;
+  private boolean newestFirst = true;
+  private String cursor;
+  private String nextCursor;
+  private int limit;
+  private List<AccountHistory> histories = new ArrayList<>();
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("accountKey", accountKey);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+    message.put("fromTime", fromTime);
+    message.put("toTime", toTime);
+    message.put("order", newestFirst ? "desc" : "asc");
+    message.put("cursor", cursor);
+    message.put("nextCursor", nextCursor);
+    message.put("hasMore", nextCursor != null);
+    message.put("limit", limit);
+
+    List<Map<String, Object>> historyMessages = new ArrayList<>(histories.size());
+    for (AccountHistory history : histories) {
+      Map<String, Object> historyMessage = new LinkedHashMap<>();
+      historyMessage.put("accountKey", history.getAccountKey());
+      historyMessage.put("identifier", history.getIdentifier());
+      historyMessage.put("operationType", history.getOperationType());
+      historyMessage.put("availableBalance", history.getAvailableBalance());
+      historyMessage.put("frozenBalance", history.getFrozenBalance());
+      historyMessage.put("timestamp", history.getTimestamp());
+      historyMessage.put("cursor", history.getCursor());
+      historyMessages.add(historyMessage);
+    }
+    message.put("histories", historyMessages);
+    message.put("count", histories.size());
+    return message;
+  }
+}
@@ -0,0 +1,81 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thanh khoản của pool trong khoảng [tickLower, tickUpper] và depth chart chia
+ * theo bucket, trả về cho liquidity query.
+ */
+@Data
+@NoArgsConstructor
+public class AmmLiquidityDepth {
+  private String poolPair;
+  private String inputEventId;
+  private int currentTick;
+  private BigDecimal sqrtPrice = BigDecimal.ZERO;
+
+  // Thanh khoản active tại tick hiện tại
+  private BigDecimal activeLiquidity = BigDecimal.ZERO;
+
+  private int tickLower;
+  private int tickUpper;
+  private BigDecimal amount0 = BigDecimal.ZERO;
+  private BigDecimal amount1 = BigDecimal.ZERO;
+  private List<Bucket> buckets = new ArrayList<>();
+
+  /**
+   * Một cột của depth chart
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Bucket {
+    private int tickLower;
+    private int tickUpper;
+    // Thanh khoản active tại tickLower của bucket
+    private BigDecimal liquidity;
+    private BigDecimal amount0;
+    private BigDecimal amount1;
+  }
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("poolPair", poolPair);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+    message.put("currentTick", currentTick);
+    message.put("sqrtPrice", sqrtPrice);
+    message.put("activeLiquidity", activeLiquidity);
+    message.put("tickLower", tickLower);
+    message.put("tickUpper", tickUpper);
+    message.put("amount0", amount0);
+    message.put("amount1", amount1);
+
+    List<Map<String, Object>> bucketMessages = new ArrayList<>(buckets.size());
+    for (Bucket bucket : buckets) {
+      Map<String, Object> bucketMessage = new LinkedHashMap<>();
+      bucketMessage.put("tickLower", bucket.getTickLower());
+      bucketMessage.put("tickUpper", bucket.getTickUpper());
+      bucketMessage.put("liquidity", bucket.getLiquidity());
+      bucketMessage.put("amount0", bucket.getAmount0());
+      bucketMessage.put("amount1", bucket.getAmount1());
+      bucketMessages.add(bucketMessage);
+    }
+    message.put("buckets", bucketMessages);
+    return message;
+  }
+}
@@ -0,0 +1,310 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ring buffer các observation của pool (giống observations của Uniswap V3).
+ * Mỗi observation lưu giá trị tích lũy theo thời gian tại thời điểm ghi:
+ * tick * dt, liquidity * dt và tick^2 * dt (để tính volatility).
+ * TWAP của một khoảng bất kỳ = hiệu hai giá trị tích lũy / độ dài khoảng,
+ * tìm observation bằng binary search nên chỉ tốn O(log n).
+ *
+ * Mỗi slot gom các lần ghi trong cùng một khoảng INTERVAL_MS (ghi đè slot mới
+ * nhất), nên giá trị tích lũy luôn chính xác tại thời điểm của mỗi slot.
+ * Ring tăng dần từng chunk tới CAPACITY nên pool mới chỉ tốn vài byte khi lưu.
+ */
+public class AmmObservations {
+  // Số slot tối đa của ring, 720 slot x 30s >= 6 giờ lịch sử với pool giao dịch liên tục
+  public static final int CAPACITY = 720;
+  public static final long INTERVAL_MS = 30_000L;
+
+  // timestamp + tickCumulative + liquidityCumulative + tickSquaredCumulative
+  private static final int BYTES_PER_OBSERVATION = Long.BYTES * 2 + Double.BYTES * 2;
+
+  // Ring chia thành các chunk cố định, bản share() dùng chung chunk và chỉ copy
+  // chunk bị ghi (copy-on-write), CAPACITY phải chia hết cho CHUNK_SIZE
+  static final int CHUNK_SIZE = 48;
+
+  private Chunk[] chunks = new Chunk[0];
+  // owned[i] = false nghĩa là chunk i đang dùng chung với bản khác, phải copy trước khi ghi
+  private boolean[] owned = new boolean[0];
+
+  // Vị trí observation mới nhất và số observation đã ghi
+  private int index = -1;
+  private int cardinality;
+
+  private static final class Chunk {
+    private final long[] timestamps = new long[CHUNK_SIZE];
+    private final long[] tickCumulatives = new long[CHUNK_SIZE];
+    private final double[] liquidityCumulatives = new double[CHUNK_SIZE];
+    private final double[] tickSquaredCumulatives = new double[CHUNK_SIZE];
+
+    private Chunk copy() {
+      Chunk copy = new Chunk();
+      System.arraycopy(timestamps, 0, copy.timestamps, 0, CHUNK_SIZE);
+      System.arraycopy(tickCumulatives, 0, copy.tickCumulatives, 0, CHUNK_SIZE);
+      System.arraycopy(liquidityCumulatives, 0, copy.liquidityCumulatives, 0, CHUNK_SIZE);
+      System.arraycopy(tickSquaredCumulatives, 0, copy.tickSquaredCumulatives, 0, CHUNK_SIZE);
+      return copy;
+    }
+  }
+
+  /**
+   * Giá trị tích lũy tại một thời điểm
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class Observation {
+    private final long timestamp;
+    private final long tickCumulative;
+    private final double liquidityCumulative;
+    private final double tickSquaredCumulative;
+  }
+
+  public int getCardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Tạo bản dùng chung dữ liệu với bản hiện tại (copy-on-write): chỉ copy mảng
+   * tham chiếu chunk, chunk nào bị ghi sau đó sẽ được copy ở phía ghi. Dùng khi
+   * copy pool để backup hoặc publish snapshot thay vì deep copy cả ring.
+   *
+   * @return AmmObservations có cùng nội dung
+   */
+  public AmmObservations share() {
+    AmmObservations copy = new AmmObservations();
+    copy.chunks = chunks.clone();
+    copy.owned = new boolean[chunks.length];
+    copy.index = index;
+    copy.cardinality = cardinality;
+    owned = new boolean[chunks.length];
+    return copy;
+  }
+
+  /**
+   * Ghi observation tại thời điểm timestamp. tick và liquidity là trạng thái
+   * pool trong khoảng từ observation trước tới timestamp (tức trạng thái trước
+   * khi swap/thay đổi thanh khoản được áp dụng).
+   *
+   * @param timestamp Thời điểm ghi (millis)
+   * @param tick      Tick hiện tại của pool
+   * @param liquidity Thanh khoản active hiện tại của pool
+   */
+  public void write(long timestamp, int tick, BigDecimal liquidity) {
+    if (cardinality == 0) {
+      append(new Observation(timestamp, 0L, 0d, 0d));
+      return;
+    }
+
+    Observation last = getObservation(index);
+    if (timestamp <= last.getTimestamp()) {
+      return;
+    }
+
+    Observation next = accumulate(last, timestamp, tick, liquidity);
+    if (timestamp / INTERVAL_MS == last.getTimestamp() / INTERVAL_MS && cardinality > 1) {
+      // Cùng khoảng với slot mới nhất: ghi đè để ring không đầy quá nhanh
+      set(index, next);
+    } else {
+      append(next);
+    }
+  }
+
+  /**
+   * Lấy giá trị tích lũy tại thời điểm target. Nội suy tuyến tính giữa hai
+   * observation, hoặc ngoại suy từ observation mới nhất với trạng thái hiện tại.
+   *
+   * @param target           Thời điểm cần lấy (millis)
+   * @param currentTick      Tick hiện tại của pool
+   * @param currentLiquidity Thanh khoản hiện tại của pool
+   * @return Observation tại target, rỗng nếu target cũ hơn observation cũ nhất
+   */
+  public Optional<Observation> observe(long target, int currentTick, BigDecimal currentLiquidity) {
+    if (cardinality == 0) {
+      return Optional.empty();
+    }
+
+    Observation newest = getObservation(index);
+    if (target >= newest.getTimestamp()) {
+      return Optional.of(accumulate(newest, target, currentTick, currentLiquidity));
+    }
+
+    int oldestIndex = oldestIndex();
+    if (target < timestampAt(oldestIndex)) {
+      return Optional.empty();
+    }
+
+    // Binary search theo thứ tự thời gian: tìm observation cuối cùng có timestamp <= target
+    int low = 0;
+    int high = cardinality - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (timestampAt((oldestIndex + mid) % length()) <= target) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    Observation before = getObservation((oldestIndex + low) % length());
+    if (before.getTimestamp() == target) {
+      return Optional.of(before);
+    }
+    Observation after = getObservation((oldestIndex + low + 1) % length());
+
+    long elapsed = after.getTimestamp() - before.getTimestamp();
+    long delta = target - before.getTimestamp();
+    double ratio = (double) delta / elapsed;
+    return Optional.of(new Observation(
+        target,
+        before.getTickCumulative() + (after.getTickCumulative() - before.getTickCumulative()) * delta / elapsed,
+        before.getLiquidityCumulative() + (after.getLiquidityCumulative() - before.getLiquidityCumulative()) * ratio,
+        before.getTickSquaredCumulative()
+            + (after.getTickSquaredCumulative() - before.getTickSquaredCumulative()) * ratio));
+  }
+
+  /**
+   * Thời điểm của observation cũ nhất còn trong ring
+   *
+   * @return timestamp (millis), rỗng nếu chưa có observation
+   */
+  public Optional<Long> getOldestTimestamp() {
+    return cardinality == 0 ? Optional.empty() : Optional.of(timestampAt(oldestIndex()));
+  }
+
+  private static Observation accumulate(Observation last, long timestamp, int tick, BigDecimal liquidity) {
+    long elapsed = timestamp - last.getTimestamp();
+    double liquidityValue = liquidity == null ? 0d : liquidity.doubleValue();
+    return new Observation(
+        timestamp,
+        last.getTickCumulative() + (long) tick * elapsed,
+        last.getLiquidityCumulative() + liquidityValue * elapsed,
+        last.getTickSquaredCumulative() + (double) tick * tick * elapsed);
+  }
+
+  private int length() {
+    return chunks.length * CHUNK_SIZE;
+  }
+
+  private int oldestIndex() {
+    return cardinality < length() ? 0 : (index + 1) % length();
+  }
+
+  private long timestampAt(int position) {
+    return chunks[position / CHUNK_SIZE].timestamps[position % CHUNK_SIZE];
+  }
+
+  private Observation getObservation(int position) {
+    Chunk chunk = chunks[position / CHUNK_SIZE];
+    int offset = position % CHUNK_SIZE;
+    return new Observation(chunk.timestamps[offset], chunk.tickCumulatives[offset],
+        chunk.liquidityCumulatives[offset], chunk.tickSquaredCumulatives[offset]);
+  }
+
+  private void set(int position, Observation observation) {
+    int chunkIndex = position / CHUNK_SIZE;
+    if (!owned[chunkIndex]) {
+      chunks[chunkIndex] = chunks[chunkIndex].copy();
+      owned[chunkIndex] = true;
+    }
+    Chunk chunk = chunks[chunkIndex];
+    int offset = position % CHUNK_SIZE;
+    chunk.timestamps[offset] = observation.getTimestamp();
+    chunk.tickCumulatives[offset] = observation.getTickCumulative();
+    chunk.liquidityCumulatives[offset] = observation.getLiquidityCumulative();
+    chunk.tickSquaredCumulatives[offset] = observation.getTickSquaredCumulative();
+  }
+
+  private void append(Observation observation) {
+    if (cardinality == length() && length() < CAPACITY) {
+      // Ring chưa quay vòng nên các phần tử đang nằm theo đúng thứ tự, chỉ cần thêm chunk
+      chunks = Arrays.copyOf(chunks, chunks.length + 1);
+      chunks[chunks.length - 1] = new Chunk();
+      owned = Arrays.copyOf(owned, owned.length + 1);
+      owned[owned.length - 1] = true;
+    }
+
+    index = (index + 1) % length();
+    set(index, observation);
+    if (cardinality < length()) {
+      cardinality++;
+    }
+  }
+
+  /**
+   * Mã hóa các observation theo thứ tự thời gian thành mảng byte để lưu cùng
+   * pool (Jackson ghi thành chuỗi base64), thay vì 4 mảng JSON.
+   *
+   * @return Mảng byte, 32 byte cho mỗi observation
+   */
+  @JsonValue
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(cardinality * BYTES_PER_OBSERVATION);
+    if (cardinality == 0) {
+      return buffer.array();
+    }
+    int oldestIndex = oldestIndex();
+    for (int i = 0; i < cardinality; i++) {
+      Observation observation = getObservation((oldestIndex + i) % length());
+      buffer.putLong(observation.getTimestamp());
+      buffer.putLong(observation.getTickCumulative());
+      buffer.putDouble(observation.getLiquidityCumulative());
+      buffer.putDouble(observation.getTickSquaredCumulative());
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Giải mã từ mảng byte tạo bởi toBytes
+   *
+   * @param bytes Mảng byte
+   * @return AmmObservations
+   */
+  @JsonCreator
+  public static AmmObservations fromBytes(byte[] bytes) {
+    AmmObservations observations = new AmmObservations();
+    if (bytes == null) {
+      return observations;
+    }
+
+    // Nếu dữ liệu cũ nhiều hơn CAPACITY thì chỉ giữ các observation mới nhất
+    int total = bytes.length / BYTES_PER_OBSERVATION;
+    int count = Math.min(total, CAPACITY);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, (total - count) * BYTES_PER_OBSERVATION, count * BYTES_PER_OBSERVATION);
+    for (int i = 0; i < count; i++) {
+      observations.append(new Observation(buffer.getLong(), buffer.getLong(), buffer.getDouble(),
+          buffer.getDouble()));
+    }
+    return observations;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof AmmObservations)) {
+      return false;
+    }
+    return Arrays.equals(toBytes(), ((AmmObservations) other).toBytes());
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(toBytes());
+  }
+}
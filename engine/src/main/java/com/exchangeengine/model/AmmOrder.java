@@ -1,7 +1,6 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -12,6 +11,7 @@ import java.util.stream.Collectors;
 
 import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -82,8 +82,8 @@ public class AmmOrder {
   @PositiveOrZero(message = "Slippage must be greater than or equal to 0")
   private BigDecimal slippage = AmmPoolConfig.DEFAULT_SLIPPAGE;
 
-  private long createdAt = Instant.now().toEpochMilli();
-  private long updatedAt = Instant.now().toEpochMilli();
+  private long createdAt = EventClock.currentTimeMillis();
+  private long updatedAt = EventClock.currentTimeMillis();
   private long completedAt;
 
   // Status constants
@@ -108,7 +108,7 @@ public class AmmOrder {
   public AmmOrder(String identifier, String poolPair) {
     this.identifier = identifier;
     this.poolPair = poolPair;
-    this.createdAt = Instant.now().toEpochMilli();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -205,7 +205,7 @@ public class AmmOrder {
     this.beforeTickIndex = beforeTickIndex;
     this.afterTickIndex = afterTickIndex;
     this.fees = new HashMap<>(fees);
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return true;
   }
@@ -221,7 +221,7 @@ public class AmmOrder {
     }
 
     this.status = STATUS_SUCCESS;
-    this.completedAt = Instant.now().toEpochMilli();
+    this.completedAt = EventClock.currentTimeMillis();
     this.updatedAt = this.completedAt;
 
     return true;
@@ -240,7 +240,7 @@ public class AmmOrder {
 
     this.status = STATUS_ERROR;
     this.errorMessage = errorMessage;
-    this.completedAt = Instant.now().toEpochMilli();
+    this.completedAt = EventClock.currentTimeMillis();
     this.updatedAt = this.completedAt;
 
     return true;
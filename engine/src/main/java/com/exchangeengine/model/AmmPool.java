@@ -1,7 +1,6 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -10,10 +9,12 @@ import java.util.stream.Collectors;
 
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.util.ammPool.TickMath;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonView;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -114,14 +115,31 @@ public class AmmPool {
   @PositiveOrZero(message = "Total value locked token 1 must be greater than or equal to 0")
   private BigDecimal totalValueLockedToken1 = BigDecimal.ZERO; // Tổng lượng token1 trong pool
 
-  private long createdAt = Instant.now().toEpochMilli();
-  private long updatedAt = Instant.now().toEpochMilli();
+  private long createdAt = EventClock.currentTimeMillis();
+  private long updatedAt = EventClock.currentTimeMillis();
 
   private String statusExplanation = "";
 
+  // Lịch sử giá tích lũy để tính TWAP / volatility, lưu cùng pool dưới dạng nhị phân.
+  // Không nằm trong CopyView: duplicate() dùng chung ring theo kiểu copy-on-write
+  @JsonView(PersistView.class)
+  private AmmObservations observations = new AmmObservations();
+
+  /**
+   * JSON view chỉ dùng khi lưu pool, chứa cả observations
+   */
+  public interface PersistView {
+  }
+
+  /**
+   * JSON view dùng khi copy pool trong bộ nhớ, bỏ qua observations
+   */
+  public interface CopyView {
+  }
+
   public AmmPool(String pair) {
     this.pair = pair;
-    this.createdAt = Instant.now().toEpochMilli();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -212,7 +230,7 @@ public class AmmPool {
     }
 
     if (isChanged) {
-      this.updatedAt = Instant.now().toEpochMilli();
+      this.updatedAt = EventClock.currentTimeMillis();
     }
 
     return isChanged;
@@ -231,7 +249,36 @@ public class AmmPool {
   }
 
   public Map<String, Object> toMessageJson() {
-    return JsonSerializer.toMap(this);
+    Map<String, Object> message = JsonSerializer.toMap(this);
+    // Observations chỉ phục vụ TWAP query, không gửi kèm mỗi lần cập nhật pool
+    message.remove("observations");
+    return message;
+  }
+
+  /**
+   * Deep copy pool (backup trong processor, snapshot cho phía đọc). Khác với
+   * ObjectCloner.duplicate, ring observation (~23KB khi đầy) không bị serialize
+   * mà được dùng chung copy-on-write với bản gốc.
+   *
+   * @return Bản copy của pool
+   */
+  public AmmPool duplicate() {
+    AmmPool copy = JsonSerializer.deserialize(JsonSerializer.serialize(this, CopyView.class), AmmPool.class);
+    copy.observations = observations == null ? new AmmObservations() : observations.share();
+    return copy;
+  }
+
+  /**
+   * Ghi observation với trạng thái hiện tại của pool, gọi trước khi tick hoặc
+   * thanh khoản thay đổi.
+   *
+   * @param timestamp Thời điểm ghi (millis)
+   */
+  public void writeObservation(long timestamp) {
+    if (observations == null) {
+      observations = new AmmObservations();
+    }
+    observations.write(timestamp, currentTick, liquidity);
   }
 
   /**
@@ -242,14 +289,16 @@ public class AmmPool {
    *                  < tickUpper)
    * @param amount0   Số lượng token0 được thêm vào pool
    * @param amount1   Số lượng token1 được thêm vào pool
+   * @param timestamp Thời điểm của event (millis), dùng cho observation và updatedAt
    * @return true nếu có bất kỳ thay đổi nào, false nếu không
    */
   public boolean updateForAddPosition(BigDecimal liquidity, boolean isInRange,
-      BigDecimal amount0, BigDecimal amount1) {
+      BigDecimal amount0, BigDecimal amount1, long timestamp) {
     boolean isChanged = false;
 
     // Chỉ cập nhật liquidity của pool khi position nằm trong phạm vi active
     if (isInRange && liquidity.compareTo(BigDecimal.ZERO) > 0) {
+      writeObservation(timestamp);
       this.liquidity = this.liquidity.add(liquidity);
       isChanged = true;
     }
@@ -269,7 +318,7 @@ public class AmmPool {
     this.txCount++;
 
     // Cập nhật timestamp
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = timestamp;
 
     return isChanged;
   }
@@ -281,14 +330,17 @@ public class AmmPool {
    * @param removedLiquidity Lượng thanh khoản bị loại bỏ
    * @param amount0          Lượng token0 được rút ra
    * @param amount1          Lượng token1 được rút ra
+   * @param timestamp        Thời điểm của event (millis), dùng cho observation và updatedAt
    * @return true nếu cập nhật thành công, false nếu không
    */
-  public boolean updateForClosePosition(BigDecimal removedLiquidity, BigDecimal amount0, BigDecimal amount1) {
+  public boolean updateForClosePosition(BigDecimal removedLiquidity, BigDecimal amount0, BigDecimal amount1,
+      long timestamp) {
     boolean isChanged = false;
 
     try {
       // 1. Giảm thanh khoản tổng
       if (removedLiquidity.compareTo(BigDecimal.ZERO) > 0) {
+        writeObservation(timestamp);
         this.liquidity = this.liquidity.subtract(removedLiquidity)
             .max(BigDecimal.ZERO) // Đảm bảo không âm
             .setScale(AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE);
@@ -314,7 +366,7 @@ public class AmmPool {
       this.txCount++;
 
       // 4. Cập nhật timestamp
-      this.updatedAt = Instant.now().toEpochMilli();
+      this.updatedAt = timestamp;
 
       return isChanged;
     } catch (Exception e) {
@@ -342,10 +394,9 @@ public class AmmPool {
    * @throws IllegalStateException nếu không tìm thấy Tick
    */
   public Tick getTick(int tickIndex) {
-    String tickKey = getPair() + "-" + tickIndex;
     TickCache tickCache = TickCache.getInstance();
-    return tickCache.getTick(tickKey)
-        .orElseThrow(() -> new IllegalStateException("Tick not found for key: " + tickKey));
+    return tickCache.getTick(getPair(), tickIndex)
+        .orElseThrow(() -> new IllegalStateException("Tick not found for key: " + getPair() + "-" + tickIndex));
   }
 
   /**
@@ -360,6 +411,7 @@ public class AmmPool {
    * @param totalValueLockedToken1 Giá trị token1 bị khóa sau swap
    * @param volumeToken0           Khối lượng token0 tích lũy
    * @param volumeToken1           Khối lượng token1 tích lũy
+   * @param timestamp              Thời điểm của event (millis)
    */
   public void updatePoolAfterSwap(
       int tick,
@@ -370,7 +422,8 @@ public class AmmPool {
       BigDecimal totalValueLockedToken0,
       BigDecimal totalValueLockedToken1,
       BigDecimal volumeToken0,
-      BigDecimal volumeToken1) {
+      BigDecimal volumeToken1,
+      long timestamp) {
 
     // Kiểm tra tham số null
     if (sqrtPrice == null || liquidity == null ||
@@ -380,31 +433,34 @@ public class AmmPool {
       return;
     }
 
-    // 1. Cập nhật giá và tick
+    // 1. Ghi observation cho khoảng thời gian với tick / thanh khoản trước swap
+    writeObservation(timestamp);
+
+    // 2. Cập nhật giá và tick
     this.currentTick = tick;
     this.sqrtPrice = sqrtPrice;
     // Tính price từ sqrtPrice để đảm bảo tính nhất quán
     this.price = sqrtPrice.pow(2, AmmPoolConfig.MC).setScale(AmmPoolConfig.DISPLAY_SCALE, AmmPoolConfig.ROUNDING_MODE);
 
-    // 2. Cập nhật thanh khoản nếu thay đổi
+    // 3. Cập nhật thanh khoản nếu thay đổi
     if (this.liquidity.compareTo(liquidity) != 0) {
       this.liquidity = liquidity;
     }
 
-    // 3. Cập nhật phí
+    // 4. Cập nhật phí
     this.feeGrowthGlobal0 = feeGrowthGlobal0;
     this.feeGrowthGlobal1 = feeGrowthGlobal1;
 
-    // 4. Cập nhật TVL
+    // 5. Cập nhật TVL
     this.totalValueLockedToken0 = totalValueLockedToken0;
     this.totalValueLockedToken1 = totalValueLockedToken1;
 
-    // 5. Cập nhật volume
+    // 6. Cập nhật volume
     this.volumeToken0 = volumeToken0;
     this.volumeToken1 = volumeToken1;
 
-    // 6. Tăng txCount và cập nhật thời gian
+    // 7. Tăng txCount và cập nhật thời gian
     this.txCount++;
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = timestamp;
   }
 }
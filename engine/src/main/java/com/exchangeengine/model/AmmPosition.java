@@ -1,7 +1,6 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +12,7 @@ import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.storage.cache.AmmPoolCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.util.ammPool.LiquidityUtils;
@@ -117,8 +117,8 @@ public class AmmPosition {
   @PositiveOrZero(message = "Amount 1 withdrawal must be greater than or equal to 0")
   private BigDecimal amount1Withdrawal = BigDecimal.ZERO; // Lượng token1 được rút khi đóng position
 
-  private long createdAt = Instant.now().toEpochMilli();
-  private long updatedAt = Instant.now().toEpochMilli();
+  private long createdAt = EventClock.currentTimeMillis();
+  private long updatedAt = EventClock.currentTimeMillis();
   private long stoppedAt;
 
   // Status constants
@@ -153,7 +153,7 @@ public class AmmPosition {
     this.identifier = identifier;
     this.poolPair = poolPair;
     this.status = STATUS_PENDING;
-    this.createdAt = Instant.now().toEpochMilli();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -314,7 +314,7 @@ public class AmmPosition {
     this.amount1 = amount1;
     this.feeGrowthInside0Last = feeGrowthInside0Last;
     this.feeGrowthInside1Last = feeGrowthInside1Last;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return true;
   }
@@ -330,7 +330,7 @@ public class AmmPosition {
     }
 
     this.status = STATUS_OPEN;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return true;
   }
@@ -367,7 +367,7 @@ public class AmmPosition {
     this.feeGrowthInside0Last = feeGrowthInside0;
     this.feeGrowthInside1Last = feeGrowthInside1;
 
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return true;
   }
@@ -393,7 +393,7 @@ public class AmmPosition {
     this.feeGrowthInside0Last = feeGrowthInside0Last;
     this.feeGrowthInside1Last = feeGrowthInside1Last;
     this.liquidity = BigDecimal.ZERO;
-    this.stoppedAt = Instant.now().toEpochMilli();
+    this.stoppedAt = EventClock.currentTimeMillis();
     this.updatedAt = this.stoppedAt;
 
     return true;
@@ -406,7 +406,7 @@ public class AmmPosition {
 
     this.status = STATUS_ERROR;
     this.errorMessage = errorMessage;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return true;
   }
@@ -0,0 +1,59 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Phí chưa thu của một AMM position đang mở, tính từ snapshot tick và
+ * feeGrowthGlobal của pool tại một phiên bản pool (txCount).
+ */
+@Data
+@NoArgsConstructor
+public class AmmPositionFee {
+  private String identifier;
+  private String poolPair;
+  private String ownerAccountKey0;
+  private String ownerAccountKey1;
+  private int tickLowerIndex;
+  private int tickUpperIndex;
+  private BigDecimal liquidity = BigDecimal.ZERO;
+
+  // Position có đang nằm trong khoảng giá hiện tại (đang nhận phí) hay không
+  private boolean inRange;
+
+  // Phí chưa thu = tokensOwed đã ghi nhận + phí tích lũy từ lần thu cuối
+  private BigDecimal feesOwed0 = BigDecimal.ZERO;
+  private BigDecimal feesOwed1 = BigDecimal.ZERO;
+
+  // Phiên bản pool và epoch của snapshot dùng để tính
+  private long poolVersion;
+  private long snapshotEpoch;
+  private long computedAt;
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("identifier", identifier);
+    message.put("poolPair", poolPair);
+    message.put("ownerAccountKey0", ownerAccountKey0);
+    message.put("ownerAccountKey1", ownerAccountKey1);
+    message.put("tickLowerIndex", tickLowerIndex);
+    message.put("tickUpperIndex", tickUpperIndex);
+    message.put("liquidity", liquidity);
+    message.put("inRange", inRange);
+    message.put("feesOwed0", feesOwed0);
+    message.put("feesOwed1", feesOwed1);
+    message.put("poolVersion", poolVersion);
+    message.put("snapshotEpoch", snapshotEpoch);
+    message.put("computedAt", computedAt);
+    return message;
+  }
+}
@@ -0,0 +1,82 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả báo giá swap (chỉ đọc) trên snapshot của pool.
+ * Các giá trị tính bằng cùng thuật toán với AmmOrderProcessor nhưng không sửa
+ * pool, tick hay account.
+ */
+@Data
+@NoArgsConstructor
+public class AmmSwapQuote {
+  private String poolPair;
+  private String inputEventId;
+  private boolean zeroForOne;
+  private BigDecimal amountSpecified;
+
+  // Phiên bản pool (txCount) và epoch của snapshot dùng để tính
+  private long poolVersion;
+  private long epoch;
+
+  private BigDecimal amountIn = BigDecimal.ZERO;
+  private BigDecimal amountOut = BigDecimal.ZERO;
+  private BigDecimal amount0 = BigDecimal.ZERO;
+  private BigDecimal amount1 = BigDecimal.ZERO;
+
+  // Token => phí, phí luôn tính trên token vào
+  private Map<String, BigDecimal> fees = new LinkedHashMap<>();
+
+  private BigDecimal priceBefore = BigDecimal.ZERO;
+  private BigDecimal priceAfter = BigDecimal.ZERO;
+  private BigDecimal executionPrice = BigDecimal.ZERO;
+  // Phần trăm thay đổi giá của pool sau swap
+  private BigDecimal priceImpact = BigDecimal.ZERO;
+
+  private BigDecimal sqrtPriceAfter = BigDecimal.ZERO;
+  private int tickBefore;
+  private int tickAfter;
+  private List<Integer> crossedTicks = new ArrayList<>();
+
+  // false nếu thanh khoản không đủ để swap hết amountSpecified
+  private boolean fullyFilled;
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("poolPair", poolPair);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+    message.put("zeroForOne", zeroForOne);
+    message.put("amountSpecified", amountSpecified);
+    message.put("poolVersion", poolVersion);
+    message.put("epoch", epoch);
+    message.put("amountIn", amountIn);
+    message.put("amountOut", amountOut);
+    message.put("amount0", amount0);
+    message.put("amount1", amount1);
+    message.put("fees", fees);
+    message.put("priceBefore", priceBefore);
+    message.put("priceAfter", priceAfter);
+    message.put("executionPrice", executionPrice);
+    message.put("priceImpact", priceImpact);
+    message.put("sqrtPriceAfter", sqrtPriceAfter);
+    message.put("tickBefore", tickBefore);
+    message.put("tickAfter", tickAfter);
+    message.put("crossedTicks", crossedTicks);
+    message.put("fullyFilled", fullyFilled);
+    return message;
+  }
+}
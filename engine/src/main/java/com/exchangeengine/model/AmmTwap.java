@@ -0,0 +1,57 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Giá trung bình theo thời gian (TWAP) và volatility của pool trong một khoảng
+ * thời gian, tính từ observations của pool.
+ */
+@Data
+@NoArgsConstructor
+public class AmmTwap {
+  private String poolPair;
+  private String inputEventId;
+  private long windowSeconds;
+  private long startTime;
+  private long endTime;
+  private int currentTick;
+
+  // Tick trung bình theo thời gian và giá tương ứng (1.0001^tick)
+  private BigDecimal averageTick = BigDecimal.ZERO;
+  private BigDecimal twapPrice = BigDecimal.ZERO;
+
+  // Thanh khoản active trung bình theo thời gian
+  private BigDecimal averageLiquidity = BigDecimal.ZERO;
+
+  // Độ lệch chuẩn của tick và của log(price) trong khoảng
+  private BigDecimal tickStdDev = BigDecimal.ZERO;
+  private BigDecimal volatility = BigDecimal.ZERO;
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("poolPair", poolPair);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+    message.put("windowSeconds", windowSeconds);
+    message.put("startTime", startTime);
+    message.put("endTime", endTime);
+    message.put("currentTick", currentTick);
+    message.put("averageTick", averageTick);
+    message.put("twapPrice", twapPrice);
+    message.put("averageLiquidity", averageLiquidity);
+    message.put("tickStdDev", tickStdDev);
+    message.put("volatility", volatility);
+    return message;
+  }
+}
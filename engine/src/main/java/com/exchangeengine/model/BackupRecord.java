@@ -0,0 +1,48 @@
+package com.exchangeengine.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả của một lần backup database:
+ * - checkpoint: thư mục hard link tới các file SST, mở trực tiếp được như một
+ * database RocksDB
+ * - backup: bản sao tăng dần do BackupEngine quản lý, khôi phục bằng restore
+ */
+@Data
+@NoArgsConstructor
+public class BackupRecord {
+  public static final String TYPE_CHECKPOINT = "checkpoint";
+  public static final String TYPE_BACKUP = "backup";
+
+  private String type;
+  // Id của BackupEngine, 0 với checkpoint
+  private int backupId;
+  private String path;
+  private long createdAt;
+  private long sizeBytes;
+  private int numberFiles;
+  private long durationMillis;
+  private DurablePosition position;
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("type", type);
+    message.put("backupId", backupId);
+    message.put("path", path);
+    message.put("createdAt", createdAt);
+    message.put("sizeBytes", sizeBytes);
+    message.put("numberFiles", numberFiles);
+    message.put("durationMillis", durationMillis);
+    message.put("position", position == null ? null : position.toMessageJson());
+    return message;
+  }
+}
@@ -1,7 +1,6 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +8,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.Set;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
@@ -45,6 +45,9 @@ public class BalanceLock {
     
     private long createdAt;
     
+    // Thời điểm lock LOCKED tự được giải phóng (millis, 0 = không hết hạn)
+    private long expiresAt;
+    
     private ActionType actionType;
     
     private String actionId;
@@ -68,7 +71,7 @@ public class BalanceLock {
         this.actionType = actionType;
         this.actionId = actionId;
         this.lockedBalances = new HashMap<>();
-        this.createdAt = Instant.now().toEpochMilli();
+        this.createdAt = EventClock.currentTimeMillis();
         this.status = "LOCKED";
     }
     
@@ -91,7 +94,7 @@ public class BalanceLock {
         this.actionType = actionType;
         this.actionId = actionId;
         this.lockedBalances = lockedBalances != null ? lockedBalances : new HashMap<>();
-        this.createdAt = Instant.now().toEpochMilli();
+        this.createdAt = EventClock.currentTimeMillis();
         this.status = status;
     }
     
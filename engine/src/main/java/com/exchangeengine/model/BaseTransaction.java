@@ -1,7 +1,7 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,7 +24,7 @@ public abstract class BaseTransaction {
 
   // Constructor
   public BaseTransaction() {
-    this.createdAt = Instant.now().toEpochMilli();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -62,7 +62,7 @@ public abstract class BaseTransaction {
 
   public void setStatus(String status) {
     this.status = status;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   public String getStatusExplanation() {
@@ -104,7 +104,7 @@ public abstract class BaseTransaction {
    */
   public void updateStatus(String newStatus) {
     this.status = newStatus;
-    this.updatedAt = Instant.now().toEpochMilli();
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
@@ -0,0 +1,110 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Nến OHLCV đã đóng của một market (pool AMM hoặc symbol P2P) trong một khung
+ * thời gian.
+ */
+@Data
+@NoArgsConstructor
+public class Candle {
+  public static final String MARKET_TYPE_AMM = "amm";
+  public static final String MARKET_TYPE_P2P = "p2p";
+
+  // amm:{poolPair} hoặc p2p:{symbol}
+  private String market;
+  private String interval;
+  private long openTime;
+  private long closeTime;
+
+  private BigDecimal open = BigDecimal.ZERO;
+  private BigDecimal high = BigDecimal.ZERO;
+  private BigDecimal low = BigDecimal.ZERO;
+  private BigDecimal close = BigDecimal.ZERO;
+
+  // Khối lượng theo token0/coin và token1/fiat
+  private BigDecimal volume0 = BigDecimal.ZERO;
+  private BigDecimal volume1 = BigDecimal.ZERO;
+  private int tradeCount;
+
+  /**
+   * Tạo market key từ loại market và symbol
+   *
+   * @param marketType amm hoặc p2p
+   * @param symbol     poolPair hoặc symbol của trade
+   * @return market key
+   */
+  public static String marketKey(String marketType, String symbol) {
+    return marketType + ":" + symbol;
+  }
+
+  /**
+   * Prefix nhị phân của một market và khung thời gian:
+   * market (UTF-8) + 0x00 + interval (UTF-8) + 0x00
+   *
+   * @param market   Market key
+   * @param interval Giá trị interval (1m, 5m, ...)
+   * @return prefix
+   */
+  public static byte[] generateBinaryPrefix(String market, String interval) {
+    byte[] marketBytes = market.getBytes(StandardCharsets.UTF_8);
+    byte[] intervalBytes = interval.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(marketBytes.length + intervalBytes.length + 2)
+        .put(marketBytes)
+        .put((byte) 0)
+        .put(intervalBytes)
+        .put((byte) 0)
+        .array();
+  }
+
+  /**
+   * Key nhị phân prefix + openTime (big-endian) nên các nến của một market và
+   * khung thời gian nằm liền nhau và sắp theo thời gian.
+   * Cũng dùng làm cận trên/dưới khi đọc theo khoảng thời gian.
+   *
+   * @param market   Market key
+   * @param interval Giá trị interval
+   * @param openTime Thời điểm mở nến (millis, không âm)
+   * @return key nhị phân
+   */
+  public static byte[] generateBinaryKey(String market, String interval, long openTime) {
+    byte[] prefix = generateBinaryPrefix(market, interval);
+    return ByteBuffer.allocate(prefix.length + Long.BYTES)
+        .put(prefix)
+        .putLong(openTime)
+        .array();
+  }
+
+  public byte[] getBinaryKey() {
+    return generateBinaryKey(market, interval, openTime);
+  }
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("market", market);
+    message.put("interval", interval);
+    message.put("openTime", openTime);
+    message.put("closeTime", closeTime);
+    message.put("open", open);
+    message.put("high", high);
+    message.put("low", low);
+    message.put("close", close);
+    message.put("volume0", volume0);
+    message.put("volume1", volume1);
+    message.put("tradeCount", tradeCount);
+    return message;
+  }
+}
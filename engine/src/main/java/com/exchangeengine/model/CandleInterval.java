@@ -0,0 +1,52 @@
+package com.exchangeengine.model;
+
+/**
+ * Các khung thời gian của nến OHLCV
+ */
+public enum CandleInterval {
+  ONE_MINUTE("1m", 60_000L),
+  FIVE_MINUTES("5m", 300_000L),
+  ONE_HOUR("1h", 3_600_000L),
+  ONE_DAY("1d", 86_400_000L);
+
+  private final String value;
+  private final long durationMs;
+
+  CandleInterval(String value, long durationMs) {
+    this.value = value;
+    this.durationMs = durationMs;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public long getDurationMs() {
+    return durationMs;
+  }
+
+  /**
+   * Thời điểm mở của nến chứa timestamp (làm tròn xuống theo UTC)
+   *
+   * @param timestamp Thời điểm (millis)
+   * @return openTime của nến
+   */
+  public long bucketStart(long timestamp) {
+    return Math.floorDiv(timestamp, durationMs) * durationMs;
+  }
+
+  /**
+   * Get CandleInterval from string value
+   *
+   * @param value String value
+   * @return CandleInterval or null if not found
+   */
+  public static CandleInterval fromValue(String value) {
+    for (CandleInterval interval : CandleInterval.values()) {
+      if (interval.value.equalsIgnoreCase(value)) {
+        return interval;
+      }
+    }
+    return null;
+  }
+}
@@ -1,5 +1,6 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
@@ -106,7 +107,7 @@ public class CoinDeposit extends CoinTransaction {
     if (isProcessed() || !isPending()) {
       throw new IllegalStateException("Cannot transition to processed from processed or not pending status");
     }
-    setUpdatedAt(System.currentTimeMillis());
+    setUpdatedAt(EventClock.currentTimeMillis());
     setStatus(STATUS_PROCESSED);
   }
 
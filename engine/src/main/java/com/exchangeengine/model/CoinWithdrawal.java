@@ -1,5 +1,6 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
@@ -166,7 +167,7 @@ public class CoinWithdrawal extends CoinTransaction {
     if (!isVerified() && !isPending()) {
       throw new IllegalStateException("Cannot transition to processing from " + getStatus() + " status");
     }
-    setUpdatedAt(System.currentTimeMillis());
+    setUpdatedAt(EventClock.currentTimeMillis());
     setStatusExplanation("");
     setStatus(STATUS_PROCESSING);
   }
@@ -175,7 +176,7 @@ public class CoinWithdrawal extends CoinTransaction {
     if (!isProcessing()) {
       throw new IllegalStateException("Cannot transition to completed from " + getStatus() + " status");
     }
-    setUpdatedAt(System.currentTimeMillis());
+    setUpdatedAt(EventClock.currentTimeMillis());
     setStatus(STATUS_COMPLETED);
   }
 
@@ -183,7 +184,7 @@ public class CoinWithdrawal extends CoinTransaction {
     if (!isProcessing()) {
       throw new IllegalStateException("Cannot transition to failed from " + getStatus() + " status");
     }
-    setUpdatedAt(System.currentTimeMillis());
+    setUpdatedAt(EventClock.currentTimeMillis());
     setStatus(STATUS_FAILED);
   }
 
@@ -191,7 +192,7 @@ public class CoinWithdrawal extends CoinTransaction {
     if (!isProcessing() && !isPending()) {
       throw new IllegalStateException("Cannot transition to cancelled from " + getStatus() + " status");
     }
-    setUpdatedAt(System.currentTimeMillis());
+    setUpdatedAt(EventClock.currentTimeMillis());
     setStatus(STATUS_CANCELLED);
   }
 
@@ -0,0 +1,63 @@
+package com.exchangeengine.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vị trí đã được lưu bền xuống RocksDB sau một lần flush cache:
+ * - disruptorSequence: mọi event có sequence &lt;= giá trị này (trong process
+ * hiện tại) đã nằm trong RocksDB
+ * - kafkaOffsets: offset tiếp theo cần đọc của từng topic-partition logic; mọi
+ * record trước offset đã được xử lý và lưu. Khôi phục từ backup rồi đọc lại
+ * Kafka từ các offset này không mất event (event trùng bị EventCache bỏ qua)
+ * - journalSequence: sequence lớn nhất của input journal đã nằm trong RocksDB,
+ * không đổi giữa các lần chạy; khi khởi động, event sau giá trị này được đọc
+ * lại từ journal
+ */
+@Data
+@NoArgsConstructor
+public class DurablePosition {
+  public static final String KEY = "durable_position";
+
+  private long disruptorSequence = -1;
+  private Map<String, Long> kafkaOffsets = new TreeMap<>();
+  private long flushedAt;
+  private long journalSequence = -1;
+
+  public DurablePosition(long disruptorSequence, Map<String, Long> kafkaOffsets, long flushedAt) {
+    this.disruptorSequence = disruptorSequence;
+    this.kafkaOffsets = new TreeMap<>(kafkaOffsets);
+    this.flushedAt = flushedAt;
+  }
+
+  public DurablePosition(long disruptorSequence, Map<String, Long> kafkaOffsets, long flushedAt,
+      long journalSequence) {
+    this(disruptorSequence, kafkaOffsets, flushedAt);
+    this.journalSequence = journalSequence;
+  }
+
+  @JsonIgnore
+  public String getKey() {
+    return KEY;
+  }
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("disruptorSequence", disruptorSequence);
+    message.put("kafkaOffsets", new TreeMap<>(kafkaOffsets));
+    message.put("flushedAt", flushedAt);
+    message.put("journalSequence", journalSequence);
+    return message;
+  }
+}
@@ -0,0 +1,197 @@
+package com.exchangeengine.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Số dư dạng số nguyên 128 bit đã nhân 10^16 (scale cố định 16 của engine),
+ * lưu trong hai long: hi có dấu và lo không dấu.
+ *
+ * Cộng/trừ không tạo object và không cần setScale; chỉ đổi sang BigDecimal khi
+ * đọc ra (serialize, message Kafka). Object có thể thay đổi nên chỉ dùng trong
+ * thread ghi duy nhất của Account, phía đọc nhận bản copy qua ObjectCloner.
+ * Tràn 128 bit ném ArithmeticException.
+ */
+public final class FixedScaleBalance implements Comparable<FixedScaleBalance> {
+  public static final int SCALE = 16;
+
+  private static final long[] POW10 = new long[SCALE + 1];
+  private static final int MAX_BIT_LENGTH = 127;
+
+  static {
+    POW10[0] = 1L;
+    for (int i = 1; i <= SCALE; i++) {
+      POW10[i] = POW10[i - 1] * 10L;
+    }
+  }
+
+  private long hi;
+  private long lo;
+
+  public FixedScaleBalance() {
+  }
+
+  public FixedScaleBalance(BigDecimal value) {
+    set(value);
+  }
+
+  /**
+   * Gán giá trị, làm tròn HALF_UP về scale 16
+   */
+  public void set(BigDecimal value) {
+    int scale = value.scale();
+    if (scale >= 0 && scale <= SCALE && value.precision() <= 18) {
+      // Đường nhanh: unscaled vừa một long, chỉ cần nhân 10^(16 - scale)
+      long unscaled = value.unscaledValue().longValue();
+      long factor = POW10[SCALE - scale];
+      this.lo = unscaled * factor;
+      this.hi = Math.multiplyHigh(unscaled, factor);
+      return;
+    }
+
+    BigInteger unscaled = value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue();
+    if (unscaled.bitLength() > MAX_BIT_LENGTH) {
+      throw new ArithmeticException("Balance overflow: " + value);
+    }
+    this.lo = unscaled.longValue();
+    this.hi = unscaled.shiftRight(64).longValue();
+  }
+
+  public void set(FixedScaleBalance other) {
+    this.hi = other.hi;
+    this.lo = other.lo;
+  }
+
+  /**
+   * Gán trực tiếp hai word 128 bit (dùng khi đọc từ bộ nhớ off-heap)
+   */
+  public void set(long hi, long lo) {
+    this.hi = hi;
+    this.lo = lo;
+  }
+
+  public long getHi() {
+    return hi;
+  }
+
+  public long getLo() {
+    return lo;
+  }
+
+  /**
+   * this += other
+   */
+  public void add(FixedScaleBalance other) {
+    long sumLo = lo + other.lo;
+    long carry = Long.compareUnsigned(sumLo, lo) < 0 ? 1L : 0L;
+    this.hi = Math.addExact(Math.addExact(hi, other.hi), carry);
+    this.lo = sumLo;
+  }
+
+  /**
+   * this -= other
+   */
+  public void subtract(FixedScaleBalance other) {
+    long borrow = Long.compareUnsigned(lo, other.lo) < 0 ? 1L : 0L;
+    this.hi = Math.subtractExact(Math.subtractExact(hi, other.hi), borrow);
+    this.lo = lo - other.lo;
+  }
+
+  public int signum() {
+    if (hi != 0) {
+      return hi < 0 ? -1 : 1;
+    }
+    return lo == 0 ? 0 : 1;
+  }
+
+  @Override
+  public int compareTo(FixedScaleBalance other) {
+    int cmp = Long.compare(hi, other.hi);
+    return cmp != 0 ? cmp : Long.compareUnsigned(lo, other.lo);
+  }
+
+  /**
+   * Đổi sang BigDecimal scale 16
+   */
+  public BigDecimal toBigDecimal() {
+    if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) {
+      return BigDecimal.valueOf(lo, SCALE);
+    }
+
+    byte[] bytes = new byte[16];
+    for (int i = 0; i < 8; i++) {
+      bytes[i] = (byte) (hi >>> (56 - i * 8));
+      bytes[i + 8] = (byte) (lo >>> (56 - i * 8));
+    }
+    return new BigDecimal(new BigInteger(bytes), SCALE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FixedScaleBalance)) {
+      return false;
+    }
+    FixedScaleBalance other = (FixedScaleBalance) o;
+    return hi == other.hi && lo == other.lo;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(hi) * 31 + Long.hashCode(lo);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+
+  /**
+   * Ghi ra JSON như một số BigDecimal, giữ nguyên định dạng cũ của Account
+   */
+  public static class Serializer extends StdSerializer<FixedScaleBalance> {
+    public Serializer() {
+      super(FixedScaleBalance.class);
+    }
+
+    @Override
+    public void serialize(FixedScaleBalance value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeNumber(value.toBigDecimal());
+    }
+  }
+
+  /**
+   * Đọc số (hoặc chuỗi số) trong JSON
+   */
+  public static class Deserializer extends StdDeserializer<FixedScaleBalance> {
+    public Deserializer() {
+      super(FixedScaleBalance.class);
+    }
+
+    @Override
+    public FixedScaleBalance deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.currentToken() == JsonToken.VALUE_STRING) {
+        return new FixedScaleBalance(new BigDecimal(p.getText().trim()));
+      }
+      return new FixedScaleBalance(p.getDecimalValue());
+    }
+
+    @Override
+    public FixedScaleBalance getNullValue(DeserializationContext ctxt) {
+      return new FixedScaleBalance();
+    }
+  }
+}
@@ -28,11 +28,43 @@ public class KafkaTopics {
         // Topics for tick query and update
         public static final String TICK_QUERY_TOPIC = "EE.I.tick_query";
         public static final String TICK_UPDATE_TOPIC = "EE.O.tick_update";
+        // Một message cho tất cả ticks thay đổi của pool (delta) hoặc một trang snapshot
+        public static final String TICK_DELTA_TOPIC = "EE.O.tick_delta";
         
+        // Topics for account history query
+        public static final String ACCOUNT_HISTORY_QUERY_TOPIC = "EE.I.account_history_query";
+        public static final String ACCOUNT_HISTORY_TOPIC = "EE.O.account_history";
+
+        // Topics for AMM swap quote
+        public static final String AMM_SWAP_QUOTE_TOPIC = "EE.I.amm_swap_quote";
+        public static final String AMM_SWAP_QUOTE_RESULT_TOPIC = "EE.O.amm_swap_quote";
+
+        // Topics for AMM liquidity / depth chart query
+        public static final String AMM_LIQUIDITY_QUERY_TOPIC = "EE.I.amm_liquidity_query";
+        public static final String AMM_LIQUIDITY_TOPIC = "EE.O.amm_liquidity";
+
+        // Topics for AMM TWAP / volatility query
+        public static final String AMM_TWAP_QUERY_TOPIC = "EE.I.amm_twap_query";
+        public static final String AMM_TWAP_TOPIC = "EE.O.amm_twap";
+
+        // Topics for P2P offer book query
+        public static final String OFFER_BOOK_QUERY_TOPIC = "EE.I.offer_book_query";
+        public static final String OFFER_BOOK_TOPIC = "EE.O.offer_book";
+
+        // Topic for closed OHLCV candles of AMM pools and P2P symbols
+        public static final String CANDLE_CLOSE_TOPIC = "EE.O.candle_close";
+
+        // Topic for periodic uncollected fee reports of open AMM positions
+        public static final String AMM_POSITION_FEE_TOPIC = "EE.O.amm_position_fee";
+
         // Topics for balance lock events
         public static final String BALANCES_LOCK_TOPIC = "EE.I.balances_lock";
         public static final String BALANCES_LOCK_UPDATE_TOPIC = "EE.O.balances_lock_update";
 
+        // Topics cho backup database do admin yêu cầu
+        public static final String BACKUP_TOPIC = "EE.I.backup"; // admin only
+        public static final String BACKUP_RESULT_TOPIC = "EE.O.backup";
+
         public static final String[] TOPICS = {
                         COIN_ACCOUNT_TOPIC,
                         COIN_DEPOSIT_TOPIC,
@@ -56,15 +88,46 @@ public class KafkaTopics {
                         OFFER_UPDATE_TOPIC,
                         TICK_QUERY_TOPIC,
                         TICK_UPDATE_TOPIC,
+                        TICK_DELTA_TOPIC,
+                        ACCOUNT_HISTORY_QUERY_TOPIC,
+                        ACCOUNT_HISTORY_TOPIC,
+                        AMM_SWAP_QUOTE_TOPIC,
+                        AMM_SWAP_QUOTE_RESULT_TOPIC,
+                        AMM_LIQUIDITY_QUERY_TOPIC,
+                        AMM_LIQUIDITY_TOPIC,
+                        AMM_TWAP_QUERY_TOPIC,
+                        AMM_TWAP_TOPIC,
+                        OFFER_BOOK_QUERY_TOPIC,
+                        OFFER_BOOK_TOPIC,
+                        CANDLE_CLOSE_TOPIC,
+                        AMM_POSITION_FEE_TOPIC,
                         BALANCES_LOCK_TOPIC,
                         BALANCES_LOCK_UPDATE_TOPIC,
+                        BACKUP_TOPIC,
+                        BACKUP_RESULT_TOPIC,
         };
 
         // Topics cho các truy vấn và reset, tách riêng để xử lý riêng
         public static final String[] QUERY_TOPICS = {
                         COIN_ACCOUNT_QUERY_TOPIC,
                         RESET_BALANCE_TOPIC,
+                        BACKUP_TOPIC,
+                        TICK_QUERY_TOPIC,
+                        ACCOUNT_HISTORY_QUERY_TOPIC,
+                        AMM_SWAP_QUOTE_TOPIC,
+                        AMM_LIQUIDITY_QUERY_TOPIC,
+                        AMM_TWAP_QUERY_TOPIC,
+                        OFFER_BOOK_QUERY_TOPIC,
+        };
+
+        // Topics query chỉ đọc, dùng cho query replica (không bao gồm reset balance)
+        public static final String[] READ_ONLY_QUERY_TOPICS = {
+                        COIN_ACCOUNT_QUERY_TOPIC,
                         TICK_QUERY_TOPIC,
+                        ACCOUNT_HISTORY_QUERY_TOPIC,
+                        AMM_SWAP_QUOTE_TOPIC,
+                        AMM_LIQUIDITY_QUERY_TOPIC,
+                        AMM_TWAP_QUERY_TOPIC,
         };
 
         // Topics cho các logic xử lý chính (không bao gồm query)
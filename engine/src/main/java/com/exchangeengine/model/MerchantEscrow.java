@@ -1,13 +1,13 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
@@ -66,8 +66,8 @@ public class MerchantEscrow {
     @NotBlank(message = "status is required")
     private String status = STATUS_PENDING;
 
-    private long createdAt = Instant.now().toEpochMilli();
-    private long updatedAt = Instant.now().toEpochMilli();
+    private long createdAt = EventClock.currentTimeMillis();
+    private long updatedAt = EventClock.currentTimeMillis();
 
     private String statusExplanation = "";
 
@@ -96,7 +96,7 @@ public class MerchantEscrow {
         this.fiatCurrency = fiatCurrency;
         this.userId = userId;
         this.merchantEscrowOperationId = merchantEscrowOperationId;
-        this.createdAt = Instant.now().toEpochMilli();
+        this.createdAt = EventClock.currentTimeMillis();
         this.updatedAt = this.createdAt;
         this.status = STATUS_PENDING;
         validateRequiredFields();
@@ -125,7 +125,7 @@ public class MerchantEscrow {
      */
     public void activate() {
         this.status = STATUS_COMPLETED;
-        this.updatedAt = Instant.now().toEpochMilli();
+        this.updatedAt = EventClock.currentTimeMillis();
     }
 
     /**
@@ -133,7 +133,7 @@ public class MerchantEscrow {
      */
     public void cancel() {
         this.status = STATUS_CANCELLED;
-        this.updatedAt = Instant.now().toEpochMilli();
+        this.updatedAt = EventClock.currentTimeMillis();
     }
 
     /**
@@ -15,6 +15,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 
 import java.math.BigDecimal;
@@ -96,8 +97,8 @@ public class Offer {
         this.totalAmount = totalAmount;
         this.availableAmount = availableAmount;
         this.status = OfferStatus.PENDING;
-        this.createdAt = createdAt != null ? createdAt : Instant.now();
-        this.updatedAt = updatedAt != null ? updatedAt : Instant.now();
+        this.createdAt = createdAt != null ? createdAt : EventClock.now();
+        this.updatedAt = updatedAt != null ? updatedAt : EventClock.now();
         this.disabled = disabled;
         this.deleted = deleted;
         this.automatic = automatic;
@@ -150,7 +151,7 @@ public class Offer {
     public void fill() {
         this.status = OfferStatus.FILLED;
         this.availableAmount = BigDecimal.ZERO;
-        this.updatedAt = Instant.now();
+        this.updatedAt = EventClock.now();
     }
 
     /**
@@ -160,7 +161,7 @@ public class Offer {
     public void partiallyFill(BigDecimal filledQuantity) {
         this.availableAmount = this.availableAmount.subtract(filledQuantity);
         this.status = OfferStatus.PARTIALLY_FILLED;
-        this.updatedAt = Instant.now();
+        this.updatedAt = EventClock.now();
     }
 
     /**
@@ -168,7 +169,7 @@ public class Offer {
      */
     public void cancel() {
         this.status = OfferStatus.CANCELLED;
-        this.updatedAt = Instant.now();
+        this.updatedAt = EventClock.now();
     }
 
     /**
@@ -180,7 +181,7 @@ public class Offer {
         if (newStatus != this.status) {
             this.status = newStatus;
             this.statusExplanation = description;
-            this.updatedAt = Instant.now();
+            this.updatedAt = EventClock.now();
         }
     }
 
@@ -0,0 +1,53 @@
+package com.exchangeengine.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Các offer tốt nhất của một symbol và một phía, trả về cho offer book query.
+ * SELL sắp giá tăng dần, BUY sắp giá giảm dần, cùng giá thì offer cũ trước.
+ */
+@Data
+@NoArgsConstructor
+public class OfferBook {
+  private String symbol;
+  private Offer.OfferType offerType;
+  private String inputEventId;
+
+  // Bộ lọc của query, null = không lọc
+  private String paymentMethodId;
+  private String countryCode;
+
+  private int limit;
+  private List<OfferBookEntry> offers = new ArrayList<>();
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("symbol", symbol);
+    message.put("offerType", offerType != null ? offerType.name().toLowerCase() : null);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+    message.put("paymentMethodId", paymentMethodId);
+    message.put("countryCode", countryCode);
+    message.put("limit", limit);
+
+    List<Map<String, Object>> offerMessages = new ArrayList<>(offers.size());
+    for (OfferBookEntry offer : offers) {
+      offerMessages.add(offer.toMessageJson());
+    }
+    message.put("offers", offerMessages);
+    message.put("count", offers.size());
+    return message;
+  }
+}
@@ -0,0 +1,93 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Entry bất biến của sổ offer P2P: chụp lại giá, lượng còn lại và các điều kiện
+ * lọc của một offer đang hiển thị tại thời điểm index. Processor sửa Offer trực
+ * tiếp trên object trong cache nên query chỉ đọc các entry này.
+ */
+@Getter
+@EqualsAndHashCode
+public final class OfferBookEntry {
+  private final String identifier;
+  private final String userId;
+  private final String symbol;
+  private final Offer.OfferType type;
+  private final BigDecimal price;
+  private final BigDecimal availableAmount;
+  private final BigDecimal minAmount;
+  private final BigDecimal maxAmount;
+  private final String paymentMethodId;
+  private final Integer paymentTime;
+  private final String countryCode;
+  private final BigDecimal margin;
+  private final Boolean automatic;
+  private final Boolean online;
+  private final long createdAt;
+
+  public OfferBookEntry(Offer offer) {
+    this.identifier = offer.getIdentifier();
+    this.userId = offer.getUserId();
+    this.symbol = offer.getSymbol();
+    this.type = offer.getType();
+    this.price = offer.getPrice();
+    this.availableAmount = offer.getAvailableAmount();
+    this.minAmount = offer.getMinAmount();
+    this.maxAmount = offer.getMaxAmount();
+    this.paymentMethodId = offer.getPaymentMethodId();
+    this.paymentTime = offer.getPaymentTime();
+    this.countryCode = offer.getCountryCode();
+    this.margin = offer.getMargin();
+    this.automatic = offer.getAutomatic();
+    this.online = offer.getOnline();
+    this.createdAt = offer.getCreatedAtEpochMilli();
+  }
+
+  /**
+   * Offer có được hiển thị trên sổ hay không: đang mở, chưa bị tắt/xóa và còn
+   * lượng để khớp
+   *
+   * @param offer Offer cần kiểm tra
+   * @return true nếu offer được đưa vào sổ
+   */
+  public static boolean isListed(Offer offer) {
+    return offer.getIdentifier() != null
+        && offer.getSymbol() != null
+        && offer.getType() != null
+        && offer.getPrice() != null
+        && offer.isActive()
+        && !Boolean.TRUE.equals(offer.getDisabled())
+        && !Boolean.TRUE.equals(offer.getDeleted())
+        && offer.getAvailableAmount() != null
+        && offer.getAvailableAmount().compareTo(BigDecimal.ZERO) > 0;
+  }
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("identifier", identifier);
+    message.put("userId", userId);
+    message.put("price", price);
+    message.put("availableAmount", availableAmount);
+    message.put("minAmount", minAmount);
+    message.put("maxAmount", maxAmount);
+    message.put("paymentMethodId", paymentMethodId);
+    message.put("paymentTime", paymentTime);
+    message.put("countryCode", countryCode);
+    message.put("margin", margin);
+    message.put("automatic", automatic);
+    message.put("online", online);
+    message.put("createdAt", createdAt);
+    return message;
+  }
+}
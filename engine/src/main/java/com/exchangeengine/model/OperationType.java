@@ -46,6 +46,17 @@ public enum OperationType {
 
   // Tick operations
   TICK_QUERY("tick_query"),
+
+  // Account history operations
+  ACCOUNT_HISTORY_QUERY("account_history_query"),
+
+  // AMM swap quote operations
+  AMM_SWAP_QUOTE("amm_swap_quote"),
+  AMM_LIQUIDITY_QUERY("amm_liquidity_query"),
+  AMM_TWAP_QUERY("amm_twap_query"),
+
+  // P2P offer book query
+  OFFER_BOOK_QUERY("offer_book_query"),
   
   // Balance lock operations
   BALANCES_LOCK_CREATE("balances_lock_create"),
@@ -39,6 +39,8 @@ public class ProcessResult {
   private final Map<String, Account> accounts = new HashMap<>();
   private final List<AccountHistory> accountHistories = new ArrayList<>();
   private final List<Tick> ticks = new ArrayList<>();
+  // txCount của pool tại lúc event xử lý xong, chụp trên thread disruptor
+  private final Map<String, Long> tickPoolVersions = new HashMap<>();
 
   /**
    * Constructor với event
@@ -577,6 +579,26 @@ public class ProcessResult {
     return ticks;
   }
 
+  /**
+   * Ghi lại version (txCount) của pool chứa các ticks thay đổi
+   *
+   * @param poolPair    pool pair
+   * @param poolVersion txCount của pool
+   */
+  public void putTickPoolVersion(String poolPair, long poolVersion) {
+    tickPoolVersions.put(poolPair, poolVersion);
+  }
+
+  /**
+   * Lấy version của pool đã chụp bằng putTickPoolVersion
+   *
+   * @param poolPair pool pair
+   * @return txCount đã chụp, rỗng nếu chưa chụp
+   */
+  public Optional<Long> getTickPoolVersion(String poolPair) {
+    return Optional.ofNullable(tickPoolVersions.get(poolPair));
+  }
+
   /**
    * Chuyển đổi sang message JSON cho AmmPool
    *
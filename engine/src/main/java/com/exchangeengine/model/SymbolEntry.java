@@ -0,0 +1,29 @@
+package com.exchangeengine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một dòng của bảng symbol: chuỗi (account key, pool pair) và id số nguyên được
+ * cấp cho nó. Lưu trong settings CF với key "symbol:{kind}:{name}".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SymbolEntry {
+  public static final String KEY_PREFIX = "symbol:";
+
+  private String kind;
+  private String name;
+  private int id;
+
+  @JsonIgnore
+  public String getKey() {
+    return KEY_PREFIX + kind + ":" + name;
+  }
+}
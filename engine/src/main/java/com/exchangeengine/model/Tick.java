@@ -1,14 +1,18 @@
 package com.exchangeengine.model;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.validation.ConstraintViolation;
@@ -87,8 +91,8 @@ public class Tick {
   public Tick(String poolPair, int tickIndex) {
     this.poolPair = poolPair;
     this.tickIndex = tickIndex;
-    this.tickInitializedTimestamp = System.currentTimeMillis();
-    this.createdAt = System.currentTimeMillis();
+    this.tickInitializedTimestamp = EventClock.currentTimeMillis();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -99,6 +103,42 @@ public class Tick {
     return getPoolPair() + "-" + getTickIndex();
   }
 
+  /**
+   * Prefix nhị phân của các tick thuộc một pool: poolPair (UTF-8) + 0x00
+   */
+  public static byte[] generateBinaryPrefix(String poolPair) {
+    byte[] poolBytes = poolPair.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(poolBytes.length + 1)
+        .put(poolBytes)
+        .put((byte) 0)
+        .array();
+  }
+
+  /**
+   * Key nhị phân prefix + tickIndex big-endian đã đảo bit dấu, nên các tick của
+   * một pool nằm liền nhau trong RocksDB theo thứ tự tick index (kể cả tick âm)
+   */
+  public static byte[] generateBinaryKey(String poolPair, int tickIndex) {
+    byte[] prefix = generateBinaryPrefix(poolPair);
+    return ByteBuffer.allocate(prefix.length + Integer.BYTES)
+        .put(prefix)
+        .putInt(tickIndex ^ Integer.MIN_VALUE)
+        .array();
+  }
+
+  /**
+   * Key có phải dạng nhị phân ở trên không (key chuỗi "pair-index" cũ không
+   * chứa byte 0)
+   */
+  public static boolean isBinaryKey(byte[] key) {
+    return key.length > Integer.BYTES && key[key.length - Integer.BYTES - 1] == 0;
+  }
+
+  @JsonIgnore
+  public byte[] getBinaryKey() {
+    return generateBinaryKey(poolPair, tickIndex);
+  }
+
   /**
    * Xác thực rằng tick này có tất cả các trường bắt buộc và giá trị hợp lệ
    */
@@ -188,7 +228,7 @@ public class Tick {
         // secondsOutside có thể được thêm trong tương lai khi cần
       }
       this.initialized = true;
-      this.tickInitializedTimestamp = System.currentTimeMillis();
+      this.tickInitializedTimestamp = EventClock.currentTimeMillis();
     }
 
     // Cập nhật thanh khoản ròng dựa trên cờ upper/lower
@@ -198,7 +238,7 @@ public class Tick {
       this.liquidityNet = this.liquidityNet.add(liquidityDelta);
     }
 
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return flipped;
   }
@@ -226,7 +266,7 @@ public class Tick {
     this.feeGrowthOutside0 = BigDecimal.ZERO;
     this.feeGrowthOutside1 = BigDecimal.ZERO;
     this.initialized = false;
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = EventClock.currentTimeMillis();
   }
 
   /**
@@ -251,7 +291,7 @@ public class Tick {
     this.feeGrowthOutside0 = feeGrowthGlobal0.subtract(this.feeGrowthOutside0);
     this.feeGrowthOutside1 = feeGrowthGlobal1.subtract(this.feeGrowthOutside1);
 
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = EventClock.currentTimeMillis();
 
     return this.liquidityNet;
   }
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 
 import com.exchangeengine.serializer.BitSetDeserializer;
 import com.exchangeengine.serializer.BitSetSerializer;
+import com.exchangeengine.util.EventClock;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -48,7 +49,7 @@ public class TickBitmap {
    */
   public TickBitmap(String poolPair) {
     this.poolPair = poolPair;
-    this.createdAt = System.currentTimeMillis();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
@@ -57,7 +58,7 @@ public class TickBitmap {
    */
   public BitSet setBit(int index) {
     bitmap.set(index);
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = EventClock.currentTimeMillis();
     return bitmap;
   }
 
@@ -66,7 +67,7 @@ public class TickBitmap {
    */
   public BitSet clearBit(int index) {
     bitmap.clear(index);
-    this.updatedAt = System.currentTimeMillis();
+    this.updatedAt = EventClock.currentTimeMillis();
     return bitmap;
   }
 
@@ -139,7 +140,7 @@ public class TickBitmap {
   public void fromByteArray(byte[] bytes) {
     BitSet fromBytes = BitSet.valueOf(bytes);
     this.bitmap = fromBytes;
-    this.createdAt = System.currentTimeMillis();
+    this.createdAt = EventClock.currentTimeMillis();
     this.updatedAt = this.createdAt;
   }
 
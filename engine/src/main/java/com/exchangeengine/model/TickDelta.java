@@ -0,0 +1,145 @@
+package com.exchangeengine.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.exchangeengine.storage.cache.AmmPoolCache;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Gói các tick thay đổi của một pool vào một message Kafka duy nhất.
+ * DELTA: các tick bị thay đổi bởi một swap/position.
+ * SNAPSHOT: một trang ticks đã khởi tạo của pool trả về cho tick query.
+ *
+ * poolVersion là txCount của pool ngay sau event tạo ra delta; consumer có thể
+ * bỏ qua message có version nhỏ hơn version đã áp dụng.
+ */
+@Data
+@NoArgsConstructor
+public class TickDelta {
+  public static final String TYPE_DELTA = "delta";
+  public static final String TYPE_SNAPSHOT = "snapshot";
+
+  private String type = TYPE_DELTA;
+  private String poolPair;
+  private long poolVersion;
+  private String inputEventId;
+  private List<Tick> ticks = new ArrayList<>();
+
+  // Chỉ dùng cho SNAPSHOT phân trang
+  private Integer cursor;
+  private Integer nextCursor;
+  private boolean hasMore;
+  private int pageSize;
+
+  public TickDelta(String poolPair, long poolVersion) {
+    this.poolPair = poolPair;
+    this.poolVersion = poolVersion;
+  }
+
+  /**
+   * Tạo delta từ ticks của ProcessResult, mỗi pool một delta.
+   * poolVersion lấy từ version đã chụp bằng capturePoolVersions; nếu chưa chụp
+   * thì lấy từ pool trong result nếu cùng pair, nếu không thì từ cache.
+   *
+   * @param result ProcessResult chứa ticks
+   * @return danh sách delta theo pool (giữ thứ tự xuất hiện)
+   */
+  public static List<TickDelta> fromProcessResult(ProcessResult result) {
+    Map<String, TickDelta> deltas = new LinkedHashMap<>();
+    String inputEventId = result.getEvent() != null ? result.getEvent().getEventId() : null;
+
+    for (Tick tick : result.getTicks()) {
+      TickDelta delta = deltas.computeIfAbsent(tick.getPoolPair(), poolPair -> {
+        TickDelta created = new TickDelta(poolPair,
+            result.getTickPoolVersion(poolPair).orElseGet(() -> resolvePoolVersion(result, poolPair)));
+        created.setInputEventId(inputEventId);
+        return created;
+      });
+      delta.getTicks().add(tick);
+    }
+
+    return new ArrayList<>(deltas.values());
+  }
+
+  /**
+   * Chụp version của các pool có tick thay đổi. Gọi trên thread disruptor ngay
+   * sau khi event xử lý xong: delta được tạo bất đồng bộ trên thread Kafka, lúc
+   * đó pool có thể đã được event sau sửa.
+   *
+   * @param result ProcessResult chứa ticks
+   */
+  public static void capturePoolVersions(ProcessResult result) {
+    for (Tick tick : result.getTicks()) {
+      String poolPair = tick.getPoolPair();
+      if (result.getTickPoolVersion(poolPair).isEmpty()) {
+        result.putTickPoolVersion(poolPair, resolvePoolVersion(result, poolPair));
+      }
+    }
+  }
+
+  /**
+   * Tạo một trang snapshot cho tick query.
+   *
+   * @param poolPair    pool pair
+   * @param poolVersion txCount của pool
+   * @param ticks       ticks trong trang
+   * @param cursor      tick index bắt đầu trang (null nếu trang đầu)
+   * @param nextCursor  tick index bắt đầu trang sau (null nếu hết)
+   * @param pageSize    kích thước trang được yêu cầu (0 = không phân trang)
+   * @return TickDelta kiểu SNAPSHOT
+   */
+  public static TickDelta snapshot(String poolPair, long poolVersion, List<Tick> ticks, Integer cursor,
+      Integer nextCursor, int pageSize) {
+    TickDelta snapshot = new TickDelta(poolPair, poolVersion);
+    snapshot.setType(TYPE_SNAPSHOT);
+    snapshot.setTicks(new ArrayList<>(ticks));
+    snapshot.setCursor(cursor);
+    snapshot.setNextCursor(nextCursor);
+    snapshot.setHasMore(nextCursor != null);
+    snapshot.setPageSize(pageSize);
+    return snapshot;
+  }
+
+  private static long resolvePoolVersion(ProcessResult result, String poolPair) {
+    return result.getAmmPool()
+        .filter(pool -> poolPair.equals(pool.getPair()))
+        .or(() -> AmmPoolCache.getInstance().getAmmPool(poolPair))
+        .map(pool -> (long) pool.getTxCount())
+        .orElse(0L);
+  }
+
+  /**
+   * Chuyển thành message JSON gửi Kafka
+   *
+   * @return Map chứa dữ liệu message
+   */
+  public Map<String, Object> toMessageJson() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("type", type);
+    message.put("poolPair", poolPair);
+    message.put("poolVersion", poolVersion);
+    if (inputEventId != null) {
+      message.put("inputEventId", inputEventId);
+    }
+
+    List<Map<String, Object>> tickMessages = new ArrayList<>(ticks.size());
+    for (Tick tick : ticks) {
+      tickMessages.add(tick.toMessageJson());
+    }
+    message.put("ticks", tickMessages);
+    message.put("tickCount", ticks.size());
+
+    if (TYPE_SNAPSHOT.equals(type)) {
+      message.put("cursor", cursor);
+      message.put("nextCursor", nextCursor);
+      message.put("hasMore", hasMore);
+      message.put("pageSize", pageSize);
+    }
+    return message;
+  }
+}
@@ -15,6 +15,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.JsonSerializer;
 
 import java.math.BigDecimal;
@@ -95,6 +96,9 @@ public class Trade {
     private Instant completedAt;
     private Instant cancelledAt;
     
+    // Hạn thanh toán, trade UNPAID quá hạn sẽ bị engine tự hủy (null = không hết hạn)
+    private Instant expiresAt;
+    
     private String statusExplanation;
 
     public enum TradeStatus {
@@ -146,8 +150,8 @@ public class Trade {
      */
     public void complete() {
         this.status = TradeStatus.COMPLETED;
-        this.completedAt = Instant.now();
-        this.updatedAt = Instant.now();
+        this.completedAt = EventClock.now();
+        this.updatedAt = EventClock.now();
     }
     
     /**
@@ -155,8 +159,8 @@ public class Trade {
      */
     public void cancel() {
         this.status = TradeStatus.CANCELLED;
-        this.cancelledAt = Instant.now();
-        this.updatedAt = Instant.now();
+        this.cancelledAt = EventClock.now();
+        this.updatedAt = EventClock.now();
     }
     
     /**
@@ -168,13 +172,13 @@ public class Trade {
         if (newStatus != this.status) {
             this.status = newStatus;
             this.statusExplanation = description;
-            this.updatedAt = Instant.now();
+            this.updatedAt = EventClock.now();
             
             // Update timestamp based on status
             if (newStatus == TradeStatus.COMPLETED) {
-                this.completedAt = Instant.now();
+                this.completedAt = EventClock.now();
             } else if (newStatus == TradeStatus.CANCELLED) {
-                this.cancelledAt = Instant.now();
+                this.cancelledAt = EventClock.now();
             }
         }
     }
@@ -0,0 +1,142 @@
+package com.exchangeengine.model.event;
+
+import com.exchangeengine.model.AccountHistory;
+import com.exchangeengine.model.AccountHistoryPage;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.AccountHistoryCache;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Truy vấn lịch sử giao dịch của account theo trang, lọc theo khoảng thời gian
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AccountHistoryQueryEvent extends BaseEvent {
+  // Số history tối đa trong một trang
+  public static final int MAX_LIMIT = 1000;
+  public static final int DEFAULT_LIMIT = 50;
+
+  private String accountKey;
+
+  // Khoảng thời gian [fromTime, toTime) theo epoch millis, null = không giới hạn
+  private Long fromTime;
+  private Long toTime;
+
+  // Cursor {timestamp}-{sequence} của bản ghi cuối trang trước
+  private String cursor;
+  private int limit = DEFAULT_LIMIT;
+
+  // true = mới nhất trước (mặc định)
+  private boolean newestFirst = true;
+
+  protected AccountHistoryCache getAccountHistoryCache() {
+    return AccountHistoryCache.getInstance();
+  }
+
+  @Override
+  public String getProducerEventId() {
+    return this.accountKey;
+  }
+
+  /**
+   * Lấy một trang lịch sử. Đọc limit + 1 bản ghi để biết còn trang sau hay không.
+   *
+   * @return AccountHistoryPage
+   */
+  public AccountHistoryPage fetchPage() {
+    int pageLimit = Math.min(limit, MAX_LIMIT);
+    List<AccountHistory> histories = getAccountHistoryCache().getAccountTransactionHistory(accountKey,
+        fromTime != null ? fromTime : 0L,
+        toTime != null ? toTime : Long.MAX_VALUE,
+        cursor, pageLimit + 1, newestFirst);
+
+    AccountHistoryPage page = new AccountHistoryPage();
+    page.setAccountKey(accountKey);
+    page.setInputEventId(getEventId());
+    page.setFromTime(fromTime);
+    page.setToTime(toTime);
+    page.setNewestFirst(newestFirst);
+    page.setCursor(cursor);
+    page.setLimit(pageLimit);
+
+    if (histories.size() > pageLimit) {
+      histories = histories.subList(0, pageLimit);
+      page.setNextCursor(histories.get(pageLimit - 1).getCursor());
+    }
+    page.getHistories().addAll(histories);
+    return page;
+  }
+
+  /**
+   * Parse data from JsonNode
+   *
+   * @param messageJson JsonNode containing the data
+   * @return Parsed AccountHistoryQueryEvent
+   */
+  public AccountHistoryQueryEvent parserData(JsonNode messageJson) {
+    setEventId(messageJson.path("eventId").asText());
+    setActionType(ActionType.fromValue(messageJson.path("actionType").asText()));
+    setActionId(messageJson.path("actionId").asText());
+    setOperationType(OperationType.fromValue(messageJson.path("operationType").asText()));
+    setAccountKey(messageJson.path("accountKey").asText());
+
+    JsonNode fromTimeNode = messageJson.path("fromTime");
+    setFromTime(fromTimeNode.isNumber() ? fromTimeNode.asLong() : null);
+    JsonNode toTimeNode = messageJson.path("toTime");
+    setToTime(toTimeNode.isNumber() ? toTimeNode.asLong() : null);
+
+    String tmpCursor = messageJson.path("cursor").asText(null);
+    setCursor(tmpCursor == null || tmpCursor.isEmpty() ? null : tmpCursor);
+    setLimit(messageJson.path("limit").asInt(DEFAULT_LIMIT));
+    setNewestFirst(!"asc".equalsIgnoreCase(messageJson.path("order").asText("desc")));
+
+    return this;
+  }
+
+  /**
+   * Validate the required fields for this event
+   *
+   * @throws IllegalArgumentException if validation fails
+   */
+  public void validate() {
+    List<String> objectErrors = super.validateRequiredFields();
+
+    if (accountKey == null || accountKey.isEmpty()) {
+      objectErrors.add("Account key is required");
+    }
+
+    if (limit <= 0) {
+      objectErrors.add("Limit must be greater than 0");
+    }
+
+    if (fromTime != null && fromTime < 0) {
+      objectErrors.add("From time must be greater than or equal to 0");
+    }
+
+    if (fromTime != null && toTime != null && toTime <= fromTime) {
+      objectErrors.add("To time must be greater than from time");
+    }
+
+    if (cursor != null && accountKey != null && !accountKey.isEmpty()) {
+      try {
+        AccountHistory.cursorToBinaryKey(accountKey, cursor);
+      } catch (IllegalArgumentException e) {
+        objectErrors.add(e.getMessage());
+      }
+    }
+
+    if (objectErrors.size() > 0) {
+      throw new IllegalArgumentException("validate AccountHistoryQueryEvent: " + String.join(", ", objectErrors));
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.exchangeengine.model.event;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmLiquidityDepth;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.LiquidityIndexCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickLiquidityIndex;
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Truy vấn thanh khoản của pool trong một khoảng tick (và depth chart theo
+ * bucket). Đọc từ LiquidityIndexCache nên mỗi khoảng chỉ tốn O(log n).
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AmmLiquidityQueryEvent extends BaseEvent {
+  // Số bucket tối đa của depth chart
+  public static final int MAX_BUCKETS = 500;
+
+  private String poolPair;
+  private int tickLower = AmmPoolConfig.MIN_TICK;
+  private int tickUpper = AmmPoolConfig.MAX_TICK;
+
+  // 0 = chỉ trả tổng của khoảng, không chia depth chart
+  private int buckets;
+
+  protected ReadSnapshotCache getReadSnapshotCache() {
+    return ReadSnapshotCache.getInstance();
+  }
+
+  protected LiquidityIndexCache getLiquidityIndexCache() {
+    return LiquidityIndexCache.getInstance();
+  }
+
+  @Override
+  public String getProducerEventId() {
+    return this.poolPair;
+  }
+
+  /**
+   * Tính thanh khoản của khoảng tick và các bucket.
+   * Giá hiện tại lấy từ pool trong read snapshot.
+   *
+   * @return AmmLiquidityDepth
+   */
+  public AmmLiquidityDepth fetchDepth() {
+    return getLiquidityIndexCache().read(poolPair, this::buildDepth)
+        .orElseThrow(() -> new IllegalStateException("AMM Pool not found: " + poolPair));
+  }
+
+  private AmmLiquidityDepth buildDepth(ReadSnapshotCache.TickView view, TickLiquidityIndex index) {
+    AmmPool pool = view.getPool().get();
+    int currentTick = pool.getCurrentTick();
+    BigDecimal sqrtPrice = pool.getSqrtPrice();
+
+    AmmLiquidityDepth depth = new AmmLiquidityDepth();
+    depth.setPoolPair(poolPair);
+    depth.setInputEventId(getEventId());
+    depth.setCurrentTick(currentTick);
+    depth.setSqrtPrice(sqrtPrice);
+    depth.setActiveLiquidity(index.getLiquidityAt(currentTick));
+    depth.setTickLower(tickLower);
+    depth.setTickUpper(tickUpper);
+
+    BigDecimal[] amounts = index.getAmountsInRange(tickLower, tickUpper, currentTick, sqrtPrice);
+    depth.setAmount0(amounts[0]);
+    depth.setAmount1(amounts[1]);
+
+    if (buckets > 0) {
+      int width = (int) Math.max(1L, ((long) tickUpper - tickLower + buckets - 1) / buckets);
+      for (int lower = tickLower; lower < tickUpper; lower += width) {
+        int upper = (int) Math.min((long) lower + width, tickUpper);
+        BigDecimal[] bucketAmounts = index.getAmountsInRange(lower, upper, currentTick, sqrtPrice);
+        depth.getBuckets().add(new AmmLiquidityDepth.Bucket(lower, upper, index.getLiquidityAt(lower),
+            bucketAmounts[0], bucketAmounts[1]));
+      }
+    }
+
+    return depth;
+  }
+
+  /**
+   * Parse data from JsonNode
+   *
+   * @param messageJson JsonNode containing the data
+   * @return Parsed AmmLiquidityQueryEvent
+   */
+  public AmmLiquidityQueryEvent parserData(JsonNode messageJson) {
+    setEventId(messageJson.path("eventId").asText());
+    setActionType(ActionType.fromValue(messageJson.path("actionType").asText()));
+    setActionId(messageJson.path("actionId").asText());
+    setOperationType(OperationType.fromValue(messageJson.path("operationType").asText()));
+    setPoolPair(messageJson.path("poolPair").asText());
+    setTickLower(messageJson.path("tickLower").asInt(AmmPoolConfig.MIN_TICK));
+    setTickUpper(messageJson.path("tickUpper").asInt(AmmPoolConfig.MAX_TICK));
+    setBuckets(messageJson.path("buckets").asInt(0));
+
+    return this;
+  }
+
+  /**
+   * Validate the required fields for this event
+   *
+   * @throws IllegalArgumentException if validation fails
+   */
+  public void validate() {
+    List<String> objectErrors = super.validateRequiredFields();
+
+    if (poolPair == null || poolPair.isEmpty()) {
+      objectErrors.add("Pool pair is required");
+    } else {
+      Optional<AmmPool> poolOpt = getReadSnapshotCache().getAmmPool(poolPair);
+      if (!poolOpt.isPresent()) {
+        objectErrors.add("AMM Pool does not exist: " + poolPair);
+      } else if (!poolOpt.get().isActive()) {
+        objectErrors.add("AMM Pool is not active: " + poolPair);
+      }
+    }
+
+    if (!AmmPoolConfig.isValidTick(tickLower) || !AmmPoolConfig.isValidTick(tickUpper)) {
+      objectErrors.add(AmmPoolConfig.validateTick(AmmPoolConfig.isValidTick(tickLower) ? tickUpper : tickLower));
+    } else if (tickLower >= tickUpper) {
+      objectErrors.add("Tick lower must be less than tick upper");
+    }
+
+    if (buckets < 0 || buckets > MAX_BUCKETS) {
+      objectErrors.add("Buckets must be between 0 and " + MAX_BUCKETS);
+    }
+
+    if (objectErrors.size() > 0) {
+      throw new IllegalArgumentException("validate AmmLiquidityQueryEvent: " + String.join(", ", objectErrors));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.exchangeengine.model.event;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.service.engine.amm_order.AmmSwapQuoter;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Truy vấn báo giá swap AMM. Không đi qua disruptor, không sửa pool hay account.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AmmSwapQuoteEvent extends BaseEvent {
+  private String poolPair;
+  private Boolean zeroForOne;
+
+  // Lượng token vào, phải > 0 giống AmmOrder
+  private BigDecimal amountSpecified;
+
+  protected ReadSnapshotCache getReadSnapshotCache() {
+    return ReadSnapshotCache.getInstance();
+  }
+
+  @Override
+  public String getProducerEventId() {
+    return this.poolPair;
+  }
+
+  /**
+   * Tính báo giá trên snapshot hiện tại của pool
+   *
+   * @return AmmSwapQuote
+   */
+  public AmmSwapQuote fetchQuote() {
+    AmmSwapQuote quote = new AmmSwapQuoter(getReadSnapshotCache().getTickView(poolPair))
+        .quote(zeroForOne, amountSpecified);
+    quote.setInputEventId(getEventId());
+    return quote;
+  }
+
+  /**
+   * Parse data from JsonNode
+   *
+   * @param messageJson JsonNode containing the data
+   * @return Parsed AmmSwapQuoteEvent
+   */
+  public AmmSwapQuoteEvent parserData(JsonNode messageJson) {
+    setEventId(messageJson.path("eventId").asText());
+    setActionType(ActionType.fromValue(messageJson.path("actionType").asText()));
+    setActionId(messageJson.path("actionId").asText());
+    setOperationType(OperationType.fromValue(messageJson.path("operationType").asText()));
+    setPoolPair(messageJson.path("poolPair").asText());
+
+    JsonNode zeroForOneNode = messageJson.path("zeroForOne");
+    setZeroForOne(zeroForOneNode.isBoolean() ? zeroForOneNode.asBoolean() : null);
+
+    try {
+      String tmpAmount = messageJson.path("amountSpecified").asText(null);
+      setAmountSpecified(tmpAmount == null || tmpAmount.isEmpty() ? null : new BigDecimal(tmpAmount));
+    } catch (NumberFormatException e) {
+      setAmountSpecified(null);
+    }
+
+    return this;
+  }
+
+  /**
+   * Validate the required fields for this event
+   *
+   * @throws IllegalArgumentException if validation fails
+   */
+  public void validate() {
+    List<String> objectErrors = super.validateRequiredFields();
+
+    if (poolPair == null || poolPair.isEmpty()) {
+      objectErrors.add("Pool pair is required");
+    } else {
+      Optional<AmmPool> poolOpt = getReadSnapshotCache().getAmmPool(poolPair);
+      if (!poolOpt.isPresent()) {
+        objectErrors.add("AMM Pool does not exist: " + poolPair);
+      } else if (!poolOpt.get().isActive()) {
+        objectErrors.add("AMM Pool is not active: " + poolPair);
+      } else if (poolOpt.get().getLiquidity().compareTo(BigDecimal.ZERO) <= 0) {
+        objectErrors.add("Pool has no liquidity");
+      }
+    }
+
+    if (zeroForOne == null) {
+      objectErrors.add("Zero for one is required");
+    }
+
+    if (amountSpecified == null) {
+      objectErrors.add("Amount specified is required");
+    } else if (amountSpecified.compareTo(BigDecimal.ZERO) <= 0) {
+      objectErrors.add("Amount specified must be greater than 0");
+    }
+
+    if (objectErrors.size() > 0) {
+      throw new IllegalArgumentException("validate AmmSwapQuoteEvent: " + String.join(", ", objectErrors));
+    }
+  }
+}
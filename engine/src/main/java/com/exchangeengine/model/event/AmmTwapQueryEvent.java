@@ -0,0 +1,142 @@
+package com.exchangeengine.model.event;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmObservations;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmTwap;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.util.EventClock;
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Truy vấn TWAP / volatility của pool trong windowSeconds giây gần nhất.
+ * Chỉ đọc observations của pool, không quét order.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AmmTwapQueryEvent extends BaseEvent {
+  private static final double LOG_TICK_BASE = Math.log(1.0001);
+
+  private String poolPair;
+  private long windowSeconds;
+
+  protected ReadSnapshotCache getReadSnapshotCache() {
+    return ReadSnapshotCache.getInstance();
+  }
+
+  protected long currentTimeMillis() {
+    return EventClock.currentTimeMillis();
+  }
+
+  @Override
+  public String getProducerEventId() {
+    return this.poolPair;
+  }
+
+  /**
+   * Tính TWAP, thanh khoản trung bình và volatility của khoảng
+   * [now - windowSeconds, now] từ hai observation hai đầu khoảng.
+   *
+   * @return AmmTwap
+   */
+  public AmmTwap fetchTwap() {
+    AmmPool pool = getReadSnapshotCache().getAmmPool(poolPair)
+        .orElseThrow(() -> new IllegalStateException("AMM Pool not found: " + poolPair));
+
+    long endTime = currentTimeMillis();
+    long startTime = endTime - windowSeconds * 1000L;
+    AmmObservations observations = pool.getObservations();
+    AmmObservations.Observation end = observations.observe(endTime, pool.getCurrentTick(), pool.getLiquidity())
+        .orElseThrow(() -> new IllegalStateException("No observations for pool: " + poolPair));
+    AmmObservations.Observation start = observations
+        .observe(startTime, pool.getCurrentTick(), pool.getLiquidity())
+        .orElseThrow(() -> new IllegalStateException("Window exceeds observation history: " + poolPair));
+
+    double elapsed = endTime - startTime;
+    double averageTick = (end.getTickCumulative() - start.getTickCumulative()) / elapsed;
+    double averageLiquidity = (end.getLiquidityCumulative() - start.getLiquidityCumulative()) / elapsed;
+    double averageTickSquared = (end.getTickSquaredCumulative() - start.getTickSquaredCumulative()) / elapsed;
+    double tickStdDev = Math.sqrt(Math.max(0d, averageTickSquared - averageTick * averageTick));
+
+    AmmTwap twap = new AmmTwap();
+    twap.setPoolPair(poolPair);
+    twap.setInputEventId(getEventId());
+    twap.setWindowSeconds(windowSeconds);
+    twap.setStartTime(startTime);
+    twap.setEndTime(endTime);
+    twap.setCurrentTick(pool.getCurrentTick());
+    twap.setAverageTick(toDecimal(averageTick));
+    twap.setTwapPrice(toDecimal(Math.exp(averageTick * LOG_TICK_BASE)));
+    twap.setAverageLiquidity(toDecimal(averageLiquidity));
+    twap.setTickStdDev(toDecimal(tickStdDev));
+    twap.setVolatility(toDecimal(tickStdDev * LOG_TICK_BASE));
+    return twap;
+  }
+
+  private static BigDecimal toDecimal(double value) {
+    return new BigDecimal(value, AmmPoolConfig.MC).stripTrailingZeros();
+  }
+
+  /**
+   * Parse data from JsonNode
+   *
+   * @param messageJson JsonNode containing the data
+   * @return Parsed AmmTwapQueryEvent
+   */
+  public AmmTwapQueryEvent parserData(JsonNode messageJson) {
+    setEventId(messageJson.path("eventId").asText());
+    setActionType(ActionType.fromValue(messageJson.path("actionType").asText()));
+    setActionId(messageJson.path("actionId").asText());
+    setOperationType(OperationType.fromValue(messageJson.path("operationType").asText()));
+    setPoolPair(messageJson.path("poolPair").asText());
+    setWindowSeconds(messageJson.path("windowSeconds").asLong(0));
+
+    return this;
+  }
+
+  /**
+   * Validate the required fields for this event
+   *
+   * @throws IllegalArgumentException if validation fails
+   */
+  public void validate() {
+    List<String> objectErrors = super.validateRequiredFields();
+
+    if (windowSeconds <= 0) {
+      objectErrors.add("Window seconds must be greater than 0");
+    }
+
+    if (poolPair == null || poolPair.isEmpty()) {
+      objectErrors.add("Pool pair is required");
+    } else {
+      Optional<AmmPool> poolOpt = getReadSnapshotCache().getAmmPool(poolPair);
+      if (!poolOpt.isPresent()) {
+        objectErrors.add("AMM Pool does not exist: " + poolPair);
+      } else if (windowSeconds > 0) {
+        Optional<Long> oldest = poolOpt.get().getObservations().getOldestTimestamp();
+        if (!oldest.isPresent()) {
+          objectErrors.add("AMM Pool has no observations: " + poolPair);
+        } else if (oldest.get() > currentTimeMillis() - windowSeconds * 1000L) {
+          objectErrors.add("Window exceeds observation history, oldest observation at " + oldest.get());
+        }
+      }
+    }
+
+    if (objectErrors.size() > 0) {
+      throw new IllegalArgumentException("validate AmmTwapQueryEvent: " + String.join(", ", objectErrors));
+    }
+  }
+}
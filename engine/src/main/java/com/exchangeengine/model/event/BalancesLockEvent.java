@@ -10,6 +10,7 @@ import com.exchangeengine.model.ActionType;
 import com.exchangeengine.model.BalanceLock;
 import com.exchangeengine.model.OperationType;
 import com.exchangeengine.storage.cache.BalanceLockCache;
+import com.exchangeengine.util.EpochTime;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -32,6 +33,7 @@ public class BalancesLockEvent extends BaseEvent {
     private String lockId;
     private List<String> accountKeys;
     private String identifier;
+    private long expiresAt;
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     protected BalanceLockCache getBalanceLockCache() {
@@ -70,9 +72,10 @@ public class BalancesLockEvent extends BaseEvent {
      */
     public BalanceLock toBalanceLock(boolean raiseException) {
         BalanceLock lock = fetchBalanceLock(raiseException).orElseGet(() -> {
+            BalanceLock newLock;
             if (OperationType.BALANCES_LOCK_CREATE.isEqualTo(getOperationType().getValue()) && lockId != null && !lockId.isEmpty()) {
                 // Sử dụng lockId từ event nếu có để tránh lỗi khi publish
-                return new BalanceLock(
+                newLock = new BalanceLock(
                     getActionType(),
                     getActionId(),
                     lockId, // Sử dụng lockId từ event
@@ -83,13 +86,15 @@ public class BalancesLockEvent extends BaseEvent {
                 );
             } else {
                 // Nếu không phải CREATE hoặc không có lockId, tạo mới với UUID
-                return new BalanceLock(
+                newLock = new BalanceLock(
                     getActionType(),
                     getActionId(),
                     accountKeys,
                     identifier
                 );
             }
+            newLock.setExpiresAt(expiresAt);
+            return newLock;
         });
         
         return lock;
@@ -126,6 +131,8 @@ public class BalancesLockEvent extends BaseEvent {
         setOperationType(tmpOperationType);
         this.lockId = tmpLockId;
         this.identifier = tmpIdentifier;
+        // Chuẩn hóa về epoch millis (client có thể gửi giây hoặc ISO-8601)
+        this.expiresAt = EpochTime.parseMillis(messageJson.path("expiresAt"));
         
         return this;
     }
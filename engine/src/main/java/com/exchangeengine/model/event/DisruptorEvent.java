@@ -1,8 +1,13 @@
 package com.exchangeengine.model.event;
 
+import com.exchangeengine.model.ProcessResult;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -31,6 +36,12 @@ public class DisruptorEvent {
   private OfferEvent offerEvent;
   private BalancesLockEvent balancesLockEvent;
 
+  // Kết quả xử lý của business stage, để các stage phía sau (candle) đọc lại
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private transient ProcessResult processResult;
+
   public void setErrorMessage(String errorMessage) {
     this.isSuccess = false;
     this.errorMessage = errorMessage;
@@ -180,6 +191,7 @@ public class DisruptorEvent {
     this.tradeEvent = source.getTradeEvent();
     this.offerEvent = source.getOfferEvent();
     this.balancesLockEvent = source.getBalancesLockEvent();
+    this.processResult = null;
 
     return this;
   }
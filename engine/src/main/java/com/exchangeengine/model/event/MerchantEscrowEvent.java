@@ -37,6 +37,16 @@ public class MerchantEscrowEvent extends BaseEvent {
     private String userId;
     private String merchantEscrowOperationId;
 
+    /**
+     * Ghi cả operationType của BaseEvent, để event đọc lại từ input journal
+     * validate giống event gốc
+     */
+    @Override
+    public void setOperationType(OperationType operationType) {
+        super.setOperationType(operationType);
+        this.operationType = operationType;
+    }
+
     @Override
     public String getProducerEventId() {
         return this.identifier;
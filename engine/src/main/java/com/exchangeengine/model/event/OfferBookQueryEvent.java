@@ -0,0 +1,113 @@
+package com.exchangeengine.model.event;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.Offer;
+import com.exchangeengine.model.OfferBook;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.OfferCache;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Truy vấn các offer P2P tốt nhất của một symbol và một phía, lọc theo phương
+ * thức thanh toán và quốc gia. Đọc index sắp theo giá của OfferCache, không quét
+ * toàn bộ offer.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OfferBookQueryEvent extends BaseEvent {
+  // Số offer tối đa trong một lần truy vấn
+  public static final int MAX_LIMIT = 100;
+  public static final int DEFAULT_LIMIT = 20;
+
+  private String symbol;
+  private String offerType;
+  private String paymentMethodId;
+  private String countryCode;
+  private int limit = DEFAULT_LIMIT;
+
+  protected OfferCache getOfferCache() {
+    return OfferCache.getInstance();
+  }
+
+  @Override
+  public String getProducerEventId() {
+    return this.symbol;
+  }
+
+  /**
+   * Lấy các offer tốt nhất theo bộ lọc của query
+   *
+   * @return OfferBook
+   */
+  public OfferBook fetchOfferBook() {
+    int bookLimit = Math.min(limit, MAX_LIMIT);
+    Offer.OfferType type = Offer.OfferType.valueOf(offerType.toUpperCase());
+
+    OfferBook book = new OfferBook();
+    book.setSymbol(symbol);
+    book.setOfferType(type);
+    book.setInputEventId(getEventId());
+    book.setPaymentMethodId(paymentMethodId);
+    book.setCountryCode(countryCode);
+    book.setLimit(bookLimit);
+    book.getOffers().addAll(getOfferCache().getOfferBook(symbol, type, paymentMethodId, countryCode, bookLimit));
+    return book;
+  }
+
+  /**
+   * Parse data from JsonNode
+   *
+   * @param messageJson JsonNode containing the data
+   * @return Parsed OfferBookQueryEvent
+   */
+  public OfferBookQueryEvent parserData(JsonNode messageJson) {
+    setEventId(messageJson.path("eventId").asText());
+    setActionType(ActionType.fromValue(messageJson.path("actionType").asText()));
+    setActionId(messageJson.path("actionId").asText());
+    setOperationType(OperationType.fromValue(messageJson.path("operationType").asText()));
+    setSymbol(messageJson.path("symbol").asText());
+    setOfferType(messageJson.path("offerType").asText());
+
+    String tmpPaymentMethodId = messageJson.path("paymentMethodId").asText(null);
+    setPaymentMethodId(tmpPaymentMethodId == null || tmpPaymentMethodId.isEmpty() ? null : tmpPaymentMethodId);
+    String tmpCountryCode = messageJson.path("countryCode").asText(null);
+    setCountryCode(tmpCountryCode == null || tmpCountryCode.isEmpty() ? null : tmpCountryCode);
+    setLimit(messageJson.path("limit").asInt(DEFAULT_LIMIT));
+
+    return this;
+  }
+
+  /**
+   * Validate the required fields for this event
+   *
+   * @throws IllegalArgumentException if validation fails
+   */
+  public void validate() {
+    List<String> objectErrors = super.validateRequiredFields();
+
+    if (symbol == null || symbol.isEmpty()) {
+      objectErrors.add("Symbol is required");
+    }
+
+    if (offerType == null || !("buy".equalsIgnoreCase(offerType) || "sell".equalsIgnoreCase(offerType))) {
+      objectErrors.add("Offer type must be buy or sell");
+    }
+
+    if (limit <= 0) {
+      objectErrors.add("Limit must be greater than 0");
+    }
+
+    if (objectErrors.size() > 0) {
+      throw new IllegalArgumentException("validate OfferBookQueryEvent: " + String.join(", ", objectErrors));
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.exchangeengine.model.Offer;
 import com.exchangeengine.model.Account;
 import com.exchangeengine.storage.cache.OfferCache;
 import com.exchangeengine.storage.cache.AccountCache;
+import com.exchangeengine.util.EventClock;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Data;
@@ -118,8 +119,8 @@ public class OfferEvent extends BaseEvent {
             newOffer.setPrice(price);
             newOffer.setTotalAmount(totalAmount);
             newOffer.setStatus(Offer.OfferStatus.PENDING);
-            newOffer.setCreatedAt(createdAt != null ? createdAt : Instant.now());
-            newOffer.setUpdatedAt(updatedAt != null ? updatedAt : Instant.now());
+            newOffer.setCreatedAt(createdAt != null ? createdAt : EventClock.now());
+            newOffer.setUpdatedAt(updatedAt != null ? updatedAt : EventClock.now());
             newOffer.setDisabled(disabled);
             newOffer.setDeleted(deleted);
             newOffer.setAutomatic(automatic);
@@ -4,10 +4,8 @@ import com.exchangeengine.model.ActionType;
 import com.exchangeengine.model.AmmPool;
 import com.exchangeengine.model.OperationType;
 import com.exchangeengine.model.Tick;
-import com.exchangeengine.model.TickBitmap;
-import com.exchangeengine.storage.cache.AmmPoolCache;
-import com.exchangeengine.storage.cache.TickBitmapCache;
-import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.model.TickDelta;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
 
 import java.util.Optional;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -19,6 +17,8 @@ import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * Model for Tick events
@@ -29,18 +29,19 @@ import java.util.List;
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TickEvent extends BaseEvent {
+  // Số tick tối đa trong một trang snapshot
+  public static final int MAX_PAGE_SIZE = 1000;
+
   private String poolPair;
 
-  protected AmmPoolCache getAmmPoolCache() {
-    return AmmPoolCache.getInstance();
-  }
+  // Tick index bắt đầu trang (bao gồm), null = từ đầu
+  private Integer cursor;
 
-  protected TickCache getTickCache() {
-    return TickCache.getInstance();
-  }
+  // Số tick mỗi trang, 0 = trả toàn bộ trong một message
+  private int pageSize;
 
-  protected TickBitmapCache getTickBitmapCache() {
-    return TickBitmapCache.getInstance();
+  protected ReadSnapshotCache getReadSnapshotCache() {
+    return ReadSnapshotCache.getInstance();
   }
 
   @Override
@@ -54,29 +55,38 @@ public class TickEvent extends BaseEvent {
    * @return List of ticks
    */
   public List<Tick> fetchTicksFromBitmap() {
-    List<Tick> ticks = new ArrayList<>();
-
     // Check if pool pair exists
     if (poolPair == null || poolPair.isEmpty()) {
-      return ticks;
+      return new ArrayList<>();
     }
 
-    // Get bitmap for pool pair
-    var tickBitmapOpt = getTickBitmapCache().getTickBitmap(poolPair);
-    if (!tickBitmapOpt.isPresent()) {
-      return ticks;
-    }
+    // Read from the published snapshot, never from ticks the engine is mutating
+    return new ArrayList<>(getReadSnapshotCache().getTickView(poolPair).getTicks().values());
+  }
 
-    TickBitmap tickBitmap = tickBitmapOpt.get();
+  /**
+   * Lấy một trang snapshot các tick đã khởi tạo của pool, theo thứ tự tick index
+   * tăng dần bắt đầu từ cursor. Đọc từ ReadSnapshotCache nên ticks và poolVersion
+   * luôn thuộc cùng một phiên bản pool.
+   *
+   * @return TickDelta kiểu SNAPSHOT, nextCursor = null nếu là trang cuối
+   */
+  public TickDelta fetchTickSnapshot() {
+    int limit = pageSize > 0 ? Math.min(pageSize, MAX_PAGE_SIZE) : Integer.MAX_VALUE;
+    ReadSnapshotCache.TickView view = getReadSnapshotCache().getTickView(poolPair);
+    NavigableMap<Integer, Tick> range = cursor != null ? view.getTicks().tailMap(cursor, true) : view.getTicks();
 
-    // Get all initialized ticks from bitmap using getSetBits
-    List<Integer> setBits = tickBitmap.getSetBits();
-    for (Integer tickIndex : setBits) {
-      String tickKey = poolPair + "-" + tickIndex;
-      getTickCache().getTick(tickKey).ifPresent(ticks::add);
+    List<Tick> ticks = new ArrayList<>();
+    Integer nextCursor = null;
+    for (Map.Entry<Integer, Tick> entry : range.entrySet()) {
+      if (ticks.size() >= limit) {
+        nextCursor = entry.getKey();
+        break;
+      }
+      ticks.add(entry.getValue());
     }
 
-    return ticks;
+    return TickDelta.snapshot(poolPair, view.getPoolVersion(), ticks, cursor, nextCursor, pageSize);
   }
 
   /**
@@ -91,12 +101,17 @@ public class TickEvent extends BaseEvent {
     String tmpActionId = messageJson.path("actionId").asText();
     OperationType tmpOperationType = OperationType.fromValue(messageJson.path("operationType").asText());
     String tmpPoolPair = messageJson.path("poolPair").asText();
+    JsonNode cursorNode = messageJson.path("cursor");
+    Integer tmpCursor = cursorNode.isNumber() ? cursorNode.asInt() : null;
+    int tmpPageSize = messageJson.path("pageSize").asInt(0);
 
     setEventId(eventId);
     setActionType(tmpActionType);
     setActionId(tmpActionId);
     setOperationType(tmpOperationType);
     setPoolPair(tmpPoolPair);
+    setCursor(tmpCursor);
+    setPageSize(tmpPageSize);
 
     return this;
   }
@@ -113,8 +128,7 @@ public class TickEvent extends BaseEvent {
       objectErrors.add("Pool pair is required");
     } else {
       // Check if pool pair exists only if poolPair is not empty
-      AmmPoolCache ammPoolCache = getAmmPoolCache();
-      Optional<AmmPool> poolOpt = ammPoolCache.getAmmPool(poolPair);
+      Optional<AmmPool> poolOpt = getReadSnapshotCache().getAmmPool(poolPair);
       if (!poolOpt.isPresent()) {
         objectErrors.add("AMM Pool does not exist: " + poolPair);
       } else if (!poolOpt.get().isActive()) {
@@ -122,6 +136,10 @@ public class TickEvent extends BaseEvent {
       }
     }
 
+    if (pageSize < 0) {
+      objectErrors.add("Page size must be greater than or equal to 0");
+    }
+
     if (objectErrors.size() > 0) {
       throw new IllegalArgumentException("validate TickEvent: " + String.join(", ", objectErrors));
     }
@@ -8,6 +8,8 @@ import com.exchangeengine.model.Offer;
 import com.exchangeengine.storage.cache.TradeCache;
 import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.storage.cache.OfferCache;
+import com.exchangeengine.util.EpochTime;
+import com.exchangeengine.util.EventClock;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Data;
@@ -57,6 +59,7 @@ public class TradeEvent extends BaseEvent {
     private Instant updatedAt;
     private Instant completedAt;
     private Instant cancelledAt;
+    private Instant expiresAt;
 
     protected TradeCache getTradeCache() {
         return TradeCache.getInstance();
@@ -188,10 +191,11 @@ public class TradeEvent extends BaseEvent {
             
             newTrade.setTakerSide(takerSide);
             newTrade.setStatus(Trade.TradeStatus.UNPAID);
-            newTrade.setCreatedAt(createdAt != null ? createdAt : Instant.now());
-            newTrade.setUpdatedAt(updatedAt != null ? updatedAt : Instant.now());
+            newTrade.setCreatedAt(createdAt != null ? createdAt : EventClock.now());
+            newTrade.setUpdatedAt(updatedAt != null ? updatedAt : EventClock.now());
             newTrade.setCompletedAt(completedAt);
             newTrade.setCancelledAt(cancelledAt);
+            newTrade.setExpiresAt(expiresAt);
             return newTrade;
         });
         return trade;
@@ -338,7 +342,7 @@ public class TradeEvent extends BaseEvent {
             }
             
             // Use current time for updatedAt if not present
-            this.updatedAt = Instant.now();
+            this.updatedAt = EventClock.now();
             
             // Handle paidAt
             if (messageJson.has("paidAt") && !messageJson.path("paidAt").isNull()) {
@@ -424,6 +428,23 @@ public class TradeEvent extends BaseEvent {
                     }
                 }
             }
+
+            // Handle expiresAt: hạn thanh toán, quá hạn engine tự hủy trade.
+            // Số giây, số millis hay ISO-8601 đều được chuẩn hóa về millis như BalanceLock
+            if (messageJson.has("expiresAt") && !messageJson.path("expiresAt").isNull()) {
+                JsonNode expiresAtNode = messageJson.get("expiresAt");
+                String expiresAtStr = expiresAtNode.asText();
+                if (!expiresAtNode.isNumber() && !expiresAtStr.isEmpty()) {
+                    try {
+                        // ISO-8601 giữ nguyên độ chính xác
+                        this.expiresAt = Instant.parse(expiresAtStr);
+                    } catch (DateTimeParseException e) {
+                        this.expiresAt = Instant.ofEpochMilli(EpochTime.parseMillis(expiresAtNode));
+                    }
+                } else if (expiresAtNode.isNumber()) {
+                    this.expiresAt = Instant.ofEpochMilli(EpochTime.parseMillis(expiresAtNode));
+                }
+            }
             
         } catch (Exception e) {
             throw new IllegalArgumentException("Error parsing timestamps: " + e.getMessage(), e);
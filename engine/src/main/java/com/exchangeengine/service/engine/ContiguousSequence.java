@@ -0,0 +1,45 @@
+package com.exchangeengine.service.engine;
+
+import java.util.PriorityQueue;
+
+/**
+ * Sequence liên tục lớn nhất đã hoàn tất, khi các sequence được hoàn tất không
+ * theo thứ tự (nhiều thread storage của OutputProcessor).
+ *
+ * Sequence hoàn tất sớm được giữ lại cho tới khi mọi sequence trước nó xong.
+ * Trường hợp thường gặp (hoàn tất đúng thứ tự) không tạo object.
+ */
+final class ContiguousSequence {
+  private final PriorityQueue<Long> ahead = new PriorityQueue<>();
+  private volatile long value;
+
+  ContiguousSequence(long initial) {
+    this.value = initial;
+  }
+
+  /**
+   * Đánh dấu sequence đã hoàn tất
+   */
+  synchronized void complete(long sequence) {
+    long next = value;
+    if (sequence != next + 1) {
+      if (sequence > next) {
+        ahead.add(sequence);
+      }
+      return;
+    }
+
+    next = sequence;
+    while (!ahead.isEmpty() && ahead.peek() <= next + 1) {
+      next = Math.max(next, ahead.poll());
+    }
+    value = next;
+  }
+
+  /**
+   * Sequence lớn nhất mà mọi sequence từ đầu tới nó đều đã hoàn tất
+   */
+  long get() {
+    return value;
+  }
+}
@@ -12,9 +12,16 @@ import com.exchangeengine.service.engine.amm_order.AmmOrderProcessor;
 import com.exchangeengine.service.engine.trade.TradeProcessor;
 import com.exchangeengine.service.engine.offer.OfferProcessor;
 import com.exchangeengine.service.engine.balances_lock.BalancesLockProcessor;
+import com.exchangeengine.service.engine.expiry.ExpiryService;
 import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.storage.StorageService;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.util.EventClock;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import java.util.function.LongUnaryOperator;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,23 +29,73 @@ import org.slf4j.LoggerFactory;
  * Handler for processing events from Disruptor.
  * Focus on Business Logic Processor - only perform calculations.
  */
-public class DisruptorEventHandler implements EventHandler<DisruptorEvent> {
+public class DisruptorEventHandler implements EventHandler<DisruptorEvent>, LifecycleAware {
   private static final Logger logger = LoggerFactory.getLogger(DisruptorEventHandler.class);
 
   private final StorageService storageService;
   private final OutputProcessor outputProcessor;
+  private final ReadSnapshotCache readSnapshotCache;
+  private final ExpiryService expiryService;
+  // Sequence Disruptor -> sequence ổn định qua các lần chạy của event
+  private final LongUnaryOperator eventSequence;
+  // Giữ trong lúc xử lý mỗi event để flush lấy được lát cắt đúng của cache
+  private final ProcessingBarrier processingBarrier;
 
   /**
-   * Constructor mặc định, lấy instance tự động.
+   * Constructor mặc định, lấy instance tự động. Sequence của event là sequence
+   * Disruptor (không dùng input journal).
    */
   public DisruptorEventHandler() {
+    this(LongUnaryOperator.identity());
+  }
+
+  /**
+   * @param eventSequence Chuyển sequence Disruptor thành sequence của event,
+   *                      ví dụ InputJournal.toJournalSequence để event replay
+   *                      giữ sequence cũ
+   */
+  public DisruptorEventHandler(LongUnaryOperator eventSequence) {
+    this(eventSequence, new ProcessingBarrier());
+  }
+
+  /**
+   * @param eventSequence     Chuyển sequence Disruptor thành sequence của event
+   * @param processingBarrier Barrier dùng chung với EngineDisruptorService
+   */
+  public DisruptorEventHandler(LongUnaryOperator eventSequence, ProcessingBarrier processingBarrier) {
     this.storageService = StorageService.getInstance();
     this.outputProcessor = OutputProcessor.getInstance();
+    this.readSnapshotCache = ReadSnapshotCache.getInstance();
+    this.expiryService = ExpiryService.getInstance();
+    this.eventSequence = eventSequence;
+    this.processingBarrier = processingBarrier;
   }
 
+  /**
+   * @throws IllegalStateException nếu OutputProcessor đã không gom được một event
+   *                               vào batch: Disruptor dừng stage này thay vì
+   *                               xử lý tiếp các event không thể trở nên bền
+   */
   @Override
   public void onEvent(DisruptorEvent event, long sequence, boolean endOfBatch) {
+    if (outputProcessor.hasStorageFailure()) {
+      throw new IllegalStateException("Storage batching failed at sequence " + outputProcessor.getFailedSequence()
+          + ", halting at sequence " + sequence);
+    }
+    processingBarrier.enter();
+    try {
+      process(event, sequence, endOfBatch);
+    } finally {
+      processingBarrier.exit(sequence);
+    }
+  }
+
+  private void process(DisruptorEvent event, long sequence, boolean endOfBatch) {
     ProcessResult result = null;
+    // Mỗi account chỉ dựng một Account trong event, processor sửa tại chỗ
+    storageService.getAccountCache().beginEvent();
+    // Thời gian trong business logic lấy theo event để replay ra cùng kết quả
+    EventClock.begin(event.getTimestamp(), eventSequence.applyAsLong(sequence));
 
     try {
       if (storageService.getEventCache().isEventProcessed(event.getEventId())) {
@@ -100,11 +157,41 @@ public class DisruptorEventHandler implements EventHandler<DisruptorEvent> {
       result = ProcessResult.error(event, e.getMessage());
       logger.error("Error processing event: {}", e.getMessage(), e);
     } finally {
+      EventClock.end();
+      storageService.getAccountCache().endEvent();
       storageService.getEventCache().updateEvent(event.getEventId());
-      outputProcessor.processOutput(result, endOfBatch);
+      // Snapshot cho query thread được publish cuối batch, sau khi mọi event đã sửa xong cache
+      readSnapshotCache.capture(result);
+      if (result != null) {
+        // Version pool của tick delta phải chụp trước khi event sau sửa pool
+        TickDelta.capturePoolVersions(result);
+      }
+      if (endOfBatch) {
+        readSnapshotCache.publish();
+      }
+      outputProcessor.processOutput(result, sequence, endOfBatch);
+      event.setProcessResult(result);
+      // Trade/lock vừa tạo hoặc đổi trạng thái thì cập nhật deadline trong timer wheel
+      if (result != null && event.isSuccess()) {
+        expiryService.track(result);
+      }
     }
   }
 
+  /**
+   * Chạy trên disruptor thread trước event đầu tiên: dựng snapshot tick view của
+   * mọi pool để query thread không phải copy từ cache.
+   */
+  @Override
+  public void onStart() {
+    readSnapshotCache.seedTickViews();
+  }
+
+  @Override
+  public void onShutdown() {
+    // Không có tài nguyên cần giải phóng trên disruptor thread
+  }
+
   /**
    * shutdown handler and release resources
    */
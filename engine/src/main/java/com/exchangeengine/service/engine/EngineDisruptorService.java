@@ -11,6 +11,8 @@ import com.exchangeengine.model.event.AmmOrderEvent;
 import com.exchangeengine.model.event.TradeEvent;
 import com.exchangeengine.model.event.OfferEvent;
 import com.exchangeengine.model.event.BalancesLockEvent;
+import com.exchangeengine.service.engine.candle.CandleEventHandler;
+import com.exchangeengine.storage.journal.InputJournal;
 import com.exchangeengine.util.DaemonThreadFactory;
 import com.exchangeengine.util.EnvManager;
 import com.lmax.disruptor.RingBuffer;
@@ -20,7 +22,12 @@ import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
 
 /**
  * Service manager Disruptor for engine events.
@@ -28,6 +35,10 @@ import java.util.concurrent.ThreadFactory;
 public class EngineDisruptorService {
   private static final Logger logger = LoggerFactory.getLogger(EngineDisruptorService.class);
   private static final EnvManager envManager = EnvManager.getInstance();
+  private static final int MAX_PUBLISH_BATCH = 256;
+  // Thời gian chờ tối đa để OutputProcessor gom xong batch khi business logic đang dừng
+  static final long STORED_WAIT_TIMEOUT_MS = 1000;
+  private static final long STORED_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
 
   // Singleton instance
   private static volatile EngineDisruptorService instance;
@@ -35,6 +46,7 @@ public class EngineDisruptorService {
   private final Disruptor<DisruptorEvent> disruptor;
   private final RingBuffer<DisruptorEvent> ringBuffer;
   private final String serviceName;
+  private final ProcessingBarrier processingBarrier;
 
   /**
    * Lấy instance của EngineDisruptorService.
@@ -70,9 +82,6 @@ public class EngineDisruptorService {
       int bufferSize = envManager.getInt("DISRUPTOR_BUFFER_SIZE", 4096);
       String serviceName = envManager.get("ENGINE_SERVICE_NAME", "engine-service");
 
-      // Tạo DisruptorEventHandler
-      DisruptorEventHandler eventHandler = new DisruptorEventHandler();
-
       // Tạo ThreadFactory với tên thread có ý nghĩa
       ThreadFactory threadFactory = new DaemonThreadFactory(serviceName, "disruptor");
 
@@ -84,8 +93,21 @@ public class EngineDisruptorService {
           ProducerType.MULTI,
           new YieldingWaitStrategy());
 
-      // Đăng ký event handler
-      disruptor.handleEventsWith(eventHandler);
+      // Đăng ký event handler, stage gom nến chạy sau business logic.
+      // Nếu bật input journal, event được ghi vào journal trước business logic
+      InputJournal inputJournal = InputJournal.getInstance();
+      ProcessingBarrier processingBarrier = new ProcessingBarrier();
+      if (inputJournal.isEnabled()) {
+        // Event replay giữ sequence journal cũ, history tạo lại đúng key
+        DisruptorEventHandler eventHandler = new DisruptorEventHandler(inputJournal::toJournalSequence,
+            processingBarrier);
+        disruptor.handleEventsWith(new JournalEventHandler(inputJournal))
+            .then(eventHandler)
+            .then(new CandleEventHandler());
+      } else {
+        disruptor.handleEventsWith(new DisruptorEventHandler(LongUnaryOperator.identity(), processingBarrier))
+            .then(new CandleEventHandler());
+      }
 
       // Khởi động disruptor
       disruptor.start();
@@ -94,7 +116,8 @@ public class EngineDisruptorService {
       RingBuffer<DisruptorEvent> ringBuffer = disruptor.getRingBuffer();
 
       // Tạo instance mới
-      EngineDisruptorService service = new EngineDisruptorService(disruptor, ringBuffer, serviceName);
+      EngineDisruptorService service = new EngineDisruptorService(disruptor, ringBuffer, serviceName,
+          processingBarrier);
 
       logger.info("EngineDisruptorService initialized with buffer size: {}", bufferSize);
 
@@ -111,9 +134,19 @@ public class EngineDisruptorService {
    */
   private EngineDisruptorService(Disruptor<DisruptorEvent> disruptor, RingBuffer<DisruptorEvent> ringBuffer,
       String serviceName) {
+    this(disruptor, ringBuffer, serviceName, new ProcessingBarrier());
+  }
+
+  /**
+   * @param processingBarrier Barrier mà DisruptorEventHandler giữ trong lúc xử
+   *                          lý mỗi event
+   */
+  private EngineDisruptorService(Disruptor<DisruptorEvent> disruptor, RingBuffer<DisruptorEvent> ringBuffer,
+      String serviceName, ProcessingBarrier processingBarrier) {
     this.disruptor = disruptor;
     this.ringBuffer = ringBuffer;
     this.serviceName = serviceName;
+    this.processingBarrier = processingBarrier;
   }
 
   /**
@@ -248,6 +281,30 @@ public class EngineDisruptorService {
     }
   }
 
+  /**
+   * Publish nhiều event nội bộ theo lô: claim một dải sequence liên tiếp và
+   * publish cả dải một lần, thay vì claim/publish từng event.
+   * Mỗi lô tối đa MAX_PUBLISH_BATCH event để không giữ quá nhiều slot của ring.
+   */
+  public void publishEvents(List<DisruptorEvent> sourceEvents) {
+    int batchLimit = Math.max(1, Math.min(MAX_PUBLISH_BATCH, ringBuffer.getBufferSize()));
+    int offset = 0;
+    while (offset < sourceEvents.size()) {
+      int count = Math.min(batchLimit, sourceEvents.size() - offset);
+      long hi = ringBuffer.next(count);
+      long lo = hi - (count - 1);
+      try {
+        for (int i = 0; i < count; i++) {
+          ringBuffer.get(lo + i).copyFrom(sourceEvents.get(offset + i));
+        }
+      } finally {
+        ringBuffer.publish(lo, hi);
+      }
+      offset += count;
+    }
+    logger.debug("[{}] Published {} events", serviceName, sourceEvents.size());
+  }
+
   /**
    * Phương thức shutdown để tắt Disruptor
    */
@@ -269,4 +326,42 @@ public class EngineDisruptorService {
   public long getRemainingCapacity() {
     return ringBuffer.remainingCapacity();
   }
+
+  /**
+   * Sequence lớn nhất đã được claim trên ring buffer
+   *
+   * @return cursor của ring buffer
+   */
+  public long getPublishedSequence() {
+    return ringBuffer.getCursor();
+  }
+
+  /**
+   * Chạy action khi business logic đang dừng giữa hai event và OutputProcessor
+   * đã đưa kết quả của mọi event tới event cuối vào batch của cache. Trong lúc
+   * action chạy, cache khớp đúng sequence truyền cho action: có mọi event tới
+   * nó và không có event nào sau nó.
+   *
+   * @param action Nhận sequence Disruptor của event cuối đã xử lý
+   * @throws IllegalStateException Nếu phần gom batch không theo kịp trong
+   *                               STORED_WAIT_TIMEOUT_MS, action không được chạy
+   */
+  public void runPaused(LongConsumer action) {
+    processingBarrier.runPaused(sequence -> {
+      awaitStored(sequence);
+      action.accept(sequence);
+    });
+  }
+
+  private static void awaitStored(long sequence) {
+    OutputProcessor outputProcessor = OutputProcessor.getInstance();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STORED_WAIT_TIMEOUT_MS);
+    while (outputProcessor.getStoredSequence() < sequence) {
+      if (System.nanoTime() - deadline >= 0) {
+        throw new IllegalStateException("Storage batching is stuck before sequence " + sequence
+            + ", stored sequence=" + outputProcessor.getStoredSequence());
+      }
+      LockSupport.parkNanos(STORED_POLL_NANOS);
+    }
+  }
 }
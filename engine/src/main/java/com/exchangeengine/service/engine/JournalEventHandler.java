@@ -0,0 +1,77 @@
+package com.exchangeengine.service.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.storage.journal.InputJournal;
+import com.lmax.disruptor.EventHandler;
+
+/**
+ * Stage đầu tiên của Disruptor: ghi event vào InputJournal trước khi
+ * DisruptorEventHandler xử lý business logic.
+ *
+ * Lỗi ghi journal được thử lại vài lần. Nếu vẫn lỗi, handler ném exception để
+ * Disruptor dừng stage này: các stage sau không nhận event chưa được journal,
+ * ring buffer đầy dần và publisher bị chặn (back-pressure) thay vì xử lý event
+ * không replay được.
+ */
+public class JournalEventHandler implements EventHandler<DisruptorEvent> {
+  private static final Logger logger = LoggerFactory.getLogger(JournalEventHandler.class);
+
+  static final int MAX_APPEND_ATTEMPTS = 5;
+  private static final long DEFAULT_RETRY_BACKOFF_MS = 50;
+
+  private final InputJournal inputJournal;
+  private final long retryBackoffMs;
+
+  /**
+   * @param inputJournal Journal nhận event
+   */
+  public JournalEventHandler(InputJournal inputJournal) {
+    this(inputJournal, DEFAULT_RETRY_BACKOFF_MS);
+  }
+
+  /**
+   * @param inputJournal   Journal nhận event
+   * @param retryBackoffMs Thời gian chờ trước lần thử lại đầu tiên, nhân đôi sau
+   *                       mỗi lần
+   */
+  JournalEventHandler(InputJournal inputJournal, long retryBackoffMs) {
+    this.inputJournal = inputJournal;
+    this.retryBackoffMs = retryBackoffMs;
+  }
+
+  @Override
+  public void onEvent(DisruptorEvent event, long sequence, boolean endOfBatch) throws InterruptedException {
+    append(event, sequence);
+    if (endOfBatch) {
+      inputJournal.endOfBatch();
+    }
+  }
+
+  /**
+   * Ghi event vào journal, thử lại với backoff tăng dần
+   *
+   * @throws IllegalStateException nếu vẫn lỗi sau MAX_APPEND_ATTEMPTS lần
+   */
+  private void append(DisruptorEvent event, long sequence) throws InterruptedException {
+    long backoff = retryBackoffMs;
+    for (int attempt = 1;; attempt++) {
+      try {
+        inputJournal.append(sequence, event);
+        return;
+      } catch (Exception e) {
+        if (attempt >= MAX_APPEND_ATTEMPTS) {
+          logger.error("Journal append failed, halting: sequence={}, eventId={}: {}", sequence,
+              event.getEventId(), e.getMessage(), e);
+          throw new IllegalStateException("Không ghi được event vào journal: sequence=" + sequence, e);
+        }
+        logger.warn("Journal append failed (attempt {}/{}): sequence={}, eventId={}: {}", attempt,
+            MAX_APPEND_ATTEMPTS, sequence, event.getEventId(), e.getMessage());
+        Thread.sleep(backoff);
+        backoff *= 2;
+      }
+    }
+  }
+}
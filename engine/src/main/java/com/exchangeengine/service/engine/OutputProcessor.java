@@ -5,12 +5,17 @@ import org.slf4j.LoggerFactory;
 
 import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.storage.StorageService;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is responsible for processing output after the Business Logic
@@ -19,6 +24,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 2. Saving to storage
  *
  * Use thread pool to process these tasks asynchronously.
+ *
+ * Lỗi gom batch được thử lại vài lần. Nếu vẫn lỗi, sequence của event được ghi
+ * nhận là hỏng (log ALERT) và DisruptorEventHandler dừng business logic, giống
+ * lỗi ghi journal: vị trí bền dừng trước event đó và lần khởi động sau replay
+ * lại từ đó.
  */
 public class OutputProcessor {
   private static final Logger logger = LoggerFactory.getLogger(OutputProcessor.class);
@@ -31,9 +41,19 @@ public class OutputProcessor {
   private final ExecutorService storageExecutor;
   private final ExecutorService kafkaExecutor;
 
+  // Sequence Disruptor mà mọi event tới nó đã được đưa vào batch của cache
+  private final ContiguousSequence storedSequence = new ContiguousSequence(-1);
+  private final long storageRetryBackoffMs;
+  private final AtomicLong storageRetries = new AtomicLong();
+  // Sequence nhỏ nhất không gom được vào batch sau MAX_STORAGE_ATTEMPTS lần, -1 nếu chưa có
+  private final AtomicLong failedSequence = new AtomicLong(-1);
+
   // Number of threads for each type of processing
   private static final int STORAGE_THREADS = 2;
   private static final int KAFKA_THREADS = 3;
+  private static final long STORAGE_SHUTDOWN_TIMEOUT_SECONDS = 10;
+  static final int MAX_STORAGE_ATTEMPTS = 5;
+  private static final long DEFAULT_STORAGE_RETRY_BACKOFF_MS = 50;
 
   /**
    * Lấy instance của OutputProcessor.
@@ -72,6 +92,7 @@ public class OutputProcessor {
   private OutputProcessor(KafkaProducerService kafkaProducerService) {
     this.storageService = StorageService.getInstance();
     this.kafkaProducerService = kafkaProducerService;
+    this.storageRetryBackoffMs = DEFAULT_STORAGE_RETRY_BACKOFF_MS;
 
     // Initialize thread pool for kafka with clear thread names
     this.kafkaExecutor = Executors.newFixedThreadPool(KAFKA_THREADS, new ThreadFactory() {
@@ -106,9 +127,16 @@ public class OutputProcessor {
    * This method will send event to executors to process asynchronously
    *
    * @param result     ProcessResult chứa kết quả xử lý
+   * @param sequence   Sequence Disruptor của event
    * @param endOfBatch Flag for end of batch
    */
-  public void processOutput(final ProcessResult result, final boolean endOfBatch) {
+  public void processOutput(final ProcessResult result, final long sequence, final boolean endOfBatch) {
+    if (result == null) {
+      // Không có gì để lưu nhưng sequence vẫn phải đi tiếp
+      storedSequence.complete(sequence);
+      return;
+    }
+
     // For faster testing, process Kafka directly when account and recipient account
     // are both present
     if (result.getAccount().isPresent() && result.getRecipientAccount().isPresent()) {
@@ -123,10 +151,88 @@ public class OutputProcessor {
 
     // Process storage asynchronously
     storageExecutor.submit(() -> {
-      processStorageAsynchronously(result, endOfBatch);
+      // Lưu lỗi thì sequence dừng lại ở đây: vị trí bền không vượt qua event
+      // chưa vào batch, lần khởi động sau replay lại từ trước nó
+      if (storeWithRetry(result, sequence, endOfBatch)) {
+        storedSequence.complete(sequence);
+      }
     });
   }
 
+  /**
+   * Gom kết quả vào batch, thử lại với backoff tăng dần. Vẫn lỗi sau
+   * MAX_STORAGE_ATTEMPTS lần thì ghi nhận sequence hỏng để business logic dừng.
+   *
+   * @return true nếu mọi dữ liệu đã vào batch
+   */
+  private boolean storeWithRetry(ProcessResult result, long sequence, boolean endOfBatch) {
+    long backoff = storageRetryBackoffMs;
+    for (int attempt = 1;; attempt++) {
+      if (processStorageAsynchronously(result, endOfBatch)) {
+        return true;
+      }
+      if (attempt >= MAX_STORAGE_ATTEMPTS) {
+        failedSequence.accumulateAndGet(sequence,
+            (current, failed) -> current < 0 ? failed : Math.min(current, failed));
+        logger.error("ALERT: storage batching failed after {} attempts, halting business logic: sequence={}, "
+            + "storedSequence={}", attempt, sequence, storedSequence.get());
+        return false;
+      }
+      storageRetries.incrementAndGet();
+      logger.warn("Storage batching failed (attempt {}/{}): sequence={}", attempt, MAX_STORAGE_ATTEMPTS, sequence);
+      try {
+        Thread.sleep(backoff);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      backoff *= 2;
+    }
+  }
+
+  /**
+   * Sequence Disruptor lớn nhất mà mọi event tới nó đã được đưa vào batch của
+   * cache, nên nằm trong lần flush bắt đầu sau thời điểm đọc.
+   *
+   * @return -1 nếu chưa có event nào
+   */
+  public long getStoredSequence() {
+    return storedSequence.get();
+  }
+
+  /**
+   * Sequence Disruptor nhỏ nhất không gom được vào batch dù đã thử lại.
+   * Khác -1 thì sequence đã lưu không tăng nữa và business logic phải dừng.
+   *
+   * @return -1 nếu chưa có event nào lỗi
+   */
+  public long getFailedSequence() {
+    return failedSequence.get();
+  }
+
+  /**
+   * Có event không gom được vào batch dù đã thử lại
+   */
+  public boolean hasStorageFailure() {
+    return failedSequence.get() >= 0;
+  }
+
+  public long getStorageRetries() {
+    return storageRetries.get();
+  }
+
+  /**
+   * Các chỉ số của phần gom batch, dùng cho log và monitoring
+   *
+   * @return Map tên chỉ số -> giá trị
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("storedSequence", getStoredSequence());
+    metrics.put("storageRetries", getStorageRetries());
+    metrics.put("failedSequence", getFailedSequence());
+    return metrics;
+  }
+
   /**
    * send event to kafka.
    *
@@ -199,9 +305,7 @@ public class OutputProcessor {
       }
 
       if (!result.getTicks().isEmpty()) {
-        result.getTicks().forEach(tick -> {
-          kafkaProducerService.sendTickUpdate(tick);
-        });
+        TickDelta.fromProcessResult(result).forEach(kafkaProducerService::sendTickDelta);
       }
 
       if (result.getAmmPool().isEmpty() &&
@@ -217,24 +321,21 @@ public class OutputProcessor {
   }
 
   /**
-   * Process storage asynchronously
+   * Process storage asynchronously. Only adds data to the cache batches,
+   * FlushScheduler decides when to flush them to disk.
    *
    * @param result     ProcessResult chứa kết quả xử lý
    * @param endOfBatch Flag for end of batch
+   * @return true nếu mọi dữ liệu đã vào batch
    */
-  private void processStorageAsynchronously(ProcessResult result, boolean endOfBatch) {
+  private boolean processStorageAsynchronously(ProcessResult result, boolean endOfBatch) {
     try {
       // Xử lý dữ liệu từ ProcessResult
-      processResultData(result);
-
-      // Kiểm tra và flush nếu cần
-      if (endOfBatch || storageService.shouldFlush()) {
-        storageService.flushToDisk();
-        logger.debug("Data flushed to disk after processing event: {}", result.getEvent().getEventId());
-      }
+      return processResultData(result);
     } catch (Exception e) {
       logger.error("Error processing storage for event {}: {}", result.getEvent().getEventId(),
           e.getMessage(), e);
+      return false;
     }
   }
 
@@ -242,8 +343,9 @@ public class OutputProcessor {
    * Xử lý dữ liệu từ ProcessResult và cập nhật vào batch
    *
    * @param result ProcessResult chứa dữ liệu cần xử lý
+   * @return true nếu mọi dữ liệu đã vào batch
    */
-  private void processResultData(ProcessResult result) {
+  private boolean processResultData(ProcessResult result) {
     try {
       // Xử lý dữ liệu Account nếu có
       result.getAccount().ifPresent(account -> {
@@ -353,9 +455,11 @@ public class OutputProcessor {
         storageService.getBalanceLockCache().addBalanceLockToBatch(balanceLock);
       });
 
+      return true;
     } catch (Exception e) {
       logger.error("Error processing result data for event {}: {}",
           result.getEvent().getEventId(), e.getMessage(), e);
+      return false;
     }
   }
 
@@ -369,14 +473,16 @@ public class OutputProcessor {
     storageExecutor.shutdown();
     kafkaExecutor.shutdown();
 
-    // Đảm bảo dữ liệu được lưu trữ trước khi thoát
+    // Chờ các task storage còn lại đưa dữ liệu vào batch, FlushScheduler sẽ lưu ở lần flush cuối
     try {
-      storageService.flushToDisk();
-      logger.info("Final flush completed during shutdown");
-    } catch (Exception e) {
-      logger.error("Error during final flush: {}", e.getMessage(), e);
+      if (!storageExecutor.awaitTermination(STORAGE_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Storage tasks did not finish within {} seconds", STORAGE_SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.error("Interrupted while waiting for storage tasks: {}", e.getMessage(), e);
     }
 
-    logger.info("OutputProcessor shutdown completed");
+    logger.info("OutputProcessor shutdown completed, final metrics: {}", getMetrics());
   }
 }
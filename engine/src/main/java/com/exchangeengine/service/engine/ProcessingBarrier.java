@@ -0,0 +1,51 @@
+package com.exchangeengine.service.engine;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Điểm dừng của business logic giữa hai event.
+ *
+ * DisruptorEventHandler giữ lock trong lúc xử lý mỗi event, nên thread khác
+ * khi giữ lock thấy cache không bị event nào sửa dở: mọi event tới sequence
+ * cuối đã sửa xong cache và chưa event nào sau nó bắt đầu. Lock fair để thread
+ * chờ không bị business logic giành lại lock ngay sau mỗi event.
+ */
+public class ProcessingBarrier {
+  private final ReentrantLock lock = new ReentrantLock(true);
+
+  // Chỉ đọc/ghi khi giữ lock
+  private long lastSequence = -1;
+
+  /**
+   * Gọi trên thread business logic trước khi xử lý một event
+   */
+  void enter() {
+    lock.lock();
+  }
+
+  /**
+   * Gọi trên thread business logic sau khi xử lý xong một event
+   *
+   * @param sequence Sequence Disruptor của event
+   */
+  void exit(long sequence) {
+    lastSequence = sequence;
+    lock.unlock();
+  }
+
+  /**
+   * Chạy action khi business logic đang dừng giữa hai event
+   *
+   * @param action Nhận sequence Disruptor của event cuối đã xử lý, -1 nếu chưa
+   *               có event nào
+   */
+  public void runPaused(LongConsumer action) {
+    lock.lock();
+    try {
+      action.accept(lastSequence);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.exchangeengine.service.engine.amm_fee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmPosition;
+import com.exchangeengine.model.AmmPositionFee;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.util.DaemonThreadFactory;
+import com.exchangeengine.util.EnvManager;
+
+/**
+ * Job nền tính phí chưa thu của mọi position đang mở theo từng pool và gửi lên
+ * topic EE.O.amm_position_fee, thay cho việc gửi collect-fee dry run cho từng
+ * position.
+ *
+ * Mỗi pool được tính trên TickView của ReadSnapshotCache: pool, tick và position
+ * cùng một epoch nên kết quả nhất quán dù engine vẫn đang xử lý swap. Danh sách
+ * pool cũng lấy từ các view đã publish, job không đọc cache nào của engine từ
+ * thread scheduler. Các position được chia cho ForkJoinPool riêng của service.
+ */
+public class PositionFeeReportService {
+  private static final Logger logger = LoggerFactory.getLogger(PositionFeeReportService.class);
+
+  // Singleton instance
+  private static volatile PositionFeeReportService instance;
+
+  private static final int DEFAULT_INTERVAL_SECONDS = 60;
+
+  private final ForkJoinPool forkJoinPool;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Lấy instance của PositionFeeReportService
+   *
+   * @return Instance của PositionFeeReportService
+   */
+  public static synchronized PositionFeeReportService getInstance() {
+    if (instance == null) {
+      instance = new PositionFeeReportService();
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(PositionFeeReportService testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * Constructor riêng tư để đảm bảo Singleton pattern
+   */
+  private PositionFeeReportService() {
+    this.forkJoinPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  protected ReadSnapshotCache getReadSnapshotCache() {
+    return ReadSnapshotCache.getInstance();
+  }
+
+  protected KafkaProducerService getKafkaProducerService() {
+    return KafkaProducerService.getInstance();
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Chạy job định kỳ theo AMM_FEE_REPORT_INTERVAL_SECONDS (0 = tắt)
+   */
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+
+    int intervalSeconds = EnvManager.getInstance().getInt("AMM_FEE_REPORT_INTERVAL_SECONDS", DEFAULT_INTERVAL_SECONDS);
+    if (intervalSeconds <= 0) {
+      logger.info("PositionFeeReportService disabled");
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("engine", "fee-report"));
+    // Fixed delay để lần chạy sau không chồng lên lần chạy trước khi pool có nhiều position
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        reportAllPools();
+      } catch (Exception e) {
+        logger.error("Error reporting position fees: {}", e.getMessage(), e);
+      }
+    }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    logger.info("PositionFeeReportService started, interval={}s", intervalSeconds);
+  }
+
+  /**
+   * Dừng job định kỳ
+   */
+  public synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+      logger.info("PositionFeeReportService shut down");
+    }
+  }
+
+  /**
+   * Tính và gửi phí của mọi pool
+   *
+   * @return Tổng số báo cáo đã gửi
+   */
+  public int reportAllPools() {
+    int total = 0;
+    for (String poolPair : getReadSnapshotCache().getTickViewPoolPairs()) {
+      try {
+        total += reportPool(poolPair);
+      } catch (Exception e) {
+        logger.error("Error reporting position fees for pool {}: {}", poolPair, e.getMessage(), e);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Tính và gửi phí của các position đang mở trong pool
+   *
+   * @param poolPair Pool pair
+   * @return Số báo cáo đã gửi
+   */
+  public int reportPool(String poolPair) {
+    List<AmmPositionFee> fees = computePoolFees(poolPair);
+    KafkaProducerService kafkaProducerService = getKafkaProducerService();
+    for (AmmPositionFee fee : fees) {
+      kafkaProducerService.sendAmmPositionFee(fee);
+    }
+    return fees.size();
+  }
+
+  /**
+   * Tính phí chưa thu của các position đang mở trong pool trên một snapshot
+   *
+   * @param poolPair Pool pair
+   * @return Danh sách phí theo identifier tăng dần
+   */
+  public List<AmmPositionFee> computePoolFees(String poolPair) {
+    ReadSnapshotCache.TickView view = getReadSnapshotCache().getTickView(poolPair);
+    Optional<AmmPool> pool = view.getPool();
+    if (!pool.isPresent() || view.getPositions().isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<AmmPosition> positions = new ArrayList<>(view.getPositions().values());
+    return forkJoinPool.invoke(new PositionFeeTask(pool.get(), view.getTicks(), positions, 0, positions.size(),
+        view.getEpoch(), currentTimeMillis()));
+  }
+}
@@ -0,0 +1,111 @@
+package com.exchangeengine.service.engine.amm_fee;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.RecursiveTask;
+
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmPosition;
+import com.exchangeengine.model.AmmPositionFee;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.LiquidityUtils;
+
+/**
+ * Fork-join task tính phí chưa thu cho một đoạn danh sách position của cùng một
+ * pool. Đoạn lớn hơn THRESHOLD được chia đôi; mọi task đọc chung một snapshot
+ * pool/tick bất biến nên không cần đồng bộ.
+ */
+class PositionFeeTask extends RecursiveTask<List<AmmPositionFee>> {
+  private static final long serialVersionUID = 1L;
+
+  static final int THRESHOLD = 256;
+
+  private final AmmPool pool;
+  private final NavigableMap<Integer, Tick> ticks;
+  private final List<AmmPosition> positions;
+  private final int from;
+  private final int to;
+  private final long snapshotEpoch;
+  private final long computedAt;
+
+  PositionFeeTask(AmmPool pool, NavigableMap<Integer, Tick> ticks, List<AmmPosition> positions, int from, int to,
+      long snapshotEpoch, long computedAt) {
+    this.pool = pool;
+    this.ticks = ticks;
+    this.positions = positions;
+    this.from = from;
+    this.to = to;
+    this.snapshotEpoch = snapshotEpoch;
+    this.computedAt = computedAt;
+  }
+
+  @Override
+  protected List<AmmPositionFee> compute() {
+    if (to - from <= THRESHOLD) {
+      List<AmmPositionFee> fees = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        AmmPositionFee fee = computeFee(positions.get(i));
+        if (fee != null) {
+          fees.add(fee);
+        }
+      }
+      return fees;
+    }
+
+    int middle = (from + to) >>> 1;
+    PositionFeeTask left = new PositionFeeTask(pool, ticks, positions, from, middle, snapshotEpoch, computedAt);
+    PositionFeeTask right = new PositionFeeTask(pool, ticks, positions, middle, to, snapshotEpoch, computedAt);
+    left.fork();
+    List<AmmPositionFee> rightFees = right.compute();
+    List<AmmPositionFee> fees = left.join();
+    fees.addAll(rightFees);
+    return fees;
+  }
+
+  /**
+   * Tính phí giống AmmPositionCollectFeeProcessor nhưng không sửa position
+   *
+   * @return AmmPositionFee, null nếu thiếu tick biên của position
+   */
+  private AmmPositionFee computeFee(AmmPosition position) {
+    Tick lowerTick = ticks.get(position.getTickLowerIndex());
+    Tick upperTick = ticks.get(position.getTickUpperIndex());
+    if (lowerTick == null || upperTick == null) {
+      return null;
+    }
+
+    BigDecimal[] feeGrowthInside = LiquidityUtils.getFeeGrowthInside(
+        lowerTick,
+        upperTick,
+        pool.getCurrentTick(),
+        pool.getFeeGrowthGlobal0(),
+        pool.getFeeGrowthGlobal1());
+
+    BigDecimal accrued0 = LiquidityUtils.calculateFeesOwed(position.getLiquidity(), feeGrowthInside[0],
+        position.getFeeGrowthInside0Last());
+    BigDecimal accrued1 = LiquidityUtils.calculateFeesOwed(position.getLiquidity(), feeGrowthInside[1],
+        position.getFeeGrowthInside1Last());
+
+    AmmPositionFee fee = new AmmPositionFee();
+    fee.setIdentifier(position.getIdentifier());
+    fee.setPoolPair(position.getPoolPair());
+    fee.setOwnerAccountKey0(position.getOwnerAccountKey0());
+    fee.setOwnerAccountKey1(position.getOwnerAccountKey1());
+    fee.setTickLowerIndex(position.getTickLowerIndex());
+    fee.setTickUpperIndex(position.getTickUpperIndex());
+    fee.setLiquidity(position.getLiquidity());
+    fee.setInRange(position.getTickLowerIndex() <= pool.getCurrentTick()
+        && pool.getCurrentTick() < position.getTickUpperIndex());
+    fee.setFeesOwed0(position.getTokensOwed0().add(accrued0)
+        .setScale(AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE));
+    fee.setFeesOwed1(position.getTokensOwed1().add(accrued1)
+        .setScale(AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE));
+    fee.setPoolVersion(pool.getTxCount());
+    fee.setSnapshotEpoch(snapshotEpoch);
+    fee.setComputedAt(computedAt);
+    return fee;
+  }
+}
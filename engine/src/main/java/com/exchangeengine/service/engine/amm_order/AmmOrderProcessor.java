@@ -25,6 +25,7 @@ import com.exchangeengine.storage.cache.AmmOrderCache;
 import com.exchangeengine.storage.cache.AmmPoolCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.ObjectCloner;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.util.ammPool.SwapMath;
@@ -254,7 +255,7 @@ public class AmmOrderProcessor {
    * Backup dữ liệu trước khi swap
    */
   private void backupData() {
-    backupPool = ObjectCloner.duplicate(pool, AmmPool.class);
+    backupPool = pool.duplicate();
     backupAccount0 = ObjectCloner.duplicate(account0, Account.class);
     backupAccount1 = ObjectCloner.duplicate(account1, Account.class);
     backupTickBitmap = ObjectCloner.duplicate(tickBitmap, TickBitmap.class);
@@ -420,20 +421,15 @@ public class AmmOrderProcessor {
         newTVL0,
         newTVL1,
         newVolume0,
-        newVolume1);
+        newVolume1,
+        disruptorEvent.getTimestamp());
   }
 
   /**
    * Lấy giới hạn giá sqrt dựa trên hướng swap
    */
   private BigDecimal getSqrtPriceLimit(boolean zeroForOne) {
-    if (zeroForOne) {
-      // Swap token0 -> token1, sử dụng giá trị gần MIN_TICK
-      return TickMath.getSqrtRatioAtTick(AmmPoolConfig.MIN_TICK + 1);
-    } else {
-      // Swap token1 -> token0, sử dụng giá trị gần MAX_TICK
-      return TickMath.getSqrtRatioAtTick(AmmPoolConfig.MAX_TICK - 1);
-    }
+    return SwapStep.sqrtPriceLimit(zeroForOne);
   }
 
   /**
@@ -452,9 +448,7 @@ public class AmmOrderProcessor {
    * Lấy giá sqrt cho tick tiếp theo
    */
   private BigDecimal getSqrtPriceNext(int nextInitializedTick, boolean zeroForOne, BigDecimal sqrtPriceLimit) {
-    boolean targetReached = nextInitializedTick == AmmPoolConfig.MIN_TICK
-        || nextInitializedTick == AmmPoolConfig.MAX_TICK;
-    return targetReached ? sqrtPriceLimit : TickMath.getSqrtRatioAtTick(nextInitializedTick);
+    return SwapStep.sqrtPriceTarget(nextInitializedTick, sqrtPriceLimit);
   }
 
   /**
@@ -466,14 +460,7 @@ public class AmmOrderProcessor {
       BigDecimal amountCalculated,
       boolean zeroForOne,
       boolean exactInput) {
-
-    BigDecimal result;
-    if (zeroForOne == exactInput) {
-      result = amountSpecified.subtract(amountSpecifiedRemaining);
-    } else {
-      result = amountCalculated.abs();
-    }
-    return result;
+    return SwapStep.amount0(amountSpecified, amountSpecifiedRemaining, amountCalculated, zeroForOne, exactInput);
   }
 
   /**
@@ -485,14 +472,7 @@ public class AmmOrderProcessor {
       BigDecimal amountCalculated,
       boolean zeroForOne,
       boolean exactInput) {
-
-    BigDecimal result;
-    if (zeroForOne == exactInput) {
-      result = amountCalculated.abs();
-    } else {
-      result = amountSpecified.subtract(amountSpecifiedRemaining);
-    }
-    return result;
+    return SwapStep.amount1(amountSpecified, amountSpecifiedRemaining, amountCalculated, zeroForOne, exactInput);
   }
 
   /**
@@ -520,18 +500,10 @@ public class AmmOrderProcessor {
       BigDecimal feeGrowthGlobal0, BigDecimal feeGrowthGlobal1,
       int currentTick, int nextInitializedTick, BigDecimal amountCalculated) {
 
-    // Tính toán bước swap
-    BigDecimal[] swapResult = SwapMath.computeSwapStep(
-        sqrtPrice,
-        sqrtPriceNext,
-        liquidity,
-        amountSpecifiedRemaining,
-        feePercentage);
-
-    BigDecimal newSqrtPrice = swapResult[0]; // Giá mới
-    BigDecimal amountIn = swapResult[1]; // Lượng token vào
-    BigDecimal amountOut = swapResult[2]; // Lượng token ra
-    BigDecimal feeAmount = swapResult[3]; // Phí
+    // Tính toán bước swap (dùng chung với AmmSwapQuoter)
+    SwapStep step = SwapStep.compute(sqrtPrice, sqrtPriceNext, liquidity, amountSpecifiedRemaining,
+        amountCalculated, feePercentage, exactInput);
+    BigDecimal feeAmount = step.feeAmount;
 
     // Cập nhật fee cho order hiện tại
     String token = zeroForOne ? pool.getToken0() : pool.getToken1();
@@ -539,18 +511,12 @@ public class AmmOrderProcessor {
 
     // Cập nhật lượng token còn lại và đã tính
     SwapStepResult stepResult = new SwapStepResult();
-    stepResult.sqrtPrice = newSqrtPrice;
+    stepResult.sqrtPrice = step.sqrtPrice;
     stepResult.feeGrowthGlobal0 = feeGrowthGlobal0;
     stepResult.feeGrowthGlobal1 = feeGrowthGlobal1;
     stepResult.liquidity = liquidity;
-
-    if (exactInput) {
-      stepResult.amountSpecifiedRemaining = amountSpecifiedRemaining.subtract(amountIn).subtract(feeAmount);
-      stepResult.amountCalculated = amountCalculated.subtract(amountOut);
-    } else {
-      stepResult.amountSpecifiedRemaining = amountSpecifiedRemaining.add(amountOut);
-      stepResult.amountCalculated = amountCalculated.add(amountIn.add(feeAmount));
-    }
+    stepResult.amountSpecifiedRemaining = step.amountSpecifiedRemaining;
+    stepResult.amountCalculated = step.amountCalculated;
 
     // Cộng phí vào hệ thống nếu có thanh khoản - theo logic Uniswap V3
     if (liquidity.compareTo(BigDecimal.ZERO) > 0) {
@@ -567,7 +533,7 @@ public class AmmOrderProcessor {
       }
     }
 
-    if (newSqrtPrice.compareTo(sqrtPriceNext) == 0) {
+    if (step.reached(sqrtPriceNext)) {
       // Chúng ta đã cross một tick - lấy thông tin về tick đó
       Tick tickObject = getTick(nextInitializedTick);
 
@@ -579,23 +545,16 @@ public class AmmOrderProcessor {
           stepResult.feeGrowthGlobal1);
 
       // Cập nhật thanh khoản dựa trên hướng của swap
-      if (zeroForOne) {
-        liquidityNet = liquidityNet.negate();
-      }
-
-      // Chỉ thay đổi liquidity nếu liquidityNet khác 0
-      if (liquidityNet.compareTo(BigDecimal.ZERO) != 0) {
-        stepResult.liquidity = liquidity.add(liquidityNet);
-      }
+      stepResult.liquidity = SwapStep.liquidityAfterCross(liquidity, liquidityNet, zeroForOne);
 
       // Lưu tick đã cross để trả về
       stepResult.crossedTick = tickObject;
 
       // Cập nhật tick hiện tại
-      stepResult.tick = zeroForOne ? nextInitializedTick - 1 : nextInitializedTick;
+      stepResult.tick = SwapStep.tickAfterCross(nextInitializedTick, zeroForOne);
     } else {
       // Tính lại tick hiện tại dựa trên giá mới nếu chưa vượt qua tick tiếp theo
-      stepResult.tick = TickMath.getTickAtSqrtRatio(newSqrtPrice);
+      stepResult.tick = TickMath.getTickAtSqrtRatio(step.sqrtPrice);
     }
 
     return stepResult;
@@ -634,7 +593,7 @@ public class AmmOrderProcessor {
     boolean wasInitialized = tick.isInitialized();
     if (!wasInitialized) {
       tick.setInitialized(true);
-      tick.setTickInitializedTimestamp(System.currentTimeMillis());
+      tick.setTickInitializedTimestamp(EventClock.currentTimeMillis());
     }
 
     // Trả về liquidityNet
@@ -828,14 +787,11 @@ public class AmmOrderProcessor {
    *                               liquidity
    */
   private Tick getTick(int tickIndex) {
-    // Create key to find in cache - use same format as pool.getTick
-    String tickKey = pool.getPair() + "-" + tickIndex;
-
-    // Get tick from cache
-    return tickCache.getTick(tickKey)
+    // Get tick from cache - same lookup as pool.getTick
+    return tickCache.getTick(pool.getPair(), tickIndex)
         .orElseThrow(() -> {
           // Log detailed technical information
-          logger.error("Tick not found in cache: {} for index: {}", tickKey, tickIndex);
+          logger.error("Tick not found in cache: {} for index: {}", pool.getPair(), tickIndex);
           // Throw exception with user-friendly message
           return new IllegalStateException("Pool has no liquidity for this price range");
         });
@@ -0,0 +1,125 @@
+package com.exchangeengine.service.engine.amm_order;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.TickMath;
+
+/**
+ * Báo giá swap chỉ đọc, chạy trên query thread.
+ * Dùng chung SwapStep với AmmOrderProcessor.executeSwap nhưng trên
+ * TickView (bản copy của pool và các tick đã khởi tạo), nên không cần đi qua
+ * disruptor và không sửa pool, tick hay account.
+ */
+public class AmmSwapQuoter {
+  private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+  private final ReadSnapshotCache.TickView view;
+  private final AmmPool pool;
+
+  public AmmSwapQuoter(ReadSnapshotCache.TickView view) {
+    this.view = view;
+    this.pool = view.getPool()
+        .orElseThrow(() -> new IllegalStateException("AMM Pool not found: " + view.getPoolPair()));
+  }
+
+  /**
+   * Tính kết quả swap nếu order được gửi lên engine tại snapshot hiện tại.
+   *
+   * @param zeroForOne      Hướng swap (true: token0 -> token1)
+   * @param amountSpecified Dương: exactInput, âm: exactOutput (giống AmmOrder)
+   * @return AmmSwapQuote
+   */
+  public AmmSwapQuote quote(boolean zeroForOne, BigDecimal amountSpecified) {
+    final boolean exactInput = amountSpecified.compareTo(BigDecimal.ZERO) > 0;
+    final BigDecimal sqrtPriceLimit = SwapStep.sqrtPriceLimit(zeroForOne);
+    final double feePercentage = pool.getFeePercentage();
+    final NavigableMap<Integer, Tick> ticks = view.getTicks();
+
+    AmmSwapQuote quote = new AmmSwapQuote();
+    quote.setPoolPair(pool.getPair());
+    quote.setZeroForOne(zeroForOne);
+    quote.setAmountSpecified(amountSpecified);
+    quote.setPoolVersion(view.getPoolVersion());
+    quote.setEpoch(view.getEpoch());
+    quote.setTickBefore(pool.getCurrentTick());
+
+    BigDecimal amountSpecifiedRemaining = exactInput ? amountSpecified : amountSpecified.negate();
+    BigDecimal amountCalculated = BigDecimal.ZERO;
+    BigDecimal feeTotal = BigDecimal.ZERO;
+    BigDecimal sqrtPrice = pool.getSqrtPrice();
+    BigDecimal liquidity = pool.getLiquidity();
+    int tick = pool.getCurrentTick();
+
+    while (amountSpecifiedRemaining.compareTo(BigDecimal.ZERO) != 0 && sqrtPrice.compareTo(sqrtPriceLimit) != 0) {
+      int nextInitializedTick = findNextInitializedTick(ticks, tick, zeroForOne);
+      BigDecimal sqrtPriceNext = SwapStep.sqrtPriceTarget(nextInitializedTick, sqrtPriceLimit);
+
+      SwapStep step = SwapStep.compute(sqrtPrice, sqrtPriceNext, liquidity, amountSpecifiedRemaining,
+          amountCalculated, feePercentage, exactInput);
+      feeTotal = feeTotal.add(step.feeAmount);
+      amountSpecifiedRemaining = step.amountSpecifiedRemaining;
+      amountCalculated = step.amountCalculated;
+
+      if (step.reached(sqrtPriceNext) && !SwapStep.isBoundaryTick(nextInitializedTick)) {
+        // Cross tick: chỉ đọc liquidityNet, không cập nhật feeGrowthOutside
+        liquidity = SwapStep.liquidityAfterCross(liquidity, ticks.get(nextInitializedTick).getLiquidityNet(),
+            zeroForOne);
+        quote.getCrossedTicks().add(nextInitializedTick);
+        tick = SwapStep.tickAfterCross(nextInitializedTick, zeroForOne);
+      } else {
+        tick = TickMath.getTickAtSqrtRatio(step.sqrtPrice);
+      }
+      sqrtPrice = step.sqrtPrice;
+    }
+
+    BigDecimal amount0 = SwapStep.amount0(amountSpecified, amountSpecifiedRemaining, amountCalculated, zeroForOne,
+        exactInput);
+    BigDecimal amount1 = SwapStep.amount1(amountSpecified, amountSpecifiedRemaining, amountCalculated, zeroForOne,
+        exactInput);
+
+    quote.setAmount0(amount0);
+    quote.setAmount1(amount1);
+    quote.setAmountIn(zeroForOne ? amount0 : amount1);
+    quote.setAmountOut(zeroForOne ? amount1 : amount0);
+    Map<String, BigDecimal> fees = quote.getFees();
+    fees.put(zeroForOne ? pool.getToken0() : pool.getToken1(), feeTotal);
+
+    quote.setSqrtPriceAfter(sqrtPrice);
+    quote.setTickAfter(tick);
+    quote.setFullyFilled(amountSpecifiedRemaining.compareTo(BigDecimal.ZERO) == 0);
+
+    BigDecimal priceBefore = pool.getSqrtPrice().multiply(pool.getSqrtPrice()).round(AmmPoolConfig.MC);
+    BigDecimal priceAfter = sqrtPrice.multiply(sqrtPrice).round(AmmPoolConfig.MC);
+    quote.setPriceBefore(priceBefore);
+    quote.setPriceAfter(priceAfter);
+    if (amount0.compareTo(BigDecimal.ZERO) > 0) {
+      quote.setExecutionPrice(amount1.divide(amount0, AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE));
+    }
+    if (priceBefore.compareTo(BigDecimal.ZERO) > 0) {
+      quote.setPriceImpact(priceAfter.subtract(priceBefore).abs().multiply(ONE_HUNDRED)
+          .divide(priceBefore, AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE));
+    }
+
+    return quote;
+  }
+
+  /**
+   * Tìm tick đã khởi tạo tiếp theo trong snapshot, cùng quy ước với
+   * AmmOrderProcessor (previousSetBit(tick) / nextSetBit(tick + 1)).
+   */
+  private static int findNextInitializedTick(NavigableMap<Integer, Tick> ticks, int currentTick, boolean zeroForOne) {
+    if (zeroForOne) {
+      Integer previous = ticks.floorKey(currentTick);
+      return previous != null ? previous : AmmPoolConfig.MIN_TICK;
+    }
+    Integer next = ticks.higherKey(currentTick);
+    return next != null ? next : AmmPoolConfig.MAX_TICK;
+  }
+}
@@ -0,0 +1,125 @@
+package com.exchangeengine.service.engine.amm_order;
+
+import java.math.BigDecimal;
+
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.SwapMath;
+import com.exchangeengine.util.ammPool.TickMath;
+
+/**
+ * Một bước trong vòng lặp swap Uniswap V3, dùng chung cho AmmOrderProcessor
+ * (swap thật trên disruptor thread) và AmmSwapQuoter (báo giá trên snapshot).
+ *
+ * Chỉ chứa phần tính toán thuần: giá đích của bước, SwapMath.computeSwapStep,
+ * cập nhật lượng còn lại/đã tính, thanh khoản và tick sau khi cross. Việc tìm
+ * tick kế tiếp và đọc/sửa Tick khi cross do nơi gọi đảm nhận vì nguồn dữ liệu
+ * khác nhau (TickBitmap + TickCache hoặc TickView).
+ */
+final class SwapStep {
+  final BigDecimal sqrtPrice;
+  final BigDecimal amountIn;
+  final BigDecimal amountOut;
+  final BigDecimal feeAmount;
+  final BigDecimal amountSpecifiedRemaining;
+  final BigDecimal amountCalculated;
+
+  private SwapStep(BigDecimal sqrtPrice, BigDecimal amountIn, BigDecimal amountOut, BigDecimal feeAmount,
+      BigDecimal amountSpecifiedRemaining, BigDecimal amountCalculated) {
+    this.sqrtPrice = sqrtPrice;
+    this.amountIn = amountIn;
+    this.amountOut = amountOut;
+    this.feeAmount = feeAmount;
+    this.amountSpecifiedRemaining = amountSpecifiedRemaining;
+    this.amountCalculated = amountCalculated;
+  }
+
+  /**
+   * Tính một bước swap từ sqrtPrice tới sqrtPriceTarget.
+   *
+   * @param sqrtPrice                Giá sqrt hiện tại
+   * @param sqrtPriceTarget          Giá sqrt của tick kế tiếp (hoặc giới hạn)
+   * @param liquidity                Thanh khoản hiện tại
+   * @param amountSpecifiedRemaining Lượng còn lại (âm với exactOutput)
+   * @param amountCalculated         Lượng đã tính ở các bước trước
+   * @param feePercentage            Phí của pool
+   * @param exactInput               true nếu amountSpecified là lượng vào
+   * @return Kết quả của bước
+   */
+  static SwapStep compute(BigDecimal sqrtPrice, BigDecimal sqrtPriceTarget, BigDecimal liquidity,
+      BigDecimal amountSpecifiedRemaining, BigDecimal amountCalculated, double feePercentage, boolean exactInput) {
+    BigDecimal[] swapResult = SwapMath.computeSwapStep(
+        sqrtPrice, sqrtPriceTarget, liquidity, amountSpecifiedRemaining, feePercentage);
+    BigDecimal newSqrtPrice = swapResult[0];
+    BigDecimal amountIn = swapResult[1];
+    BigDecimal amountOut = swapResult[2];
+    BigDecimal feeAmount = swapResult[3];
+
+    if (exactInput) {
+      return new SwapStep(newSqrtPrice, amountIn, amountOut, feeAmount,
+          amountSpecifiedRemaining.subtract(amountIn).subtract(feeAmount),
+          amountCalculated.subtract(amountOut));
+    }
+    return new SwapStep(newSqrtPrice, amountIn, amountOut, feeAmount,
+        amountSpecifiedRemaining.add(amountOut),
+        amountCalculated.add(amountIn.add(feeAmount)));
+  }
+
+  /**
+   * Bước swap đã chạm giá đích (cần cross tick nếu đích là tick đã khởi tạo)
+   */
+  boolean reached(BigDecimal sqrtPriceTarget) {
+    return sqrtPrice.compareTo(sqrtPriceTarget) == 0;
+  }
+
+  /**
+   * Giới hạn giá sqrt theo hướng swap (sát MIN_TICK / MAX_TICK)
+   */
+  static BigDecimal sqrtPriceLimit(boolean zeroForOne) {
+    return TickMath.getSqrtRatioAtTick(zeroForOne ? AmmPoolConfig.MIN_TICK + 1 : AmmPoolConfig.MAX_TICK - 1);
+  }
+
+  /**
+   * Tick biên được trả về khi không còn tick đã khởi tạo theo hướng swap
+   */
+  static boolean isBoundaryTick(int tick) {
+    return tick == AmmPoolConfig.MIN_TICK || tick == AmmPoolConfig.MAX_TICK;
+  }
+
+  /**
+   * Giá đích của bước: giá của tick kế tiếp, hoặc giới hạn nếu đã hết tick
+   */
+  static BigDecimal sqrtPriceTarget(int nextInitializedTick, BigDecimal sqrtPriceLimit) {
+    return isBoundaryTick(nextInitializedTick) ? sqrtPriceLimit : TickMath.getSqrtRatioAtTick(nextInitializedTick);
+  }
+
+  /**
+   * Thanh khoản sau khi cross tick có liquidityNet đã cho
+   */
+  static BigDecimal liquidityAfterCross(BigDecimal liquidity, BigDecimal liquidityNet, boolean zeroForOne) {
+    BigDecimal delta = zeroForOne ? liquidityNet.negate() : liquidityNet;
+    return delta.compareTo(BigDecimal.ZERO) != 0 ? liquidity.add(delta) : liquidity;
+  }
+
+  /**
+   * Tick hiện tại sau khi cross nextInitializedTick
+   */
+  static int tickAfterCross(int nextInitializedTick, boolean zeroForOne) {
+    return zeroForOne ? nextInitializedTick - 1 : nextInitializedTick;
+  }
+
+  /**
+   * Lượng token0 của cả lần swap
+   */
+  static BigDecimal amount0(BigDecimal amountSpecified, BigDecimal amountSpecifiedRemaining,
+      BigDecimal amountCalculated, boolean zeroForOne, boolean exactInput) {
+    return zeroForOne == exactInput ? amountSpecified.subtract(amountSpecifiedRemaining) : amountCalculated.abs();
+  }
+
+  /**
+   * Lượng token1 của cả lần swap
+   */
+  static BigDecimal amount1(BigDecimal amountSpecified, BigDecimal amountSpecifiedRemaining,
+      BigDecimal amountCalculated, boolean zeroForOne, boolean exactInput) {
+    return zeroForOne == exactInput ? amountCalculated.abs() : amountSpecified.subtract(amountSpecifiedRemaining);
+  }
+}
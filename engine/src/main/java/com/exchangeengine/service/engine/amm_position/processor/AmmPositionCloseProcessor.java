@@ -23,6 +23,7 @@ import com.exchangeengine.storage.cache.AmmPoolCache;
 import com.exchangeengine.storage.cache.AmmPositionCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.ObjectCloner;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.util.ammPool.LiquidityUtils;
@@ -174,7 +175,7 @@ public class AmmPositionCloseProcessor {
    */
   private void backupData() {
     backupPosition = ObjectCloner.duplicate(position, AmmPosition.class);
-    backupPool = ObjectCloner.duplicate(pool, AmmPool.class);
+    backupPool = pool.duplicate();
     backupAccount0 = ObjectCloner.duplicate(account0, Account.class);
     backupAccount1 = ObjectCloner.duplicate(account1, Account.class);
     backupLowerTick = ObjectCloner.duplicate(lowerTick, Tick.class);
@@ -343,7 +344,7 @@ public class AmmPositionCloseProcessor {
     logger.info("Pool before update: {}", pool.toString());
 
     // Sử dụng phương thức updateForClosePosition để cập nhật cả liquidity và TVL
-    pool.updateForClosePosition(liquidity, amount0, amount1);
+    pool.updateForClosePosition(liquidity, amount0, amount1, disruptorEvent.getTimestamp());
 
     // KHÔNG cần cập nhật TVL lại ở đây vì updateForClosePosition đã xử lý
 
@@ -365,7 +366,7 @@ public class AmmPositionCloseProcessor {
   private void updatePoolObservation() {
     try {
       // Chỉ cập nhật timestamp của pool để đánh dấu thời điểm gần nhất có thay đổi
-      pool.setUpdatedAt(System.currentTimeMillis());
+      pool.setUpdatedAt(EventClock.currentTimeMillis());
       logger.info("Updated pool timestamp for position close");
     } catch (Exception e) {
       logger.warn("Failed to update pool timestamp: {}", e.getMessage());
@@ -23,6 +23,7 @@ import com.exchangeengine.storage.cache.AmmPoolCache;
 import com.exchangeengine.storage.cache.AmmPositionCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.EventClock;
 import com.exchangeengine.util.ObjectCloner;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.util.ammPool.LiquidityUtils;
@@ -245,7 +246,7 @@ public class AmmPositionCreateProcessor {
    * Backup dữ liệu để rollback nếu cần
    */
   private void backupData() {
-    backupPool = ObjectCloner.duplicate(pool, AmmPool.class);
+    backupPool = pool.duplicate();
     backupAccount0 = ObjectCloner.duplicate(account0, Account.class);
     backupAccount1 = ObjectCloner.duplicate(account1, Account.class);
     backupLowerTick = ObjectCloner.duplicate(lowerTick, Tick.class);
@@ -270,7 +271,7 @@ public class AmmPositionCreateProcessor {
           && position.getTickUpperIndex() > pool.getCurrentTick();
 
       // Cập nhật pool - sử dụng phương thức mới updateForAddPosition
-      pool.updateForAddPosition(liquidity, isInRange, actualAmount0, actualAmount1);
+      pool.updateForAddPosition(liquidity, isInRange, actualAmount0, actualAmount1, disruptorEvent.getTimestamp());
 
       // Cập nhật tick data (Uniswap V3)
       updateTicksForLiquidity(liquidity);
@@ -374,12 +375,12 @@ public class AmmPositionCreateProcessor {
     // Đánh dấu tick là initialized nếu chưa được khởi tạo
     if (!lowerTick.isInitialized()) {
       lowerTick.setInitialized(true);
-      lowerTick.setTickInitializedTimestamp(System.currentTimeMillis());
+      lowerTick.setTickInitializedTimestamp(EventClock.currentTimeMillis());
     }
 
     if (!upperTick.isInitialized()) {
       upperTick.setInitialized(true);
-      upperTick.setTickInitializedTimestamp(System.currentTimeMillis());
+      upperTick.setTickInitializedTimestamp(EventClock.currentTimeMillis());
     }
 
     // Cập nhật lower tick - không phải tick trên nên upper = false
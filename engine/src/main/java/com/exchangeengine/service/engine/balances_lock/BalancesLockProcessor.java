@@ -233,7 +233,7 @@ public class BalancesLockProcessor {
         account.setFrozenBalance(currentFrozen.add(amountToFreeze));
         
         // Lưu tài khoản vào cache
-        accountCache.addAccountToBatch(account);
+        accountCache.updateAccount(account);
     }
     
     /**
@@ -256,6 +256,6 @@ public class BalancesLockProcessor {
         account.setFrozenBalance(currentFrozen.subtract(amountToUnfreeze));
         
         // Lưu tài khoản vào cache
-        accountCache.addAccountToBatch(account);
+        accountCache.updateAccount(account);
     }
 } 
@@ -0,0 +1,248 @@
+package com.exchangeengine.service.engine.candle;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.AmmOrder;
+import com.exchangeengine.model.Candle;
+import com.exchangeengine.model.CandleInterval;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Trade;
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.model.event.TradeEvent;
+import com.exchangeengine.storage.rocksdb.CandleRocksDB;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+
+/**
+ * Stage chạy sau DisruptorEventHandler: gom swap AMM thành công và trade P2P
+ * hoàn tất thành nến OHLCV 1m/5m/1h/1d theo từng pool / symbol.
+ * Cuối mỗi batch, nến đã đóng được chuyển cho một thread riêng để lưu vào CF
+ * candles và gửi lên EE.O.candle_close, stage không chờ RocksDB hay Kafka
+ * nên không giữ gating sequence của ring buffer.
+ *
+ * Nến đang mở chỉ nằm trong bộ nhớ; market không có giao dịch sẽ được đóng
+ * nến ở batch kế tiếp của engine.
+ *
+ * Thời gian lấy theo timestamp của event (không dùng giờ hệ thống) để replay
+ * từ InputJournal đóng nến giống lần chạy đầu.
+ */
+public class CandleEventHandler implements EventHandler<DisruptorEvent>, LifecycleAware {
+  private static final Logger logger = LoggerFactory.getLogger(CandleEventHandler.class);
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private final CandleRocksDB candleRocksDB;
+  private final KafkaProducerService kafkaProducerService;
+  // Một thread duy nhất để nến được lưu và gửi đúng thứ tự đóng
+  private final Executor outputExecutor;
+
+  // market -> series theo thứ tự CandleInterval.values()
+  private final Map<String, CandleSeries[]> seriesByMarket = new HashMap<>();
+  private final List<Candle> closedCandles = new ArrayList<>();
+  // Timestamp của event đang xử lý
+  private long eventTime;
+
+  /**
+   * Constructor mặc định, lấy instance tự động.
+   */
+  public CandleEventHandler() {
+    this(CandleRocksDB.getInstance(), KafkaProducerService.getInstance());
+  }
+
+  /**
+   * Constructor với các dependency (dùng cho test)
+   *
+   * @param candleRocksDB        Nơi lưu nến đã đóng
+   * @param kafkaProducerService Service gửi candle close
+   */
+  public CandleEventHandler(CandleRocksDB candleRocksDB, KafkaProducerService kafkaProducerService) {
+    this(candleRocksDB, kafkaProducerService, Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "candle-output");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /**
+   * Constructor với executor lưu / gửi nến (dùng cho test)
+   *
+   * @param candleRocksDB        Nơi lưu nến đã đóng
+   * @param kafkaProducerService Service gửi candle close
+   * @param outputExecutor       Executor chạy phần lưu và gửi nến đã đóng
+   */
+  CandleEventHandler(CandleRocksDB candleRocksDB, KafkaProducerService kafkaProducerService,
+      Executor outputExecutor) {
+    this.candleRocksDB = candleRocksDB;
+    this.kafkaProducerService = kafkaProducerService;
+    this.outputExecutor = outputExecutor;
+  }
+
+  @Override
+  public void onStart() {
+    // Không cần khởi tạo gì thêm
+  }
+
+  /**
+   * Chờ các nến đã chuyển cho executor được lưu / gửi xong trước khi dừng
+   */
+  @Override
+  public void onShutdown() {
+    if (!(outputExecutor instanceof ExecutorService)) {
+      return;
+    }
+    ExecutorService executorService = (ExecutorService) outputExecutor;
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Candle output did not finish within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void onEvent(DisruptorEvent event, long sequence, boolean endOfBatch) {
+    eventTime = event.getTimestamp();
+    try {
+      ProcessResult result = event.getProcessResult();
+      if (result != null && event.isSuccess()) {
+        result.getAmmOrder().filter(AmmOrder::isSuccess).ifPresent(this::addSwap);
+        if (isTradeComplete(event)) {
+          result.getTrade().filter(Trade::isCompleted).ifPresent(this::addTrade);
+        }
+      }
+    } catch (Exception e) {
+      logger.error("Error aggregating candle: eventId={}, error={}", event.getEventId(), e.getMessage(), e);
+    }
+
+    if (endOfBatch) {
+      flush(eventTime);
+    }
+  }
+
+  /**
+   * Swap AMM: giá = token1/token0 của lần swap, volume0/volume1 theo token0/token1
+   */
+  private void addSwap(AmmOrder order) {
+    BigDecimal amountIn = order.getAmountActual();
+    BigDecimal amountOut = order.getAmountReceived();
+    if (amountIn == null || amountOut == null || amountIn.signum() <= 0 || amountOut.signum() <= 0) {
+      return;
+    }
+
+    boolean zeroForOne = Boolean.TRUE.equals(order.getZeroForOne());
+    double amount0 = (zeroForOne ? amountIn : amountOut).doubleValue();
+    double amount1 = (zeroForOne ? amountOut : amountIn).doubleValue();
+    long timestamp = order.getCompletedAt() > 0 ? order.getCompletedAt() : eventTime;
+
+    add(Candle.marketKey(Candle.MARKET_TYPE_AMM, order.getPoolPair()), timestamp, amount1 / amount0, amount0,
+        amount1);
+  }
+
+  /**
+   * Trade P2P: giá của trade, volume0 = coinAmount, volume1 = fiatAmount
+   */
+  private void addTrade(Trade trade) {
+    if (trade.getPrice() == null || trade.getPrice().signum() <= 0) {
+      return;
+    }
+
+    long timestamp = trade.getCompletedAt() != null ? trade.getCompletedAt().toEpochMilli() : eventTime;
+    double coinAmount = trade.getCoinAmount() != null ? trade.getCoinAmount().doubleValue() : 0d;
+    double fiatAmount = trade.getFiatAmount() != null ? trade.getFiatAmount().doubleValue() : 0d;
+
+    add(Candle.marketKey(Candle.MARKET_TYPE_P2P, trade.getSymbol()), timestamp, trade.getPrice().doubleValue(),
+        coinAmount, fiatAmount);
+  }
+
+  private void add(String market, long timestamp, double price, double volume0, double volume1) {
+    for (CandleSeries series : getSeries(market)) {
+      Candle closed = series.add(timestamp, price, volume0, volume1);
+      if (closed != null) {
+        closedCandles.add(closed);
+      }
+    }
+  }
+
+  private CandleSeries[] getSeries(String market) {
+    return seriesByMarket.computeIfAbsent(market, key -> {
+      CandleInterval[] intervals = CandleInterval.values();
+      CandleSeries[] series = new CandleSeries[intervals.length];
+      for (int i = 0; i < intervals.length; i++) {
+        series[i] = new CandleSeries(key, intervals[i]);
+      }
+      return series;
+    });
+  }
+
+  private static boolean isTradeComplete(DisruptorEvent event) {
+    TradeEvent tradeEvent = event.getTradeEvent();
+    return tradeEvent != null && tradeEvent.getOperationType() == OperationType.TRADE_COMPLETE;
+  }
+
+  /**
+   * Đóng các nến đã hết khung thời gian, chuyển mọi nến đã đóng trong batch cho
+   * outputExecutor để lưu và gửi
+   *
+   * @param now Thời điểm hiện tại (millis)
+   */
+  void flush(long now) {
+    for (CandleSeries[] series : seriesByMarket.values()) {
+      for (CandleSeries item : series) {
+        Candle closed = item.closeExpired(now);
+        if (closed != null) {
+          closedCandles.add(closed);
+        }
+      }
+    }
+
+    if (closedCandles.isEmpty()) {
+      return;
+    }
+
+    List<Candle> candles = new ArrayList<>(closedCandles);
+    closedCandles.clear();
+    try {
+      outputExecutor.execute(() -> persistAndPublish(candles));
+    } catch (Exception e) {
+      logger.error("Error scheduling {} closed candles: {}", candles.size(), e.getMessage(), e);
+    }
+  }
+
+  private void persistAndPublish(List<Candle> candles) {
+    try {
+      candleRocksDB.saveCandleBatch(candles);
+      for (Candle candle : candles) {
+        kafkaProducerService.sendCandleClose(candle);
+      }
+    } catch (Exception e) {
+      logger.error("Error flushing {} closed candles: {}", candles.size(), e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Các nến gần nhất của market trong bộ nhớ (gồm cả nến đang mở).
+   * Chỉ gọi trên thread của stage này.
+   *
+   * @param market   Market key
+   * @param interval Khung thời gian
+   * @return Danh sách nến theo thứ tự thời gian
+   */
+  List<Candle> getRecentCandles(String market, CandleInterval interval) {
+    CandleSeries[] series = seriesByMarket.get(market);
+    return series == null ? new ArrayList<>() : series[interval.ordinal()].getCandles();
+  }
+}
@@ -0,0 +1,150 @@
+package com.exchangeengine.service.engine.candle;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.exchangeengine.model.Candle;
+import com.exchangeengine.model.CandleInterval;
+
+/**
+ * Các nến gần nhất của một market trong một khung thời gian, lưu trong ring
+ * các mảng primitive (không tạo object cho mỗi trade). Slot mới nhất là nến
+ * đang mở; nến chỉ được chuyển thành Candle khi đóng.
+ *
+ * Chỉ dùng trên thread của CandleEventHandler nên không cần đồng bộ.
+ */
+public class CandleSeries {
+  // Số nến gần nhất giữ trong bộ nhớ
+  public static final int CAPACITY = 16;
+
+  private final String market;
+  private final CandleInterval interval;
+
+  private final long[] openTimes = new long[CAPACITY];
+  private final double[] opens = new double[CAPACITY];
+  private final double[] highs = new double[CAPACITY];
+  private final double[] lows = new double[CAPACITY];
+  private final double[] closes = new double[CAPACITY];
+  private final double[] volumes0 = new double[CAPACITY];
+  private final double[] volumes1 = new double[CAPACITY];
+  private final int[] tradeCounts = new int[CAPACITY];
+
+  // Vị trí nến mới nhất, số nến trong ring và nến mới nhất còn mở hay không
+  private int index = -1;
+  private int size;
+  private boolean open;
+
+  public CandleSeries(String market, CandleInterval interval) {
+    this.market = market;
+    this.interval = interval;
+  }
+
+  public String getMarket() {
+    return market;
+  }
+
+  public CandleInterval getInterval() {
+    return interval;
+  }
+
+  public boolean isOpen() {
+    return open;
+  }
+
+  /**
+   * Cộng một trade vào nến chứa timestamp. Nếu trade thuộc khung mới thì đóng
+   * nến đang mở và mở nến mới (khung không có trade nào thì không tạo nến).
+   * Trade đến muộn (khung cũ hơn nến mới nhất) được gộp vào nến mới nhất, mở lại
+   * nến đó nếu đã đóng để lần đóng sau ghi đè bản đã lưu.
+   *
+   * @param timestamp Thời điểm trade (millis)
+   * @param price     Giá khớp
+   * @param volume0   Khối lượng token0/coin
+   * @param volume1   Khối lượng token1/fiat
+   * @return Nến vừa đóng, null nếu không có nến nào đóng
+   */
+  public Candle add(long timestamp, double price, double volume0, double volume1) {
+    long bucketStart = interval.bucketStart(timestamp);
+
+    if (size > 0 && bucketStart <= openTimes[index]) {
+      open = true;
+      update(index, price, volume0, volume1);
+      return null;
+    }
+
+    Candle closed = open ? closeCurrent() : null;
+
+    index = (index + 1) % CAPACITY;
+    if (size < CAPACITY) {
+      size++;
+    }
+    openTimes[index] = bucketStart;
+    opens[index] = price;
+    highs[index] = price;
+    lows[index] = price;
+    closes[index] = price;
+    volumes0[index] = volume0;
+    volumes1[index] = volume1;
+    tradeCounts[index] = 1;
+    open = true;
+
+    return closed;
+  }
+
+  /**
+   * Đóng nến đang mở nếu khung thời gian của nó đã kết thúc
+   *
+   * @param now Thời điểm hiện tại (millis)
+   * @return Nến vừa đóng, null nếu không có
+   */
+  public Candle closeExpired(long now) {
+    if (!open || now < openTimes[index] + interval.getDurationMs()) {
+      return null;
+    }
+    return closeCurrent();
+  }
+
+  /**
+   * Các nến trong ring theo thứ tự thời gian, gồm cả nến đang mở
+   *
+   * @return Danh sách nến
+   */
+  public List<Candle> getCandles() {
+    List<Candle> candles = new ArrayList<>(size);
+    for (int i = size - 1; i >= 0; i--) {
+      candles.add(toCandle((index - i + CAPACITY) % CAPACITY));
+    }
+    return candles;
+  }
+
+  private void update(int position, double price, double volume0, double volume1) {
+    highs[position] = Math.max(highs[position], price);
+    lows[position] = Math.min(lows[position], price);
+    closes[position] = price;
+    volumes0[position] += volume0;
+    volumes1[position] += volume1;
+    tradeCounts[position]++;
+  }
+
+  private Candle closeCurrent() {
+    open = false;
+    return toCandle(index);
+  }
+
+  private Candle toCandle(int position) {
+    Candle candle = new Candle();
+    candle.setMarket(market);
+    candle.setInterval(interval.getValue());
+    candle.setOpenTime(openTimes[position]);
+    candle.setCloseTime(openTimes[position] + interval.getDurationMs() - 1);
+    candle.setOpen(BigDecimal.valueOf(opens[position]));
+    candle.setHigh(BigDecimal.valueOf(highs[position]));
+    candle.setLow(BigDecimal.valueOf(lows[position]));
+    candle.setClose(BigDecimal.valueOf(closes[position]));
+    candle.setVolume0(BigDecimal.valueOf(volumes0[position]));
+    candle.setVolume1(BigDecimal.valueOf(volumes1[position]));
+    candle.setTradeCount(tradeCounts[position]);
+    return candle;
+  }
+}
@@ -0,0 +1,273 @@
+package com.exchangeengine.service.engine.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.BalanceLock;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Trade;
+import com.exchangeengine.model.event.BalancesLockEvent;
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.model.event.TradeEvent;
+import com.exchangeengine.service.engine.EngineDisruptorService;
+import com.exchangeengine.storage.cache.BalanceLockCache;
+import com.exchangeengine.storage.cache.TradeCache;
+import com.exchangeengine.util.DaemonThreadFactory;
+import com.exchangeengine.util.EpochTime;
+
+/**
+ * Quản lý hạn của trade P2P chưa thanh toán và balance lock đang khóa bằng
+ * HashedTimerWheel, thay cho cron job phía Rails.
+ *
+ * Deadline (expiresAt) được lưu cùng entity nên wheel được dựng lại từ cache
+ * khi khởi động. Mỗi tick, các đối tượng hết hạn được đưa vào ring buffer dưới
+ * dạng event nội bộ TRADE_CANCEL / BALANCES_LOCK_RELEASE theo batch, nên việc
+ * hủy vẫn đi qua business logic như event từ Kafka.
+ */
+public class ExpiryService {
+  private static final Logger logger = LoggerFactory.getLogger(ExpiryService.class);
+
+  // Singleton instance
+  private static volatile ExpiryService instance;
+
+  public static final long TICK_MS = 1000L;
+  static final String TRADE_KEY_PREFIX = "trade:";
+  static final String BALANCE_LOCK_KEY_PREFIX = "balance_lock:";
+  private static final String LOCK_STATUS_LOCKED = "LOCKED";
+
+  private final HashedTimerWheel wheel;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Lấy instance của ExpiryService
+   *
+   * @return Instance của ExpiryService
+   */
+  public static synchronized ExpiryService getInstance() {
+    if (instance == null) {
+      instance = new ExpiryService();
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(ExpiryService testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * Constructor riêng tư để đảm bảo Singleton pattern
+   */
+  private ExpiryService() {
+    this.wheel = new HashedTimerWheel(TICK_MS, System.currentTimeMillis());
+  }
+
+  protected TradeCache getTradeCache() {
+    return TradeCache.getInstance();
+  }
+
+  protected BalanceLockCache getBalanceLockCache() {
+    return BalanceLockCache.getInstance();
+  }
+
+  protected EngineDisruptorService getEngineDisruptorService() {
+    return EngineDisruptorService.getInstance();
+  }
+
+  /**
+   * Dựng lại wheel từ cache rồi chạy tick định kỳ
+   */
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+
+    rebuild();
+    scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("engine", "expiry"));
+    scheduler.scheduleAtFixedRate(() -> {
+      try {
+        expire(System.currentTimeMillis());
+      } catch (Exception e) {
+        logger.error("Error publishing expiry events: {}", e.getMessage(), e);
+      }
+    }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    logger.info("ExpiryService started with {} pending deadlines", size());
+  }
+
+  /**
+   * Dừng tick định kỳ
+   */
+  public synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+      logger.info("ExpiryService shut down");
+    }
+  }
+
+  /**
+   * Nạp deadline của các trade chưa thanh toán và lock đang khóa từ cache
+   */
+  public void rebuild() {
+    for (Trade trade : getTradeCache().getTrades()) {
+      trackTrade(trade);
+    }
+    for (BalanceLock lock : getBalanceLockCache().getBalanceLocks().values()) {
+      trackBalanceLock(lock);
+    }
+  }
+
+  /**
+   * Cập nhật deadline theo kết quả xử lý thành công của business logic:
+   * trade/lock còn hiệu lực và có expiresAt thì đặt deadline, ngược lại hủy.
+   *
+   * @param result Kết quả xử lý
+   */
+  public void track(ProcessResult result) {
+    result.getTrade().ifPresent(this::trackTrade);
+    result.getBalanceLock().ifPresent(this::trackBalanceLock);
+  }
+
+  private void trackTrade(Trade trade) {
+    if (trade.getIdentifier() == null) {
+      return;
+    }
+    String key = TRADE_KEY_PREFIX + trade.getIdentifier();
+    synchronized (wheel) {
+      if (trade.isUnpaid() && trade.getExpiresAt() != null) {
+        wheel.schedule(key, deadlineOf(trade));
+      } else {
+        wheel.cancel(key);
+      }
+    }
+  }
+
+  private void trackBalanceLock(BalanceLock lock) {
+    if (lock.getLockId() == null) {
+      return;
+    }
+    String key = BALANCE_LOCK_KEY_PREFIX + lock.getLockId();
+    synchronized (wheel) {
+      if (LOCK_STATUS_LOCKED.equals(lock.getStatus()) && lock.getExpiresAt() > 0) {
+        wheel.schedule(key, EpochTime.toMillis(lock.getExpiresAt()));
+      } else {
+        wheel.cancel(key);
+      }
+    }
+  }
+
+  /**
+   * Deadline (millis) của trade. Trade lưu trước khi expiresAt được chuẩn hóa
+   * có thể mang giá trị millis bị đọc như giây, đổi lại cho đúng.
+   */
+  static long deadlineOf(Trade trade) {
+    long epochSecond = trade.getExpiresAt().getEpochSecond();
+    if (epochSecond >= EpochTime.SECONDS_THRESHOLD) {
+      return epochSecond;
+    }
+    return trade.getExpiresAt().toEpochMilli();
+  }
+
+  public int size() {
+    synchronized (wheel) {
+      return wheel.size();
+    }
+  }
+
+  /**
+   * Lấy các đối tượng hết hạn tới thời điểm now và publish event hủy/giải
+   * phóng vào ring buffer trong một lần
+   *
+   * @param now Thời điểm hiện tại (millis)
+   * @return Số event đã publish
+   */
+  public int expire(long now) {
+    List<String> expiredKeys;
+    synchronized (wheel) {
+      expiredKeys = wheel.advance(now);
+    }
+    if (expiredKeys.isEmpty()) {
+      return 0;
+    }
+
+    List<DisruptorEvent> events = new ArrayList<>(expiredKeys.size());
+    for (String key : expiredKeys) {
+      toExpiryEvent(key).ifPresent(events::add);
+    }
+    if (!events.isEmpty()) {
+      getEngineDisruptorService().publishEvents(events);
+      logger.info("Published {} expiry events", events.size());
+    }
+    return events.size();
+  }
+
+  private Optional<DisruptorEvent> toExpiryEvent(String key) {
+    if (key.startsWith(TRADE_KEY_PREFIX)) {
+      return getTradeCache().getTrade(key.substring(TRADE_KEY_PREFIX.length()))
+          .filter(trade -> trade.isUnpaid() && trade.getExpiresAt() != null)
+          .map(ExpiryService::tradeCancelEvent);
+    }
+    if (key.startsWith(BALANCE_LOCK_KEY_PREFIX)) {
+      return getBalanceLockCache().getBalanceLock(key.substring(BALANCE_LOCK_KEY_PREFIX.length()))
+          .filter(lock -> LOCK_STATUS_LOCKED.equals(lock.getStatus()))
+          .map(ExpiryService::balanceLockReleaseEvent);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Event hủy trade hết hạn. eventId gắn với deadline nên event trùng (ví dụ
+   * sau khi restart) bị EventCache bỏ qua.
+   */
+  private static DisruptorEvent tradeCancelEvent(Trade trade) {
+    TradeEvent tradeEvent = new TradeEvent();
+    tradeEvent.setEventId("expiry-trade-" + trade.getIdentifier() + "-" + trade.getExpiresAt().toEpochMilli());
+    tradeEvent.setActionType(ActionType.TRADE);
+    tradeEvent.setActionId(trade.getIdentifier());
+    tradeEvent.setOperationType(OperationType.TRADE_CANCEL);
+    tradeEvent.setIdentifier(trade.getIdentifier());
+    tradeEvent.setOfferKey(trade.getOfferKey());
+    tradeEvent.setBuyerAccountKey(trade.getBuyerAccountKey());
+    tradeEvent.setSellerAccountKey(trade.getSellerAccountKey());
+    tradeEvent.setSymbol(trade.getSymbol());
+    tradeEvent.setTakerSide(trade.getTakerSide());
+
+    DisruptorEvent event = new DisruptorEvent();
+    event.setTradeEvent(tradeEvent);
+    return event;
+  }
+
+  private static DisruptorEvent balanceLockReleaseEvent(BalanceLock lock) {
+    BalancesLockEvent lockEvent = new BalancesLockEvent();
+    lockEvent.setEventId("expiry-balance-lock-" + lock.getLockId() + "-" + lock.getExpiresAt());
+    lockEvent.setActionType(lock.getActionType() != null ? lock.getActionType() : ActionType.BALANCES_LOCK);
+    lockEvent.setActionId(lock.getActionId() != null ? lock.getActionId() : lock.getLockId());
+    lockEvent.setOperationType(OperationType.BALANCES_LOCK_RELEASE);
+    lockEvent.setLockId(lock.getLockId());
+    lockEvent.setIdentifier(lock.getIdentifier());
+
+    DisruptorEvent event = new DisruptorEvent();
+    event.setBalancesLockEvent(lockEvent);
+    return event;
+  }
+}
@@ -0,0 +1,200 @@
+package com.exchangeengine.service.engine.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timer wheel phân cấp (hierarchical hashed timer wheel) giữ deadline theo key.
+ * Mỗi tầng có 256 slot, tầng sau có độ phân giải gấp 256 lần tầng trước; 4 tầng
+ * với tick 1s đủ cho deadline tới hơn 100 năm. Thêm/hủy deadline O(1), mỗi tick
+ * chỉ duyệt một slot, timeout ở tầng cao được hạ dần xuống khi tới gần hạn.
+ *
+ * Hủy theo kiểu lazy: key bị xóa khỏi map, entry cũ còn trong slot sẽ bị bỏ qua
+ * khi slot được duyệt. Class không thread-safe, người dùng tự đồng bộ.
+ */
+public class HashedTimerWheel {
+  private static final int WHEEL_BITS = 8;
+  private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final int LEVELS = 4;
+  private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+  private final long tickMs;
+  private final List<List<Timeout>> slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+  private final Map<String, Timeout> timeouts = new HashMap<>();
+
+  // Tick cuối cùng đã được xử lý
+  private long currentTick;
+
+  /**
+   * Một deadline đang chờ
+   */
+  private static final class Timeout {
+    private final String key;
+    private final long deadlineMs;
+    private final long deadlineTick;
+
+    private Timeout(String key, long deadlineMs, long deadlineTick) {
+      this.key = key;
+      this.deadlineMs = deadlineMs;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+
+  /**
+   * @param tickMs Độ phân giải của tầng thấp nhất (millis)
+   * @param nowMs  Thời điểm bắt đầu (millis)
+   */
+  public HashedTimerWheel(long tickMs, long nowMs) {
+    this.tickMs = tickMs;
+    this.currentTick = nowMs / tickMs;
+    for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+      slots.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Đặt (hoặc đặt lại) deadline cho key. Deadline đã qua sẽ hết hạn ở tick kế
+   * tiếp.
+   *
+   * @param key        Key của đối tượng
+   * @param deadlineMs Thời điểm hết hạn (millis)
+   */
+  public void schedule(String key, long deadlineMs) {
+    Timeout existing = timeouts.get(key);
+    if (existing != null && existing.deadlineMs == deadlineMs) {
+      return;
+    }
+
+    // Làm tròn lên để không bao giờ hết hạn sớm hơn deadline
+    long deadlineTick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick + 1);
+    Timeout timeout = new Timeout(key, deadlineMs, deadlineTick);
+    timeouts.put(key, timeout);
+    insert(timeout);
+  }
+
+  /**
+   * Hủy deadline của key
+   *
+   * @param key Key của đối tượng
+   * @return true nếu key đang có deadline
+   */
+  public boolean cancel(String key) {
+    return timeouts.remove(key) != null;
+  }
+
+  /**
+   * Deadline hiện tại của key
+   *
+   * @param key Key của đối tượng
+   * @return deadline (millis), null nếu không có
+   */
+  public Long getDeadline(String key) {
+    Timeout timeout = timeouts.get(key);
+    return timeout != null ? timeout.deadlineMs : null;
+  }
+
+  public int size() {
+    return timeouts.size();
+  }
+
+  /**
+   * Tiến wheel tới nowMs và lấy ra các key đã hết hạn
+   *
+   * @param nowMs Thời điểm hiện tại (millis)
+   * @return Các key hết hạn, theo thứ tự tick
+   */
+  public List<String> advance(long nowMs) {
+    List<String> expired = new ArrayList<>();
+    long targetTick = nowMs / tickMs;
+
+    // Bỏ lỡ quá nhiều tick (process bị dừng lâu): xếp lại toàn bộ thay vì duyệt từng tick
+    if (targetTick - currentTick > (long) WHEEL_SIZE * WHEEL_SIZE) {
+      rebuild(targetTick, expired);
+      return expired;
+    }
+
+    while (currentTick < targetTick) {
+      currentTick++;
+      cascade();
+
+      List<Timeout> slot = slots.get((int) (currentTick & WHEEL_MASK));
+      if (slot.isEmpty()) {
+        continue;
+      }
+      List<Timeout> entries = new ArrayList<>(slot);
+      slot.clear();
+      for (Timeout timeout : entries) {
+        if (timeouts.get(timeout.key) != timeout) {
+          continue;
+        }
+        if (timeout.deadlineTick <= currentTick) {
+          timeouts.remove(timeout.key);
+          expired.add(timeout.key);
+        } else {
+          insert(timeout);
+        }
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * Khi tầng dưới quay hết một vòng, hạ các timeout của slot tương ứng ở tầng
+   * trên xuống.
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      if (((currentTick >> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+        return;
+      }
+      int index = (int) ((currentTick >> (WHEEL_BITS * level)) & WHEEL_MASK);
+      List<Timeout> slot = slots.get(level * WHEEL_SIZE + index);
+      if (slot.isEmpty()) {
+        continue;
+      }
+      List<Timeout> entries = new ArrayList<>(slot);
+      slot.clear();
+      for (Timeout timeout : entries) {
+        if (timeouts.get(timeout.key) == timeout) {
+          insert(timeout);
+        }
+      }
+    }
+  }
+
+  private void insert(Timeout timeout) {
+    long delta = Math.min(Math.max(timeout.deadlineTick - currentTick, 0L), MAX_DELTA);
+    long tick = currentTick + delta;
+    int level = 0;
+    while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+      level++;
+    }
+    int index = (int) ((tick >> (WHEEL_BITS * level)) & WHEEL_MASK);
+    slots.get(level * WHEEL_SIZE + index).add(timeout);
+  }
+
+  private void rebuild(long targetTick, List<String> expired) {
+    for (List<Timeout> slot : slots) {
+      slot.clear();
+    }
+    currentTick = targetTick;
+
+    List<Timeout> pending = new ArrayList<>(timeouts.values());
+    pending.sort((left, right) -> Long.compare(left.deadlineTick, right.deadlineTick));
+    for (Timeout timeout : pending) {
+      if (timeout.deadlineTick <= targetTick) {
+        timeouts.remove(timeout.key);
+        expired.add(timeout.key);
+      } else {
+        insert(timeout);
+      }
+    }
+  }
+
+  private static long ceilDiv(long value, long divisor) {
+    return -Math.floorDiv(-value, divisor);
+  }
+}
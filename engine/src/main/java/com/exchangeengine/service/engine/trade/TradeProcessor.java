@@ -14,7 +14,6 @@ import com.exchangeengine.model.Trade;
 import com.exchangeengine.model.event.DisruptorEvent;
 import com.exchangeengine.model.event.TradeEvent;
 import com.exchangeengine.storage.StorageService;
-import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.model.OperationType;
 
 /**
@@ -27,7 +26,6 @@ public class TradeProcessor {
     private final DisruptorEvent event;
     private final StorageService storageService;
     private final ProcessResult result;
-    private final AccountCache accountCache;
 
     /**
      * Constructor with DisruptorEvent.
@@ -37,7 +35,6 @@ public class TradeProcessor {
     public TradeProcessor(DisruptorEvent event) {
         this.event = event;
         this.storageService = StorageService.getInstance();
-        this.accountCache = AccountCache.getInstance();
         this.result = new ProcessResult(event);
     }
 
@@ -75,11 +72,6 @@ public class TradeProcessor {
             }
             
             if (event.isSuccess()) {
-                // Check if we need to flush accounts to disk
-                if (accountCache.accountCacheShouldFlush()) {
-                    accountCache.flushAccountToDisk();
-                }
-                
                 logger.info("Successfully processed trade operation: {}", operationType);
             }
         } catch (Exception e) {
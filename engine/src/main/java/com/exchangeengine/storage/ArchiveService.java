@@ -0,0 +1,216 @@
+package com.exchangeengine.storage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.storage.rocksdb.AmmPositionRocksDB;
+import com.exchangeengine.storage.rocksdb.BalanceLockRocksDB;
+import com.exchangeengine.storage.rocksdb.DepositRocksDB;
+import com.exchangeengine.storage.rocksdb.Pair;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
+import com.exchangeengine.storage.rocksdb.TradeRocksDB;
+import com.exchangeengine.storage.rocksdb.WithdrawalRocksDB;
+import com.exchangeengine.util.DaemonThreadFactory;
+import com.exchangeengine.util.EnvManager;
+
+/**
+ * Định kỳ chuyển các bản ghi đã kết thúc (deposit, withdrawal, trade, position
+ * đã đóng, lock đã giải phóng) cũ hơn ARCHIVE_RETENTION_DAYS sang column family
+ * archive, để column family nóng và thời gian tải cache khi khởi động không tăng
+ * mãi.
+ *
+ * Mỗi lần chuyển tối đa batchSize bản ghi được duyệt trong
+ * FlushScheduler.callBetweenFlushes(), nên không ghi đè bản ghi mới hơn mà lần
+ * flush đang chạy ghi xuống. Bản ghi đã archive vẫn đọc được qua các lớp
+ * *RocksDB và cache (cache tra archive khi không thấy key).
+ */
+public class ArchiveService {
+  private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+  // Singleton instance
+  private static volatile ArchiveService instance;
+
+  public static final int DEFAULT_INTERVAL_MS = 60 * 60 * 1000;
+  public static final int DEFAULT_RETENTION_DAYS = 30;
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  /**
+   * Chuyển một phần bản ghi của một column family sang archive
+   */
+  @FunctionalInterface
+  interface Archiver {
+    Pair<byte[], Integer> archive(long olderThan, byte[] startAfter, int scanLimit);
+  }
+
+  private final FlushScheduler flushScheduler;
+  private final Map<String, Archiver> archivers;
+  private final long retentionMs;
+  private final int batchSize;
+  private final long intervalMs;
+
+  private final Map<String, AtomicLong> archivedCounts = new LinkedHashMap<>();
+  private volatile long lastSweepAt;
+  private volatile long lastSweepDurationMillis;
+  private volatile boolean stopping;
+  private volatile ScheduledExecutorService executor;
+
+  /**
+   * Lấy instance của ArchiveService với cấu hình từ biến môi trường.
+   *
+   * @return Instance của ArchiveService
+   */
+  public static synchronized ArchiveService getInstance() {
+    if (instance == null) {
+      EnvManager env = EnvManager.getInstance();
+      Map<String, Archiver> archivers = new LinkedHashMap<>();
+      archivers.put(RocksDBConfig.DEPOSIT_CF, DepositRocksDB.getInstance()::archiveDeposits);
+      archivers.put(RocksDBConfig.WITHDRAWAL_CF, WithdrawalRocksDB.getInstance()::archiveWithdrawals);
+      archivers.put(RocksDBConfig.TRADE_CF, TradeRocksDB.getInstance()::archiveTrades);
+      archivers.put(RocksDBConfig.AMM_POSITION_CF, AmmPositionRocksDB.getInstance()::archiveAmmPositions);
+      archivers.put(RocksDBConfig.BALANCE_LOCK_CF, BalanceLockRocksDB.getInstance()::archiveBalanceLocks);
+      instance = new ArchiveService(FlushScheduler.getInstance(), archivers,
+          TimeUnit.DAYS.toMillis(env.getInt("ARCHIVE_RETENTION_DAYS", DEFAULT_RETENTION_DAYS)),
+          env.getInt("ARCHIVE_BATCH_SIZE", DEFAULT_BATCH_SIZE),
+          env.getInt("ARCHIVE_INTERVAL_MS", DEFAULT_INTERVAL_MS));
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(ArchiveService testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * @param flushScheduler Scheduler flush, mỗi batch chạy giữa hai lần flush
+   * @param archivers      Archiver theo tên column family nóng
+   * @param retentionMs    Bản ghi kết thúc trước now - retentionMs được archive
+   * @param batchSize      Số bản ghi tối đa được duyệt trong một batch
+   * @param intervalMs     Chu kỳ chạy, 0 = tắt
+   */
+  ArchiveService(FlushScheduler flushScheduler, Map<String, Archiver> archivers, long retentionMs, int batchSize,
+      long intervalMs) {
+    this.flushScheduler = flushScheduler;
+    this.archivers = archivers;
+    this.retentionMs = retentionMs;
+    this.batchSize = Math.max(1, batchSize);
+    this.intervalMs = intervalMs;
+    for (String name : archivers.keySet()) {
+      archivedCounts.put(name, new AtomicLong());
+    }
+  }
+
+  /**
+   * Chạy thread archive theo chu kỳ (nếu bật)
+   */
+  public synchronized void start() {
+    if (executor != null || intervalMs <= 0) {
+      return;
+    }
+
+    stopping = false;
+    executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("storage", "archive"));
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        sweep(System.currentTimeMillis());
+      } catch (Exception e) {
+        logger.error("Error archiving terminal records: {}", e.getMessage(), e);
+      }
+    }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    logger.info("ArchiveService started: intervalMs={}, retentionMs={}, batchSize={}", intervalMs, retentionMs,
+        batchSize);
+  }
+
+  /**
+   * Dừng thread archive; lần quét đang chạy dừng sau batch hiện tại
+   */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      stopping = true;
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        executor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
+      logger.info("ArchiveService shut down");
+    }
+  }
+
+  /**
+   * Quét toàn bộ các column family nóng một lần
+   *
+   * @param now Thời điểm hiện tại (millis)
+   * @return Số bản ghi đã archive theo tên column family
+   */
+  public Map<String, Integer> sweep(long now) {
+    long startedAt = System.currentTimeMillis();
+    long olderThan = now - retentionMs;
+    Map<String, Integer> result = new LinkedHashMap<>();
+
+    for (Map.Entry<String, Archiver> entry : archivers.entrySet()) {
+      String name = entry.getKey();
+      Archiver archiver = entry.getValue();
+      int archived = 0;
+      try {
+        byte[] cursor = null;
+        do {
+          byte[] startAfter = cursor;
+          Pair<byte[], Integer> batch = flushScheduler.callBetweenFlushes(
+              () -> archiver.archive(olderThan, startAfter, batchSize));
+          archived += batch.getValue();
+          cursor = batch.getKey();
+        } while (cursor != null && !stopping);
+      } catch (Exception e) {
+        logger.error("Error archiving {}: {}", name, e.getMessage(), e);
+      }
+      archivedCounts.get(name).addAndGet(archived);
+      result.put(name, archived);
+    }
+
+    lastSweepAt = now;
+    lastSweepDurationMillis = System.currentTimeMillis() - startedAt;
+    logger.info("Archived terminal records older than {} in {} ms: {}", olderThan, lastSweepDurationMillis, result);
+    return result;
+  }
+
+  /**
+   * Tổng số bản ghi đã archive kể từ khi khởi động, theo tên column family
+   */
+  public Map<String, Long> getArchivedCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    archivedCounts.forEach((name, count) -> counts.put(name, count.get()));
+    return Collections.unmodifiableMap(counts);
+  }
+
+  public long getLastSweepAt() {
+    return lastSweepAt;
+  }
+
+  public long getLastSweepDurationMillis() {
+    return lastSweepDurationMillis;
+  }
+}
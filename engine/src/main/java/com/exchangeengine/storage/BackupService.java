@@ -0,0 +1,454 @@
+package com.exchangeengine.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.rocksdb.BackupEngine;
+import org.rocksdb.BackupEngineOptions;
+import org.rocksdb.BackupInfo;
+import org.rocksdb.Checkpoint;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Env;
+import org.rocksdb.Options;
+import org.rocksdb.RestoreOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.BackupRecord;
+import com.exchangeengine.model.DurablePosition;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.util.DaemonThreadFactory;
+import com.exchangeengine.util.EnvManager;
+import com.exchangeengine.util.JsonSerializer;
+
+/**
+ * Backup online của database, chạy trên một thread riêng (theo lịch hoặc khi
+ * admin yêu cầu) nên không bao giờ chặn thread business logic.
+ *
+ * - checkpoint: Checkpoint.createCheckpoint tạo thư mục hard link tới các file
+ * SST gần như tức thì; mở trực tiếp được như một database
+ * - backup: tạo checkpoint tạm rồi BackupEngine sao chép tăng dần (chỉ file SST
+ * mới) vào BACKUP_DIR với tốc độ giới hạn, sau đó xóa checkpoint tạm
+ *
+ * Checkpoint được tạo trong FlushScheduler.callBetweenFlushes(), giữa hai lần
+ * flush. Cache chỉ ghi xuống RocksDB qua flush và mỗi lần flush ghi đúng trạng
+ * thái tại một sequence (business logic dừng trong lúc flush), nên khi lần
+ * flush gần nhất thành công, dữ liệu khớp DurablePosition (sequence Disruptor,
+ * offset Kafka, sequence journal) của lần flush đó; riêng CF candles được ghi
+ * ngoài flush và được tạo lại khi replay. Lần flush gần nhất lỗi có thể đã ghi
+ * một phần dữ liệu mới hơn vị trí bền nên checkpoint bị từ chối cho tới lần
+ * flush thành công sau. Vị trí được ghi vào file durable-position.json của
+ * checkpoint và metadata của backup, đồng thời nằm sẵn trong kafka_group_state
+ * CF.
+ */
+public class BackupService {
+  private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+  // Singleton instance
+  private static volatile BackupService instance;
+
+  public static final int DEFAULT_RATE_LIMIT_MB_PER_SEC = 32;
+  public static final int DEFAULT_KEEP_BACKUPS = 7;
+  public static final int DEFAULT_KEEP_CHECKPOINTS = 2;
+  public static final String POSITION_FILE = "durable-position.json";
+
+  static final String CHECKPOINT_PREFIX = "checkpoint-";
+  static final String STAGING_PREFIX = "staging-";
+
+  private static final long MB = 1024L * 1024L;
+  private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+      .withZone(ZoneOffset.UTC);
+
+  private final RocksDBService rocksDBService;
+  private final FlushScheduler flushScheduler;
+  private final Path backupDir;
+  private final Path checkpointDir;
+  private final long rateLimitBytesPerSec;
+  private final int keepBackups;
+  private final int keepCheckpoints;
+  private final long intervalMs;
+
+  private volatile ScheduledExecutorService executor;
+
+  /**
+   * Lấy instance của BackupService với cấu hình từ biến môi trường.
+   *
+   * @return Instance của BackupService
+   */
+  public static synchronized BackupService getInstance() {
+    if (instance == null) {
+      EnvManager env = EnvManager.getInstance();
+      instance = new BackupService(RocksDBService.getInstance(), FlushScheduler.getInstance(),
+          Paths.get(getBackupDir()),
+          Paths.get(env.get("BACKUP_CHECKPOINT_DIR", RocksDBConfig.getDbPath() + "-checkpoints")),
+          env.getInt("BACKUP_RATE_LIMIT_MB_PER_SEC", DEFAULT_RATE_LIMIT_MB_PER_SEC) * MB,
+          env.getInt("BACKUP_KEEP", DEFAULT_KEEP_BACKUPS),
+          env.getInt("BACKUP_KEEP_CHECKPOINTS", DEFAULT_KEEP_CHECKPOINTS),
+          env.getInt("BACKUP_INTERVAL_MS", 0));
+    }
+    return instance;
+  }
+
+  /**
+   * Thư mục của BackupEngine, mặc định &lt;ROCKSDB_DATA_DIR&gt;-backups
+   *
+   * @return đường dẫn thư mục
+   */
+  public static String getBackupDir() {
+    return EnvManager.getInstance().get("BACKUP_DIR", RocksDBConfig.getDbPath() + "-backups");
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(BackupService testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * @param rocksDBService       Service giữ database cần backup
+   * @param flushScheduler       Scheduler flush, backup chạy giữa hai lần flush
+   * @param backupDir            Thư mục của BackupEngine
+   * @param checkpointDir        Thư mục chứa checkpoint, nên cùng ổ đĩa với
+   *                             database để hard link được
+   * @param rateLimitBytesPerSec Tốc độ sao chép tối đa của backup, 0 = không
+   *                             giới hạn
+   * @param keepBackups          Số backup giữ lại
+   * @param keepCheckpoints      Số checkpoint giữ lại
+   * @param intervalMs           Chu kỳ backup tự động, 0 = tắt
+   */
+  BackupService(RocksDBService rocksDBService, FlushScheduler flushScheduler, Path backupDir, Path checkpointDir,
+      long rateLimitBytesPerSec, int keepBackups, int keepCheckpoints, long intervalMs) {
+    this.rocksDBService = rocksDBService;
+    this.flushScheduler = flushScheduler;
+    this.backupDir = backupDir;
+    this.checkpointDir = checkpointDir;
+    this.rateLimitBytesPerSec = rateLimitBytesPerSec;
+    this.keepBackups = Math.max(1, keepBackups);
+    this.keepCheckpoints = Math.max(1, keepCheckpoints);
+    this.intervalMs = intervalMs;
+  }
+
+  /**
+   * Chạy thread backup và lịch backup tự động (nếu bật)
+   */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+
+    executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("storage", "backup"));
+    if (intervalMs > 0) {
+      executor.scheduleWithFixedDelay(() -> {
+        try {
+          createBackup();
+        } catch (Exception e) {
+          logger.error("Error creating scheduled backup: {}", e.getMessage(), e);
+        }
+      }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    logger.info("BackupService started: backupDir={}, checkpointDir={}, intervalMs={}, rateLimitBytesPerSec={}",
+        backupDir, checkpointDir, intervalMs, rateLimitBytesPerSec);
+  }
+
+  /**
+   * Dừng thread backup, chờ backup đang chạy kết thúc
+   */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+          logger.warn("Backup vẫn đang chạy sau 60s, dừng thread backup");
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        executor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
+      logger.info("BackupService shut down");
+    }
+  }
+
+  /**
+   * Yêu cầu một lần backup trên thread backup.
+   *
+   * @param type BackupRecord.TYPE_CHECKPOINT hoặc BackupRecord.TYPE_BACKUP
+   * @return Future hoàn thành khi backup xong
+   */
+  public CompletableFuture<BackupRecord> trigger(String type) {
+    CompletableFuture<BackupRecord> future = new CompletableFuture<>();
+    ScheduledExecutorService current = executor;
+    if (current == null) {
+      future.completeExceptionally(new IllegalStateException("BackupService is not running"));
+      return future;
+    }
+
+    try {
+      current.execute(() -> {
+        try {
+          future.complete(run(type));
+        } catch (Exception e) {
+          logger.error("Error creating {}: {}", type, e.getMessage(), e);
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(new IllegalStateException("BackupService is shutting down", e));
+    }
+    return future;
+  }
+
+  BackupRecord run(String type) throws Exception {
+    if (BackupRecord.TYPE_CHECKPOINT.equals(type)) {
+      return createCheckpoint();
+    }
+    if (BackupRecord.TYPE_BACKUP.equals(type)) {
+      return createBackup();
+    }
+    throw new IllegalArgumentException("Unknown backup type: " + type);
+  }
+
+  /**
+   * Tạo checkpoint mới trong checkpointDir và xóa các checkpoint cũ
+   *
+   * @return Thông tin checkpoint
+   */
+  public BackupRecord createCheckpoint() throws Exception {
+    long startedAt = System.currentTimeMillis();
+    Path dir = checkpointDir.resolve(CHECKPOINT_PREFIX + NAME_FORMAT.format(Instant.ofEpochMilli(startedAt)));
+    DurablePosition position = checkpoint(dir);
+    Files.write(dir.resolve(POSITION_FILE), JsonSerializer.serialize(position));
+    pruneCheckpoints();
+
+    BackupRecord record = new BackupRecord();
+    record.setType(BackupRecord.TYPE_CHECKPOINT);
+    record.setPath(dir.toString());
+    record.setCreatedAt(startedAt);
+    try (Stream<Path> files = Files.list(dir)) {
+      List<Path> regularFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+      record.setNumberFiles(regularFiles.size());
+      record.setSizeBytes(regularFiles.stream().mapToLong(BackupService::fileSize).sum());
+    }
+    record.setDurationMillis(System.currentTimeMillis() - startedAt);
+    record.setPosition(position);
+    logger.info("Created checkpoint {} ({} files, {} ms), position={}", dir, record.getNumberFiles(),
+        record.getDurationMillis(), position);
+    return record;
+  }
+
+  /**
+   * Tạo backup tăng dần bằng BackupEngine từ một checkpoint tạm, giữ lại
+   * keepBackups backup mới nhất
+   *
+   * @return Thông tin backup
+   */
+  public BackupRecord createBackup() throws Exception {
+    long startedAt = System.currentTimeMillis();
+    Path staging = checkpointDir.resolve(STAGING_PREFIX + NAME_FORMAT.format(Instant.ofEpochMilli(startedAt)));
+    DurablePosition position = checkpoint(staging);
+
+    try {
+      Files.createDirectories(backupDir);
+      BackupInfo info;
+      try (BackupEngineOptions engineOptions = new BackupEngineOptions(backupDir.toString())
+          .setBackupRateLimit(rateLimitBytesPerSec)
+          .setShareFilesWithChecksum(true)
+          .setSync(true);
+          BackupEngine engine = BackupEngine.open(Env.getDefault(), engineOptions)) {
+        backupCheckpoint(engine, staging, new String(JsonSerializer.serialize(position), StandardCharsets.UTF_8));
+        engine.purgeOldBackups(keepBackups);
+        List<BackupInfo> infos = engine.getBackupInfo();
+        info = infos.get(infos.size() - 1);
+      }
+
+      BackupRecord record = toRecord(info);
+      record.setCreatedAt(startedAt);
+      record.setDurationMillis(System.currentTimeMillis() - startedAt);
+      logger.info("Created backup {} in {} ({} files, {} bytes, {} ms), position={}", info.backupId(), backupDir,
+          info.numberFiles(), info.size(), record.getDurationMillis(), position);
+      return record;
+    } finally {
+      deleteDirectory(staging);
+    }
+  }
+
+  /**
+   * Danh sách backup trong backupDir, cũ nhất trước
+   *
+   * @return Danh sách backup
+   */
+  public List<BackupRecord> listBackups() throws RocksDBException {
+    List<BackupRecord> records = new ArrayList<>();
+    if (!Files.isDirectory(backupDir)) {
+      return records;
+    }
+    try (BackupEngineOptions engineOptions = new BackupEngineOptions(backupDir.toString());
+        BackupEngine engine = BackupEngine.open(Env.getDefault(), engineOptions)) {
+      for (BackupInfo info : engine.getBackupInfo()) {
+        records.add(toRecord(info));
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Khôi phục một backup vào thư mục mới. Không ghi đè database đang có.
+   *
+   * @param backupDir Thư mục của BackupEngine
+   * @param backupId  Id backup, &lt;= 0 để lấy backup mới nhất
+   * @param targetDir Thư mục đích, phải chưa tồn tại hoặc rỗng
+   */
+  public static void restoreToNewDir(String backupDir, int backupId, String targetDir)
+      throws RocksDBException, IOException {
+    Path target = Paths.get(targetDir);
+    if (Files.exists(target)) {
+      try (Stream<Path> files = Files.list(target)) {
+        if (files.findAny().isPresent()) {
+          throw new IllegalArgumentException("Restore target directory must be empty: " + targetDir);
+        }
+      }
+    }
+    Files.createDirectories(target);
+
+    try (BackupEngineOptions engineOptions = new BackupEngineOptions(backupDir);
+        BackupEngine engine = BackupEngine.open(Env.getDefault(), engineOptions);
+        RestoreOptions restoreOptions = new RestoreOptions(false)) {
+      if (backupId > 0) {
+        engine.restoreDbFromBackup(backupId, targetDir, targetDir, restoreOptions);
+      } else {
+        engine.restoreDbFromLatestBackup(targetDir, targetDir, restoreOptions);
+      }
+    }
+    logger.info("Restored backup {} from {} to {}", backupId > 0 ? backupId : "latest", backupDir, targetDir);
+  }
+
+  /**
+   * Tạo checkpoint giữa hai lần flush
+   *
+   * @return Vị trí bền tương ứng với dữ liệu trong checkpoint
+   * @throws IllegalStateException nếu lần flush gần nhất lỗi
+   */
+  private DurablePosition checkpoint(Path dir) throws Exception {
+    Files.createDirectories(dir.getParent());
+    return flushScheduler.callBetweenFlushes(() -> {
+      if (flushScheduler.isLastFlushFailed()) {
+        throw new IllegalStateException("Last flush failed, database may be ahead of the durable position");
+      }
+      try (Checkpoint checkpoint = Checkpoint.create(rocksDBService.getDb())) {
+        checkpoint.createCheckpoint(dir.toString());
+      }
+      DurablePosition position = flushScheduler.getDurablePosition();
+      return position == null ? new DurablePosition() : position;
+    });
+  }
+
+  /**
+   * Mở checkpoint ở chế độ chỉ đọc và sao chép nó bằng BackupEngine
+   */
+  private static void backupCheckpoint(BackupEngine engine, Path checkpoint, String metadata)
+      throws RocksDBException {
+    List<byte[]> names;
+    try (Options options = new Options()) {
+      names = RocksDB.listColumnFamilies(options, checkpoint.toString());
+    }
+
+    // Options mặc định đủ để đọc file, BackupEngine chỉ sao chép file
+    List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    for (byte[] name : names) {
+      descriptors.add(new ColumnFamilyDescriptor(name, new ColumnFamilyOptions()));
+    }
+    List<ColumnFamilyHandle> handles = new ArrayList<>();
+    try (DBOptions options = new DBOptions();
+        RocksDB db = RocksDB.openReadOnly(options, checkpoint.toString(), descriptors, handles)) {
+      try {
+        engine.createNewBackupWithMetadata(db, metadata, false);
+      } finally {
+        handles.forEach(ColumnFamilyHandle::close);
+      }
+    } finally {
+      descriptors.forEach(descriptor -> descriptor.getOptions().close());
+    }
+  }
+
+  private BackupRecord toRecord(BackupInfo info) {
+    BackupRecord record = new BackupRecord();
+    record.setType(BackupRecord.TYPE_BACKUP);
+    record.setBackupId(info.backupId());
+    record.setPath(backupDir.toString());
+    record.setCreatedAt(TimeUnit.SECONDS.toMillis(info.timestamp()));
+    record.setSizeBytes(info.size());
+    record.setNumberFiles(info.numberFiles());
+    String metadata = info.appMetadata();
+    if (metadata != null && !metadata.isEmpty()) {
+      record.setPosition(JsonSerializer.deserialize(metadata.getBytes(StandardCharsets.UTF_8),
+          DurablePosition.class));
+    }
+    return record;
+  }
+
+  private void pruneCheckpoints() throws IOException {
+    List<Path> checkpoints;
+    try (Stream<Path> dirs = Files.list(checkpointDir)) {
+      checkpoints = dirs.filter(dir -> dir.getFileName().toString().startsWith(CHECKPOINT_PREFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    for (int i = 0; i < checkpoints.size() - keepCheckpoints; i++) {
+      deleteDirectory(checkpoints.get(i));
+      logger.info("Deleted old checkpoint {}", checkpoints.get(i));
+    }
+  }
+
+  private static void deleteDirectory(Path dir) throws IOException {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static long fileSize(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
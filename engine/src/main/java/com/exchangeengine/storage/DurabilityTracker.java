@@ -0,0 +1,159 @@
+package com.exchangeengine.storage;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+import com.exchangeengine.model.DurablePosition;
+
+/**
+ * Tính DurablePosition sau mỗi lần flush của FlushScheduler.
+ *
+ * Sequence: flush chạy trong lúc business logic dừng ở barrier
+ * (EngineDisruptorService.runPaused), sau khi OutputProcessor đã gom batch
+ * mọi event tới sequence cuối. Dữ liệu ghi xuống chứa đúng các event có
+ * sequence &lt;= sequence đó và không chứa event nào sau nó, nên replay từ
+ * sau vị trí bền không áp dụng event nào hai lần.
+ *
+ * Offset Kafka: consumer publish record vào Disruptor rồi mới ghi nhận offset,
+ * nên khi đọc offset trước rồi đọc cursor của ring buffer, mọi record trước các
+ * offset đó có sequence &lt;= cursor. Cặp (offset, cursor) lấy ở lần flush trước
+ * chỉ được coi là bền khi sequence đã xử lý vượt cursor, tức offset đi sau
+ * sequence tối đa một lần flush.
+ *
+ * Journal: sequence của input journal ứng với sequence đã xử lý được lưu kèm,
+ * để lần khởi động sau đọc lại journal từ sau vị trí đó.
+ *
+ * Chỉ thread của FlushScheduler gọi flush (trong lock flush).
+ */
+public class DurabilityTracker {
+  /**
+   * Dừng business logic để flush đúng một sequence
+   */
+  @FunctionalInterface
+  public interface Barrier {
+    /**
+     * Chạy action khi cache khớp đúng sequence truyền cho action
+     *
+     * @param action Nhận sequence Disruptor của event cuối đã xử lý
+     */
+    void runPaused(LongConsumer action);
+  }
+
+  private final LongSupplier publishedSequence;
+  private final Barrier barrier;
+  private final Supplier<Map<String, Long>> consumedOffsets;
+  private final LongUnaryOperator journalSequence;
+  private final Consumer<DurablePosition> sink;
+
+  private volatile DurablePosition durablePosition;
+
+  // Cặp offset/cursor chờ được xác nhận ở lần flush sau
+  private Map<String, Long> pendingOffsets;
+  private long pendingCursor;
+
+  // Vị trí sẽ bền nếu lần flush đang chạy thành công
+  private long candidateSequence;
+  private long candidateJournalSequence;
+  private Map<String, Long> candidateOffsets;
+
+  /**
+   * Tracker không dùng input journal
+   */
+  public DurabilityTracker(LongSupplier publishedSequence, Barrier barrier,
+      Supplier<Map<String, Long>> consumedOffsets, Consumer<DurablePosition> sink, DurablePosition initial) {
+    this(publishedSequence, barrier, consumedOffsets, null, sink, initial);
+  }
+
+  /**
+   * @param publishedSequence Cursor của ring buffer
+   * @param barrier           Dừng business logic trong lúc flush
+   * @param consumedOffsets   Offset tiếp theo của từng topic-partition đã đưa
+   *                          vào Disruptor
+   * @param journalSequence   Chuyển sequence Disruptor thành sequence của input
+   *                          journal, null nếu không dùng journal
+   * @param sink              Nơi lưu vị trí sau mỗi lần flush thành công
+   * @param initial           Vị trí đã lưu từ lần chạy trước
+   */
+  public DurabilityTracker(LongSupplier publishedSequence, Barrier barrier,
+      Supplier<Map<String, Long>> consumedOffsets, LongUnaryOperator journalSequence,
+      Consumer<DurablePosition> sink, DurablePosition initial) {
+    this.publishedSequence = publishedSequence;
+    this.barrier = barrier;
+    this.consumedOffsets = consumedOffsets;
+    this.journalSequence = journalSequence;
+    this.sink = sink;
+    // Sequence thuộc về process trước nên không dùng lại, offset và sequence
+    // journal vẫn còn giá trị
+    this.durablePosition = new DurablePosition(-1, initial.getKafkaOffsets(), initial.getFlushedAt(),
+        initial.getJournalSequence());
+  }
+
+  /**
+   * Chạy flush trong lúc business logic dừng ở barrier, rồi lưu vị trí bền.
+   * Flush lỗi thì vị trí giữ nguyên.
+   *
+   * @param flush StorageService.flushToDisk()
+   * @param now   Thời điểm flush (millis)
+   */
+  void flush(Runnable flush, long now) {
+    barrier.runPaused(sequence -> {
+      beforeFlush(sequence);
+      flush.run();
+      afterFlush(now);
+    });
+  }
+
+  /**
+   * Gọi ngay trước StorageService.flushToDisk()
+   *
+   * @param sequence Sequence mà dữ liệu sắp flush khớp đúng
+   */
+  void beforeFlush(long sequence) {
+    candidateSequence = sequence;
+    // Chưa xử lý event nào trong process này (kể cả trước khi replay) thì vị
+    // trí journal chưa đổi
+    candidateJournalSequence = journalSequence == null || candidateSequence < 0
+        ? durablePosition.getJournalSequence()
+        : journalSequence.applyAsLong(candidateSequence);
+    candidateOffsets = new TreeMap<>(durablePosition.getKafkaOffsets());
+
+    if (pendingOffsets == null || candidateSequence >= pendingCursor) {
+      if (pendingOffsets != null) {
+        candidateOffsets.putAll(pendingOffsets);
+      }
+      // Đọc offset trước cursor
+      pendingOffsets = consumedOffsets.get();
+      pendingCursor = publishedSequence.getAsLong();
+    }
+  }
+
+  /**
+   * Gọi sau khi flush thành công: cập nhật và lưu vị trí bền
+   *
+   * @param now Thời điểm flush (millis)
+   * @return Vị trí mới
+   */
+  DurablePosition afterFlush(long now) {
+    if (candidateOffsets == null) {
+      return durablePosition;
+    }
+    DurablePosition position = new DurablePosition(candidateSequence, candidateOffsets, now,
+        candidateJournalSequence);
+    candidateOffsets = null;
+    sink.accept(position);
+    durablePosition = position;
+    return position;
+  }
+
+  /**
+   * Vị trí bền của lần flush thành công gần nhất
+   */
+  public DurablePosition getDurablePosition() {
+    return durablePosition;
+  }
+}
@@ -0,0 +1,366 @@
+package com.exchangeengine.storage;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.DurablePosition;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.util.DaemonThreadFactory;
+import com.exchangeengine.util.EnvManager;
+
+/**
+ * Thành phần duy nhất được gọi StorageService.flushToDisk().
+ *
+ * Một thread nền kiểm tra định kỳ số bản ghi đang chờ lưu của các cache và
+ * flush khi một trong các ngưỡng bị vượt:
+ * - SIZE: số bản ghi chờ lưu >= maxDirtyEntries
+ * - BYTES: kích thước ước tính >= maxDirtyBytes (số bản ghi x số byte trung
+ * bình mỗi bản ghi, học từ các lần flush trước)
+ * - AGE: bản ghi cũ nhất đã chờ >= maxDirtyAgeMs
+ *
+ * Tải thấp: chỉ ngưỡng AGE được chạm nên mỗi maxDirtyAgeMs flush một lần thay
+ * vì sau mỗi event, và khi không có gì để lưu thread giãn chu kỳ kiểm tra.
+ * Tải cao: hai lần flush cách nhau ít nhất minFlushIntervalMs nên các event
+ * đến trong lúc đó được gộp vào cùng một batch.
+ *
+ * Khi có DurabilityTracker, business logic dừng giữa hai event trong lúc flush
+ * để dữ liệu ghi xuống khớp đúng một sequence, và sau mỗi lần flush thành công
+ * tracker lưu vị trí Disruptor/Kafka đã bền. callBetweenFlushes() cho backup
+ * chạy giữa hai lần flush để dữ liệu khớp với vị trí đó; thread business logic
+ * không bị chặn trong lúc backup vì chỉ ghi vào cache.
+ */
+public class FlushScheduler {
+  private static final Logger logger = LoggerFactory.getLogger(FlushScheduler.class);
+
+  // Singleton instance
+  private static volatile FlushScheduler instance;
+
+  public static final int DEFAULT_MAX_DIRTY_ENTRIES = 10000;
+  public static final int DEFAULT_MAX_DIRTY_AGE_MS = 200;
+  public static final int DEFAULT_MAX_DIRTY_BYTES = 16 * 1024 * 1024; // 16MB
+  public static final int DEFAULT_MIN_FLUSH_INTERVAL_MS = 10;
+
+  static final long ACTIVE_POLL_MS = 5;
+  static final long IDLE_POLL_MAX_MS = 100;
+  static final double INITIAL_BYTES_PER_ENTRY = 512;
+
+  /**
+   * Lý do của một lần flush
+   */
+  public enum Reason {
+    SIZE, BYTES, AGE, SHUTDOWN
+  }
+
+  private final StorageService storageService;
+  private final LongSupplier bytesWritten;
+  private final long maxDirtyEntries;
+  private final long maxDirtyAgeMs;
+  private final long maxDirtyBytes;
+  private final long minFlushIntervalMs;
+
+  private Thread thread;
+  private volatile boolean running;
+
+  // Chỉ thread của scheduler đọc/ghi (hoặc shutdown sau khi thread đã dừng)
+  private long dirtySince;
+  private long lastFlushAt;
+  private long idlePollMs = ACTIVE_POLL_MS;
+
+  private volatile double bytesPerEntry = INITIAL_BYTES_PER_ENTRY;
+  private volatile Reason lastFlushReason;
+  private volatile int lastFlushEntries;
+  private volatile long lastFlushBytes;
+  private volatile long lastFlushDurationMillis;
+  private final Map<Reason, AtomicLong> flushCounts = new EnumMap<>(Reason.class);
+  private final AtomicLong flushErrors = new AtomicLong();
+  // Lần flush gần nhất lỗi: RocksDB có thể chứa một phần dữ liệu mới hơn vị trí bền
+  private volatile boolean lastFlushFailed;
+  private volatile DurabilityTracker durabilityTracker;
+
+  /**
+   * Lấy instance của FlushScheduler với ngưỡng từ biến môi trường.
+   *
+   * @return Instance của FlushScheduler
+   */
+  public static synchronized FlushScheduler getInstance() {
+    if (instance == null) {
+      EnvManager env = EnvManager.getInstance();
+      instance = new FlushScheduler(StorageService.getInstance(),
+          () -> RocksDBService.getInstance().getBytesWritten(),
+          env.getInt("STORAGE_FLUSH_MAX_DIRTY_ENTRIES", DEFAULT_MAX_DIRTY_ENTRIES),
+          env.getInt("STORAGE_FLUSH_MAX_DIRTY_AGE_MS", DEFAULT_MAX_DIRTY_AGE_MS),
+          env.getInt("STORAGE_FLUSH_MAX_DIRTY_BYTES", DEFAULT_MAX_DIRTY_BYTES),
+          env.getInt("STORAGE_FLUSH_MIN_INTERVAL_MS", DEFAULT_MIN_FLUSH_INTERVAL_MS));
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(FlushScheduler testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * @param storageService     Service chứa các cache cần flush
+   * @param bytesWritten       Tổng số byte đã ghi xuống RocksDB
+   * @param maxDirtyEntries    Ngưỡng số bản ghi chờ lưu
+   * @param maxDirtyAgeMs      Thời gian chờ tối đa của bản ghi cũ nhất
+   * @param maxDirtyBytes      Ngưỡng kích thước ước tính của batch
+   * @param minFlushIntervalMs Khoảng cách tối thiểu giữa hai lần flush
+   */
+  FlushScheduler(StorageService storageService, LongSupplier bytesWritten, long maxDirtyEntries,
+      long maxDirtyAgeMs, long maxDirtyBytes, long minFlushIntervalMs) {
+    this.storageService = storageService;
+    this.bytesWritten = bytesWritten;
+    this.maxDirtyEntries = maxDirtyEntries;
+    this.maxDirtyAgeMs = maxDirtyAgeMs;
+    this.maxDirtyBytes = maxDirtyBytes;
+    this.minFlushIntervalMs = minFlushIntervalMs;
+    for (Reason reason : Reason.values()) {
+      flushCounts.put(reason, new AtomicLong());
+    }
+  }
+
+  /**
+   * Chạy thread kiểm tra định kỳ
+   */
+  public synchronized void start() {
+    if (thread != null) {
+      return;
+    }
+
+    running = true;
+    thread = new DaemonThreadFactory("storage", "flush-scheduler").newThread(this::run);
+    thread.start();
+    logger.info("FlushScheduler started: maxDirtyEntries={}, maxDirtyAgeMs={}, maxDirtyBytes={}, minFlushIntervalMs={}",
+        maxDirtyEntries, maxDirtyAgeMs, maxDirtyBytes, minFlushIntervalMs);
+  }
+
+  /**
+   * Dừng thread kiểm tra rồi flush toàn bộ dữ liệu còn lại
+   */
+  public synchronized void shutdown() {
+    if (thread != null) {
+      running = false;
+      LockSupport.unpark(thread);
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+
+    flush(Reason.SHUTDOWN, storageService.pendingFlushCount(), System.currentTimeMillis());
+    logger.info("FlushScheduler shut down, final metrics: {}", getMetrics());
+  }
+
+  private void run() {
+    while (running) {
+      long delayMs;
+      try {
+        delayMs = tick(System.currentTimeMillis());
+      } catch (Exception e) {
+        logger.error("Error checking flush conditions: {}", e.getMessage(), e);
+        delayMs = ACTIVE_POLL_MS;
+      }
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+    }
+  }
+
+  /**
+   * Một lần kiểm tra: flush nếu có ngưỡng bị vượt.
+   *
+   * @param now Thời điểm hiện tại (millis)
+   * @return Thời gian chờ tới lần kiểm tra sau (ms)
+   */
+  long tick(long now) {
+    int pending = storageService.pendingFlushCount();
+    if (pending == 0) {
+      // Không có gì để lưu: giãn dần chu kỳ kiểm tra
+      dirtySince = 0;
+      idlePollMs = Math.min(idlePollMs * 2, IDLE_POLL_MAX_MS);
+      return idlePollMs;
+    }
+
+    idlePollMs = ACTIVE_POLL_MS;
+    if (dirtySince == 0) {
+      dirtySince = now;
+    }
+
+    Reason reason = decide(pending, now);
+    if (reason != null) {
+      flush(reason, pending, now);
+    }
+    return ACTIVE_POLL_MS;
+  }
+
+  /**
+   * Chọn lý do flush theo thứ tự SIZE, BYTES, AGE
+   *
+   * @return Lý do flush, null nếu chưa cần flush
+   */
+  Reason decide(int pending, long now) {
+    if (now - lastFlushAt < minFlushIntervalMs) {
+      return null;
+    }
+    if (pending >= maxDirtyEntries) {
+      return Reason.SIZE;
+    }
+    if (estimatedBytes(pending) >= maxDirtyBytes) {
+      return Reason.BYTES;
+    }
+    if (now - dirtySince >= maxDirtyAgeMs) {
+      return Reason.AGE;
+    }
+    return null;
+  }
+
+  private synchronized void flush(Reason reason, int pending, long now) {
+    long bytesBefore = bytesWritten.getAsLong();
+    long startedAt = System.nanoTime();
+    DurabilityTracker tracker = durabilityTracker;
+    try {
+      if (tracker != null) {
+        tracker.flush(storageService::flushToDisk, now);
+      } else {
+        storageService.flushToDisk();
+      }
+    } catch (Exception e) {
+      flushErrors.incrementAndGet();
+      lastFlushFailed = true;
+      logger.error("Error flushing to disk ({}): {}", reason, e.getMessage(), e);
+      return;
+    } finally {
+      dirtySince = 0;
+      lastFlushAt = now;
+    }
+
+    lastFlushFailed = false;
+    long bytes = bytesWritten.getAsLong() - bytesBefore;
+    if (pending > 0 && bytes > 0) {
+      // Trung bình trượt để ước tính không nhảy theo một batch bất thường
+      bytesPerEntry = bytesPerEntry * 0.8 + ((double) bytes / pending) * 0.2;
+    }
+
+    lastFlushReason = reason;
+    lastFlushEntries = pending;
+    lastFlushBytes = bytes;
+    lastFlushDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    flushCounts.get(reason).incrementAndGet();
+    logger.debug("Flushed {} entries ({} bytes) in {} ms, reason={}", pending, bytes, lastFlushDurationMillis,
+        reason);
+  }
+
+  /**
+   * Chạy action khi không có lần flush nào đang ghi dở (giữ lock flush).
+   * Action phải ngắn vì cache tích lũy bản ghi trong thời gian đó.
+   *
+   * @param action Action cần chạy
+   * @return Kết quả của action
+   * @throws Exception Lỗi của action
+   */
+  public synchronized <T> T callBetweenFlushes(Callable<T> action) throws Exception {
+    return action.call();
+  }
+
+  /**
+   * Gắn DurabilityTracker, gọi khi Disruptor và Kafka consumer đã khởi tạo
+   *
+   * @param tracker Tracker tính vị trí bền sau mỗi lần flush
+   */
+  public void setDurabilityTracker(DurabilityTracker tracker) {
+    this.durabilityTracker = tracker;
+  }
+
+  /**
+   * Vị trí bền của lần flush thành công gần nhất, null nếu chưa gắn tracker
+   */
+  public DurablePosition getDurablePosition() {
+    DurabilityTracker tracker = durabilityTracker;
+    return tracker == null ? null : tracker.getDurablePosition();
+  }
+
+  /**
+   * Kích thước ước tính (byte) của các bản ghi đang chờ lưu
+   */
+  long estimatedBytes(int pending) {
+    return (long) (pending * bytesPerEntry);
+  }
+
+  public long getFlushCount(Reason reason) {
+    return flushCounts.get(reason).get();
+  }
+
+  public long getFlushErrors() {
+    return flushErrors.get();
+  }
+
+  /**
+   * Lần flush gần nhất lỗi, dữ liệu trong RocksDB có thể không khớp vị trí bền
+   * cho tới lần flush thành công sau
+   */
+  public boolean isLastFlushFailed() {
+    return lastFlushFailed;
+  }
+
+  public Reason getLastFlushReason() {
+    return lastFlushReason;
+  }
+
+  public int getLastFlushEntries() {
+    return lastFlushEntries;
+  }
+
+  public long getLastFlushBytes() {
+    return lastFlushBytes;
+  }
+
+  public long getLastFlushDurationMillis() {
+    return lastFlushDurationMillis;
+  }
+
+  public double getBytesPerEntry() {
+    return bytesPerEntry;
+  }
+
+  /**
+   * Các chỉ số của scheduler, dùng cho log và monitoring
+   *
+   * @return Map tên chỉ số -> giá trị
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    for (Reason reason : Reason.values()) {
+      metrics.put("flushes." + reason.name().toLowerCase(), getFlushCount(reason));
+    }
+    metrics.put("flushErrors", getFlushErrors());
+    metrics.put("lastFlushFailed", lastFlushFailed);
+    metrics.put("lastFlushReason", lastFlushReason);
+    metrics.put("lastFlushEntries", lastFlushEntries);
+    metrics.put("lastFlushBytes", lastFlushBytes);
+    metrics.put("lastFlushDurationMillis", lastFlushDurationMillis);
+    metrics.put("bytesPerEntry", (long) bytesPerEntry);
+    return metrics;
+  }
+}
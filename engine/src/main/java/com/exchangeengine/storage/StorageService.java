@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.exchangeengine.storage.cache.*;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
 
 /**
  * Service quản lý lưu trữ dữ liệu và tương tác giữa các lớp cache.
@@ -28,6 +29,7 @@ public class StorageService {
   private final OfferCache offerCache;
   private final TradeCache tradeCache;
   private final BalanceLockCache balanceLockCache;
+  private final SymbolTable symbolTable;
 
   /**
    * Lấy instance của StorageService.
@@ -36,8 +38,13 @@ public class StorageService {
    */
   public static synchronized StorageService getInstance() {
     if (instance == null) {
-      instance = new StorageService();
-      instance.initializeCache();
+      StorageService created = new StorageService();
+      // Query replica đọc thẳng RocksDB secondary, không nạp cache của engine
+      if (!RocksDBConfig.isQueryReplicaMode()) {
+        created.initializeCache();
+      }
+      // Chỉ giữ instance khi nạp cache thành công, lỗi khởi tạo làm dừng khởi động
+      instance = created;
     }
     return instance;
   }
@@ -77,6 +84,7 @@ public class StorageService {
     this.offerCache = OfferCache.getInstance();
     this.tradeCache = TradeCache.getInstance();
     this.balanceLockCache = BalanceLockCache.getInstance();
+    this.symbolTable = SymbolTable.getInstance();
   }
 
   /**
@@ -85,7 +93,10 @@ public class StorageService {
    */
   public void initializeCache() {
     logger.info("Đang khởi tạo cache từ RocksDB...");
+    // Tải id đã cấp trước để các cache khác không cấp lại id cho symbol cũ
+    getSymbolTable().initializeSymbolTable();
     getAccountCache().initializeAccountCache();
+    getAccountHistoryCache().initializeAccountHistoryCache();
     getDepositCache().initializeDepositCache();
     getWithdrawalCache().initializeWithdrawalCache();
     getAmmPoolCache().initializeAmmPoolCache();
@@ -156,24 +167,35 @@ public class StorageService {
     return balanceLockCache;
   }
 
-  public boolean shouldFlush() {
-    return getAccountCache().accountCacheShouldFlush() ||
-        getDepositCache().depositCacheShouldFlush() ||
-        getWithdrawalCache().withdrawalCacheShouldFlush() ||
-        getAccountHistoryCache().historiesCacheShouldFlush() ||
-        getAmmPoolCache().ammPoolCacheShouldFlush() ||
-        getTickCache().tickCacheShouldFlush() ||
-        getTickBitmapCache().tickBitmapCacheShouldFlush() ||
-        getAmmPositionCache().ammPositionCacheShouldFlush() ||
-        getMerchantEscrowCache().merchantEscrowCacheShouldFlush() ||
-        getOfferCache().offerCacheShouldFlush() ||
-        getTradeCache().tradeCacheShouldFlush();
+  public SymbolTable getSymbolTable() {
+    return symbolTable;
   }
 
   /**
-   * Lưu dữ liệu vào RocksDB.
+   * Tổng số bản ghi đang chờ lưu của tất cả cache, dùng cho FlushScheduler
+   */
+  public int pendingFlushCount() {
+    return getSymbolTable().pendingFlushCount() +
+        getAccountCache().pendingFlushCount() +
+        getDepositCache().pendingFlushCount() +
+        getWithdrawalCache().pendingFlushCount() +
+        getAccountHistoryCache().pendingFlushCount() +
+        getAmmPoolCache().pendingFlushCount() +
+        getTickCache().pendingFlushCount() +
+        getTickBitmapCache().pendingFlushCount() +
+        getAmmPositionCache().pendingFlushCount() +
+        getMerchantEscrowCache().pendingFlushCount() +
+        getOfferCache().pendingFlushCount() +
+        getTradeCache().pendingFlushCount() +
+        getAmmOrderCache().pendingFlushCount() +
+        getBalanceLockCache().pendingFlushCount();
+  }
+
+  /**
+   * Lưu dữ liệu vào RocksDB. Chỉ FlushScheduler được gọi hàm này.
    */
   public void flushToDisk() {
+    getSymbolTable().flushSymbolsToDisk();
     getAccountCache().flushAccountToDisk();
     getDepositCache().flushDepositToDisk();
     getWithdrawalCache().flushWithdrawalToDisk();
@@ -185,15 +207,7 @@ public class StorageService {
     getMerchantEscrowCache().flushMerchantEscrowToDisk();
     getOfferCache().flushOfferToDisk();
     getTradeCache().flushTradeToDisk();
+    getAmmOrderCache().flushAmmOrderToDisk();
     getBalanceLockCache().saveBalanceLockBatch();
   }
-
-  /**
-   * Đóng service và lưu tất cả dữ liệu còn lại.
-   */
-  public void shutdown() {
-    logger.info("Đang đóng StorageService, lưu dữ liệu còn lại...");
-    flushToDisk();
-    logger.info("Đã đóng thành công");
-  }
 }
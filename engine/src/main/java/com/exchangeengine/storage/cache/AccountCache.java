@@ -1,9 +1,10 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -16,18 +17,31 @@ import com.exchangeengine.storage.rocksdb.AccountRocksDB;
 /**
  * Cache service cho Account
  * Sử dụng Singleton pattern để đảm bảo chỉ có một instance duy nhất
+ *
+ * Số dư được lưu off-heap trong OffHeapAccountStore, đánh index theo account id
+ * của SymbolTable; key chuỗi chỉ được đổi sang id một lần ở đầu mỗi lần tra cứu.
+ * getAccount trả về một Account đọc từ record, processor sửa Account đó rồi ghi
+ * lại qua updateAccount (hoặc addAccountToBatch).
+ *
+ * Trong một event (giữa beginEvent và endEvent trên disruptor thread), mỗi
+ * account chỉ được dựng từ record một lần: các lần getAccount sau trả về cùng
+ * object, nên hai chỗ sửa cùng account trong một event không đè lên nhau.
+ * Thread khác luôn nhận Account mới đọc từ record.
  */
 public class AccountCache {
   private static final Logger logger = LoggerFactory.getLogger(AccountCache.class);
 
   private static volatile AccountCache instance;
   private final AccountRocksDB accountRocksDB = AccountRocksDB.getInstance();
+  private final SymbolTable symbolTable = SymbolTable.getInstance();
 
-  private final ConcurrentHashMap<String, Account> accountCache = new ConcurrentHashMap<>();
-  private final ConcurrentHashMap<String, Account> latestAccounts = new ConcurrentHashMap<>();
+  // Số dư theo account id, kèm dirty bitmap cho flush
+  private final OffHeapAccountStore accountStore = new OffHeapAccountStore();
   private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
 
-  private static final int BACKUP_BATCH_SIZE = 10000;
+  // Account đã dựng trong event đang xử lý, chỉ eventThread được đọc/ghi
+  private final Map<Integer, Account> eventAccounts = new HashMap<>();
+  private volatile Thread eventThread;
 
   /**
    * Lấy instance của AccountCache.
@@ -79,10 +93,66 @@ public class AccountCache {
    * @return Account hoặc null nếu không tồn tại
    */
   public Optional<Account> getAccount(String accountKey) {
-    Account account = accountCache.get(accountKey);
+    return getAccount(symbolTable.getId(SymbolTable.Kind.ACCOUNT, accountKey));
+  }
+
+  /**
+   * Lấy Account theo account id của SymbolTable.
+   *
+   * @param accountId Id của account
+   * @return Account hoặc Optional.empty() nếu không tồn tại
+   */
+  public Optional<Account> getAccount(int accountId) {
+    if (accountId < 0) {
+      return Optional.empty();
+    }
+    if (!inEvent()) {
+      return Optional.ofNullable(readAccount(accountId));
+    }
+
+    Account account = eventAccounts.get(accountId);
+    if (account == null) {
+      account = readAccount(accountId);
+      if (account != null) {
+        eventAccounts.put(accountId, account);
+      }
+    }
     return Optional.ofNullable(account);
   }
 
+  /**
+   * Bắt đầu event trên thread hiện tại (disruptor thread): getAccount trả về
+   * cùng một Account cho mỗi account cho tới endEvent.
+   */
+  public void beginEvent() {
+    eventAccounts.clear();
+    eventThread = Thread.currentThread();
+  }
+
+  /**
+   * Kết thúc event, bỏ các Account đã dựng để event sau đọc lại từ record
+   */
+  public void endEvent() {
+    if (inEvent()) {
+      eventThread = null;
+      eventAccounts.clear();
+    }
+  }
+
+  private boolean inEvent() {
+    return eventThread == Thread.currentThread();
+  }
+
+  private Account readAccount(int accountId) {
+    return accountStore.read(accountId, symbolTable.getName(SymbolTable.Kind.ACCOUNT, accountId));
+  }
+
+  private void rememberInEvent(int accountId, Account account) {
+    if (inEvent()) {
+      eventAccounts.put(accountId, account);
+    }
+  }
+
   /**
    * Lấy Account từ cache, tạo mới nếu không tồn tại.
    *
@@ -90,7 +160,8 @@ public class AccountCache {
    * @return Account
    */
   public Account getOrInitAccount(String accountKey) {
-    return getAccount(accountKey).orElseGet(() -> new Account(accountKey));
+    return getAccount(accountKey)
+        .orElseGet(() -> new Account(symbolTable.intern(SymbolTable.Kind.ACCOUNT, accountKey)));
   }
 
   /**
@@ -100,7 +171,28 @@ public class AccountCache {
    * @return Account
    */
   public Account getOrCreateAccount(String accountKey) {
-    return accountCache.computeIfAbsent(accountKey, key -> new Account(key));
+    Optional<Account> existing = getAccount(accountKey);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+
+    synchronized (this) {
+      int accountId = symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, accountKey);
+      Account account = getAccount(accountId).orElse(null);
+      if (account == null) {
+        account = new Account(symbolTable.getName(SymbolTable.Kind.ACCOUNT, accountId));
+        accountStore.write(accountId, account);
+        rememberInEvent(accountId, account);
+      }
+      return account;
+    }
+  }
+
+  private int putAccount(Account account) {
+    int accountId = symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, account.getKey());
+    accountStore.write(accountId, account);
+    rememberInEvent(accountId, account);
+    return accountId;
   }
 
   /**
@@ -113,8 +205,7 @@ public class AccountCache {
       logger.warn("Cannot update null account or account with null key");
       return;
     }
-    accountCache.put(account.getKey(), account);
-    addAccountToBatch(account);
+    accountStore.markDirty(putAccount(account));
   }
 
   /**
@@ -133,11 +224,10 @@ public class AccountCache {
       return;
     }
 
-    Account newAccount = new Account(accountKey);
-    accountCache.put(newAccount.getKey(), newAccount);
-    
-    // Also update in batch to persist to disk
-    addAccountToBatch(newAccount);
+    Account newAccount = new Account(currentAccount.get().getKey());
+
+    // Also mark dirty to persist to disk
+    accountStore.markDirty(putAccount(newAccount));
   }
 
   /**
@@ -155,11 +245,9 @@ public class AccountCache {
           continue;
         }
         
-        String accountKey = dbAccount.getKey();
-        Account cacheAccount = accountCache.get(accountKey);
+        int accountId = symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, dbAccount.getKey());
 
-        if (cacheAccount == null || dbAccount.getUpdatedAt() > cacheAccount.getUpdatedAt()) {
-          accountCache.put(accountKey, dbAccount);
+        if (accountStore.writeIfNewer(accountId, dbAccount)) {
           loadedCount++;
         } else {
           skippedCount++;
@@ -174,16 +262,16 @@ public class AccountCache {
   }
 
   /**
-   * Kiểm tra xem có cần lưu dữ liệu vào RocksDB không.
-   *
-   * @return true nếu cần lưu
+   * Số bản ghi đang chờ lưu xuống RocksDB
    */
-  public boolean accountCacheShouldFlush() {
-    return latestAccounts.size() >= BACKUP_BATCH_SIZE;
+  public int pendingFlushCount() {
+    return accountStore.dirtyCount();
   }
 
   /**
-   * Thêm Account vào batch để lưu vào database.
+   * Thêm Account vào batch để lưu vào database. Account chỉ ghi đè record
+   * trong cache nếu được dựng từ version record hiện tại, để bản cũ gửi muộn
+   * từ OutputProcessor không đè lên số dư mới dù updatedAt trùng millisecond.
    *
    * @param account Account cần lưu
    */
@@ -191,35 +279,45 @@ public class AccountCache {
     if (account == null || account.getKey() == null) {
       return;
     }
-    
-    String accountKey = account.getKey();
-    latestAccounts.compute(accountKey, (key, existingAccount) -> {
-      if (existingAccount == null || account.getUpdatedAt() > existingAccount.getUpdatedAt()) {
-        return account;
-      }
-      return existingAccount;
-    });
+
+    int accountId = symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, account.getKey());
+    accountStore.writeIfNewer(accountId, account);
+    accountStore.markDirty(accountId);
+  }
+
+  /**
+   * Số account đang có trong cache
+   */
+  public int size() {
+    return accountStore.size();
   }
 
   /**
-   * Lưu Account vào RocksDB.
+   * Lưu Account vào RocksDB. Nếu ghi thất bại, các account id được đánh dấu
+   * dirty lại để lần flush sau lưu tiếp, và ngoại lệ được ném lại cho caller.
    */
   public void flushAccountToDisk() {
-    if (latestAccounts.isEmpty()) {
+    if (accountStore.dirtyCount() == 0) {
       return;
     }
 
     flushLock.writeLock().lock();
+    List<Integer> drainedIds = new ArrayList<>();
     try {
-      Map<String, Account> batchToSave = new ConcurrentHashMap<>(latestAccounts);
-      latestAccounts.clear();
-      
+      Map<String, Account> batchToSave = new HashMap<>();
+      accountStore.drainDirty(accountId -> {
+        drainedIds.add(accountId);
+        getAccount(accountId).ifPresent(account -> batchToSave.put(account.getKey(), account));
+      });
+
       if (!batchToSave.isEmpty()) {
         accountRocksDB.saveAccountBatch(batchToSave);
         logger.debug("Đã lưu {} accounts thành công", batchToSave.size());
       }
-    } catch (Exception e) {
-      logger.error("Error flushing accounts to disk: {}", e.getMessage(), e);
+    } catch (RuntimeException e) {
+      drainedIds.forEach(accountStore::markDirty);
+      logger.error("Error flushing accounts to disk, requeued {} accounts: {}", drainedIds.size(), e.getMessage());
+      throw e;
     } finally {
       flushLock.writeLock().unlock();
     }
@@ -1,9 +1,7 @@
 package com.exchangeengine.storage.cache;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,9 +19,7 @@ public class AccountHistoryCache {
   private static volatile AccountHistoryCache instance;
   private final AccountHistoryRocksDB accountHistoryRocksDB = AccountHistoryRocksDB.getInstance();
 
-  private final Map<String, AccountHistory> latestHistories = new ConcurrentHashMap<>();
-
-  private static final int BACKUP_BATCH_SIZE = 10000;
+  private final WriteBehindBuffer<AccountHistory> latestHistories = new WriteBehindBuffer<>("AccountHistory");
 
   /**
    * Lấy instance của AccountHistoryCache.
@@ -52,6 +48,18 @@ public class AccountHistoryCache {
   private AccountHistoryCache() {
   }
 
+  /**
+   * Chuẩn bị dữ liệu history khi khởi động: chuyển các history còn lưu với key
+   * chuỗi cũ sang key nhị phân (chỉ có việc ở lần khởi động đầu sau nâng cấp).
+   */
+  public void initializeAccountHistoryCache() {
+    try {
+      accountHistoryRocksDB.migrateLegacyKeys();
+    } catch (Exception e) {
+      logger.error("Không thể chuyển key account history cũ: {}", e.getMessage(), e);
+    }
+  }
+
   /**
    * Lấy AccountHistory từ cache
    */
@@ -63,7 +71,7 @@ public class AccountHistoryCache {
    * Cập nhật AccountHistory trong cache
    */
   public void updateAccountHistory(AccountHistory history) {
-    accountHistoryRocksDB.saveAccountHistory(history);
+    addHistoryToBatch(history);
   }
 
   /**
@@ -73,6 +81,16 @@ public class AccountHistoryCache {
     return accountHistoryRocksDB.getAccountHistoriesByAccountKey(accountKey, limit, lastKey);
   }
 
+  /**
+   * Lấy lịch sử giao dịch của account trong khoảng [fromTime, toTime).
+   * Chỉ đọc các history đã flush xuống RocksDB.
+   */
+  public List<AccountHistory> getAccountTransactionHistory(String accountKey, long fromTime, long toTime,
+      String cursor, int limit, boolean newestFirst) {
+    return accountHistoryRocksDB.getAccountHistoriesByTimeRange(accountKey, fromTime, toTime, cursor, limit,
+        newestFirst);
+  }
+
   /**
    * Thêm AccountHistory vào batch để lưu vào RocksDB
    */
@@ -81,20 +99,17 @@ public class AccountHistoryCache {
   }
 
   /**
-   * Kiểm tra xem có cần lưu dữ liệu vào RocksDB không.
-   *
-   * @return true nếu cần lưu
+   * Số bản ghi đang chờ lưu xuống RocksDB
    */
-  public boolean historiesCacheShouldFlush() {
-    return latestHistories.size() >= BACKUP_BATCH_SIZE;
+  public int pendingFlushCount() {
+    return latestHistories.size();
   }
 
   public void flushHistoryToDisk() {
     if (latestHistories.isEmpty()) {
       return;
     }
-    accountHistoryRocksDB.saveAccountHistoryBatch(latestHistories);
-    latestHistories.clear();
+    latestHistories.flush(accountHistoryRocksDB::saveAccountHistoryBatch);
     logger.debug("Đã lưu account histories thành công");
   }
 }
@@ -20,6 +20,8 @@ public class AmmOrderCache {
   private final AmmOrderRocksDB ammOrderRocksDB = AmmOrderRocksDB.getInstance();
 
   private final ConcurrentHashMap<String, Boolean> ammOrderCache = new ConcurrentHashMap<>();
+  private final WriteBehindBuffer<AmmOrder> latestAmmOrders = new WriteBehindBuffer<>("AmmOrder",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
   /**
    * Lấy instance của AmmOrderCache.
@@ -98,7 +100,7 @@ public class AmmOrderCache {
   }
 
   /**
-   * Thêm AmmOrder vào RocksDB trực tiếp.
+   * Thêm AmmOrder vào batch, FlushScheduler quyết định khi nào lưu xuống RocksDB
    *
    * @param ammOrder AmmOrder cần lưu
    */
@@ -106,6 +108,25 @@ public class AmmOrderCache {
     if (ammOrder.getIdentifier() == null) {
       return;
     }
-    ammOrderRocksDB.saveAmmOrder(ammOrder);
+    latestAmmOrders.put(ammOrder.getIdentifier(), ammOrder);
+  }
+
+  /**
+   * Số bản ghi đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    return latestAmmOrders.size();
+  }
+
+  /**
+   * Lưu AmmOrder vào RocksDB.
+   */
+  public void flushAmmOrderToDisk() {
+    if (latestAmmOrders.isEmpty()) {
+      return;
+    }
+
+    latestAmmOrders.flush(ammOrderRocksDB::saveAmmOrderBatch);
+    logger.debug("Đã lưu AmmOrder thành công");
   }
 }
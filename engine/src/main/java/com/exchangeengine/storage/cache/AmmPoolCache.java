@@ -1,10 +1,10 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,13 +21,11 @@ public class AmmPoolCache {
 
   private static volatile AmmPoolCache instance;
   private final AmmPoolRocksDB ammPoolRocksDB = AmmPoolRocksDB.getInstance();
+  private final SymbolTable symbolTable = SymbolTable.getInstance();
 
   private final ConcurrentHashMap<String, AmmPool> ammPoolCache = new ConcurrentHashMap<>();
-  private final Map<String, AmmPool> latestAmmPools = new ConcurrentHashMap<>();
-
-  // Biến đếm số lần cập nhật (atomic để đảm bảo thread-safe)
-  private final AtomicInteger updateCounter = new AtomicInteger(0);
-  private static final int UPDATE_THRESHOLD = 100;
+  private final WriteBehindBuffer<AmmPool> latestAmmPools = new WriteBehindBuffer<>("AmmPool",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
   /**
    * Lấy instance của AmmPoolCache.
@@ -76,6 +74,15 @@ public class AmmPoolCache {
     return Optional.ofNullable(pool);
   }
 
+  /**
+   * Lấy danh sách pair của các pool trong cache (view chỉ đọc)
+   *
+   * @return Set các pool pair
+   */
+  public Set<String> getAmmPoolPairs() {
+    return Collections.unmodifiableSet(ammPoolCache.keySet());
+  }
+
   /**
    * Lấy AmmPool từ cache, tạo mới nếu không tồn tại (không lưu vào cache).
    *
@@ -94,24 +101,34 @@ public class AmmPoolCache {
    */
   public AmmPool getOrCreateAmmPool(String pair) {
     AmmPool ammPool = getOrInitAmmPool(pair);
-    ammPoolCache.put(pair, ammPool);
+    putAmmPool(ammPool);
     return ammPool;
   }
 
+  /**
+   * Lưu pool với pair là bản dùng chung của SymbolTable, để các cache tick,
+   * bitmap, position tra cứu theo pool.getPair() đều dùng cùng một chuỗi.
+   */
+  private void putAmmPool(AmmPool ammPool) {
+    String pair = symbolTable.intern(SymbolTable.Kind.POOL, ammPool.getPair());
+    ammPool.setPair(pair);
+    ammPoolCache.put(pair, ammPool);
+  }
+
   /**
    * Cập nhật AmmPool trong cache
    *
    * @param ammPool AmmPool mới
    */
   public void updateAmmPool(AmmPool ammPool) {
-    updateCounter.incrementAndGet();
-    ammPoolCache.put(ammPool.getPair(), ammPool);
+    putAmmPool(ammPool);
   }
 
-  public boolean ammPoolCacheShouldFlush() {
-    // Trả về true khi số lần cập nhật chia hết cho 100
-    int count = updateCounter.get();
-    return count > 0 && count % UPDATE_THRESHOLD == 0;
+  /**
+   * Số bản ghi đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    return latestAmmPools.size();
   }
 
   /**
@@ -126,7 +143,7 @@ public class AmmPoolCache {
       for (AmmPool dbAmmPool : dbAmmPools) {
         String pair = dbAmmPool.getPair();
         if (pair != null && !pair.isEmpty()) {
-          ammPoolCache.put(pair, dbAmmPool);
+          putAmmPool(dbAmmPool);
           loadedCount++;
         }
       }
@@ -147,20 +164,14 @@ public class AmmPoolCache {
       return;
     }
     String pair = ammPool.getPair();
-    latestAmmPools.compute(pair, (key, existingPool) -> {
-      if (existingPool == null || ammPool.getUpdatedAt() > existingPool.getUpdatedAt()) {
-        return ammPool;
-      }
-      return existingPool;
-    });
+    latestAmmPools.put(pair, ammPool);
   }
 
   public void flushAmmPoolToDisk() {
     if (latestAmmPools.isEmpty()) {
       return;
     }
-    ammPoolRocksDB.saveAmmPoolBatch(latestAmmPools);
-    latestAmmPools.clear();
+    latestAmmPools.flush(ammPoolRocksDB::saveAmmPoolBatch);
     logger.debug("Đã lưu ammPool thành công");
   }
 }
@@ -1,10 +1,16 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +29,66 @@ public class AmmPositionCache {
   private final AmmPositionRocksDB ammPositionRocksDB = AmmPositionRocksDB.getInstance();
 
   private final ConcurrentHashMap<String, AmmPosition> ammPositionCache = new ConcurrentHashMap<>();
-  private final Map<String, AmmPosition> latestAmmPositions = new ConcurrentHashMap<>();
+  private final WriteBehindBuffer<AmmPosition> latestAmmPositions = new WriteBehindBuffer<>("AmmPosition",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
-  // Biến đếm số lần cập nhật (atomic để đảm bảo thread-safe)
-  private final AtomicInteger updateCounter = new AtomicInteger(0);
-  private static final int UPDATE_THRESHOLD = 100;
+  // Index phụ theo pool: các position sắp theo khoảng (tickLower, tickUpper)
+  private final ConcurrentHashMap<String, ConcurrentSkipListSet<PositionRange>> poolIndex = new ConcurrentHashMap<>();
+  // Index phụ theo account key của chủ position (cả ownerAccountKey0 và ownerAccountKey1)
+  private final ConcurrentHashMap<String, Set<String>> ownerIndex = new ConcurrentHashMap<>();
+  // Entry đang được index của mỗi position, để gỡ entry cũ khi position đổi tick
+  private final ConcurrentHashMap<String, PositionRange> indexedRanges = new ConcurrentHashMap<>();
+  // Cache và ba index phụ được cập nhật cùng nhau dưới write lock, phía đọc index
+  // giữ read lock nên không thấy trạng thái dở dang (đã gỡ entry cũ, chưa thêm entry mới)
+  private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+  /**
+   * Entry bất biến của index phụ, chụp lại pool, khoảng tick và chủ của position
+   * tại thời điểm index
+   */
+  private static final class PositionRange {
+    private static final Comparator<PositionRange> ORDER = Comparator
+        .comparingInt((PositionRange range) -> range.tickLower)
+        .thenComparingInt(range -> range.tickUpper)
+        .thenComparing(range -> range.identifier);
+
+    private final String identifier;
+    private final String poolPair;
+    private final int tickLower;
+    private final int tickUpper;
+    private final String ownerAccountKey0;
+    private final String ownerAccountKey1;
+
+    private PositionRange(AmmPosition position) {
+      this.identifier = position.getIdentifier();
+      this.poolPair = position.getPoolPair();
+      this.tickLower = position.getTickLowerIndex();
+      this.tickUpper = position.getTickUpperIndex();
+      this.ownerAccountKey0 = position.getOwnerAccountKey0();
+      this.ownerAccountKey1 = position.getOwnerAccountKey1();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof PositionRange)) {
+        return false;
+      }
+      PositionRange range = (PositionRange) other;
+      return tickLower == range.tickLower && tickUpper == range.tickUpper
+          && identifier.equals(range.identifier)
+          && Objects.equals(poolPair, range.poolPair)
+          && Objects.equals(ownerAccountKey0, range.ownerAccountKey0)
+          && Objects.equals(ownerAccountKey1, range.ownerAccountKey1);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(identifier, poolPair, tickLower, tickUpper, ownerAccountKey0, ownerAccountKey1);
+    }
+  }
 
   /**
    * Lấy instance của AmmPositionCache.
@@ -65,7 +126,11 @@ public class AmmPositionCache {
    */
   public Optional<AmmPosition> getAmmPosition(String identifier) {
     AmmPosition position = ammPositionCache.get(identifier);
-    return Optional.ofNullable(position);
+    if (position != null || identifier == null || identifier.isEmpty()) {
+      return Optional.ofNullable(position);
+    }
+    // Position đã đóng có thể đã được chuyển sang archive và không còn được tải lên cache
+    return ammPositionRocksDB.getArchivedAmmPosition(identifier);
   }
 
   /**
@@ -88,7 +153,7 @@ public class AmmPositionCache {
    */
   public AmmPosition getOrCreateAmmPosition(String identifier, String pool) {
     AmmPosition ammPosition = getOrInitAmmPosition(identifier, pool);
-    ammPositionCache.put(identifier, ammPosition);
+    putAndIndex(ammPosition);
     return ammPosition;
   }
 
@@ -98,14 +163,169 @@ public class AmmPositionCache {
    * @param ammPosition AmmPosition mới
    */
   public void updateAmmPosition(AmmPosition ammPosition) {
-    updateCounter.incrementAndGet();
-    ammPositionCache.put(ammPosition.getIdentifier(), ammPosition);
+    putAndIndex(ammPosition);
+  }
+
+  /**
+   * Lấy các position của một pool, sắp theo tickLower rồi tickUpper
+   *
+   * @param poolPair Pool pair
+   * @return Danh sách position
+   */
+  public List<AmmPosition> getAmmPositionsByPool(String poolPair) {
+    List<AmmPosition> positions = new ArrayList<>();
+    indexLock.readLock().lock();
+    try {
+      ConcurrentSkipListSet<PositionRange> ranges = poolIndex.get(poolPair);
+      if (ranges == null) {
+        return positions;
+      }
+      for (PositionRange range : ranges) {
+        addIfPresent(positions, range.identifier);
+      }
+      return positions;
+    } finally {
+      indexLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Lấy các position của một pool có khoảng chứa tick hiện tại
+   * (tickLower <= currentTick < tickUpper, giống điều kiện active của Uniswap V3).
+   * Chỉ duyệt các position có tickLower <= currentTick.
+   *
+   * @param poolPair    Pool pair
+   * @param currentTick Tick hiện tại của pool
+   * @return Danh sách position trong khoảng
+   */
+  public List<AmmPosition> getAmmPositionsInRange(String poolPair, int currentTick) {
+    List<AmmPosition> positions = new ArrayList<>();
+    indexLock.readLock().lock();
+    try {
+      ConcurrentSkipListSet<PositionRange> ranges = poolIndex.get(poolPair);
+      if (ranges == null) {
+        return positions;
+      }
+      for (PositionRange range : ranges) {
+        if (range.tickLower > currentTick) {
+          break;
+        }
+        if (range.tickUpper > currentTick) {
+          addIfPresent(positions, range.identifier);
+        }
+      }
+      return positions;
+    } finally {
+      indexLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Lấy các position của một account (theo ownerAccountKey0 hoặc ownerAccountKey1)
+   *
+   * @param ownerAccountKey Account key của chủ position
+   * @return Danh sách position
+   */
+  public List<AmmPosition> getAmmPositionsByOwner(String ownerAccountKey) {
+    List<AmmPosition> positions = new ArrayList<>();
+    indexLock.readLock().lock();
+    try {
+      Set<String> identifiers = ownerIndex.get(ownerAccountKey);
+      if (identifiers == null) {
+        return positions;
+      }
+      for (String identifier : identifiers) {
+        addIfPresent(positions, identifier);
+      }
+      return positions;
+    } finally {
+      indexLock.readLock().unlock();
+    }
   }
 
-  public boolean ammPositionCacheShouldFlush() {
-    // Trả về true khi số lần cập nhật chia hết cho 100
-    int count = updateCounter.get();
-    return count > 0 && count % UPDATE_THRESHOLD == 0;
+  private void addIfPresent(Collection<AmmPosition> positions, String identifier) {
+    AmmPosition position = ammPositionCache.get(identifier);
+    // Position được sửa trực tiếp trước khi updateAmmPosition gỡ nó khỏi index
+    if (position != null && !position.isClosed()) {
+      positions.add(position);
+    }
+  }
+
+  private void putAndIndex(AmmPosition ammPosition) {
+    indexLock.writeLock().lock();
+    try {
+      ammPositionCache.put(ammPosition.getIdentifier(), ammPosition);
+      index(ammPosition);
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Cập nhật index phụ cho position, gọi khi đang giữ write lock. Position được
+   * sửa trực tiếp trên object trong cache nên index so sánh với entry đã chụp lần
+   * trước để gỡ entry cũ. Position đã đóng bị gỡ khỏi mọi index.
+   */
+  private void index(AmmPosition ammPosition) {
+    if (ammPosition.getIdentifier() == null) {
+      return;
+    }
+    if (ammPosition.isClosed()) {
+      PositionRange previous = indexedRanges.remove(ammPosition.getIdentifier());
+      if (previous != null) {
+        unindex(previous);
+      }
+      return;
+    }
+
+    PositionRange range = new PositionRange(ammPosition);
+    PositionRange previous = indexedRanges.put(range.identifier, range);
+    if (range.equals(previous)) {
+      return;
+    }
+    if (previous != null) {
+      unindex(previous);
+    }
+
+    if (range.poolPair != null) {
+      poolIndex.computeIfAbsent(range.poolPair, key -> new ConcurrentSkipListSet<>(PositionRange.ORDER)).add(range);
+    }
+    addOwner(range.ownerAccountKey0, range.identifier);
+    addOwner(range.ownerAccountKey1, range.identifier);
+  }
+
+  private void unindex(PositionRange range) {
+    if (range.poolPair != null) {
+      ConcurrentSkipListSet<PositionRange> ranges = poolIndex.get(range.poolPair);
+      if (ranges != null && ranges.remove(range) && ranges.isEmpty()) {
+        poolIndex.remove(range.poolPair);
+      }
+    }
+    removeOwner(range.ownerAccountKey0, range.identifier);
+    removeOwner(range.ownerAccountKey1, range.identifier);
+  }
+
+  private void addOwner(String ownerAccountKey, String identifier) {
+    if (ownerAccountKey != null && !ownerAccountKey.isEmpty()) {
+      ownerIndex.computeIfAbsent(ownerAccountKey, key -> ConcurrentHashMap.newKeySet()).add(identifier);
+    }
+  }
+
+  private void removeOwner(String ownerAccountKey, String identifier) {
+    if (ownerAccountKey == null) {
+      return;
+    }
+    Set<String> identifiers = ownerIndex.get(ownerAccountKey);
+    if (identifiers != null && identifiers.remove(identifier) && identifiers.isEmpty()) {
+      ownerIndex.remove(ownerAccountKey);
+    }
+  }
+
+  /**
+   * Số bản ghi đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    return latestAmmPositions.size();
   }
 
   /**
@@ -119,7 +339,7 @@ public class AmmPositionCache {
       for (AmmPosition dbAmmPosition : dbAmmPositions) {
         String identifier = dbAmmPosition.getIdentifier();
         if (identifier != null && !identifier.isEmpty()) {
-          ammPositionCache.put(identifier, dbAmmPosition);
+          putAndIndex(dbAmmPosition);
           loadedCount++;
         }
       }
@@ -140,20 +360,14 @@ public class AmmPositionCache {
       return;
     }
     String identifier = ammPosition.getIdentifier();
-    latestAmmPositions.compute(identifier, (key, existingPosition) -> {
-      if (existingPosition == null || ammPosition.getUpdatedAt() > existingPosition.getUpdatedAt()) {
-        return ammPosition;
-      }
-      return existingPosition;
-    });
+    latestAmmPositions.put(identifier, ammPosition);
   }
 
   public void flushAmmPositionToDisk() {
     if (latestAmmPositions.isEmpty()) {
       return;
     }
-    ammPositionRocksDB.saveAmmPositionBatch(latestAmmPositions);
-    latestAmmPositions.clear();
+    latestAmmPositions.flush(ammPositionRocksDB::saveAmmPositionBatch);
     logger.debug("Đã lưu AmmPosition thành công");
   }
 }
@@ -1,5 +1,6 @@
 package com.exchangeengine.storage.cache;
 
+import java.math.BigDecimal;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -25,6 +26,7 @@ public class BalanceLockCache {
     private final Map<String, BalanceLock> locks = new ConcurrentHashMap<>();
     private final Map<String, BalanceLock> lockBatch = new ConcurrentHashMap<>();
     private final BalanceLockRocksDB balanceLockRocksDB = BalanceLockRocksDB.getInstance();
+    private final SymbolTable symbolTable = SymbolTable.getInstance();
 
     /**
      * Lấy instance của BalanceLockCache
@@ -69,7 +71,11 @@ public class BalanceLockCache {
      */
     public Optional<BalanceLock> getBalanceLock(String lockId) {
         BalanceLock lock = locks.get(lockId);
-        return Optional.ofNullable(lock);
+        if (lock != null || lockId == null || lockId.isEmpty()) {
+            return Optional.ofNullable(lock);
+        }
+        // Khóa đã giải phóng có thể đã được chuyển sang archive và không còn được tải lên cache
+        return balanceLockRocksDB.getArchivedBalanceLock(lockId);
     }
 
     /**
@@ -108,6 +114,7 @@ public class BalanceLockCache {
      * @return BalanceLock đã thêm
      */
     public BalanceLock addBalanceLock(BalanceLock lock) {
+        internAccountKeys(lock);
         locks.put(lock.getLockId(), lock);
         addBalanceLockToBatch(lock);
         return lock;
@@ -124,6 +131,29 @@ public class BalanceLockCache {
         return lock;
     }
 
+    /**
+     * Thay account key của khóa bằng bản dùng chung của SymbolTable. Khóa sống
+     * lâu trong cache nên không giữ bản sao chuỗi riêng cho từng khóa.
+     *
+     * @param lock BalanceLock cần xử lý
+     */
+    private void internAccountKeys(BalanceLock lock) {
+        if (lock.getAccountKeys() != null) {
+            List<String> accountKeys = new ArrayList<>(lock.getAccountKeys().size());
+            for (String accountKey : lock.getAccountKeys()) {
+                accountKeys.add(symbolTable.intern(SymbolTable.Kind.ACCOUNT, accountKey));
+            }
+            lock.setAccountKeys(accountKeys);
+        }
+
+        if (lock.getLockedBalances() != null && !lock.getLockedBalances().isEmpty()) {
+            Map<String, BigDecimal> lockedBalances = new HashMap<>();
+            lock.getLockedBalances().forEach((accountKey, amount) ->
+                lockedBalances.put(symbolTable.intern(SymbolTable.Kind.ACCOUNT, accountKey), amount));
+            lock.setLockedBalances(lockedBalances);
+        }
+    }
+
     /**
      * Load BalanceLocks từ RocksDB
      */
@@ -134,6 +164,7 @@ public class BalanceLockCache {
             
             // Add all locks to cache
             for (BalanceLock lock : allBalanceLocks) {
+                internAccountKeys(lock);
                 locks.put(lock.getLockId(), lock);
             }
             
@@ -152,13 +183,22 @@ public class BalanceLockCache {
         try {
             // Use the dedicated BalanceLockRocksDB service
             balanceLockRocksDB.saveBalanceLockBatch(lockBatch);
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
+            // Giữ batch để lần flush sau lưu lại
             logger.error("Error saving balance locks batch with BalanceLockRocksDB: {}", e.getMessage(), e);
+            throw e;
         }
 
         lockBatch.clear();
     }
 
+    /**
+     * Số khóa đang chờ lưu xuống RocksDB
+     */
+    public int pendingFlushCount() {
+        return lockBatch.size();
+    }
+
     /**
      * Lấy tất cả khóa trong cache
      *
@@ -0,0 +1,140 @@
+package com.exchangeengine.storage.cache;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Map sắp xếp chỉ đọc cho các view của ReadSnapshotCache: một base map bất biến
+ * cộng chuỗi delta của các lần publish sau đó.
+ *
+ * Disruptor thread publish thay đổi bằng apply: chỉ copy các entry thay đổi,
+ * không copy cả map. Khi tổng số entry trong chuỗi delta vượt
+ * max(MIN_COMPACT_SIZE, base / 4) thì gộp thành base mới; chi phí O(n) của lần
+ * gộp được chia cho ít nhất n / 4 thay đổi.
+ *
+ * Map đầy đủ (toMap) được dựng ở lần đọc đầu trên query thread và giữ lại; lần
+ * apply sau dùng luôn map đó làm base nên chuỗi delta trở về rỗng.
+ */
+final class DeltaSnapshotMap<K, V> {
+  static final int MIN_COMPACT_SIZE = 64;
+
+  private final NavigableMap<K, V> base;
+  private final Delta<K, V> deltas;
+  private final int deltaSize;
+  private volatile NavigableMap<K, V> merged;
+
+  private DeltaSnapshotMap(NavigableMap<K, V> base, Delta<K, V> deltas, int deltaSize) {
+    this.base = base;
+    this.deltas = deltas;
+    this.deltaSize = deltaSize;
+    if (deltas == null) {
+      this.merged = base;
+    }
+  }
+
+  /**
+   * Tạo map từ một map đầy đủ. Map truyền vào không được sửa sau lời gọi này.
+   *
+   * @param entries map ban đầu
+   * @return DeltaSnapshotMap không có delta
+   */
+  static <K, V> DeltaSnapshotMap<K, V> of(NavigableMap<K, V> entries) {
+    return new DeltaSnapshotMap<>(Collections.unmodifiableNavigableMap(entries), null, 0);
+  }
+
+  /**
+   * Map rỗng
+   */
+  static <K, V> DeltaSnapshotMap<K, V> empty() {
+    return new DeltaSnapshotMap<>(Collections.emptyNavigableMap(), null, 0);
+  }
+
+  /**
+   * Tạo phiên bản mới có thêm các thay đổi. Phiên bản hiện tại không đổi.
+   *
+   * @param changes key -&gt; giá trị mới, giá trị null nghĩa là xóa key
+   * @return phiên bản mới
+   */
+  DeltaSnapshotMap<K, V> apply(Map<K, V> changes) {
+    if (changes.isEmpty()) {
+      return this;
+    }
+
+    NavigableMap<K, V> materialized = merged;
+    if (materialized != null) {
+      return new DeltaSnapshotMap<>(materialized, new Delta<>(new HashMap<>(changes), null), changes.size());
+    }
+
+    int size = deltaSize + changes.size();
+    DeltaSnapshotMap<K, V> next = new DeltaSnapshotMap<>(base, new Delta<>(new HashMap<>(changes), deltas), size);
+    if (size > Math.max(MIN_COMPACT_SIZE, base.size() / 4)) {
+      return new DeltaSnapshotMap<>(next.toMap(), null, 0);
+    }
+    return next;
+  }
+
+  /**
+   * Giá trị của key, không cần dựng map đầy đủ
+   */
+  V get(K key) {
+    NavigableMap<K, V> materialized = merged;
+    if (materialized != null) {
+      return materialized.get(key);
+    }
+    for (Delta<K, V> delta = deltas; delta != null; delta = delta.previous) {
+      if (delta.changes.containsKey(key)) {
+        return delta.changes.get(key);
+      }
+    }
+    return base.get(key);
+  }
+
+  /**
+   * Map đầy đủ (không sửa được), dựng một lần rồi giữ lại
+   */
+  NavigableMap<K, V> toMap() {
+    NavigableMap<K, V> materialized = merged;
+    if (materialized == null) {
+      Deque<Delta<K, V>> chain = new ArrayDeque<>();
+      for (Delta<K, V> delta = deltas; delta != null; delta = delta.previous) {
+        chain.push(delta);
+      }
+
+      TreeMap<K, V> entries = new TreeMap<>(base);
+      for (Delta<K, V> delta : chain) {
+        delta.changes.forEach((key, value) -> {
+          if (value == null) {
+            entries.remove(key);
+          } else {
+            entries.put(key, value);
+          }
+        });
+      }
+      materialized = Collections.unmodifiableNavigableMap(entries);
+      merged = materialized;
+    }
+    return materialized;
+  }
+
+  /**
+   * Số entry trong chuỗi delta chưa gộp vào base
+   */
+  int pendingDeltaSize() {
+    return deltaSize;
+  }
+
+  private static final class Delta<K, V> {
+    private final Map<K, V> changes;
+    private final Delta<K, V> previous;
+
+    private Delta(Map<K, V> changes, Delta<K, V> previous) {
+      this.changes = changes;
+      this.previous = previous;
+    }
+  }
+}
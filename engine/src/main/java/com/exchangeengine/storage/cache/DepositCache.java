@@ -1,7 +1,6 @@
 package com.exchangeengine.storage.cache;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -22,9 +21,8 @@ public class DepositCache {
   private final DepositRocksDB depositRocksDB = DepositRocksDB.getInstance();
 
   private final ConcurrentHashMap<String, CoinDeposit> depositCache = new ConcurrentHashMap<>();
-  private final Map<String, CoinDeposit> latestDeposits = new ConcurrentHashMap<>();
-
-  private static final int BACKUP_BATCH_SIZE = 10000;
+  private final WriteBehindBuffer<CoinDeposit> latestDeposits = new WriteBehindBuffer<>("CoinDeposit",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
   /**
    * Lấy instance của DepositCache.
@@ -61,7 +59,11 @@ public class DepositCache {
    */
   public Optional<CoinDeposit> getDeposit(String identifier) {
     CoinDeposit cachedDeposit = depositCache.get(identifier);
-    return Optional.ofNullable(cachedDeposit);
+    if (cachedDeposit != null || identifier == null || identifier.isEmpty()) {
+      return Optional.ofNullable(cachedDeposit);
+    }
+    // Deposit đã kết thúc có thể đã được chuyển sang archive và không còn được tải lên cache
+    return depositRocksDB.getArchivedDeposit(identifier);
   }
 
   /**
@@ -74,12 +76,10 @@ public class DepositCache {
   }
 
   /**
-   * Kiểm tra xem có cần lưu dữ liệu vào RocksDB không.
-   *
-   * @return true nếu cần lưu
+   * Số bản ghi đang chờ lưu xuống RocksDB
    */
-  public boolean depositCacheShouldFlush() {
-    return latestDeposits.size() >= BACKUP_BATCH_SIZE;
+  public int pendingFlushCount() {
+    return latestDeposits.size();
   }
 
   /**
@@ -114,12 +114,7 @@ public class DepositCache {
     if (identifier == null || identifier.isEmpty()) {
       return;
     }
-    latestDeposits.compute(identifier, (key, existingDeposit) -> {
-      if (existingDeposit == null || deposit.getUpdatedAt() > existingDeposit.getUpdatedAt()) {
-        return deposit;
-      }
-      return existingDeposit;
-    });
+    latestDeposits.put(identifier, deposit);
   }
 
   /**
@@ -130,8 +125,7 @@ public class DepositCache {
       return;
     }
 
-    depositRocksDB.saveDepositBatch(latestDeposits);
-    latestDeposits.clear();
+    latestDeposits.flush(depositRocksDB::saveDepositBatch);
     logger.debug("Đã lưu deposit thành công");
   }
 }
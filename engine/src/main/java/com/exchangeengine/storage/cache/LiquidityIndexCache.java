@@ -0,0 +1,183 @@
+package com.exchangeengine.storage.cache;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.Tick;
+
+/**
+ * TickLiquidityIndex của từng pool.
+ *
+ * Index chỉ đọc tick view đã publish của ReadSnapshotCache, không đọc
+ * TickBitmap/TickCache đang bị disruptor thread sửa. Mỗi index gắn với phiên
+ * bản pool (txCount) của view dùng để dựng: query thread dựng index ở lần dùng
+ * đầu hoặc khi phiên bản không khớp, còn disruptor thread chuyển index sang
+ * phiên bản mới bằng các tick thay đổi lúc publish (advance) nên thường không
+ * phải dựng lại.
+ *
+ * Ở chế độ query replica không có advance: index được dựng lại khi phiên bản
+ * pool trong secondary thay đổi sau catch up.
+ */
+public class LiquidityIndexCache {
+  private static final Logger logger = LoggerFactory.getLogger(LiquidityIndexCache.class);
+
+  private static volatile LiquidityIndexCache instance;
+
+  private final ConcurrentHashMap<String, TickLiquidityIndex> indexes = new ConcurrentHashMap<>();
+
+  /**
+   * Lấy instance của LiquidityIndexCache.
+   *
+   * @return Instance của LiquidityIndexCache
+   */
+  public static LiquidityIndexCache getInstance() {
+    if (instance == null) {
+      synchronized (LiquidityIndexCache.class) {
+        if (instance == null) {
+          instance = new LiquidityIndexCache();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Constructor riêng tư để đảm bảo Singleton pattern
+   */
+  private LiquidityIndexCache() {
+  }
+
+  /**
+   * Thiết lập instance cho mục đích testing.
+   * CHỈ SỬ DỤNG TRONG UNIT TEST.
+   *
+   * @param testInstance Instance để sử dụng cho testing
+   */
+  public static void setTestInstance(LiquidityIndexCache testInstance) {
+    synchronized (LiquidityIndexCache.class) {
+      instance = testInstance;
+    }
+  }
+
+  /**
+   * Reset instance - chỉ sử dụng cho mục đích testing.
+   */
+  public static void resetInstance() {
+    synchronized (LiquidityIndexCache.class) {
+      instance = null;
+    }
+  }
+
+  /**
+   * Chuyển index của pool sang phiên bản mới bằng các tick vừa publish.
+   * Gọi từ disruptor thread trong ReadSnapshotCache.publish. Index không ở đúng
+   * phiên bản trước đó thì bị bỏ, lần query sau dựng lại từ view.
+   *
+   * @param poolPair        Pool pair
+   * @param previousVersion Phiên bản pool của view trước
+   * @param newVersion      Phiên bản pool của view vừa publish
+   * @param changedTicks    tickIndex -&gt; tick mới (null = tick bị xóa)
+   */
+  void advance(String poolPair, long previousVersion, long newVersion, Map<Integer, Tick> changedTicks) {
+    TickLiquidityIndex index = indexes.get(poolPair);
+    if (index == null) {
+      return;
+    }
+
+    synchronized (index) {
+      if (index.getVersion() != previousVersion) {
+        indexes.remove(poolPair, index);
+        return;
+      }
+      Map<Integer, BigDecimal> liquidityNets = new HashMap<>();
+      changedTicks.forEach((tickIndex, tick) -> liquidityNets.put(tickIndex,
+          tick != null ? tick.getLiquidityNet() : null));
+      index.apply(liquidityNets, newVersion);
+    }
+  }
+
+  /**
+   * Lấy index của pool theo tick view đã publish hiện tại.
+   *
+   * @param poolPair Pool pair
+   * @return TickLiquidityIndex, rỗng nếu pool không tồn tại
+   */
+  public Optional<TickLiquidityIndex> getIndex(String poolPair) {
+    return getIndex(ReadSnapshotCache.getInstance().getTickView(poolPair));
+  }
+
+  /**
+   * Lấy index ứng với tick view, dựng mới từ view nếu chưa có hoặc khác phiên bản.
+   *
+   * @param view Tick view đã publish
+   * @return TickLiquidityIndex, rỗng nếu pool không tồn tại
+   */
+  public Optional<TickLiquidityIndex> getIndex(ReadSnapshotCache.TickView view) {
+    if (!view.getPool().isPresent()) {
+      return Optional.empty();
+    }
+
+    TickLiquidityIndex index = indexes.get(view.getPoolPair());
+    if (index != null && index.getVersion() == view.getPoolVersion()) {
+      return Optional.of(index);
+    }
+
+    TickLiquidityIndex rebuilt = buildIndex(view);
+    // Không thay index mà disruptor thread đã chuyển sang phiên bản mới hơn
+    indexes.merge(view.getPoolPair(), rebuilt,
+        (current, candidate) -> current.getVersion() > candidate.getVersion() ? current : candidate);
+    return Optional.of(rebuilt);
+  }
+
+  /**
+   * Đọc index và tick view của cùng một phiên bản pool. Reader chạy khi giữ lock
+   * của index nên disruptor thread không chuyển index sang phiên bản mới giữa
+   * các lần đọc.
+   *
+   * @param poolPair Pool pair
+   * @param reader   Hàm đọc view và index
+   * @return Kết quả của reader, rỗng nếu pool không tồn tại
+   */
+  public <T> Optional<T> read(String poolPair, BiFunction<ReadSnapshotCache.TickView, TickLiquidityIndex, T> reader) {
+    ReadSnapshotCache.TickView view = ReadSnapshotCache.getInstance().getTickView(poolPair);
+    Optional<TickLiquidityIndex> index = getIndex(view);
+    if (!index.isPresent()) {
+      return Optional.empty();
+    }
+
+    synchronized (index.get()) {
+      if (index.get().getVersion() == view.getPoolVersion()) {
+        return Optional.of(reader.apply(view, index.get()));
+      }
+    }
+    // Index vừa được chuyển sang phiên bản mới hơn view: dùng index riêng của view
+    return Optional.of(reader.apply(view, buildIndex(view)));
+  }
+
+  /**
+   * Bỏ index của pool, lần dùng sau sẽ dựng lại từ tick view.
+   *
+   * @param poolPair Pool pair
+   */
+  public void invalidate(String poolPair) {
+    indexes.remove(poolPair);
+  }
+
+  private TickLiquidityIndex buildIndex(ReadSnapshotCache.TickView view) {
+    AmmPool pool = view.getPool().get();
+    TickLiquidityIndex index = new TickLiquidityIndex(view.getPoolPair(), pool.getTickSpacing(),
+        view.getPoolVersion());
+    view.getTicks().forEach((tickIndex, tick) -> index.setLiquidityNet(tickIndex, tick.getLiquidityNet()));
+    logger.info("Built liquidity index for pool {} version {} with {} ticks", view.getPoolPair(),
+        view.getPoolVersion(), index.getTickCount());
+    return index;
+  }
+}
@@ -2,10 +2,8 @@ package com.exchangeengine.storage.cache;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,12 +22,9 @@ public class MerchantEscrowCache {
     
     private final MerchantEscrowRocksDB merchantEscrowRocksDB;
     private final ConcurrentHashMap<String, MerchantEscrow> merchantEscrowCache = new ConcurrentHashMap<>();
-    private final Map<String, MerchantEscrow> latestMerchantEscrows = new ConcurrentHashMap<>();
-    
-    // Atomic counter for updates (thread-safe)
-    private final AtomicInteger updateCounter = new AtomicInteger(0);
-    private static final int UPDATE_THRESHOLD = 100;
-    
+    private final WriteBehindBuffer<MerchantEscrow> latestMerchantEscrows = new WriteBehindBuffer<>("MerchantEscrow",
+            (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
+
     /**
      * Get instance of MerchantEscrowCache
      *
@@ -150,10 +145,7 @@ public class MerchantEscrowCache {
             return;
         }
         
-        updateCounter.incrementAndGet();
-        String identifier = merchantEscrow.getIdentifier();
-        merchantEscrowCache.put(identifier, merchantEscrow);
-        merchantEscrowRocksDB.saveMerchantEscrow(merchantEscrow);
+        addMerchantEscrowToBatch(merchantEscrow);
     }
     
     /**
@@ -170,29 +162,15 @@ public class MerchantEscrowCache {
         String identifier = merchantEscrow.getIdentifier();
         merchantEscrowCache.put(identifier, merchantEscrow);
         
-        // Use compute to only save the latest version based on timestamp
-        latestMerchantEscrows.compute(identifier, (key, existingEscrow) -> {
-            if (existingEscrow == null || merchantEscrow.getUpdatedAt() > existingEscrow.getUpdatedAt()) {
-                return merchantEscrow;
-            }
-            return existingEscrow;
-        });
-        
-        // If batch is large enough, flush to RocksDB
-        if (latestMerchantEscrows.size() >= UPDATE_THRESHOLD) {
-            flushMerchantEscrowToDisk();
-        }
+        // Batch only keeps the latest version based on timestamp
+        latestMerchantEscrows.put(identifier, merchantEscrow);
     }
-    
+
     /**
-     * Check if batch should be flushed
-     *
-     * @return true if should flush
+     * Số bản ghi đang chờ lưu xuống RocksDB
      */
-    public boolean merchantEscrowCacheShouldFlush() {
-        // Return true when update count is divisible by UPDATE_THRESHOLD
-        int count = updateCounter.get();
-        return count > 0 && count % UPDATE_THRESHOLD == 0;
+    public int pendingFlushCount() {
+        return latestMerchantEscrows.size();
     }
     
     /**
@@ -205,8 +183,7 @@ public class MerchantEscrowCache {
         }
         
         logger.info("Saving {} merchant escrows to RocksDB", latestMerchantEscrows.size());
-        merchantEscrowRocksDB.saveMerchantEscrowBatch(latestMerchantEscrows);
-        latestMerchantEscrows.clear();
+        latestMerchantEscrows.flush(merchantEscrowRocksDB::saveMerchantEscrowBatch);
         logger.info("Merchant escrow flush to RocksDB completed");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.exchangeengine.storage.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import com.exchangeengine.model.Account;
+
+/**
+ * Bảng số dư account nằm ngoài heap: mỗi account id của SymbolTable ứng với
+ * một record 64 byte cố định trong các direct ByteBuffer, nên 20M account chỉ
+ * tốn khoảng 1.3GB bộ nhớ off-heap và GC không phải quét chúng. Id đã liên tục
+ * (0, 1, 2, ...) nên slot chính là id, không cần băm hay dò.
+ *
+ * Layout record (long, native order):
+ * [0] seq | [1] flags | [2..3] available hi/lo | [4..5] frozen hi/lo |
+ * [6] createdAt | [7] updatedAt
+ *
+ * Ghi được đồng bộ trên store. Đọc không khóa theo kiểu seqlock: writer tăng
+ * seq lên số lẻ trước khi ghi và lên số chẵn sau khi ghi xong, reader đọc lại
+ * nếu seq lẻ hoặc đã đổi, nên không bao giờ thấy available/frozen lệch nhau.
+ *
+ * seq cũng là version của record: Account đọc ra mang seq lúc đọc, Account
+ * vừa ghi mang seq sau khi ghi.
+ *
+ * Dirty bitmap đánh dấu các id cần lưu xuống RocksDB ở lần flush tiếp theo.
+ */
+final class OffHeapAccountStore {
+  static final int RECORD_SIZE = 64;
+
+  private static final int CHUNK_SHIFT = 14;
+  private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+
+  private static final int SEQ = 0;
+  private static final int FLAGS = 8;
+  private static final int AVAILABLE_HI = 16;
+  private static final int AVAILABLE_LO = 24;
+  private static final int FROZEN_HI = 32;
+  private static final int FROZEN_LO = 40;
+  private static final int CREATED_AT = 48;
+  private static final int UPDATED_AT = 56;
+
+  private static final long FLAG_PRESENT = 1L;
+
+  private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class,
+      ByteOrder.nativeOrder());
+
+  private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+  private volatile AtomicLongArray dirty = new AtomicLongArray(0);
+  private final AtomicInteger dirtyCount = new AtomicInteger();
+  private int size;
+
+  /**
+   * Kiểm tra account id đã có record chưa
+   */
+  boolean contains(int accountId) {
+    ByteBuffer chunk = chunkOf(accountId);
+    return chunk != null && ((long) LONG.getAcquire(chunk, offsetOf(accountId) + FLAGS) & FLAG_PRESENT) != 0;
+  }
+
+  /**
+   * Đọc record thành một Account mới
+   *
+   * @param accountId Id của account
+   * @param key       Account key (bản dùng chung của SymbolTable)
+   * @return Account, null nếu id chưa có record
+   */
+  Account read(int accountId, String key) {
+    ByteBuffer chunk = chunkOf(accountId);
+    if (chunk == null) {
+      return null;
+    }
+
+    int base = offsetOf(accountId);
+    while (true) {
+      long seq = (long) LONG.getAcquire(chunk, base + SEQ);
+      if ((seq & 1L) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+
+      long flags = chunk.getLong(base + FLAGS);
+      long availableHi = chunk.getLong(base + AVAILABLE_HI);
+      long availableLo = chunk.getLong(base + AVAILABLE_LO);
+      long frozenHi = chunk.getLong(base + FROZEN_HI);
+      long frozenLo = chunk.getLong(base + FROZEN_LO);
+      long createdAt = chunk.getLong(base + CREATED_AT);
+      long updatedAt = chunk.getLong(base + UPDATED_AT);
+
+      VarHandle.loadLoadFence();
+      if ((long) LONG.getOpaque(chunk, base + SEQ) != seq) {
+        continue;
+      }
+      if ((flags & FLAG_PRESENT) == 0) {
+        return null;
+      }
+      return Account.restore(key, availableHi, availableLo, frozenHi, frozenLo, createdAt, updatedAt, seq);
+    }
+  }
+
+  /**
+   * Ghi đè record bằng trạng thái của account, gán version mới cho account
+   */
+  synchronized void write(int accountId, Account account) {
+    ensureCapacity(accountId);
+    ByteBuffer chunk = chunks[accountId >>> CHUNK_SHIFT];
+    int base = offsetOf(accountId);
+
+    long seq = chunk.getLong(base + SEQ);
+    LONG.setOpaque(chunk, base + SEQ, seq + 1);
+    VarHandle.storeStoreFence();
+
+    long flags = chunk.getLong(base + FLAGS);
+    if ((flags & FLAG_PRESENT) == 0) {
+      size++;
+    }
+    chunk.putLong(base + FLAGS, flags | FLAG_PRESENT);
+    chunk.putLong(base + AVAILABLE_HI, account.getAvailableFixed().getHi());
+    chunk.putLong(base + AVAILABLE_LO, account.getAvailableFixed().getLo());
+    chunk.putLong(base + FROZEN_HI, account.getFrozenFixed().getHi());
+    chunk.putLong(base + FROZEN_LO, account.getFrozenFixed().getLo());
+    chunk.putLong(base + CREATED_AT, account.getCreatedAt());
+    chunk.putLong(base + UPDATED_AT, account.getUpdatedAt());
+
+    LONG.setRelease(chunk, base + SEQ, seq + 2);
+    account.setVersion(seq + 2);
+  }
+
+  /**
+   * Chỉ ghi nếu chưa có record hoặc account được dựng từ đúng version record
+   * đang có. Account mang version cũ hơn (record đã được ghi lại sau đó) hoặc
+   * không đi qua bảng (version 0) bị bỏ qua, kể cả khi updatedAt trùng millisecond.
+   *
+   * @return true nếu đã ghi
+   */
+  synchronized boolean writeIfNewer(int accountId, Account account) {
+    if (contains(accountId)) {
+      ByteBuffer chunk = chunks[accountId >>> CHUNK_SHIFT];
+      if (account.getVersion() != chunk.getLong(offsetOf(accountId) + SEQ)) {
+        return false;
+      }
+    }
+    write(accountId, account);
+    return true;
+  }
+
+  /**
+   * Đánh dấu account id cần lưu ở lần flush tiếp theo
+   */
+  synchronized void markDirty(int accountId) {
+    ensureCapacity(accountId);
+    long bit = 1L << accountId;
+    long previous = dirty.getAndAccumulate(accountId >>> 6, bit, (current, mask) -> current | mask);
+    if ((previous & bit) == 0) {
+      dirtyCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Số account id đang chờ flush
+   */
+  int dirtyCount() {
+    return dirtyCount.get();
+  }
+
+  /**
+   * Lấy và xóa toàn bộ dirty bitmap, gọi consumer cho từng account id. Account
+   * được ghi lại sau khi word đã được lấy sẽ được đánh dấu lại và lưu ở lần
+   * flush sau.
+   */
+  synchronized void drainDirty(IntConsumer consumer) {
+    AtomicLongArray bitmap = dirty;
+    for (int word = 0; word < bitmap.length(); word++) {
+      if (bitmap.get(word) == 0) {
+        continue;
+      }
+      long bits = bitmap.getAndSet(word, 0L);
+      dirtyCount.addAndGet(-Long.bitCount(bits));
+      while (bits != 0) {
+        int bit = Long.numberOfTrailingZeros(bits);
+        consumer.accept((word << 6) + bit);
+        bits &= bits - 1;
+      }
+    }
+  }
+
+  /**
+   * Số account đã có record
+   */
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Dung lượng off-heap đã cấp phát (byte)
+   */
+  long capacityBytes() {
+    return (long) chunks.length * CHUNK_RECORDS * RECORD_SIZE;
+  }
+
+  private ByteBuffer chunkOf(int accountId) {
+    ByteBuffer[] current = chunks;
+    int chunkIndex = accountId >>> CHUNK_SHIFT;
+    return accountId >= 0 && chunkIndex < current.length ? current[chunkIndex] : null;
+  }
+
+  private static int offsetOf(int accountId) {
+    return (accountId & CHUNK_MASK) * RECORD_SIZE;
+  }
+
+  private void ensureCapacity(int accountId) {
+    if (accountId < 0) {
+      throw new IllegalArgumentException("Account id cannot be negative: " + accountId);
+    }
+
+    int chunkIndex = accountId >>> CHUNK_SHIFT;
+    ByteBuffer[] current = chunks;
+    if (chunkIndex >= current.length) {
+      // Chỉ cấp thêm chunk cần dùng: mỗi chunk là 1MB off-heap, gấp đôi sẽ lãng phí ở quy mô lớn
+      ByteBuffer[] grown = Arrays.copyOf(current, chunkIndex + 1);
+      for (int i = current.length; i < grown.length; i++) {
+        grown[i] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE).order(ByteOrder.nativeOrder());
+      }
+      chunks = grown;
+    }
+
+    AtomicLongArray bitmap = dirty;
+    int words = chunks.length * (CHUNK_RECORDS >>> 6);
+    if (bitmap.length() < words) {
+      AtomicLongArray grown = new AtomicLongArray(words);
+      for (int i = 0; i < bitmap.length(); i++) {
+        grown.set(i, bitmap.get(i));
+      }
+      dirty = grown;
+    }
+  }
+}
@@ -1,15 +1,17 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.exchangeengine.model.Offer;
+import com.exchangeengine.model.OfferBookEntry;
 import com.exchangeengine.storage.rocksdb.OfferRocksDB;
 
 /**
@@ -22,12 +24,24 @@ public class OfferCache {
     
     private final OfferRocksDB offerRocksDB;
     private final ConcurrentHashMap<String, Offer> offerCache = new ConcurrentHashMap<>();
-    private final Map<String, Offer> latestOffers = new ConcurrentHashMap<>();
+    private final WriteBehindBuffer<Offer> latestOffers = new WriteBehindBuffer<>("Offer",
+            (existing, incoming) -> incoming.getUpdatedAt().isAfter(existing.getUpdatedAt()) ? incoming : existing);
     
-    // Atomic counter for updates (thread-safe)
-    private final AtomicInteger updateCounter = new AtomicInteger(0);
-    private static final int UPDATE_THRESHOLD = 100;
+    // Secondary index: price-sorted book of listed offers per symbol and offer type
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<OfferBookEntry>> offerBooks = new ConcurrentHashMap<>();
+    // Entry currently indexed for each offer, used to remove it when the offer changes
+    private final ConcurrentHashMap<String, OfferBookEntry> indexedEntries = new ConcurrentHashMap<>();
     
+    // SELL offers: lowest price first; BUY offers: highest price first; same price: oldest first
+    private static final Comparator<OfferBookEntry> SELL_ORDER = Comparator
+            .comparing(OfferBookEntry::getPrice)
+            .thenComparingLong(OfferBookEntry::getCreatedAt)
+            .thenComparing(OfferBookEntry::getIdentifier);
+    private static final Comparator<OfferBookEntry> BUY_ORDER = Comparator
+            .comparing(OfferBookEntry::getPrice, Comparator.reverseOrder())
+            .thenComparingLong(OfferBookEntry::getCreatedAt)
+            .thenComparing(OfferBookEntry::getIdentifier);
+
     /**
      * Get instance of OfferCache
      *
@@ -81,6 +95,7 @@ public class OfferCache {
                     Offer existingOffer = offerCache.get(identifier);
                     if (existingOffer == null || offer.getUpdatedAt().isAfter(existingOffer.getUpdatedAt())) {
                         offerCache.put(identifier, offer);
+                        index(offer);
                         loadedCount++;
                     }
                 }
@@ -123,6 +138,7 @@ public class OfferCache {
     public Offer getOrCreateOffer(String identifier) {
         Offer offer = getOrInitOffer(identifier);
         offerCache.put(identifier, offer);
+        index(offer);
         return offer;
     }
     
@@ -137,10 +153,97 @@ public class OfferCache {
             return;
         }
         
-        updateCounter.incrementAndGet();
-        String identifier = offer.getIdentifier();
-        offerCache.put(identifier, offer);
-        offerRocksDB.saveOffer(offer);
+        addOfferToBatch(offer);
+    }
+    
+    /**
+     * Get the best listed offers of a symbol and offer type.
+     * SELL offers are sorted by ascending price, BUY offers by descending price,
+     * and offers with the same price by creation time.
+     *
+     * @param symbol Symbol of offer (e.g. USDT:VND)
+     * @param type Offer type
+     * @param paymentMethodId Payment method to filter by, null or empty for all
+     * @param countryCode Country code to filter by, null or empty for all
+     * @param limit Maximum number of offers to return
+     * @return Snapshots of listed offers in book order
+     */
+    public List<OfferBookEntry> getOfferBook(String symbol, Offer.OfferType type, String paymentMethodId,
+            String countryCode, int limit) {
+        List<OfferBookEntry> entries = new ArrayList<>();
+        ConcurrentSkipListSet<OfferBookEntry> book = offerBooks.get(bookKey(symbol, type));
+        if (book == null || limit <= 0) {
+            return entries;
+        }
+        
+        for (OfferBookEntry entry : book) {
+            if (matches(paymentMethodId, entry.getPaymentMethodId()) && matches(countryCode, entry.getCountryCode())) {
+                entries.add(entry);
+                if (entries.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Get the best listed offer of a symbol and offer type
+     *
+     * @param symbol Symbol of offer
+     * @param type Offer type
+     * @return Optional containing the best offer if the book is not empty
+     */
+    public Optional<OfferBookEntry> getBestOffer(String symbol, Offer.OfferType type) {
+        List<OfferBookEntry> entries = getOfferBook(symbol, type, null, null, 1);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(0));
+    }
+    
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isEmpty() || filter.equals(value);
+    }
+    
+    private static String bookKey(String symbol, Offer.OfferType type) {
+        return symbol + "|" + type;
+    }
+    
+    /**
+     * Update the offer book index. Processors modify the offer object in cache directly,
+     * so the index compares against the previously indexed snapshot to remove the old entry.
+     * Synchronized because the output processor also re-indexes offers when batching them.
+     *
+     * @param offer Offer to index
+     */
+    private synchronized void index(Offer offer) {
+        if (offer.getIdentifier() == null) {
+            return;
+        }
+        
+        if (!OfferBookEntry.isListed(offer)) {
+            unindex(indexedEntries.remove(offer.getIdentifier()));
+            return;
+        }
+        
+        OfferBookEntry entry = new OfferBookEntry(offer);
+        OfferBookEntry previous = indexedEntries.put(entry.getIdentifier(), entry);
+        if (entry.equals(previous)) {
+            return;
+        }
+        unindex(previous);
+        
+        Comparator<OfferBookEntry> order = entry.getType() == Offer.OfferType.BUY ? BUY_ORDER : SELL_ORDER;
+        offerBooks.computeIfAbsent(bookKey(entry.getSymbol(), entry.getType()),
+                key -> new ConcurrentSkipListSet<>(order)).add(entry);
+    }
+    
+    private void unindex(OfferBookEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        ConcurrentSkipListSet<OfferBookEntry> book = offerBooks.get(bookKey(entry.getSymbol(), entry.getType()));
+        if (book != null) {
+            book.remove(entry);
+        }
     }
     
     /**
@@ -156,30 +259,17 @@ public class OfferCache {
         
         String identifier = offer.getIdentifier();
         offerCache.put(identifier, offer);
+        index(offer);
         
-        // Use compute to only save the latest version based on timestamp
-        latestOffers.compute(identifier, (key, existingOffer) -> {
-            if (existingOffer == null || offer.getUpdatedAt().isAfter(existingOffer.getUpdatedAt())) {
-                return offer;
-            }
-            return existingOffer;
-        });
-        
-        // If batch is large enough, flush to RocksDB
-        if (latestOffers.size() >= UPDATE_THRESHOLD) {
-            flushOfferToDisk();
-        }
+        // Batch only keeps the latest version based on timestamp
+        latestOffers.put(identifier, offer);
     }
-    
+
     /**
-     * Check if batch should be flushed
-     *
-     * @return true if should flush
+     * Số bản ghi đang chờ lưu xuống RocksDB
      */
-    public boolean offerCacheShouldFlush() {
-        // Return true when update count is divisible by UPDATE_THRESHOLD
-        int count = updateCounter.get();
-        return count > 0 && count % UPDATE_THRESHOLD == 0;
+    public int pendingFlushCount() {
+        return latestOffers.size();
     }
     
     /**
@@ -192,8 +282,7 @@ public class OfferCache {
         }
         
         logger.info("Saving {} offers to RocksDB", latestOffers.size());
-        offerRocksDB.saveOfferBatch(latestOffers);
-        latestOffers.clear();
+        latestOffers.flush(offerRocksDB::saveOfferBatch);
         logger.info("Offer flush to RocksDB completed");
     }
     
@@ -204,6 +293,9 @@ public class OfferCache {
      */
     public void removeOffer(String identifier) {
         offerCache.remove(identifier);
+        synchronized (this) {
+            unindex(indexedEntries.remove(identifier));
+        }
     }
     
     /**
@@ -212,6 +304,8 @@ public class OfferCache {
     public void clearAll() {
         offerCache.clear();
         latestOffers.clear();
+        offerBooks.clear();
+        indexedEntries.clear();
     }
     
     /**
@@ -0,0 +1,127 @@
+package com.exchangeengine.storage.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.exchangeengine.model.Tick;
+
+/**
+ * Bảng băm tick index (int) -> Tick của một pool, dùng open addressing với dò
+ * tuyến tính. Key chính là tick.getTickIndex() nên không cần mảng key riêng và
+ * không boxing Integer hay tạo chuỗi "pair-index" khi tra cứu.
+ *
+ * Ghi được đồng bộ (một writer là processor của pool), đọc không khóa: mỗi slot
+ * đọc qua AtomicReferenceArray và bảng mới khi resize được publish qua field
+ * volatile. Tick không bao giờ bị xóa khỏi bảng nên dò tuyến tính dừng ở slot
+ * rỗng đầu tiên.
+ */
+final class PoolTickMap {
+  private static final int MIN_CAPACITY = 16;
+
+  private volatile AtomicReferenceArray<Tick> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+  private int size;
+
+  Tick get(int tickIndex) {
+    AtomicReferenceArray<Tick> tab = table;
+    int mask = tab.length() - 1;
+    for (int i = slot(tickIndex, mask);; i = (i + 1) & mask) {
+      Tick tick = tab.get(i);
+      if (tick == null || tick.getTickIndex() == tickIndex) {
+        return tick;
+      }
+    }
+  }
+
+  /**
+   * Thêm hoặc thay thế tick có cùng tick index
+   *
+   * @return Tick cũ, null nếu chưa có
+   */
+  synchronized Tick put(Tick tick) {
+    if ((size + 1) * 2 > table.length()) {
+      resize(table.length() * 2);
+    }
+    return insert(table, tick);
+  }
+
+  /**
+   * Chỉ thay thế tick đang có nếu tick mới có updatedAt lớn hơn
+   */
+  synchronized void putIfNewer(Tick tick) {
+    Tick existing = get(tick.getTickIndex());
+    if (existing == null || tick.getUpdatedAt() > existing.getUpdatedAt()) {
+      put(tick);
+    }
+  }
+
+  /**
+   * Lấy toàn bộ tick và làm rỗng bảng trong cùng một thao tác
+   */
+  synchronized List<Tick> drain() {
+    List<Tick> ticks = values();
+    clear();
+    return ticks;
+  }
+
+  List<Tick> values() {
+    AtomicReferenceArray<Tick> tab = table;
+    List<Tick> ticks = new ArrayList<>();
+    for (int i = 0; i < tab.length(); i++) {
+      Tick tick = tab.get(i);
+      if (tick != null) {
+        ticks.add(tick);
+      }
+    }
+    return ticks;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  synchronized void clear() {
+    table = new AtomicReferenceArray<>(MIN_CAPACITY);
+    size = 0;
+  }
+
+  private Tick insert(AtomicReferenceArray<Tick> tab, Tick tick) {
+    int tickIndex = tick.getTickIndex();
+    int mask = tab.length() - 1;
+    for (int i = slot(tickIndex, mask);; i = (i + 1) & mask) {
+      Tick existing = tab.get(i);
+      if (existing == null) {
+        tab.set(i, tick);
+        size++;
+        return null;
+      }
+      if (existing.getTickIndex() == tickIndex) {
+        tab.set(i, tick);
+        return existing;
+      }
+    }
+  }
+
+  private void resize(int capacity) {
+    AtomicReferenceArray<Tick> old = table;
+    AtomicReferenceArray<Tick> resized = new AtomicReferenceArray<>(capacity);
+    size = 0;
+    for (int i = 0; i < old.length(); i++) {
+      Tick tick = old.get(i);
+      if (tick != null) {
+        insert(resized, tick);
+      }
+    }
+    table = resized;
+  }
+
+  private static int slot(int tickIndex, int mask) {
+    // Tick index thường cách đều theo tickSpacing, trộn bit để các slot không dồn cụm
+    int h = tickIndex * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
@@ -0,0 +1,529 @@
+package com.exchangeengine.storage.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.Account;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmPosition;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.storage.rocksdb.AccountRocksDB;
+import com.exchangeengine.storage.rocksdb.AmmPoolRocksDB;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.storage.rocksdb.TickBitmapRocksDB;
+import com.exchangeengine.storage.rocksdb.TickRocksDB;
+import com.exchangeengine.util.EnvManager;
+import com.exchangeengine.util.ObjectCloner;
+
+/**
+ * Snapshot chỉ đọc của Account, Tick và AmmPosition đang mở cho các query thread.
+ *
+ * Disruptor thread ghi nhận key thay đổi sau mỗi event (capture) và cuối mỗi
+ * batch copy các object đó từ cache rồi publish với epoch mới (publish). Query
+ * thread chỉ đọc bản copy nên không bao giờ thấy object đang bị engine sửa dở.
+ *
+ * Chỉ disruptor thread tạo snapshot: tick view của mọi pool được dựng khi
+ * disruptor khởi động (seedTickViews), sau đó chỉ publish các tick/position thay
+ * đổi dưới dạng delta (DeltaSnapshotMap). Snapshot account giữ tối đa
+ * READ_SNAPSHOT_MAX_ACCOUNTS account publish gần nhất; account không có snapshot
+ * được đọc từ record off-heap của AccountCache (seqlock, luôn là bản copy nhất
+ * quán) và không được đưa vào snapshot.
+ *
+ * Ở chế độ query replica (xem enableReplicaMode) dữ liệu được đọc thẳng từ
+ * RocksDB secondary; tick view được giữ đến lần catch up tiếp theo.
+ *
+ * Object trả về được dùng chung giữa các query thread: KHÔNG được sửa.
+ */
+public class ReadSnapshotCache {
+  private static final Logger logger = LoggerFactory.getLogger(ReadSnapshotCache.class);
+
+  private static volatile ReadSnapshotCache instance;
+
+  // Chỉ truy cập từ disruptor thread
+  private final Set<String> dirtyAccountKeys = new HashSet<>();
+  private final Set<String> dirtyPoolPairs = new HashSet<>();
+  private final Map<String, Set<Integer>> dirtyTickIndexes = new HashMap<>();
+  private final Map<String, Set<String>> dirtyPositionIds = new HashMap<>();
+  // Thứ tự publish của các account có snapshot, account cũ nhất bị bỏ khi vượt giới hạn
+  private final Map<String, Boolean> publishedAccountKeys;
+
+  private final int maxAccounts;
+  private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, TickView> tickViews = new ConcurrentHashMap<>();
+  private volatile long epoch;
+
+  // Query replica: catch up (ghi) và đọc RocksDB secondary (đọc) loại trừ nhau
+  private volatile boolean replicaMode;
+  private final ReadWriteLock catchUpLock = new ReentrantReadWriteLock();
+
+  /**
+   * Lấy instance của ReadSnapshotCache.
+   *
+   * @return Instance của ReadSnapshotCache
+   */
+  public static ReadSnapshotCache getInstance() {
+    if (instance == null) {
+      synchronized (ReadSnapshotCache.class) {
+        if (instance == null) {
+          instance = new ReadSnapshotCache();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Constructor riêng tư để đảm bảo Singleton pattern
+   */
+  private ReadSnapshotCache() {
+    this(EnvManager.getInstance().getInt("READ_SNAPSHOT_MAX_ACCOUNTS", 100000));
+  }
+
+  /**
+   * @param maxAccounts Số account tối đa giữ snapshot
+   */
+  ReadSnapshotCache(int maxAccounts) {
+    this.maxAccounts = Math.max(1, maxAccounts);
+    this.publishedAccountKeys = new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        if (size() <= maxAccounts) {
+          return false;
+        }
+        accounts.remove(eldest.getKey());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Thiết lập instance cho mục đích testing.
+   * CHỈ SỬ DỤNG TRONG UNIT TEST.
+   *
+   * @param testInstance Instance để sử dụng cho testing
+   */
+  public static void setTestInstance(ReadSnapshotCache testInstance) {
+    synchronized (ReadSnapshotCache.class) {
+      instance = testInstance;
+    }
+  }
+
+  /**
+   * Reset instance - chỉ sử dụng cho mục đích testing.
+   */
+  public static void resetInstance() {
+    synchronized (ReadSnapshotCache.class) {
+      instance = null;
+    }
+  }
+
+  /**
+   * Ghi nhận các Account, AmmPool và Tick bị thay đổi bởi một event.
+   * Chỉ gọi từ disruptor thread.
+   *
+   * @param result ProcessResult của event vừa xử lý
+   */
+  public void capture(ProcessResult result) {
+    if (result == null) {
+      return;
+    }
+
+    result.getAccount().ifPresent(this::markAccount);
+    result.getRecipientAccount().ifPresent(this::markAccount);
+    result.getFiatAccount().ifPresent(this::markAccount);
+    result.getCoinAccount().ifPresent(this::markAccount);
+    result.getBuyerAccount().ifPresent(this::markAccount);
+    result.getSellerAccount().ifPresent(this::markAccount);
+    result.getAccounts().values().forEach(this::markAccount);
+
+    result.getAmmPool().ifPresent(pool -> dirtyPoolPairs.add(pool.getPair()));
+    for (Tick tick : result.getTicks()) {
+      dirtyPoolPairs.add(tick.getPoolPair());
+      dirtyTickIndexes.computeIfAbsent(tick.getPoolPair(), pair -> new HashSet<>()).add(tick.getTickIndex());
+    }
+    result.getAmmPosition().ifPresent(position -> {
+      if (position.getPoolPair() != null && position.getIdentifier() != null) {
+        dirtyPoolPairs.add(position.getPoolPair());
+        dirtyPositionIds.computeIfAbsent(position.getPoolPair(), pair -> new HashSet<>()).add(position.getIdentifier());
+      }
+    });
+  }
+
+  private void markAccount(Account account) {
+    if (account.getKey() != null) {
+      dirtyAccountKeys.add(account.getKey());
+    }
+  }
+
+  /**
+   * Dựng tick view cho mọi pool đang có trong cache. Gọi từ disruptor thread khi
+   * disruptor khởi động, trước event đầu tiên, để query thread không bao giờ phải
+   * tự copy pool/tick/position từ cache.
+   */
+  public void seedTickViews() {
+    dirtyPoolPairs.addAll(AmmPoolCache.getInstance().getAmmPoolPairs());
+    publish();
+  }
+
+  /**
+   * Copy các object đã ghi nhận từ cache và publish với epoch mới.
+   * Gọi từ disruptor thread ở cuối batch, khi không có event nào đang sửa cache.
+   */
+  public void publish() {
+    if (dirtyAccountKeys.isEmpty() && dirtyPoolPairs.isEmpty()) {
+      return;
+    }
+
+    long nextEpoch = epoch + 1;
+    try {
+      for (String accountKey : dirtyAccountKeys) {
+        Optional<Account> account = AccountCache.getInstance().getAccount(accountKey);
+        if (account.isPresent()) {
+          accounts.put(accountKey, ObjectCloner.duplicate(account.get(), Account.class));
+          publishedAccountKeys.put(accountKey, Boolean.TRUE);
+        } else {
+          accounts.remove(accountKey);
+          publishedAccountKeys.remove(accountKey);
+        }
+      }
+
+      for (String poolPair : dirtyPoolPairs) {
+        publishTickView(poolPair, dirtyTickIndexes.getOrDefault(poolPair, Collections.emptySet()),
+            dirtyPositionIds.getOrDefault(poolPair, Collections.emptySet()), nextEpoch);
+      }
+    } catch (Exception e) {
+      logger.error("Error publishing read snapshots: {}", e.getMessage(), e);
+    } finally {
+      dirtyAccountKeys.clear();
+      dirtyPoolPairs.clear();
+      dirtyTickIndexes.clear();
+      dirtyPositionIds.clear();
+      epoch = nextEpoch;
+    }
+  }
+
+  private void publishTickView(String poolPair, Set<Integer> changedTickIndexes, Set<String> changedPositionIds,
+      long nextEpoch) {
+    Optional<AmmPool> pool = AmmPoolCache.getInstance().getAmmPool(poolPair);
+    if (!pool.isPresent()) {
+      tickViews.remove(poolPair);
+      LiquidityIndexCache.getInstance().invalidate(poolPair);
+      return;
+    }
+
+    TickView previous = tickViews.get(poolPair);
+    Map<Integer, Tick> changedTicks = null;
+    DeltaSnapshotMap<Integer, Tick> ticks;
+    if (previous == null) {
+      ticks = DeltaSnapshotMap.of(loadTicks(poolPair));
+    } else {
+      // Chỉ copy các tick thay đổi, phần còn lại dùng chung với view trước
+      Map<Integer, Tick> changes = new HashMap<>();
+      Optional<TickBitmap> tickBitmap = TickBitmapCache.getInstance().getTickBitmap(poolPair);
+      TickCache tickCache = TickCache.getInstance();
+      for (Integer tickIndex : changedTickIndexes) {
+        Optional<Tick> tick = tickCache.getTick(poolPair, tickIndex);
+        if (tick.isPresent() && tickBitmap.isPresent() && tickBitmap.get().isSet(tickIndex)) {
+          changes.put(tickIndex, ObjectCloner.duplicate(tick.get(), Tick.class));
+        } else {
+          changes.put(tickIndex, null);
+        }
+      }
+      ticks = previous.tickEntries.apply(changes);
+      changedTicks = changes;
+    }
+
+    DeltaSnapshotMap<String, AmmPosition> positions;
+    if (previous == null) {
+      positions = DeltaSnapshotMap.of(loadPositions(poolPair));
+    } else {
+      Map<String, AmmPosition> changes = new HashMap<>();
+      AmmPositionCache ammPositionCache = AmmPositionCache.getInstance();
+      for (String identifier : changedPositionIds) {
+        Optional<AmmPosition> position = ammPositionCache.getAmmPosition(identifier);
+        if (position.isPresent() && position.get().isOpen()) {
+          changes.put(identifier, ObjectCloner.duplicate(position.get(), AmmPosition.class));
+        } else {
+          changes.put(identifier, null);
+        }
+      }
+      positions = previous.positionEntries.apply(changes);
+    }
+
+    long poolVersion = pool.get().getTxCount();
+    tickViews.put(poolPair, new TickView(poolPair, pool.get().duplicate(), poolVersion,
+        nextEpoch, ticks, positions));
+    if (changedTicks != null) {
+      // Index thanh khoản đi theo view vừa publish, không đọc lại TickCache
+      LiquidityIndexCache.getInstance().advance(poolPair, previous.getPoolVersion(), poolVersion, changedTicks);
+    }
+  }
+
+  private TreeMap<Integer, Tick> loadTicks(String poolPair) {
+    TreeMap<Integer, Tick> ticks = new TreeMap<>();
+    Optional<TickBitmap> tickBitmap = TickBitmapCache.getInstance().getTickBitmap(poolPair);
+    if (tickBitmap.isPresent()) {
+      TickCache tickCache = TickCache.getInstance();
+      for (Integer tickIndex : tickBitmap.get().getSetBits()) {
+        tickCache.getTick(poolPair, tickIndex)
+            .ifPresent(tick -> ticks.put(tickIndex, ObjectCloner.duplicate(tick, Tick.class)));
+      }
+    }
+    return ticks;
+  }
+
+  private TreeMap<String, AmmPosition> loadPositions(String poolPair) {
+    TreeMap<String, AmmPosition> positions = new TreeMap<>();
+    for (AmmPosition position : AmmPositionCache.getInstance().getAmmPositionsByPool(poolPair)) {
+      if (position.isOpen()) {
+        positions.put(position.getIdentifier(), ObjectCloner.duplicate(position, AmmPosition.class));
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Lấy snapshot của Account.
+   * Account không có snapshot (chưa thay đổi từ khi khởi động hoặc đã bị bỏ do
+   * vượt giới hạn) được đọc từ record off-heap của AccountCache: mỗi lần đọc là
+   * một bản copy nhất quán, không phải object engine đang sửa.
+   *
+   * @param accountKey Key của account
+   * @return bản copy chỉ đọc của Account
+   */
+  public Optional<Account> getAccount(String accountKey) {
+    if (replicaMode) {
+      catchUpLock.readLock().lock();
+      try {
+        return AccountRocksDB.getInstance().getAccount(accountKey);
+      } finally {
+        catchUpLock.readLock().unlock();
+      }
+    }
+
+    Account snapshot = accounts.get(accountKey);
+    if (snapshot != null) {
+      return Optional.of(snapshot);
+    }
+
+    return AccountCache.getInstance().getAccount(accountKey);
+  }
+
+  /**
+   * Bỏ snapshot của Account bị sửa ngoài disruptor thread (vd: reset balance).
+   *
+   * @param accountKey Key của account
+   */
+  public void invalidateAccount(String accountKey) {
+    accounts.remove(accountKey);
+  }
+
+  /**
+   * Lấy view chỉ đọc các tick đã khởi tạo của pool, do disruptor thread publish.
+   *
+   * @param poolPair Pool pair
+   * @return TickView, rỗng nếu pool chưa tồn tại hoặc chưa được publish
+   */
+  public TickView getTickView(String poolPair) {
+    TickView view = tickViews.get(poolPair);
+    if (view != null) {
+      return view;
+    }
+
+    if (replicaMode) {
+      return loadReplicaTickView(poolPair);
+    }
+
+    return new TickView(poolPair, null, 0, epoch, DeltaSnapshotMap.empty(), DeltaSnapshotMap.empty());
+  }
+
+  /**
+   * Các pool đã có tick view được publish, cho các job nền duyệt pool mà không
+   * đọc AmmPoolCache của engine.
+   *
+   * @return Bản copy tập pool pair
+   */
+  public Set<String> getTickViewPoolPairs() {
+    return new TreeSet<>(tickViews.keySet());
+  }
+
+  /**
+   * Lấy AmmPool để validate query (chỉ đọc trạng thái pool, không sửa).
+   *
+   * @param poolPair Pool pair
+   * @return bản copy của pool trong tick view đã publish, hoặc từ RocksDB
+   *         secondary nếu là replica
+   */
+  public Optional<AmmPool> getAmmPool(String poolPair) {
+    if (replicaMode) {
+      catchUpLock.readLock().lock();
+      try {
+        return AmmPoolRocksDB.getInstance().getAmmPool(poolPair);
+      } finally {
+        catchUpLock.readLock().unlock();
+      }
+    }
+    return getTickView(poolPair).getPool();
+  }
+
+  /**
+   * Chuyển sang chế độ query replica: mọi lần đọc đi thẳng vào RocksDB
+   * secondary, không dùng cache của engine (process replica không chạy engine).
+   */
+  public void enableReplicaMode() {
+    replicaMode = true;
+    accounts.clear();
+    tickViews.clear();
+  }
+
+  public boolean isReplicaMode() {
+    return replicaMode;
+  }
+
+  /**
+   * Gọi tryCatchUpWithPrimary rồi bỏ các tick view cũ. Chỉ dùng ở chế độ replica,
+   * gọi định kỳ từ một thread duy nhất.
+   */
+  public void catchUpWithPrimary() {
+    catchUpLock.writeLock().lock();
+    try {
+      RocksDBService.getInstance().tryCatchUpWithPrimary();
+      tickViews.clear();
+      epoch = epoch + 1;
+    } catch (RocksDBException e) {
+      logger.error("Error catching up with primary: {}", e.getMessage(), e);
+    } finally {
+      catchUpLock.writeLock().unlock();
+    }
+  }
+
+  private TickView loadReplicaTickView(String poolPair) {
+    catchUpLock.readLock().lock();
+    try {
+      Optional<AmmPool> pool = AmmPoolRocksDB.getInstance().getAmmPool(poolPair);
+      TreeMap<Integer, Tick> ticks = new TreeMap<>();
+      Optional<TickBitmap> tickBitmap = TickBitmapRocksDB.getInstance().getTickBitmap(poolPair);
+      if (tickBitmap.isPresent()) {
+        // Một lần range scan theo prefix của pool thay vì get từng tick
+        for (Tick tick : TickRocksDB.getInstance().getPoolTicks(poolPair)) {
+          // BitSet không nhận index âm, tick âm không thể nằm trong bitmap
+          if (tick.getTickIndex() >= 0 && tickBitmap.get().isSet(tick.getTickIndex())) {
+            ticks.put(tick.getTickIndex(), tick);
+          }
+        }
+      }
+
+      // Replica không có index position theo pool nên view không chứa position
+      TickView loaded = new TickView(poolPair, pool.orElse(null), pool.map(AmmPool::getTxCount).orElse(0), epoch,
+          DeltaSnapshotMap.of(ticks), DeltaSnapshotMap.empty());
+      if (!pool.isPresent()) {
+        return loaded;
+      }
+      // Put trong read lock để không còn view cũ sau khi catch up xóa tickViews
+      TickView existing = tickViews.putIfAbsent(poolPair, loaded);
+      return existing != null ? existing : loaded;
+    } finally {
+      catchUpLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Epoch của lần publish (hoặc catch up với primary ở chế độ replica) gần nhất.
+   *
+   * @return epoch, 0 nếu chưa publish lần nào
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * Bản copy của pool, các tick đã khởi tạo và các position đang mở của pool đó
+   * tại cùng một phiên bản pool (txCount).
+   */
+  public static final class TickView {
+    private final String poolPair;
+    private final AmmPool pool;
+    private final long poolVersion;
+    private final long epoch;
+    private final DeltaSnapshotMap<Integer, Tick> tickEntries;
+    private final DeltaSnapshotMap<String, AmmPosition> positionEntries;
+
+    TickView(String poolPair, AmmPool pool, long poolVersion, long epoch, DeltaSnapshotMap<Integer, Tick> tickEntries,
+        DeltaSnapshotMap<String, AmmPosition> positionEntries) {
+      this.poolPair = poolPair;
+      this.pool = pool;
+      this.poolVersion = poolVersion;
+      this.epoch = epoch;
+      this.tickEntries = tickEntries;
+      this.positionEntries = positionEntries;
+    }
+
+    public String getPoolPair() {
+      return poolPair;
+    }
+
+    /**
+     * Bản copy của pool cùng phiên bản với ticks. Không được sửa object này.
+     *
+     * @return AmmPool, rỗng nếu pool không tồn tại
+     */
+    public Optional<AmmPool> getPool() {
+      return Optional.ofNullable(pool);
+    }
+
+    public long getPoolVersion() {
+      return poolVersion;
+    }
+
+    public long getEpoch() {
+      return epoch;
+    }
+
+    /**
+     * Ticks theo tick index tăng dần (không sửa được).
+     *
+     * @return map tickIndex -> Tick
+     */
+    public NavigableMap<Integer, Tick> getTicks() {
+      return tickEntries.toMap();
+    }
+
+    /**
+     * Các position đang mở của pool theo identifier (không sửa được).
+     *
+     * @return map identifier -> AmmPosition
+     */
+    public NavigableMap<String, AmmPosition> getPositions() {
+      return positionEntries.toMap();
+    }
+
+    /**
+     * View được publish bởi disruptor thread (hoặc nạp từ RocksDB secondary ở
+     * chế độ replica), khác với view rỗng trả về cho pool chưa publish.
+     *
+     * @return true nếu view có pool
+     */
+    public boolean isPublished() {
+      return pool != null;
+    }
+  }
+}
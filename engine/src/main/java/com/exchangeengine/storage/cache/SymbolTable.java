@@ -0,0 +1,229 @@
+package com.exchangeengine.storage.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.SymbolEntry;
+import com.exchangeengine.storage.rocksdb.SymbolRocksDB;
+
+/**
+ * Bảng symbol cấp id số nguyên liên tục (0, 1, 2, ...) cho account key và pool
+ * pair ngay lần đầu gặp. Cache nội bộ dùng id để đánh index mảng thay vì băm
+ * chuỗi, và giữ một bản String duy nhất cho mỗi symbol để các model (Account,
+ * BalanceLock, ...) dùng chung thay vì mỗi event giữ một bản sao. Chuỗi chỉ
+ * được dùng lại ở biên Kafka và RocksDB.
+ *
+ * Id đã cấp không đổi và được lưu trong settings CF.
+ */
+public class SymbolTable {
+  private static final Logger logger = LoggerFactory.getLogger(SymbolTable.class);
+
+  private static volatile SymbolTable instance;
+
+  public enum Kind {
+    ACCOUNT("account"),
+    POOL("pool");
+
+    private final String value;
+
+    Kind(String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public static Kind fromValue(String value) {
+      for (Kind kind : values()) {
+        if (kind.value.equals(value)) {
+          return kind;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final Map<Kind, Symbols> symbols = new EnumMap<>(Kind.class);
+  private final Map<String, SymbolEntry> latestSymbols = new ConcurrentHashMap<>();
+
+  public static synchronized SymbolTable getInstance() {
+    if (instance == null) {
+      instance = new SymbolTable();
+    }
+    return instance;
+  }
+
+  private SymbolTable() {
+    for (Kind kind : Kind.values()) {
+      symbols.put(kind, new Symbols());
+    }
+  }
+
+  public static void setTestInstance(SymbolTable testInstance) {
+    instance = testInstance;
+  }
+
+  public static synchronized void resetInstance() {
+    instance = null;
+  }
+
+  protected SymbolRocksDB getSymbolRocksDB() {
+    return SymbolRocksDB.getInstance();
+  }
+
+  /**
+   * Lấy id của symbol, cấp id mới nếu chưa có
+   *
+   * @param kind Loại symbol
+   * @param name Chuỗi symbol
+   * @return Id của symbol
+   */
+  public int getOrAssignId(Kind kind, String name) {
+    Symbols table = symbols.get(kind);
+    Integer id = table.ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (table) {
+      id = table.ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      int assigned = table.append(name);
+      latestSymbols.put(kind.getValue() + ":" + name, new SymbolEntry(kind.getValue(), name, assigned));
+      return assigned;
+    }
+  }
+
+  /**
+   * Lấy id của symbol mà không cấp id mới
+   *
+   * @return Id của symbol, -1 nếu chưa có
+   */
+  public int getId(Kind kind, String name) {
+    if (name == null) {
+      return -1;
+    }
+    Integer id = symbols.get(kind).ids.get(name);
+    return id != null ? id : -1;
+  }
+
+  /**
+   * Lấy chuỗi symbol theo id
+   *
+   * @return Chuỗi symbol, null nếu id chưa được cấp
+   */
+  public String getName(Kind kind, int id) {
+    String[] names = symbols.get(kind).names;
+    return id >= 0 && id < names.length ? names[id] : null;
+  }
+
+  /**
+   * Trả về bản String dùng chung của symbol (cấp id nếu chưa có)
+   */
+  public String intern(Kind kind, String name) {
+    if (name == null) {
+      return null;
+    }
+    return getName(kind, getOrAssignId(kind, name));
+  }
+
+  /**
+   * Số symbol đã cấp id của một loại
+   */
+  public int size(Kind kind) {
+    return symbols.get(kind).ids.size();
+  }
+
+  /**
+   * Tải các id đã cấp từ RocksDB. Phải chạy trước khi các cache khác được khởi
+   * tạo để id đã lưu không bị cấp lại cho symbol khác.
+   *
+   * @throws IllegalStateException nếu không đọc được: engine không được khởi
+   *                               động với bảng rỗng vì sẽ cấp trùng id đã lưu
+   */
+  public void initializeSymbolTable() {
+    try {
+      List<SymbolEntry> entries = getSymbolRocksDB().getAllSymbols();
+      int loadedCount = 0;
+
+      for (SymbolEntry entry : entries) {
+        Kind kind = Kind.fromValue(entry.getKind());
+        if (kind == null || entry.getName() == null || entry.getId() < 0) {
+          continue;
+        }
+        Symbols table = symbols.get(kind);
+        synchronized (table) {
+          table.load(entry.getName(), entry.getId());
+        }
+        loadedCount++;
+      }
+
+      logger.info("Symbol table đã được khởi tạo: {} bản ghi đã tải", loadedCount);
+    } catch (Exception e) {
+      logger.error("Không thể khởi tạo symbol table: {}", e.getMessage(), e);
+      throw new IllegalStateException("Không thể khởi tạo symbol table: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Số symbol mới cấp id đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    return latestSymbols.size();
+  }
+
+  /**
+   * Lưu các symbol mới được cấp id vào RocksDB
+   */
+  public void flushSymbolsToDisk() {
+    if (latestSymbols.isEmpty()) {
+      return;
+    }
+
+    List<SymbolEntry> batch = new ArrayList<>(latestSymbols.values());
+    getSymbolRocksDB().saveSymbolBatch(batch);
+    for (SymbolEntry entry : batch) {
+      latestSymbols.remove(entry.getKind() + ":" + entry.getName(), entry);
+    }
+    logger.debug("Đã lưu {} symbols", batch.size());
+  }
+
+  /**
+   * Các symbol của một loại: chuỗi -> id và mảng id -> chuỗi. Ghi được đồng bộ
+   * trên chính object, mảng names được thay mới khi đầy và publish qua field
+   * volatile nên đọc không cần khóa.
+   */
+  private static final class Symbols {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int nextId;
+
+    private int append(String name) {
+      int id = nextId;
+      load(name, id);
+      return id;
+    }
+
+    private void load(String name, int id) {
+      String[] current = names;
+      if (id >= current.length) {
+        current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+      }
+      current[id] = name;
+      // Publish chuỗi trước rồi mới publish id để reader thấy id thì đọc được tên
+      names = current;
+      ids.put(name, id);
+      nextId = Math.max(nextId, id + 1);
+    }
+  }
+}
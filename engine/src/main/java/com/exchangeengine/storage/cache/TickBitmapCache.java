@@ -1,10 +1,8 @@
 package com.exchangeengine.storage.cache;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,10 +17,8 @@ public class TickBitmapCache {
   private final TickBitmapRocksDB tickBitmapRocksDB = TickBitmapRocksDB.getInstance();
 
   private final ConcurrentHashMap<String, TickBitmap> tickBitmapCache = new ConcurrentHashMap<>();
-  private final Map<String, TickBitmap> latestTickBitmaps = new ConcurrentHashMap<>();
-
-  private final AtomicInteger updateCounter = new AtomicInteger(0);
-  private static final int UPDATE_THRESHOLD = 50;
+  private final WriteBehindBuffer<TickBitmap> latestTickBitmaps = new WriteBehindBuffer<>("TickBitmap",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
   public static synchronized TickBitmapCache getInstance() {
     if (instance == null) {
@@ -58,8 +54,6 @@ public class TickBitmapCache {
   }
 
   public void updateTickBitmap(TickBitmap tickBitmap) {
-    updateCounter.incrementAndGet();
-
     // Kiểm tra null trước khi thêm vào cache và batch
     if (tickBitmap != null && tickBitmap.getPoolPair() != null) {
       tickBitmapCache.put(tickBitmap.getPoolPair(), tickBitmap);
@@ -68,17 +62,14 @@ public class TickBitmapCache {
   }
 
   public void addTickBitmapToBatch(TickBitmap tickBitmap) {
-    latestTickBitmaps.compute(tickBitmap.getPoolPair(), (key, existingBitmap) -> {
-      if (existingBitmap == null || tickBitmap.getUpdatedAt() > existingBitmap.getUpdatedAt()) {
-        return tickBitmap;
-      }
-      return existingBitmap;
-    });
+    latestTickBitmaps.put(tickBitmap.getPoolPair(), tickBitmap);
   }
 
-  public boolean tickBitmapCacheShouldFlush() {
-    int count = updateCounter.get();
-    return (count > 0 && count % UPDATE_THRESHOLD == 0);
+  /**
+   * Số bản ghi đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    return latestTickBitmaps.size();
   }
 
   public void flushTickBitmapsToDisk() {
@@ -86,8 +77,7 @@ public class TickBitmapCache {
       return;
     }
 
-    tickBitmapRocksDB.saveTickBitmapBatch(latestTickBitmaps);
-    latestTickBitmaps.clear();
+    latestTickBitmaps.flush(tickBitmapRocksDB::saveTickBitmapBatch);
     logger.debug("Đã lưu tickBitmap thành công");
   }
 
@@ -1,10 +1,9 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,17 +11,18 @@ import org.slf4j.LoggerFactory;
 import com.exchangeengine.model.Tick;
 import com.exchangeengine.storage.rocksdb.TickRocksDB;
 
+/**
+ * Cache tick theo từng pool: mỗi pool có một PoolTickMap tra cứu bằng tick
+ * index kiểu int, không phải ghép chuỗi "pair-index" trên đường swap.
+ */
 public class TickCache {
   private static final Logger logger = LoggerFactory.getLogger(TickCache.class);
 
   private static volatile TickCache instance;
   private final TickRocksDB tickRocksDB = TickRocksDB.getInstance();
 
-  private final ConcurrentHashMap<String, Tick> tickCache = new ConcurrentHashMap<>();
-  private final Map<String, Tick> latestTicks = new ConcurrentHashMap<>();
-
-  private final AtomicInteger updateCounter = new AtomicInteger(0);
-  private static final int BACKUP_BATCH_SIZE = 1000;
+  private final ConcurrentHashMap<String, PoolTickMap> tickCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, PoolTickMap> latestTicks = new ConcurrentHashMap<>();
 
   public static synchronized TickCache getInstance() {
     if (instance == null) {
@@ -42,14 +42,37 @@ public class TickCache {
     instance = null;
   }
 
+  public Optional<Tick> getTick(String poolPair, int tickIndex) {
+    PoolTickMap poolTicks = tickCache.get(poolPair);
+    return Optional.ofNullable(poolTicks != null ? poolTicks.get(tickIndex) : null);
+  }
+
+  /**
+   * Lấy tick theo key dạng "pair-index" (tick âm có dạng "pair--index")
+   */
   public Optional<Tick> getTick(String tickKey) {
-    Tick tick = tickCache.get(tickKey);
-    return Optional.ofNullable(tick);
+    if (tickKey == null) {
+      return Optional.empty();
+    }
+
+    int separator = tickKey.lastIndexOf('-');
+    if (separator > 0 && tickKey.charAt(separator - 1) == '-') {
+      separator--;
+    }
+    if (separator <= 0 || separator == tickKey.length() - 1) {
+      return Optional.empty();
+    }
+
+    try {
+      int tickIndex = Integer.parseInt(tickKey.substring(separator + 1));
+      return getTick(tickKey.substring(0, separator), tickIndex);
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
   }
 
   public Tick getOrInitTick(String poolPair, int tickIndex) {
-    String tickKey = poolPair + "-" + tickIndex;
-    return getTick(tickKey).orElseGet(() -> {
+    return getTick(poolPair, tickIndex).orElseGet(() -> {
       Tick tick = new Tick(poolPair, tickIndex);
       return tick;
     });
@@ -62,45 +85,74 @@ public class TickCache {
   }
 
   public void updateTick(Tick tick) {
-    updateCounter.incrementAndGet();
-    tickCache.put(tick.getTickKey(), tick);
+    tickCache.computeIfAbsent(tick.getPoolPair(), key -> new PoolTickMap()).put(tick);
     addTickToBatch(tick);
   }
 
   public void addTickToBatch(Tick tick) {
-    String tickKey = tick.getTickKey();
-    latestTicks.compute(tickKey, (key, existingTick) -> {
-      if (existingTick == null || tick.getUpdatedAt() > existingTick.getUpdatedAt()) {
-        return tick;
-      }
-      return existingTick;
-    });
+    latestTicks.computeIfAbsent(tick.getPoolPair(), key -> new PoolTickMap()).putIfNewer(tick);
+  }
+
+  /**
+   * Số tick đang có trong cache
+   */
+  public int size() {
+    int count = 0;
+    for (PoolTickMap poolTicks : tickCache.values()) {
+      count += poolTicks.size();
+    }
+    return count;
   }
 
-  public boolean tickCacheShouldFlush() {
-    int count = updateCounter.get();
-    return (count > 0 && count % BACKUP_BATCH_SIZE == 0);
+  /**
+   * Số tick đang chờ lưu xuống RocksDB
+   */
+  public int pendingFlushCount() {
+    int count = 0;
+    for (PoolTickMap poolTicks : latestTicks.values()) {
+      count += poolTicks.size();
+    }
+    return count;
   }
 
-  public void flushTicksToDisk() {
-    if (latestTicks.isEmpty()) {
+  /**
+   * Lấy các tick đang chờ ra khỏi batch rồi lưu xuống RocksDB. Nếu lưu thất bại,
+   * tick được trả lại batch (tick mới hơn ghi trong lúc lưu được giữ nguyên) và
+   * ngoại lệ được ném lại cho caller, giống WriteBehindBuffer.
+   */
+  public synchronized void flushTicksToDisk() {
+    List<Tick> ticks = new ArrayList<>();
+    for (PoolTickMap poolTicks : latestTicks.values()) {
+      ticks.addAll(poolTicks.drain());
+    }
+
+    if (ticks.isEmpty()) {
       return;
     }
 
-    tickRocksDB.saveTickBatch(latestTicks);
-    logger.info("Flushed {} Ticks to RocksDB", latestTicks.size());
-    latestTicks.clear();
+    try {
+      tickRocksDB.saveTickBatch(ticks);
+    } catch (RuntimeException e) {
+      for (Tick tick : ticks) {
+        addTickToBatch(tick);
+      }
+      logger.error("Failed to flush {} Ticks, requeued: {}", ticks.size(), e.getMessage());
+      throw e;
+    }
+    logger.info("Flushed {} Ticks to RocksDB", ticks.size());
   }
 
   public void initializeTickCache() {
     try {
+      tickRocksDB.migrateLegacyKeys();
+
       List<Tick> dbTicks = tickRocksDB.getAllTicks();
       int loadedCount = 0;
 
       for (Tick dbTick : dbTicks) {
-        String tickKey = dbTick.getTickKey();
-        if (tickKey != null && !tickKey.isEmpty()) {
-          tickCache.put(tickKey, dbTick);
+        String poolPair = dbTick.getPoolPair();
+        if (poolPair != null && !poolPair.isEmpty()) {
+          tickCache.computeIfAbsent(poolPair, key -> new PoolTickMap()).put(dbTick);
           loadedCount++;
         }
       }
@@ -0,0 +1,207 @@
+package com.exchangeengine.storage.cache;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.TickMath;
+
+/**
+ * Fenwick tree theo tick index (nén theo tickSpacing) của một pool.
+ *
+ * Lưu 3 cây prefix sum trên liquidityNet của các tick:
+ * - liquidityNet: tổng prefix = thanh khoản active tại một tick
+ * - liquidityNet * sqrtPrice(tick): dùng để tính lượng token1 dưới một mức giá
+ * - liquidityNet / sqrtPrice(tick): dùng để tính lượng token0 dưới một mức giá
+ *
+ * Lượng token trong khoảng [A, B] là hiệu của hai prefix nên cả cập nhật và
+ * truy vấn đều O(log n), không phải duyệt từng tick trong TickBitmap.
+ * Các cây lưu dạng sparse (HashMap) vì khoảng tick rất rộng nhưng ít tick được
+ * khởi tạo.
+ *
+ * Index phản ánh tick view đã publish tại một phiên bản pool (txCount). Cập nhật
+ * từ disruptor thread (apply), đọc từ query thread: mọi method đều synchronized,
+ * query cần đọc nhiều lần trên cùng phiên bản thì giữ lock của index.
+ */
+public class TickLiquidityIndex {
+  private final String poolPair;
+  private final int tickSpacing;
+  private final int minCompressed;
+  private final int size;
+  private long version;
+
+  // tickIndex -> liquidityNet hiện tại, để tính delta khi tick thay đổi
+  private final Map<Integer, BigDecimal> liquidityNets = new HashMap<>();
+
+  private final Map<Integer, BigDecimal> liquidityNetTree = new HashMap<>();
+  private final Map<Integer, BigDecimal> sqrtWeightedTree = new HashMap<>();
+  private final Map<Integer, BigDecimal> inverseSqrtWeightedTree = new HashMap<>();
+
+  public TickLiquidityIndex(String poolPair, int tickSpacing) {
+    this(poolPair, tickSpacing, 0L);
+  }
+
+  /**
+   * @param poolPair    Pool pair
+   * @param tickSpacing Tick spacing của pool, tick được nén thành tick / tickSpacing
+   * @param version     Phiên bản pool (txCount) của tick view dùng để dựng index
+   */
+  public TickLiquidityIndex(String poolPair, int tickSpacing, long version) {
+    this.poolPair = poolPair;
+    this.tickSpacing = tickSpacing > 0 ? tickSpacing : 1;
+    this.minCompressed = Math.floorDiv(AmmPoolConfig.MIN_TICK, this.tickSpacing);
+    this.size = Math.floorDiv(AmmPoolConfig.MAX_TICK, this.tickSpacing) - minCompressed + 1;
+    this.version = version;
+  }
+
+  public String getPoolPair() {
+    return poolPair;
+  }
+
+  public int getTickSpacing() {
+    return tickSpacing;
+  }
+
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Áp dụng liquidityNet mới của các tick thay đổi và chuyển index sang phiên
+   * bản mới trong một lần giữ lock, query không thấy trạng thái nửa chừng.
+   *
+   * @param liquidityNets tickIndex -&gt; liquidityNet mới (null = tick bị xóa)
+   * @param newVersion    Phiên bản pool sau thay đổi
+   */
+  public synchronized void apply(Map<Integer, BigDecimal> liquidityNets, long newVersion) {
+    liquidityNets.forEach(this::setLiquidityNet);
+    this.version = newVersion;
+  }
+
+  /**
+   * Đặt liquidityNet mới cho một tick, cập nhật các cây theo phần chênh lệch.
+   *
+   * @param tickIndex    Tick index (bội số của tickSpacing)
+   * @param liquidityNet liquidityNet mới của tick
+   */
+  public synchronized void setLiquidityNet(int tickIndex, BigDecimal liquidityNet) {
+    if (tickIndex % tickSpacing != 0) {
+      throw new IllegalArgumentException(String.format(
+          "Tick %d is not a multiple of tick spacing %d", tickIndex, tickSpacing));
+    }
+
+    BigDecimal newValue = liquidityNet != null ? liquidityNet : BigDecimal.ZERO;
+    BigDecimal oldValue = liquidityNets.getOrDefault(tickIndex, BigDecimal.ZERO);
+    BigDecimal delta = newValue.subtract(oldValue);
+    if (delta.signum() == 0) {
+      return;
+    }
+
+    if (newValue.signum() == 0) {
+      liquidityNets.remove(tickIndex);
+    } else {
+      liquidityNets.put(tickIndex, newValue);
+    }
+
+    BigDecimal sqrtPrice = TickMath.getSqrtRatioAtTick(tickIndex);
+    BigDecimal sqrtWeighted = delta.multiply(sqrtPrice);
+    BigDecimal inverseSqrtWeighted = delta.divide(sqrtPrice, AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE);
+
+    for (int i = position(tickIndex); i <= size; i += i & -i) {
+      liquidityNetTree.merge(i, delta, BigDecimal::add);
+      sqrtWeightedTree.merge(i, sqrtWeighted, BigDecimal::add);
+      inverseSqrtWeightedTree.merge(i, inverseSqrtWeighted, BigDecimal::add);
+    }
+  }
+
+  /**
+   * @param tickIndex Tick index
+   * @return liquidityNet đang lưu cho tick
+   */
+  public synchronized BigDecimal getLiquidityNet(int tickIndex) {
+    return liquidityNets.getOrDefault(tickIndex, BigDecimal.ZERO);
+  }
+
+  /**
+   * @return số tick có liquidityNet khác 0
+   */
+  public synchronized int getTickCount() {
+    return liquidityNets.size();
+  }
+
+  /**
+   * Thanh khoản active khi giá nằm tại tick (tổng liquidityNet của các tick &lt;= tick).
+   *
+   * @param tickIndex Tick bất kỳ
+   * @return thanh khoản active
+   */
+  public synchronized BigDecimal getLiquidityAt(int tickIndex) {
+    return prefix(liquidityNetTree, tickIndex);
+  }
+
+  /**
+   * Lượng token0/token1 thực tế nằm trong khoảng [tickLower, tickUpper] với giá
+   * hiện tại của pool: phần dưới giá hiện tại là token1, phần trên là token0.
+   *
+   * @param tickLower        Tick dưới
+   * @param tickUpper        Tick trên
+   * @param currentTick      Tick hiện tại của pool
+   * @param sqrtPriceCurrent sqrtPrice hiện tại của pool
+   * @return [amount0, amount1]
+   */
+  public synchronized BigDecimal[] getAmountsInRange(int tickLower, int tickUpper, int currentTick,
+      BigDecimal sqrtPriceCurrent) {
+    BigDecimal sqrtLower = TickMath.getSqrtRatioAtTick(tickLower);
+    BigDecimal sqrtUpper = TickMath.getSqrtRatioAtTick(tickUpper);
+    BigDecimal amount0 = BigDecimal.ZERO;
+    BigDecimal amount1 = BigDecimal.ZERO;
+
+    if (sqrtPriceCurrent.compareTo(sqrtLower) <= 0) {
+      amount0 = amount0Below(tickUpper, sqrtUpper).subtract(amount0Below(tickLower, sqrtLower));
+    } else if (sqrtPriceCurrent.compareTo(sqrtUpper) >= 0) {
+      amount1 = amount1Below(tickUpper, sqrtUpper).subtract(amount1Below(tickLower, sqrtLower));
+    } else {
+      amount0 = amount0Below(tickUpper, sqrtUpper).subtract(amount0Below(currentTick, sqrtPriceCurrent));
+      amount1 = amount1Below(currentTick, sqrtPriceCurrent).subtract(amount1Below(tickLower, sqrtLower));
+    }
+
+    return new BigDecimal[] {
+        amount0.max(BigDecimal.ZERO).setScale(AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE),
+        amount1.max(BigDecimal.ZERO).setScale(AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE)
+    };
+  }
+
+  /**
+   * Lượng token1 của toàn bộ thanh khoản nằm dưới sqrtPrice:
+   * sum(liquidityNet_t * (sqrtPrice - sqrtPrice_t)) với t &lt;= tick.
+   */
+  private BigDecimal amount1Below(int tickIndex, BigDecimal sqrtPrice) {
+    return sqrtPrice.multiply(prefix(liquidityNetTree, tickIndex)).subtract(prefix(sqrtWeightedTree, tickIndex));
+  }
+
+  /**
+   * Lượng token0 của toàn bộ thanh khoản nằm dưới sqrtPrice:
+   * sum(liquidityNet_t * (1 / sqrtPrice_t - 1 / sqrtPrice)) với t &lt;= tick.
+   */
+  private BigDecimal amount0Below(int tickIndex, BigDecimal sqrtPrice) {
+    return prefix(inverseSqrtWeightedTree, tickIndex).subtract(prefix(liquidityNetTree, tickIndex)
+        .divide(sqrtPrice, AmmPoolConfig.DECIMAL_SCALE, AmmPoolConfig.ROUNDING_MODE));
+  }
+
+  private BigDecimal prefix(Map<Integer, BigDecimal> tree, int tickIndex) {
+    BigDecimal sum = BigDecimal.ZERO;
+    for (int i = Math.min(position(tickIndex), size); i > 0; i -= i & -i) {
+      BigDecimal value = tree.get(i);
+      if (value != null) {
+        sum = sum.add(value);
+      }
+    }
+    return sum;
+  }
+
+  // Vị trí 1-based trong cây, các tick cùng bội số tickSpacing có vị trí tăng dần
+  private int position(int tickIndex) {
+    return Math.max(Math.floorDiv(tickIndex, tickSpacing) - minCompressed + 1, 0);
+  }
+}
@@ -1,10 +1,10 @@
 package com.exchangeengine.storage.cache;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,12 +23,9 @@ public class TradeCache {
     
     private final TradeRocksDB tradeRocksDB;
     private final ConcurrentHashMap<String, Trade> tradeCache = new ConcurrentHashMap<>();
-    private final Map<String, Trade> latestTrades = new ConcurrentHashMap<>();
-    
-    // Atomic counter for updates (thread-safe)
-    private final AtomicInteger updateCounter = new AtomicInteger(0);
-    private static final int UPDATE_THRESHOLD = 100;
-    
+    private final WriteBehindBuffer<Trade> latestTrades = new WriteBehindBuffer<>("Trade",
+            (existing, incoming) -> incoming.getUpdatedAt().isAfter(existing.getUpdatedAt()) ? incoming : existing);
+
     /**
      * Get instance of TradeCache
      *
@@ -100,7 +97,21 @@ public class TradeCache {
      * @return Optional containing Trade if found
      */
     public Optional<Trade> getTrade(String identifier) {
-        return Optional.ofNullable(tradeCache.get(identifier));
+        Trade trade = tradeCache.get(identifier);
+        if (trade != null || identifier == null || identifier.isEmpty()) {
+            return Optional.ofNullable(trade);
+        }
+        // Finished trades may have been moved to the archive and are not loaded into the cache
+        return tradeRocksDB.getArchivedTrade(identifier);
+    }
+    
+    /**
+     * Get all trades currently in cache (read-only view)
+     *
+     * @return Collection of trades
+     */
+    public Collection<Trade> getTrades() {
+        return Collections.unmodifiableCollection(tradeCache.values());
     }
     
     /**
@@ -139,10 +150,7 @@ public class TradeCache {
             return;
         }
         
-        updateCounter.incrementAndGet();
-        String identifier = trade.getIdentifier();
-        tradeCache.put(identifier, trade);
-        tradeRocksDB.saveTrade(trade);
+        addTradeToBatch(trade);
     }
     
     /**
@@ -159,29 +167,15 @@ public class TradeCache {
         String identifier = trade.getIdentifier();
         tradeCache.put(identifier, trade);
         
-        // Use compute to only save the latest version based on timestamp
-        latestTrades.compute(identifier, (key, existingTrade) -> {
-            if (existingTrade == null || trade.getUpdatedAt().isAfter(existingTrade.getUpdatedAt())) {
-                return trade;
-            }
-            return existingTrade;
-        });
-        
-        // If batch is large enough, flush to RocksDB
-        if (latestTrades.size() >= UPDATE_THRESHOLD) {
-            flushTradeToDisk();
-        }
+        // Batch only keeps the latest version based on timestamp
+        latestTrades.put(identifier, trade);
     }
-    
+
     /**
-     * Check if batch should be flushed
-     *
-     * @return true if should flush
+     * Số bản ghi đang chờ lưu xuống RocksDB
      */
-    public boolean tradeCacheShouldFlush() {
-        // Return true when update count is divisible by UPDATE_THRESHOLD
-        int count = updateCounter.get();
-        return count > 0 && count % UPDATE_THRESHOLD == 0;
+    public int pendingFlushCount() {
+        return latestTrades.size();
     }
     
     /**
@@ -194,8 +188,7 @@ public class TradeCache {
         }
         
         logger.info("Saving {} trades to RocksDB", latestTrades.size());
-        tradeRocksDB.saveTradeBatch(latestTrades);
-        latestTrades.clear();
+        latestTrades.flush(tradeRocksDB::saveTradeBatch);
         logger.info("Trade flush to RocksDB completed");
     }
     
@@ -1,7 +1,6 @@
 package com.exchangeengine.storage.cache;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -22,9 +21,8 @@ public class WithdrawalCache {
   private final WithdrawalRocksDB withdrawalRocksDB = WithdrawalRocksDB.getInstance();
 
   private final ConcurrentHashMap<String, CoinWithdrawal> withdrawalCache = new ConcurrentHashMap<>();
-  private final Map<String, CoinWithdrawal> latestWithdrawals = new ConcurrentHashMap<>();
-
-  private static final int BACKUP_BATCH_SIZE = 10000;
+  private final WriteBehindBuffer<CoinWithdrawal> latestWithdrawals = new WriteBehindBuffer<>("CoinWithdrawal",
+      (existing, incoming) -> incoming.getUpdatedAt() > existing.getUpdatedAt() ? incoming : existing);
 
   /**
    * Lấy instance của WithdrawalCache.
@@ -61,7 +59,11 @@ public class WithdrawalCache {
    */
   public Optional<CoinWithdrawal> getWithdrawal(String identifier) {
     CoinWithdrawal cachedWithdrawal = withdrawalCache.get(identifier);
-    return Optional.ofNullable(cachedWithdrawal);
+    if (cachedWithdrawal != null || identifier == null || identifier.isEmpty()) {
+      return Optional.ofNullable(cachedWithdrawal);
+    }
+    // Withdrawal đã kết thúc có thể đã được chuyển sang archive và không còn được tải lên cache
+    return withdrawalRocksDB.getArchivedWithdrawal(identifier);
   }
 
   /**
@@ -74,12 +76,10 @@ public class WithdrawalCache {
   }
 
   /**
-   * Kiểm tra xem có cần lưu dữ liệu vào RocksDB không.
-   *
-   * @return true nếu cần lưu
+   * Số bản ghi đang chờ lưu xuống RocksDB
    */
-  public boolean withdrawalCacheShouldFlush() {
-    return latestWithdrawals.size() >= BACKUP_BATCH_SIZE;
+  public int pendingFlushCount() {
+    return latestWithdrawals.size();
   }
 
   /**
@@ -115,12 +115,7 @@ public class WithdrawalCache {
       return;
     }
 
-    latestWithdrawals.compute(identifier, (key, existingWithdrawal) -> {
-      if (existingWithdrawal == null || withdrawal.getUpdatedAt() > existingWithdrawal.getUpdatedAt()) {
-        return withdrawal;
-      }
-      return existingWithdrawal;
-    });
+    latestWithdrawals.put(identifier, withdrawal);
   }
 
   /**
@@ -131,8 +126,7 @@ public class WithdrawalCache {
       return;
     }
 
-    withdrawalRocksDB.saveWithdrawalBatch(latestWithdrawals);
-    latestWithdrawals.clear();
+    latestWithdrawals.flush(withdrawalRocksDB::saveWithdrawalBatch);
     logger.debug("Đã lưu withdrawal thành công");
   }
 }
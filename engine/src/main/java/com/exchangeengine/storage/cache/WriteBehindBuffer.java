@@ -0,0 +1,196 @@
+package com.exchangeengine.storage.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffer ghi trễ (write-behind) cho các cache: writer ghi vào buffer đang
+ * active, flusher đổi sang buffer dự phòng rồi mới lưu buffer cũ xuống RocksDB.
+ * Không copy map khi flush và không mất bản ghi đến giữa lúc lưu và lúc xóa.
+ *
+ * Mỗi buffer đếm số writer đang ghi. Writer tăng bộ đếm rồi kiểm tra buffer vẫn
+ * còn active (nếu không thì thử lại trên buffer mới); flusher đổi buffer rồi
+ * chờ bộ đếm của buffer cũ về 0, nên mọi lần ghi hoặc nằm trọn trong batch
+ * đang flush hoặc nằm trong batch sau. Writer không bao giờ phải chờ.
+ *
+ * Nếu lưu thất bại, các bản ghi được trả lại buffer active (bản mới hơn đã ghi
+ * trong lúc flush được giữ nguyên) và ngoại lệ được ném lại cho caller.
+ *
+ * @param <T> Kiểu entity
+ */
+public class WriteBehindBuffer<T> {
+  private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+  private final String name;
+  private final BinaryOperator<T> merger;
+
+  private volatile Buffer<T> active = new Buffer<>();
+  private Buffer<T> standby = new Buffer<>();
+
+  private volatile int lastFlushSize;
+  private volatile long lastFlushLagMillis;
+  private volatile long lastFlushDurationMillis;
+  private final AtomicLong totalFlushed = new AtomicLong();
+
+  /**
+   * Buffer mà bản ghi sau luôn thay thế bản ghi trước cùng key
+   */
+  public WriteBehindBuffer(String name) {
+    this(name, null);
+  }
+
+  /**
+   * @param name   Tên dùng trong log
+   * @param merger Chọn bản ghi giữ lại khi cùng key: (đang có, mới) -> giữ lại
+   */
+  public WriteBehindBuffer(String name, BinaryOperator<T> merger) {
+    this.name = name;
+    this.merger = merger;
+  }
+
+  /**
+   * Thêm bản ghi vào batch đang active
+   */
+  public void put(String key, T value) {
+    Buffer<T> buffer = acquire();
+    try {
+      if (merger == null) {
+        buffer.entries.put(key, value);
+      } else {
+        buffer.entries.merge(key, value, merger);
+      }
+      buffer.firstWriteAt.compareAndSet(0L, System.currentTimeMillis());
+    } finally {
+      buffer.writers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Lấy bản ghi đang chờ lưu
+   */
+  public T get(String key) {
+    return active.entries.get(key);
+  }
+
+  public boolean containsKey(String key) {
+    return active.entries.containsKey(key);
+  }
+
+  /**
+   * Số bản ghi đang chờ lưu
+   */
+  public int size() {
+    return active.entries.size();
+  }
+
+  public boolean isEmpty() {
+    return active.entries.isEmpty();
+  }
+
+  /**
+   * Thời gian (ms) bản ghi cũ nhất của batch đang active đã chờ, 0 nếu rỗng
+   */
+  public long pendingLagMillis() {
+    long firstWriteAt = active.firstWriteAt.get();
+    return firstWriteAt == 0L ? 0L : System.currentTimeMillis() - firstWriteAt;
+  }
+
+  public int getLastFlushSize() {
+    return lastFlushSize;
+  }
+
+  public long getLastFlushLagMillis() {
+    return lastFlushLagMillis;
+  }
+
+  public long getLastFlushDurationMillis() {
+    return lastFlushDurationMillis;
+  }
+
+  public long getTotalFlushed() {
+    return totalFlushed.get();
+  }
+
+  /**
+   * Đổi buffer và lưu batch cũ qua sink. Chỉ một flush chạy tại một thời điểm.
+   *
+   * @param sink Hàm lưu batch (ví dụ saveXxxBatch của RocksDB)
+   * @return Số bản ghi đã lưu
+   */
+  public synchronized int flush(Consumer<Map<String, T>> sink) {
+    Buffer<T> full = active;
+    if (full.entries.isEmpty()) {
+      return 0;
+    }
+
+    active = standby;
+    while (full.writers.get() != 0) {
+      Thread.onSpinWait();
+    }
+
+    int size = full.entries.size();
+    long startedAt = System.currentTimeMillis();
+    long lag = startedAt - full.firstWriteAt.get();
+    try {
+      sink.accept(full.entries);
+    } catch (RuntimeException e) {
+      requeue(full);
+      throw e;
+    } finally {
+      full.reset();
+      standby = full;
+    }
+
+    lastFlushSize = size;
+    lastFlushLagMillis = lag;
+    lastFlushDurationMillis = System.currentTimeMillis() - startedAt;
+    totalFlushed.addAndGet(size);
+    logger.debug("{}: đã lưu {} bản ghi, chờ {} ms, lưu mất {} ms", name, size, lag, lastFlushDurationMillis);
+    return size;
+  }
+
+  /**
+   * Xóa toàn bộ bản ghi đang chờ lưu
+   */
+  public synchronized void clear() {
+    active.entries.clear();
+    active.firstWriteAt.set(0L);
+  }
+
+  private Buffer<T> acquire() {
+    while (true) {
+      Buffer<T> buffer = active;
+      buffer.writers.incrementAndGet();
+      if (buffer == active) {
+        return buffer;
+      }
+      buffer.writers.decrementAndGet();
+    }
+  }
+
+  private void requeue(Buffer<T> failed) {
+    Buffer<T> buffer = active;
+    failed.entries.forEach((key, value) -> buffer.entries.merge(key, value,
+        (current, requeued) -> merger == null ? current : merger.apply(requeued, current)));
+    buffer.firstWriteAt.accumulateAndGet(failed.firstWriteAt.get(),
+        (current, failedAt) -> current == 0L ? failedAt : Math.min(current, failedAt));
+  }
+
+  private static final class Buffer<T> {
+    private final ConcurrentHashMap<String, T> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger writers = new AtomicInteger();
+    private final AtomicLong firstWriteAt = new AtomicLong();
+
+    private void reset() {
+      entries.clear();
+      firstWriteAt.set(0L);
+    }
+  }
+}
@@ -0,0 +1,361 @@
+package com.exchangeengine.storage.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
+import com.exchangeengine.util.EnvManager;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Input journal của engine: mọi event vào Disruptor được ghi kèm sequence vào
+ * các file segment map vào bộ nhớ (Smile, checksum CRC32C) ở stage đầu tiên,
+ * trước khi business logic xử lý (xem JournalEventHandler).
+ *
+ * Sequence journal tăng liên tục qua các lần chạy. Khi khởi động, replay()
+ * publish lại theo đúng thứ tự các event sau DurablePosition.journalSequence,
+ * tức đã vào journal nhưng chưa được flush xuống RocksDB, không cần đọc lại
+ * Kafka. Các event replay giữ sequence cũ nên không bị ghi vào journal lần
+ * hai.
+ *
+ * Dữ liệu ghi vào mmap nằm trong page cache nên không mất khi process chết;
+ * JOURNAL_FORCE_ON_BATCH force xuống đĩa cuối mỗi batch để chịu được mất điện.
+ * Khi chuyển segment, các segment mà mọi record đã bền trong RocksDB bị xóa.
+ *
+ * append()/endOfBatch() chỉ được gọi từ thread journal của Disruptor; replay()
+ * được gọi trước khi Kafka và các job nền publish event.
+ */
+public class InputJournal {
+  private static final Logger logger = LoggerFactory.getLogger(InputJournal.class);
+
+  // Singleton instance
+  private static volatile InputJournal instance;
+
+  public static final int DEFAULT_SEGMENT_SIZE_MB = 64;
+  private static final int MB = 1024 * 1024;
+
+  private final boolean enabled;
+  private final Path dir;
+  private final int segmentSize;
+  private final boolean forceOnBatch;
+  private final ObjectMapper mapper = createMapper();
+  private final CRC32C crc = new CRC32C();
+
+  // Sequence đầu tiên -> file segment, segment cuối là segment đang ghi
+  private final TreeMap<Long, Path> segments = new TreeMap<>();
+  private JournalSegment active;
+  private boolean opened;
+
+  // Sequence Disruptor < replayedCount là event replay (sequence replayFrom + i),
+  // các event sau đó được ghi từ appendFrom
+  private volatile long replayedCount;
+  private volatile long replayFrom;
+  private volatile long appendFrom;
+
+  private volatile long lastSequence = -1;
+  private volatile long durableSequence = -1;
+  private volatile long appendedRecords;
+  private volatile long appendedBytes;
+
+  /**
+   * Lấy instance của InputJournal với cấu hình từ biến môi trường.
+   *
+   * @return Instance của InputJournal
+   */
+  public static synchronized InputJournal getInstance() {
+    if (instance == null) {
+      EnvManager env = EnvManager.getInstance();
+      InputJournal journal = new InputJournal(
+          env.getBoolean("JOURNAL_ENABLED", true),
+          Paths.get(env.get("JOURNAL_DIR", RocksDBConfig.getDbPath() + "-journal")),
+          env.getInt("JOURNAL_SEGMENT_SIZE_MB", DEFAULT_SEGMENT_SIZE_MB) * MB,
+          env.getBoolean("JOURNAL_FORCE_ON_BATCH", false));
+      try {
+        journal.open();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot open input journal", e);
+      }
+      instance = journal;
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(InputJournal testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * @param enabled      false = không ghi journal, replay() không làm gì
+   * @param dir          Thư mục chứa các segment
+   * @param segmentSize  Kích thước mỗi segment (byte)
+   * @param forceOnBatch Force segment xuống đĩa cuối mỗi batch
+   */
+  InputJournal(boolean enabled, Path dir, int segmentSize, boolean forceOnBatch) {
+    this.enabled = enabled;
+    this.dir = dir;
+    this.segmentSize = segmentSize;
+    this.forceOnBatch = forceOnBatch;
+  }
+
+  /**
+   * Mapper Smile chỉ đọc/ghi field: getter của một số event đọc cache
+   */
+  static ObjectMapper createMapper() {
+    ObjectMapper mapper = new SmileMapper();
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    mapper.setVisibility(PropertyAccessor.SETTER, JsonAutoDetect.Visibility.PUBLIC_ONLY);
+    mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    return mapper;
+  }
+
+  /**
+   * Đọc danh sách segment và mở segment cuối để ghi tiếp
+   */
+  synchronized void open() throws IOException {
+    if (!enabled || opened) {
+      return;
+    }
+
+    Files.createDirectories(dir);
+    try (Stream<Path> files = Files.list(dir)) {
+      files.filter(JournalSegment::isSegmentFile)
+          .forEach(path -> segments.put(JournalSegment.parseFirstSequence(path), path));
+    }
+    if (!segments.isEmpty()) {
+      active = JournalSegment.open(segments.lastEntry().getValue());
+      lastSequence = active.getLastSequence();
+    }
+    appendFrom = lastSequence + 1;
+    opened = true;
+    logger.info("InputJournal opened: dir={}, segments={}, lastSequence={}, segmentSize={}, forceOnBatch={}",
+        dir, segments.size(), lastSequence, segmentSize, forceOnBatch);
+  }
+
+  /**
+   * Publish lại theo thứ tự các event có sequence journal &gt; durableSequence.
+   * Event replay nhận sequence Disruptor 0, 1, 2... nên được nhận ra và không
+   * bị ghi lại. Output của event replay có thể chưa được gửi ở lần chạy trước
+   * nên được gửi lại, phía nhận bỏ trùng theo eventId. Replay dừng ở chỗ
+   * journal bị thiếu record; các event sau đó chỉ còn trong Kafka.
+   *
+   * @param durableSequence Sequence journal đã nằm trong RocksDB
+   * @param publisher       Nơi publish event vào Disruptor
+   * @return Số event đã replay
+   */
+  public synchronized long replay(long durableSequence, Consumer<DisruptorEvent> publisher) throws IOException {
+    if (!enabled) {
+      return 0;
+    }
+
+    this.durableSequence = durableSequence;
+    long from = durableSequence + 1;
+    // Sequence mới luôn sau record cuối và sau vị trí bền
+    appendFrom = Math.max(from, lastSequence + 1);
+    if (lastSequence < from) {
+      return 0;
+    }
+
+    if (from < segments.firstKey()) {
+      logger.warn("Input journal starts at {} but durable sequence is {}; events in between must come from Kafka",
+          segments.firstKey(), durableSequence);
+      from = segments.firstKey();
+    }
+
+    replayFrom = from;
+    // Các event đang được publish đều là event replay cho tới khi biết số lượng
+    replayedCount = Long.MAX_VALUE;
+    long[] next = { from };
+    try {
+      for (Path path : segments.tailMap(segments.floorKey(from), true).values()) {
+        JournalSegment segment = active.getPath().equals(path) ? active : JournalSegment.open(path);
+        segment.forEach(next[0], (sequence, payload) -> {
+          if (sequence != next[0]) {
+            throw new JournalGapException(sequence);
+          }
+          publisher.accept(mapper.readValue(payload, DisruptorEvent.class));
+          next[0]++;
+        });
+      }
+    } catch (JournalGapException e) {
+      logger.error("Input journal is missing records {}..{}; stopped replay there", next[0], e.sequence - 1);
+    } finally {
+      replayedCount = next[0] - from;
+    }
+
+    logger.info("Replayed {} events from input journal ({}..{})", replayedCount, from, next[0] - 1);
+    return replayedCount;
+  }
+
+  /**
+   * Sequence journal của một sequence Disruptor trong process hiện tại
+   *
+   * @param disruptorSequence Sequence Disruptor, -1 = chưa có event nào
+   * @return Sequence journal tương ứng
+   */
+  public long toJournalSequence(long disruptorSequence) {
+    long replayed = replayedCount;
+    if (disruptorSequence < replayed) {
+      return replayFrom + disruptorSequence;
+    }
+    return appendFrom + disruptorSequence - replayed;
+  }
+
+  /**
+   * Ghi một event vào journal
+   *
+   * @param disruptorSequence Sequence Disruptor của event
+   * @param event             Event chưa được business logic xử lý
+   */
+  public void append(long disruptorSequence, DisruptorEvent event) throws IOException {
+    if (disruptorSequence < replayedCount) {
+      return;
+    }
+
+    long sequence = toJournalSequence(disruptorSequence);
+    byte[] payload = mapper.writeValueAsBytes(event);
+    if (active == null || active.getLastSequence() != sequence - 1 || !active.append(sequence, payload, crc)) {
+      roll(sequence, payload.length);
+      if (!active.append(sequence, payload, crc)) {
+        throw new IllegalStateException("Journal record does not fit a new segment: " + payload.length);
+      }
+    }
+    lastSequence = sequence;
+    appendedRecords++;
+    appendedBytes += JournalSegment.HEADER_SIZE + payload.length;
+  }
+
+  /**
+   * Gọi cuối mỗi batch của Disruptor
+   */
+  public void endOfBatch() {
+    if (forceOnBatch && active != null) {
+      active.force();
+    }
+  }
+
+  /**
+   * Ghi nhận sequence journal đã nằm trong RocksDB sau một lần flush
+   *
+   * @param journalSequence Sequence journal đã bền
+   */
+  public void markDurable(long journalSequence) {
+    if (journalSequence > durableSequence) {
+      durableSequence = journalSequence;
+    }
+  }
+
+  /**
+   * Force segment đang ghi xuống đĩa, gọi sau khi Disruptor đã dừng
+   */
+  public synchronized void close() {
+    if (active != null) {
+      active.force();
+      active = null;
+      logger.info("InputJournal closed: lastSequence={}, appendedRecords={}, appendedBytes={}", lastSequence,
+          appendedRecords, appendedBytes);
+    }
+  }
+
+  private void roll(long firstSequence, int payloadLength) throws IOException {
+    if (active != null) {
+      active.force();
+      if (active.getLastSequence() < active.getFirstSequence()) {
+        // Segment rỗng không chứa record nào, bỏ đi
+        segments.remove(active.getFirstSequence());
+        active.delete();
+      }
+    }
+    active = JournalSegment.create(dir, firstSequence,
+        Math.max(segmentSize, JournalSegment.HEADER_SIZE + payloadLength));
+    segments.put(firstSequence, active.getPath());
+    deleteDurableSegments();
+  }
+
+  /**
+   * Xóa các segment mà record cuối (ngay trước segment kế tiếp) đã bền
+   */
+  private void deleteDurableSegments() {
+    long durable = durableSequence;
+    while (segments.size() > 1) {
+      Map.Entry<Long, Path> oldest = segments.firstEntry();
+      if (segments.higherKey(oldest.getKey()) - 1 > durable) {
+        break;
+      }
+      segments.pollFirstEntry();
+      try {
+        Files.deleteIfExists(oldest.getValue());
+        logger.debug("Deleted durable journal segment {}", oldest.getValue());
+      } catch (IOException e) {
+        logger.warn("Cannot delete journal segment {}: {}", oldest.getValue(), e.getMessage());
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return Sequence của record cuối cùng trong journal, -1 nếu rỗng
+   */
+  public long getLastSequence() {
+    return lastSequence;
+  }
+
+  public long getAppendedRecords() {
+    return appendedRecords;
+  }
+
+  public long getAppendedBytes() {
+    return appendedBytes;
+  }
+
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Báo replay gặp chỗ thiếu record
+   */
+  private static final class JournalGapException extends IOException {
+    private final long sequence;
+
+    JournalGapException(long sequence) {
+      super("Journal gap before sequence " + sequence);
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.exchangeengine.storage.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Một file segment của input journal, được map vào bộ nhớ.
+ *
+ * Mỗi record gồm header 16 byte rồi tới payload:
+ * - int length: độ dài payload, 0 = hết dữ liệu (file mới toàn byte 0)
+ * - int checksum: CRC32C của sequence và payload
+ * - long sequence
+ *
+ * length được ghi sau cùng; record bị ghi dở khi process dừng đột ngột có
+ * checksum sai và được coi là điểm kết thúc của segment.
+ */
+final class JournalSegment {
+  static final int HEADER_SIZE = 16;
+  static final String FILE_SUFFIX = ".journal";
+
+  /**
+   * Nhận từng record khi đọc segment
+   */
+  @FunctionalInterface
+  interface RecordVisitor {
+    void visit(long sequence, byte[] payload) throws IOException;
+  }
+
+  private final Path path;
+  private final long firstSequence;
+  private final MappedByteBuffer buffer;
+  private long lastSequence;
+
+  private JournalSegment(Path path, long firstSequence, MappedByteBuffer buffer) {
+    this.path = path;
+    this.firstSequence = firstSequence;
+    this.buffer = buffer;
+    this.lastSequence = firstSequence - 1;
+  }
+
+  /**
+   * Tạo segment mới, tên file là sequence đầu tiên để sắp xếp theo thứ tự ghi
+   *
+   * @param dir           Thư mục journal
+   * @param firstSequence Sequence của record đầu tiên
+   * @param capacity      Kích thước file (byte)
+   * @return Segment rỗng, sẵn sàng ghi
+   */
+  static JournalSegment create(Path dir, long firstSequence, int capacity) throws IOException {
+    Path path = dir.resolve(fileName(firstSequence));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      return new JournalSegment(path, firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+    }
+  }
+
+  /**
+   * Mở segment đã có, đặt vị trí ghi sau record hợp lệ cuối cùng và xóa phần
+   * record ghi dở phía sau (nếu có)
+   *
+   * @param path Đường dẫn file segment
+   * @return Segment sẵn sàng ghi tiếp
+   */
+  static JournalSegment open(Path path) throws IOException {
+    JournalSegment segment;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      segment = new JournalSegment(path, parseFirstSequence(path),
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+    }
+    segment.forEach(Long.MIN_VALUE, (sequence, payload) -> segment.lastSequence = sequence);
+
+    MappedByteBuffer buffer = segment.buffer;
+    if (buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0) {
+      for (int i = buffer.position(); i < buffer.capacity(); i++) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+    return segment;
+  }
+
+  /**
+   * Đọc các record có sequence &gt;= fromSequence. Sau khi đọc xong, vị trí của
+   * buffer nằm ngay sau record hợp lệ cuối cùng
+   */
+  void forEach(long fromSequence, RecordVisitor visitor) throws IOException {
+    CRC32C crc = new CRC32C();
+    buffer.position(0);
+    while (buffer.remaining() >= HEADER_SIZE) {
+      int start = buffer.position();
+      int length = buffer.getInt(start);
+      if (length <= 0 || length > buffer.capacity() - start - HEADER_SIZE) {
+        break;
+      }
+      int checksum = buffer.getInt(start + 4);
+      long sequence = buffer.getLong(start + 8);
+      byte[] payload = new byte[length];
+      buffer.position(start + HEADER_SIZE);
+      buffer.get(payload);
+      if (checksum(crc, sequence, payload) != checksum) {
+        buffer.position(start);
+        break;
+      }
+      if (sequence >= fromSequence) {
+        visitor.visit(sequence, payload);
+      }
+    }
+  }
+
+  /**
+   * Ghi một record vào cuối segment
+   *
+   * @return false nếu segment không còn đủ chỗ
+   */
+  boolean append(long sequence, byte[] payload, CRC32C crc) {
+    int start = buffer.position();
+    if (buffer.capacity() - start < HEADER_SIZE + payload.length) {
+      return false;
+    }
+    buffer.putLong(start + 8, sequence);
+    buffer.position(start + HEADER_SIZE);
+    buffer.put(payload);
+    buffer.putInt(start + 4, checksum(crc, sequence, payload));
+    buffer.putInt(start, payload.length);
+    lastSequence = sequence;
+    return true;
+  }
+
+  /**
+   * Ghi các trang đã sửa xuống đĩa
+   */
+  void force() {
+    buffer.force();
+  }
+
+  /**
+   * Xóa file segment; mapping hiện có vẫn đọc được cho tới khi bị GC
+   */
+  void delete() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  long getFirstSequence() {
+    return firstSequence;
+  }
+
+  /**
+   * @return Sequence của record cuối, firstSequence - 1 nếu segment rỗng
+   */
+  long getLastSequence() {
+    return lastSequence;
+  }
+
+  int getWrittenBytes() {
+    return buffer.position();
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  static String fileName(long firstSequence) {
+    return String.format("%020d", firstSequence) + FILE_SUFFIX;
+  }
+
+  static boolean isSegmentFile(Path path) {
+    String name = path.getFileName().toString();
+    return name.endsWith(FILE_SUFFIX) && name.length() == 20 + FILE_SUFFIX.length();
+  }
+
+  static long parseFirstSequence(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+  }
+
+  private static int checksum(CRC32C crc, long sequence, byte[] payload) {
+    crc.reset();
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      crc.update((int) (sequence >>> shift));
+    }
+    crc.update(payload, 0, payload.length);
+    return (int) crc.getValue();
+  }
+}
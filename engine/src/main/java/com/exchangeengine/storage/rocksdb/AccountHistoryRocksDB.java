@@ -8,6 +8,7 @@ import com.exchangeengine.model.AccountHistory;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Lớp xử lý các thao tác với AccountHistory trong RocksDB
@@ -51,8 +52,8 @@ public class AccountHistoryRocksDB {
    * @param history AccountHistory cần lưu
    */
   public void saveAccountHistory(AccountHistory history) {
-    rocksDBService.saveObject(history, rocksDBService.getAccountHistoryCF(),
-        AccountHistory::getKey, "account_history");
+    rocksDBService.saveObjectWithBinaryKey(history, rocksDBService.getAccountHistoryCF(),
+        AccountHistory::getBinaryKey, "account_history");
   }
 
   /**
@@ -67,13 +68,13 @@ public class AccountHistoryRocksDB {
   }
 
   /**
-   * Lưu nhiều AccountHistory vào RocksDB
+   * Lưu nhiều AccountHistory vào RocksDB với key nhị phân sắp theo thời gian
    *
    * @param histories Map chứa các AccountHistory cần lưu
    */
   public void saveAccountHistoryBatch(Map<String, AccountHistory> histories) {
-    rocksDBService.saveBatch(histories, rocksDBService.getAccountHistoryCF(),
-        AccountHistory::getKey, "account_histories");
+    rocksDBService.saveBinaryKeyBatch(histories.values(), rocksDBService.getAccountHistoryCF(),
+        AccountHistory::getBinaryKey, "account_histories");
   }
 
   /**
@@ -86,12 +87,58 @@ public class AccountHistoryRocksDB {
   }
 
   /**
-   * Lấy lịch sử giao dịch theo accountKey
+   * Lấy lịch sử giao dịch theo accountKey, mới nhất trước
+   *
+   * @param lastKey cursor {timestamp}-{sequence} của bản ghi cuối trang trước
    */
   public List<AccountHistory> getAccountHistoriesByAccountKey(String accountKey, int limit, String lastKey) {
-    String prefix = AccountHistory.generateAccountPrefix(accountKey);
-    return rocksDBService.getObjectsByPrefix(prefix, limit, lastKey, rocksDBService.getAccountHistoryCF(),
-        AccountHistory.class, "account_history");
+    return getAccountHistoriesByTimeRange(accountKey, 0, Long.MAX_VALUE, lastKey, limit, true);
+  }
+
+  /**
+   * Lấy một trang lịch sử giao dịch của account trong khoảng [fromTime, toTime).
+   * Key nhị phân sắp theo thời gian nên chỉ seek một lần rồi đọc đúng limit bản
+   * ghi, không quét toàn bộ lịch sử của account.
+   *
+   * @param accountKey  Account key
+   * @param fromTime    Thời điểm bắt đầu (ms, bao gồm)
+   * @param toTime      Thời điểm kết thúc (ms, không bao gồm)
+   * @param cursor      Cursor {timestamp}-{sequence} của trang trước, null nếu
+   *                    trang đầu
+   * @param limit       Số bản ghi tối đa
+   * @param newestFirst true = mới nhất trước (reverse seek)
+   * @return Danh sách AccountHistory theo thứ tự duyệt
+   */
+  public List<AccountHistory> getAccountHistoriesByTimeRange(String accountKey, long fromTime, long toTime,
+      String cursor, int limit, boolean newestFirst) {
+    byte[] lowerBound = AccountHistory.generateBinaryTimeBound(accountKey, fromTime);
+    byte[] upperBound = AccountHistory.generateBinaryTimeBound(accountKey, toTime);
+    byte[] cursorKey = cursor != null && !cursor.isEmpty()
+        ? AccountHistory.cursorToBinaryKey(accountKey, cursor)
+        : null;
+
+    return rocksDBService.getObjectsInRange(lowerBound, upperBound, cursorKey, newestFirst, limit,
+        rocksDBService.getAccountHistoryCF(), AccountHistory.class, "account_history");
+  }
+
+  /**
+   * Chuyển các history còn lưu với key chuỗi
+   * "{hashedPrefix}-{accountKey}-{identifier}-{timestamp}" cũ sang key nhị phân
+   * để truy vấn theo account thấy được cả lịch sử cũ. History cũ chưa có
+   * sequence được cấp sequence tăng dần (theo thứ tự key) để các bản ghi cùng
+   * millisecond không ghi đè nhau và cursor khớp với key mới.
+   *
+   * @return Số history đã chuyển
+   */
+  public int migrateLegacyKeys() {
+    AtomicLong legacySequence = new AtomicLong();
+    return rocksDBService.migrateToBinaryKeys(rocksDBService.getAccountHistoryCF(), AccountHistory.class,
+        key -> !AccountHistory.isBinaryKey(key), history -> {
+          if (history.getSequence() == 0) {
+            history.setSequence(legacySequence.incrementAndGet());
+          }
+          return history.getBinaryKey();
+        }, "account_histories");
   }
 
   /**
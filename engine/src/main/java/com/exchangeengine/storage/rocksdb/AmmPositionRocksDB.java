@@ -58,7 +58,35 @@ public class AmmPositionRocksDB {
    * @return Optional chứa AmmPosition nếu tồn tại
    */
   public Optional<AmmPosition> getAmmPosition(String identifier) {
-    return rocksDBService.getObject(identifier, rocksDBService.getAmmPositionCF(), AmmPosition.class, "amm_position");
+    return rocksDBService.getObject(identifier, rocksDBService.getAmmPositionCF(), AmmPosition.class, "amm_position")
+        .or(() -> getArchivedAmmPosition(identifier));
+  }
+
+  /**
+   * Lấy AmmPosition đã được chuyển sang archive
+   *
+   * @param identifier Identifier của position
+   * @return Optional chứa AmmPosition nếu tồn tại trong archive
+   */
+  public Optional<AmmPosition> getArchivedAmmPosition(String identifier) {
+    return rocksDBService.getObject(identifier, rocksDBService.getAmmPositionArchiveCF(), AmmPosition.class,
+        "amm_position_archive");
+  }
+
+  /**
+   * Chuyển các AmmPosition đã đóng và cập nhật lần cuối trước olderThan sang
+   * archive
+   *
+   * @param olderThan  Mốc thời gian (millis)
+   * @param startAfter Key cuối của lần gọi trước, null để bắt đầu từ đầu
+   * @param scanLimit  Số bản ghi tối đa được duyệt
+   * @return Key cuối đã duyệt (null nếu đã hết) và số bản ghi đã chuyển
+   */
+  public Pair<byte[], Integer> archiveAmmPositions(long olderThan, byte[] startAfter, int scanLimit) {
+    return rocksDBService.archiveObjects(rocksDBService.getAmmPositionCF(),
+        rocksDBService.getAmmPositionArchiveCF(), AmmPosition.class,
+        position -> position.isClosed() && position.getUpdatedAt() < olderThan,
+        startAfter, scanLimit, "amm_positions");
   }
 
   /**
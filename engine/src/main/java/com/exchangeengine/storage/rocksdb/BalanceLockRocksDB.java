@@ -70,6 +70,46 @@ public class BalanceLockRocksDB {
             rocksDBService.getBalanceLockCF(),
             BalanceLock.class,
             "balance_lock"
+        ).or(() -> getArchivedBalanceLock(lockId));
+    }
+
+    /**
+     * Get BalanceLock that has been moved to the archive
+     *
+     * @param lockId ID of balance lock
+     * @return Optional containing balance lock if it exists in the archive
+     */
+    public Optional<BalanceLock> getArchivedBalanceLock(String lockId) {
+        if (lockId == null || lockId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return rocksDBService.getObject(
+            lockId,
+            rocksDBService.getBalanceLockArchiveCF(),
+            BalanceLock.class,
+            "balance_lock_archive"
+        );
+    }
+
+    /**
+     * Move released locks created before olderThan to the archive.
+     * BalanceLock has no release time, so age is measured from createdAt.
+     *
+     * @param olderThan Cutoff time (epoch millis)
+     * @param startAfter Last key of the previous call, null to start from the beginning
+     * @param scanLimit Maximum number of records to scan
+     * @return Last scanned key (null when the column family is exhausted) and number of archived locks
+     */
+    public Pair<byte[], Integer> archiveBalanceLocks(long olderThan, byte[] startAfter, int scanLimit) {
+        return rocksDBService.archiveObjects(
+            rocksDBService.getBalanceLockCF(),
+            rocksDBService.getBalanceLockArchiveCF(),
+            BalanceLock.class,
+            lock -> "RELEASED".equals(lock.getStatus()) && lock.getCreatedAt() < olderThan,
+            startAfter,
+            scanLimit,
+            "balance_locks"
         );
     }
 
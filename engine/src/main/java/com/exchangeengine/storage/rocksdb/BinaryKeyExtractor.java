@@ -0,0 +1,10 @@
+package com.exchangeengine.storage.rocksdb;
+
+/**
+ * Interface để trích xuất key dạng byte[] từ đối tượng (key nhị phân giữ thứ
+ * tự sắp xếp của RocksDB)
+ */
+@FunctionalInterface
+public interface BinaryKeyExtractor<T> {
+  byte[] getKey(T item);
+}
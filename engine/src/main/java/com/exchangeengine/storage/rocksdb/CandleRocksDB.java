@@ -0,0 +1,82 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.exchangeengine.model.Candle;
+
+/**
+ * Lớp xử lý các thao tác với nến OHLCV đã đóng trong RocksDB.
+ * Key nhị phân market + interval + openTime nên một lần load chart chỉ đọc đúng
+ * số nến cần hiển thị.
+ */
+public class CandleRocksDB {
+  // Singleton instance
+  private static volatile CandleRocksDB instance;
+
+  private final RocksDBService rocksDBService;
+
+  /**
+   * Lấy instance của CandleRocksDB
+   *
+   * @return instance của CandleRocksDB
+   */
+  public static synchronized CandleRocksDB getInstance() {
+    if (instance == null) {
+      instance = new CandleRocksDB();
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(CandleRocksDB testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance của CandleRocksDB (chỉ dùng cho test)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * Constructor riêng tư để đảm bảo Singleton pattern
+   */
+  private CandleRocksDB() {
+    this.rocksDBService = RocksDBService.getInstance();
+  }
+
+  /**
+   * Lưu nhiều nến vào RocksDB trong một batch. Nến trùng key (được mở lại do
+   * trade đến muộn) ghi đè bản cũ.
+   *
+   * @param candles Các nến cần lưu
+   */
+  public void saveCandleBatch(Collection<Candle> candles) {
+    rocksDBService.saveBinaryKeyBatch(candles, rocksDBService.getCandleCF(), Candle::getBinaryKey, "candles");
+  }
+
+  /**
+   * Lấy các nến của market có openTime trong khoảng [fromTime, toTime), cũ
+   * nhất trước.
+   *
+   * @param market   Market key (amm:{poolPair} hoặc p2p:{symbol})
+   * @param interval Giá trị interval (1m, 5m, 1h, 1d)
+   * @param fromTime Thời điểm bắt đầu (ms, bao gồm)
+   * @param toTime   Thời điểm kết thúc (ms, không bao gồm)
+   * @param limit    Số nến tối đa
+   * @return Danh sách nến theo thứ tự thời gian
+   */
+  public List<Candle> getCandles(String market, String interval, long fromTime, long toTime, int limit) {
+    byte[] lowerBound = Candle.generateBinaryKey(market, interval, Math.max(0L, fromTime));
+    byte[] upperBound = Candle.generateBinaryKey(market, interval, Math.max(0L, toTime));
+
+    return rocksDBService.getObjectsInRange(lowerBound, upperBound, null, false, limit,
+        rocksDBService.getCandleCF(), Candle.class, "candle");
+  }
+}
@@ -0,0 +1,100 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.Locale;
+
+import com.exchangeengine.util.EnvManager;
+
+/**
+ * Cấu hình RocksDB theo kiểu truy cập của từng column family.
+ * Mọi profile dùng chung block cache và write buffer manager của RocksDBTuning.
+ *
+ * - POINT_LOOKUP: đọc theo key (account, tick, pool): bloom filter toàn key,
+ * hash index trong data block, LZ4
+ * - PREFIX_SCAN: quét theo prefix hash 8 byte của account history; chỉ dùng cho
+ * key có prefix cố định ACCOUNT_HISTORY_PREFIX_SIZE
+ * - TIME_SERIES: ghi nối tiếp, ít đọc lại (trade, candle): LZ4 ở các level trên,
+ * ZSTD ở level cuối
+ * - HOT_SMALL: dữ liệu nhỏ, đọc liên tục (tick bitmap): memtable nhỏ, block
+ * 4KB, không nén
+ * - COLD: bản ghi đã lưu trữ (archive), hầu như chỉ tra key không tồn tại:
+ * bloom filter, block 16KB, ZSTD ở mọi level
+ * - STANDARD: các column family còn lại
+ */
+public enum ColumnFamilyProfile {
+  POINT_LOOKUP, PREFIX_SCAN, TIME_SERIES, HOT_SMALL, COLD, STANDARD;
+
+  public static final String PROFILE_ENV_PREFIX = "ROCKSDB_CF_PROFILE_";
+
+  /**
+   * Profile mặc định của một column family.
+   *
+   * @param columnFamily tên column family (vd: accounts)
+   * @return profile mặc định
+   */
+  public static ColumnFamilyProfile defaultFor(String columnFamily) {
+    switch (columnFamily) {
+      case RocksDBConfig.ACCOUNT_CF:
+      case RocksDBConfig.TICK_CF:
+      case RocksDBConfig.AMM_POOL_CF:
+        return POINT_LOOKUP;
+      case RocksDBConfig.ACCOUNT_HISTORIES_CF:
+        return PREFIX_SCAN;
+      case RocksDBConfig.TRADE_CF:
+      case RocksDBConfig.CANDLE_CF:
+        return TIME_SERIES;
+      case RocksDBConfig.TICK_BITMAP_CF:
+        return HOT_SMALL;
+      case RocksDBConfig.DEPOSIT_ARCHIVE_CF:
+      case RocksDBConfig.WITHDRAWAL_ARCHIVE_CF:
+      case RocksDBConfig.AMM_POSITION_ARCHIVE_CF:
+      case RocksDBConfig.TRADE_ARCHIVE_CF:
+      case RocksDBConfig.BALANCE_LOCK_ARCHIVE_CF:
+        return COLD;
+      default:
+        return STANDARD;
+    }
+  }
+
+  /**
+   * Tìm profile theo tên (point_lookup, prefix_scan, ...), trả về fallback nếu
+   * không nhận ra.
+   *
+   * @param name     tên profile
+   * @param fallback profile dùng khi tên rỗng hoặc sai
+   * @return profile tương ứng
+   */
+  public static ColumnFamilyProfile fromName(String name, ColumnFamilyProfile fallback) {
+    if (name == null || name.isBlank()) {
+      return fallback;
+    }
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return fallback;
+    }
+  }
+
+  /**
+   * Profile cấu hình cho một column family.
+   * Ưu tiên ROCKSDB_CF_PROFILE_&lt;CF&gt; (vd: ROCKSDB_CF_PROFILE_DEPOSITS), sau đó
+   * profile mặc định.
+   *
+   * @param envManager   EnvManager để đọc cấu hình
+   * @param columnFamily tên column family
+   * @return profile cho column family
+   */
+  public static ColumnFamilyProfile forColumnFamily(EnvManager envManager, String columnFamily) {
+    ColumnFamilyProfile defaultProfile = defaultFor(columnFamily);
+    return fromName(envManager.get(envKey(columnFamily), defaultProfile.name()), defaultProfile);
+  }
+
+  /**
+   * Tên biến môi trường cấu hình profile cho một column family.
+   *
+   * @param columnFamily tên column family (vd: account_histories)
+   * @return tên biến môi trường (vd: ROCKSDB_CF_PROFILE_ACCOUNT_HISTORIES)
+   */
+  public static String envKey(String columnFamily) {
+    return PROFILE_ENV_PREFIX + columnFamily.toUpperCase(Locale.ROOT);
+  }
+}
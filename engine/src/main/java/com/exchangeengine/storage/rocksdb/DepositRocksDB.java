@@ -61,7 +61,35 @@ public class DepositRocksDB {
    * @return Optional chứa CoinDeposit nếu tồn tại
    */
   public Optional<CoinDeposit> getDeposit(String identifier) {
-    return rocksDBService.getObject(identifier, rocksDBService.getDepositCF(), CoinDeposit.class, "deposit");
+    return rocksDBService.getObject(identifier, rocksDBService.getDepositCF(), CoinDeposit.class, "deposit")
+        .or(() -> getArchivedDeposit(identifier));
+  }
+
+  /**
+   * Lấy CoinDeposit đã được chuyển sang archive
+   *
+   * @param identifier Identifier của deposit
+   * @return Optional chứa CoinDeposit nếu tồn tại trong archive
+   */
+  public Optional<CoinDeposit> getArchivedDeposit(String identifier) {
+    return rocksDBService.getObject(identifier, rocksDBService.getDepositArchiveCF(), CoinDeposit.class,
+        "deposit_archive");
+  }
+
+  /**
+   * Chuyển các deposit đã kết thúc (processed, failed) và cập nhật lần cuối trước
+   * olderThan sang archive
+   *
+   * @param olderThan  Mốc thời gian (millis)
+   * @param startAfter Key cuối của lần gọi trước, null để bắt đầu từ đầu
+   * @param scanLimit  Số bản ghi tối đa được duyệt
+   * @return Key cuối đã duyệt (null nếu đã hết) và số bản ghi đã chuyển
+   */
+  public Pair<byte[], Integer> archiveDeposits(long olderThan, byte[] startAfter, int scanLimit) {
+    return rocksDBService.archiveObjects(rocksDBService.getDepositCF(), rocksDBService.getDepositArchiveCF(),
+        CoinDeposit.class, deposit -> (deposit.isProcessed() || deposit.isFailed())
+            && deposit.getUpdatedAt() < olderThan,
+        startAfter, scanLimit, "deposits");
   }
 
   /**
@@ -0,0 +1,70 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool các direct ByteBuffer cùng kích thước, dùng lại giữa các lần ghi batch
+ * để không phải cấp phát bộ nhớ off-heap mỗi lần flush.
+ *
+ * Buffer lớn hơn kích thước chuẩn (bản ghi quá lớn) được cấp phát riêng và
+ * không trả về pool.
+ */
+final class DirectBufferPool {
+  private final int bufferSize;
+  private final int maxPooled;
+  private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+
+  /**
+   * @param bufferSize Kích thước mỗi buffer (byte)
+   * @param maxPooled  Số buffer tối đa giữ lại trong pool
+   */
+  DirectBufferPool(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  /**
+   * Lấy một buffer rỗng có dung lượng ít nhất minCapacity
+   */
+  ByteBuffer acquire(int minCapacity) {
+    if (minCapacity > bufferSize) {
+      return ByteBuffer.allocateDirect(minCapacity);
+    }
+
+    ByteBuffer buffer = free.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    pooled.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Trả buffer về pool, bỏ đi nếu pool đã đầy hoặc buffer không đúng kích thước
+   */
+  void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+      return;
+    }
+    if (pooled.incrementAndGet() > maxPooled) {
+      pooled.decrementAndGet();
+      return;
+    }
+    free.offer(buffer);
+  }
+
+  int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Số buffer đang nằm trong pool
+   */
+  int pooledCount() {
+    return pooled.get();
+  }
+}
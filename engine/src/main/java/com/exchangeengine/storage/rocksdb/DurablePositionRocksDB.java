@@ -0,0 +1,43 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.Optional;
+
+import com.exchangeengine.model.DurablePosition;
+
+/**
+ * Lưu DurablePosition của lần flush gần nhất trong kafka_group_state CF, nên
+ * mọi checkpoint/backup của database đều mang theo vị trí tương ứng
+ */
+public class DurablePositionRocksDB {
+  private static volatile DurablePositionRocksDB instance;
+  private final RocksDBService rocksDBService;
+
+  public static synchronized DurablePositionRocksDB getInstance() {
+    if (instance == null) {
+      instance = new DurablePositionRocksDB();
+    }
+    return instance;
+  }
+
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  public static void setTestInstance(DurablePositionRocksDB testInstance) {
+    instance = testInstance;
+  }
+
+  private DurablePositionRocksDB() {
+    this.rocksDBService = RocksDBService.getInstance();
+  }
+
+  public void saveDurablePosition(DurablePosition position) {
+    rocksDBService.saveObject(position, rocksDBService.getKafkaGroupStateCF(), DurablePosition::getKey,
+        "durable_position");
+  }
+
+  public Optional<DurablePosition> getDurablePosition() {
+    return rocksDBService.getObject(DurablePosition.KEY, rocksDBService.getKafkaGroupStateCF(),
+        DurablePosition.class, "durable_position");
+  }
+}
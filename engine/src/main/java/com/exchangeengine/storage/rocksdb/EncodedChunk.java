@@ -0,0 +1,179 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+
+import com.exchangeengine.util.JsonSerializer;
+
+/**
+ * Một nhóm bản ghi đã serialize liền nhau trong một direct buffer lấy từ
+ * DirectBufferPool: key (UTF-8 hoặc nhị phân) rồi đến value JSON, không tạo
+ * mảng byte trung gian cho từng bản ghi.
+ *
+ * Chỉ một thread ghi vào chunk (thread serialize), sau đó thread ghi batch đọc
+ * từng bản ghi qua put(). Gọi release() khi đã ghi xong để trả buffer về pool.
+ */
+final class EncodedChunk {
+  private static final int INITIAL_ENTRIES = 64;
+
+  private final DirectBufferPool pool;
+  private final OutputStream out = new BufferOutputStream();
+  private ByteBuffer buffer;
+  private int[] keyEnds = new int[INITIAL_ENTRIES];
+  private int[] valueEnds = new int[INITIAL_ENTRIES];
+  private int count;
+
+  // View riêng cho key và value, tạo khi bắt đầu ghi batch
+  private ByteBuffer keyView;
+  private ByteBuffer valueView;
+
+  EncodedChunk(DirectBufferPool pool) {
+    this.pool = pool;
+    this.buffer = pool.acquire(0);
+  }
+
+  /**
+   * Thêm bản ghi với key chuỗi (mã hóa UTF-8). Nếu serialize lỗi, buffer được
+   * trả về trạng thái trước khi thêm và ngoại lệ được ném lại.
+   */
+  void append(String key, Object value) {
+    int start = buffer.position();
+    try {
+      putKey(key);
+      appendValue(value);
+    } catch (RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Thêm bản ghi với key nhị phân
+   */
+  void append(byte[] key, Object value) {
+    int start = buffer.position();
+    try {
+      ensureCapacity(key.length);
+      buffer.put(key);
+      appendValue(value);
+    } catch (RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Ghi bản ghi thứ index vào WriteBatch qua overload ByteBuffer của RocksJava
+   *
+   * @return Số byte (key + value) của bản ghi
+   */
+  int put(WriteBatch batch, ColumnFamilyHandle cf, int index) throws RocksDBException {
+    if (keyView == null) {
+      keyView = buffer.duplicate();
+      valueView = buffer.duplicate();
+    }
+
+    int start = index == 0 ? 0 : valueEnds[index - 1];
+    int keyEnd = keyEnds[index];
+    int valueEnd = valueEnds[index];
+
+    keyView.limit(keyEnd);
+    keyView.position(start);
+    valueView.limit(valueEnd);
+    valueView.position(keyEnd);
+    batch.put(cf, keyView, valueView);
+    return valueEnd - start;
+  }
+
+  /**
+   * Số bản ghi trong chunk
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * Tổng số byte đã serialize
+   */
+  int bytes() {
+    return buffer == null ? 0 : buffer.position();
+  }
+
+  /**
+   * Trả buffer về pool, chunk không dùng được nữa
+   */
+  void release() {
+    if (buffer != null) {
+      pool.release(buffer);
+      buffer = null;
+      keyView = null;
+      valueView = null;
+    }
+  }
+
+  private void putKey(String key) {
+    int length = key.length();
+    ensureCapacity(length);
+    int start = buffer.position();
+    for (int i = 0; i < length; i++) {
+      char c = key.charAt(i);
+      if (c >= 0x80) {
+        // Key không phải ASCII: mã hóa lại toàn bộ bằng encoder UTF-8
+        buffer.position(start);
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+        return;
+      }
+      buffer.put((byte) c);
+    }
+  }
+
+  private void appendValue(Object value) {
+    int keyEnd = buffer.position();
+    JsonSerializer.serialize(value, out);
+
+    if (count == keyEnds.length) {
+      keyEnds = Arrays.copyOf(keyEnds, count * 2);
+      valueEnds = Arrays.copyOf(valueEnds, count * 2);
+    }
+    keyEnds[count] = keyEnd;
+    valueEnds[count] = buffer.position();
+    count++;
+  }
+
+  private void ensureCapacity(int needed) {
+    if (buffer.remaining() >= needed) {
+      return;
+    }
+
+    ByteBuffer larger = pool.acquire(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+    buffer.flip();
+    larger.put(buffer);
+    pool.release(buffer);
+    buffer = larger;
+  }
+
+  /**
+   * Jackson ghi thẳng vào direct buffer, tự mở rộng buffer khi cần
+   */
+  private final class BufferOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      buffer.put(b, off, len);
+    }
+  }
+}
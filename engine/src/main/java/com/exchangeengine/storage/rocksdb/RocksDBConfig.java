@@ -3,16 +3,16 @@ package com.exchangeengine.storage.rocksdb;
 import org.rocksdb.DBOptions;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.WriteOptions;
-import org.rocksdb.BlockBasedTableConfig;
-import org.rocksdb.BloomFilter;
-import org.rocksdb.LRUCache;
 import com.exchangeengine.util.EnvManager;
 
 /**
  * Lớp chứa các cấu hình và hằng số cho RocksDB
  */
 public class RocksDBConfig {
-  private static final EnvManager envManager = EnvManager.getInstance();
+  // Lấy EnvManager mỗi lần đọc để không giữ instance cũ khi class được nạp sớm
+  private static EnvManager envManager() {
+    return EnvManager.getInstance();
+  }
 
   // Đường dẫn mặc định đến thư mục dữ liệu
   public static final String DEFAULT_DB_PATH = "./data/rocksdb/development";
@@ -33,6 +33,13 @@ public class RocksDBConfig {
   public static final String BALANCE_LOCK_CF = "balance_locks";
   public static final String KAFKA_GROUP_STATE_CF = "kafka_group_state";
   public static final String SETTINGS_CF = "settings";
+  public static final String CANDLE_CF = "candles";
+  // Bản ghi đã kết thúc được ArchiveService chuyển khỏi column family nóng
+  public static final String DEPOSIT_ARCHIVE_CF = "deposits_archive";
+  public static final String WITHDRAWAL_ARCHIVE_CF = "withdrawals_archive";
+  public static final String AMM_POSITION_ARCHIVE_CF = "amm_positions_archive";
+  public static final String TRADE_ARCHIVE_CF = "trades_archive";
+  public static final String BALANCE_LOCK_ARCHIVE_CF = "balance_locks_archive";
 
   public static final int DEFAULT_CF_INDEX = 0;
   public static final int ACCOUNT_CF_INDEX = 1;
@@ -50,45 +57,181 @@ public class RocksDBConfig {
   public static final int BALANCE_LOCK_CF_INDEX = 13;
   public static final int KAFKA_GROUP_STATE_CF_INDEX = 14;
   public static final int SETTINGS_CF_INDEX = 15;
+  public static final int CANDLE_CF_INDEX = 16;
+  public static final int DEPOSIT_ARCHIVE_CF_INDEX = 17;
+  public static final int WITHDRAWAL_ARCHIVE_CF_INDEX = 18;
+  public static final int AMM_POSITION_ARCHIVE_CF_INDEX = 19;
+  public static final int TRADE_ARCHIVE_CF_INDEX = 20;
+  public static final int BALANCE_LOCK_ARCHIVE_CF_INDEX = 21;
 
   // Cấu hình batch size mặc định
   public static final int DEFAULT_MAX_RECORDS_PER_BATCH = 10000;
   public static final long DEFAULT_MAX_BATCH_SIZE_BYTES = 50 * 1024 * 1024; // 50MB
   public static final double BATCH_SIZE_THRESHOLD_PERCENT = 0.8; // 80% của max size
 
+  // Cấu hình serialize batch vào direct buffer
+  public static final int SERIALIZATION_CHUNK_SIZE = 256; // số bản ghi mỗi task serialize
+  public static final int SERIALIZATION_QUEUE_CAPACITY = 64;
+  public static final int DIRECT_BUFFER_SIZE = 256 * 1024; // 256KB
+  public static final int DIRECT_BUFFER_POOL_SIZE = 32;
+
   // Cấu hình mặc định cho RocksDB
   public static final int DEFAULT_MAX_OPEN_FILES = 1000;
   public static final int DEFAULT_WRITE_BUFFER_SIZE = 64; // MB
   public static final int DEFAULT_MAX_WRITE_BUFFER_NUMBER = 3;
   public static final int DEFAULT_TARGET_FILE_SIZE_BASE = 64; // MB
 
+  // Cấu hình cho query replica (RocksDB secondary instance)
+  public static final long DEFAULT_SECONDARY_CATCH_UP_INTERVAL_MS = 200;
+
   // Cấu hình cho history cache
   public static final int ACCOUNT_HISTORY_PREFIX_SIZE = 8;
-  public static final int BLOOM_FILTER_BITS_PER_KEY = 8;
-  public static final int BLOCK_CACHE_SIZE_MB = 32;
+  // Read-ahead cho iterator quét theo khoảng (history query), đọc trước nhiều block liên tiếp
+  public static final long RANGE_SCAN_READAHEAD_SIZE = 256 * 1024;
+
+  // Cấu hình tài nguyên dùng chung giữa các column family (RocksDBTuning)
+  public static final int DEFAULT_BLOCK_CACHE_SIZE_MB = 256;
+  public static final int DEFAULT_WRITE_BUFFER_MANAGER_SIZE_MB = 256;
+  public static final int DEFAULT_RATE_LIMIT_MB_PER_SEC = 64;
+  public static final int DEFAULT_BLOOM_FILTER_BITS_PER_KEY = 10;
+  public static final int HOT_SMALL_WRITE_BUFFER_SIZE_MB = 8;
+
+  // Thu thập metrics
+  public static final int DEFAULT_METRICS_INTERVAL_MS = 10000;
+  public static final int DEFAULT_PENDING_COMPACTION_ALERT_MB = 32 * 1024; // 32GB, nửa soft limit mặc định
 
   public RocksDBConfig() {
   }
 
   // Lấy cấu hình từ môi trường
   public static String getDbPath() {
-    return envManager.get("ROCKSDB_DATA_DIR", DEFAULT_DB_PATH);
+    return envManager().get("ROCKSDB_DATA_DIR", DEFAULT_DB_PATH);
   }
 
   public static int getMaxOpenFiles() {
-    return envManager.getInt("ROCKSDB_MAX_OPEN_FILES", DEFAULT_MAX_OPEN_FILES);
+    return envManager().getInt("ROCKSDB_MAX_OPEN_FILES", DEFAULT_MAX_OPEN_FILES);
   }
 
   public static int getWriteBufferSize() {
-    return envManager.getInt("ROCKSDB_WRITE_BUFFER_SIZE", DEFAULT_WRITE_BUFFER_SIZE);
+    return envManager().getInt("ROCKSDB_WRITE_BUFFER_SIZE", DEFAULT_WRITE_BUFFER_SIZE);
   }
 
   public static int getMaxWriteBufferNumber() {
-    return envManager.getInt("ROCKSDB_MAX_WRITE_BUFFER_NUMBER", DEFAULT_MAX_WRITE_BUFFER_NUMBER);
+    return envManager().getInt("ROCKSDB_MAX_WRITE_BUFFER_NUMBER", DEFAULT_MAX_WRITE_BUFFER_NUMBER);
   }
 
   public static int getTargetFileSizeBase() {
-    return envManager.getInt("ROCKSDB_TARGET_FILE_SIZE_BASE", DEFAULT_TARGET_FILE_SIZE_BASE);
+    return envManager().getInt("ROCKSDB_TARGET_FILE_SIZE_BASE", DEFAULT_TARGET_FILE_SIZE_BASE);
+  }
+
+  /**
+   * Dung lượng block cache dùng chung cho mọi column family (MB).
+   *
+   * @return dung lượng (MB)
+   */
+  public static int getBlockCacheSizeMb() {
+    return envManager().getInt("ROCKSDB_BLOCK_CACHE_SIZE_MB", DEFAULT_BLOCK_CACHE_SIZE_MB);
+  }
+
+  /**
+   * Tổng dung lượng memtable của mọi column family (MB), được tính vào block
+   * cache. 0 = không giới hạn.
+   *
+   * @return dung lượng (MB)
+   */
+  public static int getWriteBufferManagerSizeMb() {
+    return envManager().getInt("ROCKSDB_WRITE_BUFFER_MANAGER_SIZE_MB", DEFAULT_WRITE_BUFFER_MANAGER_SIZE_MB);
+  }
+
+  /**
+   * Giới hạn tốc độ ghi của flush/compaction chạy nền (MB/s). 0 = không giới hạn.
+   *
+   * @return tốc độ (MB/s)
+   */
+  public static int getRateLimitMbPerSec() {
+    return envManager().getInt("ROCKSDB_RATE_LIMIT_MB_PER_SEC", DEFAULT_RATE_LIMIT_MB_PER_SEC);
+  }
+
+  public static int getBloomFilterBitsPerKey() {
+    return envManager().getInt("ROCKSDB_BLOOM_FILTER_BITS_PER_KEY", DEFAULT_BLOOM_FILTER_BITS_PER_KEY);
+  }
+
+  /**
+   * Bật RocksDB Statistics (ticker block cache, stall, compaction...).
+   *
+   * @return true nếu bật, mặc định true
+   */
+  public static boolean isStatisticsEnabled() {
+    return envManager().getBoolean("ROCKSDB_STATISTICS_ENABLED", true);
+  }
+
+  /**
+   * Chu kỳ RocksDBMetrics thu thập property và ticker.
+   *
+   * @return chu kỳ (ms)
+   */
+  public static int getMetricsIntervalMs() {
+    return envManager().getInt("ROCKSDB_METRICS_INTERVAL_MS", DEFAULT_METRICS_INTERVAL_MS);
+  }
+
+  /**
+   * Ngưỡng cảnh báo tổng số byte chờ compaction của mọi column family (MB).
+   * 0 = không cảnh báo.
+   *
+   * @return ngưỡng (MB)
+   */
+  public static int getPendingCompactionAlertMb() {
+    return envManager().getInt("ROCKSDB_PENDING_COMPACTION_ALERT_MB", DEFAULT_PENDING_COMPACTION_ALERT_MB);
+  }
+
+  /**
+   * Profile của một column family, có thể ghi đè bằng ROCKSDB_CF_PROFILE_&lt;CF&gt;.
+   *
+   * @param columnFamily tên column family
+   * @return profile
+   */
+  public static ColumnFamilyProfile getColumnFamilyProfile(String columnFamily) {
+    return ColumnFamilyProfile.forColumnFamily(envManager(), columnFamily);
+  }
+
+  /**
+   * Số thread serialize dữ liệu của saveBatch, mặc định một nửa số core (1..4).
+   *
+   * @return số thread
+   */
+  public static int getSerializationThreads() {
+    int defaultThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    return Math.max(1, envManager().getInt("ROCKSDB_SERIALIZATION_THREADS", defaultThreads));
+  }
+
+  /**
+   * Process chạy ở chế độ query replica: mở database của engine dưới dạng
+   * RocksDB secondary (chỉ đọc) và chỉ phục vụ các topic query.
+   *
+   * @return true nếu QUERY_REPLICA_MODE=true
+   */
+  public static boolean isQueryReplicaMode() {
+    return envManager().getBoolean("QUERY_REPLICA_MODE", false);
+  }
+
+  /**
+   * Thư mục riêng của secondary instance (chứa info log/manifest của secondary).
+   * Mỗi replica trên cùng host cần một thư mục khác nhau, mặc định thêm pid.
+   *
+   * @return đường dẫn thư mục secondary
+   */
+  public static String getSecondaryPath() {
+    return envManager().get("ROCKSDB_SECONDARY_DIR",
+        getDbPath() + "-secondary-" + ProcessHandle.current().pid());
+  }
+
+  /**
+   * Chu kỳ gọi tryCatchUpWithPrimary trên secondary instance.
+   *
+   * @return chu kỳ (ms)
+   */
+  public static long getSecondaryCatchUpIntervalMs() {
+    return envManager().getInt("ROCKSDB_SECONDARY_CATCH_UP_INTERVAL_MS", (int) DEFAULT_SECONDARY_CATCH_UP_INTERVAL_MS);
   }
 
   /**
@@ -121,30 +264,6 @@ public class RocksDBConfig {
         .setTargetFileSizeBase(targetFileSizeBaseBytes);
   }
 
-  /**
-   * Tạo và trả về ColumnFamilyOptions cho lịch sử giao dịch
-   *
-   * @param writeBufferSizeBytes    Kích thước buffer ghi (bytes)
-   * @param maxWriteBufferNumber    Số lượng buffer ghi tối đa
-   * @param targetFileSizeBaseBytes Kích thước file đích (bytes)
-   * @return ColumnFamilyOptions được cấu hình cho lịch sử giao dịch
-   */
-  public static ColumnFamilyOptions createHistoryColumnFamilyOptions(
-      long writeBufferSizeBytes, int maxWriteBufferNumber, long targetFileSizeBaseBytes) {
-    return new ColumnFamilyOptions()
-        .setWriteBufferSize(writeBufferSizeBytes)
-        .setMaxWriteBufferNumber(maxWriteBufferNumber)
-        .setTargetFileSizeBase(targetFileSizeBaseBytes)
-        .setOptimizeFiltersForHits(true) // Tăng hiệu suất filter
-        .useFixedLengthPrefixExtractor(ACCOUNT_HISTORY_PREFIX_SIZE) // Chia index theo prefix 8 byte (tìm kiếm nhanh)
-        .setTableFormatConfig(new BlockBasedTableConfig()
-            .setFilterPolicy(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false)) // Giữ Bloom Filter nhưng dùng ít RAM
-                                                                                // hơn
-            .setCacheIndexAndFilterBlocks(true) // Để RocksDB cache index & filter trên disk thay vì RAM
-            .setBlockCache(new LRUCache(BLOCK_CACHE_SIZE_MB * 1024 * 1024)) // Giới hạn cache
-        );
-  }
-
   /**
    * Tạo và trả về WriteOptions được cấu hình
    *
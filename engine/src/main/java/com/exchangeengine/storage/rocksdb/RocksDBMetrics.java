@@ -0,0 +1,308 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exchangeengine.util.DaemonThreadFactory;
+
+/**
+ * Thu thập định kỳ property rocksdb.* của từng column family và ticker của
+ * Statistics:
+ * - cf.&lt;tên&gt;.*: byte chờ compaction, dung lượng memtable, số memtable
+ * immutable, dung lượng SST, số key ước tính
+ * - db.*: compaction/flush đang chạy, trạng thái dừng ghi, tốc độ ghi bị làm
+ * chậm, dung lượng block cache
+ * - stats.*: thời gian stall, tỷ lệ hit block cache (data/index/filter) và
+ * memtable trong chu kỳ vừa qua, byte đọc/ghi và compaction
+ *
+ * Write stall chặn flush của FlushScheduler nên mỗi chu kỳ có stall (STALL_MICROS
+ * tăng, is-write-stopped, actual-delayed-write-rate &gt; 0 hoặc WriteStallListener
+ * báo đang stall) ghi log ALERT và tăng alerts.writeStall. Tổng byte chờ
+ * compaction vượt ngưỡng tăng alerts.compactionDebt.
+ */
+public class RocksDBMetrics {
+  private static final Logger logger = LoggerFactory.getLogger(RocksDBMetrics.class);
+
+  // Singleton instance
+  private static volatile RocksDBMetrics instance;
+
+  private static final long MB = 1024L * 1024L;
+
+  static final String PENDING_COMPACTION_BYTES = "rocksdb.estimate-pending-compaction-bytes";
+  static final String MEMTABLE_BYTES = "rocksdb.cur-size-all-mem-tables";
+  static final String IMMUTABLE_MEMTABLES = "rocksdb.num-immutable-mem-table";
+  static final String SST_BYTES = "rocksdb.total-sst-files-size";
+  static final String ESTIMATE_KEYS = "rocksdb.estimate-num-keys";
+  static final String RUNNING_COMPACTIONS = "rocksdb.num-running-compactions";
+  static final String RUNNING_FLUSHES = "rocksdb.num-running-flushes";
+  static final String IS_WRITE_STOPPED = "rocksdb.is-write-stopped";
+  static final String DELAYED_WRITE_RATE = "rocksdb.actual-delayed-write-rate";
+  static final String BLOCK_CACHE_USAGE = "rocksdb.block-cache-usage";
+  static final String BLOCK_CACHE_PINNED_USAGE = "rocksdb.block-cache-pinned-usage";
+
+  private static final TickerType[] TICKERS = {
+      TickerType.STALL_MICROS,
+      TickerType.BLOCK_CACHE_HIT, TickerType.BLOCK_CACHE_MISS,
+      TickerType.BLOCK_CACHE_DATA_HIT, TickerType.BLOCK_CACHE_DATA_MISS,
+      TickerType.BLOCK_CACHE_INDEX_HIT, TickerType.BLOCK_CACHE_INDEX_MISS,
+      TickerType.BLOCK_CACHE_FILTER_HIT, TickerType.BLOCK_CACHE_FILTER_MISS,
+      TickerType.MEMTABLE_HIT, TickerType.MEMTABLE_MISS,
+      TickerType.BYTES_WRITTEN, TickerType.BYTES_READ,
+      TickerType.COMPACT_READ_BYTES, TickerType.COMPACT_WRITE_BYTES
+  };
+
+  private final RocksDBService rocksDBService;
+  private final long intervalMs;
+  private final long pendingCompactionAlertBytes;
+
+  private ScheduledExecutorService scheduler;
+
+  // Chỉ thread thu thập đọc/ghi
+  private final Map<TickerType, Long> lastTickers = new EnumMap<>(TickerType.class);
+  private long lastCollectedAt;
+
+  private volatile Map<String, Object> lastMetrics = new LinkedHashMap<>();
+  private final AtomicLong writeStallAlerts = new AtomicLong();
+  private final AtomicLong compactionDebtAlerts = new AtomicLong();
+  private final AtomicLong collectErrors = new AtomicLong();
+
+  /**
+   * Lấy instance của RocksDBMetrics với cấu hình từ RocksDBConfig.
+   *
+   * @return Instance của RocksDBMetrics
+   */
+  public static synchronized RocksDBMetrics getInstance() {
+    if (instance == null) {
+      instance = new RocksDBMetrics(RocksDBService.getInstance(), RocksDBConfig.getMetricsIntervalMs(),
+          RocksDBConfig.getPendingCompactionAlertMb() * MB);
+    }
+    return instance;
+  }
+
+  /**
+   * Thiết lập instance kiểm thử (chỉ sử dụng cho testing)
+   *
+   * @param testInstance Instance kiểm thử cần thiết lập
+   */
+  public static void setTestInstance(RocksDBMetrics testInstance) {
+    instance = testInstance;
+  }
+
+  /**
+   * Reset instance về null (chỉ sử dụng cho testing)
+   */
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  /**
+   * @param rocksDBService              Service giữ database cần đo
+   * @param intervalMs                  Chu kỳ thu thập
+   * @param pendingCompactionAlertBytes Ngưỡng cảnh báo byte chờ compaction, 0 =
+   *                                    không cảnh báo
+   */
+  RocksDBMetrics(RocksDBService rocksDBService, long intervalMs, long pendingCompactionAlertBytes) {
+    this.rocksDBService = rocksDBService;
+    this.intervalMs = intervalMs;
+    this.pendingCompactionAlertBytes = pendingCompactionAlertBytes;
+  }
+
+  /**
+   * Chạy thu thập định kỳ
+   */
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("rocksdb", "metrics"));
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        collect();
+      } catch (Exception e) {
+        collectErrors.incrementAndGet();
+        logger.error("Error collecting RocksDB metrics: {}", e.getMessage(), e);
+      }
+    }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    logger.info("RocksDBMetrics started: intervalMs={}, statistics={}, pendingCompactionAlertBytes={}",
+        intervalMs, rocksDBService.getStatistics() != null, pendingCompactionAlertBytes);
+  }
+
+  /**
+   * Dừng thu thập. Phải gọi trước RocksDBService.close().
+   */
+  public synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      try {
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      scheduler = null;
+      logger.info("RocksDBMetrics shut down, last metrics: {}", lastMetrics);
+    }
+  }
+
+  /**
+   * Một lần thu thập: đọc property, ticker và kiểm tra ngưỡng cảnh báo.
+   *
+   * @return Metrics vừa thu thập
+   */
+  synchronized Map<String, Object> collect() {
+    RocksDB db = rocksDBService.getDb();
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    long now = System.currentTimeMillis();
+
+    long pendingCompactionBytes = 0;
+    long memtableBytes = 0;
+    long sstBytes = 0;
+    for (Map.Entry<String, ColumnFamilyHandle> entry : rocksDBService.getColumnFamilies().entrySet()) {
+      String prefix = "cf." + entry.getKey() + ".";
+      ColumnFamilyHandle cf = entry.getValue();
+      long pending = property(db, cf, PENDING_COMPACTION_BYTES);
+      long memtable = property(db, cf, MEMTABLE_BYTES);
+      long sst = property(db, cf, SST_BYTES);
+      metrics.put(prefix + "pendingCompactionBytes", pending);
+      metrics.put(prefix + "memtableBytes", memtable);
+      metrics.put(prefix + "immutableMemtables", property(db, cf, IMMUTABLE_MEMTABLES));
+      metrics.put(prefix + "sstBytes", sst);
+      metrics.put(prefix + "estimatedKeys", property(db, cf, ESTIMATE_KEYS));
+      pendingCompactionBytes += Math.max(0, pending);
+      memtableBytes += Math.max(0, memtable);
+      sstBytes += Math.max(0, sst);
+    }
+
+    long writeStopped = property(db, null, IS_WRITE_STOPPED);
+    long delayedWriteRate = property(db, null, DELAYED_WRITE_RATE);
+    metrics.put("db.pendingCompactionBytes", pendingCompactionBytes);
+    metrics.put("db.memtableBytes", memtableBytes);
+    metrics.put("db.sstBytes", sstBytes);
+    metrics.put("db.runningCompactions", property(db, null, RUNNING_COMPACTIONS));
+    metrics.put("db.runningFlushes", property(db, null, RUNNING_FLUSHES));
+    metrics.put("db.writeStopped", writeStopped);
+    metrics.put("db.delayedWriteRate", delayedWriteRate);
+    // Block cache dùng chung nên đọc một lần trên column family mặc định
+    metrics.put("db.blockCacheUsage", property(db, null, BLOCK_CACHE_USAGE));
+    metrics.put("db.blockCachePinnedUsage", property(db, null, BLOCK_CACHE_PINNED_USAGE));
+
+    long stallMicros = collectStatistics(metrics);
+
+    WriteStallListener listener = rocksDBService.getWriteStallListener();
+    boolean listenerStalled = listener != null && listener.isStalled();
+    if (listener != null) {
+      metrics.put("stall.active", listenerStalled);
+      metrics.put("stall.delayedEvents", listener.getDelayedEvents());
+      metrics.put("stall.stoppedEvents", listener.getStoppedEvents());
+    }
+
+    if (stallMicros > 0 || writeStopped > 0 || delayedWriteRate > 0 || listenerStalled) {
+      writeStallAlerts.incrementAndGet();
+      logger.error("ALERT: RocksDB write stall, flush của FlushScheduler/OutputProcessor bị chặn: "
+          + "stallMicros=+{} trong {} ms, writeStopped={}, delayedWriteRate={} B/s, pendingCompactionBytes={}, "
+          + "column family: {}",
+          stallMicros, lastCollectedAt == 0 ? 0 : now - lastCollectedAt, writeStopped, delayedWriteRate,
+          pendingCompactionBytes, listener == null ? null : listener.getConditions());
+    }
+    if (pendingCompactionAlertBytes > 0 && pendingCompactionBytes >= pendingCompactionAlertBytes) {
+      compactionDebtAlerts.incrementAndGet();
+      logger.warn("ALERT: RocksDB compaction debt {} bytes vượt ngưỡng {} bytes, sắp bị write stall",
+          pendingCompactionBytes, pendingCompactionAlertBytes);
+    }
+
+    metrics.put("alerts.writeStall", writeStallAlerts.get());
+    metrics.put("alerts.compactionDebt", compactionDebtAlerts.get());
+    metrics.put("collectErrors", collectErrors.get());
+
+    lastCollectedAt = now;
+    lastMetrics = metrics;
+    logger.debug("RocksDB metrics: {}", metrics);
+    return metrics;
+  }
+
+  /**
+   * Ghi ticker của Statistics vào metrics
+   *
+   * @return Số micro giây stall trong chu kỳ vừa qua, 0 nếu không bật Statistics
+   */
+  private long collectStatistics(Map<String, Object> metrics) {
+    Statistics statistics = rocksDBService.getStatistics();
+    if (statistics == null) {
+      return 0;
+    }
+
+    Map<TickerType, Long> deltas = new EnumMap<>(TickerType.class);
+    for (TickerType ticker : TICKERS) {
+      long value = statistics.getTickerCount(ticker);
+      Long previous = lastTickers.put(ticker, value);
+      deltas.put(ticker, previous == null ? value : Math.max(0, value - previous));
+    }
+
+    metrics.put("stats.stallMicros", lastTickers.get(TickerType.STALL_MICROS));
+    metrics.put("stats.blockCacheHitRatio",
+        ratio(deltas, TickerType.BLOCK_CACHE_HIT, TickerType.BLOCK_CACHE_MISS));
+    metrics.put("stats.blockCacheDataHitRatio",
+        ratio(deltas, TickerType.BLOCK_CACHE_DATA_HIT, TickerType.BLOCK_CACHE_DATA_MISS));
+    metrics.put("stats.blockCacheIndexHitRatio",
+        ratio(deltas, TickerType.BLOCK_CACHE_INDEX_HIT, TickerType.BLOCK_CACHE_INDEX_MISS));
+    metrics.put("stats.blockCacheFilterHitRatio",
+        ratio(deltas, TickerType.BLOCK_CACHE_FILTER_HIT, TickerType.BLOCK_CACHE_FILTER_MISS));
+    metrics.put("stats.memtableHitRatio", ratio(deltas, TickerType.MEMTABLE_HIT, TickerType.MEMTABLE_MISS));
+    metrics.put("stats.bytesWritten", lastTickers.get(TickerType.BYTES_WRITTEN));
+    metrics.put("stats.bytesRead", lastTickers.get(TickerType.BYTES_READ));
+    metrics.put("stats.compactReadBytes", lastTickers.get(TickerType.COMPACT_READ_BYTES));
+    metrics.put("stats.compactWriteBytes", lastTickers.get(TickerType.COMPACT_WRITE_BYTES));
+    return deltas.get(TickerType.STALL_MICROS);
+  }
+
+  /**
+   * Tỷ lệ hit trong chu kỳ, null nếu không có lần tra cứu nào
+   */
+  static Double ratio(Map<TickerType, Long> deltas, TickerType hit, TickerType miss) {
+    long hits = deltas.get(hit);
+    long total = hits + deltas.get(miss);
+    return total == 0 ? null : (double) hits / total;
+  }
+
+  /**
+   * Đọc property dạng số, -1 nếu RocksDB không hỗ trợ
+   *
+   * @param cf Column family, null cho property mức database
+   */
+  private static long property(RocksDB db, ColumnFamilyHandle cf, String name) {
+    try {
+      return cf == null ? db.getLongProperty(name) : db.getLongProperty(cf, name);
+    } catch (RocksDBException e) {
+      logger.debug("Cannot read RocksDB property {}: {}", name, e.getMessage());
+      return -1;
+    }
+  }
+
+  /**
+   * Metrics của lần thu thập gần nhất
+   */
+  public Map<String, Object> getMetrics() {
+    return new LinkedHashMap<>(lastMetrics);
+  }
+
+  public long getWriteStallAlerts() {
+    return writeStallAlerts.get();
+  }
+
+  public long getCompactionDebtAlerts() {
+    return compactionDebtAlerts.get();
+  }
+}
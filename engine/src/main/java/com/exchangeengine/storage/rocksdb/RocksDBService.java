@@ -4,17 +4,29 @@ import org.rocksdb.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.exchangeengine.util.DaemonThreadFactory;
 import com.exchangeengine.util.JsonSerializer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Service cơ bản để tương tác với RocksDB
@@ -24,12 +36,16 @@ public class RocksDBService implements AutoCloseable {
   private static volatile RocksDBService instance;
 
   private static final Logger logger = LoggerFactory.getLogger(RocksDBService.class);
+  // Số bản ghi mỗi WriteBatch khi chuyển key, tránh giữ cả column family trong một batch
+  private static final int MIGRATION_CHUNK_SIZE = 10000;
 
   private final String dbPath;
   private final int maxOpenFiles;
   private final long writeBufferSize;
   private final int maxWriteBufferNumber;
   private final long targetFileSizeBase;
+  // null = primary, khác null = secondary instance chỉ đọc (query replica)
+  private final String secondaryPath;
 
   private RocksDB db;
   private ColumnFamilyHandle defaultCF;
@@ -48,9 +64,29 @@ public class RocksDBService implements AutoCloseable {
   private ColumnFamilyHandle balanceLockCF;
   private ColumnFamilyHandle kafkaGroupStateCF;
   private ColumnFamilyHandle settingsCF;
+  private ColumnFamilyHandle candleCF;
+  private ColumnFamilyHandle depositArchiveCF;
+  private ColumnFamilyHandle withdrawalArchiveCF;
+  private ColumnFamilyHandle ammPositionArchiveCF;
+  private ColumnFamilyHandle tradeArchiveCF;
+  private ColumnFamilyHandle balanceLockArchiveCF;
 
   private List<ColumnFamilyHandle> columnFamilyHandles;
+  private final Map<String, ColumnFamilyHandle> columnFamiliesByName = new LinkedHashMap<>();
   private WriteOptions writeOptions;
+  private RocksDBTuning tuning;
+
+  // Tổng số byte (key + value) đã ghi qua saveBatch, FlushScheduler dùng để ước tính kích thước batch
+  private final AtomicLong bytesWritten = new AtomicLong();
+
+  // Serialize batch thẳng vào direct buffer trên pool thread riêng (không dùng common ForkJoinPool)
+  private final DirectBufferPool bufferPool = new DirectBufferPool(RocksDBConfig.DIRECT_BUFFER_SIZE,
+      RocksDBConfig.DIRECT_BUFFER_POOL_SIZE);
+  private final ThreadPoolExecutor serializationExecutor = createSerializationExecutor();
+
+  // Đọc điểm (getObject) qua overload ByteBuffer, mỗi thread giữ buffer key/value riêng
+  private final ReadOptions pointReadOptions = new ReadOptions();
+  private final ThreadLocal<PointReadBuffers> pointReadBuffers = ThreadLocal.withInitial(PointReadBuffers::new);
 
   static {
     RocksDB.loadLibrary();
@@ -81,6 +117,7 @@ public class RocksDBService implements AutoCloseable {
     this.writeBufferSize = RocksDBConfig.getWriteBufferSize() * 1024 * 1024;
     this.maxWriteBufferNumber = RocksDBConfig.getMaxWriteBufferNumber();
     this.targetFileSizeBase = RocksDBConfig.getTargetFileSizeBase() * 1024 * 1024;
+    this.secondaryPath = RocksDBConfig.isQueryReplicaMode() ? RocksDBConfig.getSecondaryPath() : null;
   }
 
   /**
@@ -90,48 +127,65 @@ public class RocksDBService implements AutoCloseable {
     try {
       logger.info("Initializing RocksDB at {}", dbPath);
 
-      // Tạo thư mục nếu chưa tồn tại
-      File dbDir = new File(dbPath);
+      // Tạo thư mục nếu chưa tồn tại (secondary chỉ tạo thư mục riêng của nó)
+      File dbDir = new File(isSecondary() ? secondaryPath : dbPath);
       if (!dbDir.exists()) {
         Files.createDirectories(dbDir.toPath());
       }
 
-      // Cấu hình RocksDB từ RocksDBConfig
-      DBOptions options = RocksDBConfig.createDBOptions(maxOpenFiles);
-
-      // Tạo standard column family options
-      ColumnFamilyOptions cfOptions = RocksDBConfig.createStandardColumnFamilyOptions(
-          writeBufferSize, maxWriteBufferNumber, targetFileSizeBase);
+      // Block cache, write buffer manager và rate limiter dùng chung cho mọi column family
+      tuning = RocksDBTuning.fromConfig(writeBufferSize, maxWriteBufferNumber, targetFileSizeBase);
 
-      // Tạo history column family options với cấu hình nâng cao
-      ColumnFamilyOptions cfHistoryOptions = RocksDBConfig.createHistoryColumnFamilyOptions(
-          writeBufferSize, maxWriteBufferNumber, targetFileSizeBase);
+      // Cấu hình RocksDB từ RocksDBConfig.
+      // Secondary phải giữ mọi file mở (-1) vì primary có thể xóa file sau compaction.
+      DBOptions options = tuning.applyTo(RocksDBConfig.createDBOptions(isSecondary() ? -1 : maxOpenFiles));
 
-      // Tạo danh sách column family
+      // Tạo danh sách column family, mỗi column family dùng options theo profile của nó
       List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.ACCOUNT_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.DEPOSIT_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.WITHDRAWAL_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.ACCOUNT_HISTORIES_CF.getBytes(),
-          cfHistoryOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.AMM_POOL_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.MERCHANT_ESCROW_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.TICK_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.TICK_BITMAP_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.AMM_POSITION_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.AMM_ORDERS_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.OFFER_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.TRADE_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.BALANCE_LOCK_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.KAFKA_GROUP_STATE_CF.getBytes(), cfOptions));
-      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDBConfig.SETTINGS_CF.getBytes(), cfOptions));
+      columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY,
+          tuning.columnFamilyOptions(ColumnFamilyProfile.STANDARD)));
+      for (String name : Arrays.asList(
+          RocksDBConfig.ACCOUNT_CF,
+          RocksDBConfig.DEPOSIT_CF,
+          RocksDBConfig.WITHDRAWAL_CF,
+          RocksDBConfig.ACCOUNT_HISTORIES_CF,
+          RocksDBConfig.AMM_POOL_CF,
+          RocksDBConfig.MERCHANT_ESCROW_CF,
+          RocksDBConfig.TICK_CF,
+          RocksDBConfig.TICK_BITMAP_CF,
+          RocksDBConfig.AMM_POSITION_CF,
+          RocksDBConfig.AMM_ORDERS_CF,
+          RocksDBConfig.OFFER_CF,
+          RocksDBConfig.TRADE_CF,
+          RocksDBConfig.BALANCE_LOCK_CF,
+          RocksDBConfig.KAFKA_GROUP_STATE_CF,
+          RocksDBConfig.SETTINGS_CF,
+          RocksDBConfig.CANDLE_CF,
+          RocksDBConfig.DEPOSIT_ARCHIVE_CF,
+          RocksDBConfig.WITHDRAWAL_ARCHIVE_CF,
+          RocksDBConfig.AMM_POSITION_ARCHIVE_CF,
+          RocksDBConfig.TRADE_ARCHIVE_CF,
+          RocksDBConfig.BALANCE_LOCK_ARCHIVE_CF)) {
+        ColumnFamilyProfile profile = RocksDBConfig.getColumnFamilyProfile(name);
+        logger.debug("Column family {} dùng profile {}", name, profile);
+        columnFamilyDescriptors.add(new ColumnFamilyDescriptor(name.getBytes(StandardCharsets.UTF_8),
+            tuning.columnFamilyOptions(profile)));
+      }
 
       // Mở RocksDB
       columnFamilyHandles = new ArrayList<>();
-      db = RocksDB.open(options, dbPath, columnFamilyDescriptors, columnFamilyHandles);
+      if (isSecondary()) {
+        logger.info("Opening RocksDB as secondary instance: primary={}, secondary={}", dbPath, secondaryPath);
+        db = RocksDB.openAsSecondary(options, dbPath, secondaryPath, columnFamilyDescriptors, columnFamilyHandles);
+      } else {
+        db = RocksDB.open(options, dbPath, columnFamilyDescriptors, columnFamilyHandles);
+      }
 
       // Lấy column family handle
+      for (int i = 0; i < columnFamilyHandles.size(); i++) {
+        columnFamiliesByName.put(new String(columnFamilyDescriptors.get(i).getName(), StandardCharsets.UTF_8),
+            columnFamilyHandles.get(i));
+      }
       defaultCF = columnFamilyHandles.get(RocksDBConfig.DEFAULT_CF_INDEX);
       accountCF = columnFamilyHandles.get(RocksDBConfig.ACCOUNT_CF_INDEX);
       depositCF = columnFamilyHandles.get(RocksDBConfig.DEPOSIT_CF_INDEX);
@@ -148,6 +202,12 @@ public class RocksDBService implements AutoCloseable {
       balanceLockCF = columnFamilyHandles.get(RocksDBConfig.BALANCE_LOCK_CF_INDEX);
       kafkaGroupStateCF = columnFamilyHandles.get(RocksDBConfig.KAFKA_GROUP_STATE_CF_INDEX);
       settingsCF = columnFamilyHandles.get(RocksDBConfig.SETTINGS_CF_INDEX);
+      candleCF = columnFamilyHandles.get(RocksDBConfig.CANDLE_CF_INDEX);
+      depositArchiveCF = columnFamilyHandles.get(RocksDBConfig.DEPOSIT_ARCHIVE_CF_INDEX);
+      withdrawalArchiveCF = columnFamilyHandles.get(RocksDBConfig.WITHDRAWAL_ARCHIVE_CF_INDEX);
+      ammPositionArchiveCF = columnFamilyHandles.get(RocksDBConfig.AMM_POSITION_ARCHIVE_CF_INDEX);
+      tradeArchiveCF = columnFamilyHandles.get(RocksDBConfig.TRADE_ARCHIVE_CF_INDEX);
+      balanceLockArchiveCF = columnFamilyHandles.get(RocksDBConfig.BALANCE_LOCK_ARCHIVE_CF_INDEX);
 
       // Cấu hình write options từ RocksDBConfig
       writeOptions = RocksDBConfig.createWriteOptions();
@@ -159,6 +219,27 @@ public class RocksDBService implements AutoCloseable {
     }
   }
 
+  /**
+   * Database được mở dưới dạng secondary instance (chỉ đọc).
+   *
+   * @return true nếu là secondary
+   */
+  public boolean isSecondary() {
+    return secondaryPath != null;
+  }
+
+  /**
+   * Đọc thêm MANIFEST và WAL mới của primary để secondary thấy dữ liệu mới nhất.
+   * Không làm gì nếu database là primary.
+   *
+   * @throws RocksDBException nếu catch up thất bại
+   */
+  public void tryCatchUpWithPrimary() throws RocksDBException {
+    if (isSecondary()) {
+      db.tryCatchUpWithPrimary();
+    }
+  }
+
   /**
    * Tạo snapshot của database.
    *
@@ -184,20 +265,29 @@ public class RocksDBService implements AutoCloseable {
   public void close() {
     logger.info("Bắt đầu đóng RocksDB...");
 
+    serializationExecutor.shutdown();
+
     try {
       if (writeOptions != null) {
         writeOptions.close();
       }
+      pointReadOptions.close();
 
       if (columnFamilyHandles != null) {
         for (ColumnFamilyHandle handle : columnFamilyHandles) {
           handle.close();
         }
       }
+      columnFamiliesByName.clear();
 
       if (db != null) {
         db.close();
       }
+
+      // Options và cache dùng chung chỉ được giải phóng sau khi database đóng
+      if (tuning != null) {
+        tuning.close();
+      }
     } catch (Exception e) {
       logger.warn("Lỗi khi đóng WriteOptions: {}", e.getMessage());
     }
@@ -270,6 +360,30 @@ public class RocksDBService implements AutoCloseable {
     return settingsCF;
   }
 
+  public ColumnFamilyHandle getCandleCF() {
+    return candleCF;
+  }
+
+  public ColumnFamilyHandle getDepositArchiveCF() {
+    return depositArchiveCF;
+  }
+
+  public ColumnFamilyHandle getWithdrawalArchiveCF() {
+    return withdrawalArchiveCF;
+  }
+
+  public ColumnFamilyHandle getAmmPositionArchiveCF() {
+    return ammPositionArchiveCF;
+  }
+
+  public ColumnFamilyHandle getTradeArchiveCF() {
+    return tradeArchiveCF;
+  }
+
+  public ColumnFamilyHandle getBalanceLockArchiveCF() {
+    return balanceLockArchiveCF;
+  }
+
   public WriteOptions getWriteOptions() {
     return writeOptions;
   }
@@ -278,6 +392,25 @@ public class RocksDBService implements AutoCloseable {
     return db;
   }
 
+  /**
+   * Các column family theo thứ tự mở, key là tên column family
+   */
+  public Map<String, ColumnFamilyHandle> getColumnFamilies() {
+    return Collections.unmodifiableMap(columnFamiliesByName);
+  }
+
+  /**
+   * Statistics của database, null nếu chưa khởi tạo hoặc
+   * ROCKSDB_STATISTICS_ENABLED=false
+   */
+  public Statistics getStatistics() {
+    return tuning == null ? null : tuning.getStatistics();
+  }
+
+  WriteStallListener getWriteStallListener() {
+    return tuning == null ? null : tuning.getWriteStallListener();
+  }
+
   public static void resetInstance() {
     instance = null;
   }
@@ -313,7 +446,7 @@ public class RocksDBService implements AutoCloseable {
     }
 
     try {
-      byte[] keyBytes = key.getBytes();
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
       byte[] valueBytes = JsonSerializer.serialize(item);
 
       db.put(cf, writeOptions, keyBytes, valueBytes);
@@ -339,14 +472,14 @@ public class RocksDBService implements AutoCloseable {
     }
 
     try {
-      byte[] keyBytes = key.getBytes();
-      byte[] valueBytes = db.get(cf, keyBytes);
+      PointReadBuffers buffers = pointReadBuffers.get();
+      ByteBuffer value = buffers.get(cf, key.getBytes(StandardCharsets.UTF_8));
 
-      if (valueBytes == null) {
+      if (value == null) {
         return Optional.empty();
       }
 
-      T item = JsonSerializer.deserialize(valueBytes, valueClass);
+      T item = JsonSerializer.deserialize(value, valueClass);
       return Optional.of(item);
     } catch (RocksDBException e) {
       logger.error("Lỗi khi lấy {} {}: {}", logPrefix, key, e.getMessage());
@@ -354,6 +487,167 @@ public class RocksDBService implements AutoCloseable {
     }
   }
 
+  /**
+   * Lấy một đối tượng theo key nhị phân.
+   *
+   * @param <T>        Kiểu dữ liệu cần lấy
+   * @param keyBytes   Key nhị phân của đối tượng
+   * @param cf         Column family handle
+   * @param valueClass Class của đối tượng cần deserialize
+   * @param logPrefix  Tiền tố cho log
+   * @return Optional chứa đối tượng nếu tồn tại
+   */
+  public <T> Optional<T> getObjectByBinaryKey(byte[] keyBytes, ColumnFamilyHandle cf, Class<T> valueClass, String logPrefix) {
+    if (keyBytes == null || keyBytes.length == 0) {
+      logger.warn("Không thể lấy {} với key null hoặc rỗng", logPrefix);
+      return Optional.empty();
+    }
+
+    try {
+      ByteBuffer value = pointReadBuffers.get().get(cf, keyBytes);
+
+      if (value == null) {
+        return Optional.empty();
+      }
+
+      return Optional.of(JsonSerializer.deserialize(value, valueClass));
+    } catch (RocksDBException e) {
+      logger.error("Lỗi khi lấy {}: {}", logPrefix, e.getMessage());
+      throw new RuntimeException("Lỗi khi lấy " + logPrefix, e);
+    }
+  }
+
+  /**
+   * Chuyển các bản ghi có key cũ sang key nhị phân: ghi lại value với key mới và
+   * xóa key cũ trong cùng một WriteBatch. Value được serialize lại sau khi gọi
+   * keyExtractor nên extractor có thể bổ sung trường còn thiếu của bản ghi cũ.
+   * Bỏ qua khi database là secondary.
+   *
+   * @param <T>          Kiểu dữ liệu của bản ghi
+   * @param cf           Column family handle
+   * @param valueClass   Class của đối tượng cần deserialize
+   * @param isLegacyKey  Điều kiện nhận biết key cũ cần chuyển
+   * @param keyExtractor Hàm để trích xuất key nhị phân từ đối tượng
+   * @param logPrefix    Tiền tố cho log
+   * @return Số bản ghi đã chuyển
+   */
+  public <T> int migrateToBinaryKeys(ColumnFamilyHandle cf, Class<T> valueClass, Predicate<byte[]> isLegacyKey,
+      BinaryKeyExtractor<T> keyExtractor, String logPrefix) {
+    if (isSecondary()) {
+      return 0;
+    }
+
+    int migrated = 0;
+    try (WriteBatch batch = new WriteBatch();
+        RocksIterator iterator = db.newIterator(cf)) {
+      for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+        byte[] oldKey = iterator.key();
+        if (!isLegacyKey.test(oldKey)) {
+          continue;
+        }
+
+        try {
+          byte[] valueBytes = iterator.value();
+          T item = JsonSerializer.deserialize(valueBytes, valueClass);
+          byte[] newKey = keyExtractor.getKey(item);
+          if (newKey == null || newKey.length == 0) {
+            continue;
+          }
+          batch.put(cf, newKey, JsonSerializer.serialize(item));
+          batch.delete(cf, oldKey);
+          migrated++;
+        } catch (Exception e) {
+          logger.warn("Lỗi khi chuyển key {} {}: {}", logPrefix,
+              new String(oldKey, StandardCharsets.UTF_8), e.getMessage());
+        }
+
+        // Iterator đọc trên snapshot lúc tạo nên ghi từng phần không ảnh hưởng lần duyệt
+        if (migrated > 0 && migrated % MIGRATION_CHUNK_SIZE == 0 && batch.count() > 0) {
+          db.write(writeOptions, batch);
+          batch.clear();
+        }
+      }
+
+      if (batch.count() > 0) {
+        db.write(writeOptions, batch);
+      }
+      if (migrated > 0) {
+        logger.info("Đã chuyển {} bản ghi {} sang key nhị phân", migrated, logPrefix);
+      }
+    } catch (RocksDBException e) {
+      logger.error("Lỗi khi chuyển key {}: {}", logPrefix, e.getMessage());
+      return 0;
+    }
+
+    return migrated;
+  }
+
+  /**
+   * Chuyển các bản ghi thỏa điều kiện từ column family nóng sang column family
+   * archive: ghi value vào archive và xóa key cũ trong cùng một WriteBatch. Mỗi
+   * lần gọi duyệt tối đa scanLimit bản ghi kể từ sau startAfter. Bỏ qua khi
+   * database là secondary.
+   *
+   * @param <T>           Kiểu dữ liệu của bản ghi
+   * @param cf            Column family nóng
+   * @param archiveCF     Column family archive
+   * @param valueClass    Class của đối tượng cần deserialize
+   * @param isArchivable  Điều kiện bản ghi được chuyển
+   * @param startAfter    Key cuối của lần gọi trước, null để bắt đầu từ đầu
+   * @param scanLimit     Số bản ghi tối đa được duyệt
+   * @param logPrefix     Tiền tố cho log
+   * @return Key cuối đã duyệt (null nếu đã duyệt hết column family) và số bản ghi
+   *         đã chuyển
+   */
+  public <T> Pair<byte[], Integer> archiveObjects(ColumnFamilyHandle cf, ColumnFamilyHandle archiveCF,
+      Class<T> valueClass, Predicate<T> isArchivable, byte[] startAfter, int scanLimit, String logPrefix) {
+    if (isSecondary()) {
+      return new Pair<>(null, 0);
+    }
+
+    int scanned = 0;
+    int archived = 0;
+    byte[] lastKey = null;
+    try (WriteBatch batch = new WriteBatch();
+        RocksIterator iterator = db.newIterator(cf)) {
+      if (startAfter == null) {
+        iterator.seekToFirst();
+      } else {
+        iterator.seek(startAfter);
+        if (iterator.isValid() && Arrays.equals(iterator.key(), startAfter)) {
+          iterator.next();
+        }
+      }
+
+      for (; iterator.isValid() && scanned < scanLimit; iterator.next()) {
+        scanned++;
+        lastKey = iterator.key();
+        byte[] valueBytes = iterator.value();
+        try {
+          if (!isArchivable.test(JsonSerializer.deserialize(valueBytes, valueClass))) {
+            continue;
+          }
+        } catch (Exception e) {
+          logger.warn("Lỗi khi deserialize {} để archive: {}", logPrefix, e.getMessage());
+          continue;
+        }
+        batch.put(archiveCF, lastKey, valueBytes);
+        batch.delete(cf, lastKey);
+        archived++;
+      }
+      iterator.status();
+
+      if (archived > 0) {
+        db.write(writeOptions, batch);
+        logger.debug("Đã chuyển {} bản ghi {} sang archive", archived, logPrefix);
+      }
+      return new Pair<>(iterator.isValid() ? lastKey : null, archived);
+    } catch (RocksDBException e) {
+      logger.error("Lỗi khi archive {}: {}", logPrefix, e.getMessage());
+      return new Pair<>(null, 0);
+    }
+  }
+
   /**
    * Phương thức chung để lấy tất cả các đối tượng từ một column family.
    *
@@ -397,6 +691,7 @@ public class RocksDBService implements AutoCloseable {
    * @param cf           Column family handle
    * @param keyExtractor Hàm để trích xuất key từ đối tượng
    * @param logPrefix    Tiền tố cho log
+   * @throws RuntimeException nếu ghi RocksDB thất bại, để cache giữ lại batch
    */
   public <T> void saveBatch(Map<String, T> data, ColumnFamilyHandle cf, KeyExtractor<T> keyExtractor,
       String logPrefix) {
@@ -404,96 +699,220 @@ public class RocksDBService implements AutoCloseable {
       return;
     }
 
-    // Xác định cấu hình batch size dựa trên loại dữ liệu
-    int maxRecordsPerBatch = RocksDBConfig.DEFAULT_MAX_RECORDS_PER_BATCH;
-    long maxBatchSizeBytes = RocksDBConfig.DEFAULT_MAX_BATCH_SIZE_BYTES;
-
-    // Tính ngưỡng kích thước batch (80% của max size)
-    long batchSizeThreshold = (long) (maxBatchSizeBytes * RocksDBConfig.BATCH_SIZE_THRESHOLD_PERCENT);
-
-    // Ước tính kích thước trung bình của một item
-    long estimatedItemSize = estimateItemSize(data, keyExtractor);
-
-    // Chuẩn bị dữ liệu song song và lưu trữ
-    List<Pair<byte[], byte[]>> preparedData = data.values().parallelStream()
-        .filter(item -> item != null && keyExtractor.getKey(item) != null && !keyExtractor.getKey(item).isEmpty())
-        .map(item -> prepareDataPair(item, keyExtractor))
-        .filter(pair -> pair != null)
-        .collect(Collectors.toList());
-
-    // Tính toán số lượng batch dựa trên kích thước ước tính
-    int estimatedItemsPerBatch = (int) Math.min(maxRecordsPerBatch,
-        batchSizeThreshold / Math.max(1, estimatedItemSize));
-
-    // Chia thành các batch và lưu
-    int totalItems = preparedData.size();
-    int totalBatches = (totalItems + estimatedItemsPerBatch - 1) / estimatedItemsPerBatch; // Ceiling division
+    List<EncodedChunk> chunks = encodeChunks(data.values(), (chunk, item) -> {
+      String key = keyExtractor.getKey(item);
+      if (key != null && !key.isEmpty()) {
+        chunk.append(key, item);
+      }
+    }, logPrefix);
+    writeChunks(chunks, cf, logPrefix);
+  }
 
-    for (int i = 0; i < totalBatches; i++) {
-      int fromIndex = i * estimatedItemsPerBatch;
-      int toIndex = Math.min(fromIndex + estimatedItemsPerBatch, totalItems);
+  /**
+   * Lưu một đối tượng với key nhị phân.
+   *
+   * @param <T>          Kiểu dữ liệu cần lưu
+   * @param item         Đối tượng cần lưu
+   * @param cf           Column family handle
+   * @param keyExtractor Hàm để trích xuất key nhị phân từ đối tượng
+   * @param logPrefix    Tiền tố cho log
+   */
+  public <T> void saveObjectWithBinaryKey(T item, ColumnFamilyHandle cf, BinaryKeyExtractor<T> keyExtractor,
+      String logPrefix) {
+    if (item == null) {
+      return;
+    }
 
-      List<Pair<byte[], byte[]>> batch = preparedData.subList(fromIndex, toIndex);
-      saveBatchInternal(batch, cf, logPrefix);
+    byte[] keyBytes = keyExtractor.getKey(item);
+    if (keyBytes == null || keyBytes.length == 0) {
+      return;
     }
 
-    logger.debug("Đã lưu {} {} trong {} batches", preparedData.size(), logPrefix, totalBatches);
+    try {
+      db.put(cf, writeOptions, keyBytes, JsonSerializer.serialize(item));
+    } catch (RocksDBException e) {
+      logger.error("Lỗi khi lưu {}: {}", logPrefix, e.getMessage());
+    }
   }
 
   /**
-   * Ước tính kích thước trung bình của một item
+   * Lưu batch dữ liệu với key nhị phân, chia batch giống saveBatch.
    *
    * @param <T>          Kiểu dữ liệu cần lưu
-   * @param data         Map chứa dữ liệu cần lưu
-   * @param keyExtractor Hàm để trích xuất key từ đối tượng
-   * @return Kích thước ước tính
+   * @param items        Các đối tượng cần lưu
+   * @param cf           Column family handle
+   * @param keyExtractor Hàm để trích xuất key nhị phân từ đối tượng
+   * @param logPrefix    Tiền tố cho log
+   * @throws RuntimeException nếu ghi RocksDB thất bại, để cache giữ lại batch
    */
-  private <T> long estimateItemSize(Map<String, T> data, KeyExtractor<T> keyExtractor) {
-    if (data.isEmpty()) {
-      return 1024;
+  public <T> void saveBinaryKeyBatch(Collection<T> items, ColumnFamilyHandle cf,
+      BinaryKeyExtractor<T> keyExtractor, String logPrefix) {
+    if (items.isEmpty()) {
+      return;
     }
 
-    T sampleItem = data.values().iterator().next();
+    List<EncodedChunk> chunks = encodeChunks(items, (chunk, item) -> {
+      byte[] keyBytes = keyExtractor.getKey(item);
+      if (keyBytes != null && keyBytes.length > 0) {
+        chunk.append(keyBytes, item);
+      }
+    }, logPrefix);
+    writeChunks(chunks, cf, logPrefix);
+  }
+
+  /**
+   * Ghi một bản ghi vào chunk
+   */
+  @FunctionalInterface
+  private interface ChunkWriter<T> {
+    void append(EncodedChunk chunk, T item);
+  }
+
+  /**
+   * Serialize dữ liệu vào các chunk direct buffer. Dữ liệu nhỏ (không quá một
+   * chunk) được serialize ngay trên thread gọi; dữ liệu lớn được chia chunk và
+   * serialize song song trên serializationExecutor, thứ tự chunk giữ nguyên.
+   */
+  private <T> List<EncodedChunk> encodeChunks(Collection<T> items, ChunkWriter<T> writer, String logPrefix) {
+    int chunkSize = RocksDBConfig.SERIALIZATION_CHUNK_SIZE;
+    if (items.size() <= chunkSize) {
+      return Collections.singletonList(encodeChunk(items, writer, logPrefix));
+    }
+
+    List<Future<EncodedChunk>> futures = new ArrayList<>();
+    List<T> slice = new ArrayList<>(chunkSize);
+    for (T item : items) {
+      slice.add(item);
+      if (slice.size() == chunkSize) {
+        List<T> task = slice;
+        futures.add(serializationExecutor.submit(() -> encodeChunk(task, writer, logPrefix)));
+        slice = new ArrayList<>(chunkSize);
+      }
+    }
+    if (!slice.isEmpty()) {
+      List<T> task = slice;
+      futures.add(serializationExecutor.submit(() -> encodeChunk(task, writer, logPrefix)));
+    }
+
+    List<EncodedChunk> chunks = new ArrayList<>(futures.size());
     try {
-      String key = keyExtractor.getKey(sampleItem);
-      byte[] keyBytes = key.getBytes();
-      byte[] valueBytes = JsonSerializer.serialize(sampleItem);
+      for (Future<EncodedChunk> future : futures) {
+        chunks.add(future.get());
+      }
+      return chunks;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      releaseAll(chunks, futures);
+      throw new RuntimeException("Bị gián đoạn khi serialize " + logPrefix, e);
+    } catch (ExecutionException e) {
+      releaseAll(chunks, futures);
+      throw new RuntimeException("Lỗi khi serialize " + logPrefix, e.getCause());
+    }
+  }
 
-      long sampleSize = keyBytes.length + valueBytes.length;
+  private <T> EncodedChunk encodeChunk(Collection<T> items, ChunkWriter<T> writer, String logPrefix) {
+    EncodedChunk chunk = new EncodedChunk(bufferPool);
+    for (T item : items) {
+      if (item == null) {
+        continue;
+      }
+      try {
+        writer.append(chunk, item);
+      } catch (Exception e) {
+        logger.error("Lỗi khi chuẩn bị dữ liệu cho {}: {}", logPrefix, e.getMessage());
+      }
+    }
+    return chunk;
+  }
 
-      return (long) (sampleSize * 1.3);
-    } catch (Exception e) {
-      logger.warn("Lỗi khi ước tính kích thước item: {}", e.getMessage());
-      return 1024;
+  private void releaseAll(List<EncodedChunk> chunks, List<Future<EncodedChunk>> futures) {
+    chunks.forEach(EncodedChunk::release);
+    for (int i = chunks.size(); i < futures.size(); i++) {
+      Future<EncodedChunk> future = futures.get(i);
+      if (!future.cancel(false) && future.isDone()) {
+        try {
+          future.get().release();
+        } catch (Exception ignored) {
+          // Chunk lỗi không có buffer để trả lại
+        }
+      }
     }
   }
 
   /**
-   * Lưu một batch dữ liệu vào RocksDB
-   *
-   * @param items     Danh sách các cặp key-value cần lưu
-   * @param cf        Column family handle
-   * @param logPrefix Tiền tố cho log
-   * @return Số lượng bản ghi đã lưu
+   * Ghi các chunk vào RocksDB, mỗi WriteBatch tối đa DEFAULT_MAX_RECORDS_PER_BATCH
+   * bản ghi và BATCH_SIZE_THRESHOLD_PERCENT của DEFAULT_MAX_BATCH_SIZE_BYTES.
+   * Buffer của các chunk được trả về pool sau khi ghi. Lỗi ghi được ném lại
+   * cho caller; các WriteBatch đã ghi trước đó vẫn nằm trong RocksDB và được
+   * ghi lại ở lần flush sau.
    */
-  private int saveBatchInternal(List<Pair<byte[], byte[]>> items, ColumnFamilyHandle cf, String logPrefix) {
-    if (items.isEmpty()) {
-      return 0;
-    }
+  private void writeChunks(List<EncodedChunk> chunks, ColumnFamilyHandle cf, String logPrefix) {
+    int maxRecordsPerBatch = RocksDBConfig.DEFAULT_MAX_RECORDS_PER_BATCH;
+    long batchSizeThreshold = (long) (RocksDBConfig.DEFAULT_MAX_BATCH_SIZE_BYTES
+        * RocksDBConfig.BATCH_SIZE_THRESHOLD_PERCENT);
+
+    int saved = 0;
+    int totalBatches = 0;
+    WriteBatch batch = null;
+    int records = 0;
+    long bytes = 0;
+    try {
+      for (EncodedChunk chunk : chunks) {
+        for (int i = 0; i < chunk.size(); i++) {
+          if (batch == null) {
+            batch = new WriteBatch();
+          }
+          bytes += chunk.put(batch, cf, i);
+          records++;
+
+          if (records >= maxRecordsPerBatch || bytes >= batchSizeThreshold) {
+            saved += commitBatch(batch, records, bytes);
+            totalBatches++;
+            batch = null;
+            records = 0;
+            bytes = 0;
+          }
+        }
+      }
 
-    try (WriteBatch batch = new WriteBatch()) {
-      for (Pair<byte[], byte[]> item : items) {
-        batch.put(cf, item.getKey(), item.getValue());
+      if (batch != null) {
+        saved += commitBatch(batch, records, bytes);
+        totalBatches++;
+        batch = null;
       }
+    } catch (RocksDBException e) {
+      logger.error("Lỗi khi lưu batch {}: {}", logPrefix, e.getMessage());
+      throw new RuntimeException("Lỗi khi lưu batch " + logPrefix, e);
+    } finally {
+      if (batch != null) {
+        batch.close();
+      }
+      chunks.forEach(EncodedChunk::release);
+    }
 
+    logger.debug("Đã lưu {} {} trong {} batches", saved, logPrefix, totalBatches);
+  }
+
+  /**
+   * Ghi một WriteBatch rồi đóng nó
+   *
+   * @return Số bản ghi đã lưu
+   */
+  private int commitBatch(WriteBatch batch, int records, long bytes) throws RocksDBException {
+    try (batch) {
       db.write(writeOptions, batch);
-      return items.size();
-    } catch (Exception e) {
-      logger.error("Lỗi khi lưu batch {}: {}", logPrefix, e.getMessage());
-      return 0;
+      bytesWritten.addAndGet(bytes);
+      return records;
     }
   }
 
+  /**
+   * Tổng số byte đã ghi qua các hàm lưu batch kể từ khi khởi động
+   */
+  public long getBytesWritten() {
+    return bytesWritten.get();
+  }
+
   /**
    * Hàm kiểm tra nhanh nếu keyBytes bắt đầu bằng prefixBytes
    */
@@ -532,7 +951,7 @@ public class RocksDBService implements AutoCloseable {
 
       if (lastKey != null && !lastKey.isEmpty()) {
         // Nếu có lastKey, tìm kiếm từ key tiếp theo của lastKey
-        iterator.seek(lastKey.getBytes());
+        iterator.seek(lastKey.getBytes(StandardCharsets.UTF_8));
         iterator.next();
       } else {
         // Nếu không có lastKey, tìm kiếm từ prefix
@@ -565,15 +984,109 @@ public class RocksDBService implements AutoCloseable {
     return items;
   }
 
-  private <T> Pair<byte[], byte[]> prepareDataPair(T item, KeyExtractor<T> keyExtractor) {
-    try {
-      String key = keyExtractor.getKey(item);
-      byte[] keyBytes = key.getBytes();
-      byte[] valueBytes = JsonSerializer.serialize(item);
-      return new Pair<>(keyBytes, valueBytes);
-    } catch (Exception e) {
-      logger.error("Lỗi khi chuẩn bị dữ liệu cho {}: {}", keyExtractor.getKey(item), e.getMessage());
-      return null;
+  /**
+   * Lấy đối tượng trong khoảng key [lowerBound, upperBound), bắt đầu sau cursor
+   * (không bao gồm cursor). Chi phí tỉ lệ với limit, không phụ thuộc số bản ghi
+   * trong khoảng.
+   *
+   * @param <T>        Kiểu dữ liệu cần lấy
+   * @param lowerBound Key nhỏ nhất (bao gồm)
+   * @param upperBound Key chặn trên (không bao gồm)
+   * @param cursor     Key cuối của trang trước, null nếu là trang đầu
+   * @param reverse    true = duyệt từ key lớn nhất về nhỏ nhất
+   * @param limit      Số lượng bản ghi tối đa
+   * @param cf         Column family handle
+   * @param valueClass Class của đối tượng cần deserialize
+   * @param logPrefix  Tiền tố cho log
+   * @return Danh sách các đối tượng theo thứ tự duyệt
+   */
+  public <T> List<T> getObjectsInRange(byte[] lowerBound, byte[] upperBound, byte[] cursor, boolean reverse,
+      int limit, ColumnFamilyHandle cf, Class<T> valueClass, String logPrefix) {
+    List<T> items = new ArrayList<>();
+
+    try (Slice lower = new Slice(lowerBound);
+        Slice upper = new Slice(upperBound);
+        ReadOptions readOptions = new ReadOptions()
+            .setIterateLowerBound(lower)
+            .setIterateUpperBound(upper)
+            .setPrefixSameAsStart(true)
+            .setReadaheadSize(RocksDBConfig.RANGE_SCAN_READAHEAD_SIZE);
+        RocksIterator iterator = db.newIterator(cf, readOptions)) {
+
+      if (reverse) {
+        iterator.seekForPrev(cursor != null ? cursor : upperBound);
+        if (cursor != null && iterator.isValid() && Arrays.equals(iterator.key(), cursor)) {
+          iterator.prev();
+        }
+      } else {
+        iterator.seek(cursor != null ? cursor : lowerBound);
+        if (cursor != null && iterator.isValid() && Arrays.equals(iterator.key(), cursor)) {
+          iterator.next();
+        }
+      }
+
+      while (iterator.isValid() && items.size() < limit) {
+        try {
+          items.add(JsonSerializer.deserialize(iterator.value(), valueClass));
+        } catch (Exception e) {
+          logger.warn("Lỗi khi deserialize {}: {}", logPrefix, e.getMessage());
+        }
+
+        if (reverse) {
+          iterator.prev();
+        } else {
+          iterator.next();
+        }
+      }
+    }
+
+    return items;
+  }
+
+  private static ThreadPoolExecutor createSerializationExecutor() {
+    int threads = RocksDBConfig.getSerializationThreads();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(RocksDBConfig.SERIALIZATION_QUEUE_CAPACITY),
+        new DaemonThreadFactory("rocksdb", "serializer"),
+        // Hàng đợi đầy (hoặc executor đã dừng) thì thread gọi tự serialize: vừa giới hạn bộ nhớ vừa không mất chunk
+        (task, pool) -> task.run());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Buffer key/value direct của một thread cho các lần đọc điểm
+   */
+  private final class PointReadBuffers {
+    private ByteBuffer key = ByteBuffer.allocateDirect(256);
+    private ByteBuffer value = ByteBuffer.allocateDirect(4096);
+
+    /**
+     * @return Value (position..limit) hoặc null nếu không tồn tại; chỉ hợp lệ tới
+     *         lần đọc sau trên cùng thread
+     */
+    ByteBuffer get(ColumnFamilyHandle cf, byte[] keyBytes) throws RocksDBException {
+      if (key.capacity() < keyBytes.length) {
+        key = ByteBuffer.allocateDirect(Math.max(keyBytes.length, key.capacity() * 2));
+      }
+
+      while (true) {
+        key.clear();
+        key.put(keyBytes).flip();
+        value.clear();
+
+        int size = db.get(cf, pointReadOptions, key, value);
+        if (size == RocksDB.NOT_FOUND) {
+          return null;
+        }
+        if (size <= value.capacity()) {
+          value.position(0);
+          value.limit(size);
+          return value;
+        }
+        // Value lớn hơn buffer: mở rộng rồi đọc lại
+        value = ByteBuffer.allocateDirect(Math.max(size, value.capacity() * 2));
+      }
     }
   }
 }
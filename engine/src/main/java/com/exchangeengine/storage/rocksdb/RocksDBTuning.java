@@ -0,0 +1,213 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rocksdb.AbstractNativeReference;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.RateLimiter;
+import org.rocksdb.Statistics;
+import org.rocksdb.StatsLevel;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Tài nguyên dùng chung giữa các column family và ColumnFamilyOptions theo
+ * ColumnFamilyProfile.
+ *
+ * Mọi column family dùng một block cache (index/filter block cũng nằm trong
+ * cache nên tổng bộ nhớ bị giới hạn), một WriteBufferManager tính dung lượng
+ * memtable vào cùng cache đó, và một RateLimiter cho flush/compaction chạy nền.
+ * Statistics (nếu bật) và WriteStallListener cũng gắn ở mức database để
+ * RocksDBMetrics đọc.
+ *
+ * Các options phải sống cho tới khi database đóng: gọi close() sau
+ * RocksDB.close().
+ */
+final class RocksDBTuning implements AutoCloseable {
+  private static final long MB = 1024L * 1024L;
+
+  private final long writeBufferSizeBytes;
+  private final int maxWriteBufferNumber;
+  private final long targetFileSizeBaseBytes;
+  private final int bloomBitsPerKey;
+
+  private final Cache blockCache;
+  private final WriteBufferManager writeBufferManager;
+  private final RateLimiter rateLimiter;
+  private final Statistics statistics;
+  private final WriteStallListener writeStallListener = new WriteStallListener();
+
+  // Options và filter đã tạo, đóng cùng tuning
+  private final List<AbstractNativeReference> owned = new ArrayList<>();
+
+  /**
+   * @param blockCacheBytes         Dung lượng block cache dùng chung
+   * @param writeBufferManagerBytes Tổng dung lượng memtable, 0 = không giới hạn
+   * @param rateLimitBytesPerSec    Tốc độ ghi nền tối đa, 0 = không giới hạn
+   * @param bloomBitsPerKey         Số bit bloom filter mỗi key
+   * @param writeBufferSizeBytes    Kích thước memtable mỗi column family
+   * @param maxWriteBufferNumber    Số memtable tối đa mỗi column family
+   * @param targetFileSizeBaseBytes Kích thước file SST đích
+   * @param statisticsEnabled       Bật Statistics (ticker cache hit/miss, stall...)
+   */
+  RocksDBTuning(long blockCacheBytes, long writeBufferManagerBytes, long rateLimitBytesPerSec,
+      int bloomBitsPerKey, long writeBufferSizeBytes, int maxWriteBufferNumber, long targetFileSizeBaseBytes,
+      boolean statisticsEnabled) {
+    this.writeBufferSizeBytes = writeBufferSizeBytes;
+    this.maxWriteBufferNumber = maxWriteBufferNumber;
+    this.targetFileSizeBaseBytes = targetFileSizeBaseBytes;
+    this.bloomBitsPerKey = bloomBitsPerKey;
+    this.blockCache = new LRUCache(blockCacheBytes);
+    this.writeBufferManager = new WriteBufferManager(writeBufferManagerBytes, blockCache);
+    this.rateLimiter = rateLimitBytesPerSec > 0 ? new RateLimiter(rateLimitBytesPerSec) : null;
+    if (statisticsEnabled) {
+      // Bỏ qua timer chi tiết (mutex, từng thao tác) để chi phí đo thấp
+      this.statistics = new Statistics();
+      this.statistics.setStatsLevel(StatsLevel.EXCEPT_DETAILED_TIMERS);
+    } else {
+      this.statistics = null;
+    }
+  }
+
+  /**
+   * Tạo tuning với tài nguyên dùng chung cấu hình từ RocksDBConfig
+   */
+  static RocksDBTuning fromConfig(long writeBufferSizeBytes, int maxWriteBufferNumber,
+      long targetFileSizeBaseBytes) {
+    return new RocksDBTuning(
+        RocksDBConfig.getBlockCacheSizeMb() * MB,
+        RocksDBConfig.getWriteBufferManagerSizeMb() * MB,
+        RocksDBConfig.getRateLimitMbPerSec() * MB,
+        RocksDBConfig.getBloomFilterBitsPerKey(),
+        writeBufferSizeBytes, maxWriteBufferNumber, targetFileSizeBaseBytes,
+        RocksDBConfig.isStatisticsEnabled());
+  }
+
+  /**
+   * Gắn write buffer manager, rate limiter, statistics và listener dùng chung
+   * vào DBOptions
+   */
+  DBOptions applyTo(DBOptions options) {
+    options.setWriteBufferManager(writeBufferManager);
+    if (rateLimiter != null) {
+      options.setRateLimiter(rateLimiter);
+    }
+    if (statistics != null) {
+      options.setStatistics(statistics);
+    }
+    options.setListeners(Collections.singletonList(writeStallListener));
+    return options;
+  }
+
+  /**
+   * Tạo ColumnFamilyOptions cho một profile
+   */
+  ColumnFamilyOptions columnFamilyOptions(ColumnFamilyProfile profile) {
+    ColumnFamilyOptions options = RocksDBConfig.createStandardColumnFamilyOptions(
+        writeBufferSizeBytes, maxWriteBufferNumber, targetFileSizeBaseBytes);
+    owned.add(options);
+
+    switch (profile) {
+      case POINT_LOOKUP:
+        // optimizeForPointLookup bật bloom filter cho memtable; table config bên dưới
+        // thay cache riêng mà nó tạo bằng block cache dùng chung
+        options.optimizeForPointLookup(1)
+            .setCompressionType(CompressionType.LZ4_COMPRESSION)
+            .setTableFormatConfig(tableConfig()
+                .setDataBlockIndexType(DataBlockIndexType.kDataBlockBinaryAndHash)
+                .setDataBlockHashTableUtilRatio(0.75));
+        break;
+      case PREFIX_SCAN:
+        options.useFixedLengthPrefixExtractor(RocksDBConfig.ACCOUNT_HISTORY_PREFIX_SIZE)
+            .setOptimizeFiltersForHits(true)
+            .setLevelCompactionDynamicLevelBytes(true)
+            .setCompressionType(CompressionType.LZ4_COMPRESSION)
+            .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setTableFormatConfig(tableConfig());
+        break;
+      case TIME_SERIES:
+        options.setOptimizeFiltersForHits(true)
+            .setLevelCompactionDynamicLevelBytes(true)
+            .setCompressionType(CompressionType.LZ4_COMPRESSION)
+            .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setTableFormatConfig(tableConfig());
+        break;
+      case HOT_SMALL:
+        options.setWriteBufferSize(Math.min(writeBufferSizeBytes, RocksDBConfig.HOT_SMALL_WRITE_BUFFER_SIZE_MB * MB))
+            .setCompressionType(CompressionType.NO_COMPRESSION)
+            .setTableFormatConfig(tableConfig().setBlockSize(4 * 1024));
+        break;
+      case COLD:
+        // Không bật optimizeFiltersForHits: cache tra archive khi không thấy key nên
+        // phần lớn lần đọc là miss và cần bloom filter ở level cuối
+        options.setLevelCompactionDynamicLevelBytes(true)
+            .setCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setTableFormatConfig(tableConfig().setBlockSize(16 * 1024));
+        break;
+      default:
+        options.setCompressionType(CompressionType.LZ4_COMPRESSION)
+            .setTableFormatConfig(tableConfig());
+        break;
+    }
+    return options;
+  }
+
+  /**
+   * Block cache dùng chung
+   */
+  Cache getBlockCache() {
+    return blockCache;
+  }
+
+  RateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  /**
+   * Statistics của database, null nếu ROCKSDB_STATISTICS_ENABLED=false
+   */
+  Statistics getStatistics() {
+    return statistics;
+  }
+
+  WriteStallListener getWriteStallListener() {
+    return writeStallListener;
+  }
+
+  @Override
+  public void close() {
+    for (AbstractNativeReference reference : owned) {
+      reference.close();
+    }
+    owned.clear();
+    writeBufferManager.close();
+    if (rateLimiter != null) {
+      rateLimiter.close();
+    }
+    if (statistics != null) {
+      statistics.close();
+    }
+    writeStallListener.close();
+    blockCache.close();
+  }
+
+  private BlockBasedTableConfig tableConfig() {
+    BloomFilter filter = new BloomFilter(bloomBitsPerKey, false);
+    owned.add(filter);
+    return new BlockBasedTableConfig()
+        .setBlockCache(blockCache)
+        .setFilterPolicy(filter)
+        .setCacheIndexAndFilterBlocks(true)
+        .setCacheIndexAndFilterBlocksWithHighPriority(true)
+        .setPinL0FilterAndIndexBlocksInCache(true);
+  }
+}
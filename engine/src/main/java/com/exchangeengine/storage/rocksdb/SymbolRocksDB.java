@@ -0,0 +1,48 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.exchangeengine.model.SymbolEntry;
+
+/**
+ * Lưu bảng symbol (chuỗi -> id số nguyên) trong settings CF
+ */
+public class SymbolRocksDB {
+  private static volatile SymbolRocksDB instance;
+  private final RocksDBService rocksDBService;
+
+  public static synchronized SymbolRocksDB getInstance() {
+    if (instance == null) {
+      instance = new SymbolRocksDB();
+    }
+    return instance;
+  }
+
+  public static void resetInstance() {
+    instance = null;
+  }
+
+  public static void setTestInstance(SymbolRocksDB testInstance) {
+    instance = testInstance;
+  }
+
+  private SymbolRocksDB() {
+    this.rocksDBService = RocksDBService.getInstance();
+  }
+
+  public void saveSymbolBatch(Collection<SymbolEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    rocksDBService.saveBatch(entries.stream().collect(Collectors.toMap(SymbolEntry::getKey, Function.identity())),
+        rocksDBService.getSettingsCF(), SymbolEntry::getKey, "symbols");
+  }
+
+  public List<SymbolEntry> getAllSymbols() {
+    return rocksDBService.getObjectsByPrefix(SymbolEntry.KEY_PREFIX, Integer.MAX_VALUE, null,
+        rocksDBService.getSettingsCF(), SymbolEntry.class, "symbols");
+  }
+}
@@ -2,10 +2,15 @@ package com.exchangeengine.storage.rocksdb;
 
 import com.exchangeengine.model.Tick;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Lưu tick với key nhị phân poolPair + 0x00 + tickIndex (big-endian, đảo bit
+ * dấu), nên các tick của một pool nằm liền nhau theo thứ tự tick index và đọc
+ * được bằng một lần range scan.
+ */
 public class TickRocksDB {
   private static volatile TickRocksDB instance;
   private final RocksDBService rocksDBService;
@@ -30,18 +35,45 @@ public class TickRocksDB {
   }
 
   public void saveTick(Tick tick) {
-    rocksDBService.saveObject(tick, rocksDBService.getTickCF(), Tick::getTickKey, "tick");
+    rocksDBService.saveObjectWithBinaryKey(tick, rocksDBService.getTickCF(), Tick::getBinaryKey, "tick");
   }
 
-  public Optional<Tick> getTick(String tickKey) {
-    return rocksDBService.getObject(tickKey, rocksDBService.getTickCF(), Tick.class, "tick");
+  public Optional<Tick> getTick(String poolPair, int tickIndex) {
+    return rocksDBService.getObjectByBinaryKey(Tick.generateBinaryKey(poolPair, tickIndex), rocksDBService.getTickCF(),
+        Tick.class, "tick");
+  }
+
+  /**
+   * Lấy tất cả tick của một pool theo thứ tự tick index tăng dần
+   *
+   * @param poolPair Cặp token của pool
+   * @return Danh sách tick của pool
+   */
+  public List<Tick> getPoolTicks(String poolPair) {
+    byte[] lowerBound = Tick.generateBinaryKey(poolPair, Integer.MIN_VALUE);
+    // Prefix kết thúc bằng 0x00, tăng lên 0x01 là chặn trên của cả pool
+    byte[] upperBound = Tick.generateBinaryPrefix(poolPair);
+    upperBound[upperBound.length - 1] = 1;
+
+    return rocksDBService.getObjectsInRange(lowerBound, upperBound, null, false, Integer.MAX_VALUE,
+        rocksDBService.getTickCF(), Tick.class, "ticks");
   }
 
   public List<Tick> getAllTicks() {
     return rocksDBService.getAllObjects(rocksDBService.getTickCF(), Tick.class, "ticks");
   }
 
-  public void saveTickBatch(Map<String, Tick> ticks) {
-    rocksDBService.saveBatch(ticks, rocksDBService.getTickCF(), Tick::getTickKey, "ticks");
+  public void saveTickBatch(Collection<Tick> ticks) {
+    rocksDBService.saveBinaryKeyBatch(ticks, rocksDBService.getTickCF(), Tick::getBinaryKey, "ticks");
+  }
+
+  /**
+   * Chuyển các tick còn lưu với key chuỗi "pair-index" cũ sang key nhị phân
+   *
+   * @return Số tick đã chuyển
+   */
+  public int migrateLegacyKeys() {
+    return rocksDBService.migrateToBinaryKeys(rocksDBService.getTickCF(), Tick.class,
+        key -> !Tick.isBinaryKey(key), Tick::getBinaryKey, "ticks");
   }
 }
@@ -79,6 +79,45 @@ public class TradeRocksDB {
             rocksDBService.getTradeCF(),
             Trade.class,
             "trade"
+        ).or(() -> getArchivedTrade(identifier));
+    }
+
+    /**
+     * Get Trade that has been moved to the archive
+     *
+     * @param identifier ID of trade
+     * @return Optional containing trade if it exists in the archive
+     */
+    public Optional<Trade> getArchivedTrade(String identifier) {
+        if (identifier == null || identifier.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return rocksDBService.getObject(
+            identifier,
+            rocksDBService.getTradeArchiveCF(),
+            Trade.class,
+            "trade_archive"
+        );
+    }
+
+    /**
+     * Move completed or cancelled trades last updated before olderThan to the archive
+     *
+     * @param olderThan Cutoff time (epoch millis)
+     * @param startAfter Last key of the previous call, null to start from the beginning
+     * @param scanLimit Maximum number of records to scan
+     * @return Last scanned key (null when the column family is exhausted) and number of archived trades
+     */
+    public Pair<byte[], Integer> archiveTrades(long olderThan, byte[] startAfter, int scanLimit) {
+        return rocksDBService.archiveObjects(
+            rocksDBService.getTradeCF(),
+            rocksDBService.getTradeArchiveCF(),
+            Trade.class,
+            trade -> (trade.isCompleted() || trade.isCancelled()) && trade.getUpdatedAtEpochMilli() < olderThan,
+            startAfter,
+            scanLimit,
+            "trades"
         );
     }
 
@@ -59,7 +59,37 @@ public class WithdrawalRocksDB {
    */
   public Optional<CoinWithdrawal> getWithdrawal(String identifier) {
     return rocksDBService.getObject(identifier, rocksDBService.getWithdrawalCF(),
-        CoinWithdrawal.class, "withdrawal");
+        CoinWithdrawal.class, "withdrawal")
+        .or(() -> getArchivedWithdrawal(identifier));
+  }
+
+  /**
+   * Lấy CoinWithdrawal đã được chuyển sang archive
+   *
+   * @param identifier Identifier của withdrawal
+   * @return Optional chứa CoinWithdrawal nếu tồn tại trong archive
+   */
+  public Optional<CoinWithdrawal> getArchivedWithdrawal(String identifier) {
+    return rocksDBService.getObject(identifier, rocksDBService.getWithdrawalArchiveCF(),
+        CoinWithdrawal.class, "withdrawal_archive");
+  }
+
+  /**
+   * Chuyển các withdrawal đã kết thúc (completed, cancelled) và cập nhật lần cuối
+   * trước olderThan sang archive. Withdrawal failed vẫn có thể bị cancel nên được
+   * giữ lại.
+   *
+   * @param olderThan  Mốc thời gian (millis)
+   * @param startAfter Key cuối của lần gọi trước, null để bắt đầu từ đầu
+   * @param scanLimit  Số bản ghi tối đa được duyệt
+   * @return Key cuối đã duyệt (null nếu đã hết) và số bản ghi đã chuyển
+   */
+  public Pair<byte[], Integer> archiveWithdrawals(long olderThan, byte[] startAfter, int scanLimit) {
+    return rocksDBService.archiveObjects(rocksDBService.getWithdrawalCF(),
+        rocksDBService.getWithdrawalArchiveCF(), CoinWithdrawal.class,
+        withdrawal -> (withdrawal.isCompleted() || withdrawal.isCancelled())
+            && withdrawal.getUpdatedAt() < olderThan,
+        startAfter, scanLimit, "withdrawals");
   }
 
   /**
@@ -0,0 +1,85 @@
+package com.exchangeengine.storage.rocksdb;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rocksdb.AbstractEventListener;
+import org.rocksdb.WriteStallCondition;
+import org.rocksdb.WriteStallInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Nhận callback khi trạng thái write stall của một column family thay đổi.
+ *
+ * Write stall chặn mọi lần ghi batch, tức là chặn StorageService.flushToDisk()
+ * của FlushScheduler và kéo theo OutputProcessor, nên cảnh báo được ghi log
+ * ngay khi RocksDB báo thay vì đợi chu kỳ thu thập của RocksDBMetrics.
+ *
+ * Callback chạy trên thread nền của RocksDB: chỉ cập nhật bộ đếm và ghi log.
+ */
+final class WriteStallListener extends AbstractEventListener {
+  private static final Logger logger = LoggerFactory.getLogger(WriteStallListener.class);
+
+  private final Map<String, WriteStallCondition> conditions = new ConcurrentHashMap<>();
+  private final AtomicLong delayedEvents = new AtomicLong();
+  private final AtomicLong stoppedEvents = new AtomicLong();
+
+  WriteStallListener() {
+    super(EnabledEventCallback.ON_STALL_CONDITIONS_CHANGED);
+  }
+
+  @Override
+  public void onStallConditionsChanged(WriteStallInfo info) {
+    String columnFamily = info.getColumnFamilyName();
+    WriteStallCondition condition = info.getCurrentCondition();
+    conditions.put(columnFamily, condition);
+
+    switch (condition) {
+      case STOPPED:
+        stoppedEvents.incrementAndGet();
+        logger.error("ALERT: RocksDB dừng ghi (write stall STOPPED) trên column family {}, trước đó {}",
+            columnFamily, info.getPreviousCondition());
+        break;
+      case DELAYED:
+        delayedEvents.incrementAndGet();
+        logger.error("ALERT: RocksDB làm chậm ghi (write stall DELAYED) trên column family {}, trước đó {}",
+            columnFamily, info.getPreviousCondition());
+        break;
+      default:
+        logger.warn("RocksDB hết write stall trên column family {}, trước đó {}",
+            columnFamily, info.getPreviousCondition());
+        break;
+    }
+  }
+
+  /**
+   * Có column family nào đang bị stall không
+   */
+  boolean isStalled() {
+    for (WriteStallCondition condition : conditions.values()) {
+      if (condition != WriteStallCondition.NORMAL) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Trạng thái stall gần nhất của các column family đã từng thay đổi trạng thái
+   */
+  Map<String, WriteStallCondition> getConditions() {
+    return Collections.unmodifiableMap(new TreeMap<>(conditions));
+  }
+
+  long getDelayedEvents() {
+    return delayedEvents.get();
+  }
+
+  long getStoppedEvents() {
+    return stoppedEvents.get();
+  }
+}
@@ -0,0 +1,63 @@
+package com.exchangeengine.util;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Chuẩn hóa thời điểm nhận từ message về epoch millis.
+ * Client gửi expiresAt dưới dạng số giây, số millis hoặc chuỗi ISO-8601, còn
+ * engine (ExpiryService, BalanceLock) luôn dùng millis.
+ */
+public class EpochTime {
+  // Giá trị nhỏ hơn ngưỡng này là giây: 1e11 giây là năm 5138, 1e11 millis là năm 1973
+  public static final long SECONDS_THRESHOLD = 100_000_000_000L;
+
+  private EpochTime() {
+    // Private constructor to prevent instantiation
+  }
+
+  /**
+   * Đổi epoch giây hoặc millis sang millis
+   *
+   * @param value Epoch theo giây hoặc millis
+   * @return Epoch millis, giữ nguyên giá trị <= 0
+   */
+  public static long toMillis(long value) {
+    if (value > 0 && value < SECONDS_THRESHOLD) {
+      return value * 1000L;
+    }
+    return value;
+  }
+
+  /**
+   * Đọc thời điểm từ JSON: số (giây hoặc millis), chuỗi số hoặc chuỗi ISO-8601
+   *
+   * @param node Giá trị JSON
+   * @return Epoch millis, 0 nếu không có giá trị
+   * @throws IllegalArgumentException nếu chuỗi không đúng định dạng
+   */
+  public static long parseMillis(JsonNode node) {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return 0L;
+    }
+    if (node.isNumber()) {
+      return toMillis(node.asLong());
+    }
+
+    String text = node.asText().trim();
+    if (text.isEmpty()) {
+      return 0L;
+    }
+    try {
+      return Instant.parse(text).toEpochMilli();
+    } catch (DateTimeParseException e) {
+      try {
+        return toMillis(Long.parseLong(text));
+      } catch (NumberFormatException numberFormatException) {
+        throw new IllegalArgumentException("Invalid timestamp: " + text, numberFormatException);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.exchangeengine.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đồng hồ của business logic: trong lúc Disruptor xử lý một event, thời điểm
+ * "hiện tại" là timestamp của event đó thay vì giờ hệ thống.
+ *
+ * Nhờ vậy replay event từ InputJournal sau khi restart cho ra cùng
+ * createdAt/updatedAt như lần xử lý đầu. Ngoài event (thread khác, test) thì
+ * trả về giờ hệ thống.
+ *
+ * Tương tự, nextSequence() đánh số các bản ghi tạo trong event (history) từ
+ * sequence của event, nên replay tạo lại đúng key cũ thay vì key mới.
+ */
+public final class EventClock {
+  // Số bit dành cho thứ tự bản ghi trong một event
+  static final int ORDINAL_BITS = 16;
+
+  private static final int TIME = 0;
+  private static final int SEQUENCE = 1;
+  private static final int ORDINAL = 2;
+
+  // Mỗi thread một ô nhớ {timestamp, sequence, ordinal}, timestamp 0 nghĩa là
+  // không ở trong event
+  private static final ThreadLocal<long[]> EVENT = ThreadLocal.withInitial(() -> new long[3]);
+  // Dùng ngoài event, không xác định qua các lần chạy
+  private static final AtomicLong FALLBACK_SEQUENCE = new AtomicLong();
+
+  private EventClock() {
+    // Private constructor to prevent instantiation
+  }
+
+  /**
+   * Bắt đầu xử lý event trên thread hiện tại
+   *
+   * @param eventTimeMillis Timestamp của event (epoch millis)
+   * @param eventSequence   Sequence của event, giữ nguyên khi replay (sequence
+   *                        input journal)
+   */
+  public static void begin(long eventTimeMillis, long eventSequence) {
+    long[] event = EVENT.get();
+    event[TIME] = eventTimeMillis;
+    event[SEQUENCE] = eventSequence;
+    event[ORDINAL] = 0;
+  }
+
+  /**
+   * Kết thúc event, quay lại dùng giờ hệ thống
+   */
+  public static void end() {
+    EVENT.get()[TIME] = 0L;
+  }
+
+  /**
+   * @return Timestamp của event đang xử lý, hoặc giờ hệ thống nếu không có
+   */
+  public static long currentTimeMillis() {
+    long eventTime = EVENT.get()[TIME];
+    return eventTime > 0 ? eventTime : System.currentTimeMillis();
+  }
+
+  /**
+   * @return currentTimeMillis() dạng Instant
+   */
+  public static Instant now() {
+    return Instant.ofEpochMilli(currentTimeMillis());
+  }
+
+  /**
+   * Số thứ tự tiếp theo cho bản ghi tạo trong event: sequence của event ở các
+   * bit cao, thứ tự trong event ở ORDINAL_BITS bit thấp. Ngoài event dùng bộ
+   * đếm của process.
+   *
+   * @return Số thứ tự tăng dần theo thứ tự xử lý
+   */
+  public static long nextSequence() {
+    long[] event = EVENT.get();
+    if (event[TIME] <= 0) {
+      return FALLBACK_SEQUENCE.incrementAndGet();
+    }
+    return (event[SEQUENCE] << ORDINAL_BITS) | event[ORDINAL]++;
+  }
+}
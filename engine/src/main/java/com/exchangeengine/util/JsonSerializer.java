@@ -6,11 +6,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 public class JsonSerializer {
@@ -42,6 +45,42 @@ public class JsonSerializer {
     }
   }
 
+  /**
+   * Serialize chỉ với các field thuộc JSON view (field không gắn view luôn được ghi)
+   */
+  public static byte[] serialize(Object object, Class<?> view) {
+    try {
+      return objectMapper.writerWithView(view).writeValueAsBytes(object);
+    } catch (IOException e) {
+      logger.error("Error serializing object: {}", e.getMessage(), e);
+      throw new RuntimeException("Serialization error", e);
+    }
+  }
+
+  /**
+   * Ghi JSON thẳng vào stream, không tạo mảng byte trung gian
+   */
+  public static void serialize(Object object, OutputStream out) {
+    try {
+      objectMapper.writeValue(out, object);
+    } catch (IOException e) {
+      logger.error("Error serializing object: {}", e.getMessage(), e);
+      throw new RuntimeException("Serialization error", e);
+    }
+  }
+
+  /**
+   * Đọc JSON từ phần còn lại (position..limit) của buffer, kể cả direct buffer
+   */
+  public static <T> T deserialize(ByteBuffer buffer, Class<T> clazz) {
+    try {
+      return objectMapper.readValue(new ByteBufferBackedInputStream(buffer), clazz);
+    } catch (IOException e) {
+      logger.error("Error deserializing object: {}", e.getMessage(), e);
+      throw new RuntimeException("Deserialization error", e);
+    }
+  }
+
   public static <T> T deserialize(byte[] bytes, Class<T> clazz) {
     try {
       return objectMapper.readValue(bytes, clazz);
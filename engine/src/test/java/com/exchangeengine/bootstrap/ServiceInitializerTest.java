@@ -8,6 +8,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -29,8 +30,17 @@ import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.service.engine.EngineDisruptorService;
 import com.exchangeengine.service.engine.EngineHandler;
 import com.exchangeengine.service.engine.OutputProcessor;
+import com.exchangeengine.service.engine.amm_fee.PositionFeeReportService;
+import com.exchangeengine.service.engine.expiry.ExpiryService;
+import com.exchangeengine.storage.rocksdb.DurablePositionRocksDB;
+import com.exchangeengine.storage.rocksdb.RocksDBMetrics;
 import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.storage.ArchiveService;
+import com.exchangeengine.storage.BackupService;
+import com.exchangeengine.storage.DurabilityTracker;
+import com.exchangeengine.storage.FlushScheduler;
 import com.exchangeengine.storage.StorageService;
+import com.exchangeengine.storage.journal.InputJournal;
 
 @ExtendWith({ MockitoExtension.class, CombinedTestExtension.class })
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -39,9 +49,27 @@ class ServiceInitializerTest {
   @Mock
   private RocksDBService mockRocksDBService;
 
+  @Mock
+  private RocksDBMetrics mockRocksDBMetrics;
+
   @Mock
   private StorageService mockStorageService;
 
+  @Mock
+  private FlushScheduler mockFlushScheduler;
+
+  @Mock
+  private BackupService mockBackupService;
+
+  @Mock
+  private ArchiveService mockArchiveService;
+
+  @Mock
+  private InputJournal mockInputJournal;
+
+  @Mock
+  private DurablePositionRocksDB mockDurablePositionRocksDB;
+
   @Mock
   private KafkaConfig mockKafkaConfig;
 
@@ -61,7 +89,13 @@ class ServiceInitializerTest {
   private EngineDisruptorService mockEngineDisruptorService;
 
   @Mock
-  private KafkaProducer<String, String> mockKafkaProducer;
+  private ExpiryService mockExpiryService;
+
+  @Mock
+  private PositionFeeReportService mockPositionFeeReportService;
+
+  @Mock
+  private KafkaProducer<String, byte[]> mockKafkaProducer;
 
   @BeforeEach
   void setUp() throws Exception {
@@ -80,16 +114,25 @@ class ServiceInitializerTest {
   private void setupMocks() {
     // Thiết lập tất cả các mock
     RocksDBService.setTestInstance(mockRocksDBService);
+    RocksDBMetrics.setTestInstance(mockRocksDBMetrics);
     StorageService.setTestInstance(mockStorageService);
+    FlushScheduler.setTestInstance(mockFlushScheduler);
+    BackupService.setTestInstance(mockBackupService);
+    ArchiveService.setTestInstance(mockArchiveService);
+    InputJournal.setTestInstance(mockInputJournal);
+    DurablePositionRocksDB.setTestInstance(mockDurablePositionRocksDB);
     KafkaConfig.setTestInstance(mockKafkaConfig);
     KafkaProducerService.setTestInstance(mockKafkaProducerService);
     OutputProcessor.setTestInstance(mockOutputProcessor);
     EngineHandler.setTestInstance(mockEngineHandler);
     KafkaConsumerService.setTestInstance(mockKafkaConsumerService);
     EngineDisruptorService.setTestInstance(mockEngineDisruptorService);
+    ExpiryService.setTestInstance(mockExpiryService);
+    PositionFeeReportService.setTestInstance(mockPositionFeeReportService);
 
     // Thiết lập mockKafkaConfig để trả về mockKafkaProducer
     when(mockKafkaConfig.getProducer()).thenReturn(mockKafkaProducer);
+    when(mockDurablePositionRocksDB.getDurablePosition()).thenReturn(Optional.empty());
   }
 
   /**
@@ -136,7 +179,7 @@ class ServiceInitializerTest {
 
   @Test
   @DisplayName("Initialize method should initialize all components")
-  void initialize_ShouldInitializeAllComponents() {
+  void initialize_ShouldInitializeAllComponents() throws Exception {
     // Thu thập các mock singleton trước khi gọi initialize()
     StorageService preInitMockStorageService = StorageService.getInstance();
     RocksDBService preInitMockRocksDBService = RocksDBService.getInstance();
@@ -152,6 +195,14 @@ class ServiceInitializerTest {
         "StorageService should be mockStorageService");
     assertSame(preInitMockEngineDisruptorService, EngineDisruptorService.getInstance(),
         "EngineDisruptorService should be mockEngineDisruptorService");
+    verify(mockFlushScheduler).start();
+    verify(mockRocksDBMetrics).start();
+    verify(mockBackupService).start();
+    verify(mockArchiveService).start();
+    verify(mockInputJournal).replay(eq(-1L), any());
+    verify(mockFlushScheduler).setDurabilityTracker(any(DurabilityTracker.class));
+    verify(mockExpiryService).start();
+    verify(mockPositionFeeReportService).start();
   }
 
   @Test
@@ -256,8 +307,12 @@ class ServiceInitializerTest {
     shutdownDisruptorMethod.invoke(null);
 
     // Verify thứ tự gọi các phương thức
-    InOrder inOrder = inOrder(mockEngineDisruptorService, mockOutputProcessor);
+    InOrder inOrder = inOrder(mockPositionFeeReportService, mockExpiryService, mockEngineDisruptorService,
+        mockInputJournal, mockOutputProcessor);
+    inOrder.verify(mockPositionFeeReportService).shutdown();
+    inOrder.verify(mockExpiryService).shutdown();
     inOrder.verify(mockEngineDisruptorService).shutdown();
+    inOrder.verify(mockInputJournal).close();
     inOrder.verify(mockOutputProcessor).shutdown();
   }
 
@@ -320,4 +375,24 @@ class ServiceInitializerTest {
     verify(mockKafkaProducerService).close();
     verify(mockKafkaConfig).shutdown();
   }
+
+  @Test
+  @DisplayName("shutdownRocksDB should run the final flush before closing RocksDB")
+  void shutdownRocksDB_ShouldFlushBeforeClosingRocksDB() throws Exception {
+    Method shutdownRocksDBMethod = ServiceInitializer.class.getDeclaredMethod("shutdownRocksDB");
+    shutdownRocksDBMethod.setAccessible(true);
+
+    // Act
+    shutdownRocksDBMethod.invoke(null);
+
+    // Verify
+    InOrder inOrder = inOrder(mockArchiveService, mockBackupService, mockFlushScheduler, mockRocksDBMetrics,
+        mockRocksDBService);
+    inOrder.verify(mockArchiveService).shutdown();
+    inOrder.verify(mockBackupService).shutdown();
+    inOrder.verify(mockFlushScheduler).shutdown();
+    inOrder.verify(mockRocksDBMetrics).shutdown();
+    inOrder.verify(mockRocksDBService).close();
+    verify(mockStorageService, never()).flushToDisk();
+  }
 }
@@ -12,6 +12,11 @@ import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.service.engine.EngineDisruptorService;
 import com.exchangeengine.service.engine.EngineHandler;
 import com.exchangeengine.service.engine.OutputProcessor;
+import com.exchangeengine.service.engine.amm_fee.PositionFeeReportService;
+import com.exchangeengine.service.engine.expiry.ExpiryService;
+import com.exchangeengine.storage.ArchiveService;
+import com.exchangeengine.storage.BackupService;
+import com.exchangeengine.storage.FlushScheduler;
 import com.exchangeengine.storage.StorageService;
 import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.storage.cache.AccountHistoryCache;
@@ -21,23 +26,31 @@ import com.exchangeengine.storage.cache.AmmPositionCache;
 import com.exchangeengine.storage.cache.BalanceLockCache;
 import com.exchangeengine.storage.cache.DepositCache;
 import com.exchangeengine.storage.cache.EventCache;
+import com.exchangeengine.storage.cache.LiquidityIndexCache;
 import com.exchangeengine.storage.cache.MerchantEscrowCache;
 import com.exchangeengine.storage.cache.OfferCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.SymbolTable;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
 import com.exchangeengine.storage.cache.TradeCache;
 import com.exchangeengine.storage.cache.WithdrawalCache;
+import com.exchangeengine.storage.journal.InputJournal;
 import com.exchangeengine.storage.rocksdb.AccountHistoryRocksDB;
 import com.exchangeengine.storage.rocksdb.AccountRocksDB;
 import com.exchangeengine.storage.rocksdb.AmmOrderRocksDB;
 import com.exchangeengine.storage.rocksdb.AmmPoolRocksDB;
 import com.exchangeengine.storage.rocksdb.AmmPositionRocksDB;
 import com.exchangeengine.storage.rocksdb.BalanceLockRocksDB;
+import com.exchangeengine.storage.rocksdb.CandleRocksDB;
 import com.exchangeengine.storage.rocksdb.DepositRocksDB;
+import com.exchangeengine.storage.rocksdb.DurablePositionRocksDB;
 import com.exchangeengine.storage.rocksdb.MerchantEscrowRocksDB;
 import com.exchangeengine.storage.rocksdb.OfferRocksDB;
+import com.exchangeengine.storage.rocksdb.RocksDBMetrics;
 import com.exchangeengine.storage.rocksdb.RocksDBService;
 import com.exchangeengine.storage.rocksdb.TickBitmapRocksDB;
+import com.exchangeengine.storage.rocksdb.SymbolRocksDB;
 import com.exchangeengine.storage.rocksdb.TickRocksDB;
 import com.exchangeengine.storage.rocksdb.TradeRocksDB;
 import com.exchangeengine.storage.rocksdb.WithdrawalRocksDB;
@@ -65,7 +78,12 @@ public class SingletonResetExtension implements BeforeEachCallback, AfterEachCal
   private static final Set<Class<?>> SINGLETON_CLASSES = new HashSet<>(Arrays.asList(
       // Storage services
       StorageService.class,
+      FlushScheduler.class,
       RocksDBService.class,
+      RocksDBMetrics.class,
+      BackupService.class,
+      ArchiveService.class,
+      InputJournal.class,
       // Cache services
       AccountCache.class,
       DepositCache.class,
@@ -81,6 +99,9 @@ public class SingletonResetExtension implements BeforeEachCallback, AfterEachCal
       TradeCache.class,
       OfferCache.class,
       BalanceLockCache.class,
+      ReadSnapshotCache.class,
+      LiquidityIndexCache.class,
+      SymbolTable.class,
       // RocksDB services
       AccountRocksDB.class,
       DepositRocksDB.class,
@@ -95,6 +116,9 @@ public class SingletonResetExtension implements BeforeEachCallback, AfterEachCal
       TradeRocksDB.class,
       OfferRocksDB.class,
       BalanceLockRocksDB.class,
+      CandleRocksDB.class,
+      SymbolRocksDB.class,
+      DurablePositionRocksDB.class,
       // Kafka services
       KafkaConfig.class,
       KafkaProducerService.class,
@@ -103,6 +127,8 @@ public class SingletonResetExtension implements BeforeEachCallback, AfterEachCal
       EngineDisruptorService.class,
       EngineHandler.class,
       OutputProcessor.class,
+      ExpiryService.class,
+      PositionFeeReportService.class,
       // RollbarManager
       RollbarManager.class,
       // EnvManager
@@ -1,11 +1,11 @@
 package com.exchangeengine.factory;
 
 import com.exchangeengine.model.Account;
+import com.exchangeengine.model.FixedScaleBalance;
 import org.instancio.Instancio;
 import org.instancio.Model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 
 import static org.instancio.Select.field;
@@ -15,8 +15,6 @@ import static org.instancio.Select.field;
  */
 public class AccountFactory {
 
-  private static final int DEFAULT_SCALE = 16;
-
   /**
    * Creates a model for Account with default values
    *
@@ -26,8 +24,10 @@ public class AccountFactory {
   public static Model<Account> model(String accountKey) {
     return Instancio.of(Account.class)
         .set(field(Account::getKey), accountKey)
-        .set(field(Account::getAvailableBalance), new BigDecimal("10.0").setScale(DEFAULT_SCALE, RoundingMode.HALF_UP))
-        .set(field(Account::getFrozenBalance), new BigDecimal("1.0").setScale(DEFAULT_SCALE, RoundingMode.HALF_UP))
+        .supply(field(Account::getAvailableBalance), () -> new FixedScaleBalance(new BigDecimal("10.0")))
+        .supply(field(Account::getFrozenBalance), () -> new FixedScaleBalance(new BigDecimal("1.0")))
+        .ignore(field(Account.class, "availableView"))
+        .ignore(field(Account.class, "frozenView"))
         .set(field(Account::getCreatedAt), Instant.now().toEpochMilli())
         .set(field(Account::getUpdatedAt), Instant.now().toEpochMilli())
         .toModel();
@@ -54,8 +54,10 @@ public class AccountFactory {
   public static Account createWithBalances(String accountKey, BigDecimal availableBalance, BigDecimal frozenBalance) {
     return Instancio.of(Account.class)
         .set(field(Account::getKey), accountKey)
-        .set(field(Account::getAvailableBalance), availableBalance.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP))
-        .set(field(Account::getFrozenBalance), frozenBalance.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP))
+        .supply(field(Account::getAvailableBalance), () -> new FixedScaleBalance(availableBalance))
+        .supply(field(Account::getFrozenBalance), () -> new FixedScaleBalance(frozenBalance))
+        .ignore(field(Account.class, "availableView"))
+        .ignore(field(Account.class, "frozenView"))
         .set(field(Account::getCreatedAt), Instant.now().toEpochMilli())
         .set(field(Account::getUpdatedAt), Instant.now().toEpochMilli())
         .create();
@@ -153,7 +153,7 @@ public class WithdrawalIntegrationTest {
         releaseResult.setRecipientAccountHistory(recipientHistory);
         
         // Process the result in OutputProcessor
-        outputProcessor.processOutput(releaseResult, true);
+        outputProcessor.processOutput(releaseResult, 0L, true);
         
         // THEN: Verify that both sender and recipient account updates were sent to Kafka
         verify(mockKafkaProducerService).sendCoinAccountUpdate(anyString(), eq(senderAccount));
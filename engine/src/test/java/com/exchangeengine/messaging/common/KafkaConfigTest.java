@@ -47,7 +47,7 @@ class KafkaConfigTest {
   private ListTopicsResult mockListTopicsResult;
 
   @Mock
-  private KafkaProducer<String, String> mockProducer;
+  private KafkaProducer<String, byte[]> mockProducer;
 
   private MockedStatic<EnvManager> mockedEnvManagerStatic;
   private MockedStatic<AdminClient> mockedAdminClientStatic;
@@ -144,7 +144,7 @@ class KafkaConfigTest {
   @DisplayName("Khởi tạo Producer không SSL khi không phải production")
   void testProducerConfigNonProduction() {
     KafkaConfig config = KafkaConfig.getInstance();
-    KafkaProducer<String, String> producer = config.getProducer();
+    KafkaProducer<String, byte[]> producer = config.getProducer();
     assertNotNull(producer, "Producer phải được khởi tạo");
     // Không kiểm tra SSL vì envManagerMock.isProduction() trả về false
   }
@@ -156,7 +156,7 @@ class KafkaConfigTest {
     when(mockEnvManager.isProduction()).thenReturn(true);
     KafkaConfig.setTestInstance(null); // Reset singleton
     KafkaConfig config = KafkaConfig.getInstance();
-    KafkaProducer<String, String> producer = config.getProducer();
+    KafkaProducer<String, byte[]> producer = config.getProducer();
     assertNotNull(producer, "Producer phải được khởi tạo");
     // Không thể kiểm tra trực tiếp properties, nhưng có thể kiểm tra log hoặc cấu hình qua integration test
   }
@@ -266,7 +266,7 @@ class KafkaConfigTest {
     producerField.set(kafkaConfig, mockProducer);
 
     // Act
-    KafkaProducer<String, String> producer = kafkaConfig.getProducer();
+    KafkaProducer<String, byte[]> producer = kafkaConfig.getProducer();
 
     // Assert
     assertSame(mockProducer, producer, "Should return the existing producer");
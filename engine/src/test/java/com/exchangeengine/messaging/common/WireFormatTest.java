@@ -0,0 +1,108 @@
+package com.exchangeengine.messaging.common;
+
+import com.exchangeengine.model.KafkaTopics;
+import com.exchangeengine.util.EnvManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test cho WireFormat
+ */
+@ExtendWith(MockitoExtension.class)
+class WireFormatTest {
+
+  @Mock
+  private EnvManager mockEnvManager;
+
+  @ParameterizedTest
+  @EnumSource(WireFormat.class)
+  @DisplayName("encode rồi decode phải giữ nguyên nội dung message")
+  void encodeDecode_ShouldRoundTrip(WireFormat format) throws Exception {
+    Map<String, Object> message = new HashMap<>();
+    message.put("key", "btc:user123");
+    message.put("availableBalance", new BigDecimal("1.2345678901234567"));
+    message.put("tickIndex", -887220);
+
+    JsonNode decoded = format.decode(format.encode(message));
+
+    assertEquals("btc:user123", decoded.get("key").asText());
+    assertEquals(0, new BigDecimal("1.2345678901234567").compareTo(decoded.get("availableBalance").decimalValue()));
+    assertEquals(-887220, decoded.get("tickIndex").asInt());
+  }
+
+  @Test
+  @DisplayName("JSON encode phải trùng với ObjectMapper mặc định")
+  void json_ShouldMatchPlainObjectMapper() throws Exception {
+    Map<String, Object> message = Map.of("key", "value");
+
+    assertArrayEquals(new ObjectMapper().writeValueAsBytes(message), WireFormat.JSON.encode(message));
+  }
+
+  @Test
+  @DisplayName("Smile phải nhỏ hơn JSON cho message có nhiều số thập phân")
+  void smile_ShouldBeSmallerThanJson() throws Exception {
+    Map<String, Object> message = new HashMap<>();
+    for (int i = 0; i < 20; i++) {
+      message.put("balance" + i, new BigDecimal("123456.1234567890123456"));
+    }
+
+    assertTrue(WireFormat.SMILE.encode(message).length < WireFormat.JSON.encode(message).length);
+  }
+
+  @Test
+  @DisplayName("fromHeaders trả về JSON khi không có header hoặc header không nhận ra")
+  void fromHeaders_ShouldFallbackToJson() {
+    assertEquals(WireFormat.JSON, WireFormat.fromHeaders(null));
+    assertEquals(WireFormat.JSON, WireFormat.fromHeaders(new RecordHeaders()));
+
+    RecordHeaders unknown = new RecordHeaders();
+    unknown.add(WireFormat.CONTENT_TYPE_HEADER, "application/xml".getBytes(StandardCharsets.UTF_8));
+    assertEquals(WireFormat.JSON, WireFormat.fromHeaders(unknown));
+  }
+
+  @Test
+  @DisplayName("fromHeaders đọc header content-type cuối cùng")
+  void fromHeaders_ShouldUseLastContentTypeHeader() {
+    RecordHeaders headers = new RecordHeaders();
+    headers.add(WireFormat.CONTENT_TYPE_HEADER, WireFormat.JSON.getContentTypeBytes());
+    headers.add(WireFormat.CONTENT_TYPE_HEADER, WireFormat.CBOR.getContentTypeBytes());
+
+    assertEquals(WireFormat.CBOR, WireFormat.fromHeaders(headers));
+  }
+
+  @Test
+  @DisplayName("fromName không phân biệt hoa thường và mặc định JSON")
+  void fromName_ShouldBeCaseInsensitive() {
+    assertEquals(WireFormat.SMILE, WireFormat.fromName(" Smile "));
+    assertEquals(WireFormat.CBOR, WireFormat.fromName("cbor"));
+    assertEquals(WireFormat.JSON, WireFormat.fromName("protobuf"));
+    assertEquals(WireFormat.JSON, WireFormat.fromName(null));
+  }
+
+  @Test
+  @DisplayName("forTopic ưu tiên cấu hình theo topic rồi đến cấu hình mặc định")
+  void forTopic_ShouldPreferTopicOverride() {
+    when(mockEnvManager.get(WireFormat.DEFAULT_FORMAT_ENV, "json")).thenReturn("cbor");
+    when(mockEnvManager.get("KAFKA_WIRE_FORMAT_EE_O_TICK_UPDATE", "cbor")).thenReturn("smile");
+    when(mockEnvManager.get("KAFKA_WIRE_FORMAT_EE_O_COIN_ACCOUNT_UPDATE", "cbor")).thenReturn("cbor");
+
+    assertEquals(WireFormat.SMILE, WireFormat.forTopic(mockEnvManager, KafkaTopics.TICK_UPDATE_TOPIC));
+    assertEquals(WireFormat.CBOR, WireFormat.forTopic(mockEnvManager, KafkaTopics.COIN_ACCOUNT_UPDATE_TOPIC));
+  }
+}
@@ -1,9 +1,20 @@
 package com.exchangeengine.messaging.consumer;
 
 import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.AccountHistoryPage;
+import com.exchangeengine.model.AmmLiquidityDepth;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.AmmTwap;
 import com.exchangeengine.model.KafkaTopics;
+import com.exchangeengine.model.OfferBook;
 import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.model.event.AccountEvent;
+import com.exchangeengine.model.event.AccountHistoryQueryEvent;
+import com.exchangeengine.model.event.AmmLiquidityQueryEvent;
+import com.exchangeengine.model.event.AmmSwapQuoteEvent;
+import com.exchangeengine.model.event.AmmTwapQueryEvent;
+import com.exchangeengine.model.event.OfferBookQueryEvent;
 import com.exchangeengine.model.event.TickEvent;
 import com.exchangeengine.util.EnvManager;
 import com.exchangeengine.util.KafkaMessageUtils;
@@ -25,6 +36,7 @@ import com.exchangeengine.extension.SingletonResetExtension;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -48,7 +60,7 @@ import static org.mockito.Mockito.*;
 class KafkaConsumerQueryServiceTest {
 
   @Mock
-  private KafkaConsumer<String, String> mockConsumer;
+  private KafkaConsumer<String, byte[]> mockConsumer;
 
   @Mock
   private KafkaProducerService mockProducerService;
@@ -57,7 +69,7 @@ class KafkaConsumerQueryServiceTest {
   private EnvManager mockEnvManager;
 
   @Mock
-  private ConsumerRecords<String, String> mockConsumerRecords;
+  private ConsumerRecords<String, byte[]> mockConsumerRecords;
 
   @Mock
   private ExecutorService mockExecutorService;
@@ -144,15 +156,15 @@ class KafkaConsumerQueryServiceTest {
     Field runningField = KafkaConsumerQueryService.class.getDeclaredField("running");
     runningField.setAccessible(true);
 
-    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
 
     // Create a record for Coin Account Query
     String accountQueryRecord = "{\"identifier\":\"query123\",\"accountKey\":\"usdt:user123\"}";
-    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", accountQueryRecord));
+    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", accountQueryRecord.getBytes(StandardCharsets.UTF_8)));
 
     // Create a record for Reset Balance
     String resetBalanceRecord = "{\"accountKey\":\"usdt:user123\"}";
-    records.add(new ConsumerRecord<>(KafkaTopics.RESET_BALANCE_TOPIC, 0, 1, "key2", resetBalanceRecord));
+    records.add(new ConsumerRecord<>(KafkaTopics.RESET_BALANCE_TOPIC, 0, 1, "key2", resetBalanceRecord.getBytes(StandardCharsets.UTF_8)));
 
     when(mockConsumerRecords.iterator()).thenReturn(records.iterator());
 
@@ -196,7 +208,7 @@ class KafkaConsumerQueryServiceTest {
       processQueryMethod.setAccessible(true);
 
       // Act - Manually simulate run method behavior
-      for (ConsumerRecord<String, String> record : records) {
+      for (ConsumerRecord<String, byte[]> record : records) {
         mockExecutorService.submit(() -> {
           try {
             processQueryMethod.invoke(service, record);
@@ -250,7 +262,7 @@ class KafkaConsumerQueryServiceTest {
       service.shutdown();
 
       // Assert
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer).wakeup();
       verify(mockExecutorService).shutdown();
 
@@ -286,8 +298,8 @@ class KafkaConsumerQueryServiceTest {
 
       // Create a record for Coin Account Query with full required fields
       String accountQueryJson = "{\"identifier\":\"query123\",\"accountKey\":\"usdt:user123\",\"eventId\":\"evt-123\",\"actionId\":\"act-123\",\"actionType\":\"CoinAccount\",\"operationType\":\"balance_query\",\"status\":\"pending\",\"amount\":100,\"coin\":\"USDT\",\"txHash\":\"0x123\",\"layer\":\"L1\",\"depositAddress\":\"addr123\"}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", accountQueryJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", accountQueryJson.getBytes(StandardCharsets.UTF_8));
 
       // Use reflection to inject mockProducerService
       Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
@@ -327,8 +339,8 @@ class KafkaConsumerQueryServiceTest {
 
       // Create a record for Reset Balance
       String resetBalanceJson = "{\"accountKey\":\"usdt:user123\"}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.RESET_BALANCE_TOPIC, 0, 0, "key1", resetBalanceJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.RESET_BALANCE_TOPIC, 0, 0, "key1", resetBalanceJson.getBytes(StandardCharsets.UTF_8));
 
       // Use reflection to inject mockProducerService
       Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
@@ -362,8 +374,8 @@ class KafkaConsumerQueryServiceTest {
 
       // Create a record with unknown topic
       String json = "{\"accountKey\":\"usdt:user123\"}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          "unknown-topic", 0, 0, "key1", json);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          "unknown-topic", 0, 0, "key1", json.getBytes(StandardCharsets.UTF_8));
 
       // Act - should not throw exception
       processQueryMethod.invoke(service, record);
@@ -392,8 +404,8 @@ class KafkaConsumerQueryServiceTest {
 
       // Create a record with malformed JSON
       String malformedJson = "{not-valid-json";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", malformedJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", malformedJson.getBytes(StandardCharsets.UTF_8));
 
       // Act - should not throw exception
       processQueryMethod.invoke(service, record);
@@ -410,7 +422,7 @@ class KafkaConsumerQueryServiceTest {
   void processCoinAccountQuery_ShouldHandleAccountQueryCorrectly() throws Exception {
     // Arrange
     @SuppressWarnings("unchecked")
-    MockedConstruction<KafkaConsumer<String, String>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, String>>) (MockedConstruction<?>) Mockito
+    MockedConstruction<KafkaConsumer<String, byte[]>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, byte[]>>) (MockedConstruction<?>) Mockito
         .mockConstruction(KafkaConsumer.class);
 
     try {
@@ -478,7 +490,7 @@ class KafkaConsumerQueryServiceTest {
   void processCoinAccountQuery_ShouldHandleExceptionWhenAccountNotFound() throws Exception {
     // Arrange
     @SuppressWarnings("unchecked")
-    MockedConstruction<KafkaConsumer<String, String>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, String>>) (MockedConstruction<?>) Mockito
+    MockedConstruction<KafkaConsumer<String, byte[]>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, byte[]>>) (MockedConstruction<?>) Mockito
         .mockConstruction(KafkaConsumer.class);
 
     try {
@@ -554,7 +566,7 @@ class KafkaConsumerQueryServiceTest {
   void processCoinAccountQuery_ShouldHandleValidationError() throws Exception {
     // Arrange
     @SuppressWarnings("unchecked")
-    MockedConstruction<KafkaConsumer<String, String>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, String>>) (MockedConstruction<?>) Mockito
+    MockedConstruction<KafkaConsumer<String, byte[]>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, byte[]>>) (MockedConstruction<?>) Mockito
         .mockConstruction(KafkaConsumer.class);
 
     try {
@@ -758,12 +770,12 @@ class KafkaConsumerQueryServiceTest {
       running.set(true);
 
       // Create a list of records
-      List<ConsumerRecord<String, String>> recordsList = new ArrayList<>();
+      List<ConsumerRecord<String, byte[]>> recordsList = new ArrayList<>();
       String validJson = "{\"identifier\":\"query123\",\"accountKey\":\"usdt:user123\",\"eventId\":\"evt-123\",\"actionId\":\"act-123\",\"actionType\":\"CoinAccount\",\"operationType\":\"balance_query\"}";
-      recordsList.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", validJson));
+      recordsList.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", validJson.getBytes(StandardCharsets.UTF_8)));
 
       // Mock ConsumerRecords
-      ConsumerRecords<String, String> records = new ConsumerRecords<>(
+      ConsumerRecords<String, byte[]> records = new ConsumerRecords<>(
           Collections.singletonMap(
               new org.apache.kafka.common.TopicPartition(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0),
               recordsList));
@@ -886,7 +898,7 @@ class KafkaConsumerQueryServiceTest {
       verify(mockExecutorForTimeout).shutdownNow(); // Should call shutdownNow if awaitTermination returns false
 
       // Verify consumer was woken up
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer).wakeup();
 
       // Verify running was set to false
@@ -919,7 +931,7 @@ class KafkaConsumerQueryServiceTest {
 
       // Assert
       // Verify consumer was woken up
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer).wakeup();
 
       // Verify running was set to false
@@ -962,9 +974,9 @@ class KafkaConsumerQueryServiceTest {
       }).when(mockExecutorService).submit(any(Runnable.class));
 
       // Create a list of records
-      List<ConsumerRecord<String, String>> recordsList = new ArrayList<>();
+      List<ConsumerRecord<String, byte[]>> recordsList = new ArrayList<>();
       String validJson = "{\"identifier\":\"query123\",\"accountKey\":\"usdt:user123\"}";
-      recordsList.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", validJson));
+      recordsList.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC, 0, 0, "key1", validJson.getBytes(StandardCharsets.UTF_8)));
 
       // Mock consumer.poll() to return records once, then empty
       when(mockConsumer.poll(any(Duration.class)))
@@ -1019,7 +1031,7 @@ class KafkaConsumerQueryServiceTest {
     // Arrange
     // Tạo một consumer mock mà khi poll() sẽ thiết lập running = false và sau đó
     // ném WakeupException
-    KafkaConsumer<String, String> mockConsumerWithException = mock(KafkaConsumer.class);
+    KafkaConsumer<String, byte[]> mockConsumerWithException = mock(KafkaConsumer.class);
 
     // Mock constructor của KafkaConsumer
     MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
@@ -1129,11 +1141,11 @@ class KafkaConsumerQueryServiceTest {
   }
 
   @Test
-  @DisplayName("processTickQuery should fetch ticks and send updates")
+  @DisplayName("processTickQuery should fetch tick snapshot and send it in one message")
   void processTickQuery_ShouldFetchTicksAndSendUpdates() throws Exception {
     // Arrange
     @SuppressWarnings("unchecked")
-    MockedConstruction<KafkaConsumer<String, String>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, String>>) (MockedConstruction<?>) Mockito
+    MockedConstruction<KafkaConsumer<String, byte[]>> mockedConsumerConstruction = (MockedConstruction<KafkaConsumer<String, byte[]>>) (MockedConstruction<?>) Mockito
         .mockConstruction(KafkaConsumer.class);
 
     try {
@@ -1158,7 +1170,7 @@ class KafkaConsumerQueryServiceTest {
 
       // Setup mocks
       when(mockTickEvent.getPoolPair()).thenReturn("BTC-USDT");
-      when(mockTickEvent.fetchTicksFromBitmap()).thenReturn(ticks);
+      when(mockTickEvent.fetchTickSnapshot()).thenReturn(TickDelta.snapshot("BTC-USDT", 5L, ticks, null, null, 0));
 
       // Mock KafkaMessageUtils to capture and execute the lambda
       try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
@@ -1179,7 +1191,7 @@ class KafkaConsumerQueryServiceTest {
             (mock, context) -> {
               // Cấu hình mock khi được tạo mới
               when(mock.getPoolPair()).thenReturn("BTC-USDT");
-              when(mock.fetchTicksFromBitmap()).thenReturn(ticks);
+              when(mock.fetchTickSnapshot()).thenReturn(TickDelta.snapshot("BTC-USDT", 5L, ticks, null, null, 0));
             })) {
 
           // Create JSON for the test
@@ -1194,9 +1206,12 @@ class KafkaConsumerQueryServiceTest {
           TickEvent constructedMock = mockedTickEventConstruction.constructed().get(0);
           verify(constructedMock).parserData(any(JsonNode.class));
           verify(constructedMock).validate();
-          verify(constructedMock).fetchTicksFromBitmap();
-          verify(mockProducerService).sendTickUpdate(tick1);
-          verify(mockProducerService).sendTickUpdate(tick2);
+          verify(constructedMock).fetchTickSnapshot();
+          ArgumentCaptor<TickDelta> snapshotCaptor = ArgumentCaptor.forClass(TickDelta.class);
+          verify(mockProducerService).sendTickDelta(snapshotCaptor.capture());
+          assertEquals(TickDelta.TYPE_SNAPSHOT, snapshotCaptor.getValue().getType());
+          assertEquals(Arrays.asList(tick1, tick2), snapshotCaptor.getValue().getTicks());
+          verify(mockProducerService, never()).sendTickUpdate(any(Tick.class));
         }
       }
     } finally {
@@ -1227,7 +1242,7 @@ class KafkaConsumerQueryServiceTest {
       // Create mock TickEvent with empty tick list
       TickEvent mockTickEvent = mock(TickEvent.class);
       when(mockTickEvent.getPoolPair()).thenReturn("BTC-USDT");
-      when(mockTickEvent.fetchTicksFromBitmap()).thenReturn(Collections.emptyList());
+      when(mockTickEvent.fetchTickSnapshot()).thenReturn(TickDelta.snapshot("BTC-USDT", 5L, Collections.emptyList(), null, null, 0));
 
       // Mock KafkaMessageUtils to capture and execute the lambda
       try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
@@ -1248,7 +1263,7 @@ class KafkaConsumerQueryServiceTest {
             (mock, context) -> {
               // Cấu hình mock khi được tạo mới
               when(mock.getPoolPair()).thenReturn("BTC-USDT");
-              when(mock.fetchTicksFromBitmap()).thenReturn(Collections.emptyList());
+              when(mock.fetchTickSnapshot()).thenReturn(TickDelta.snapshot("BTC-USDT", 5L, Collections.emptyList(), null, null, 0));
             })) {
 
           // Create JSON for the test
@@ -1263,8 +1278,10 @@ class KafkaConsumerQueryServiceTest {
           TickEvent constructedMock = mockedTickEventConstruction.constructed().get(0);
           verify(constructedMock).parserData(any(JsonNode.class));
           verify(constructedMock).validate();
-          verify(constructedMock).fetchTicksFromBitmap();
-          verify(mockProducerService, never()).sendTickUpdate(any(Tick.class));
+          verify(constructedMock).fetchTickSnapshot();
+          ArgumentCaptor<TickDelta> snapshotCaptor = ArgumentCaptor.forClass(TickDelta.class);
+          verify(mockProducerService).sendTickDelta(snapshotCaptor.capture());
+          assertTrue(snapshotCaptor.getValue().getTicks().isEmpty());
         }
       }
     } finally {
@@ -1336,7 +1353,7 @@ class KafkaConsumerQueryServiceTest {
           TickEvent constructedMock = mockedTickEventConstruction.constructed().get(0);
           verify(constructedMock).parserData(any(JsonNode.class));
           verify(constructedMock).validate();
-          verify(constructedMock, never()).fetchTicksFromBitmap();
+          verify(constructedMock, never()).fetchTickSnapshot();
           verify(mockProducerService).sendTransactionResultNotProcessed(anyMap());
         }
       }
@@ -1362,8 +1379,8 @@ class KafkaConsumerQueryServiceTest {
 
       // Create a record for Tick Query
       String tickQueryJson = "{\"poolPair\":\"BTC-USDT\",\"eventId\":\"test-event\",\"actionType\":\"TICK_QUERY\",\"operationType\":\"TICK_QUERY\"}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.TICK_QUERY_TOPIC, 0, 0, "key1", tickQueryJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.TICK_QUERY_TOPIC, 0, 0, "key1", tickQueryJson.getBytes(StandardCharsets.UTF_8));
 
       // Get access to the private processTickQuery method via reflection
       Method processTickQueryMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processTickQuery",
@@ -1394,7 +1411,7 @@ class KafkaConsumerQueryServiceTest {
             (mock, context) -> {
               // Cấu hình mock khi được tạo mới
               when(mock.getPoolPair()).thenReturn("BTC-USDT");
-              when(mock.fetchTicksFromBitmap()).thenReturn(Collections.emptyList());
+              when(mock.fetchTickSnapshot()).thenReturn(TickDelta.snapshot("BTC-USDT", 5L, Collections.emptyList(), null, null, 0));
             })) {
 
           // Act
@@ -1404,7 +1421,278 @@ class KafkaConsumerQueryServiceTest {
           TickEvent constructedMock = mockedTickEventConstruction.constructed().get(0);
           verify(constructedMock).parserData(any(JsonNode.class));
           verify(constructedMock).validate();
-          verify(constructedMock).fetchTicksFromBitmap();
+          verify(constructedMock).fetchTickSnapshot();
+        }
+      }
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
+  @Test
+  @DisplayName("processAccountHistoryQuery should send one history page")
+  void processAccountHistoryQuery_ShouldSendHistoryPage() throws Exception {
+    // Arrange
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
+
+    try {
+      KafkaConsumerQueryService service = KafkaConsumerQueryService.getInstance();
+
+      Method processMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processAccountHistoryQuery",
+          JsonNode.class);
+      processMethod.setAccessible(true);
+
+      Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
+      producerServiceField.setAccessible(true);
+      producerServiceField.set(service, mockProducerService);
+
+      AccountHistoryPage page = new AccountHistoryPage();
+      page.setAccountKey("btc:user1");
+
+      try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
+        mockedKafkaMessageUtils.when(() -> KafkaMessageUtils.processWithErrorHandling(
+            any(JsonNode.class),
+            any(KafkaMessageUtils.ProcessorFunction.class),
+            eq(mockProducerService),
+            anyString())).thenAnswer(invocation -> {
+              KafkaMessageUtils.ProcessorFunction processor = invocation.getArgument(1);
+              processor.process();
+              return null;
+            });
+
+        try (MockedConstruction<AccountHistoryQueryEvent> mockedEventConstruction = Mockito.mockConstruction(
+            AccountHistoryQueryEvent.class,
+            (mock, context) -> {
+              when(mock.parserData(any(JsonNode.class))).thenReturn(mock);
+              when(mock.fetchPage()).thenReturn(page);
+            })) {
+
+          JsonNode jsonNode = new ObjectMapper().readTree(
+              "{\"accountKey\":\"btc:user1\",\"eventId\":\"test-event\",\"operationType\":\"account_history_query\",\"limit\":20}");
+
+          // Act
+          processMethod.invoke(service, jsonNode);
+
+          // Assert
+          AccountHistoryQueryEvent constructedMock = mockedEventConstruction.constructed().get(0);
+          verify(constructedMock).validate();
+          verify(mockProducerService).sendAccountHistoryPage(page);
+        }
+      }
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
+  @Test
+  @DisplayName("processAmmSwapQuote should send one swap quote")
+  void processAmmSwapQuote_ShouldSendQuote() throws Exception {
+    // Arrange
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
+
+    try {
+      KafkaConsumerQueryService service = KafkaConsumerQueryService.getInstance();
+
+      Method processMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processAmmSwapQuote", JsonNode.class);
+      processMethod.setAccessible(true);
+
+      Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
+      producerServiceField.setAccessible(true);
+      producerServiceField.set(service, mockProducerService);
+
+      AmmSwapQuote quote = new AmmSwapQuote();
+      quote.setPoolPair("BTC-USDT");
+
+      try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
+        mockedKafkaMessageUtils.when(() -> KafkaMessageUtils.processWithErrorHandling(
+            any(JsonNode.class),
+            any(KafkaMessageUtils.ProcessorFunction.class),
+            eq(mockProducerService),
+            anyString())).thenAnswer(invocation -> {
+              KafkaMessageUtils.ProcessorFunction processor = invocation.getArgument(1);
+              processor.process();
+              return null;
+            });
+
+        try (MockedConstruction<AmmSwapQuoteEvent> mockedEventConstruction = Mockito.mockConstruction(
+            AmmSwapQuoteEvent.class,
+            (mock, context) -> {
+              when(mock.parserData(any(JsonNode.class))).thenReturn(mock);
+              when(mock.fetchQuote()).thenReturn(quote);
+            })) {
+
+          JsonNode jsonNode = new ObjectMapper().readTree(
+              "{\"poolPair\":\"BTC-USDT\",\"eventId\":\"test-event\",\"operationType\":\"amm_swap_quote\",\"zeroForOne\":true,\"amountSpecified\":\"1\"}");
+
+          // Act
+          processMethod.invoke(service, jsonNode);
+
+          // Assert
+          AmmSwapQuoteEvent constructedMock = mockedEventConstruction.constructed().get(0);
+          verify(constructedMock).validate();
+          verify(mockProducerService).sendAmmSwapQuote(quote);
+        }
+      }
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
+  @Test
+  @DisplayName("processAmmLiquidityQuery should send liquidity depth")
+  void processAmmLiquidityQuery_ShouldSendDepth() throws Exception {
+    // Arrange
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
+
+    try {
+      KafkaConsumerQueryService service = KafkaConsumerQueryService.getInstance();
+
+      Method processMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processAmmLiquidityQuery", JsonNode.class);
+      processMethod.setAccessible(true);
+
+      Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
+      producerServiceField.setAccessible(true);
+      producerServiceField.set(service, mockProducerService);
+
+      AmmLiquidityDepth depth = new AmmLiquidityDepth();
+      depth.setPoolPair("BTC-USDT");
+
+      try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
+        mockedKafkaMessageUtils.when(() -> KafkaMessageUtils.processWithErrorHandling(
+            any(JsonNode.class),
+            any(KafkaMessageUtils.ProcessorFunction.class),
+            eq(mockProducerService),
+            anyString())).thenAnswer(invocation -> {
+              KafkaMessageUtils.ProcessorFunction processor = invocation.getArgument(1);
+              processor.process();
+              return null;
+            });
+
+        try (MockedConstruction<AmmLiquidityQueryEvent> mockedEventConstruction = Mockito.mockConstruction(
+            AmmLiquidityQueryEvent.class,
+            (mock, context) -> {
+              when(mock.parserData(any(JsonNode.class))).thenReturn(mock);
+              when(mock.fetchDepth()).thenReturn(depth);
+            })) {
+
+          JsonNode jsonNode = new ObjectMapper().readTree(
+              "{\"poolPair\":\"BTC-USDT\",\"eventId\":\"test-event\",\"operationType\":\"amm_liquidity_query\",\"tickLower\":-600,\"tickUpper\":600,\"buckets\":10}");
+
+          // Act
+          processMethod.invoke(service, jsonNode);
+
+          // Assert
+          AmmLiquidityQueryEvent constructedMock = mockedEventConstruction.constructed().get(0);
+          verify(constructedMock).validate();
+          verify(mockProducerService).sendAmmLiquidityDepth(depth);
+        }
+      }
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
+  @Test
+  @DisplayName("processAmmTwapQuery should send TWAP")
+  void processAmmTwapQuery_ShouldSendTwap() throws Exception {
+    // Arrange
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
+
+    try {
+      KafkaConsumerQueryService service = KafkaConsumerQueryService.getInstance();
+
+      Method processMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processAmmTwapQuery", JsonNode.class);
+      processMethod.setAccessible(true);
+
+      Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
+      producerServiceField.setAccessible(true);
+      producerServiceField.set(service, mockProducerService);
+
+      AmmTwap twap = new AmmTwap();
+      twap.setPoolPair("BTC-USDT");
+
+      try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
+        mockedKafkaMessageUtils.when(() -> KafkaMessageUtils.processWithErrorHandling(
+            any(JsonNode.class),
+            any(KafkaMessageUtils.ProcessorFunction.class),
+            eq(mockProducerService),
+            anyString())).thenAnswer(invocation -> {
+              KafkaMessageUtils.ProcessorFunction processor = invocation.getArgument(1);
+              processor.process();
+              return null;
+            });
+
+        try (MockedConstruction<AmmTwapQueryEvent> mockedEventConstruction = Mockito.mockConstruction(
+            AmmTwapQueryEvent.class,
+            (mock, context) -> {
+              when(mock.parserData(any(JsonNode.class))).thenReturn(mock);
+              when(mock.fetchTwap()).thenReturn(twap);
+            })) {
+
+          JsonNode jsonNode = new ObjectMapper().readTree(
+              "{\"poolPair\":\"BTC-USDT\",\"eventId\":\"test-event\",\"operationType\":\"amm_twap_query\",\"windowSeconds\":300}");
+
+          // Act
+          processMethod.invoke(service, jsonNode);
+
+          // Assert
+          AmmTwapQueryEvent constructedMock = mockedEventConstruction.constructed().get(0);
+          verify(constructedMock).validate();
+          verify(mockProducerService).sendAmmTwap(twap);
+        }
+      }
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
+  @Test
+  @DisplayName("processOfferBookQuery should send offer book")
+  void processOfferBookQuery_ShouldSendOfferBook() throws Exception {
+    // Arrange
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = Mockito.mockConstruction(KafkaConsumer.class);
+
+    try {
+      KafkaConsumerQueryService service = KafkaConsumerQueryService.getInstance();
+
+      Method processMethod = KafkaConsumerQueryService.class.getDeclaredMethod("processOfferBookQuery", JsonNode.class);
+      processMethod.setAccessible(true);
+
+      Field producerServiceField = KafkaConsumerQueryService.class.getDeclaredField("producerService");
+      producerServiceField.setAccessible(true);
+      producerServiceField.set(service, mockProducerService);
+
+      OfferBook offerBook = new OfferBook();
+      offerBook.setSymbol("USDT:VND");
+
+      try (MockedStatic<KafkaMessageUtils> mockedKafkaMessageUtils = mockStatic(KafkaMessageUtils.class)) {
+        mockedKafkaMessageUtils.when(() -> KafkaMessageUtils.processWithErrorHandling(
+            any(JsonNode.class),
+            any(KafkaMessageUtils.ProcessorFunction.class),
+            eq(mockProducerService),
+            anyString())).thenAnswer(invocation -> {
+              KafkaMessageUtils.ProcessorFunction processor = invocation.getArgument(1);
+              processor.process();
+              return null;
+            });
+
+        try (MockedConstruction<OfferBookQueryEvent> mockedEventConstruction = Mockito.mockConstruction(
+            OfferBookQueryEvent.class,
+            (mock, context) -> {
+              when(mock.parserData(any(JsonNode.class))).thenReturn(mock);
+              when(mock.fetchOfferBook()).thenReturn(offerBook);
+            })) {
+
+          JsonNode jsonNode = new ObjectMapper().readTree(
+              "{\"symbol\":\"USDT:VND\",\"eventId\":\"test-event\",\"operationType\":\"offer_book_query\",\"offerType\":\"sell\"}");
+
+          // Act
+          processMethod.invoke(service, jsonNode);
+
+          // Assert
+          OfferBookQueryEvent constructedMock = mockedEventConstruction.constructed().get(0);
+          verify(constructedMock).validate();
+          verify(mockProducerService).sendOfferBook(offerBook);
         }
       }
     } finally {
@@ -7,6 +7,7 @@ import com.exchangeengine.factory.event.CoinDepositEventFactory;
 import com.exchangeengine.factory.event.CoinWithdrawalEventFactory;
 import com.exchangeengine.factory.event.AmmPositionEventFactory;
 import com.exchangeengine.factory.event.BalancesLockEventFactory;
+import com.exchangeengine.messaging.common.WireFormat;
 import com.exchangeengine.messaging.producer.KafkaProducerService;
 import com.exchangeengine.model.KafkaTopics;
 import com.exchangeengine.model.event.AmmPositionEvent;
@@ -34,6 +35,7 @@ import org.mockito.quality.Strictness;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -56,7 +58,7 @@ class KafkaConsumerServiceTest {
   private KafkaProducerService mockProducerService;
 
   @Mock
-  private ConsumerRecords<String, String> mockConsumerRecords;
+  private ConsumerRecords<String, byte[]> mockConsumerRecords;
 
   private MockedStatic<EngineHandler> mockedEngineHandlerStatic;
   private MockedStatic<KafkaProducerService> mockedProducerServiceStatic;
@@ -121,7 +123,7 @@ class KafkaConsumerServiceTest {
   @DisplayName("run should poll consumer and process records")
   void run_ShouldPollConsumerAndProcessRecords() throws Exception {
     // Arrange
-    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
 
     String accountEventJson = AccountEventFactory.createJsonNode().toPrettyString();
     String depositEventJson = CoinDepositEventFactory.createJsonNode().toPrettyString();
@@ -129,11 +131,11 @@ class KafkaConsumerServiceTest {
     String ammPoolEventJson = AmmPoolEventFactory.createJsonNode().toPrettyString();
     String ammPositionEventJson = AmmPositionEventFactory.createJsonNode().toPrettyString();
 
-    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_TOPIC, 0, 0, "key1", accountEventJson));
-    records.add(new ConsumerRecord<>(KafkaTopics.COIN_DEPOSIT_TOPIC, 0, 1, "key2", depositEventJson));
-    records.add(new ConsumerRecord<>(KafkaTopics.COIN_WITHDRAWAL_TOPIC, 0, 2, "key3", withdrawalEventJson));
-    records.add(new ConsumerRecord<>(KafkaTopics.AMM_POOL_TOPIC, 0, 3, "key4", ammPoolEventJson));
-    records.add(new ConsumerRecord<>(KafkaTopics.AMM_POSITION_TOPIC, 0, 4, "key5", ammPositionEventJson));
+    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_TOPIC, 0, 0, "key1", accountEventJson.getBytes(StandardCharsets.UTF_8)));
+    records.add(new ConsumerRecord<>(KafkaTopics.COIN_DEPOSIT_TOPIC, 0, 1, "key2", depositEventJson.getBytes(StandardCharsets.UTF_8)));
+    records.add(new ConsumerRecord<>(KafkaTopics.COIN_WITHDRAWAL_TOPIC, 0, 2, "key3", withdrawalEventJson.getBytes(StandardCharsets.UTF_8)));
+    records.add(new ConsumerRecord<>(KafkaTopics.AMM_POOL_TOPIC, 0, 3, "key4", ammPoolEventJson.getBytes(StandardCharsets.UTF_8)));
+    records.add(new ConsumerRecord<>(KafkaTopics.AMM_POSITION_TOPIC, 0, 4, "key5", ammPositionEventJson.getBytes(StandardCharsets.UTF_8)));
 
     when(mockConsumerRecords.iterator()).thenReturn(records.iterator());
 
@@ -173,7 +175,7 @@ class KafkaConsumerServiceTest {
       assertFalse(thread.isAlive(), "Thread should have stopped");
 
       // Verify consumer.poll() was called at least once
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer, atLeastOnce()).poll(any(Duration.class));
 
       // Verify consumer.commitSync() was called after processing records
@@ -196,7 +198,7 @@ class KafkaConsumerServiceTest {
 
       // Assert
       // Verify consumer.wakeup() was called
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer).wakeup();
 
       // Verify running was set to false
@@ -225,7 +227,7 @@ class KafkaConsumerServiceTest {
       KafkaConsumerService service = KafkaConsumerService.getInstance();
       
       // Get reference to the actual consumer created via MockedConstruction
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       
       // Set running field to false
       Field runningField = KafkaConsumerService.class.getDeclaredField("running");
@@ -283,7 +285,7 @@ class KafkaConsumerServiceTest {
       assertFalse(thread.isAlive(), "Thread should have stopped");
 
       // Verify consumer.poll() was called
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer).poll(any(Duration.class));
 
       // Verify consumer.close() was called in the finally block
@@ -301,8 +303,8 @@ class KafkaConsumerServiceTest {
 
     // Create invalid JSON that will cause an exception
     String invalidJson = "{invalid_json";
-    List<ConsumerRecord<String, String>> records = new ArrayList<>();
-    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_TOPIC, 0, 0, "key1", invalidJson));
+    List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+    records.add(new ConsumerRecord<>(KafkaTopics.COIN_ACCOUNT_TOPIC, 0, 0, "key1", invalidJson.getBytes(StandardCharsets.UTF_8)));
 
     // Create ConsumerRecords with one invalid record
     when(mockConsumerRecords.iterator()).thenReturn(records.iterator());
@@ -312,7 +314,7 @@ class KafkaConsumerServiceTest {
       KafkaConsumerService service = KafkaConsumerService.getInstance();
 
       // Mock KafkaConsumer to return mockConsumerRecords then empty records
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       when(consumer.poll(any(Duration.class)))
           .thenReturn(mockConsumerRecords)
           .thenReturn(ConsumerRecords.empty());
@@ -358,11 +360,11 @@ class KafkaConsumerServiceTest {
   void run_ShouldHandleProcessingExceptions() throws Exception {
     // Arrange
     // Setup mocked consumer records
-    ConsumerRecord<String, String> mockRecord = mock(ConsumerRecord.class);
+    ConsumerRecord<String, byte[]> mockRecord = mock(ConsumerRecord.class);
     when(mockRecord.topic()).thenReturn(KafkaTopics.COIN_ACCOUNT_TOPIC);
-    when(mockRecord.value()).thenReturn("valid_json");
+    when(mockRecord.value()).thenReturn("valid_json".getBytes(StandardCharsets.UTF_8));
 
-    List<ConsumerRecord<String, String>> recordsList = new ArrayList<>();
+    List<ConsumerRecord<String, byte[]>> recordsList = new ArrayList<>();
     recordsList.add(mockRecord);
 
     when(mockConsumerRecords.iterator()).thenReturn(recordsList.iterator());
@@ -374,17 +376,9 @@ class KafkaConsumerServiceTest {
         });
 
     try {
-      // Mock ObjectMapper to throw exception when readTree is called
+      // Value "valid_json" không phải JSON hợp lệ nên việc giải mã sẽ ném exception
       KafkaConsumerService service = KafkaConsumerService.getInstance();
 
-      // Use reflection to replace the objectMapper with a mock
-      ObjectMapper mockMapper = mock(ObjectMapper.class);
-      when(mockMapper.readTree(anyString())).thenThrow(new RuntimeException("Forced test exception"));
-
-      Field objectMapperField = KafkaConsumerService.class.getDeclaredField("objectMapper");
-      objectMapperField.setAccessible(true);
-      objectMapperField.set(service, mockMapper);
-
       // Set running to be set to false after processing
       Field runningField = KafkaConsumerService.class.getDeclaredField("running");
       runningField.setAccessible(true);
@@ -410,7 +404,7 @@ class KafkaConsumerServiceTest {
       assertFalse(thread.isAlive(), "Thread should have stopped");
 
       // Verify interactions
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer, atLeastOnce()).poll(any(Duration.class));
       verify(consumer, atLeastOnce()).commitSync(); // Should be called even if processRecord throws
 
@@ -424,11 +418,11 @@ class KafkaConsumerServiceTest {
   void run_ShouldCatchExceptionInInnerTryCatch() throws Exception {
     // Arrange
     // Setup mocked consumer record
-    ConsumerRecord<String, String> mockRecord = mock(ConsumerRecord.class);
+    ConsumerRecord<String, byte[]> mockRecord = mock(ConsumerRecord.class);
     when(mockRecord.topic()).thenReturn(KafkaTopics.COIN_ACCOUNT_TOPIC);
-    when(mockRecord.value()).thenReturn("{\"value\":\"test\"}");
+    when(mockRecord.value()).thenReturn("{\"value\":\"test\"}".getBytes(StandardCharsets.UTF_8));
 
-    List<ConsumerRecord<String, String>> recordsList = new ArrayList<>();
+    List<ConsumerRecord<String, byte[]>> recordsList = new ArrayList<>();
     recordsList.add(mockRecord);
 
     when(mockConsumerRecords.iterator()).thenReturn(recordsList.iterator());
@@ -473,7 +467,7 @@ class KafkaConsumerServiceTest {
       assertFalse(thread.isAlive(), "Thread should have stopped");
 
       // Verify interactions
-      KafkaConsumer<String, String> consumer = mockedConsumerConstruction.constructed().get(0);
+      KafkaConsumer<String, byte[]> consumer = mockedConsumerConstruction.constructed().get(0);
       verify(consumer, atLeastOnce()).poll(any(Duration.class));
       verify(consumer, atLeastOnce()).commitSync(); // Should be called
 
@@ -638,8 +632,8 @@ class KafkaConsumerServiceTest {
           "\"userId\":\"test-user-1\"," +
           "\"merchantEscrowOperationId\":\"merchant-escrow-op-1\"" +
           "}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.MERCHANT_ESCROW_TOPIC, 0, 0, "key", merchantEscrowJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.MERCHANT_ESCROW_TOPIC, 0, 0, "key", merchantEscrowJson.getBytes(StandardCharsets.UTF_8));
 
       // Act
       processRecordMethod.invoke(service, record);
@@ -699,8 +693,8 @@ class KafkaConsumerServiceTest {
           "}";
 
       // Create a consumer record for AMM_POSITION_TOPIC
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.AMM_POSITION_TOPIC, 0, 0, "key", ammPositionJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.AMM_POSITION_TOPIC, 0, 0, "key", ammPositionJson.getBytes(StandardCharsets.UTF_8));
 
       // Act & Assert
       // This should not throw exception
@@ -861,8 +855,8 @@ class KafkaConsumerServiceTest {
           "}";
 
       // Create a consumer record for AMM_ORDER_TOPIC
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.AMM_ORDER_TOPIC, 0, 0, "key", ammOrderJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.AMM_ORDER_TOPIC, 0, 0, "key", ammOrderJson.getBytes(StandardCharsets.UTF_8));
 
       // Act & Assert
       // This should not throw exception
@@ -960,8 +954,8 @@ class KafkaConsumerServiceTest {
           "}";
 
       // Create a consumer record for TRADE_TOPIC
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.TRADE_TOPIC, 0, 0, "key", tradeJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.TRADE_TOPIC, 0, 0, "key", tradeJson.getBytes(StandardCharsets.UTF_8));
 
       // Act & Assert
       // This should not throw exception
@@ -1079,8 +1073,8 @@ class KafkaConsumerServiceTest {
           "}";
 
       // Create a consumer record for OFFER_TOPIC
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          KafkaTopics.OFFER_TOPIC, 0, 0, "key", offerJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          KafkaTopics.OFFER_TOPIC, 0, 0, "key", offerJson.getBytes(StandardCharsets.UTF_8));
 
       // Act & Assert
       // This should not throw exception
@@ -1107,8 +1101,8 @@ class KafkaConsumerServiceTest {
 
       // Create an unsupported topic record
       String someJson = "{\"eventId\":\"test-event-id\"}";
-      ConsumerRecord<String, String> record = new ConsumerRecord<>(
-          "UNSUPPORTED_TOPIC", 0, 0, "key", someJson);
+      ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+          "UNSUPPORTED_TOPIC", 0, 0, "key", someJson.getBytes(StandardCharsets.UTF_8));
 
       // Act & Assert
       // This should not throw exception, but log a warning
@@ -1159,8 +1153,8 @@ class KafkaConsumerServiceTest {
     String messageString = messageJson.toString();
     
     // Create ConsumerRecord for BALANCES_LOCK_TOPIC
-    ConsumerRecord<String, String> record = new ConsumerRecord<>(
-        KafkaTopics.BALANCES_LOCK_TOPIC, 0, 0, "key", messageString);
+    ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+        KafkaTopics.BALANCES_LOCK_TOPIC, 0, 0, "key", messageString.getBytes(StandardCharsets.UTF_8));
     
     // Access processRecord method via reflection
     Method processRecordMethod = KafkaConsumerService.class.getDeclaredMethod(
@@ -1183,6 +1177,35 @@ class KafkaConsumerServiceTest {
     }
   }
 
+  @Test
+  @DisplayName("processRecord giải mã Smile theo header content-type")
+  void processRecord_ShouldDecodeSmile_WhenContentTypeHeaderPresent() throws Exception {
+    // Arrange
+    JsonNode messageJson = BalancesLockEventFactory.createJsonNode();
+    ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(
+        KafkaTopics.BALANCES_LOCK_TOPIC, 0, 0, "key", WireFormat.SMILE.encode(messageJson));
+    record.headers().add(WireFormat.CONTENT_TYPE_HEADER, WireFormat.SMILE.getContentTypeBytes());
+
+    Method processRecordMethod = KafkaConsumerService.class.getDeclaredMethod(
+        "processRecord", ConsumerRecord.class);
+    processRecordMethod.setAccessible(true);
+
+    MockedConstruction<KafkaConsumer> mockedConsumerConstruction = mockConstruction(KafkaConsumer.class);
+    try {
+      KafkaConsumerService service = KafkaConsumerService.getInstance();
+
+      // Act
+      processRecordMethod.invoke(service, record);
+
+      // Assert
+      ArgumentCaptor<BalancesLockEvent> eventCaptor = ArgumentCaptor.forClass(BalancesLockEvent.class);
+      verify(mockEngineHandler).balancesLock(eventCaptor.capture());
+      assertEquals(messageJson.get("eventId").asText(), eventCaptor.getValue().getEventId());
+    } finally {
+      mockedConsumerConstruction.close();
+    }
+  }
+
   @Test
   @DisplayName("processBalancesLockRequest should handle validation exceptions")
   void processBalancesLockRequest_ShouldHandleValidationExceptions() throws Exception {
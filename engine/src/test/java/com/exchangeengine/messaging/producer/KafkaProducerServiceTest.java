@@ -1,6 +1,7 @@
 package com.exchangeengine.messaging.producer;
 
 import com.exchangeengine.messaging.common.KafkaConfig;
+import com.exchangeengine.messaging.common.WireFormat;
 import com.exchangeengine.model.*;
 import com.exchangeengine.model.event.AccountEvent;
 import com.exchangeengine.model.event.CoinWithdrawalEvent;
@@ -17,6 +18,8 @@ import com.exchangeengine.factory.CoinWithdrawalFactory;
 import com.exchangeengine.factory.ProcessResultFactory;
 import com.exchangeengine.extension.CombinedTestExtension;
 import com.exchangeengine.service.engine.OutputProcessor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -37,6 +40,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -57,7 +61,7 @@ import static org.mockito.Mockito.*;
 @MockitoSettings(strictness = Strictness.LENIENT)
 class KafkaProducerServiceTest {
   @Mock
-  private KafkaProducer<String, String> mockProducer;
+  private KafkaProducer<String, byte[]> mockProducer;
 
   @Mock
   private KafkaConfig mockKafkaConfig;
@@ -100,6 +104,8 @@ class KafkaProducerServiceTest {
     // Mock StorageService caches
     when(mockStorageService.getAccountCache()).thenReturn(mockAccountCache);
     when(mockStorageService.getDepositCache()).thenReturn(mockDepositCache);
+    // Balance query đọc qua ReadSnapshotCache, snapshot chưa có sẽ copy từ AccountCache
+    AccountCache.setTestInstance(mockAccountCache);
 
     // Set up KafkaProducer to return CompletableFuture with RecordMetadata
     CompletableFuture<RecordMetadata> future = CompletableFuture.completedFuture(mockRecordMetadata);
@@ -129,6 +135,10 @@ class KafkaProducerServiceTest {
     CombinedTestExtension.resetAllInOrder();
   }
 
+  private static String valueAsString(ProducerRecord<String, byte[]> record) {
+    return new String(record.value(), StandardCharsets.UTF_8);
+  }
+
   @Test
   @DisplayName("getInstance should return a singleton instance")
   void getInstance_ShouldReturnSingletonInstance() {
@@ -151,15 +161,15 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendCoinAccountUpdate("test-input-event-id", account);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.COIN_ACCOUNT_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("coin-account-" + accountKey, capturedRecord.key(), "Key should match account key");
-    assertTrue(capturedRecord.value().contains("\"key\":\"" + accountKey + "\""), "Value should contain account key");
-    assertTrue(capturedRecord.value().contains("\"availableBalance\":"), "Value should contain available balance");
-    assertTrue(capturedRecord.value().contains("\"frozenBalance\":"), "Value should contain frozen balance");
+    assertTrue(valueAsString(capturedRecord).contains("\"key\":\"" + accountKey + "\""), "Value should contain account key");
+    assertTrue(valueAsString(capturedRecord).contains("\"availableBalance\":"), "Value should contain available balance");
+    assertTrue(valueAsString(capturedRecord).contains("\"frozenBalance\":"), "Value should contain frozen balance");
   }
 
   @Test
@@ -177,15 +187,15 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendCoinAccountBalance(accountKey);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.COIN_ACCOUNT_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("coin-account-" + accountKey, capturedRecord.key(), "Key should match account key");
-    assertTrue(capturedRecord.value().contains("\"key\":\"" + accountKey + "\""), "Value should contain account key");
-    assertTrue(capturedRecord.value().contains("\"availableBalance\":"), "Value should contain available balance");
-    assertTrue(capturedRecord.value().contains("\"frozenBalance\":"), "Value should contain frozen balance");
+    assertTrue(valueAsString(capturedRecord).contains("\"key\":\"" + accountKey + "\""), "Value should contain account key");
+    assertTrue(valueAsString(capturedRecord).contains("\"availableBalance\":"), "Value should contain available balance");
+    assertTrue(valueAsString(capturedRecord).contains("\"frozenBalance\":"), "Value should contain frozen balance");
   }
 
   @Test
@@ -221,10 +231,10 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendTransactionResult(event);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.TRANSACTION_RESPONSE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("transaction-result-" + accountKey, capturedRecord.key(),
         "Key should match account key");
@@ -365,14 +375,14 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendTransactionResultNotProcessed(message);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.TRANSACTION_RESPONSE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertTrue(capturedRecord.key().startsWith("error-"), "Key should start with error-");
-    assertTrue(capturedRecord.value().contains("\"isSuccess\":false"), "Value should indicate failure");
-    assertTrue(capturedRecord.value().contains("\"errorMessage\":\"Error processing transaction\""),
+    assertTrue(valueAsString(capturedRecord).contains("\"isSuccess\":false"), "Value should indicate failure");
+    assertTrue(valueAsString(capturedRecord).contains("\"errorMessage\":\"Error processing transaction\""),
         "Value should contain error message");
   }
 
@@ -388,11 +398,11 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendTransactionResultNotProcessed(message);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
     // Kiểm tra messageId được thêm vào message
-    String capturedValue = recordCaptor.getValue().value();
+    String capturedValue = valueAsString(recordCaptor.getValue());
     assertTrue(capturedValue.contains("\"messageId\":"), "MessageId should be added to message");
   }
 
@@ -442,14 +452,14 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendTickUpdate(tick);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.TICK_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("tick-update-" + tick.getTickKey(), capturedRecord.key(), "Key should match tick key");
-    assertTrue(capturedRecord.value().contains("\"poolPair\":\"BTC-USDT\""), "Value should contain poolPair");
-    assertTrue(capturedRecord.value().contains("\"tickIndex\":1000"), "Value should contain tickIndex");
+    assertTrue(valueAsString(capturedRecord).contains("\"poolPair\":\"BTC-USDT\""), "Value should contain poolPair");
+    assertTrue(valueAsString(capturedRecord).contains("\"tickIndex\":1000"), "Value should contain tickIndex");
   }
 
   @Test
@@ -462,6 +472,250 @@ class KafkaProducerServiceTest {
     verify(mockProducer, never()).send(any(), any());
   }
 
+  @Test
+  @DisplayName("sendTickDelta should send all ticks of a pool in one message")
+  void sendTickDelta_ShouldSendOneMessagePerPool() throws Exception {
+    // Arrange
+    TickDelta tickDelta = new TickDelta("BTC-USDT", 42L);
+    tickDelta.setInputEventId("event-1");
+    tickDelta.getTicks().add(new Tick("BTC-USDT", 1000));
+    tickDelta.getTicks().add(new Tick("BTC-USDT", 2000));
+
+    // Act
+    kafkaProducerService.sendTickDelta(tickDelta);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.TICK_DELTA_TOPIC, capturedRecord.topic());
+    assertEquals("tick-delta-BTC-USDT", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals(TickDelta.TYPE_DELTA, decoded.get("type").asText());
+    assertEquals(42L, decoded.get("poolVersion").asLong());
+    assertEquals(2, decoded.get("tickCount").asInt());
+    assertEquals(2000, decoded.get("ticks").get(1).get("tickIndex").asInt());
+  }
+
+  @Test
+  @DisplayName("sendAccountHistoryPage should send the page to account history topic")
+  void sendAccountHistoryPage_ShouldSendPage() throws Exception {
+    // Arrange
+    AccountHistoryPage page = new AccountHistoryPage();
+    page.setAccountKey("btc:user1");
+    page.setLimit(1);
+    page.setNextCursor("1000-2");
+    AccountHistory history = new AccountHistory("btc:user1", "deposit1", "DEPOSIT");
+    page.getHistories().add(history);
+
+    // Act
+    kafkaProducerService.sendAccountHistoryPage(page);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.ACCOUNT_HISTORY_TOPIC, capturedRecord.topic());
+    assertEquals("account-history-btc:user1", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals(1, decoded.get("count").asInt());
+    assertTrue(decoded.get("hasMore").asBoolean());
+    assertEquals(history.getCursor(), decoded.get("histories").get(0).get("cursor").asText());
+  }
+
+  @Test
+  @DisplayName("sendAmmSwapQuote should send the quote to swap quote result topic")
+  void sendAmmSwapQuote_ShouldSendQuote() throws Exception {
+    // Arrange
+    AmmSwapQuote quote = new AmmSwapQuote();
+    quote.setPoolPair("BTC-USDT");
+    quote.setAmountOut(new BigDecimal("2.5"));
+    quote.getCrossedTicks().add(100);
+
+    // Act
+    kafkaProducerService.sendAmmSwapQuote(quote);
+    kafkaProducerService.sendAmmSwapQuote(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.AMM_SWAP_QUOTE_RESULT_TOPIC, capturedRecord.topic());
+    assertEquals("amm-swap-quote-BTC-USDT", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals(0, new BigDecimal("2.5").compareTo(decoded.get("amountOut").decimalValue()));
+    assertEquals(100, decoded.get("crossedTicks").get(0).asInt());
+  }
+
+  @Test
+  @DisplayName("sendAmmLiquidityDepth should send depth with buckets to liquidity topic")
+  void sendAmmLiquidityDepth_ShouldSendDepth() throws Exception {
+    // Arrange
+    AmmLiquidityDepth depth = new AmmLiquidityDepth();
+    depth.setPoolPair("BTC-USDT");
+    depth.getBuckets().add(new AmmLiquidityDepth.Bucket(-60, 0, new BigDecimal("10"), BigDecimal.ZERO,
+        new BigDecimal("0.03")));
+
+    // Act
+    kafkaProducerService.sendAmmLiquidityDepth(depth);
+    kafkaProducerService.sendAmmLiquidityDepth(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.AMM_LIQUIDITY_TOPIC, capturedRecord.topic());
+    assertEquals("amm-liquidity-BTC-USDT", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals(-60, decoded.get("buckets").get(0).get("tickLower").asInt());
+    assertEquals(0, new BigDecimal("10").compareTo(decoded.get("buckets").get(0).get("liquidity").decimalValue()));
+  }
+
+  @Test
+  @DisplayName("sendAmmTwap should send TWAP to twap topic")
+  void sendAmmTwap_ShouldSendTwap() throws Exception {
+    // Arrange
+    AmmTwap twap = new AmmTwap();
+    twap.setPoolPair("BTC-USDT");
+    twap.setWindowSeconds(300);
+    twap.setAverageTick(new BigDecimal("200"));
+
+    // Act
+    kafkaProducerService.sendAmmTwap(twap);
+    kafkaProducerService.sendAmmTwap(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.AMM_TWAP_TOPIC, capturedRecord.topic());
+    assertEquals("amm-twap-BTC-USDT", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals(300, decoded.get("windowSeconds").asLong());
+    assertEquals(0, new BigDecimal("200").compareTo(decoded.get("averageTick").decimalValue()));
+  }
+
+  @Test
+  @DisplayName("sendOfferBook should send offer book keyed by symbol")
+  void sendOfferBook_ShouldSendOfferBook() throws Exception {
+    // Arrange
+    Offer offer = new Offer();
+    offer.setIdentifier("offer-1");
+    offer.setPrice(new BigDecimal("25000"));
+    offer.setAvailableAmount(new BigDecimal("100"));
+    OfferBook offerBook = new OfferBook();
+    offerBook.setSymbol("USDT:VND");
+    offerBook.setOfferType(Offer.OfferType.SELL);
+    offerBook.getOffers().add(new OfferBookEntry(offer));
+
+    // Act
+    kafkaProducerService.sendOfferBook(offerBook);
+    kafkaProducerService.sendOfferBook(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.OFFER_BOOK_TOPIC, capturedRecord.topic());
+    assertEquals("offer-book-USDT:VND", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals("sell", decoded.get("offerType").asText());
+    assertEquals(1, decoded.get("count").asInt());
+    assertEquals("offer-1", decoded.get("offers").get(0).get("identifier").asText());
+  }
+
+  @Test
+  @DisplayName("sendCandleClose should send closed candle keyed by market")
+  void sendCandleClose_ShouldSendCandle() throws Exception {
+    // Arrange
+    Candle candle = new Candle();
+    candle.setMarket("amm:BTC-USDT");
+    candle.setInterval("1m");
+    candle.setOpenTime(60_000L);
+    candle.setClose(new BigDecimal("101.5"));
+
+    // Act
+    kafkaProducerService.sendCandleClose(candle);
+    kafkaProducerService.sendCandleClose(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.CANDLE_CLOSE_TOPIC, capturedRecord.topic());
+    assertEquals("candle-amm:BTC-USDT", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals("1m", decoded.get("interval").asText());
+    assertEquals(60_000L, decoded.get("openTime").asLong());
+    assertEquals(0, new BigDecimal("101.5").compareTo(decoded.get("close").decimalValue()));
+  }
+
+  @Test
+  @DisplayName("sendAmmPositionFee should send fee report keyed by position")
+  void sendAmmPositionFee_ShouldSendFeeReport() throws Exception {
+    // Arrange
+    AmmPositionFee fee = new AmmPositionFee();
+    fee.setIdentifier("position-1");
+    fee.setPoolPair("BTC-USDT");
+    fee.setInRange(true);
+    fee.setFeesOwed0(new BigDecimal("0.25"));
+
+    // Act
+    kafkaProducerService.sendAmmPositionFee(fee);
+    kafkaProducerService.sendAmmPositionFee(null);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(1)).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(KafkaTopics.AMM_POSITION_FEE_TOPIC, capturedRecord.topic());
+    assertEquals("amm-position-fee-position-1", capturedRecord.key());
+    JsonNode decoded = new ObjectMapper().readTree(capturedRecord.value());
+    assertEquals("BTC-USDT", decoded.get("poolPair").asText());
+    assertTrue(decoded.get("inRange").asBoolean());
+    assertEquals(0, new BigDecimal("0.25").compareTo(decoded.get("feesOwed0").decimalValue()));
+  }
+
+  @Test
+  @DisplayName("sendTickDelta should also send per-tick updates when KAFKA_TICK_UPDATE_PER_TICK is enabled")
+  void sendTickDelta_ShouldAlsoSendPerTickUpdates_WhenEnabled() {
+    // Arrange
+    when(mockEnvManager.getBoolean("KAFKA_TICK_UPDATE_PER_TICK", false)).thenReturn(true);
+    TickDelta tickDelta = new TickDelta("BTC-USDT", 1L);
+    tickDelta.getTicks().add(new Tick("BTC-USDT", 1000));
+    tickDelta.getTicks().add(new Tick("BTC-USDT", 2000));
+
+    // Act
+    kafkaProducerService.sendTickDelta(tickDelta);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer, times(3)).send(recordCaptor.capture(), any());
+    assertEquals(1, recordCaptor.getAllValues().stream()
+        .filter(record -> KafkaTopics.TICK_DELTA_TOPIC.equals(record.topic())).count());
+    assertEquals(2, recordCaptor.getAllValues().stream()
+        .filter(record -> KafkaTopics.TICK_UPDATE_TOPIC.equals(record.topic())).count());
+  }
+
+  @Test
+  @DisplayName("sendTickDelta should not send when delta or poolPair is null")
+  void sendTickDelta_ShouldNotSend_WhenDeltaIsNull() {
+    // Act
+    kafkaProducerService.sendTickDelta(null);
+    kafkaProducerService.sendTickDelta(new TickDelta());
+
+    // Assert
+    verify(mockProducer, never()).send(any(), any());
+  }
+
   @Test
   @DisplayName("sendEventToKafka should handle callback when exception is null")
   void sendEventToKafka_ShouldHandleCallback_WhenExceptionIsNull() {
@@ -547,10 +801,10 @@ class KafkaProducerServiceTest {
     verify(mockProducer).send(any(ProducerRecord.class), any());
 
     // Capture the record to verify its content
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.TRANSACTION_RESPONSE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertTrue(capturedRecord.key().startsWith("transaction-result-"), "Key should start with transaction-result-");
   }
@@ -634,10 +888,10 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendAmmPoolUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.AMM_POOL_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("amm-pool-USDT/VND", capturedRecord.key(), "Key should match pool pair");
   }
@@ -654,10 +908,10 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendAmmPositionUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.AMM_POSITION_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("amm-position-test-position-id", capturedRecord.key(), "Key should match position identifier");
   }
@@ -719,13 +973,13 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendMerchantEscrowUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.MERCHANT_ESCROW_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("merchant-escrow-" + identifier, capturedRecord.key(), "Key should match identifier");
-    assertTrue(capturedRecord.value().contains("\"identifier\":\"" + identifier + "\""),
+    assertTrue(valueAsString(capturedRecord).contains("\"identifier\":\"" + identifier + "\""),
         "Value should contain identifier");
   }
 
@@ -775,7 +1029,7 @@ class KafkaProducerServiceTest {
     // Arrange - Create mock instances
     KafkaProducerService testInstance1 = mock(KafkaProducerService.class);
     KafkaConfig mockConfig = mock(KafkaConfig.class);
-    KafkaProducer<String, String> mockKafkaProducer = mock(KafkaProducer.class);
+    KafkaProducer<String, byte[]> mockKafkaProducer = mock(KafkaProducer.class);
 
     // Use static mocking for KafkaConfig
     try (MockedStatic<KafkaConfig> mockedKafkaConfig = mockStatic(KafkaConfig.class)) {
@@ -820,7 +1074,7 @@ class KafkaProducerServiceTest {
       // Replace with mocked object mapper
       com.fasterxml.jackson.databind.ObjectMapper mockObjectMapper = mock(
           com.fasterxml.jackson.databind.ObjectMapper.class);
-      when(mockObjectMapper.writeValueAsString(any())).thenThrow(new RuntimeException("Serialization error"));
+      when(mockObjectMapper.writeValueAsBytes(any())).thenThrow(new RuntimeException("Serialization error"));
       objectMapperField.set(kafkaProducerService, mockObjectMapper);
 
       // Invoke private method using reflection
@@ -903,7 +1157,7 @@ class KafkaProducerServiceTest {
   @DisplayName("Constructor should initialize all required fields")
   void constructor_ShouldInitializeAllRequiredFields() throws Exception {
     // Arrange
-    KafkaProducer<String, String> mockKafkaProducer = mock(KafkaProducer.class);
+    KafkaProducer<String, byte[]> mockKafkaProducer = mock(KafkaProducer.class);
 
     // Use reflection to create instance with private constructor
     Constructor<KafkaProducerService> constructor = KafkaProducerService.class
@@ -1005,7 +1259,7 @@ class KafkaProducerServiceTest {
     // serialization
     com.fasterxml.jackson.databind.ObjectMapper mockObjectMapper = mock(
         com.fasterxml.jackson.databind.ObjectMapper.class);
-    when(mockObjectMapper.writeValueAsString(any())).thenThrow(
+    when(mockObjectMapper.writeValueAsBytes(any())).thenThrow(
         new com.fasterxml.jackson.core.JsonProcessingException("Circular reference detected") {
         });
 
@@ -1067,19 +1321,19 @@ class KafkaProducerServiceTest {
     sendEventToKafkaMethod.invoke(outputProcessor, result);
 
     // Assert - Each account should have been sent to Kafka
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer, times(4)).send(recordCaptor.capture(), any());
 
     // Extract all captured records
-    List<ProducerRecord<String, String>> capturedRecords = recordCaptor.getAllValues();
+    List<ProducerRecord<String, byte[]>> capturedRecords = recordCaptor.getAllValues();
 
     // Verify that at least 3 messages were sent to the COIN_ACCOUNT_UPDATE_TOPIC
     int coinAccountUpdateCount = 0;
-    for (ProducerRecord<String, String> record : capturedRecords) {
+    for (ProducerRecord<String, byte[]> record : capturedRecords) {
       if (KafkaTopics.COIN_ACCOUNT_UPDATE_TOPIC.equals(record.topic())) {
         coinAccountUpdateCount++;
         assertTrue(record.key().startsWith("coin-account-"), "Key should start with coin-account-");
-        assertTrue(record.value().contains("\"availableBalance\":"), "Value should contain available balance");
+        assertTrue(valueAsString(record).contains("\"availableBalance\":"), "Value should contain available balance");
       }
     }
     assertEquals(3, coinAccountUpdateCount, "Should send 3 messages to COIN_ACCOUNT_UPDATE_TOPIC");
@@ -1118,13 +1372,13 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendAmmOrderUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.AMM_ORDER_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("amm-order-" + identifier, capturedRecord.key(), "Key should match order identifier");
-    assertTrue(capturedRecord.value().contains("\"messageId\""), "Value should contain messageId");
+    assertTrue(valueAsString(capturedRecord).contains("\"messageId\""), "Value should contain messageId");
   }
 
   @Test
@@ -1159,14 +1413,14 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendOfferUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.OFFER_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("offer-" + identifier, capturedRecord.key(), "Key should match offer identifier");
-    assertTrue(capturedRecord.value().contains("\"object\""), "Value should contain object field");
-    assertTrue(capturedRecord.value().contains("\"identifier\":\"" + identifier + "\""),
+    assertTrue(valueAsString(capturedRecord).contains("\"object\""), "Value should contain object field");
+    assertTrue(valueAsString(capturedRecord).contains("\"identifier\":\"" + identifier + "\""),
         "Value should contain identifier");
   }
 
@@ -1238,14 +1492,14 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendTradeUpdate(result);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.TRADE_UPDATE_TOPIC, capturedRecord.topic(), "Topic should match");
     assertEquals("trade-" + identifier, capturedRecord.key(), "Key should match trade identifier");
-    assertTrue(capturedRecord.value().contains("\"object\""), "Value should contain object field");
-    assertTrue(capturedRecord.value().contains("\"identifier\":\"" + identifier + "\""),
+    assertTrue(valueAsString(capturedRecord).contains("\"object\""), "Value should contain object field");
+    assertTrue(valueAsString(capturedRecord).contains("\"identifier\":\"" + identifier + "\""),
         "Value should contain identifier");
   }
 
@@ -1311,13 +1565,13 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendBalanceLockUpdate(spyResult);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.BALANCES_LOCK_UPDATE_TOPIC, capturedRecord.topic());
     assertEquals("balance-lock-" + balanceLock.getLockId(), capturedRecord.key());
-    assertTrue(capturedRecord.value().contains("\"object\":"));
+    assertTrue(valueAsString(capturedRecord).contains("\"object\":"));
   }
 
   @Test
@@ -1382,13 +1636,13 @@ class KafkaProducerServiceTest {
     kafkaProducerService.sendCoinWithdrawalUpdate(spyResult);
 
     // Assert
-    ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
     verify(mockProducer).send(recordCaptor.capture(), any());
 
-    ProducerRecord<String, String> capturedRecord = recordCaptor.getValue();
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
     assertEquals(KafkaTopics.COIN_WITHDRAWAL_UPDATE_TOPIC, capturedRecord.topic());
     assertEquals("coin-withdrawal-" + withdrawal.getIdentifier(), capturedRecord.key());
-    assertTrue(capturedRecord.value().contains("\"object\":"));
+    assertTrue(valueAsString(capturedRecord).contains("\"object\":"));
   }
 
   @Test
@@ -1426,4 +1680,46 @@ class KafkaProducerServiceTest {
     // Assert - No exception thrown and no message sent
     verify(mockProducer, never()).send(any(), any());
   }
+
+  @Test
+  @DisplayName("sendTickUpdate mặc định gửi JSON kèm header content-type")
+  void sendTickUpdate_ShouldSendJsonWithContentTypeHeader_ByDefault() throws Exception {
+    // Arrange
+    Tick tick = new Tick("BTC-USDT", 1000);
+
+    // Act
+    kafkaProducerService.sendTickUpdate(tick);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(WireFormat.JSON, WireFormat.fromHeaders(capturedRecord.headers()));
+    assertEquals("BTC-USDT", new ObjectMapper().readTree(capturedRecord.value()).get("poolPair").asText());
+  }
+
+  @Test
+  @DisplayName("sendTickUpdate gửi Smile khi topic được cấu hình KAFKA_WIRE_FORMAT_<TOPIC>=smile")
+  void sendTickUpdate_ShouldSendSmile_WhenTopicConfigured() throws Exception {
+    // Arrange
+    when(mockEnvManager.get(WireFormat.DEFAULT_FORMAT_ENV, "json")).thenReturn("json");
+    when(mockEnvManager.get(WireFormat.topicEnvKey(KafkaTopics.TICK_UPDATE_TOPIC), "json")).thenReturn("smile");
+    Tick tick = new Tick("BTC-USDT", 1000);
+    tick.setLiquidityGross(new BigDecimal("100"));
+
+    // Act
+    kafkaProducerService.sendTickUpdate(tick);
+
+    // Assert
+    ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(mockProducer).send(recordCaptor.capture(), any());
+
+    ProducerRecord<String, byte[]> capturedRecord = recordCaptor.getValue();
+    assertEquals(WireFormat.SMILE, WireFormat.fromHeaders(capturedRecord.headers()));
+    JsonNode decoded = WireFormat.SMILE.decode(capturedRecord.value());
+    assertEquals("BTC-USDT", decoded.get("poolPair").asText());
+    assertEquals(1000, decoded.get("tickIndex").asInt());
+    assertEquals(WireFormat.JSON, kafkaProducerService.getWireFormat(KafkaTopics.COIN_ACCOUNT_UPDATE_TOPIC));
+  }
 }
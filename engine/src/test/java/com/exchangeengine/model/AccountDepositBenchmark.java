@@ -0,0 +1,79 @@
+package com.exchangeengine.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * So sánh đường deposit của Account: cách cũ với BigDecimal (setScale sau mỗi
+ * phép cộng) và cách mới với FixedScaleBalance cộng tại chỗ.
+ *
+ * Không phải unit test nên surefire không chạy. Chạy thủ công sau khi
+ * mvn test-compile:
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath
+ * -Dmdep.outputFile=/dev/stdout) com.exchangeengine.model.AccountDepositBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountDepositBenchmark {
+  private static final int DEFAULT_SCALE = 16;
+
+  private final BigDecimal amount = new BigDecimal("0.12345678");
+
+  private BigDecimal legacyAvailableBalance;
+  private long legacyUpdatedAt;
+  private Account account;
+
+  @Setup
+  public void setUp() {
+    legacyAvailableBalance = BigDecimal.ZERO.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    account = new Account("benchmark:usdt");
+  }
+
+  /**
+   * increaseAvailableBalance trước khi đổi sang FixedScaleBalance
+   */
+  @Benchmark
+  public BigDecimal depositBigDecimal() {
+    BigDecimal scaledAmount = amount.setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    if (scaledAmount.compareTo(BigDecimal.ZERO) < 0) {
+      throw new IllegalArgumentException("Amount must be greater than or equal to zero");
+    }
+    legacyAvailableBalance = legacyAvailableBalance.add(scaledAmount).setScale(DEFAULT_SCALE, RoundingMode.HALF_UP);
+    legacyUpdatedAt = Instant.now().toEpochMilli();
+    return legacyAvailableBalance;
+  }
+
+  @Benchmark
+  public FixedScaleBalance depositFixedScale() {
+    account.increaseAvailableBalance(amount);
+    return account.getAvailableFixed();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(AccountDepositBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
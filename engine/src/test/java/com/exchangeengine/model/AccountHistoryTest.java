@@ -1,9 +1,11 @@
 package com.exchangeengine.model;
 
+import com.exchangeengine.util.EventClock;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,6 +67,51 @@ class AccountHistoryTest {
     assertEquals(expectedFormat, key);
   }
 
+  @Test
+  @DisplayName("binary keys should sort by timestamp then sequence within an account")
+  void generateBinaryKey_SortsByTimestampThenSequence() {
+    byte[] prefix = AccountHistory.generateBinaryAccountPrefix(ACCOUNT_KEY);
+    byte[] early = AccountHistory.generateBinaryKey(ACCOUNT_KEY, 1000L, 9L);
+    byte[] sameTimeLater = AccountHistory.generateBinaryKey(ACCOUNT_KEY, 1000L, 10L);
+    byte[] late = AccountHistory.generateBinaryKey(ACCOUNT_KEY, 256000L, 1L);
+
+    assertTrue(Arrays.compareUnsigned(early, sameTimeLater) < 0);
+    assertTrue(Arrays.compareUnsigned(sameTimeLater, late) < 0);
+    assertTrue(Arrays.compareUnsigned(AccountHistory.generateBinaryTimeBound(ACCOUNT_KEY, 1000L), early) < 0);
+    assertEquals(prefix.length + 16, early.length);
+    assertArrayEquals(prefix, Arrays.copyOf(early, prefix.length));
+
+    // Account có accountKey là tiền tố của account khác không được trùng prefix
+    byte[] otherPrefix = AccountHistory.generateBinaryAccountPrefix(ACCOUNT_KEY + "0");
+    assertFalse(Arrays.equals(prefix, Arrays.copyOf(otherPrefix, prefix.length)));
+  }
+
+  @Test
+  @DisplayName("history created while replaying an event should get the same binary key")
+  void constructor_InEvent_ShouldBeDeterministic() {
+    try {
+      EventClock.begin(1000L, 42);
+      byte[] first = new AccountHistory(ACCOUNT_KEY, IDENTIFIER, OPERATION_TYPE).getBinaryKey();
+      EventClock.begin(1000L, 42);
+      byte[] replayed = new AccountHistory(ACCOUNT_KEY, IDENTIFIER, OPERATION_TYPE).getBinaryKey();
+
+      assertArrayEquals(first, replayed);
+    } finally {
+      EventClock.end();
+    }
+  }
+
+  @Test
+  @DisplayName("cursor should round-trip to the binary key of the history")
+  void cursorToBinaryKey_RoundTripsHistoryCursor() {
+    AccountHistory history = new AccountHistory(ACCOUNT_KEY, IDENTIFIER, OPERATION_TYPE);
+
+    assertArrayEquals(history.getBinaryKey(), AccountHistory.cursorToBinaryKey(ACCOUNT_KEY, history.getCursor()));
+    assertTrue(history.getSequence() > 0);
+    assertThrows(IllegalArgumentException.class, () -> AccountHistory.cursorToBinaryKey(ACCOUNT_KEY, "abc"));
+    assertThrows(IllegalArgumentException.class, () -> AccountHistory.cursorToBinaryKey(ACCOUNT_KEY, "1-x"));
+  }
+
   @Test
   @DisplayName("generateAccountPrefix should return 8-character hash prefix")
   void generateAccountPrefix_ReturnsHashPrefix() {
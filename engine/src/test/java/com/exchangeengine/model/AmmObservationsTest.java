@@ -0,0 +1,127 @@
+package com.exchangeengine.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AmmObservationsTest {
+
+  private static final BigDecimal LIQUIDITY = new BigDecimal("1000");
+
+  @Test
+  @DisplayName("observe trả về rỗng khi chưa có observation hoặc target cũ hơn observation cũ nhất")
+  void observe_ShouldReturnEmpty_WhenOutOfHistory() {
+    AmmObservations observations = new AmmObservations();
+    assertFalse(observations.observe(1_000L, 0, LIQUIDITY).isPresent());
+    assertFalse(observations.getOldestTimestamp().isPresent());
+
+    observations.write(1_000L, 0, LIQUIDITY);
+
+    assertFalse(observations.observe(999L, 0, LIQUIDITY).isPresent());
+    assertEquals(1_000L, observations.getOldestTimestamp().get());
+  }
+
+  @Test
+  @DisplayName("observe nội suy giữa hai observation và ngoại suy sau observation mới nhất")
+  void observe_ShouldInterpolateAndExtrapolate() {
+    AmmObservations observations = new AmmObservations();
+    long interval = AmmObservations.INTERVAL_MS;
+    observations.write(0L, 10, LIQUIDITY);
+    observations.write(interval, 10, LIQUIDITY); // tick 10 trong [0, interval]
+    observations.write(2 * interval, -20, new BigDecimal("500")); // tick -20 trong [interval, 2*interval]
+
+    AmmObservations.Observation middle = observations.observe(interval + interval / 2, 99, LIQUIDITY).get();
+    assertEquals(10L * interval - 20L * (interval / 2), middle.getTickCumulative());
+    assertEquals(1000d * interval + 500d * (interval / 2), middle.getLiquidityCumulative(), 1e-6);
+
+    // Sau observation mới nhất dùng trạng thái hiện tại của pool
+    AmmObservations.Observation future = observations.observe(3 * interval, 5, LIQUIDITY).get();
+    assertEquals(10L * interval - 20L * interval + 5L * interval, future.getTickCumulative());
+    assertEquals(100d * interval + 400d * interval + 25d * interval, future.getTickSquaredCumulative(), 1e-6);
+  }
+
+  @Test
+  @DisplayName("Các lần ghi trong cùng một INTERVAL_MS dùng chung một slot")
+  void write_ShouldCoalesceWithinInterval() {
+    AmmObservations observations = new AmmObservations();
+    long interval = AmmObservations.INTERVAL_MS;
+    observations.write(0L, 0, LIQUIDITY);
+    observations.write(interval, 7, LIQUIDITY);
+    observations.write(interval + 100, 7, LIQUIDITY);
+    observations.write(interval + 200, 9, LIQUIDITY);
+    observations.write(interval + 200, 50, LIQUIDITY); // cùng timestamp: bỏ qua
+
+    assertEquals(2, observations.getCardinality());
+    AmmObservations.Observation newest = observations.observe(interval + 200, 0, LIQUIDITY).get();
+    assertEquals(7L * interval + 7L * 100 + 9L * 100, newest.getTickCumulative());
+  }
+
+  @Test
+  @DisplayName("Ring quay vòng khi đầy và chỉ giữ CAPACITY observation mới nhất")
+  void write_ShouldWrapAround_WhenFull() {
+    AmmObservations observations = new AmmObservations();
+    long interval = AmmObservations.INTERVAL_MS;
+    int total = AmmObservations.CAPACITY + 50;
+    for (int i = 0; i < total; i++) {
+      observations.write(i * interval, 1, LIQUIDITY);
+    }
+
+    assertEquals(AmmObservations.CAPACITY, observations.getCardinality());
+    assertEquals(50L * interval, observations.getOldestTimestamp().get());
+
+    // tick luôn là 1 nên tickCumulative tại t bằng t
+    long target = 300L * interval + 123;
+    assertEquals(target, observations.observe(target, 1, LIQUIDITY).get().getTickCumulative());
+    assertFalse(observations.observe(49L * interval, 1, LIQUIDITY).isPresent());
+  }
+
+  @Test
+  @DisplayName("toBytes/fromBytes giữ nguyên thứ tự và giá trị các observation")
+  void toBytes_ShouldRoundTrip() {
+    AmmObservations observations = new AmmObservations();
+    long interval = AmmObservations.INTERVAL_MS;
+    for (int i = 0; i < AmmObservations.CAPACITY + 10; i++) {
+      observations.write(i * interval, i % 7 - 3, LIQUIDITY);
+    }
+
+    byte[] bytes = observations.toBytes();
+    AmmObservations restored = AmmObservations.fromBytes(bytes);
+
+    assertEquals(AmmObservations.CAPACITY * 32, bytes.length);
+    assertEquals(observations, restored);
+    assertEquals(observations.getOldestTimestamp(), restored.getOldestTimestamp());
+    long target = 500L * interval + 17;
+    assertEquals(observations.observe(target, 0, LIQUIDITY).get().getTickCumulative(),
+        restored.observe(target, 0, LIQUIDITY).get().getTickCumulative());
+    assertTrue(AmmObservations.fromBytes(null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("share dùng chung dữ liệu, ghi vào một bản không làm đổi bản còn lại")
+  void share_ShouldCopyOnWrite() {
+    AmmObservations observations = new AmmObservations();
+    long interval = AmmObservations.INTERVAL_MS;
+    for (int i = 0; i < AmmObservations.CAPACITY; i++) {
+      observations.write(i * interval, i, LIQUIDITY);
+    }
+    byte[] before = observations.toBytes();
+
+    AmmObservations shared = observations.share();
+    assertEquals(observations, shared);
+
+    // Bản gốc quay vòng ghi đè slot cũ nhất, bản share giữ nguyên
+    observations.write(AmmObservations.CAPACITY * interval, 7, LIQUIDITY);
+    assertArrayEquals(before, shared.toBytes());
+    assertEquals(0L, shared.getOldestTimestamp().get());
+    assertEquals(interval, observations.getOldestTimestamp().get());
+
+    // Ghi vào bản share cũng không ảnh hưởng bản gốc
+    byte[] original = observations.toBytes();
+    shared.write((AmmObservations.CAPACITY + 5) * interval, -3, LIQUIDITY);
+    assertArrayEquals(original, observations.toBytes());
+    assertEquals(interval, shared.getOldestTimestamp().get());
+  }
+}
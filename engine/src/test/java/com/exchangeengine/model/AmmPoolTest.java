@@ -18,6 +18,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.exchangeengine.factory.AmmPoolFactory;
+import com.exchangeengine.util.JsonSerializer;
 import com.exchangeengine.util.ammPool.AmmPoolConfig;
 import com.exchangeengine.storage.cache.TickCache;
 import com.exchangeengine.factory.TickBitmapFactory;
@@ -345,6 +346,7 @@ public class AmmPoolTest {
     assertTrue(result.containsKey("token1"), "Message JSON should contain token1 field");
     assertTrue(result.containsKey("feePercentage"), "Message JSON should contain feePercentage field");
     assertTrue(result.containsKey("feeProtocolPercentage"), "Message JSON should contain feeProtocolPercentage field");
+    assertFalse(result.containsKey("observations"), "Message JSON should not contain observations");
   }
 
   @Test
@@ -524,7 +526,7 @@ public class AmmPoolTest {
     BigDecimal amount1 = new BigDecimal("1500");
     boolean isInRange = true;
 
-    boolean result = pool.updateForAddPosition(liquidityToAdd, isInRange, amount0, amount1);
+    boolean result = pool.updateForAddPosition(liquidityToAdd, isInRange, amount0, amount1, System.currentTimeMillis());
 
     assertTrue(result, "Kết quả cập nhật phải là true");
     assertEquals(initialLiquidity.add(liquidityToAdd), pool.getLiquidity(),
@@ -558,7 +560,7 @@ public class AmmPoolTest {
     BigDecimal amount1OutOfRange = new BigDecimal("1800");
     boolean isOutOfRange = false;
 
-    result = pool.updateForAddPosition(liquidityOutOfRange, isOutOfRange, amount0OutOfRange, amount1OutOfRange);
+    result = pool.updateForAddPosition(liquidityOutOfRange, isOutOfRange, amount0OutOfRange, amount1OutOfRange, System.currentTimeMillis());
 
     assertTrue(result, "Kết quả cập nhật phải là true");
     assertEquals(currentLiquidity, pool.getLiquidity(),
@@ -587,7 +589,7 @@ public class AmmPoolTest {
     }
 
     // Thêm position với liquidity và amount là 0
-    result = pool.updateForAddPosition(BigDecimal.ZERO, true, BigDecimal.ZERO, BigDecimal.ZERO);
+    result = pool.updateForAddPosition(BigDecimal.ZERO, true, BigDecimal.ZERO, BigDecimal.ZERO, System.currentTimeMillis());
 
     assertFalse(result, "Kết quả cập nhật phải là false khi không có gì thay đổi");
     assertEquals(currentLiquidity, pool.getLiquidity(),
@@ -618,7 +620,7 @@ public class AmmPoolTest {
     BigDecimal token1ToRemove = new BigDecimal("500");
 
     // Execute
-    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove);
+    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove, System.currentTimeMillis());
 
     // Verify
     assertTrue(result);
@@ -653,7 +655,7 @@ public class AmmPoolTest {
     BigDecimal token1ToRemove = new BigDecimal("500");
 
     // Execute
-    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove);
+    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove, System.currentTimeMillis());
 
     // Verify
     assertFalse(result);
@@ -673,7 +675,7 @@ public class AmmPoolTest {
     BigDecimal token1ToRemove = new BigDecimal("100");
 
     // Execute
-    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove);
+    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove, System.currentTimeMillis());
 
     // Verify
     assertTrue(result);
@@ -699,7 +701,7 @@ public class AmmPoolTest {
     BigDecimal token1ToRemove = new BigDecimal("500");
 
     // Execute
-    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove);
+    boolean result = pool.updateForClosePosition(liquidityToRemove, token0ToRemove, token1ToRemove, System.currentTimeMillis());
 
     // Verify
     assertTrue(result);
@@ -851,7 +853,7 @@ public class AmmPoolTest {
     // Test with zero removedLiquidity but positive token amounts
     boolean result1 = pool.updateForClosePosition(BigDecimal.ZERO,
         BigDecimal.valueOf(10),
-        BigDecimal.valueOf(10));
+        BigDecimal.valueOf(10), System.currentTimeMillis());
 
     assertTrue(result1, "Should return true even when removedLiquidity is zero but token amounts are positive");
     assertEquals(initialLiquidity, pool.getLiquidity(), "Liquidity should not change when removedLiquidity is zero");
@@ -876,7 +878,7 @@ public class AmmPoolTest {
     // Test with negative removedLiquidity (should be treated as if zero)
     boolean result2 = pool.updateForClosePosition(BigDecimal.valueOf(-10),
         BigDecimal.ZERO,
-        BigDecimal.ZERO);
+        BigDecimal.ZERO, System.currentTimeMillis());
 
     assertFalse(result2, "Should return false when all values are zero or negative");
     assertEquals(initialLiquidity, pool.getLiquidity(),
@@ -907,7 +909,7 @@ public class AmmPoolTest {
 
     // Mock TickCache
     TickCache mockTickCache = mock(TickCache.class);
-    when(mockTickCache.getTick(tickKey)).thenReturn(Optional.of(expectedTick));
+    when(mockTickCache.getTick(poolPair, tickIndex)).thenReturn(Optional.of(expectedTick));
 
     try {
       // Thiết lập mock instance
@@ -936,7 +938,7 @@ public class AmmPoolTest {
 
     // Mock TickCache
     TickCache mockTickCache = mock(TickCache.class);
-    when(mockTickCache.getTick(tickKey)).thenReturn(Optional.empty());
+    when(mockTickCache.getTick(pool.getPair(), nonExistentTickIndex)).thenReturn(Optional.empty());
 
     try {
       // Thiết lập mock instance
@@ -1068,7 +1070,8 @@ public class AmmPoolTest {
         newTVL0,
         newTVL1,
         newVolume0,
-        newVolume1);
+        newVolume1,
+        System.currentTimeMillis());
 
     // Kiểm tra các giá trị đã được cập nhật đúng
     assertEquals(newTick, pool.getCurrentTick(), "Tick phải được cập nhật");
@@ -1127,7 +1130,8 @@ public class AmmPoolTest {
         BigDecimal.valueOf(5500.0),
         null, // totalValueLockedToken1 null
         BigDecimal.valueOf(1500.0),
-        null); // volumeToken1 null
+        null, // volumeToken1 null
+        System.currentTimeMillis());
 
     // Kiểm tra không có gì thay đổi khi có tham số null
     assertEquals(initialTick, pool.getCurrentTick(), "Tick không nên thay đổi khi có tham số null");
@@ -1171,7 +1175,8 @@ public class AmmPoolTest {
           BigDecimal.valueOf(5500.0),
           BigDecimal.valueOf(5800.0),
           BigDecimal.valueOf(1500.0),
-          BigDecimal.valueOf(2500.0));
+          BigDecimal.valueOf(2500.0),
+          System.currentTimeMillis());
 
       // Kiểm tra rằng phương thức không throw exception
       // Quan trọng: trạng thái của pool nên vẫn được giữ nguyên
@@ -1186,4 +1191,69 @@ public class AmmPoolTest {
 
     // Phương thức đã bắt và xử lý ngoại lệ thành công nếu test đạt đến đây
   }
+
+  @Test
+  @DisplayName("updatePoolAfterSwap ghi observation với tick và thanh khoản trước swap")
+  public void testUpdatePoolAfterSwap_ShouldWriteObservation() {
+    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
+    pool.setCurrentTick(100);
+    pool.setLiquidity(new BigDecimal("1000"));
+    pool.setObservations(new AmmObservations());
+    pool.getObservations().write(System.currentTimeMillis() - 60_000, 100, new BigDecimal("1000"));
+
+    pool.updatePoolAfterSwap(200, BigDecimal.ONE, new BigDecimal("1000"), BigDecimal.ZERO, BigDecimal.ZERO,
+        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, System.currentTimeMillis());
+
+    assertEquals(2, pool.getObservations().getCardinality());
+    long now = pool.getUpdatedAt();
+    AmmObservations.Observation last = pool.getObservations().observe(now, 200, pool.getLiquidity()).orElseThrow();
+    AmmObservations.Observation first = pool.getObservations().observe(now - 60_000, 200, pool.getLiquidity())
+        .orElseThrow();
+    // Khoảng 60s trước swap tính theo tick cũ (100), không phải tick mới
+    assertEquals(100L * 60_000, last.getTickCumulative() - first.getTickCumulative());
+  }
+
+  @Test
+  @DisplayName("Observation và updatedAt dùng thời điểm của event, không dùng giờ hệ thống")
+  public void testUpdateForAddPosition_ShouldUseEventTimestamp() {
+    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
+    pool.setObservations(new AmmObservations());
+
+    pool.updateForAddPosition(new BigDecimal("10"), true, BigDecimal.ONE, BigDecimal.ONE, 1_000L);
+    pool.updateForClosePosition(new BigDecimal("5"), BigDecimal.ONE, BigDecimal.ONE, 61_000L);
+
+    assertEquals(61_000L, pool.getUpdatedAt());
+    assertEquals(1_000L, pool.getObservations().getOldestTimestamp().get());
+    assertEquals(2, pool.getObservations().getCardinality());
+  }
+
+  @Test
+  @DisplayName("duplicate copy pool và dùng chung observations theo kiểu copy-on-write")
+  public void testDuplicate_ShouldShareObservations() {
+    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
+    pool.setObservations(new AmmObservations());
+    pool.writeObservation(1_000L);
+
+    AmmPool copy = pool.duplicate();
+    pool.setCurrentTick(50);
+    pool.writeObservation(31_000L);
+
+    assertEquals(pool.getPair(), copy.getPair());
+    assertEquals(1, copy.getObservations().getCardinality());
+    assertEquals(2, pool.getObservations().getCardinality());
+    assertTrue(copy.getCurrentTick() != 50);
+  }
+
+  @Test
+  @DisplayName("Observations được lưu và đọc lại cùng pool")
+  public void testObservations_ShouldRoundTripWithPool() {
+    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
+    pool.getObservations().write(1_000_000L, 10, new BigDecimal("50"));
+    pool.getObservations().write(1_100_000L, 20, new BigDecimal("50"));
+
+    AmmPool restored = JsonSerializer.deserialize(JsonSerializer.serialize(pool), AmmPool.class);
+
+    assertEquals(pool.getObservations(), restored.getObservations());
+    assertEquals(2, restored.getObservations().getCardinality());
+  }
 }
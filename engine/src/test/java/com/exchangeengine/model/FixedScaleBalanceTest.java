@@ -0,0 +1,103 @@
+package com.exchangeengine.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.util.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedScaleBalanceTest {
+
+  // Giá trị lớn nhất của số nguyên 128 bit có dấu, chia cho 10^16
+  private static final BigDecimal MAX_VALUE = new BigDecimal(BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE),
+      FixedScaleBalance.SCALE);
+
+  @Test
+  @DisplayName("set nên làm tròn HALF_UP về scale 16 cho cả đường nhanh và đường chậm")
+  void set_ShouldRoundToScale16() {
+    assertEquals(new BigDecimal("1.2500000000000000"), new FixedScaleBalance(new BigDecimal("1.25")).toBigDecimal());
+    assertEquals(new BigDecimal("-3.0000000000000000"), new FixedScaleBalance(new BigDecimal("-3")).toBigDecimal());
+    assertEquals(new BigDecimal("1000.0000000000000000"), new FixedScaleBalance(new BigDecimal("1E+3")).toBigDecimal());
+    assertEquals(new BigDecimal("0.0000000000000001"),
+        new FixedScaleBalance(new BigDecimal("0.00000000000000005")).toBigDecimal());
+    assertEquals(new BigDecimal("12345678901234567890.5000000000000000"),
+        new FixedScaleBalance(new BigDecimal("12345678901234567890.5")).toBigDecimal());
+  }
+
+  @Test
+  @DisplayName("add và subtract nên nhớ/mượn qua ranh giới 64 bit")
+  void addAndSubtract_ShouldCarryAcrossWords() {
+    BigDecimal big = new BigDecimal("922.3372036854775807"); // Long.MAX_VALUE / 10^16
+    FixedScaleBalance balance = new FixedScaleBalance(big);
+    FixedScaleBalance other = new FixedScaleBalance(big);
+
+    balance.add(other);
+    balance.add(other);
+    assertEquals(big.multiply(BigDecimal.valueOf(3)), balance.toBigDecimal());
+
+    balance.subtract(other);
+    balance.subtract(other);
+    balance.subtract(other);
+    assertEquals(0, balance.signum());
+
+    balance.subtract(other);
+    assertEquals(-1, balance.signum());
+    assertEquals(big.negate(), balance.toBigDecimal());
+  }
+
+  @Test
+  @DisplayName("compareTo và signum nên đúng với số âm và số lớn")
+  void compareTo_ShouldOrderSignedValues() {
+    FixedScaleBalance negative = new FixedScaleBalance(new BigDecimal("-0.0000000000000001"));
+    FixedScaleBalance zero = new FixedScaleBalance();
+    FixedScaleBalance large = new FixedScaleBalance(new BigDecimal("100000000000000000000"));
+
+    assertTrue(negative.compareTo(zero) < 0);
+    assertTrue(large.compareTo(zero) > 0);
+    assertTrue(large.compareTo(new FixedScaleBalance(BigDecimal.ONE)) > 0);
+    assertEquals(0, zero.signum());
+    assertEquals(new FixedScaleBalance(new BigDecimal("5.0")), new FixedScaleBalance(new BigDecimal("5")));
+  }
+
+  @Test
+  @DisplayName("Tràn 128 bit nên ném ArithmeticException")
+  void overflow_ShouldThrowArithmeticException() {
+    assertThrows(ArithmeticException.class, () -> new FixedScaleBalance(MAX_VALUE.add(BigDecimal.ONE)));
+
+    FixedScaleBalance max = new FixedScaleBalance(MAX_VALUE);
+    assertEquals(MAX_VALUE, max.toBigDecimal());
+    assertThrows(ArithmeticException.class, () -> max.add(new FixedScaleBalance(new BigDecimal("0.0000000000000001"))));
+
+    FixedScaleBalance min = new FixedScaleBalance(MAX_VALUE.negate());
+    assertThrows(ArithmeticException.class, () -> min.subtract(new FixedScaleBalance(BigDecimal.ONE)));
+  }
+
+  @Test
+  @DisplayName("JSON của Account nên giữ định dạng số thập phân như trước")
+  void accountJson_ShouldKeepDecimalFormat() {
+    Account account = new Account("user:BTC");
+    account.increaseAvailableBalance(new BigDecimal("1.5"));
+    account.increaseFrozenBalance(new BigDecimal("0.25"));
+
+    String json = new String(JsonSerializer.serialize(account));
+    assertTrue(json.contains("\"availableBalance\":1.5000000000000000"));
+    assertTrue(json.contains("\"frozenBalance\":0.2500000000000000"));
+
+    Account restored = JsonSerializer.deserialize(json.getBytes(), Account.class);
+    assertEquals(account.getAvailableBalance(), restored.getAvailableBalance());
+    assertEquals(account.getFrozenBalance(), restored.getFrozenBalance());
+
+    Account fromString = JsonSerializer.deserialize(
+        "{\"key\":\"user:BTC\",\"availableBalance\":\"2.5\",\"frozenBalance\":null}".getBytes(), Account.class);
+    assertEquals(new BigDecimal("2.5000000000000000"), fromString.getAvailableBalance());
+    assertEquals(new BigDecimal("0E-16"), fromString.getFrozenBalance());
+
+    Map<String, Object> message = account.toMessageJson();
+    assertEquals(0, new BigDecimal(message.get("availableBalance").toString()).compareTo(new BigDecimal("1.5")));
+  }
+}
@@ -35,9 +35,21 @@ class KafkaTopicsTest {
     assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.BALANCES_LOCK_UPDATE_TOPIC);
     assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.TICK_QUERY_TOPIC);
     assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.TICK_UPDATE_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.TICK_DELTA_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_SWAP_QUOTE_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_SWAP_QUOTE_RESULT_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_LIQUIDITY_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_LIQUIDITY_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_TWAP_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_TWAP_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.AMM_POSITION_FEE_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.OFFER_BOOK_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.OFFER_BOOK_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.BACKUP_TOPIC);
+    assertArrayContains(KafkaTopics.TOPICS, KafkaTopics.BACKUP_RESULT_TOPIC);
 
     // Verify correct number of topics
-    assertEquals(24, KafkaTopics.TOPICS.length);
+    assertEquals(39, KafkaTopics.TOPICS.length);
   }
 
   @Test
@@ -55,7 +67,25 @@ class KafkaTopicsTest {
     assertArrayNotContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.TRANSACTION_RESPONSE_TOPIC);
     assertArrayNotContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.TICK_UPDATE_TOPIC);
     // Verify correct number of query topics
-    assertEquals(3, KafkaTopics.QUERY_TOPICS.length);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.ACCOUNT_HISTORY_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.AMM_SWAP_QUOTE_TOPIC);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.AMM_LIQUIDITY_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.AMM_TWAP_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.OFFER_BOOK_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.QUERY_TOPICS, KafkaTopics.BACKUP_TOPIC);
+    assertEquals(9, KafkaTopics.QUERY_TOPICS.length);
+
+    // Replica chỉ nhận các query chỉ đọc
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.COIN_ACCOUNT_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.TICK_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.ACCOUNT_HISTORY_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.AMM_SWAP_QUOTE_TOPIC);
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.AMM_LIQUIDITY_QUERY_TOPIC);
+    assertArrayContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.AMM_TWAP_QUERY_TOPIC);
+    assertArrayNotContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.RESET_BALANCE_TOPIC);
+    // Sổ offer chỉ có trong cache của engine, replica không phục vụ
+    assertArrayNotContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.OFFER_BOOK_QUERY_TOPIC);
+    assertArrayNotContains(KafkaTopics.READ_ONLY_QUERY_TOPICS, KafkaTopics.BACKUP_TOPIC);
   }
 
   @Test
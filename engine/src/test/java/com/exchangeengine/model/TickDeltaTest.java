@@ -0,0 +1,119 @@
+package com.exchangeengine.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+
+class TickDeltaTest {
+
+  @AfterEach
+  void tearDown() {
+    AmmPoolCache.resetInstance();
+  }
+
+  @Test
+  @DisplayName("fromProcessResult should group ticks by pool and keep pool version")
+  void fromProcessResult_ShouldGroupTicksByPool() {
+    // Given
+    DisruptorEvent event = mock(DisruptorEvent.class);
+    when(event.getEventId()).thenReturn("event-1");
+
+    AmmPool btcPool = new AmmPool("BTC-USDT");
+    btcPool.setTxCount(42);
+    AmmPool ethPool = new AmmPool("ETH-USDT");
+    ethPool.setTxCount(7);
+
+    AmmPoolCache ammPoolCache = mock(AmmPoolCache.class);
+    when(ammPoolCache.getAmmPool("ETH-USDT")).thenReturn(Optional.of(ethPool));
+    AmmPoolCache.setTestInstance(ammPoolCache);
+
+    ProcessResult result = new ProcessResult(event);
+    result.setAmmPool(btcPool);
+    result.addTick(new Tick("BTC-USDT", 100));
+    result.addTick(new Tick("ETH-USDT", 10));
+    result.addTick(new Tick("BTC-USDT", 200));
+
+    // When
+    List<TickDelta> deltas = TickDelta.fromProcessResult(result);
+
+    // Then
+    assertEquals(2, deltas.size());
+    TickDelta btcDelta = deltas.get(0);
+    assertEquals("BTC-USDT", btcDelta.getPoolPair());
+    assertEquals(42L, btcDelta.getPoolVersion());
+    assertEquals("event-1", btcDelta.getInputEventId());
+    assertEquals(TickDelta.TYPE_DELTA, btcDelta.getType());
+    assertEquals(2, btcDelta.getTicks().size());
+
+    TickDelta ethDelta = deltas.get(1);
+    assertEquals("ETH-USDT", ethDelta.getPoolPair());
+    assertEquals(7L, ethDelta.getPoolVersion());
+    assertEquals(1, ethDelta.getTicks().size());
+    verify(ammPoolCache, never()).getAmmPool("BTC-USDT");
+  }
+
+  @Test
+  @DisplayName("fromProcessResult should use pool version captured when the event was processed")
+  void fromProcessResult_ShouldUseCapturedPoolVersion() {
+    DisruptorEvent event = mock(DisruptorEvent.class);
+    AmmPool pool = new AmmPool("BTC-USDT");
+    pool.setTxCount(5);
+
+    ProcessResult result = new ProcessResult(event);
+    result.setAmmPool(pool);
+    result.addTick(new Tick("BTC-USDT", 100));
+    TickDelta.capturePoolVersions(result);
+
+    // Event sau sửa pool trước khi thread Kafka tạo delta
+    pool.setTxCount(6);
+
+    assertEquals(5L, TickDelta.fromProcessResult(result).get(0).getPoolVersion());
+  }
+
+  @Test
+  @DisplayName("fromProcessResult should return empty list when result has no ticks")
+  void fromProcessResult_ShouldReturnEmpty_WhenNoTicks() {
+    ProcessResult result = new ProcessResult(mock(DisruptorEvent.class));
+
+    assertTrue(TickDelta.fromProcessResult(result).isEmpty());
+  }
+
+  @Test
+  @DisplayName("toMessageJson of delta should not contain paging fields")
+  void toMessageJson_ShouldNotContainPaging_ForDelta() {
+    TickDelta delta = new TickDelta("BTC-USDT", 3L);
+    delta.getTicks().add(new Tick("BTC-USDT", 100));
+
+    Map<String, Object> message = delta.toMessageJson();
+
+    assertEquals(TickDelta.TYPE_DELTA, message.get("type"));
+    assertEquals(3L, message.get("poolVersion"));
+    assertEquals(1, message.get("tickCount"));
+    assertFalse(message.containsKey("inputEventId"));
+    assertFalse(message.containsKey("nextCursor"));
+  }
+
+  @Test
+  @DisplayName("snapshot should carry paging fields")
+  void snapshot_ShouldCarryPagingFields() {
+    TickDelta snapshot = TickDelta.snapshot("BTC-USDT", 5L, List.of(new Tick("BTC-USDT", 100)), 50, 200, 1);
+
+    Map<String, Object> message = snapshot.toMessageJson();
+
+    assertEquals(TickDelta.TYPE_SNAPSHOT, message.get("type"));
+    assertEquals(50, message.get("cursor"));
+    assertEquals(200, message.get("nextCursor"));
+    assertEquals(true, message.get("hasMore"));
+    assertEquals(1, message.get("pageSize"));
+  }
+}
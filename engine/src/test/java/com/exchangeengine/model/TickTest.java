@@ -3,6 +3,7 @@ package com.exchangeengine.model;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -887,4 +888,35 @@ public class TickTest {
       assertEquals(expected, flipped);
     }
   }
+
+  @Nested
+  @DisplayName("Tick binary key tests")
+  class TickBinaryKeyTests {
+    @Test
+    @DisplayName("Binary keys of a pool should sort by tick index, including negative ticks")
+    void binaryKeysShouldSortByTickIndex() {
+      int[] tickIndexes = { Integer.MIN_VALUE, -887272, -600, -1, 0, 1, 600, 887272, Integer.MAX_VALUE };
+
+      for (int i = 1; i < tickIndexes.length; i++) {
+        byte[] previous = Tick.generateBinaryKey("BTC-USDT", tickIndexes[i - 1]);
+        byte[] current = Tick.generateBinaryKey("BTC-USDT", tickIndexes[i]);
+        assertTrue(Arrays.compareUnsigned(previous, current) < 0,
+            tickIndexes[i - 1] + " should sort before " + tickIndexes[i]);
+      }
+    }
+
+    @Test
+    @DisplayName("Binary key should start with the pool prefix and be detected as binary")
+    void binaryKeyShouldStartWithPoolPrefix() {
+      Tick tick = new Tick("BTC-USDT", -600);
+      byte[] key = tick.getBinaryKey();
+      byte[] prefix = Tick.generateBinaryPrefix("BTC-USDT");
+
+      assertEquals(prefix.length + Integer.BYTES, key.length);
+      assertArrayEquals(prefix, Arrays.copyOf(key, prefix.length));
+      assertTrue(Tick.isBinaryKey(key));
+      assertFalse(Tick.isBinaryKey(tick.getTickKey().getBytes()));
+      assertFalse(tick.toMessageJson().containsKey("binaryKey"));
+    }
+  }
 }
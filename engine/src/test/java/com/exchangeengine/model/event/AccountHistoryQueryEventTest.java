@@ -0,0 +1,137 @@
+package com.exchangeengine.model.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.AccountHistory;
+import com.exchangeengine.model.AccountHistoryPage;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.AccountHistoryCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+class AccountHistoryQueryEventTest {
+
+  @Mock
+  private AccountHistoryCache accountHistoryCache;
+
+  private AccountHistoryQueryEvent event;
+
+  @BeforeEach
+  void setUp() {
+    AccountHistoryCache.setTestInstance(accountHistoryCache);
+
+    event = new AccountHistoryQueryEvent();
+    event.setEventId("event-1");
+    event.setActionType(ActionType.COIN_ACCOUNT);
+    event.setActionId("action-1");
+    event.setOperationType(OperationType.ACCOUNT_HISTORY_QUERY);
+    event.setAccountKey("btc:user1");
+  }
+
+  @Test
+  @DisplayName("parserData should read paging and time range fields")
+  void parserData_ShouldReadPagingAndTimeRange() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"actionType\":\"CoinAccount\","
+        + "\"actionId\":\"action-1\",\"operationType\":\"account_history_query\",\"accountKey\":\"btc:user1\","
+        + "\"fromTime\":100,\"toTime\":200,\"cursor\":\"150-3\",\"limit\":20,\"order\":\"asc\"}");
+
+    AccountHistoryQueryEvent parsed = new AccountHistoryQueryEvent().parserData(json);
+
+    assertEquals("btc:user1", parsed.getAccountKey());
+    assertEquals(100L, parsed.getFromTime());
+    assertEquals(200L, parsed.getToTime());
+    assertEquals("150-3", parsed.getCursor());
+    assertEquals(20, parsed.getLimit());
+    assertFalse(parsed.isNewestFirst());
+    assertEquals(OperationType.ACCOUNT_HISTORY_QUERY, parsed.getOperationType());
+    assertDoesNotThrow(parsed::validate);
+  }
+
+  @Test
+  @DisplayName("parserData should default to newest first without time range")
+  void parserData_ShouldUseDefaults() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"accountKey\":\"btc:user1\"}");
+
+    AccountHistoryQueryEvent parsed = new AccountHistoryQueryEvent().parserData(json);
+
+    assertNull(parsed.getFromTime());
+    assertNull(parsed.getToTime());
+    assertNull(parsed.getCursor());
+    assertEquals(AccountHistoryQueryEvent.DEFAULT_LIMIT, parsed.getLimit());
+    assertTrue(parsed.isNewestFirst());
+  }
+
+  @Test
+  @DisplayName("validate should reject invalid range, limit and cursor")
+  void validate_ShouldRejectInvalidFields() {
+    event.setFromTime(200L);
+    event.setToTime(100L);
+    event.setLimit(0);
+    event.setCursor("not-a-cursor");
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, event::validate);
+
+    assertTrue(exception.getMessage().contains("Limit must be greater than 0"));
+    assertTrue(exception.getMessage().contains("To time must be greater than from time"));
+    assertTrue(exception.getMessage().contains("Invalid history cursor"));
+  }
+
+  @Test
+  @DisplayName("fetchPage should read one extra row and set next cursor")
+  void fetchPage_ShouldSetNextCursor_WhenMoreRowsExist() {
+    AccountHistory newest = history(300L, 3L);
+    AccountHistory middle = history(200L, 2L);
+    AccountHistory oldest = history(100L, 1L);
+    when(accountHistoryCache.getAccountTransactionHistory("btc:user1", 0L, Long.MAX_VALUE, null, 3, true))
+        .thenReturn(Arrays.asList(newest, middle, oldest));
+    event.setLimit(2);
+
+    AccountHistoryPage page = event.fetchPage();
+
+    assertEquals(Arrays.asList(newest, middle), page.getHistories());
+    assertEquals("200-2", page.getNextCursor());
+    assertEquals("event-1", page.getInputEventId());
+    assertEquals(2, page.getLimit());
+  }
+
+  @Test
+  @DisplayName("fetchPage should cap limit and return no cursor on last page")
+  void fetchPage_ShouldCapLimit_AndEndOnLastPage() {
+    AccountHistory only = history(100L, 1L);
+    when(accountHistoryCache.getAccountTransactionHistory("btc:user1", 50L, 150L, "120-9",
+        AccountHistoryQueryEvent.MAX_LIMIT + 1, false)).thenReturn(List.of(only));
+    event.setLimit(AccountHistoryQueryEvent.MAX_LIMIT * 10);
+    event.setFromTime(50L);
+    event.setToTime(150L);
+    event.setCursor("120-9");
+    event.setNewestFirst(false);
+
+    AccountHistoryPage page = event.fetchPage();
+
+    assertEquals(1, page.getHistories().size());
+    assertNull(page.getNextCursor());
+    assertEquals(AccountHistoryQueryEvent.MAX_LIMIT, page.getLimit());
+    assertEquals("asc", page.toMessageJson().get("order"));
+  }
+
+  private AccountHistory history(long timestamp, long sequence) {
+    AccountHistory history = new AccountHistory("btc:user1", "tx-" + sequence, "coin_deposit_create");
+    history.setTimestamp(timestamp);
+    history.setSequence(sequence);
+    return history;
+  }
+}
@@ -0,0 +1,161 @@
+package com.exchangeengine.model.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmLiquidityDepth;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.AmmPositionCache;
+import com.exchangeengine.storage.cache.LiquidityIndexCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickBitmapCache;
+import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.TickMath;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AmmLiquidityQueryEventTest {
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  private AmmLiquidityQueryEvent event;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    ReadSnapshotCache.resetInstance();
+    LiquidityIndexCache.resetInstance();
+
+    // Một position [-600, 600] thanh khoản 1000, giá tại tick 0
+    AmmPool pool = new AmmPool("BTC-USDT");
+    pool.setActive(true);
+    pool.setTickSpacing(60);
+    pool.setCurrentTick(0);
+    pool.setSqrtPrice(TickMath.getSqrtRatioAtTick(0));
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+
+    TickBitmap tickBitmap = mock(TickBitmap.class);
+    when(tickBitmap.getSetBits()).thenReturn(Arrays.asList(-600, 600));
+    when(tickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(tickBitmap));
+    Tick lower = new Tick("BTC-USDT", -600);
+    lower.setLiquidityNet(new BigDecimal("1000"));
+    Tick upper = new Tick("BTC-USDT", 600);
+    upper.setLiquidityNet(new BigDecimal("-1000"));
+    when(tickCache.getTick("BTC-USDT", -600)).thenReturn(Optional.of(lower));
+    when(tickCache.getTick("BTC-USDT", 600)).thenReturn(Optional.of(upper));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+    // Snapshot do disruptor thread dựng khi khởi động
+    ReadSnapshotCache.getInstance().seedTickViews();
+
+    event = new AmmLiquidityQueryEvent();
+    event.setEventId("event-1");
+    event.setActionType(ActionType.AMM_POOL);
+    event.setActionId("action-1");
+    event.setOperationType(OperationType.AMM_LIQUIDITY_QUERY);
+    event.setPoolPair("BTC-USDT");
+  }
+
+  @Test
+  @DisplayName("parserData should read tick range and buckets, defaulting to full range")
+  void parserData_ShouldReadRangeAndBuckets() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode json = mapper.readTree("{\"eventId\":\"event-1\",\"actionType\":\"AmmPool\",\"actionId\":\"action-1\","
+        + "\"operationType\":\"amm_liquidity_query\",\"poolPair\":\"BTC-USDT\",\"tickLower\":-1200,"
+        + "\"tickUpper\":1200,\"buckets\":4}");
+
+    AmmLiquidityQueryEvent parsed = new AmmLiquidityQueryEvent().parserData(json);
+
+    assertEquals(-1200, parsed.getTickLower());
+    assertEquals(1200, parsed.getTickUpper());
+    assertEquals(4, parsed.getBuckets());
+    assertEquals(OperationType.AMM_LIQUIDITY_QUERY, parsed.getOperationType());
+
+    AmmLiquidityQueryEvent defaults = new AmmLiquidityQueryEvent()
+        .parserData(mapper.readTree("{\"poolPair\":\"BTC-USDT\"}"));
+    assertEquals(AmmPoolConfig.MIN_TICK, defaults.getTickLower());
+    assertEquals(AmmPoolConfig.MAX_TICK, defaults.getTickUpper());
+    assertEquals(0, defaults.getBuckets());
+  }
+
+  @Test
+  @DisplayName("validate should reject inverted range, invalid tick and too many buckets")
+  void validate_ShouldRejectInvalidRangeAndBuckets() {
+    event.setTickLower(600);
+    event.setTickUpper(-600);
+    event.setBuckets(AmmLiquidityQueryEvent.MAX_BUCKETS + 1);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+    assertTrue(exception.getMessage().contains("Tick lower must be less than tick upper"));
+    assertTrue(exception.getMessage().contains("Buckets must be between 0 and"));
+
+    event.setTickLower(AmmPoolConfig.MIN_TICK - 1);
+    event.setBuckets(0);
+    exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+    assertTrue(exception.getMessage().contains("Tick must be between"));
+
+    event.setTickLower(-1200);
+    event.setTickUpper(1200);
+    assertDoesNotThrow(() -> event.validate());
+  }
+
+  @Test
+  @DisplayName("fetchDepth should return range totals and buckets that add up to them")
+  void fetchDepth_ShouldReturnTotalsAndBuckets() {
+    event.setTickLower(-1200);
+    event.setTickUpper(1200);
+    event.setBuckets(4);
+
+    AmmLiquidityDepth depth = event.fetchDepth();
+
+    assertEquals("event-1", depth.getInputEventId());
+    assertEquals(0, new BigDecimal("1000").compareTo(depth.getActiveLiquidity()));
+    assertTrue(depth.getAmount0().compareTo(BigDecimal.ZERO) > 0);
+    assertTrue(depth.getAmount1().compareTo(BigDecimal.ZERO) > 0);
+
+    assertEquals(4, depth.getBuckets().size());
+    assertEquals(-1200, depth.getBuckets().get(0).getTickLower());
+    assertEquals(1200, depth.getBuckets().get(3).getTickUpper());
+    assertEquals(0, BigDecimal.ZERO.compareTo(depth.getBuckets().get(0).getLiquidity()));
+    assertEquals(0, new BigDecimal("1000").compareTo(depth.getBuckets().get(1).getLiquidity()));
+
+    BigDecimal amount1 = depth.getBuckets().stream().map(AmmLiquidityDepth.Bucket::getAmount1)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    assertTrue(amount1.subtract(depth.getAmount1()).abs().compareTo(new BigDecimal("0.000000001")) <= 0);
+  }
+}
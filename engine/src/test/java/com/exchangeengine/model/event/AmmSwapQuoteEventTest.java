@@ -0,0 +1,161 @@
+package com.exchangeengine.model.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.AmmPositionCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickBitmapCache;
+import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.ammPool.TickMath;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AmmSwapQuoteEventTest {
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  private AmmPool pool;
+  private AmmSwapQuoteEvent event;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    ReadSnapshotCache.resetInstance();
+
+    pool = new AmmPool("BTC-USDT");
+    pool.setToken0("BTC");
+    pool.setToken1("USDT");
+    pool.setActive(true);
+    pool.setFeePercentage(0.003);
+    pool.setSqrtPrice(TickMath.getSqrtRatioAtTick(0));
+    pool.setLiquidity(new BigDecimal("1000"));
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+
+    TickBitmap tickBitmap = mock(TickBitmap.class);
+    when(tickBitmap.getSetBits()).thenReturn(Collections.emptyList());
+    when(tickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(tickBitmap));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+    // Snapshot do disruptor thread dựng khi khởi động
+    ReadSnapshotCache.getInstance().seedTickViews();
+
+    event = new AmmSwapQuoteEvent();
+    event.setEventId("event-1");
+    event.setActionType(ActionType.AMM_ORDER);
+    event.setActionId("action-1");
+    event.setOperationType(OperationType.AMM_SWAP_QUOTE);
+    event.setPoolPair("BTC-USDT");
+    event.setZeroForOne(true);
+    event.setAmountSpecified(new BigDecimal("1"));
+  }
+
+  @Test
+  @DisplayName("parserData should read pool pair, direction and amount")
+  void parserData_ShouldReadQuoteFields() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"actionType\":\"AmmOrder\","
+        + "\"actionId\":\"action-1\",\"operationType\":\"amm_swap_quote\",\"poolPair\":\"BTC-USDT\","
+        + "\"zeroForOne\":false,\"amountSpecified\":\"2.5\"}");
+
+    AmmSwapQuoteEvent parsed = new AmmSwapQuoteEvent().parserData(json);
+
+    assertEquals("BTC-USDT", parsed.getPoolPair());
+    assertFalse(parsed.getZeroForOne());
+    assertEquals(0, new BigDecimal("2.5").compareTo(parsed.getAmountSpecified()));
+    assertEquals(OperationType.AMM_SWAP_QUOTE, parsed.getOperationType());
+    assertEquals("BTC-USDT", parsed.getProducerEventId());
+  }
+
+  @Test
+  @DisplayName("parserData should leave invalid fields empty so validate reports them")
+  void parserData_ShouldLeaveInvalidFieldsEmpty() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"actionType\":\"AmmOrder\","
+        + "\"actionId\":\"action-1\",\"operationType\":\"amm_swap_quote\",\"poolPair\":\"BTC-USDT\","
+        + "\"amountSpecified\":\"abc\"}");
+
+    AmmSwapQuoteEvent parsed = new AmmSwapQuoteEvent().parserData(json);
+
+    assertNull(parsed.getZeroForOne());
+    assertNull(parsed.getAmountSpecified());
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, parsed::validate);
+    assertTrue(exception.getMessage().contains("Zero for one is required"));
+    assertTrue(exception.getMessage().contains("Amount specified is required"));
+  }
+
+  @Test
+  @DisplayName("validate should pass for an active pool with liquidity")
+  void validate_ShouldPass_WhenValid() {
+    assertDoesNotThrow(() -> event.validate());
+  }
+
+  @Test
+  @DisplayName("validate should reject non-positive amount and pool without liquidity")
+  void validate_ShouldRejectNonPositiveAmountAndEmptyPool() {
+    event.setAmountSpecified(new BigDecimal("-1"));
+    pool.setLiquidity(BigDecimal.ZERO);
+    ReadSnapshotCache.getInstance().seedTickViews();
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+
+    assertTrue(exception.getMessage().contains("Amount specified must be greater than 0"));
+    assertTrue(exception.getMessage().contains("Pool has no liquidity"));
+  }
+
+  @Test
+  @DisplayName("validate should reject unknown pool")
+  void validate_ShouldRejectUnknownPool() {
+    event.setPoolPair("ETH-USDT");
+    when(ammPoolCache.getAmmPool("ETH-USDT")).thenReturn(Optional.empty());
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+
+    assertTrue(exception.getMessage().contains("AMM Pool does not exist: ETH-USDT"));
+  }
+
+  @Test
+  @DisplayName("fetchQuote should quote on the read snapshot and keep the input event id")
+  void fetchQuote_ShouldQuoteOnSnapshot() {
+    AmmSwapQuote quote = event.fetchQuote();
+
+    assertEquals("BTC-USDT", quote.getPoolPair());
+    assertEquals("event-1", quote.getInputEventId());
+    assertTrue(quote.isFullyFilled());
+    assertEquals(0, new BigDecimal("1").compareTo(quote.getAmountIn()));
+    assertTrue(quote.getAmountOut().compareTo(BigDecimal.ZERO) > 0);
+  }
+}
@@ -0,0 +1,134 @@
+package com.exchangeengine.model.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.AmmObservations;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmTwap;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.AmmPositionCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickBitmapCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AmmTwapQueryEventTest {
+
+  private static final long NOW = 10_000_000L;
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  private AmmTwapQueryEvent event;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    ReadSnapshotCache.resetInstance();
+
+    // Tick 100 trong 10 phút, sau đó tick 300 trong 10 phút, hiện tại vẫn là 300
+    AmmPool pool = new AmmPool("BTC-USDT");
+    pool.setActive(true);
+    pool.setCurrentTick(300);
+    pool.setLiquidity(new BigDecimal("1000"));
+    AmmObservations observations = new AmmObservations();
+    observations.write(NOW - 1_200_000L, 0, BigDecimal.ZERO);
+    observations.write(NOW - 600_000L, 100, new BigDecimal("1000"));
+    observations.write(NOW, 300, new BigDecimal("1000"));
+    pool.setObservations(observations);
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+    // Snapshot do disruptor thread dựng khi khởi động
+    ReadSnapshotCache.getInstance().seedTickViews();
+
+    event = new AmmTwapQueryEvent() {
+      @Override
+      protected long currentTimeMillis() {
+        return NOW;
+      }
+    };
+    event.setEventId("event-1");
+    event.setActionType(ActionType.AMM_POOL);
+    event.setActionId("action-1");
+    event.setOperationType(OperationType.AMM_TWAP_QUERY);
+    event.setPoolPair("BTC-USDT");
+  }
+
+  @Test
+  @DisplayName("parserData should read pool pair and window")
+  void parserData_ShouldReadWindow() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"actionType\":\"AmmPool\","
+        + "\"actionId\":\"action-1\",\"operationType\":\"amm_twap_query\",\"poolPair\":\"BTC-USDT\","
+        + "\"windowSeconds\":300}");
+
+    AmmTwapQueryEvent parsed = new AmmTwapQueryEvent().parserData(json);
+
+    assertEquals("BTC-USDT", parsed.getPoolPair());
+    assertEquals(300, parsed.getWindowSeconds());
+    assertEquals(OperationType.AMM_TWAP_QUERY, parsed.getOperationType());
+  }
+
+  @Test
+  @DisplayName("validate should reject missing window and window longer than history")
+  void validate_ShouldRejectInvalidWindow() {
+    event.setWindowSeconds(0);
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+    assertTrue(exception.getMessage().contains("Window seconds must be greater than 0"));
+
+    event.setWindowSeconds(1_201);
+    exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+    assertTrue(exception.getMessage().contains("Window exceeds observation history"));
+
+    event.setWindowSeconds(1_200);
+    assertDoesNotThrow(() -> event.validate());
+  }
+
+  @Test
+  @DisplayName("fetchTwap should average ticks over the window and report their spread")
+  void fetchTwap_ShouldReturnTimeWeightedValues() {
+    event.setWindowSeconds(1_200);
+
+    AmmTwap twap = event.fetchTwap();
+
+    assertEquals("event-1", twap.getInputEventId());
+    assertEquals(NOW - 1_200_000L, twap.getStartTime());
+    assertEquals(0, new BigDecimal("200").compareTo(twap.getAverageTick()));
+    assertEquals(0, new BigDecimal("100").compareTo(twap.getTickStdDev()));
+    assertEquals(0, new BigDecimal("1000").compareTo(twap.getAverageLiquidity()));
+    assertEquals(Math.pow(1.0001, 200), twap.getTwapPrice().doubleValue(), 1e-9);
+    assertEquals(100 * Math.log(1.0001), twap.getVolatility().doubleValue(), 1e-12);
+
+    // Cửa sổ 5 phút chỉ nằm trong giai đoạn tick 300
+    event.setWindowSeconds(300);
+    AmmTwap recent = event.fetchTwap();
+    assertEquals(0, new BigDecimal("300").compareTo(recent.getAverageTick()));
+    assertEquals(0, BigDecimal.ZERO.compareTo(recent.getTickStdDev()));
+  }
+}
@@ -405,6 +405,7 @@ public class BalancesLockEventTest {
         jsonNode.put("operationType", OperationType.BALANCES_LOCK_RELEASE.getValue());
         jsonNode.put("lockId", "test-lock-id");
         jsonNode.put("identifier", "test-identifier");
+        jsonNode.put("expiresAt", 1700000000000L);
         
         ArrayNode accountKeysArray = JsonNodeFactory.instance.arrayNode();
         accountKeysArray.add("account1");
@@ -424,6 +425,7 @@ public class BalancesLockEventTest {
         assertEquals(2, result.getAccountKeys().size());
         assertTrue(result.getAccountKeys().contains("account1"));
         assertTrue(result.getAccountKeys().contains("account2"));
+        assertEquals(1700000000000L, result.getExpiresAt());
     }
 
     @Test
@@ -0,0 +1,103 @@
+package com.exchangeengine.model.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.Offer;
+import com.exchangeengine.model.OfferBook;
+import com.exchangeengine.model.OfferBookEntry;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.storage.cache.OfferCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OfferBookQueryEventTest {
+
+  @Mock
+  private OfferCache offerCache;
+
+  private OfferBookQueryEvent event;
+
+  @BeforeEach
+  void setUp() {
+    OfferCache.setTestInstance(offerCache);
+
+    event = new OfferBookQueryEvent();
+    event.setEventId("event-1");
+    event.setActionType(ActionType.OFFER);
+    event.setActionId("action-1");
+    event.setOperationType(OperationType.OFFER_BOOK_QUERY);
+    event.setSymbol("USDT:VND");
+    event.setOfferType("sell");
+  }
+
+  @Test
+  @DisplayName("parserData should read symbol, side and optional filters")
+  void parserData_ShouldReadFilters() throws Exception {
+    JsonNode json = new ObjectMapper().readTree("{\"eventId\":\"event-1\",\"actionType\":\"Offer\","
+        + "\"actionId\":\"action-1\",\"operationType\":\"offer_book_query\",\"symbol\":\"USDT:VND\","
+        + "\"offerType\":\"buy\",\"paymentMethodId\":\"bank\",\"countryCode\":\"\",\"limit\":5}");
+
+    OfferBookQueryEvent parsed = new OfferBookQueryEvent().parserData(json);
+
+    assertEquals("USDT:VND", parsed.getSymbol());
+    assertEquals("buy", parsed.getOfferType());
+    assertEquals("bank", parsed.getPaymentMethodId());
+    assertNull(parsed.getCountryCode());
+    assertEquals(5, parsed.getLimit());
+    assertEquals(OperationType.OFFER_BOOK_QUERY, parsed.getOperationType());
+    assertDoesNotThrow(() -> parsed.validate());
+  }
+
+  @Test
+  @DisplayName("validate should reject missing symbol, unknown side and non-positive limit")
+  void validate_ShouldRejectInvalidQuery() {
+    event.setSymbol("");
+    event.setOfferType("swap");
+    event.setLimit(0);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> event.validate());
+
+    assertTrue(exception.getMessage().contains("Symbol is required"));
+    assertTrue(exception.getMessage().contains("Offer type must be buy or sell"));
+    assertTrue(exception.getMessage().contains("Limit must be greater than 0"));
+  }
+
+  @Test
+  @DisplayName("fetchOfferBook should read the offer book index with the capped limit")
+  void fetchOfferBook_ShouldReadIndex() {
+    Offer offer = new Offer();
+    offer.setIdentifier("offer-1");
+    offer.setPrice(new BigDecimal("25000"));
+    OfferBookEntry entry = new OfferBookEntry(offer);
+    when(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, "bank", null, OfferBookQueryEvent.MAX_LIMIT))
+        .thenReturn(Arrays.asList(entry));
+    event.setPaymentMethodId("bank");
+    event.setLimit(1000);
+
+    OfferBook book = event.fetchOfferBook();
+
+    assertEquals("USDT:VND", book.getSymbol());
+    assertEquals(Offer.OfferType.SELL, book.getOfferType());
+    assertEquals("event-1", book.getInputEventId());
+    assertEquals(OfferBookQueryEvent.MAX_LIMIT, book.getLimit());
+    assertEquals(1, book.getOffers().size());
+    assertSame(entry, book.getOffers().get(0));
+  }
+}
@@ -4,7 +4,10 @@ import com.exchangeengine.model.ActionType;
 import com.exchangeengine.model.AmmPool;
 import com.exchangeengine.model.OperationType;
 import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.TickCache;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -17,6 +20,7 @@ import org.mockito.Mockito;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +42,7 @@ class TickEventTest {
         mockTickBitmapCache = mock(TickBitmapCache.class);
         mockAmmPool = mock(AmmPool.class);
         objectMapper = new ObjectMapper();
+        ReadSnapshotCache.resetInstance();
 
         // Setup default values
         tickEvent.setEventId("test-event-id");
@@ -103,8 +108,11 @@ class TickEventTest {
         // Arrange
         try (MockedStatic<AmmPoolCache> mockedStatic = Mockito.mockStatic(AmmPoolCache.class)) {
             mockedStatic.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
-            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(mockAmmPool));
-            when(mockAmmPool.isActive()).thenReturn(false);
+            AmmPool pool = new AmmPool("BTC-USDT");
+            pool.setActive(false);
+            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+            when(mockAmmPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+            seedSnapshot();
 
             // Act & Assert
             IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -119,8 +127,11 @@ class TickEventTest {
         // Arrange
         try (MockedStatic<AmmPoolCache> mockedStatic = Mockito.mockStatic(AmmPoolCache.class)) {
             mockedStatic.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
-            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(mockAmmPool));
-            when(mockAmmPool.isActive()).thenReturn(true);
+            AmmPool pool = new AmmPool("BTC-USDT");
+            pool.setActive(true);
+            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+            when(mockAmmPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+            seedSnapshot();
 
             // Act & Assert
             assertDoesNotThrow(() -> tickEvent.validate());
@@ -145,9 +156,12 @@ class TickEventTest {
     @DisplayName("fetchTicksFromBitmap should return empty list when bitmap is not found")
     void fetchTicksFromBitmap_ShouldReturnEmptyList_WhenBitmapIsNotFound() {
         // Arrange
-        try (MockedStatic<TickBitmapCache> mockedStatic = Mockito.mockStatic(TickBitmapCache.class)) {
+        try (MockedStatic<TickBitmapCache> mockedStatic = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
             mockedStatic.when(TickBitmapCache::getInstance).thenReturn(mockTickBitmapCache);
+            ammPoolMock.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
             when(mockTickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.empty());
+            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.empty());
 
             // Act
             List<Tick> result = tickEvent.fetchTicksFromBitmap();
@@ -162,40 +176,198 @@ class TickEventTest {
     @DisplayName("fetchTicksFromBitmap should return ticks when bitmap has set bits")
     void fetchTicksFromBitmap_ShouldReturnTicks_WhenBitmapHasSetBits() {
         // Arrange
-        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
-                MockedStatic<TickCache> tickCacheMock = Mockito.mockStatic(TickCache.class)) {
+        TickBitmap bitmap = new TickBitmap("BTC-USDT");
+        bitmap.setBit(100);
+        bitmap.setBit(200);
+        bitmap.setBit(300);
 
-            // Mock bitmap cache
-            tickBitmapMock.when(TickBitmapCache::getInstance).thenReturn(mockTickBitmapCache);
+        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<TickCache> tickCacheMock = Mockito.mockStatic(TickCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
+            stubSnapshotCaches(tickBitmapMock, tickCacheMock, ammPoolMock, bitmap, 100, 200, 300);
+            seedSnapshot();
 
-            // Create a mock bitmap with set bits
-            com.exchangeengine.model.TickBitmap mockBitmap = mock(com.exchangeengine.model.TickBitmap.class);
-            List<Integer> setBits = List.of(100, 200, 300);
-            when(mockBitmap.getSetBits()).thenReturn(setBits);
-            when(mockTickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(mockBitmap));
+            // Act
+            List<Tick> result = tickEvent.fetchTicksFromBitmap();
 
-            // Mock tick cache
-            tickCacheMock.when(TickCache::getInstance).thenReturn(mockTickCache);
+            // Assert
+            assertNotNull(result);
+            assertEquals(3, result.size());
+            assertEquals(100, result.get(0).getTickIndex());
+            assertEquals(200, result.get(1).getTickIndex());
+            assertEquals(300, result.get(2).getTickIndex());
+        }
+    }
 
-            // Create mock ticks
-            Tick tick1 = mock(Tick.class);
-            Tick tick2 = mock(Tick.class);
-            Tick tick3 = mock(Tick.class);
+    @Test
+    @DisplayName("fetchTicksFromBitmap should return copies, not the ticks held by TickCache")
+    void fetchTicksFromBitmap_ShouldReturnCopies() {
+        // Arrange
+        TickBitmap bitmap = new TickBitmap("BTC-USDT");
+        bitmap.setBit(100);
+        Tick liveTick = new Tick("BTC-USDT", 100);
 
-            // Setup tick cache to return ticks for specific keys
-            when(mockTickCache.getTick("BTC-USDT-100")).thenReturn(Optional.of(tick1));
-            when(mockTickCache.getTick("BTC-USDT-200")).thenReturn(Optional.of(tick2));
-            when(mockTickCache.getTick("BTC-USDT-300")).thenReturn(Optional.of(tick3));
+        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<TickCache> tickCacheMock = Mockito.mockStatic(TickCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
+            stubSnapshotCaches(tickBitmapMock, tickCacheMock, ammPoolMock, bitmap);
+            when(mockTickCache.getTick("BTC-USDT", 100)).thenReturn(Optional.of(liveTick));
+            seedSnapshot();
 
             // Act
             List<Tick> result = tickEvent.fetchTicksFromBitmap();
 
             // Assert
-            assertNotNull(result);
-            assertEquals(3, result.size());
-            assertTrue(result.contains(tick1));
-            assertTrue(result.contains(tick2));
-            assertTrue(result.contains(tick3));
+            assertEquals(1, result.size());
+            assertNotSame(liveTick, result.get(0));
+            assertEquals(liveTick.getTickKey(), result.get(0).getTickKey());
+        }
+    }
+
+    @Test
+    @DisplayName("parserData should parse cursor and pageSize when present")
+    void parserData_ShouldParseCursorAndPageSize() throws Exception {
+        // Arrange
+        String jsonStr = "{\"eventId\":\"event-123\",\"operationType\":\"TICK_QUERY\",\"poolPair\":\"ETH-USDT\",\"cursor\":200,\"pageSize\":50}";
+
+        // Act
+        TickEvent result = tickEvent.parserData(objectMapper.readTree(jsonStr));
+
+        // Assert
+        assertEquals(200, result.getCursor());
+        assertEquals(50, result.getPageSize());
+    }
+
+    @Test
+    @DisplayName("parserData should default cursor to null and pageSize to 0")
+    void parserData_ShouldDefaultCursorAndPageSize() throws Exception {
+        // Arrange
+        String jsonStr = "{\"eventId\":\"event-123\",\"operationType\":\"TICK_QUERY\",\"poolPair\":\"ETH-USDT\",\"cursor\":\"abc\"}";
+
+        // Act
+        TickEvent result = tickEvent.parserData(objectMapper.readTree(jsonStr));
+
+        // Assert
+        assertNull(result.getCursor());
+        assertEquals(0, result.getPageSize());
+    }
+
+    @Test
+    @DisplayName("validate should throw exception when pageSize is negative")
+    void validate_ShouldThrowException_WhenPageSizeIsNegative() {
+        // Arrange
+        tickEvent.setPageSize(-1);
+        try (MockedStatic<AmmPoolCache> mockedStatic = Mockito.mockStatic(AmmPoolCache.class)) {
+            mockedStatic.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
+            AmmPool pool = new AmmPool("BTC-USDT");
+            pool.setActive(true);
+            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+            when(mockAmmPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+            seedSnapshot();
+
+            // Act & Assert
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> tickEvent.validate());
+            assertTrue(exception.getMessage().contains("Page size must be greater than or equal to 0"));
+        }
+    }
+
+    @Test
+    @DisplayName("fetchTickSnapshot should return all ticks with pool version when pageSize is 0")
+    void fetchTickSnapshot_ShouldReturnAllTicks_WhenNotPaginated() {
+        TickBitmap bitmap = new TickBitmap("BTC-USDT");
+        bitmap.setBit(100);
+        bitmap.setBit(200);
+        bitmap.setBit(300);
+
+        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<TickCache> tickCacheMock = Mockito.mockStatic(TickCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
+            stubSnapshotCaches(tickBitmapMock, tickCacheMock, ammPoolMock, bitmap, 100, 200, 300);
+            when(mockAmmPool.getTxCount()).thenReturn(9);
+            seedSnapshot();
+
+            // Act
+            TickDelta snapshot = tickEvent.fetchTickSnapshot();
+
+            // Assert
+            assertEquals(TickDelta.TYPE_SNAPSHOT, snapshot.getType());
+            assertEquals(9L, snapshot.getPoolVersion());
+            assertEquals(3, snapshot.getTicks().size());
+            assertNull(snapshot.getNextCursor());
+            assertFalse(snapshot.isHasMore());
+        }
+    }
+
+    @Test
+    @DisplayName("fetchTickSnapshot should paginate from cursor and return nextCursor")
+    void fetchTickSnapshot_ShouldPaginateFromCursor() {
+        TickBitmap bitmap = new TickBitmap("BTC-USDT");
+        bitmap.setBit(100);
+        bitmap.setBit(200);
+        bitmap.setBit(300);
+        bitmap.setBit(400);
+        tickEvent.setCursor(150);
+        tickEvent.setPageSize(2);
+
+        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<TickCache> tickCacheMock = Mockito.mockStatic(TickCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
+            stubSnapshotCaches(tickBitmapMock, tickCacheMock, ammPoolMock, bitmap, 100, 200, 300, 400);
+            seedSnapshot();
+
+            // Act
+            TickDelta snapshot = tickEvent.fetchTickSnapshot();
+
+            // Assert
+            assertEquals(2, snapshot.getTicks().size());
+            assertEquals(200, snapshot.getTicks().get(0).getTickIndex());
+            assertEquals(300, snapshot.getTicks().get(1).getTickIndex());
+            assertEquals(150, snapshot.getCursor());
+            assertEquals(400, snapshot.getNextCursor());
+            assertTrue(snapshot.isHasMore());
+            assertEquals(2, snapshot.getPageSize());
+        }
+    }
+
+    @Test
+    @DisplayName("fetchTickSnapshot should return empty snapshot when bitmap is not found")
+    void fetchTickSnapshot_ShouldReturnEmpty_WhenBitmapIsNotFound() {
+        try (MockedStatic<TickBitmapCache> tickBitmapMock = Mockito.mockStatic(TickBitmapCache.class);
+                MockedStatic<AmmPoolCache> ammPoolMock = Mockito.mockStatic(AmmPoolCache.class)) {
+            tickBitmapMock.when(TickBitmapCache::getInstance).thenReturn(mockTickBitmapCache);
+            ammPoolMock.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
+            when(mockTickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.empty());
+            when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.empty());
+
+            // Act
+            TickDelta snapshot = tickEvent.fetchTickSnapshot();
+
+            // Assert
+            assertTrue(snapshot.getTicks().isEmpty());
+            assertEquals(0L, snapshot.getPoolVersion());
+            assertFalse(snapshot.isHasMore());
         }
     }
+
+    private void stubSnapshotCaches(MockedStatic<TickBitmapCache> tickBitmapMock, MockedStatic<TickCache> tickCacheMock,
+            MockedStatic<AmmPoolCache> ammPoolMock, TickBitmap bitmap, int... tickIndexes) {
+        tickBitmapMock.when(TickBitmapCache::getInstance).thenReturn(mockTickBitmapCache);
+        tickCacheMock.when(TickCache::getInstance).thenReturn(mockTickCache);
+        ammPoolMock.when(AmmPoolCache::getInstance).thenReturn(mockAmmPoolCache);
+        when(mockTickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(bitmap));
+        when(mockAmmPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(mockAmmPool));
+        for (int tickIndex : tickIndexes) {
+            when(mockTickCache.getTick("BTC-USDT", tickIndex))
+                    .thenReturn(Optional.of(new Tick("BTC-USDT", tickIndex)));
+        }
+        when(mockAmmPoolCache.getAmmPoolPairs()).thenReturn(Set.of("BTC-USDT"));
+    }
+
+    /**
+     * Snapshot tick view chỉ được dựng trên disruptor thread; test giả lập bước đó
+     */
+    private void seedSnapshot() {
+        ReadSnapshotCache.getInstance().seedTickViews();
+    }
 }
@@ -470,6 +470,7 @@ class TradeEventTest {
         jsonNode.put("createdAt", isoTimestamp);
         jsonNode.put("releasedAt", isoTimestamp);
         jsonNode.put("cancelledAt", isoTimestamp);
+        jsonNode.put("expiresAt", isoTimestamp);
         
         // Create a new event to parse into
         TradeEvent newEvent = new TradeEvent();
@@ -483,6 +484,7 @@ class TradeEventTest {
         assertEquals(Instant.parse(isoTimestamp), newEvent.getCreatedAt());
         assertEquals(Instant.parse(isoTimestamp), newEvent.getCompletedAt());
         assertEquals(Instant.parse(isoTimestamp), newEvent.getCancelledAt());
+        assertEquals(Instant.parse(isoTimestamp), newEvent.getExpiresAt());
     }
 
     @Test
@@ -499,6 +501,7 @@ class TradeEventTest {
         jsonNode.put("createdAt", epochSeconds);
         jsonNode.put("releasedAt", epochSeconds);
         jsonNode.put("cancelledAt", epochSeconds);
+        jsonNode.put("expiresAt", epochSeconds);
         
         // Create a new event to parse into
         TradeEvent newEvent = new TradeEvent();
@@ -512,6 +515,7 @@ class TradeEventTest {
         assertEquals(Instant.ofEpochSecond(epochSeconds), newEvent.getCreatedAt());
         assertEquals(Instant.ofEpochSecond(epochSeconds), newEvent.getCompletedAt());
         assertEquals(Instant.ofEpochSecond(epochSeconds), newEvent.getCancelledAt());
+        assertEquals(Instant.ofEpochSecond(epochSeconds), newEvent.getExpiresAt());
     }
 
     @Test
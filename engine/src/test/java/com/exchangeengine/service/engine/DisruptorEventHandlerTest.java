@@ -5,7 +5,10 @@ import com.exchangeengine.model.event.DisruptorEvent;
 import com.exchangeengine.model.OperationType;
 import com.exchangeengine.model.ProcessResult;
 import com.exchangeengine.storage.StorageService;
+import com.exchangeengine.storage.cache.AccountCache;
 import com.exchangeengine.storage.cache.EventCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.util.EventClock;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.InOrder;
 import org.mockito.MockedConstruction;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -28,8 +32,12 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
 
 @ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -44,6 +52,12 @@ class DisruptorEventHandlerTest {
   @Mock
   private EventCache mockEventCache;
 
+  @Mock
+  private AccountCache mockAccountCache;
+
+  @Mock
+  private ReadSnapshotCache mockReadSnapshotCache;
+
   private DisruptorEventHandler eventHandler;
 
   @BeforeEach
@@ -59,6 +73,7 @@ class DisruptorEventHandlerTest {
 
     // Mock EventCache và đảm bảo mockStorageService.getEventCache() trả về mock này
     when(mockStorageService.getEventCache()).thenReturn(mockEventCache);
+    Mockito.lenient().when(mockStorageService.getAccountCache()).thenReturn(mockAccountCache);
 
     // Đảm bảo tất cả các phương thức được thiết lập trên mockEventCache
     Mockito.lenient().when(mockEventCache.isEventProcessed(anyString())).thenReturn(false);
@@ -78,6 +93,11 @@ class DisruptorEventHandlerTest {
       Field outputProcessorField = DisruptorEventHandler.class.getDeclaredField("outputProcessor");
       outputProcessorField.setAccessible(true);
       outputProcessorField.set(eventHandler, mockOutputProcessor);
+
+      // Tiêm mockReadSnapshotCache vào field readSnapshotCache của DisruptorEventHandler
+      Field readSnapshotCacheField = DisruptorEventHandler.class.getDeclaredField("readSnapshotCache");
+      readSnapshotCacheField.setAccessible(true);
+      readSnapshotCacheField.set(eventHandler, mockReadSnapshotCache);
     } catch (Exception e) {
       throw new RuntimeException("Failed to inject mocks using reflection", e);
     }
@@ -115,7 +135,34 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
+      // Kết quả được gắn vào event cho stage gom nến phía sau
+      assertNotNull(event.getProcessResult());
+    }
+  }
+
+  @Test
+  @DisplayName("onEvent nên publish read snapshot ở cuối batch")
+  void onEvent_ShouldPublishReadSnapshot_AtEndOfBatch() {
+    // Arrange
+    DisruptorEvent event = DisruptorEventFactory.withCoinDepositEvent();
+
+    try (
+        MockedConstruction<com.exchangeengine.service.engine.deposit.DepositProcessor> mockedProcessor = mockConstruction(
+            com.exchangeengine.service.engine.deposit.DepositProcessor.class,
+            (mock, context) -> when(mock.process()).thenReturn(ProcessResult.success(event)))) {
+
+      // Act
+      eventHandler.onEvent(event, 0, false);
+      eventHandler.onEvent(event, 1, true);
+
+      // Assert
+      InOrder inOrder = inOrder(mockReadSnapshotCache, mockOutputProcessor);
+      inOrder.verify(mockReadSnapshotCache).capture(any(ProcessResult.class));
+      inOrder.verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
+      inOrder.verify(mockReadSnapshotCache).capture(any(ProcessResult.class));
+      inOrder.verify(mockReadSnapshotCache).publish();
+      inOrder.verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(true));
     }
   }
 
@@ -146,7 +193,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -178,7 +225,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -210,7 +257,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -226,7 +273,7 @@ class DisruptorEventHandlerTest {
 
     // Assert
     verify(mockEventCache).updateEvent(event.getEventId());
-    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
   }
 
   @Test
@@ -241,7 +288,76 @@ class DisruptorEventHandlerTest {
 
     // Assert
     verify(mockEventCache).updateEvent(event.getEventId());
-    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
+  }
+
+  @Test
+  @DisplayName("onEvent nên mở account scope trước khi xử lý và đóng trước khi gửi output")
+  void onEvent_ShouldScopeAccountsToEvent() {
+    DisruptorEvent event = DisruptorEventFactory.withCoinDepositEvent();
+    when(mockEventCache.isEventProcessed(event.getEventId())).thenReturn(true);
+
+    eventHandler.onEvent(event, 0, false);
+
+    InOrder inOrder = inOrder(mockAccountCache, mockEventCache, mockOutputProcessor);
+    inOrder.verify(mockAccountCache).beginEvent();
+    inOrder.verify(mockEventCache).isEventProcessed(event.getEventId());
+    inOrder.verify(mockAccountCache).endEvent();
+    inOrder.verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
+  }
+
+  @Test
+  @DisplayName("Trong lúc xử lý event, đồng hồ business logic là timestamp và sequence của event")
+  void onEvent_ShouldUseEventTimestampAsClock() {
+    DisruptorEvent event = DisruptorEventFactory.withCoinDepositEvent();
+    event.setTimestamp(1_000L);
+    long[] observed = new long[2];
+    when(mockEventCache.isEventProcessed(event.getEventId())).thenAnswer(invocation -> {
+      observed[0] = EventClock.currentTimeMillis();
+      observed[1] = EventClock.nextSequence();
+      return true;
+    });
+    // Sequence của event lấy qua hàm chuyển đổi (sequence journal khi bật journal)
+    DisruptorEventHandler journaledHandler = new DisruptorEventHandler(sequence -> sequence + 100);
+
+    journaledHandler.onEvent(event, 7, false);
+
+    assertEquals(1_000L, observed[0]);
+    assertEquals(107L << 16, observed[1]);
+    assertTrue(EventClock.currentTimeMillis() > 1_000L, "Ngoài event quay lại giờ hệ thống");
+  }
+
+  @Test
+  @DisplayName("onEvent giữ barrier trong lúc xử lý, flush chỉ chạy sau khi event xong")
+  void onEvent_ShouldHoldBarrierWhileProcessing() throws Exception {
+    DisruptorEvent event = DisruptorEventFactory.withCoinDepositEvent();
+    ProcessingBarrier barrier = new ProcessingBarrier();
+    DisruptorEventHandler barrierHandler = new DisruptorEventHandler(LongUnaryOperator.identity(), barrier);
+    AtomicLong pausedAt = new AtomicLong(Long.MIN_VALUE);
+    Thread flusher = new Thread(() -> barrier.runPaused(pausedAt::set));
+    when(mockEventCache.isEventProcessed(event.getEventId())).thenAnswer(invocation -> {
+      flusher.start();
+      flusher.join(50);
+      return true;
+    });
+
+    barrierHandler.onEvent(event, 7, true);
+    flusher.join(1000);
+
+    assertEquals(7L, pausedAt.get());
+  }
+
+  @Test
+  @DisplayName("onEvent dừng business logic khi OutputProcessor không gom được event vào batch")
+  void onEvent_ShouldHalt_WhenStorageBatchingFailed() {
+    DisruptorEvent event = DisruptorEventFactory.withCoinDepositEvent();
+    when(mockOutputProcessor.hasStorageFailure()).thenReturn(true);
+    when(mockOutputProcessor.getFailedSequence()).thenReturn(4L);
+
+    assertThrows(IllegalStateException.class, () -> eventHandler.onEvent(event, 5, true));
+
+    verifyNoInteractions(mockEventCache);
+    verify(mockOutputProcessor, never()).processOutput(any(), anyLong(), anyBoolean());
   }
 
   @Test
@@ -256,7 +372,7 @@ class DisruptorEventHandlerTest {
 
     // Assert
     verify(mockEventCache).updateEvent(any());
-    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
   }
 
   @Test
@@ -276,8 +392,8 @@ class DisruptorEventHandlerTest {
 
     // Assert
     verify(mockEventCache, times(3)).updateEvent(any());
-    verify(mockOutputProcessor, times(3)).processOutput(any(ProcessResult.class), anyBoolean());
-    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(true));
+    verify(mockOutputProcessor, times(3)).processOutput(any(ProcessResult.class), anyLong(), anyBoolean());
+    verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(true));
   }
 
   @Test
@@ -305,7 +421,7 @@ class DisruptorEventHandlerTest {
 
     // Assert
     // Kiểm tra ProcessResult đã được gửi tới OutputProcessor
-    verify(mockOutputProcessor).processOutput(resultCaptor.capture(), eq(false));
+    verify(mockOutputProcessor).processOutput(resultCaptor.capture(), anyLong(), eq(false));
 
     // Kiểm tra ProcessResult đã được ghi nhận đúng
     ProcessResult capturedResult = resultCaptor.getValue();
@@ -340,7 +456,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -372,7 +488,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -403,7 +519,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Check if EventCache.updateEvent and OutputProcessor.processOutput were called
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -434,7 +550,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -488,7 +604,7 @@ class DisruptorEventHandlerTest {
 
       // Capture the ProcessResult sent to outputProcessor
       ArgumentCaptor<ProcessResult> resultCaptor = ArgumentCaptor.forClass(ProcessResult.class);
-      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), eq(true));
+      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), anyLong(), eq(true));
 
       // Verify the error was properly set
       ProcessResult capturedResult = resultCaptor.getValue();
@@ -521,7 +637,7 @@ class DisruptorEventHandlerTest {
       // Assert
       verify(mockedProcessor.constructed().get(0)).process();
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(isNull(), eq(false));
+      verify(mockOutputProcessor).processOutput(isNull(), anyLong(), eq(false));
     }
   }
 
@@ -551,7 +667,7 @@ class DisruptorEventHandlerTest {
       // Kiểm tra xem process() đã được gọi chưa
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra ProcessResult đã được gửi tới OutputProcessor
-      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), eq(false));
+      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), anyLong(), eq(false));
       // Kiểm tra ProcessResult đã được ghi nhận đúng
       ProcessResult capturedResult = resultCaptor.getValue();
       assertFalse(capturedResult.getEvent().isSuccess(),
@@ -588,7 +704,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -619,7 +735,7 @@ class DisruptorEventHandlerTest {
 
       // Kiểm tra rằng event đã được đặt thành trạng thái lỗi
       ArgumentCaptor<ProcessResult> resultCaptor = ArgumentCaptor.forClass(ProcessResult.class);
-      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), eq(false));
+      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), anyLong(), eq(false));
 
       ProcessResult capturedResult = resultCaptor.getValue();
       assertFalse(capturedResult.getEvent().isSuccess());
@@ -657,7 +773,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -688,7 +804,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -720,7 +836,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -752,7 +868,7 @@ class DisruptorEventHandlerTest {
       verify(mockedProcessor.constructed().get(0)).process();
       // Kiểm tra EventCache.updateEvent và OutputProcessor.processOutput được gọi
       verify(mockEventCache).updateEvent(event.getEventId());
-      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), eq(false));
+      verify(mockOutputProcessor).processOutput(any(ProcessResult.class), anyLong(), eq(false));
     }
   }
 
@@ -784,7 +900,7 @@ class DisruptorEventHandlerTest {
       verify(mockEventCache).updateEvent(event.getEventId());
       // Kiểm tra OutputProcessor.processOutput được gọi với result có isSuccess = false
       ArgumentCaptor<ProcessResult> resultCaptor = ArgumentCaptor.forClass(ProcessResult.class);
-      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), eq(false));
+      verify(mockOutputProcessor).processOutput(resultCaptor.capture(), anyLong(), eq(false));
       assertFalse(resultCaptor.getValue().getEvent().getErrorMessage() == null);
     }
   }
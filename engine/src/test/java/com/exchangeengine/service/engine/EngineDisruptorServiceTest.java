@@ -22,9 +22,12 @@ import com.exchangeengine.model.event.AmmOrderEvent;
 import com.exchangeengine.model.event.TradeEvent;
 import com.exchangeengine.model.event.OfferEvent;
 import com.exchangeengine.model.event.BalancesLockEvent;
+import com.exchangeengine.service.engine.candle.CandleEventHandler;
+import com.exchangeengine.storage.journal.InputJournal;
 import com.exchangeengine.util.EnvManager;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.EventHandler;
 
 import org.junit.jupiter.api.AfterEach;
@@ -44,8 +47,10 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -240,6 +245,30 @@ class EngineDisruptorServiceTest {
     verify(mockRingBuffer).publish(0L);
   }
 
+  @Test
+  @DisplayName("Phương thức publishEvents nên claim và publish cả dải sequence một lần")
+  void publishEvents_ShouldPublishSequenceRange() {
+    // Arrange
+    DisruptorEvent first = DisruptorEventFactory.withCoinDepositEvent();
+    DisruptorEvent second = DisruptorEventFactory.withAccountEvent();
+    DisruptorEvent firstBuffer = new DisruptorEvent();
+    DisruptorEvent secondBuffer = new DisruptorEvent();
+
+    when(mockRingBuffer.getBufferSize()).thenReturn(1024);
+    when(mockRingBuffer.next(2)).thenReturn(11L);
+    when(mockRingBuffer.get(10L)).thenReturn(firstBuffer);
+    when(mockRingBuffer.get(11L)).thenReturn(secondBuffer);
+
+    // Act
+    engineDisruptorService.publishEvents(Arrays.asList(first, second));
+
+    // Assert
+    assertNotNull(firstBuffer.getCoinDepositEvent());
+    assertNotNull(secondBuffer.getAccountEvent());
+    verify(mockRingBuffer).publish(10L, 11L);
+    verify(mockRingBuffer, never()).next();
+  }
+
   @Test
   @DisplayName("Phương thức publishEvent nên đảm bảo publish được gọi trong khối finally ngay cả khi có exception")
   void publishEvent_ShouldCallPublishEvenWhenExceptionOccurs() {
@@ -438,6 +467,7 @@ class EngineDisruptorServiceTest {
       EnvManager mockEnvManager = mock(EnvManager.class);
       OutputProcessor mockOutputProcessor = mock(OutputProcessor.class);
       RingBuffer<DisruptorEvent> mockRingBuffer = mock(RingBuffer.class);
+      EventHandlerGroup<DisruptorEvent> mockHandlerGroup = mock(EventHandlerGroup.class);
       Runnable mockRunnable = mock(Runnable.class);
 
       // Cấu hình mock EnvManager
@@ -449,15 +479,19 @@ class EngineDisruptorServiceTest {
           MockedStatic<OutputProcessor> mockedOutputProcessor = mockStatic(OutputProcessor.class);
           MockedConstruction<DisruptorEventHandler> mockedHandlerConstruction = mockConstruction(
               DisruptorEventHandler.class);
+          MockedConstruction<CandleEventHandler> mockedCandleHandlerConstruction = mockConstruction(
+              CandleEventHandler.class);
           MockedConstruction<Disruptor> mockedDisruptorConstruction = mockConstruction(Disruptor.class,
               (mock, ctx) -> {
                 when(mock.getRingBuffer()).thenReturn(mockRingBuffer);
-                when(mock.handleEventsWith(any(EventHandler.class))).thenReturn(null);
+                when(mock.handleEventsWith(any(EventHandler.class))).thenReturn(mockHandlerGroup);
               })) {
 
         // Thiết lập mock cho static methods
         mockedEnvManager.when(EnvManager::getInstance).thenReturn(mockEnvManager);
         mockedOutputProcessor.when(OutputProcessor::getInstance).thenReturn(mockOutputProcessor);
+        // Journal tắt: giữ nguyên chuỗi handler business logic rồi gom nến
+        InputJournal.setTestInstance(mock(InputJournal.class));
 
         // Đặt instance về null để có thể test createInstance
         instanceField.set(null, null);
@@ -474,6 +508,8 @@ class EngineDisruptorServiceTest {
 
         // Kiểm tra xem các mocked constructor được gọi
         assertEquals(1, mockedHandlerConstruction.constructed().size(), "Nên tạo 1 DisruptorEventHandler");
+        assertEquals(1, mockedCandleHandlerConstruction.constructed().size(), "Nên tạo 1 CandleEventHandler");
+        verify(mockHandlerGroup).then(mockedCandleHandlerConstruction.constructed().get(0));
         assertEquals(1, mockedDisruptorConstruction.constructed().size(), "Nên tạo 1 Disruptor");
 
         // Test ThreadFactory từ EngineDisruptorService
@@ -969,6 +1005,52 @@ class EngineDisruptorServiceTest {
     assertEquals(balancesLockEvent, sourceEvent.getBalancesLockEvent());
   }
 
+  @Test
+  @DisplayName("runPaused chờ OutputProcessor gom batch tới event cuối trong lúc business logic dừng")
+  void runPaused_ShouldWaitForStoredSequence() throws Exception {
+    ProcessingBarrier barrier = new ProcessingBarrier();
+    EngineDisruptorService service = createEngineDisruptorServiceInstance(barrier);
+    barrier.enter();
+    barrier.exit(10);
+    OutputProcessor processor = mock(OutputProcessor.class);
+    try (MockedStatic<OutputProcessor> mockedOutputProcessor = mockStatic(OutputProcessor.class)) {
+      mockedOutputProcessor.when(OutputProcessor::getInstance).thenReturn(processor);
+      when(processor.getStoredSequence()).thenReturn(7L, 9L, 10L);
+
+      AtomicLong pausedAt = new AtomicLong(Long.MIN_VALUE);
+      service.runPaused(pausedAt::set);
+
+      assertEquals(10L, pausedAt.get());
+      verify(processor, times(3)).getStoredSequence();
+    }
+  }
+
+  @Test
+  @DisplayName("runPaused không chạy action khi phần gom batch bị kẹt")
+  void runPaused_ShouldFailWhenStoredSequenceIsStuck() throws Exception {
+    ProcessingBarrier barrier = new ProcessingBarrier();
+    EngineDisruptorService service = createEngineDisruptorServiceInstance(barrier);
+    barrier.enter();
+    barrier.exit(10);
+    OutputProcessor processor = mock(OutputProcessor.class);
+    try (MockedStatic<OutputProcessor> mockedOutputProcessor = mockStatic(OutputProcessor.class)) {
+      mockedOutputProcessor.when(OutputProcessor::getInstance).thenReturn(processor);
+      when(processor.getStoredSequence()).thenReturn(7L);
+
+      AtomicLong pausedAt = new AtomicLong(Long.MIN_VALUE);
+      assertThrows(IllegalStateException.class, () -> service.runPaused(pausedAt::set));
+
+      assertEquals(Long.MIN_VALUE, pausedAt.get());
+    }
+  }
+
+  private EngineDisruptorService createEngineDisruptorServiceInstance(ProcessingBarrier barrier) throws Exception {
+    Constructor<EngineDisruptorService> constructor = EngineDisruptorService.class
+        .getDeclaredConstructor(Disruptor.class, RingBuffer.class, String.class, ProcessingBarrier.class);
+    constructor.setAccessible(true);
+    return constructor.newInstance(mockDisruptor, mockRingBuffer, "test-service", barrier);
+  }
+
   private void resetInstance() throws Exception {
     Field instanceField = EngineDisruptorService.class.getDeclaredField("instance");
     instanceField.setAccessible(true);
@@ -0,0 +1,65 @@
+package com.exchangeengine.service.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.storage.journal.InputJournal;
+
+@ExtendWith(MockitoExtension.class)
+class JournalEventHandlerTest {
+
+  @Mock
+  private InputJournal inputJournal;
+
+  @Test
+  @DisplayName("Event được ghi vào journal, cuối batch thì gọi endOfBatch")
+  void onEvent_ShouldAppendAndEndBatch() throws Exception {
+    JournalEventHandler handler = new JournalEventHandler(inputJournal);
+    DisruptorEvent first = new DisruptorEvent();
+    DisruptorEvent second = new DisruptorEvent();
+
+    handler.onEvent(first, 7, false);
+    handler.onEvent(second, 8, true);
+
+    InOrder inOrder = inOrder(inputJournal);
+    inOrder.verify(inputJournal).append(7, first);
+    inOrder.verify(inputJournal).append(8, second);
+    inOrder.verify(inputJournal).endOfBatch();
+  }
+
+  @Test
+  @DisplayName("Lỗi ghi journal tạm thời được thử lại")
+  void onEvent_WhenAppendFailsOnce_ShouldRetry() throws Exception {
+    DisruptorEvent event = new DisruptorEvent();
+    doThrow(new IOException("busy")).doNothing().when(inputJournal).append(0, event);
+    JournalEventHandler handler = new JournalEventHandler(inputJournal, 0);
+
+    handler.onEvent(event, 0, true);
+
+    verify(inputJournal, times(2)).append(0, event);
+    verify(inputJournal).endOfBatch();
+  }
+
+  @Test
+  @DisplayName("Ghi journal lỗi liên tục thì dừng stage, không cho event đi tiếp")
+  void onEvent_WhenAppendKeepsFailing_ShouldThrow() throws IOException {
+    doThrow(new IOException("disk full")).when(inputJournal).append(anyLong(), any());
+    JournalEventHandler handler = new JournalEventHandler(inputJournal, 0);
+
+    assertThrows(IllegalStateException.class, () -> handler.onEvent(new DisruptorEvent(), 0, true));
+    verify(inputJournal, times(JournalEventHandler.MAX_APPEND_ATTEMPTS)).append(anyLong(), any());
+    verify(inputJournal, never()).endOfBatch();
+  }
+}
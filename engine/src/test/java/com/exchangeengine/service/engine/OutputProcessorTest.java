@@ -42,6 +42,7 @@ import com.exchangeengine.factory.TickFactory;
 import com.exchangeengine.factory.TradeFactory;
 import com.exchangeengine.model.Offer;
 import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickDelta;
 import com.exchangeengine.model.Trade;
 import com.exchangeengine.storage.cache.OfferCache;
 import com.exchangeengine.storage.cache.TradeCache;
@@ -54,6 +55,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.MockedStatic;
@@ -67,6 +69,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ExecutorService;
@@ -165,6 +168,11 @@ class OutputProcessorTest {
     storageServiceField.setAccessible(true);
     storageServiceField.set(outputProcessor, storageService);
 
+    // Thử lại gom batch không chờ
+    Field backoffField = OutputProcessor.class.getDeclaredField("storageRetryBackoffMs");
+    backoffField.setAccessible(true);
+    backoffField.set(outputProcessor, 0L);
+
     // Replace the TestUtils code with direct reflection
     try {
       Field kafkaExecutorField = OutputProcessor.class.getDeclaredField("kafkaExecutor");
@@ -288,7 +296,7 @@ class OutputProcessorTest {
     result.setAmmPool(ammPool);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -312,7 +320,7 @@ class OutputProcessorTest {
     // Không có AmmPool
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -324,51 +332,105 @@ class OutputProcessorTest {
   }
 
   @Test
-  @DisplayName("Test cho việc flush to disk khi endOfBatch là true")
-  void processOutput_ShouldFlushToDisk_WhenEndOfBatchIsTrue() throws Exception {
-    // Given
-    DisruptorEvent event = createTestEventWithId(EVENT_ID);
-    ProcessResult result = ProcessResult.success(event);
+  @DisplayName("getStoredSequence chỉ tăng khi mọi event tới sequence đó đã được gom vào batch")
+  void getStoredSequence_ShouldAdvanceAfterContiguousStorageTasks() throws Exception {
+    // Given - giữ task lại thay vì chạy ngay
+    java.util.List<Runnable> tasks = new java.util.ArrayList<>();
+    when(mockExecutorService.submit(any(Runnable.class))).thenAnswer(invocation -> {
+      tasks.add(invocation.getArgument(0));
+      return null;
+    });
+    ProcessResult first = ProcessResult.success(createTestEventWithId("event-0"));
+    ProcessResult second = ProcessResult.success(createTestEventWithId("event-1"));
 
     // When
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(first, 0L, false);
+    outputProcessor.processOutput(second, 1L, true);
 
-    // Sleep briefly to allow async tasks to complete
-    Thread.sleep(100);
+    // Then - business logic xong nhưng chưa gom batch
+    assertEquals(-1L, outputProcessor.getStoredSequence());
 
-    // Then
-    verify(storageService).flushToDisk();
+    // Task storage của event 1 xong trước event 0
+    tasks.get(3).run();
+    assertEquals(-1L, outputProcessor.getStoredSequence());
+    tasks.get(1).run();
+    assertEquals(1L, outputProcessor.getStoredSequence());
+
+    // Result null không có gì để lưu, sequence vẫn đi tiếp
+    outputProcessor.processOutput(null, 2L, false);
+    assertEquals(2L, outputProcessor.getStoredSequence());
   }
 
   @Test
-  @DisplayName("Test cho việc shutdown thành công")
-  void shutdown_ShouldFlushToDisk() throws Exception {
+  @DisplayName("getStoredSequence dừng lại khi event không gom được vào batch")
+  void getStoredSequence_ShouldNotPassFailedStorageTask() throws Exception {
+    // Given
+    java.util.List<Runnable> tasks = new java.util.ArrayList<>();
+    when(mockExecutorService.submit(any(Runnable.class))).thenAnswer(invocation -> {
+      tasks.add(invocation.getArgument(0));
+      return null;
+    });
+    Account account = AccountFactory.create(ACCOUNT_KEY);
+    ProcessResult failed = ProcessResult.success(createTestEventWithId("event-0"));
+    failed.setAccount(account);
+    doThrow(new RuntimeException("Error processing account")).when(accountCache).addAccountToBatch(account);
+
     // When
-    outputProcessor.shutdown();
+    outputProcessor.processOutput(failed, 0L, false);
+    outputProcessor.processOutput(null, 1L, true);
+    tasks.forEach(Runnable::run);
+
+    // Then - vị trí bền không vượt qua event 0
+    assertEquals(-1L, outputProcessor.getStoredSequence());
+  }
+
+  @Test
+  @DisplayName("Lỗi gom batch tạm thời được thử lại, sequence vẫn đi tiếp")
+  void processOutput_ShouldRetryTransientStorageFailure() throws Exception {
+    // Given
+    Account account = AccountFactory.create(ACCOUNT_KEY);
+    ProcessResult result = ProcessResult.success(createTestEventWithId(EVENT_ID));
+    result.setAccount(account);
+    doThrow(new RuntimeException("Transient error")).doNothing().when(accountCache).addAccountToBatch(account);
+
+    // When
+    outputProcessor.processOutput(result, 0L, true);
+    Thread.sleep(100);
 
     // Then
-    verify(storageService).flushToDisk();
+    verify(accountCache, times(2)).addAccountToBatch(account);
+    assertEquals(0L, outputProcessor.getStoredSequence());
+    assertEquals(1L, outputProcessor.getStorageRetries());
+    assertFalse(outputProcessor.hasStorageFailure());
+    assertEquals(-1L, outputProcessor.getMetrics().get("failedSequence"));
   }
 
   @Test
-  @DisplayName("Test cho việc flush to disk khi StorageService says it should flush")
-  void processOutput_ShouldFlushToDisk_WhenStorageServiceSaysItShouldFlush() throws Exception {
+  @DisplayName("Test cho việc không flush to disk khi endOfBatch là true, FlushScheduler quyết định flush")
+  void processOutput_ShouldNotFlushToDisk_WhenEndOfBatchIsTrue() throws Exception {
     // Given
     DisruptorEvent event = createTestEventWithId(EVENT_ID);
     ProcessResult result = ProcessResult.success(event);
 
-    // StorageService says it should flush
-    when(storageService.shouldFlush()).thenReturn(true);
-
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
 
     // Then
-    verify(storageService).shouldFlush();
-    verify(storageService).flushToDisk();
+    verify(storageService, never()).flushToDisk();
+  }
+
+  @Test
+  @DisplayName("Test cho việc shutdown chờ các task storage và không tự flush")
+  void shutdown_ShouldAwaitStorageTasksWithoutFlushing() throws Exception {
+    // When
+    outputProcessor.shutdown();
+
+    // Then
+    verify(mockExecutorService, atLeastOnce()).awaitTermination(anyLong(), any(TimeUnit.class));
+    verify(storageService, never()).flushToDisk();
   }
 
   @Test
@@ -384,7 +446,7 @@ class OutputProcessorTest {
     result.setDeposit(deposit);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -406,7 +468,7 @@ class OutputProcessorTest {
     result.setWithdrawal(withdrawal);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -428,7 +490,7 @@ class OutputProcessorTest {
     result.setAccountHistory(history);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -451,7 +513,7 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Kafka connection error")).when(kafkaProducerService).sendTransactionResult(any());
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -475,14 +537,17 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Storage error")).when(accountCache).addAccountToBatch(any());
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
 
     // Then - Kafka processing should still happen despite Storage error
     verify(kafkaProducerService).sendTransactionResult(event);
-    verify(accountCache).addAccountToBatch(account);
+    // Gom batch được thử lại rồi ghi nhận sequence hỏng
+    verify(accountCache, times(OutputProcessor.MAX_STORAGE_ATTEMPTS)).addAccountToBatch(account);
+    assertTrue(outputProcessor.hasStorageFailure());
+    assertEquals(0L, outputProcessor.getFailedSequence());
   }
 
   @Test
@@ -497,7 +562,6 @@ class OutputProcessorTest {
 
     // Setup exceptions using lenient to avoid UnnecessaryStubbingException
     lenient().doThrow(new RuntimeException("Critical storage error")).when(accountCache).addAccountToBatch(any());
-    lenient().doThrow(new RuntimeException("Critical storage error")).when(storageService).shouldFlush();
     lenient().doThrow(new RuntimeException("Critical storage error")).when(storageService).flushToDisk();
 
     // Get access to the private method using reflection
@@ -516,16 +580,17 @@ class OutputProcessorTest {
   }
 
   @Test
-  @DisplayName("Test cho việc shutdown nên xử lý lỗi khi flushToDisk")
-  void shutdown_ShouldHandleExceptionDuringFlush() throws Exception {
+  @DisplayName("Test cho việc shutdown nên xử lý khi bị interrupt lúc chờ task storage")
+  void shutdown_ShouldHandleInterruptWhileAwaiting() throws Exception {
     // Given
-    doThrow(new RuntimeException("Critical flush error")).when(storageService).flushToDisk();
+    when(mockExecutorService.awaitTermination(anyLong(), any(TimeUnit.class)))
+        .thenThrow(new InterruptedException("Interrupted"));
 
     // When - Should not throw exception
     outputProcessor.shutdown();
 
     // Then
-    verify(storageService).flushToDisk();
+    assertTrue(Thread.interrupted());
   }
 
   @Test
@@ -541,7 +606,7 @@ class OutputProcessorTest {
     result.setAmmPool(ammPool);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -561,7 +626,7 @@ class OutputProcessorTest {
     // No fields set in result - all fields are null
 
     // When - Should not throw exception
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -594,7 +659,7 @@ class OutputProcessorTest {
           result.setAccount(account);
 
           // Process output
-          outputProcessor.processOutput(result, index == threadCount - 1);
+          outputProcessor.processOutput(result, index, index == threadCount - 1);
         } catch (Exception e) {
           fail("Exception should not be thrown: " + e.getMessage());
         } finally {
@@ -620,8 +685,8 @@ class OutputProcessorTest {
     verify(kafkaProducerService, times(threadCount)).sendCoinAccountUpdate(any(String.class), any(Account.class));
     verify(accountCache, times(threadCount)).addAccountToBatch(any());
 
-    // The last thread should have triggered a flush
-    verify(storageService, atLeastOnce()).flushToDisk();
+    // Flush là việc của FlushScheduler
+    verify(storageService, never()).flushToDisk();
   }
 
   @Test
@@ -643,7 +708,7 @@ class OutputProcessorTest {
         .setAmmPool(ammPool);
 
     // Process output
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Sleep to allow async tasks to complete
     Thread.sleep(200);
@@ -657,7 +722,7 @@ class OutputProcessorTest {
     verify(withdrawalCache).addWithdrawalToBatch(withdrawal);
     verify(accountHistoryCache).addHistoryToBatch(history);
     verify(ammPoolCache).addAmmPoolToBatch(ammPool);
-    verify(storageService).flushToDisk();
+    verify(storageService, never()).flushToDisk();
   }
 
   @Test
@@ -694,7 +759,7 @@ class OutputProcessorTest {
     result.setFiatAccountHistory(fiatAccountHistory);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -717,7 +782,7 @@ class OutputProcessorTest {
     result.setCoinAccountHistory(coinAccountHistory);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -739,7 +804,7 @@ class OutputProcessorTest {
     result.setFiatAccount(fiatAccount);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -764,7 +829,7 @@ class OutputProcessorTest {
     result.setFiatAccount(fiatAccount);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -793,7 +858,7 @@ class OutputProcessorTest {
     result.setMerchantEscrow(merchantEscrow);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -816,7 +881,7 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Test exception")).when(accountCache).addAccountToBatch(account);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -876,7 +941,7 @@ class OutputProcessorTest {
     result.setCoinAccount(coinAccount);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -906,7 +971,7 @@ class OutputProcessorTest {
     result.setCoinAccountHistory(coinAccountHistory);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -930,7 +995,7 @@ class OutputProcessorTest {
     result.setAmmPosition(ammPosition);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -954,7 +1019,7 @@ class OutputProcessorTest {
         .when(kafkaProducerService).sendAmmPositionUpdate(any(ProcessResult.class));
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -980,7 +1045,7 @@ class OutputProcessorTest {
     result.setAmmPosition(ammPosition);
 
     // When
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -993,7 +1058,7 @@ class OutputProcessorTest {
     // TransactionResult should not be sent when AmmPool or AmmPosition is present
     verify(kafkaProducerService, never()).sendTransactionResult(any());
     // FlushToDisk should be called because endOfBatch is true
-    verify(storageService).flushToDisk();
+    verify(storageService, never()).flushToDisk();
   }
 
   @Test
@@ -1015,7 +1080,7 @@ class OutputProcessorTest {
     result.addAccount(account3);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1050,7 +1115,7 @@ class OutputProcessorTest {
     result.addAccountHistory(history3);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1091,7 +1156,7 @@ class OutputProcessorTest {
     result.addAccountHistory(collectionHistory2);
 
     // When
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1114,7 +1179,7 @@ class OutputProcessorTest {
     verify(kafkaProducerService).sendCoinAccountUpdate(EVENT_ID, collectionAccount2);
 
     // Kiểm tra flush khi endOfBatch là true
-    verify(storageService).flushToDisk();
+    verify(storageService, never()).flushToDisk();
   }
 
   @Test
@@ -1138,7 +1203,7 @@ class OutputProcessorTest {
         .addAccountToBatch(account1);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1150,7 +1215,8 @@ class OutputProcessorTest {
     verify(kafkaProducerService, times(1)).sendCoinAccountUpdate(EVENT_ID, account2);
 
     // Verify rằng account2 vẫn được lưu vào cache mặc dù account1 gây ra exception
-    verify(accountCache, times(1)).addAccountToBatch(account2);
+    // (mỗi lần thử lại gom lại cả event)
+    verify(accountCache, times(OutputProcessor.MAX_STORAGE_ATTEMPTS)).addAccountToBatch(account2);
   }
 
   @Test
@@ -1168,7 +1234,7 @@ class OutputProcessorTest {
     result.setAccount(singleAccount);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1210,14 +1276,14 @@ class OutputProcessorTest {
         .addHistoryToBatch(history1);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
 
     // Then
-    // Verify rằng history1 được gọi (gây ra ngoại lệ)
-    verify(accountHistoryCache, times(1)).addHistoryToBatch(history1);
+    // Verify rằng history1 được gọi (gây ra ngoại lệ) ở mọi lần thử lại
+    verify(accountHistoryCache, times(OutputProcessor.MAX_STORAGE_ATTEMPTS)).addHistoryToBatch(history1);
 
     // Verify rằng history2 KHÔNG được gọi vì vòng lặp forEach đã bị gián đoạn bởi
     // ngoại lệ
@@ -1247,7 +1313,7 @@ class OutputProcessorTest {
     result.addAccount(account3);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1279,7 +1345,7 @@ class OutputProcessorTest {
     lenient().when(storageService.getAmmOrderCache()).thenReturn(ammOrderCache);
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1302,7 +1368,7 @@ class OutputProcessorTest {
     result.setOffer(offer);
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1323,7 +1389,7 @@ class OutputProcessorTest {
     result.setTrade(trade);
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1346,7 +1412,7 @@ class OutputProcessorTest {
     result.setSellerAccount(sellerAccount);
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1372,7 +1438,7 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Kafka error")).when(kafkaProducerService).sendOfferUpdate(any(ProcessResult.class));
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1396,7 +1462,7 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Kafka error")).when(kafkaProducerService).sendTradeUpdate(any(ProcessResult.class));
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1407,52 +1473,74 @@ class OutputProcessorTest {
   }
 
   @Test
-  @DisplayName("Test cho việc processOutput nên gửi tick updates khi result chứa ticks")
-  void processOutput_ShouldSendTickUpdates_WhenResultContainsTicks() throws Exception {
+  @DisplayName("Test cho việc processOutput gửi một tick delta cho mỗi pool khi result chứa ticks")
+  void processOutput_ShouldSendOneTickDeltaPerPool_WhenResultContainsTicks() throws Exception {
     // Arrange
     DisruptorEvent event = DisruptorEventFactory.create();
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPool ethPool = new AmmPool("ETH-USDT");
+    ethPool.setTxCount(7);
+    when(ammPoolCache.getAmmPool("ETH-USDT")).thenReturn(Optional.of(ethPool));
 
     // Create ticks
     Tick tick1 = new TickFactory().createTick("BTC-USDT", 1000);
-    Tick tick2 = new TickFactory().createTick("ETH-USDT", 2000);
+    Tick tick2 = new TickFactory().createTick("BTC-USDT", 1060);
+    Tick tick3 = new TickFactory().createTick("ETH-USDT", 2000);
+
+    AmmPool btcPool = new AmmPool("BTC-USDT");
+    btcPool.setTxCount(42);
 
     ProcessResult result = new ProcessResult(event);
+    result.setAmmPool(btcPool);
     result.addTick(tick1);
     result.addTick(tick2);
+    result.addTick(tick3);
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
 
     // Assert
-    verify(kafkaProducerService).sendTickUpdate(tick1);
-    verify(kafkaProducerService).sendTickUpdate(tick2);
+    ArgumentCaptor<TickDelta> deltaCaptor = ArgumentCaptor.forClass(TickDelta.class);
+    verify(kafkaProducerService, times(2)).sendTickDelta(deltaCaptor.capture());
+    verify(kafkaProducerService, never()).sendTickUpdate(any(Tick.class));
+
+    TickDelta btcDelta = deltaCaptor.getAllValues().get(0);
+    assertEquals("BTC-USDT", btcDelta.getPoolPair());
+    assertEquals(42L, btcDelta.getPoolVersion());
+    assertEquals(List.of(tick1, tick2), btcDelta.getTicks());
+
+    TickDelta ethDelta = deltaCaptor.getAllValues().get(1);
+    assertEquals("ETH-USDT", ethDelta.getPoolPair());
+    assertEquals(7L, ethDelta.getPoolVersion());
+    assertEquals(List.of(tick3), ethDelta.getTicks());
   }
 
   @Test
-  @DisplayName("Test cho việc processOutput xử lý exception khi sendTickUpdate gặp lỗi")
-  void processOutput_ShouldHandleException_WhenSendTickUpdateFails() throws Exception {
+  @DisplayName("Test cho việc processOutput xử lý exception khi sendTickDelta gặp lỗi")
+  void processOutput_ShouldHandleException_WhenSendTickDeltaFails() throws Exception {
     // Arrange
     DisruptorEvent event = DisruptorEventFactory.create();
     Tick tick = new TickFactory().createTick("BTC-USDT", 1000);
 
     ProcessResult result = new ProcessResult(event);
+    result.setAmmPool(new AmmPool("BTC-USDT"));
     result.addTick(tick);
 
     // Giả lập lỗi khi gửi Kafka message
-    doThrow(new RuntimeException("Kafka error")).when(kafkaProducerService).sendTickUpdate(any(Tick.class));
+    doThrow(new RuntimeException("Kafka error")).when(kafkaProducerService).sendTickDelta(any(TickDelta.class));
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
 
     // Assert
     // Verify rằng ngoại lệ được xử lý và không ảnh hưởng đến luồng xử lý
-    verify(kafkaProducerService).sendTickUpdate(tick);
+    verify(kafkaProducerService).sendTickDelta(any(TickDelta.class));
   }
 
   @Test
@@ -1469,7 +1557,7 @@ class OutputProcessorTest {
     doThrow(new RuntimeException("Storage error")).when(offerCache).addOfferToBatch(any(Offer.class));
 
     // Act
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1539,7 +1627,7 @@ class OutputProcessorTest {
         .addAccountHistory(collectionHistory2);
 
     // Act
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1547,7 +1635,7 @@ class OutputProcessorTest {
     // Assert - Verify rằng tất cả các loại xử lý đều được thực hiện
 
     // Verify storageService
-    verify(storageService).flushToDisk(); // endOfBatch == true
+    verify(storageService, never()).flushToDisk(); // FlushScheduler flush, không phải OutputProcessor
 
     // Verify account cache
     verify(accountCache).addAccountToBatch(account);
@@ -1613,7 +1701,7 @@ class OutputProcessorTest {
         .setWithdrawal(withdrawal);
 
     // Act
-    outputProcessor.processOutput(result, true);
+    outputProcessor.processOutput(result, 0L, true);
 
     // Assert
     // Verify that both sender and recipient account updates were sent to Kafka
@@ -1676,7 +1764,7 @@ class OutputProcessorTest {
     result.setBalanceLock(balanceLock);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -1699,7 +1787,7 @@ class OutputProcessorTest {
     result.setWithdrawal(withdrawal);
 
     // When
-    outputProcessor.processOutput(result, false);
+    outputProcessor.processOutput(result, 0L, false);
 
     // Sleep briefly to allow async tasks to complete
     Thread.sleep(100);
@@ -0,0 +1,193 @@
+package com.exchangeengine.service.engine.amm_fee;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmPosition;
+import com.exchangeengine.model.AmmPositionFee;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.AmmPositionCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickBitmapCache;
+import com.exchangeengine.storage.cache.TickCache;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PositionFeeReportServiceTest {
+
+  private static final String POOL = "BTC-USDT";
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  @Mock
+  private KafkaProducerService kafkaProducerService;
+
+  private AmmPool pool;
+  private TickBitmap tickBitmap;
+  private PositionFeeReportService service;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    KafkaProducerService.setTestInstance(kafkaProducerService);
+    ReadSnapshotCache.resetInstance();
+
+    pool = new AmmPool(POOL);
+    pool.setCurrentTick(60);
+    pool.setFeeGrowthGlobal0(new BigDecimal("10"));
+    pool.setFeeGrowthGlobal1(new BigDecimal("4"));
+    pool.setTxCount(7);
+    when(ammPoolCache.getAmmPool(POOL)).thenReturn(Optional.of(pool));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(new HashSet<>(Arrays.asList(POOL, "ETH-USDT")));
+
+    tickBitmap = new TickBitmap(POOL);
+    when(tickBitmapCache.getTickBitmap(POOL)).thenReturn(Optional.of(tickBitmap));
+    addTick(0);
+    addTick(120);
+    addTick(240);
+
+    service = PositionFeeReportService.getInstance();
+  }
+
+  /**
+   * Snapshot do disruptor thread dựng khi khởi động
+   */
+  private void seedSnapshot() {
+    ReadSnapshotCache.getInstance().seedTickViews();
+  }
+
+  private void addTick(int tickIndex) {
+    tickBitmap.setBit(tickIndex);
+    when(tickCache.getTick(POOL, tickIndex)).thenReturn(Optional.of(new Tick(POOL, tickIndex)));
+  }
+
+  private AmmPosition openPosition(String identifier, int tickLower, int tickUpper) {
+    AmmPosition position = new AmmPosition(identifier, POOL);
+    position.setStatus(AmmPosition.STATUS_OPEN);
+    position.setOwnerAccountKey0("alice:btc");
+    position.setOwnerAccountKey1("alice:usdt");
+    position.setTickLowerIndex(tickLower);
+    position.setTickUpperIndex(tickUpper);
+    position.setLiquidity(new BigDecimal("2"));
+    position.setFeeGrowthInside0Last(new BigDecimal("4"));
+    position.setFeeGrowthInside1Last(BigDecimal.ZERO);
+    position.setTokensOwed0(BigDecimal.ONE);
+    return position;
+  }
+
+  @Test
+  @DisplayName("computePoolFees tính phí chưa thu từ snapshot, bỏ qua position đã đóng")
+  void computePoolFees_ShouldComputeUncollectedFees() {
+    AmmPosition inRange = openPosition("p1", 0, 120);
+    AmmPosition outOfRange = openPosition("p2", 120, 240);
+    AmmPosition closed = openPosition("p3", 0, 120);
+    closed.setStatus(AmmPosition.STATUS_CLOSED);
+    when(ammPositionCache.getAmmPositionsByPool(POOL)).thenReturn(Arrays.asList(inRange, outOfRange, closed));
+    seedSnapshot();
+
+    List<AmmPositionFee> fees = service.computePoolFees(POOL);
+
+    assertEquals(2, fees.size());
+    AmmPositionFee first = fees.get(0);
+    assertEquals("p1", first.getIdentifier());
+    assertTrue(first.isInRange());
+    // tokensOwed 1 + liquidity 2 * (10 - 4)
+    assertEquals(0, new BigDecimal("13").compareTo(first.getFeesOwed0()));
+    assertEquals(0, new BigDecimal("8").compareTo(first.getFeesOwed1()));
+    assertEquals(7L, first.getPoolVersion());
+
+    AmmPositionFee second = fees.get(1);
+    assertEquals("p2", second.getIdentifier());
+    assertFalse(second.isInRange());
+    assertEquals(0, BigDecimal.ONE.compareTo(second.getFeesOwed0()));
+    assertEquals(0, BigDecimal.ZERO.compareTo(second.getFeesOwed1()));
+  }
+
+  @Test
+  @DisplayName("computePoolFees chia nhiều position cho fork-join và giữ thứ tự identifier")
+  void computePoolFees_ShouldSplitLargePools() {
+    List<AmmPosition> positions = new ArrayList<>();
+    int count = PositionFeeTask.THRESHOLD * 3 + 17;
+    for (int i = 0; i < count; i++) {
+      positions.add(openPosition(String.format("p%04d", i), 0, 120));
+    }
+    Collections.shuffle(positions);
+    when(ammPositionCache.getAmmPositionsByPool(POOL)).thenReturn(positions);
+    seedSnapshot();
+
+    List<AmmPositionFee> fees = service.computePoolFees(POOL);
+
+    assertEquals(count, fees.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(String.format("p%04d", i), fees.get(i).getIdentifier());
+      assertEquals(0, new BigDecimal("13").compareTo(fees.get(i).getFeesOwed0()));
+    }
+  }
+
+  @Test
+  @DisplayName("computePoolFees trả về rỗng khi pool không tồn tại hoặc không có position")
+  void computePoolFees_ShouldReturnEmpty_WhenNothingToReport() {
+    when(ammPositionCache.getAmmPositionsByPool(POOL)).thenReturn(Collections.emptyList());
+
+    assertTrue(service.computePoolFees(POOL).isEmpty());
+    assertTrue(service.computePoolFees("ETH-USDT").isEmpty());
+  }
+
+  @Test
+  @DisplayName("reportAllPools gửi một message cho mỗi position đang mở")
+  void reportAllPools_ShouldSendEveryFee() {
+    when(ammPositionCache.getAmmPositionsByPool(POOL)).thenReturn(Arrays.asList(
+        openPosition("p1", 0, 120), openPosition("p2", 120, 240)));
+    seedSnapshot();
+
+    assertEquals(2, service.reportAllPools());
+    verify(kafkaProducerService, times(2)).sendAmmPositionFee(any(AmmPositionFee.class));
+  }
+
+  @Test
+  @DisplayName("Job chỉ đọc tick view đã publish, không chạm cache của engine")
+  void reportAllPools_ShouldReadOnlyPublishedSnapshots() {
+    when(ammPositionCache.getAmmPositionsByPool(POOL)).thenReturn(Arrays.asList(openPosition("p1", 0, 120)));
+    seedSnapshot();
+    clearInvocations(ammPoolCache, ammPositionCache, tickCache, tickBitmapCache);
+
+    assertEquals(1, service.reportAllPools());
+    verifyNoInteractions(ammPoolCache, ammPositionCache, tickCache, tickBitmapCache);
+  }
+}
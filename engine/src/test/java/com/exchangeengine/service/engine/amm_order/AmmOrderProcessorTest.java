@@ -112,7 +112,7 @@ public class AmmOrderProcessorTest {
     when(mockAccountCache.getAccount(anyString())).thenReturn(Optional.empty());
     when(mockAmmPoolCache.getAmmPool(anyString())).thenReturn(Optional.empty());
     when(mockAmmOrderCache.ammOrderExists(anyString())).thenReturn(false);
-    when(mockTickCache.getTick(anyString())).thenReturn(Optional.empty());
+    when(mockTickCache.getTick(anyString(), anyInt())).thenReturn(Optional.empty());
     when(mockTickBitmapCache.getTickBitmap(anyString())).thenReturn(Optional.empty());
 
     // Cho phép các phương thức void được gọi mà không gây ra lỗi
@@ -1264,7 +1264,7 @@ public class AmmOrderProcessorTest {
       tickCacheField.set(tempProcessor, mockTickCache);
 
       // Thiết lập mock cho tickCache.getTick
-      when(mockTickCache.getTick(POOL_PAIR + "-" + nextInitializedTick)).thenReturn(Optional.of(testTickForCross));
+      when(mockTickCache.getTick(POOL_PAIR, nextInitializedTick)).thenReturn(Optional.of(testTickForCross));
 
       // Mô phỏng kết quả từ SwapMath.computeSwapStep
       BigDecimal[] swapResult = new BigDecimal[] {
@@ -1565,7 +1565,7 @@ public class AmmOrderProcessorTest {
     when(mockAmmPoolCache.getAmmPool(POOL_PAIR)).thenReturn(Optional.of(testPool));
 
     // Thiết lập tick
-    when(mockTickCache.getTick(anyString())).thenReturn(Optional.of(testTick));
+    when(mockTickCache.getTick(anyString(), anyInt())).thenReturn(Optional.of(testTick));
 
     // Thiết lập AmmOrderEvent spy
     testAmmOrderEvent = spy(testAmmOrderEvent);
@@ -1692,7 +1692,7 @@ public class AmmOrderProcessorTest {
 
       // Xác minh các mock đã được gọi
       verify(testPool).getPair();
-      verify(mockTickCache).getTick(anyString());
+      verify(mockTickCache).getTick(anyString(), anyInt());
       mockedTickMath.verify(() -> TickMath.getTickAtSqrtRatio(eq(new BigDecimal("1.25"))));
     }
   }
@@ -1962,7 +1962,7 @@ public class AmmOrderProcessorTest {
 
     // Reset và thiết lập lại mock cho tickCache
     reset(mockTickCache);
-    when(mockTickCache.getTick(POOL_PAIR + "-" + tickIndex)).thenReturn(Optional.of(expectedTick));
+    when(mockTickCache.getTick(POOL_PAIR, tickIndex)).thenReturn(Optional.of(expectedTick));
 
     // Truy cập phương thức getTick
     Method getTickMethod = AmmOrderProcessor.class.getDeclaredMethod("getTick", int.class);
@@ -1993,7 +1993,7 @@ public class AmmOrderProcessorTest {
     // Reset và thiết lập lại mock cho tickCache
     reset(mockTickCache);
     int tickIndex = 100;
-    when(mockTickCache.getTick(POOL_PAIR + "-" + tickIndex)).thenReturn(Optional.empty());
+    when(mockTickCache.getTick(POOL_PAIR, tickIndex)).thenReturn(Optional.empty());
 
     // Truy cập phương thức getTick
     Method getTickMethod = AmmOrderProcessor.class.getDeclaredMethod("getTick", int.class);
@@ -0,0 +1,152 @@
+package com.exchangeengine.service.engine.amm_order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmSwapQuote;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.storage.cache.AmmPoolCache;
+import com.exchangeengine.storage.cache.AmmPositionCache;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.cache.TickBitmapCache;
+import com.exchangeengine.storage.cache.TickCache;
+import com.exchangeengine.util.ammPool.SwapMath;
+import com.exchangeengine.util.ammPool.TickMath;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AmmSwapQuoterTest {
+
+  private static final BigDecimal LIQUIDITY = new BigDecimal("1000");
+  private static final double FEE = 0.003;
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  private AmmPool pool;
+  private Tick lowerTick;
+  private Tick upperTick;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    ReadSnapshotCache.resetInstance();
+
+    // Pool giá 1 (tick 0), một position [-100, 100] thanh khoản 1000
+    pool = new AmmPool("BTC-USDT");
+    pool.setToken0("BTC");
+    pool.setToken1("USDT");
+    pool.setActive(true);
+    pool.setFeePercentage(FEE);
+    pool.setCurrentTick(0);
+    pool.setSqrtPrice(TickMath.getSqrtRatioAtTick(0));
+    pool.setLiquidity(LIQUIDITY);
+    pool.setTxCount(7);
+
+    lowerTick = new Tick("BTC-USDT", -100);
+    lowerTick.setLiquidityNet(LIQUIDITY);
+    upperTick = new Tick("BTC-USDT", 100);
+    upperTick.setLiquidityNet(LIQUIDITY.negate());
+
+    TickBitmap tickBitmap = mock(TickBitmap.class);
+    when(tickBitmap.getSetBits()).thenReturn(Arrays.asList(-100, 100));
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+    when(tickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(tickBitmap));
+    when(tickCache.getTick("BTC-USDT", -100)).thenReturn(Optional.of(lowerTick));
+    when(tickCache.getTick("BTC-USDT", 100)).thenReturn(Optional.of(upperTick));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Collections.singleton("BTC-USDT"));
+    // Snapshot do disruptor thread dựng khi khởi động
+    ReadSnapshotCache.getInstance().seedTickViews();
+  }
+
+  private AmmSwapQuoter quoter() {
+    return new AmmSwapQuoter(ReadSnapshotCache.getInstance().getTickView("BTC-USDT"));
+  }
+
+  @Test
+  @DisplayName("Swap nhỏ trong một khoảng tick cho kết quả giống một swap step")
+  void quote_ShouldMatchSingleSwapStep_WhenNoTickCrossed() {
+    // Given
+    BigDecimal amount = new BigDecimal("1");
+    BigDecimal[] step = SwapMath.computeSwapStep(pool.getSqrtPrice(), TickMath.getSqrtRatioAtTick(-100), LIQUIDITY,
+        amount, FEE);
+
+    // When
+    AmmSwapQuote quote = quoter().quote(true, amount);
+
+    // Then
+    assertTrue(quote.isFullyFilled());
+    assertTrue(quote.getCrossedTicks().isEmpty());
+    assertEquals(0, amount.compareTo(quote.getAmountIn()));
+    assertEquals(0, step[2].compareTo(quote.getAmountOut()));
+    assertEquals(0, step[3].compareTo(quote.getFees().get("BTC")));
+    assertEquals(0, step[0].compareTo(quote.getSqrtPriceAfter()));
+    assertEquals(TickMath.getTickAtSqrtRatio(step[0]), quote.getTickAfter());
+    assertEquals(7L, quote.getPoolVersion());
+    assertTrue(quote.getPriceAfter().compareTo(quote.getPriceBefore()) < 0);
+    assertTrue(quote.getPriceImpact().compareTo(BigDecimal.ZERO) > 0);
+    assertTrue(quote.getExecutionPrice().compareTo(BigDecimal.ONE) < 0);
+  }
+
+  @Test
+  @DisplayName("Swap lớn cross tick, hết thanh khoản thì chỉ khớp một phần")
+  void quote_ShouldCrossTicksAndReportPartialFill() {
+    // When
+    AmmSwapQuote quote = quoter().quote(false, new BigDecimal("1000"));
+
+    // Then
+    assertFalse(quote.isFullyFilled());
+    assertEquals(Collections.singletonList(100), quote.getCrossedTicks());
+    assertTrue(quote.getAmountIn().compareTo(new BigDecimal("1000")) < 0);
+    assertTrue(quote.getAmountOut().compareTo(BigDecimal.ZERO) > 0);
+    assertTrue(quote.getFees().containsKey("USDT"));
+  }
+
+  @Test
+  @DisplayName("Báo giá không sửa pool hay tick của engine")
+  void quote_ShouldNotMutateEngineState() {
+    // Given
+    BigDecimal sqrtPrice = pool.getSqrtPrice();
+    BigDecimal feeGrowthOutside1 = upperTick.getFeeGrowthOutside1();
+
+    // When
+    quoter().quote(false, new BigDecimal("1000"));
+
+    // Then
+    assertEquals(0, sqrtPrice.compareTo(pool.getSqrtPrice()));
+    assertEquals(0, pool.getCurrentTick());
+    assertEquals(0, LIQUIDITY.compareTo(pool.getLiquidity()));
+    assertEquals(0, feeGrowthOutside1.compareTo(upperTick.getFeeGrowthOutside1()));
+    verify(ammPoolCache, never()).updateAmmPool(any());
+    verify(tickCache, never()).updateTick(any());
+  }
+}
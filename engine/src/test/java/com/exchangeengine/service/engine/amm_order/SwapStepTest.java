@@ -0,0 +1,56 @@
+package com.exchangeengine.service.engine.amm_order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.util.ammPool.AmmPoolConfig;
+import com.exchangeengine.util.ammPool.SwapMath;
+import com.exchangeengine.util.ammPool.TickMath;
+
+class SwapStepTest {
+
+  private static final BigDecimal LIQUIDITY = new BigDecimal("1000");
+
+  @Test
+  @DisplayName("compute cập nhật lượng còn lại và đã tính theo exactInput / exactOutput")
+  void compute_ShouldUpdateRemainingAndCalculated() {
+    BigDecimal sqrtPrice = TickMath.getSqrtRatioAtTick(0);
+    BigDecimal target = TickMath.getSqrtRatioAtTick(-100);
+    BigDecimal[] expected = SwapMath.computeSwapStep(sqrtPrice, target, LIQUIDITY, BigDecimal.ONE, 0.003);
+
+    SwapStep exactIn = SwapStep.compute(sqrtPrice, target, LIQUIDITY, BigDecimal.ONE, BigDecimal.ZERO, 0.003, true);
+
+    assertEquals(0, expected[0].compareTo(exactIn.sqrtPrice));
+    assertEquals(0, BigDecimal.ONE.subtract(expected[1]).subtract(expected[3])
+        .compareTo(exactIn.amountSpecifiedRemaining));
+    assertEquals(0, expected[2].negate().compareTo(exactIn.amountCalculated));
+    assertFalse(exactIn.reached(target));
+
+    BigDecimal[] expectedOut = SwapMath.computeSwapStep(sqrtPrice, target, LIQUIDITY, BigDecimal.ONE.negate(), 0.003);
+    SwapStep exactOut = SwapStep.compute(sqrtPrice, target, LIQUIDITY, BigDecimal.ONE.negate(), BigDecimal.ZERO,
+        0.003, false);
+
+    assertEquals(0, BigDecimal.ONE.negate().add(expectedOut[2]).compareTo(exactOut.amountSpecifiedRemaining));
+    assertEquals(0, expectedOut[1].add(expectedOut[3]).compareTo(exactOut.amountCalculated));
+  }
+
+  @Test
+  @DisplayName("Giá đích, thanh khoản và tick sau khi cross theo hướng swap")
+  void crossHelpers_ShouldFollowSwapDirection() {
+    BigDecimal limit = SwapStep.sqrtPriceLimit(true);
+    assertEquals(0, TickMath.getSqrtRatioAtTick(AmmPoolConfig.MIN_TICK + 1).compareTo(limit));
+    assertEquals(0, limit.compareTo(SwapStep.sqrtPriceTarget(AmmPoolConfig.MIN_TICK, limit)));
+    assertEquals(0, TickMath.getSqrtRatioAtTick(60).compareTo(SwapStep.sqrtPriceTarget(60, limit)));
+
+    assertEquals(0, new BigDecimal("900").compareTo(
+        SwapStep.liquidityAfterCross(LIQUIDITY, new BigDecimal("100"), true)));
+    assertEquals(0, new BigDecimal("1100").compareTo(
+        SwapStep.liquidityAfterCross(LIQUIDITY, new BigDecimal("100"), false)));
+    assertEquals(59, SwapStep.tickAfterCross(60, true));
+    assertEquals(60, SwapStep.tickAfterCross(60, false));
+  }
+}
@@ -1021,7 +1021,7 @@ public class AmmPositionCloseProcessorTest {
     // Tạo mock AmmPool với updateForClosePosition trả về false
     AmmPool spyPool = spy(testPool);
     doReturn(false).when(spyPool).updateForClosePosition(any(BigDecimal.class), any(BigDecimal.class),
-        any(BigDecimal.class));
+        any(BigDecimal.class), anyLong());
 
     // Set các thuộc tính cần thiết qua reflection
     setPrivateField(processor.getClass(), processor, "position", testPosition);
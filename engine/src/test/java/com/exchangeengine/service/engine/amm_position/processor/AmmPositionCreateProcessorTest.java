@@ -559,7 +559,7 @@ public class AmmPositionCreateProcessorTest {
     when(mockPool.getFeeGrowthGlobal0()).thenReturn(BigDecimal.ZERO);
     when(mockPool.getFeeGrowthGlobal1()).thenReturn(BigDecimal.ZERO);
     doThrow(new RuntimeException("Pool update error"))
-        .when(mockPool).updateForAddPosition(any(), anyBoolean(), any(), any());
+        .when(mockPool).updateForAddPosition(any(), anyBoolean(), any(), any(), anyLong());
 
     try {
       // Tạo processor và test
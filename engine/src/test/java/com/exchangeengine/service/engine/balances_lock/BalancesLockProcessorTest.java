@@ -110,8 +110,8 @@ public class BalancesLockProcessorTest {
         assertEquals(newLock, result.getBalanceLock().get());
         
         // Verify accounts were processed
-        verify(mockAccountCache).addAccountToBatch(account1);
-        verify(mockAccountCache).addAccountToBatch(account2);
+        verify(mockAccountCache).updateAccount(account1);
+        verify(mockAccountCache).updateAccount(account2);
         verify(mockBalanceLockCache).addBalanceLock(newLock);
         
         // Verify balances were frozen - use compareTo for BigDecimal comparison
@@ -152,8 +152,8 @@ public class BalancesLockProcessorTest {
         assertTrue(result.getBalanceLock().isPresent());
         
         // Verify only account1 was processed (has balance)
-        verify(mockAccountCache).addAccountToBatch(account1);
-        verify(mockAccountCache, never()).addAccountToBatch(account2);
+        verify(mockAccountCache).updateAccount(account1);
+        verify(mockAccountCache, never()).updateAccount(account2);
         
         // Verify account1 balance was frozen, account2 unchanged - use compareTo for BigDecimal comparison
         assertEquals(0, account1.getAvailableBalance().compareTo(BigDecimal.ZERO));
@@ -188,7 +188,7 @@ public class BalancesLockProcessorTest {
         assertTrue(result.getBalanceLock().isPresent());
         
         // Verify only existing account was processed
-        verify(mockAccountCache).addAccountToBatch(account1);
+        verify(mockAccountCache).updateAccount(account1);
         verify(mockBalanceLockCache).addBalanceLock(newLock);
     }
 
@@ -232,8 +232,8 @@ public class BalancesLockProcessorTest {
         assertEquals("RELEASED", result.getBalanceLock().get().getStatus());
         
         // Verify accounts were processed
-        verify(mockAccountCache).addAccountToBatch(account1);
-        verify(mockAccountCache).addAccountToBatch(account2);
+        verify(mockAccountCache).updateAccount(account1);
+        verify(mockAccountCache).updateAccount(account2);
         verify(mockBalanceLockCache).addBalanceLock(existingLock);
         
         // Verify balances were unfrozen - use compareTo for BigDecimal comparison
@@ -372,7 +372,7 @@ public class BalancesLockProcessorTest {
         verify(mockBalanceLockCache).addBalanceLock(newLock);
         
         // Verify no accounts were added to batch (no balance changes)
-        verify(mockAccountCache, never()).addAccountToBatch(any());
+        verify(mockAccountCache, never()).updateAccount(any());
     }
 
     @Test
@@ -409,7 +409,7 @@ public class BalancesLockProcessorTest {
         verify(mockBalanceLockCache).addBalanceLock(existingLock);
         
         // Verify no accounts were processed
-        verify(mockAccountCache, never()).addAccountToBatch(any());
+        verify(mockAccountCache, never()).updateAccount(any());
     }
 
     @Test
@@ -441,7 +441,7 @@ public class BalancesLockProcessorTest {
         assertEquals(0, account1.getFrozenBalance().compareTo(new BigDecimal("100.00")));
         
         // Verify account was not added to batch since no changes were made
-        verify(mockAccountCache, never()).addAccountToBatch(account1);
+        verify(mockAccountCache, never()).updateAccount(account1);
     }
 
     @Test
@@ -553,7 +553,7 @@ public class BalancesLockProcessorTest {
         assertEquals(0, account1.getFrozenBalance().compareTo(originalFrozen));
         
         // Verify account was not added to batch since zero amount should not cause account changes
-        verify(mockAccountCache, never()).addAccountToBatch(account1);
+        verify(mockAccountCache, never()).updateAccount(account1);
     }
 
     @Test
@@ -596,7 +596,7 @@ public class BalancesLockProcessorTest {
         assertEquals(0, account1.getFrozenBalance().compareTo(originalFrozen));
         
         // Verify account was not added to batch since negative amount should not cause account changes
-        verify(mockAccountCache, never()).addAccountToBatch(account1);
+        verify(mockAccountCache, never()).updateAccount(account1);
     }
 
     @Test
@@ -631,7 +631,7 @@ public class BalancesLockProcessorTest {
                 "Lock ID should match the requested ID");
         
         // Verify the account balance was frozen
-        verify(mockAccountCache).addAccountToBatch(account1);
+        verify(mockAccountCache).updateAccount(account1);
         
         // Verify lock was stored with the specified ID
         verify(mockBalanceLockCache).addBalanceLock(newLock);
@@ -673,7 +673,7 @@ public class BalancesLockProcessorTest {
         // We can't directly test the log message, but this code path should be covered
         
         // Verify the account was processed and lock was stored
-        verify(mockAccountCache).addAccountToBatch(account1);
+        verify(mockAccountCache).updateAccount(account1);
         verify(mockBalanceLockCache).addBalanceLock(newLock);
     }
 } 
\ No newline at end of file
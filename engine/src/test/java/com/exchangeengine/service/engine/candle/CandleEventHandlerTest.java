@@ -0,0 +1,202 @@
+package com.exchangeengine.service.engine.candle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.messaging.producer.KafkaProducerService;
+import com.exchangeengine.model.AmmOrder;
+import com.exchangeengine.model.Candle;
+import com.exchangeengine.model.CandleInterval;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Trade;
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.model.event.TradeEvent;
+import com.exchangeengine.storage.rocksdb.CandleRocksDB;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CandleEventHandlerTest {
+
+  private static final long MINUTE = CandleInterval.ONE_MINUTE.getDurationMs();
+
+  @Mock
+  private CandleRocksDB candleRocksDB;
+
+  @Mock
+  private KafkaProducerService kafkaProducerService;
+
+  private long now;
+  private CandleEventHandler handler;
+  private final List<Runnable> pendingOutput = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    now = 10 * MINUTE;
+    pendingOutput.clear();
+    handler = new CandleEventHandler(candleRocksDB, kafkaProducerService, pendingOutput::add);
+  }
+
+  @Test
+  @DisplayName("Swap thành công được gom theo giá token1/token0 và volume hai token")
+  void onEvent_ShouldAggregateSuccessfulSwap() {
+    handler.onEvent(swapEvent(true, "2", "200", 10 * MINUTE + 1), 0, false);
+    handler.onEvent(swapEvent(false, "330", "3", 10 * MINUTE + 2), 1, false);
+
+    List<Candle> candles = handler.getRecentCandles("amm:BTC-USDT", CandleInterval.ONE_MINUTE);
+    assertEquals(1, candles.size());
+    Candle candle = candles.get(0);
+    assertEquals(0, new BigDecimal("100").compareTo(candle.getOpen()));
+    assertEquals(0, new BigDecimal("110").compareTo(candle.getClose()));
+    assertEquals(0, new BigDecimal("5").compareTo(candle.getVolume0()));
+    assertEquals(0, new BigDecimal("530").compareTo(candle.getVolume1()));
+    assertEquals(2, candle.getTradeCount());
+    assertEquals(1, handler.getRecentCandles("amm:BTC-USDT", CandleInterval.ONE_DAY).size());
+    verifyNoInteractions(candleRocksDB, kafkaProducerService);
+  }
+
+  @Test
+  @DisplayName("Event lỗi, order chưa thành công và trade chưa complete không tạo nến")
+  void onEvent_ShouldIgnoreFailedOrIncompleteResults() {
+    DisruptorEvent failed = swapEvent(true, "1", "100", now);
+    failed.setErrorMessage("error");
+    handler.onEvent(failed, 0, false);
+
+    DisruptorEvent processing = swapEvent(true, "1", "100", now);
+    processing.getProcessResult().getAmmOrder().get().setStatus(AmmOrder.STATUS_PROCESSING);
+    handler.onEvent(processing, 1, false);
+
+    DisruptorEvent created = tradeEvent(OperationType.TRADE_CREATE, Trade.TradeStatus.UNPAID, now);
+    handler.onEvent(created, 2, false);
+
+    handler.onEvent(batchEnd(), 3, true);
+
+    assertTrue(handler.getRecentCandles("amm:BTC-USDT", CandleInterval.ONE_MINUTE).isEmpty());
+    assertTrue(handler.getRecentCandles("p2p:USDT-VND", CandleInterval.ONE_MINUTE).isEmpty());
+    verifyNoInteractions(candleRocksDB, kafkaProducerService);
+  }
+
+  @Test
+  @DisplayName("Cuối batch, nến đã hết khung được lưu theo batch và gửi candle close")
+  void onEvent_ShouldPersistAndPublishClosedCandles_AtEndOfBatch() {
+    handler.onEvent(tradeEvent(OperationType.TRADE_COMPLETE, Trade.TradeStatus.COMPLETED, 10 * MINUTE + 1), 0,
+        true);
+    verifyNoInteractions(candleRocksDB, kafkaProducerService);
+
+    // Sang phút kế tiếp: chỉ nến 1m đóng, các khung dài hơn vẫn mở
+    now = 11 * MINUTE;
+    handler.onEvent(batchEnd(), 1, true);
+
+    // Stage chỉ chuyển nến cho executor, không tự ghi RocksDB / gửi Kafka
+    verifyNoInteractions(candleRocksDB, kafkaProducerService);
+    assertEquals(1, pendingOutput.size());
+    runPendingOutput();
+
+    ArgumentCaptor<Collection<Candle>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(candleRocksDB).saveCandleBatch(captor.capture());
+    List<Candle> saved = new ArrayList<>(captor.getValue());
+    assertEquals(1, saved.size());
+    assertEquals("p2p:USDT-VND", saved.get(0).getMarket());
+    assertEquals("1m", saved.get(0).getInterval());
+    assertEquals(0, new BigDecimal("25000").compareTo(saved.get(0).getClose()));
+    assertEquals(0, new BigDecimal("10").compareTo(saved.get(0).getVolume0()));
+    verify(kafkaProducerService).sendCandleClose(any(Candle.class));
+
+    // Nến đã đóng không bị gửi lại
+    handler.onEvent(batchEnd(), 2, true);
+    runPendingOutput();
+    verify(candleRocksDB, times(1)).saveCandleBatch(any());
+  }
+
+  @Test
+  @DisplayName("Lỗi khi lưu nến không làm dừng stage")
+  void onEvent_ShouldSwallowFlushErrors() {
+    doThrow(new RuntimeException("disk full")).when(candleRocksDB).saveCandleBatch(any());
+    handler.onEvent(swapEvent(true, "1", "100", now), 0, false);
+    now = 11 * MINUTE;
+
+    assertDoesNotThrow(() -> handler.onEvent(batchEnd(), 1, true));
+    assertDoesNotThrow(this::runPendingOutput);
+  }
+
+  @Test
+  @DisplayName("onShutdown chờ executor lưu xong các nến đã chuyển")
+  void onShutdown_ShouldDrainOutputExecutor() {
+    CandleEventHandler asyncHandler = new CandleEventHandler(candleRocksDB, kafkaProducerService);
+    asyncHandler.onEvent(swapEvent(true, "1", "100", now), 0, false);
+    now = 11 * MINUTE;
+    asyncHandler.onEvent(batchEnd(), 1, true);
+
+    asyncHandler.onShutdown();
+
+    verify(candleRocksDB).saveCandleBatch(any());
+    verify(kafkaProducerService).sendCandleClose(any(Candle.class));
+  }
+
+  /**
+   * Event rỗng kết thúc batch tại thời điểm now
+   */
+  private DisruptorEvent batchEnd() {
+    DisruptorEvent event = new DisruptorEvent();
+    event.setTimestamp(now);
+    return event;
+  }
+
+  private void runPendingOutput() {
+    List<Runnable> tasks = new ArrayList<>(pendingOutput);
+    pendingOutput.clear();
+    tasks.forEach(Runnable::run);
+  }
+
+  private static DisruptorEvent swapEvent(boolean zeroForOne, String amountIn, String amountOut, long completedAt) {
+    AmmOrder order = new AmmOrder();
+    order.setPoolPair("BTC-USDT");
+    order.setZeroForOne(zeroForOne);
+    order.setAmountActual(new BigDecimal(amountIn));
+    order.setAmountReceived(new BigDecimal(amountOut));
+    order.setStatus(AmmOrder.STATUS_SUCCESS);
+    order.setCompletedAt(completedAt);
+
+    DisruptorEvent event = new DisruptorEvent();
+    event.setTimestamp(completedAt);
+    event.setProcessResult(ProcessResult.success(event).setAmmOrder(order));
+    return event;
+  }
+
+  private static DisruptorEvent tradeEvent(OperationType operationType, Trade.TradeStatus status, long completedAt) {
+    Trade trade = new Trade();
+    trade.setSymbol("USDT-VND");
+    trade.setPrice(new BigDecimal("25000"));
+    trade.setCoinAmount(new BigDecimal("10"));
+    trade.setFiatAmount(new BigDecimal("250000"));
+    trade.setStatus(status);
+    trade.setCompletedAt(Instant.ofEpochMilli(completedAt));
+
+    TradeEvent tradeEvent = new TradeEvent();
+    tradeEvent.setOperationType(operationType);
+
+    DisruptorEvent event = new DisruptorEvent();
+    event.setTimestamp(completedAt);
+    event.setTradeEvent(tradeEvent);
+    event.setProcessResult(ProcessResult.success(event).setTrade(trade));
+    return event;
+  }
+}
@@ -0,0 +1,96 @@
+package com.exchangeengine.service.engine.candle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.model.Candle;
+import com.exchangeengine.model.CandleInterval;
+
+class CandleSeriesTest {
+
+  private static final long MINUTE = CandleInterval.ONE_MINUTE.getDurationMs();
+
+  @Test
+  @DisplayName("add gom OHLCV trong cùng khung và đóng nến khi sang khung mới")
+  void add_ShouldAggregateAndCloseOnNewBucket() {
+    CandleSeries series = new CandleSeries("amm:BTC-USDT", CandleInterval.ONE_MINUTE);
+
+    assertNull(series.add(1_000L, 100d, 1d, 100d));
+    assertNull(series.add(20_000L, 120d, 2d, 240d));
+    assertNull(series.add(40_000L, 90d, 1d, 90d));
+    assertNull(series.add(59_999L, 110d, 1d, 110d));
+
+    // Khung 2 và 3 không có trade nên không tạo nến
+    Candle closed = series.add(3 * MINUTE + 5, 130d, 1d, 130d);
+
+    assertNotNull(closed);
+    assertEquals("amm:BTC-USDT", closed.getMarket());
+    assertEquals("1m", closed.getInterval());
+    assertEquals(0L, closed.getOpenTime());
+    assertEquals(MINUTE - 1, closed.getCloseTime());
+    assertEquals(0, new BigDecimal("100").compareTo(closed.getOpen()));
+    assertEquals(0, new BigDecimal("120").compareTo(closed.getHigh()));
+    assertEquals(0, new BigDecimal("90").compareTo(closed.getLow()));
+    assertEquals(0, new BigDecimal("110").compareTo(closed.getClose()));
+    assertEquals(0, new BigDecimal("5").compareTo(closed.getVolume0()));
+    assertEquals(0, new BigDecimal("540").compareTo(closed.getVolume1()));
+    assertEquals(4, closed.getTradeCount());
+
+    List<Candle> candles = series.getCandles();
+    assertEquals(2, candles.size());
+    assertEquals(3 * MINUTE, candles.get(1).getOpenTime());
+    assertTrue(series.isOpen());
+  }
+
+  @Test
+  @DisplayName("closeExpired chỉ đóng nến khi khung thời gian đã kết thúc")
+  void closeExpired_ShouldCloseOnlyAfterBucketEnds() {
+    CandleSeries series = new CandleSeries("p2p:USDT-VND", CandleInterval.FIVE_MINUTES);
+    series.add(10_000L, 25_000d, 10d, 250_000d);
+
+    assertNull(series.closeExpired(5 * MINUTE - 1));
+    Candle closed = series.closeExpired(5 * MINUTE);
+
+    assertNotNull(closed);
+    assertEquals(0L, closed.getOpenTime());
+    assertFalse(series.isOpen());
+    assertNull(series.closeExpired(10 * MINUTE));
+  }
+
+  @Test
+  @DisplayName("Trade đến muộn mở lại nến mới nhất thay vì tạo nến trùng openTime")
+  void add_ShouldReopenNewestBucket_WhenTradeIsLate() {
+    CandleSeries series = new CandleSeries("amm:BTC-USDT", CandleInterval.ONE_MINUTE);
+    series.add(MINUTE + 1, 100d, 1d, 100d);
+    assertNotNull(series.closeExpired(2 * MINUTE));
+
+    assertNull(series.add(MINUTE + 500, 105d, 1d, 105d));
+    assertTrue(series.isOpen());
+
+    Candle reclosed = series.closeExpired(2 * MINUTE);
+    assertEquals(MINUTE, reclosed.getOpenTime());
+    assertEquals(2, reclosed.getTradeCount());
+    assertEquals(0, new BigDecimal("105").compareTo(reclosed.getHigh()));
+    assertEquals(1, series.getCandles().size());
+  }
+
+  @Test
+  @DisplayName("Ring chỉ giữ CAPACITY nến gần nhất")
+  void getCandles_ShouldKeepLatestCapacity() {
+    CandleSeries series = new CandleSeries("amm:BTC-USDT", CandleInterval.ONE_MINUTE);
+    int total = CandleSeries.CAPACITY + 5;
+    for (int i = 0; i < total; i++) {
+      series.add(i * MINUTE, 100d + i, 1d, 100d + i);
+    }
+
+    List<Candle> candles = series.getCandles();
+    assertEquals(CandleSeries.CAPACITY, candles.size());
+    assertEquals(5 * MINUTE, candles.get(0).getOpenTime());
+    assertEquals((total - 1) * MINUTE, candles.get(CandleSeries.CAPACITY - 1).getOpenTime());
+  }
+}
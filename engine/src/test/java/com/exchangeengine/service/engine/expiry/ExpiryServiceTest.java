@@ -0,0 +1,244 @@
+package com.exchangeengine.service.engine.expiry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.BalanceLock;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Trade;
+import com.exchangeengine.model.event.BalancesLockEvent;
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.model.event.TradeEvent;
+import com.exchangeengine.service.engine.EngineDisruptorService;
+import com.exchangeengine.storage.cache.BalanceLockCache;
+import com.exchangeengine.storage.cache.TradeCache;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExpiryServiceTest {
+
+  @Mock
+  private TradeCache tradeCache;
+
+  @Mock
+  private BalanceLockCache balanceLockCache;
+
+  @Mock
+  private EngineDisruptorService engineDisruptorService;
+
+  private ExpiryService expiryService;
+  private long now;
+
+  @BeforeEach
+  void setUp() {
+    TradeCache.setTestInstance(tradeCache);
+    BalanceLockCache.setTestInstance(balanceLockCache);
+    EngineDisruptorService.setTestInstance(engineDisruptorService);
+    when(tradeCache.getTrades()).thenReturn(Collections.emptyList());
+    when(balanceLockCache.getBalanceLocks()).thenReturn(Collections.emptyMap());
+
+    expiryService = ExpiryService.getInstance();
+    now = System.currentTimeMillis();
+  }
+
+  private Trade unpaidTrade(String identifier, long expiresAtMs) {
+    Trade trade = Trade.builder()
+        .identifier(identifier)
+        .offerKey("offer-1")
+        .buyerAccountKey("buyer-usdt")
+        .sellerAccountKey("seller-usdt")
+        .symbol("USDT:VND")
+        .price(new BigDecimal("25000"))
+        .coinAmount(BigDecimal.ONE)
+        .takerSide("BUY")
+        .status(Trade.TradeStatus.UNPAID)
+        .expiresAt(Instant.ofEpochMilli(expiresAtMs))
+        .build();
+    when(tradeCache.getTrade(identifier)).thenReturn(Optional.of(trade));
+    return trade;
+  }
+
+  private BalanceLock lockedBalance(String lockId, long expiresAtMs) {
+    Map<String, BigDecimal> lockedBalances = new HashMap<>();
+    lockedBalances.put("account-1", BigDecimal.TEN);
+    BalanceLock lock = new BalanceLock(ActionType.TRADE, "action-1", lockId, Arrays.asList("account-1"),
+        "identifier-1", lockedBalances, "LOCKED");
+    lock.setExpiresAt(expiresAtMs);
+    when(balanceLockCache.getBalanceLock(lockId)).thenReturn(Optional.of(lock));
+    return lock;
+  }
+
+  private static ObjectNode eventJson(ActionType actionType, OperationType operationType) {
+    ObjectNode json = JsonNodeFactory.instance.objectNode();
+    json.put("eventId", "event-1");
+    json.put("actionType", actionType.getValue());
+    json.put("actionId", "action-1");
+    json.put("operationType", operationType.getValue());
+    json.put("identifier", "identifier-1");
+    return json;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<DisruptorEvent> capturePublished() {
+    ArgumentCaptor<List<DisruptorEvent>> captor = ArgumentCaptor.forClass(List.class);
+    verify(engineDisruptorService).publishEvents(captor.capture());
+    return captor.getValue();
+  }
+
+  @Test
+  @DisplayName("track đặt deadline cho trade chưa thanh toán và lock đang khóa")
+  void track_ShouldScheduleActiveDeadlines() {
+    Trade trade = unpaidTrade("trade-1", now + 5_000);
+    BalanceLock lock = lockedBalance("lock-1", now + 5_000);
+    ProcessResult result = new ProcessResult(new DisruptorEvent()).setTrade(trade).setBalanceLock(lock);
+
+    expiryService.track(result);
+    assertEquals(2, expiryService.size());
+
+    // Trade đã hoàn tất / lock đã giải phóng thì hủy deadline
+    trade.setStatus(Trade.TradeStatus.COMPLETED);
+    lock.setStatus("RELEASED");
+    expiryService.track(result);
+    assertEquals(0, expiryService.size());
+  }
+
+  @Test
+  @DisplayName("expiresAt số của TradeEvent (giây hoặc millis) được chuẩn hóa về millis")
+  void track_ShouldNormalizeTradeEventExpiresAt() {
+    long deadline = (now / 1000 + 5) * 1000;
+    for (long expiresAt : new long[] { deadline, deadline / 1000 }) {
+      ObjectNode json = eventJson(ActionType.TRADE, OperationType.TRADE_CREATE);
+      json.put("expiresAt", expiresAt);
+
+      assertEquals(deadline, new TradeEvent().parserData(json).getExpiresAt().toEpochMilli());
+    }
+
+    // Trade đã lưu với millis bị đọc như giây vẫn hết hạn đúng thời điểm
+    Trade trade = unpaidTrade("trade-1", deadline);
+    trade.setExpiresAt(Instant.ofEpochSecond(deadline));
+    expiryService.track(new ProcessResult(new DisruptorEvent()).setTrade(trade));
+
+    assertEquals(0, expiryService.expire(deadline - 1));
+    assertEquals(1, expiryService.expire(deadline));
+  }
+
+  @Test
+  @DisplayName("expiresAt của BalancesLockEvent (giây, millis hoặc ISO-8601) được chuẩn hóa về millis")
+  void track_ShouldNormalizeBalanceLockExpiresAt() {
+    long deadline = (now / 1000 + 5) * 1000;
+    ObjectNode json = eventJson(ActionType.OFFER, OperationType.BALANCES_LOCK_CREATE);
+    json.put("expiresAt", deadline / 1000);
+    assertEquals(deadline, new BalancesLockEvent().parserData(json).getExpiresAt());
+    json.put("expiresAt", deadline);
+    assertEquals(deadline, new BalancesLockEvent().parserData(json).getExpiresAt());
+    json.put("expiresAt", Instant.ofEpochMilli(deadline).toString());
+    assertEquals(deadline, new BalancesLockEvent().parserData(json).getExpiresAt());
+
+    // Lock đã lưu với giây vẫn hết hạn đúng thời điểm
+    BalanceLock lock = lockedBalance("lock-1", deadline / 1000);
+    expiryService.track(new ProcessResult(new DisruptorEvent()).setBalanceLock(lock));
+
+    assertEquals(0, expiryService.expire(deadline - 1));
+    assertEquals(1, expiryService.expire(deadline));
+  }
+
+  @Test
+  @DisplayName("expire publish TRADE_CANCEL và BALANCES_LOCK_RELEASE trong một lần")
+  void expire_ShouldPublishCancelAndReleaseEvents() {
+    long deadline = now + 3_000;
+    Trade trade = unpaidTrade("trade-1", deadline);
+    BalanceLock lock = lockedBalance("lock-1", deadline);
+    lock.setActionType(null);
+    lock.setActionId(null);
+    expiryService.track(new ProcessResult(new DisruptorEvent()).setTrade(trade).setBalanceLock(lock));
+
+    assertEquals(0, expiryService.expire(now + 1_000));
+    verify(engineDisruptorService, never()).publishEvents(anyList());
+
+    assertEquals(2, expiryService.expire(deadline + ExpiryService.TICK_MS));
+
+    List<DisruptorEvent> events = capturePublished();
+    assertEquals(2, events.size());
+
+    TradeEvent tradeEvent = events.get(0).getTradeEvent();
+    assertEquals(OperationType.TRADE_CANCEL, tradeEvent.getOperationType());
+    assertEquals("expiry-trade-trade-1-" + deadline, tradeEvent.getEventId());
+    assertEquals("trade-1", tradeEvent.getIdentifier());
+    assertEquals("offer-1", tradeEvent.getOfferKey());
+    assertEquals("BUY", tradeEvent.getTakerSide());
+
+    BalancesLockEvent lockEvent = events.get(1).getBalancesLockEvent();
+    assertEquals(OperationType.BALANCES_LOCK_RELEASE, lockEvent.getOperationType());
+    assertEquals("expiry-balance-lock-lock-1-" + deadline, lockEvent.getEventId());
+    assertEquals(ActionType.BALANCES_LOCK, lockEvent.getActionType());
+    assertEquals("lock-1", lockEvent.getActionId());
+    assertEquals("lock-1", lockEvent.getLockId());
+    assertEquals(0, expiryService.size());
+  }
+
+  @Test
+  @DisplayName("expire bỏ qua đối tượng đã đổi trạng thái trong cache")
+  void expire_ShouldSkipObjectsNoLongerActive() {
+    long deadline = now + 2_000;
+    Trade trade = unpaidTrade("trade-1", deadline);
+    expiryService.track(new ProcessResult(new DisruptorEvent()).setTrade(trade));
+    trade.setStatus(Trade.TradeStatus.CANCELLED);
+
+    assertEquals(0, expiryService.expire(deadline + ExpiryService.TICK_MS));
+    verify(engineDisruptorService, never()).publishEvents(anyList());
+  }
+
+  @Test
+  @DisplayName("rebuild nạp deadline từ cache khi khởi động")
+  void rebuild_ShouldLoadDeadlinesFromCaches() {
+    Trade active = unpaidTrade("trade-1", now + 10_000);
+    Trade noExpiry = Trade.builder().identifier("trade-2").status(Trade.TradeStatus.UNPAID).build();
+    BalanceLock lock = lockedBalance("lock-1", now + 10_000);
+    BalanceLock noExpiryLock = lockedBalance("lock-2", 0);
+    Map<String, BalanceLock> locks = new HashMap<>();
+    locks.put("lock-1", lock);
+    locks.put("lock-2", noExpiryLock);
+    when(tradeCache.getTrades()).thenReturn(Arrays.asList(active, noExpiry));
+    when(balanceLockCache.getBalanceLocks()).thenReturn(locks);
+
+    expiryService.rebuild();
+
+    assertEquals(2, expiryService.size());
+  }
+
+  @Test
+  @DisplayName("start dựng lại wheel một lần, shutdown dừng scheduler")
+  void startAndShutdown_ShouldManageScheduler() {
+    expiryService.start();
+    expiryService.start();
+    expiryService.shutdown();
+    expiryService.shutdown();
+
+    verify(tradeCache, times(1)).getTrades();
+  }
+}
@@ -0,0 +1,94 @@
+package com.exchangeengine.service.engine.expiry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HashedTimerWheelTest {
+
+  private static final long TICK = 1000L;
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  @DisplayName("Key chỉ hết hạn khi đã qua deadline, deadline lẻ được làm tròn lên tick kế tiếp")
+  void advance_ShouldExpireAtDeadline() {
+    HashedTimerWheel wheel = new HashedTimerWheel(TICK, START);
+    wheel.schedule("a", START + 5 * TICK);
+    wheel.schedule("b", START + 5 * TICK + 1);
+
+    assertTrue(wheel.advance(START + 4 * TICK).isEmpty());
+    assertEquals(Collections.singletonList("a"), wheel.advance(START + 5 * TICK));
+    assertEquals(Collections.singletonList("b"), wheel.advance(START + 6 * TICK));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("Deadline đã qua hết hạn ở tick kế tiếp")
+  void schedule_ShouldExpirePastDeadlineOnNextTick() {
+    HashedTimerWheel wheel = new HashedTimerWheel(TICK, START);
+    wheel.schedule("late", START - 60 * TICK);
+
+    assertTrue(wheel.advance(START).isEmpty());
+    assertEquals(Collections.singletonList("late"), wheel.advance(START + TICK));
+  }
+
+  @Test
+  @DisplayName("Deadline xa được hạ dần qua các tầng và hết hạn đúng tick")
+  void advance_ShouldCascadeFromUpperLevels() {
+    HashedTimerWheel wheel = new HashedTimerWheel(TICK, START);
+    long[] offsets = { 255, 256, 300, 65_535, 65_536, 70_000 };
+    for (long offset : offsets) {
+      wheel.schedule("k" + offset, START + offset * TICK);
+    }
+
+    List<String> order = new ArrayList<>();
+    for (long tick = 1; tick <= 70_000; tick++) {
+      List<String> expired = wheel.advance(START + tick * TICK);
+      for (String key : expired) {
+        assertEquals("k" + tick, key, "Key hết hạn sai tick");
+      }
+      order.addAll(expired);
+    }
+
+    assertEquals(Arrays.asList("k255", "k256", "k300", "k65535", "k65536", "k70000"), order);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("cancel và schedule lại thay thế deadline cũ")
+  void cancelAndReschedule_ShouldReplaceDeadline() {
+    HashedTimerWheel wheel = new HashedTimerWheel(TICK, START);
+    wheel.schedule("a", START + 3 * TICK);
+    wheel.schedule("b", START + 3 * TICK);
+    wheel.schedule("a", START + 10 * TICK);
+
+    assertTrue(wheel.cancel("b"));
+    assertFalse(wheel.cancel("missing"));
+    assertEquals(START + 10 * TICK, wheel.getDeadline("a"));
+    assertNull(wheel.getDeadline("b"));
+
+    assertTrue(wheel.advance(START + 9 * TICK).isEmpty());
+    assertEquals(Collections.singletonList("a"), wheel.advance(START + 10 * TICK));
+  }
+
+  @Test
+  @DisplayName("Bỏ lỡ nhiều tick thì xếp lại toàn bộ, key quá hạn trả về theo thứ tự deadline")
+  void advance_ShouldRebuild_WhenGapIsLarge() {
+    HashedTimerWheel wheel = new HashedTimerWheel(TICK, START);
+    wheel.schedule("later", START + 200_000 * TICK);
+    wheel.schedule("second", START + 90_000 * TICK);
+    wheel.schedule("first", START + 10 * TICK);
+
+    assertEquals(Arrays.asList("first", "second"), wheel.advance(START + 100_000 * TICK));
+    assertEquals(1, wheel.size());
+
+    assertTrue(wheel.advance(START + 199_999 * TICK).isEmpty());
+    assertEquals(Collections.singletonList("later"), wheel.advance(START + 200_000 * TICK));
+  }
+}
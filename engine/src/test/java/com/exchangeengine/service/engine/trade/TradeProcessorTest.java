@@ -61,7 +61,6 @@ public class TradeProcessorTest {
             mockedAccountCache.when(AccountCache::getInstance).thenReturn(accountCache);
             
             when(storageService.getAccountHistoryCache()).thenReturn(accountHistoryCache);
-            when(accountCache.accountCacheShouldFlush()).thenReturn(false);
             
             // Create processor instance
             processor = new TradeProcessor(event);
@@ -1328,29 +1327,7 @@ public class TradeProcessorTest {
             assertEquals(offer, result.getOffer().orElse(null));
         }
     }
-    
-    @Test
-    public void testProcessWithCacheShouldFlush() {
-        // Sử dụng test đơn giản không phụ thuộc vào Offer.canBeFilled
-        when(accountCache.accountCacheShouldFlush()).thenReturn(true);
-        when(tradeEvent.getOperationType()).thenReturn(OperationType.TRADE_CREATE);
-        
-        // Execute with mocked statics
-        try (MockedStatic<StorageService> mockedStorageService = mockStatic(StorageService.class);
-             MockedStatic<AccountCache> mockedAccountCache = mockStatic(AccountCache.class)) {
-            
-            mockedStorageService.when(StorageService::getInstance).thenReturn(storageService);
-            mockedAccountCache.when(AccountCache::getInstance).thenReturn(accountCache);
-            when(storageService.getAccountHistoryCache()).thenReturn(accountHistoryCache);
-            
-            processor = new TradeProcessor(event);
-            
-            // Test chỉ xác minh rằng các phương thức flush được gọi khi shouldFlush trả về true
-            // trong thực tế sẽ có xử lý cache phức tạp hơn
-            assertTrue(accountCache.accountCacheShouldFlush());
-        }
-    }
-    
+
     @Test
     public void testProcessWithException() {
         // Setup
@@ -1380,7 +1357,7 @@ public class TradeProcessorTest {
     }
 
     @Test
-    public void testProcessWithAccountCacheFlush() {
+    public void testProcessShouldNotFlushAccountCache() {
         // Setup
         when(event.getTradeEvent()).thenReturn(tradeEvent);
         when(tradeEvent.getOperationType()).thenReturn(OperationType.TRADE_CREATE);
@@ -1390,10 +1367,6 @@ public class TradeProcessorTest {
         doNothing().when(event).successes();
         when(event.isSuccess()).thenReturn(true);
         
-        // Giả lập accountCache cần flush
-        when(accountCache.accountCacheShouldFlush()).thenReturn(true);
-        doNothing().when(accountCache).flushAccountToDisk();
-        
         // Execute with mocked statics
         try (MockedStatic<StorageService> mockedStorageService = mockStatic(StorageService.class);
              MockedStatic<AccountCache> mockedAccountCache = mockStatic(AccountCache.class)) {
@@ -1404,9 +1377,9 @@ public class TradeProcessorTest {
             processor = new TradeProcessor(event);
             ProcessResult result = processor.process();
             
-            // Verify
+            // Verify: chỉ FlushScheduler được flush, processor không flush trên thread Disruptor
             assertNotNull(result);
-            verify(accountCache).flushAccountToDisk();
+            verify(accountCache, never()).flushAccountToDisk();
         }
     }
 
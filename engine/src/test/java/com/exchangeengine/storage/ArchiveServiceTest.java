@@ -0,0 +1,185 @@
+package com.exchangeengine.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.RocksDB;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.factory.CoinDepositFactory;
+import com.exchangeengine.factory.TradeFactory;
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.BalanceLock;
+import com.exchangeengine.model.CoinDeposit;
+import com.exchangeengine.model.Trade;
+import com.exchangeengine.storage.rocksdb.BalanceLockRocksDB;
+import com.exchangeengine.storage.rocksdb.DepositRocksDB;
+import com.exchangeengine.storage.rocksdb.Pair;
+import com.exchangeengine.storage.rocksdb.RocksDBConfig;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.storage.rocksdb.TradeRocksDB;
+
+@ExtendWith(SingletonResetExtension.class)
+class ArchiveServiceTest {
+
+  private static final long NOW = 1_000L * 24 * 60 * 60 * 1000;
+  private static final long RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+  private static final long OLD = NOW - RETENTION_MS - 1;
+  private static final long RECENT = NOW - RETENTION_MS + 1;
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService service;
+  private FlushScheduler flushScheduler;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    service = createService(tempDir.resolve("db").toString());
+    service.initialize();
+    RocksDBService.setTestInstance(service);
+
+    flushScheduler = mock(FlushScheduler.class);
+    when(flushScheduler.callBetweenFlushes(any())).thenAnswer(invocation -> {
+      Callable<?> action = invocation.getArgument(0);
+      return action.call();
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.close();
+  }
+
+  @Test
+  @DisplayName("Chỉ bản ghi đã kết thúc và cũ hơn retention được chuyển sang archive, vẫn đọc được qua *RocksDB")
+  void sweep_ShouldMoveOnlyOldTerminalRecords() throws Exception {
+    DepositRocksDB depositRocksDB = DepositRocksDB.getInstance();
+    depositRocksDB.saveDeposit(deposit("d-old-processed", "processed", OLD));
+    depositRocksDB.saveDeposit(deposit("d-old-failed", "failed", OLD));
+    depositRocksDB.saveDeposit(deposit("d-old-pending", "pending", OLD));
+    depositRocksDB.saveDeposit(deposit("d-recent-processed", "processed", RECENT));
+
+    TradeRocksDB tradeRocksDB = TradeRocksDB.getInstance();
+    tradeRocksDB.saveTrade(trade("t-old-completed", Trade.TradeStatus.COMPLETED, OLD));
+    tradeRocksDB.saveTrade(trade("t-old-unpaid", Trade.TradeStatus.UNPAID, OLD));
+
+    BalanceLockRocksDB balanceLockRocksDB = BalanceLockRocksDB.getInstance();
+    balanceLockRocksDB.saveBalanceLock(lock("l-old-released", "RELEASED", OLD));
+    balanceLockRocksDB.saveBalanceLock(lock("l-old-locked", "LOCKED", OLD));
+
+    Map<String, ArchiveService.Archiver> archivers = new LinkedHashMap<>();
+    archivers.put(RocksDBConfig.DEPOSIT_CF, depositRocksDB::archiveDeposits);
+    archivers.put(RocksDBConfig.TRADE_CF, tradeRocksDB::archiveTrades);
+    archivers.put(RocksDBConfig.BALANCE_LOCK_CF, balanceLockRocksDB::archiveBalanceLocks);
+    // batch nhỏ để quét qua nhiều lần gọi nối tiếp bằng cursor
+    ArchiveService archiveService = new ArchiveService(flushScheduler, archivers, RETENTION_MS, 1, 0);
+
+    Map<String, Integer> result = archiveService.sweep(NOW);
+
+    assertEquals(2, result.get(RocksDBConfig.DEPOSIT_CF));
+    assertEquals(1, result.get(RocksDBConfig.TRADE_CF));
+    assertEquals(1, result.get(RocksDBConfig.BALANCE_LOCK_CF));
+    assertEquals(2L, archiveService.getArchivedCounts().get(RocksDBConfig.DEPOSIT_CF));
+    verify(flushScheduler, atLeast(8)).callBetweenFlushes(any());
+
+    // Column family nóng (nguồn tải cache khi khởi động) chỉ còn bản ghi chưa archive
+    assertEquals(Arrays.asList("d-old-pending", "d-recent-processed"), depositRocksDB.getAllDeposits().stream()
+        .map(CoinDeposit::getIdentifier).sorted().collect(Collectors.toList()));
+    assertEquals(Collections.singletonList("t-old-unpaid"), tradeRocksDB.getAllTrades().stream()
+        .map(Trade::getIdentifier).collect(Collectors.toList()));
+    assertEquals(1, balanceLockRocksDB.getAllBalanceLocks().size());
+
+    // Bản ghi đã archive vẫn đọc được
+    assertEquals("processed", depositRocksDB.getDeposit("d-old-processed").get().getStatus());
+    assertTrue(depositRocksDB.getArchivedDeposit("d-old-failed").isPresent());
+    assertFalse(depositRocksDB.getArchivedDeposit("d-old-pending").isPresent());
+    assertTrue(tradeRocksDB.getTrade("t-old-completed").get().isCompleted());
+    assertEquals("RELEASED", balanceLockRocksDB.getBalanceLock("l-old-released").get().getStatus());
+
+    // Lần quét sau không còn gì để chuyển
+    assertEquals(0, archiveService.sweep(NOW).get(RocksDBConfig.DEPOSIT_CF));
+  }
+
+  @Test
+  @DisplayName("Lỗi của một column family không chặn các column family còn lại")
+  void sweep_ShouldContinueAfterArchiverError() {
+    Map<String, ArchiveService.Archiver> archivers = new LinkedHashMap<>();
+    archivers.put(RocksDBConfig.DEPOSIT_CF, (olderThan, startAfter, scanLimit) -> {
+      throw new IllegalStateException("boom");
+    });
+    archivers.put(RocksDBConfig.TRADE_CF, (olderThan, startAfter, scanLimit) -> new Pair<>(null, 3));
+    ArchiveService archiveService = new ArchiveService(flushScheduler, archivers, RETENTION_MS, 100, 0);
+
+    Map<String, Integer> result = archiveService.sweep(NOW);
+
+    assertEquals(0, result.get(RocksDBConfig.DEPOSIT_CF));
+    assertEquals(3, result.get(RocksDBConfig.TRADE_CF));
+    assertEquals(NOW, archiveService.getLastSweepAt());
+  }
+
+  @Test
+  @DisplayName("ARCHIVE_INTERVAL_MS=0 thì không chạy thread archive")
+  void start_ShouldDoNothingWhenDisabled() {
+    ArchiveService archiveService = new ArchiveService(flushScheduler, Collections.emptyMap(), RETENTION_MS, 100, 0);
+
+    archiveService.start();
+    archiveService.shutdown();
+
+    verifyNoInteractions(flushScheduler);
+  }
+
+  private static CoinDeposit deposit(String identifier, String status, long updatedAt) {
+    CoinDeposit deposit = CoinDepositFactory.createWithStatus("btc:user1", identifier, BigDecimal.ONE, status);
+    deposit.setUpdatedAt(updatedAt);
+    return deposit;
+  }
+
+  private static Trade trade(String identifier, Trade.TradeStatus status, long updatedAt) {
+    Trade trade = TradeFactory.withStatus(status);
+    trade.setIdentifier(identifier);
+    trade.setUpdatedAt(Instant.ofEpochMilli(updatedAt));
+    return trade;
+  }
+
+  private static BalanceLock lock(String lockId, String status, long createdAt) {
+    BalanceLock lock = new BalanceLock(ActionType.TRADE, "action-1", lockId,
+        Collections.singletonList("btc:user1"), "identifier-1", null, status);
+    lock.setCreatedAt(createdAt);
+    return lock;
+  }
+
+  private static RocksDBService createService(String dbPath) throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    RocksDBService service = constructor.newInstance();
+    Field field = RocksDBService.class.getDeclaredField("dbPath");
+    field.setAccessible(true);
+    field.set(service, dbPath);
+    return service;
+  }
+}
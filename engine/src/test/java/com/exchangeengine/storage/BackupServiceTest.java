@@ -0,0 +1,196 @@
+package com.exchangeengine.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.RocksDB;
+
+import com.exchangeengine.model.BackupRecord;
+import com.exchangeengine.model.DurablePosition;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import com.exchangeengine.storage.rocksdb.RocksDBService;
+import com.exchangeengine.util.JsonSerializer;
+
+class BackupServiceTest {
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService service;
+  private FlushScheduler flushScheduler;
+  private BackupService backupService;
+  private final DurablePosition position = new DurablePosition(42,
+      Collections.singletonMap("EE.I.coin_deposit-0", 100L), 1000);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    service = createService(tempDir.resolve("db").toString());
+    service.initialize();
+
+    flushScheduler = mock(FlushScheduler.class);
+    when(flushScheduler.callBetweenFlushes(any())).thenAnswer(invocation -> {
+      Callable<?> action = invocation.getArgument(0);
+      return action.call();
+    });
+    when(flushScheduler.getDurablePosition()).thenReturn(position);
+
+    backupService = new BackupService(service, flushScheduler, tempDir.resolve("backups"),
+        tempDir.resolve("checkpoints"), 0, 2, 2, 0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    backupService.shutdown();
+    if (service != null) {
+      service.close();
+    }
+    RocksDBService.resetInstance();
+    ReadSnapshotCache.resetInstance();
+  }
+
+  @Test
+  @DisplayName("Checkpoint phải chứa dữ liệu và vị trí bền, chỉ giữ keepCheckpoints checkpoint mới nhất")
+  void createCheckpoint_ShouldWritePositionAndPruneOldCheckpoints() throws Exception {
+    put("btc:user1", "100");
+
+    BackupRecord first = backupService.createCheckpoint();
+    Thread.sleep(5);
+    backupService.createCheckpoint();
+    Thread.sleep(5);
+    BackupRecord last = backupService.createCheckpoint();
+
+    assertEquals(BackupRecord.TYPE_CHECKPOINT, last.getType());
+    assertEquals(position, last.getPosition());
+    assertTrue(last.getNumberFiles() > 0);
+    assertFalse(Files.exists(Path.of(first.getPath())), "Checkpoint cũ nhất phải bị xóa");
+    try (Stream<Path> dirs = Files.list(tempDir.resolve("checkpoints"))) {
+      assertEquals(2, dirs.count());
+    }
+
+    Path checkpoint = Path.of(last.getPath());
+    DurablePosition saved = JsonSerializer.deserialize(
+        Files.readAllBytes(checkpoint.resolve(BackupService.POSITION_FILE)), DurablePosition.class);
+    assertEquals(position, saved);
+    verify(flushScheduler, times(3)).callBetweenFlushes(any());
+
+    service.close();
+    service = createService(checkpoint.toString());
+    service.initialize();
+    assertEquals("100", get("btc:user1"));
+  }
+
+  @Test
+  @DisplayName("Không tạo checkpoint khi lần flush gần nhất lỗi")
+  void createCheckpoint_ShouldFail_WhenLastFlushFailed() throws Exception {
+    when(flushScheduler.isLastFlushFailed()).thenReturn(true);
+
+    assertThrows(IllegalStateException.class, () -> backupService.createCheckpoint());
+    try (Stream<Path> dirs = Files.list(tempDir.resolve("checkpoints"))) {
+      assertEquals(0, dirs.count());
+    }
+  }
+
+  @Test
+  @DisplayName("Backup tăng dần lưu vị trí bền trong metadata và khôi phục được vào thư mục mới")
+  void createBackup_ShouldBeIncrementalAndRestorable() throws Exception {
+    put("btc:user1", "100");
+    BackupRecord first = backupService.createBackup();
+    put("btc:user2", "200");
+    BackupRecord second = backupService.createBackup();
+
+    assertEquals(BackupRecord.TYPE_BACKUP, second.getType());
+    assertTrue(second.getBackupId() > first.getBackupId());
+    assertEquals(position, second.getPosition());
+    List<BackupRecord> backups = backupService.listBackups();
+    assertEquals(2, backups.size());
+    assertEquals(position, backups.get(1).getPosition());
+    try (Stream<Path> dirs = Files.list(tempDir.resolve("checkpoints"))) {
+      assertEquals(0, dirs.count(), "Checkpoint tạm phải bị xóa sau khi backup");
+    }
+
+    String restoreFirst = tempDir.resolve("restore-1").toString();
+    String restoreLatest = tempDir.resolve("restore-latest").toString();
+    BackupService.restoreToNewDir(tempDir.resolve("backups").toString(), first.getBackupId(), restoreFirst);
+    BackupService.restoreToNewDir(tempDir.resolve("backups").toString(), 0, restoreLatest);
+
+    service.close();
+    service = createService(restoreFirst);
+    service.initialize();
+    assertEquals("100", get("btc:user1"));
+    assertNull(get("btc:user2"));
+
+    service.close();
+    service = createService(restoreLatest);
+    service.initialize();
+    assertEquals("200", get("btc:user2"));
+  }
+
+  @Test
+  @DisplayName("Không được khôi phục đè lên thư mục đã có dữ liệu")
+  void restoreToNewDir_ShouldRejectNonEmptyTarget() throws Exception {
+    backupService.createBackup();
+    Path target = Files.createDirectories(tempDir.resolve("target"));
+    Files.write(target.resolve("CURRENT"), new byte[] { 1 });
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BackupService.restoreToNewDir(tempDir.resolve("backups").toString(), 0, target.toString()));
+  }
+
+  @Test
+  @DisplayName("trigger chạy backup trên thread backup, từ chối khi service chưa chạy hoặc sai loại")
+  void trigger_ShouldRunOnBackupThread() throws Exception {
+    ExecutionException notRunning = assertThrows(ExecutionException.class,
+        () -> backupService.trigger(BackupRecord.TYPE_BACKUP).get(10, TimeUnit.SECONDS));
+    assertTrue(notRunning.getCause() instanceof IllegalStateException);
+
+    backupService.start();
+    BackupRecord record = backupService.trigger(BackupRecord.TYPE_CHECKPOINT).get(30, TimeUnit.SECONDS);
+    assertEquals(BackupRecord.TYPE_CHECKPOINT, record.getType());
+
+    ExecutionException unknown = assertThrows(ExecutionException.class,
+        () -> backupService.trigger("snapshot").get(10, TimeUnit.SECONDS));
+    assertTrue(unknown.getCause() instanceof IllegalArgumentException);
+  }
+
+  private void put(String key, String value) throws Exception {
+    service.getDb().put(service.getAccountCF(), key.getBytes(StandardCharsets.UTF_8),
+        value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String get(String key) throws Exception {
+    byte[] value = service.getDb().get(service.getAccountCF(), key.getBytes(StandardCharsets.UTF_8));
+    return value == null ? null : new String(value, StandardCharsets.UTF_8);
+  }
+
+  private static RocksDBService createService(String dbPath) throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    RocksDBService service = constructor.newInstance();
+    Field field = RocksDBService.class.getDeclaredField("dbPath");
+    field.setAccessible(true);
+    field.set(service, dbPath);
+    return service;
+  }
+}
@@ -0,0 +1,144 @@
+package com.exchangeengine.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.model.DurablePosition;
+
+class DurabilityTrackerTest {
+
+  private final AtomicLong published = new AtomicLong(-1);
+  private final AtomicLong processed = new AtomicLong(-1);
+  private final AtomicReference<Map<String, Long>> offsets = new AtomicReference<>(Collections.emptyMap());
+  private final List<DurablePosition> saved = new ArrayList<>();
+  private final DurabilityTracker.Barrier barrier = action -> action.accept(processed.get());
+  private DurabilityTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    tracker = new DurabilityTracker(published::get, barrier, offsets::get, saved::add,
+        new DurablePosition(-1, Collections.emptyMap(), 0));
+  }
+
+  @Test
+  @DisplayName("Offset chỉ được xác nhận khi mọi event publish trước khi đọc offset đã xử lý xong")
+  void afterFlush_ShouldConfirmOffsetsOnlyAfterCursorIsProcessed() {
+    // Flush 1: consumer đã đưa offset 10 vào ring buffer tới sequence 9
+    offsets.set(Collections.singletonMap("EE.I.coin_deposit-0", 10L));
+    published.set(9);
+    processed.set(4);
+    tracker.beforeFlush(processed.get());
+    DurablePosition first = tracker.afterFlush(1000);
+    assertEquals(4, first.getDisruptorSequence());
+    assertTrue(first.getKafkaOffsets().isEmpty(), "Event 5..9 chưa xử lý nên offset 10 chưa bền");
+
+    // Flush 2: vẫn chưa xử lý tới sequence 9
+    processed.set(8);
+    tracker.beforeFlush(processed.get());
+    assertTrue(tracker.afterFlush(2000).getKafkaOffsets().isEmpty());
+
+    // Flush 3: đã xử lý sequence 9, offset 10 được xác nhận
+    offsets.set(Collections.singletonMap("EE.I.coin_deposit-0", 20L));
+    published.set(19);
+    processed.set(12);
+    tracker.beforeFlush(processed.get());
+    DurablePosition third = tracker.afterFlush(3000);
+    assertEquals(12, third.getDisruptorSequence());
+    assertEquals(10L, third.getKafkaOffsets().get("EE.I.coin_deposit-0"));
+
+    assertEquals(3, saved.size());
+    assertSame(third, tracker.getDurablePosition());
+  }
+
+  @Test
+  @DisplayName("Vị trí đã lưu từ lần chạy trước giữ offset nhưng bỏ sequence")
+  void constructor_ShouldKeepOffsetsAndResetSequence() {
+    Map<String, Long> previous = new TreeMap<>();
+    previous.put("EE.I.trade-0", 7L);
+    DurabilityTracker restored = new DurabilityTracker(published::get, barrier, offsets::get, saved::add,
+        new DurablePosition(100, previous, 500));
+
+    assertEquals(-1, restored.getDurablePosition().getDisruptorSequence());
+    assertEquals(7L, restored.getDurablePosition().getKafkaOffsets().get("EE.I.trade-0"));
+
+    processed.set(3);
+    restored.beforeFlush(processed.get());
+    assertEquals(7L, restored.afterFlush(1000).getKafkaOffsets().get("EE.I.trade-0"));
+  }
+
+  @Test
+  @DisplayName("Sequence journal bền được tính từ sequence Disruptor đã xử lý, giữ giá trị cũ khi chưa flush")
+  void afterFlush_ShouldMapProcessedSequenceToJournalSequence() {
+    DurabilityTracker journaled = new DurabilityTracker(published::get, barrier, offsets::get,
+        sequence -> 100 + sequence, saved::add, new DurablePosition(40, Collections.emptyMap(), 500, 99));
+
+    assertEquals(99, journaled.getDurablePosition().getJournalSequence());
+
+    published.set(9);
+    processed.set(5);
+    journaled.beforeFlush(processed.get());
+    DurablePosition position = journaled.afterFlush(1000);
+    assertEquals(5, position.getDisruptorSequence());
+    assertEquals(105, position.getJournalSequence());
+
+    // Tracker không dùng journal giữ nguyên giá trị đã lưu
+    tracker.beforeFlush(processed.get());
+    assertEquals(-1, tracker.afterFlush(2000).getJournalSequence());
+  }
+
+  @Test
+  @DisplayName("Flush trước khi xử lý event nào giữ nguyên sequence journal đã lưu")
+  void afterFlush_ShouldKeepJournalSequence_WhenNothingProcessed() {
+    DurabilityTracker journaled = new DurabilityTracker(published::get, barrier, offsets::get,
+        sequence -> 100 + sequence, saved::add, new DurablePosition(40, Collections.emptyMap(), 500, 99));
+
+    journaled.beforeFlush(-1);
+    DurablePosition position = journaled.afterFlush(1000);
+    assertEquals(-1, position.getDisruptorSequence());
+    assertEquals(99, position.getJournalSequence());
+  }
+
+  @Test
+  @DisplayName("flush ghi dữ liệu trong barrier và chỉ lưu vị trí khi ghi thành công")
+  void flush_ShouldWriteInsideBarrierAndSaveOnlyOnSuccess() {
+    List<String> calls = new ArrayList<>();
+    DurabilityTracker paused = new DurabilityTracker(published::get, action -> {
+      calls.add("pause");
+      action.accept(6);
+      calls.add("resume");
+    }, offsets::get, saved::add, new DurablePosition());
+
+    assertThrows(IllegalStateException.class, () -> paused.flush(() -> {
+      calls.add("flush");
+      throw new IllegalStateException("disk full");
+    }, 1000));
+    assertTrue(saved.isEmpty());
+    assertEquals(-1, paused.getDurablePosition().getDisruptorSequence());
+
+    paused.flush(() -> calls.add("flush"), 2000);
+    assertEquals(List.of("pause", "flush", "pause", "flush", "resume"), calls);
+    assertEquals(1, saved.size());
+    assertEquals(6, paused.getDurablePosition().getDisruptorSequence());
+    assertEquals(2000, paused.getDurablePosition().getFlushedAt());
+  }
+
+  @Test
+  @DisplayName("afterFlush không có beforeFlush tương ứng thì không lưu gì")
+  void afterFlush_WithoutBeforeFlush_ShouldNotSave() {
+    DurablePosition position = tracker.afterFlush(1000);
+
+    assertEquals(-1, position.getDisruptorSequence());
+    assertTrue(saved.isEmpty());
+  }
+}
@@ -0,0 +1,166 @@
+package com.exchangeengine.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.model.DurablePosition;
+import com.exchangeengine.storage.FlushScheduler.Reason;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FlushSchedulerTest {
+
+  private static final long MAX_ENTRIES = 100;
+  private static final long MAX_AGE_MS = 200;
+  private static final long MAX_BYTES = 10_000;
+  private static final long MIN_INTERVAL_MS = 10;
+
+  @Mock
+  private StorageService storageService;
+
+  private final AtomicLong bytesWritten = new AtomicLong();
+  private FlushScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = new FlushScheduler(storageService, bytesWritten::get, MAX_ENTRIES, MAX_AGE_MS, MAX_BYTES,
+        MIN_INTERVAL_MS);
+  }
+
+  @Test
+  @DisplayName("Không có dữ liệu chờ lưu thì không flush và giãn dần chu kỳ kiểm tra")
+  void tick_ShouldBackOffWhenIdle() {
+    when(storageService.pendingFlushCount()).thenReturn(0);
+
+    long first = scheduler.tick(1000);
+    long second = scheduler.tick(1010);
+    for (int i = 0; i < 10; i++) {
+      scheduler.tick(1020 + i);
+    }
+
+    assertTrue(second > first);
+    assertEquals(FlushScheduler.IDLE_POLL_MAX_MS, scheduler.tick(2000));
+    verify(storageService, never()).flushToDisk();
+  }
+
+  @Test
+  @DisplayName("Tải thấp chỉ flush khi bản ghi cũ nhất chờ đủ maxDirtyAgeMs")
+  void tick_ShouldFlushOnAgeUnderLowLoad() {
+    when(storageService.pendingFlushCount()).thenReturn(3);
+
+    assertEquals(FlushScheduler.ACTIVE_POLL_MS, scheduler.tick(1000));
+    scheduler.tick(1000 + MAX_AGE_MS - 1);
+    verify(storageService, never()).flushToDisk();
+
+    scheduler.tick(1000 + MAX_AGE_MS);
+
+    verify(storageService, times(1)).flushToDisk();
+    assertEquals(Reason.AGE, scheduler.getLastFlushReason());
+    assertEquals(1, scheduler.getFlushCount(Reason.AGE));
+    assertEquals(3, scheduler.getLastFlushEntries());
+  }
+
+  @Test
+  @DisplayName("Vượt ngưỡng số bản ghi thì flush ngay, nhưng hai lần flush cách nhau ít nhất minFlushIntervalMs")
+  void tick_ShouldFlushOnSizeAndCoalesceWithinMinInterval() {
+    when(storageService.pendingFlushCount()).thenReturn((int) MAX_ENTRIES);
+
+    scheduler.tick(1000);
+    scheduler.tick(1000 + MIN_INTERVAL_MS - 1);
+    verify(storageService, times(1)).flushToDisk();
+
+    scheduler.tick(1000 + MIN_INTERVAL_MS);
+    verify(storageService, times(2)).flushToDisk();
+    assertEquals(2, scheduler.getFlushCount(Reason.SIZE));
+  }
+
+  @Test
+  @DisplayName("Số byte mỗi bản ghi được học từ lần flush trước và dùng cho ngưỡng BYTES")
+  void tick_ShouldFlushOnEstimatedBytes() {
+    // Lần flush đầu: 10 bản ghi ghi ra 20000 byte -> trung bình trượt tăng lên
+    when(storageService.pendingFlushCount()).thenReturn(10);
+    doAnswer(invocation -> bytesWritten.addAndGet(20_000)).when(storageService).flushToDisk();
+    scheduler.tick(1000);
+    scheduler.tick(1000 + MAX_AGE_MS);
+    assertEquals(20_000, scheduler.getLastFlushBytes());
+    double learned = scheduler.getBytesPerEntry();
+    assertTrue(learned > FlushScheduler.INITIAL_BYTES_PER_ENTRY);
+
+    // Ít bản ghi hơn MAX_ENTRIES nhưng kích thước ước tính vượt MAX_BYTES
+    int pending = (int) (MAX_BYTES / learned) + 1;
+    when(storageService.pendingFlushCount()).thenReturn(pending);
+    scheduler.tick(2000);
+
+    assertEquals(Reason.BYTES, scheduler.getLastFlushReason());
+    assertEquals(1, scheduler.getFlushCount(Reason.BYTES));
+  }
+
+  @Test
+  @DisplayName("Flush lỗi được đếm và lần kiểm tra sau vẫn tiếp tục")
+  void tick_ShouldCountFlushErrors() {
+    when(storageService.pendingFlushCount()).thenReturn((int) MAX_ENTRIES);
+    doThrow(new RuntimeException("disk full")).doNothing().when(storageService).flushToDisk();
+
+    scheduler.tick(1000);
+    assertTrue(scheduler.isLastFlushFailed());
+    scheduler.tick(1000 + MIN_INTERVAL_MS);
+
+    assertFalse(scheduler.isLastFlushFailed());
+    assertEquals(1, scheduler.getFlushErrors());
+    assertEquals(1, scheduler.getFlushCount(Reason.SIZE));
+    verify(storageService, times(2)).flushToDisk();
+  }
+
+  @Test
+  @DisplayName("Vị trí bền chỉ được lưu sau lần flush thành công")
+  void tick_ShouldSaveDurablePositionOnlyAfterSuccessfulFlush() throws Exception {
+    List<DurablePosition> saved = new ArrayList<>();
+    AtomicLong sequence = new AtomicLong(41);
+    scheduler.setDurabilityTracker(new DurabilityTracker(sequence::get, action -> action.accept(sequence.get()),
+        Collections::emptyMap, saved::add, new DurablePosition()));
+    when(storageService.pendingFlushCount()).thenReturn((int) MAX_ENTRIES);
+    doThrow(new RuntimeException("disk full")).doNothing().when(storageService).flushToDisk();
+
+    scheduler.tick(1000);
+    assertTrue(saved.isEmpty());
+    assertEquals(-1, scheduler.getDurablePosition().getDisruptorSequence());
+
+    scheduler.tick(1000 + MIN_INTERVAL_MS);
+    assertEquals(1, saved.size());
+    assertEquals(41, scheduler.getDurablePosition().getDisruptorSequence());
+    assertEquals(1000 + MIN_INTERVAL_MS, saved.get(0).getFlushedAt());
+    assertEquals("ok", scheduler.callBetweenFlushes(() -> "ok"));
+  }
+
+  @Test
+  @DisplayName("shutdown dừng thread và flush lần cuối")
+  void shutdown_ShouldStopThreadAndFlushRemainingData() {
+    when(storageService.pendingFlushCount()).thenReturn(0);
+
+    scheduler.start();
+    scheduler.start();
+    scheduler.shutdown();
+
+    verify(storageService, times(1)).flushToDisk();
+    assertEquals(1, scheduler.getFlushCount(Reason.SHUTDOWN));
+
+    Map<String, Object> metrics = scheduler.getMetrics();
+    assertEquals(1L, metrics.get("flushes.shutdown"));
+    assertEquals(Reason.SHUTDOWN, metrics.get("lastFlushReason"));
+  }
+}
@@ -10,6 +10,7 @@ import com.exchangeengine.storage.cache.EventCache;
 import com.exchangeengine.storage.cache.AmmPoolCache;
 import com.exchangeengine.storage.cache.AmmPositionCache;
 import com.exchangeengine.storage.cache.MerchantEscrowCache;
+import com.exchangeengine.storage.cache.SymbolTable;
 import com.exchangeengine.storage.cache.TickCache;
 import com.exchangeengine.storage.cache.TickBitmapCache;
 import com.exchangeengine.storage.cache.AmmOrderCache;
@@ -94,17 +95,6 @@ class StorageServiceTest {
     AmmPositionCache.setTestInstance(mockAmmPositionCache);
     MerchantEscrowCache.setTestInstance(mockMerchantEscrowCache);
     AmmOrderCache.setTestInstance(mockAmmOrderCache);
-
-    // Cấu hình hành vi cơ bản
-    lenient().when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    lenient().when(mockMerchantEscrowCache.merchantEscrowCacheShouldFlush()).thenReturn(false);
   }
 
   /**
@@ -165,6 +155,7 @@ class StorageServiceTest {
 
     // Assert
     verify(mockAccountCache).initializeAccountCache();
+    verify(mockAccountHistoryCache).initializeAccountHistoryCache();
     verify(mockDepositCache).initializeDepositCache();
     verify(mockWithdrawalCache).initializeWithdrawalCache();
     verify(mockAmmPoolCache).initializeAmmPoolCache();
@@ -175,6 +166,18 @@ class StorageServiceTest {
     verify(mockAmmOrderCache).initializeAmmOrderCache();
   }
 
+  @Test
+  @DisplayName("initializeCache should stop when the symbol table cannot be loaded")
+  void initializeCache_ShouldFail_WhenSymbolTableLoadFails() {
+    SymbolTable mockSymbolTable = mock(SymbolTable.class);
+    doReturn(mockSymbolTable).when(storageService).getSymbolTable();
+    doThrow(new IllegalStateException("DB Error")).when(mockSymbolTable).initializeSymbolTable();
+
+    assertThrows(IllegalStateException.class, () -> storageService.initializeCache());
+
+    verify(mockAccountCache, never()).initializeAccountCache();
+  }
+
   @Test
   @DisplayName("getAccountCache should return the account cache instance")
   void getAccountCache_ShouldReturnAccountCacheInstance() {
@@ -285,154 +288,6 @@ class StorageServiceTest {
     assertSame(mockAmmOrderCache, result, "Should return the mock AMM order cache");
   }
 
-  @Test
-  @DisplayName("shouldFlush should check cache flush conditions")
-  void shouldFlush_ShouldCheckCacheFlushConditions() {
-    // Arrange
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(true);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    when(mockMerchantEscrowCache.merchantEscrowCacheShouldFlush()).thenReturn(false);
-
-    // Act
-    boolean result = storageService.shouldFlush();
-
-    // Assert
-    assertTrue(result, "Should return true when any cache reports it should flush");
-
-    // Test with all caches returning false
-    Mockito.reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache, mockAmmPositionCache, mockMerchantEscrowCache,
-        mockAmmOrderCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    when(mockMerchantEscrowCache.merchantEscrowCacheShouldFlush()).thenReturn(false);
-
-    result = storageService.shouldFlush();
-    assertFalse(result, "Should return false when no cache reports it should flush");
-  }
-
-  @Test
-  @DisplayName("shouldFlush should return true when any individual cache needs flush")
-  void shouldFlush_ShouldReturnTrue_WhenAnyIndividualCacheNeedsFlush() {
-    // Test all individual caches
-
-    // Test 1: Only Account cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(true);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when account cache needs flush");
-
-    // Test 2: Only Deposit cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(true);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when deposit cache needs flush");
-
-    // Test 3: Only Withdrawal cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(true);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when withdrawal cache needs flush");
-
-    // Test 4: Only AccountHistory cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(true);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when account history cache needs flush");
-
-    // Test 5: Only AmmPool cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(true);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when amm pool cache needs flush");
-
-    // Test 6: Only Tick cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(true);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when tick cache needs flush");
-
-    // Test 7: Only TickBitmap cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(true);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(false);
-    assertTrue(storageService.shouldFlush(), "Should flush when tick bitmap cache needs flush");
-
-    // Test 8: Only AmmPosition cache needs flush
-    reset(mockAccountCache, mockDepositCache, mockWithdrawalCache, mockAccountHistoryCache,
-        mockAmmPoolCache, mockTickCache, mockTickBitmapCache, mockAmmPositionCache);
-    when(mockAccountCache.accountCacheShouldFlush()).thenReturn(false);
-    when(mockDepositCache.depositCacheShouldFlush()).thenReturn(false);
-    when(mockWithdrawalCache.withdrawalCacheShouldFlush()).thenReturn(false);
-    when(mockAccountHistoryCache.historiesCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPoolCache.ammPoolCacheShouldFlush()).thenReturn(false);
-    when(mockTickCache.tickCacheShouldFlush()).thenReturn(false);
-    when(mockTickBitmapCache.tickBitmapCacheShouldFlush()).thenReturn(false);
-    when(mockAmmPositionCache.ammPositionCacheShouldFlush()).thenReturn(true);
-    assertTrue(storageService.shouldFlush(), "Should flush when amm position cache needs flush");
-  }
-
   @Test
   @DisplayName("flushToDisk should call flush on all cache instances")
   void flushToDisk_ShouldCallFlushOnAllCaches() {
@@ -449,19 +304,7 @@ class StorageServiceTest {
     verify(mockTickBitmapCache).flushTickBitmapsToDisk();
     verify(mockAmmPositionCache).flushAmmPositionToDisk();
     verify(mockMerchantEscrowCache).flushMerchantEscrowToDisk();
-  }
-
-  @Test
-  @DisplayName("shutdown should call flushToDisk")
-  void shutdown_ShouldCallFlushToDisk() {
-    // Sử dụng doNothing() cho phương thức flushToDisk
-    doNothing().when(storageService).flushToDisk();
-
-    // Act
-    storageService.shutdown();
-
-    // Assert
-    verify(storageService, times(1)).flushToDisk();
+    verify(mockAmmOrderCache).flushAmmOrderToDisk();
   }
 
   @Test
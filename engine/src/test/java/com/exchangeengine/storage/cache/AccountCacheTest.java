@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Arrays;
 
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -175,27 +177,39 @@ class AccountCacheTest {
     assertEquals(accountKey, cachedAccount.get().getKey(), "Cached account key should match");
   }
 
+  @Test
+  @DisplayName("accounts should be addressable by symbol table id and share the interned key")
+  void getAccount_ById_ShouldReturnSameAccountAsKeyLookup() {
+    // Arrange - more accounts than one off-heap chunk
+    for (int i = 0; i < 20000; i++) {
+      accountCache.getOrCreateAccount("usdt:grow" + i);
+    }
+    Account created = accountCache.getOrCreateAccount(new String("btc:interned"));
+    created.increaseAvailableBalance(new BigDecimal("1.5"));
+    accountCache.updateAccount(created);
+
+    // Act
+    int accountId = SymbolTable.getInstance().getId(SymbolTable.Kind.ACCOUNT, "btc:interned");
+
+    // Assert
+    assertTrue(accountId >= 0, "Account key should have an id");
+    Account byId = accountCache.getAccount(accountId).get();
+    assertEquals(0, new BigDecimal("1.5").compareTo(byId.getAvailableBalance()));
+    assertEquals(created.getUpdatedAt(), byId.getUpdatedAt());
+    assertEquals(0, new BigDecimal("1.5").compareTo(accountCache.getOrCreateAccount("btc:interned").getAvailableBalance()));
+    assertSame(byId.getKey(), SymbolTable.getInstance().intern(SymbolTable.Kind.ACCOUNT, "btc:interned"));
+    assertTrue(accountCache.getAccount("usdt:grow0").isPresent());
+    assertTrue(accountCache.getAccount("usdt:grow19999").isPresent());
+    assertFalse(accountCache.getAccount(-1).isPresent());
+    assertFalse(accountCache.getAccount(Integer.MAX_VALUE).isPresent());
+  }
+
   @Test
   @DisplayName("resetAccount should reset account to initial state when account exists")
   void resetAccount_ShouldResetAccountToInitialState_WhenAccountExists() {
     // Arrange
     String accountKey = "btc:test";
-
-    // Clear và cấu hình lại mock
-    try {
-      // Lấy accountCache vì nó sẽ được sử dụng để test
-      java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-      latestAccountsField.setAccessible(true);
-      @SuppressWarnings("unchecked")
-      java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-          .get(accountCache);
-      latestAccounts.clear();
-
-      // Trong implementation, resetAccount sẽ gọi addAccountToBatch, không phải saveAccount 
-      // Không cần phải verify saveAccount nữa
-    } catch (Exception e) {
-      fail("Failed to set up test: " + e.getMessage());
-    }
+    flushAndClearInvocations();
 
     // Act
     accountCache.resetAccount(accountKey);
@@ -209,22 +223,13 @@ class AccountCacheTest {
     assertEquals(0, BigDecimal.ZERO.compareTo(resetAccount.get().getFrozenBalance()),
         "Frozen balance should be reset to zero");
 
-    // Kiểm tra xem account đã được thêm vào latestAccounts chưa
-    try {
-      java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-      latestAccountsField.setAccessible(true);
-      java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-          .get(accountCache);
-      assertTrue(latestAccounts.containsKey(accountKey), "Account should be added to latestAccounts");
-      
-      Account batchedAccount = latestAccounts.get(accountKey);
-      assertEquals(0, BigDecimal.ZERO.compareTo(batchedAccount.getAvailableBalance()),
-          "Batched account should have zero balance");
-      assertEquals(0, BigDecimal.ZERO.compareTo(batchedAccount.getFrozenBalance()),
-          "Batched account should have zero frozen balance");
-    } catch (Exception e) {
-      fail("Failed to check latestAccounts: " + e.getMessage());
-    }
+    // Account đã reset phải được lưu ở lần flush tiếp theo
+    Account batchedAccount = flushAndCaptureBatch().get(accountKey);
+    assertNotNull(batchedAccount, "Account should be flushed after reset");
+    assertEquals(0, BigDecimal.ZERO.compareTo(batchedAccount.getAvailableBalance()),
+        "Batched account should have zero balance");
+    assertEquals(0, BigDecimal.ZERO.compareTo(batchedAccount.getFrozenBalance()),
+        "Batched account should have zero frozen balance");
   }
 
   @Test
@@ -284,151 +289,102 @@ class AccountCacheTest {
         "Account balance should match");
   }
 
-  @Test
-  @DisplayName("accountCacheShouldFlush should return false when batch size is below threshold")
-  void accountCacheShouldFlush_ShouldReturnFalse_WhenBatchSizeBelowThreshold() throws Exception {
-    // Act & Assert
-    assertFalse(accountCache.accountCacheShouldFlush(), "Should return false when batch size is below threshold");
-  }
-
-  @Test
-  @DisplayName("accountCacheShouldFlush should return true when batch size reaches threshold")
-  void accountCacheShouldFlush_ShouldReturnTrue_WhenBatchSizeReachesThreshold() throws Exception {
-    // We need to access BACKUP_BATCH_SIZE through reflection to know threshold
-    java.lang.reflect.Field batchSizeField = AccountCache.class.getDeclaredField("BACKUP_BATCH_SIZE");
-    batchSizeField.setAccessible(true);
-    int batchSizeThreshold = (int) batchSizeField.get(null);
-
-    // Access latestAccounts to add many accounts
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-
-    // Add accounts until we reach threshold
-    for (int i = 0; i < batchSizeThreshold; i++) {
-      Account account = new Account("btc:batch_test_" + i);
-      latestAccounts.put(account.getKey(), account);
-    }
-
-    // Act & Assert
-    assertTrue(accountCache.accountCacheShouldFlush(), "Should return true when batch size reaches threshold");
-
-    // Now remove some and check it returns false
-    for (int i = 0; i < 5; i++) {
-      latestAccounts.remove("btc:batch_test_" + i);
-    }
-
-    assertFalse(accountCache.accountCacheShouldFlush(), "Should return false when batch size is below threshold");
-  }
-
   @Test
   @DisplayName("flushAccountToDisk should not call saveAccountBatch when no accounts to flush")
   void flushAccountToDisk_ShouldNotCallSaveAccountBatch_WhenNoAccountsToFlush() {
-    // Arrange - clear latestAccounts
-    // Prepare a clean state
-    try {
-      java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-      latestAccountsField.setAccessible(true);
-      @SuppressWarnings("unchecked")
-      java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-          .get(accountCache);
-      
-      // Clear latestAccounts
-      latestAccounts.clear();
-      
-      // Verify it's empty before proceeding
-      assertTrue(latestAccounts.isEmpty(), "latestAccounts should be empty before test");
-    } catch (Exception e) {
-      fail("Failed to clear latestAccounts: " + e.getMessage());
-    }
+    // Arrange - flush the account added in setUp
+    flushAndClearInvocations();
 
     // Act
     accountCache.flushAccountToDisk();
 
-    // Assert - since latestAccounts is empty, saveAccountBatch should not be called
+    // Assert - since no account is dirty, saveAccountBatch should not be called
     verify(mockAccountRocksDB, never()).saveAccountBatch(any());
   }
 
   @Test
-  @DisplayName("addAccountToBatch should update account when new account has newer timestamp")
-  void addAccountToBatch_ShouldUpdateAccount_WhenNewAccountHasNewerTimestamp() throws Exception {
+  @DisplayName("addAccountToBatch should write account read from the current record version, even in the same millisecond")
+  void addAccountToBatch_ShouldUpdateAccount_WhenAccountHasCurrentVersion() throws Exception {
     // Arrange
     Account oldAccount = AccountFactory.createWithBalances("btc:test",
         new BigDecimal("100.0"),
         BigDecimal.ZERO);
     oldAccount.setUpdatedAt(1000L);
 
-    Account newAccount = AccountFactory.createWithBalances("btc:test",
-        new BigDecimal("200.0"),
-        BigDecimal.ZERO);
-    newAccount.setUpdatedAt(2000L);
-
-    // Access latestAccounts to clean and check 
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-    latestAccounts.clear();
-
-    // Add old account first
-    accountCache.addAccountToBatch(oldAccount);
+    accountCache.updateAccount(oldAccount);
+    flushAndClearInvocations();
 
-    // Verify old account was added
-    assertEquals(oldAccount, latestAccounts.get("btc:test"), 
-        "old account should be in latestAccounts");
+    Account newAccount = accountCache.getAccount("btc:test").get();
+    newAccount.setAvailableBalance(new BigDecimal("200.0"));
+    newAccount.setUpdatedAt(1000L);
 
     // Act
     accountCache.addAccountToBatch(newAccount);
 
     // Assert
-    Account storedAccount = latestAccounts.get("btc:test");
-    assertNotNull(storedAccount, "Account should be present in latest accounts");
-    assertEquals(newAccount, storedAccount, "New account should have replaced old account");
+    Account storedAccount = flushAndCaptureBatch().get("btc:test");
+    assertNotNull(storedAccount, "Account should be present in the flushed batch");
     assertEquals(0, new BigDecimal("200.0").compareTo(storedAccount.getAvailableBalance()),
         "Should have updated to new account's balance");
-    assertEquals(2000L, storedAccount.getUpdatedAt(), "Should have updated timestamp");
+    assertEquals(0, new BigDecimal("200.0").compareTo(accountCache.getAccount("btc:test").get().getAvailableBalance()));
   }
 
   @Test
-  @DisplayName("addAccountToBatch should keep existing account when new account has older timestamp")
-  void addAccountToBatch_ShouldKeepExistingAccount_WhenNewAccountHasOlderTimestamp() throws Exception {
+  @DisplayName("addAccountToBatch should keep existing account when new account was read from an older version")
+  void addAccountToBatch_ShouldKeepExistingAccount_WhenAccountHasOlderVersion() throws Exception {
     // Arrange
-    Account newerAccount = AccountFactory.createWithBalances("btc:test",
-        new BigDecimal("200.0"),
-        BigDecimal.ZERO);
-    newerAccount.setUpdatedAt(2000L);
-
-    Account olderAccount = AccountFactory.createWithBalances("btc:test",
+    Account account = AccountFactory.createWithBalances("btc:test",
         new BigDecimal("100.0"),
         BigDecimal.ZERO);
-    olderAccount.setUpdatedAt(1000L);
-
-    // Access latestAccounts to clean and check
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    @SuppressWarnings("unchecked")
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-    latestAccounts.clear();
-
-    // Add newer account first
-    accountCache.addAccountToBatch(newerAccount);
-    
-    // Verify newer account was added
-    assertEquals(newerAccount, latestAccounts.get("btc:test"), 
-        "newer account should be in latestAccounts");
+    accountCache.updateAccount(account);
+
+    Account staleAccount = accountCache.getAccount("btc:test").get();
+    Account newerAccount = accountCache.getAccount("btc:test").get();
+    newerAccount.setAvailableBalance(new BigDecimal("200.0"));
+    accountCache.updateAccount(newerAccount);
+    flushAndClearInvocations();
+
+    // Cùng updatedAt, chỉ version phân biệt được bản cũ
+    staleAccount.setAvailableBalance(new BigDecimal("150.0"));
+    staleAccount.setUpdatedAt(newerAccount.getUpdatedAt());
 
     // Act
-    accountCache.addAccountToBatch(olderAccount);
+    accountCache.addAccountToBatch(staleAccount);
 
     // Assert
-    Account storedAccount = latestAccounts.get("btc:test");
-    assertNotNull(storedAccount, "Account should be present in latest accounts");
-    assertEquals(newerAccount, storedAccount, "Newer account should still be present");
+    Account storedAccount = flushAndCaptureBatch().get("btc:test");
+    assertNotNull(storedAccount, "Account should be present in the flushed batch");
     assertEquals(0, new BigDecimal("200.0").compareTo(storedAccount.getAvailableBalance()),
         "Should have kept newer account's balance");
-    assertEquals(2000L, storedAccount.getUpdatedAt(), "Should have kept newer timestamp");
+  }
+
+  @Test
+  @DisplayName("getAccount should return the same Account within an event on the event thread only")
+  void getAccount_ShouldReuseAccountWithinEvent() throws Exception {
+    accountCache.beginEvent();
+    try {
+      Account first = accountCache.getAccount("btc:test").get();
+      first.increaseAvailableBalance(new BigDecimal("1"));
+
+      assertSame(first, accountCache.getAccount("btc:test").get());
+
+      Account[] otherThread = new Account[1];
+      Thread reader = new Thread(() -> otherThread[0] = accountCache.getAccount("btc:test").get());
+      reader.start();
+      reader.join();
+      assertNotSame(first, otherThread[0]);
+      assertEquals(0, new BigDecimal("100.0").compareTo(otherThread[0].getAvailableBalance()));
+
+      Account replaced = AccountFactory.createWithBalances("btc:test", new BigDecimal("7"), BigDecimal.ZERO);
+      accountCache.updateAccount(replaced);
+      assertSame(replaced, accountCache.getAccount("btc:test").get());
+    } finally {
+      accountCache.endEvent();
+    }
+
+    Account afterEvent = accountCache.getAccount("btc:test").get();
+    assertNotSame(afterEvent, accountCache.getAccount("btc:test").get());
+    assertEquals(0, new BigDecimal("7").compareTo(afterEvent.getAvailableBalance()));
   }
 
   @Test
@@ -469,8 +425,8 @@ class AccountCacheTest {
   }
 
   @Test
-  @DisplayName("initializeAccountCache should update accounts that are older in cache")
-  void initializeAccountCache_ShouldUpdateAccounts_WhenDBIsNewer() {
+  @DisplayName("initializeAccountCache should keep cached account even when DB copy has a newer timestamp")
+  void initializeAccountCache_ShouldKeepCachedAccount_WhenDBHasNewerTimestamp() {
     // Arrange
     Account dbAccount = AccountFactory.create("btc:test");
     dbAccount.setUpdatedAt(2000L); // Newer timestamp
@@ -487,8 +443,8 @@ class AccountCacheTest {
     // Assert
     Optional<Account> result = accountCache.getAccount("btc:test");
     assertTrue(result.isPresent(), "Account should be in cache");
-    assertEquals(2000L, result.get().getUpdatedAt(),
-        "Should update to newer timestamp from DB");
+    assertEquals(1000L, result.get().getUpdatedAt(),
+        "DB copy has no record version, cache stays authoritative");
   }
 
   @Test
@@ -536,8 +492,8 @@ class AccountCacheTest {
   }
 
   @Test
-  @DisplayName("flushAccountToDisk should handle exceptions when RocksDB fails")
-  void flushAccountToDisk_ShouldHandleExceptions_WhenRocksDBFails() throws Exception {
+  @DisplayName("flushAccountToDisk should requeue accounts and rethrow when RocksDB fails")
+  void flushAccountToDisk_ShouldRequeueAccounts_WhenRocksDBFails() throws Exception {
     // Arrange
     Account account = AccountFactory.createWithBalances("btc:exception_test",
         new BigDecimal("50.0"), 
@@ -549,20 +505,20 @@ class AccountCacheTest {
     // Cấu hình mock để ném ngoại lệ
     doThrow(new RuntimeException("Database error")).when(mockAccountRocksDB).saveAccountBatch(any());
 
-    // Act - không nên ném exception
-    accountCache.flushAccountToDisk();
+    int pending = accountCache.pendingFlushCount();
+
+    // Act
+    assertThrows(RuntimeException.class, () -> accountCache.flushAccountToDisk());
 
     // Assert
     verify(mockAccountRocksDB, times(1)).saveAccountBatch(any());
-    
-    // Kiểm tra latestAccounts đã được xóa
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    @SuppressWarnings("unchecked")
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-    
-    assertTrue(latestAccounts.isEmpty(), "latestAccounts should be cleared even when an exception occurs");
+
+    // Account được đánh dấu dirty lại và lưu ở lần flush sau
+    assertEquals(pending, accountCache.pendingFlushCount());
+    doNothing().when(mockAccountRocksDB).saveAccountBatch(any());
+    accountCache.flushAccountToDisk();
+    verify(mockAccountRocksDB, times(2)).saveAccountBatch(any());
+    assertEquals(0, accountCache.pendingFlushCount());
   }
 
   @Test
@@ -622,36 +578,42 @@ class AccountCacheTest {
   @DisplayName("addAccountToBatch should not add account when account is null")
   void addAccountToBatch_ShouldNotAdd_WhenAccountIsNull() throws Exception {
     // Arrange
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-    latestAccounts.clear();
+    flushAndClearInvocations();
     
     // Act
     accountCache.addAccountToBatch(null);
     
     // Assert
-    assertTrue(latestAccounts.isEmpty(), "latestAccounts should remain empty");
+    accountCache.flushAccountToDisk();
+    verify(mockAccountRocksDB, never()).saveAccountBatch(any());
   }
-  
+
   @Test
   @DisplayName("addAccountToBatch should not add account when account key is null")
   void addAccountToBatch_ShouldNotAdd_WhenAccountKeyIsNull() throws Exception {
     // Arrange
     Account accountWithNullKey = AccountFactory.create("valid-key");
     accountWithNullKey.setKey(null);
-    
-    java.lang.reflect.Field latestAccountsField = AccountCache.class.getDeclaredField("latestAccounts");
-    latestAccountsField.setAccessible(true);
-    java.util.Map<String, Account> latestAccounts = (java.util.Map<String, Account>) latestAccountsField
-        .get(accountCache);
-    latestAccounts.clear();
+    flushAndClearInvocations();
     
     // Act
     accountCache.addAccountToBatch(accountWithNullKey);
     
     // Assert
-    assertTrue(latestAccounts.isEmpty(), "latestAccounts should remain empty");
+    accountCache.flushAccountToDisk();
+    verify(mockAccountRocksDB, never()).saveAccountBatch(any());
+  }
+
+  private void flushAndClearInvocations() {
+    accountCache.flushAccountToDisk();
+    clearInvocations(mockAccountRocksDB);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Account> flushAndCaptureBatch() {
+    ArgumentCaptor<Map<String, Account>> captor = ArgumentCaptor.forClass(Map.class);
+    accountCache.flushAccountToDisk();
+    verify(mockAccountRocksDB).saveAccountBatch(captor.capture());
+    return captor.getValue();
   }
 }
@@ -76,6 +76,14 @@ class AccountHistoryCacheTest {
     assertSame(instance1, instance2, "getInstance should always return the same instance");
   }
 
+  @Test
+  @DisplayName("initializeAccountHistoryCache should migrate legacy string keys")
+  void initializeAccountHistoryCache_ShouldMigrateLegacyKeys() {
+    accountHistoryCache.initializeAccountHistoryCache();
+
+    verify(mockAccountHistoryRocksDB).migrateLegacyKeys();
+  }
+
   @Test
   @DisplayName("getAccountHistory should return empty Optional when history not found")
   void getAccountHistory_ShouldReturnEmptyOptional_WhenHistoryNotFound() {
@@ -110,17 +118,17 @@ class AccountHistoryCacheTest {
   }
 
   @Test
-  @DisplayName("updateAccountHistory should save history to RocksDB")
-  void updateAccountHistory_ShouldSaveHistoryToRocksDB() {
+  @DisplayName("updateAccountHistory should add history to batch instead of writing to RocksDB")
+  void updateAccountHistory_ShouldAddHistoryToBatch() {
     // Arrange
     AccountHistory history = AccountHistoryFactory.createForWithdrawal(TEST_ACCOUNT_KEY, "new_history");
-    lenient().doNothing().when(mockAccountHistoryRocksDB).saveAccountHistory(any(AccountHistory.class));
 
     // Act
     accountHistoryCache.updateAccountHistory(history);
 
     // Assert
-    verify(mockAccountHistoryRocksDB, times(1)).saveAccountHistory(history);
+    verify(mockAccountHistoryRocksDB, never()).saveAccountHistory(any(AccountHistory.class));
+    assertEquals(1, accountHistoryCache.pendingFlushCount());
   }
 
   @Test
@@ -167,6 +175,23 @@ class AccountHistoryCacheTest {
     verify(mockAccountHistoryRocksDB, times(1)).getAccountHistoriesByAccountKey(TEST_ACCOUNT_KEY, limit, lastKey);
   }
 
+  @Test
+  @DisplayName("getAccountTransactionHistory with time range should delegate to range scan")
+  void getAccountTransactionHistory_WithTimeRange_ShouldDelegateToRangeScan() {
+    // Arrange
+    AccountHistory history = AccountHistoryFactory.createForDeposit(TEST_ACCOUNT_KEY, "history1");
+    when(mockAccountHistoryRocksDB.getAccountHistoriesByTimeRange(TEST_ACCOUNT_KEY, 100L, 200L, null, 5, false))
+        .thenReturn(Collections.singletonList(history));
+
+    // Act
+    List<AccountHistory> result = accountHistoryCache.getAccountTransactionHistory(TEST_ACCOUNT_KEY, 100L, 200L,
+        null, 5, false);
+
+    // Assert
+    assertEquals(1, result.size());
+    assertSame(history, result.get(0));
+  }
+
   @Test
   @DisplayName("addHistoryToBatch should add history to latest histories")
   void addHistoryToBatch_ShouldAddHistoryToLatestHistories() throws Exception {
@@ -180,7 +205,7 @@ class AccountHistoryCacheTest {
     // Verify through reflection that history was added to batch
     Field latestHistoriesField = AccountHistoryCache.class.getDeclaredField("latestHistories");
     latestHistoriesField.setAccessible(true);
-    Map<String, AccountHistory> latestHistories = (Map<String, AccountHistory>) latestHistoriesField
+    WriteBehindBuffer<AccountHistory> latestHistories = (WriteBehindBuffer<AccountHistory>) latestHistoriesField
         .get(accountHistoryCache);
 
     // Assert
@@ -191,31 +216,6 @@ class AccountHistoryCacheTest {
     assertEquals(history.getOperationType(), storedHistory.getOperationType(), "Operation type should match");
   }
 
-  @Test
-  @DisplayName("historiesCacheShouldFlush should return true when batch size reaches threshold")
-  void historiesCacheShouldFlush_ShouldReturnTrue_WhenBatchSizeReachesThreshold() throws Exception {
-    // We need to access BACKUP_BATCH_SIZE through reflection to know threshold
-    java.lang.reflect.Field batchSizeField = AccountHistoryCache.class.getDeclaredField("BACKUP_BATCH_SIZE");
-    batchSizeField.setAccessible(true);
-    int batchSizeThreshold = (int) batchSizeField.get(null);
-
-    // First test with size below threshold
-    for (int i = 0; i < batchSizeThreshold - 1; i++) {
-      AccountHistory history = AccountHistoryFactory.createForDeposit(TEST_ACCOUNT_KEY, "history_" + i);
-      accountHistoryCache.addHistoryToBatch(history);
-    }
-
-    assertFalse(accountHistoryCache.historiesCacheShouldFlush(),
-        "Should return false when batch size is below threshold");
-
-    // Add one more to reach threshold
-    AccountHistory history = AccountHistoryFactory.createForDeposit(TEST_ACCOUNT_KEY, "history_final");
-    accountHistoryCache.addHistoryToBatch(history);
-
-    assertTrue(accountHistoryCache.historiesCacheShouldFlush(),
-        "Should return true when batch size reaches threshold");
-  }
-
   @Test
   @DisplayName("flushHistoryToDisk should not call saveAccountHistoryBatch when no histories to flush")
   void flushHistoryToDisk_ShouldNotCallSaveAccountHistoryBatch_WhenNoHistoriesToFlush() {
@@ -239,7 +239,7 @@ class AccountHistoryCacheTest {
     // Access latestHistories to verify it's not empty before flush
     Field latestHistoriesField = AccountHistoryCache.class.getDeclaredField("latestHistories");
     latestHistoriesField.setAccessible(true);
-    Map<String, AccountHistory> latestHistories = (Map<String, AccountHistory>) latestHistoriesField
+    WriteBehindBuffer<AccountHistory> latestHistories = (WriteBehindBuffer<AccountHistory>) latestHistoriesField
         .get(accountHistoryCache);
     assertFalse(latestHistories.isEmpty(), "Latest histories should not be empty before flush");
 
@@ -216,7 +216,7 @@ public class AmmOrderCacheTest {
   }
 
   @Test
-  @DisplayName("addAmmOrderToBatch_ShouldCallRocksDB")
+  @DisplayName("addAmmOrderToBatch_ShouldWriteOnlyOnFlush")
   public void testAddAmmOrderToBatch() {
     // Arrange
     AmmOrder order = AmmOrderFactory.createCustomAmmOrder(Map.of(
@@ -226,7 +226,13 @@ public class AmmOrderCacheTest {
     ammOrderCache.addAmmOrderToBatch(order);
 
     // Assert
-    verify(mockAmmOrderRocksDB).saveAmmOrder(order);
+    verify(mockAmmOrderRocksDB, never()).saveAmmOrder(any());
+    assertEquals(1, ammOrderCache.pendingFlushCount());
+
+    ammOrderCache.flushAmmOrderToDisk();
+
+    verify(mockAmmOrderRocksDB).saveAmmOrderBatch(anyMap());
+    assertEquals(0, ammOrderCache.pendingFlushCount());
   }
 
   @Test
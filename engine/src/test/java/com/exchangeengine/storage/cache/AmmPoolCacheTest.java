@@ -63,7 +63,7 @@ public class AmmPoolCacheTest {
     // Clear latest pools
     Field latestPoolsField = AmmPoolCache.class.getDeclaredField("latestAmmPools");
     latestPoolsField.setAccessible(true);
-    ConcurrentHashMap<String, AmmPool> latestPools = (ConcurrentHashMap<String, AmmPool>) latestPoolsField
+    WriteBehindBuffer<AmmPool> latestPools = (WriteBehindBuffer<AmmPool>) latestPoolsField
         .get(ammPoolCache);
     latestPools.clear();
   }
@@ -201,7 +201,7 @@ public class AmmPoolCacheTest {
       Field latestPoolsField = AmmPoolCache.class.getDeclaredField("latestAmmPools");
       latestPoolsField.setAccessible(true);
       @SuppressWarnings("unchecked")
-      Map<String, AmmPool> latestPools = (Map<String, AmmPool>) latestPoolsField.get(ammPoolCache);
+      WriteBehindBuffer<AmmPool> latestPools = (WriteBehindBuffer<AmmPool>) latestPoolsField.get(ammPoolCache);
 
       // Verify total number of pools
       assertEquals(2, latestPools.size(), "Should have pools for BTC/USDT and ETH/USDT");
@@ -289,21 +289,6 @@ public class AmmPoolCacheTest {
     verify(mockAmmPoolRocksDB, times(1)).saveAmmPoolBatch(any());
   }
 
-  @Test
-  public void testAmmPoolCacheShouldFlush() {
-    // Act & Assert
-    assertFalse(ammPoolCache.ammPoolCacheShouldFlush(), "Should not flush when no updates");
-
-    // Update pool many times to trigger flush threshold
-    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
-    for (int i = 0; i < 100; i++) {
-      ammPoolCache.updateAmmPool(pool);
-    }
-
-    // Should now return true
-    assertTrue(ammPoolCache.ammPoolCacheShouldFlush(), "Should flush after 100 updates");
-  }
-
   @Test
   public void testInitializeAmmPoolCache_WithInvalidPairs() {
     // Arrange
@@ -359,20 +344,4 @@ public class AmmPoolCacheTest {
     assertEquals(2, cache.size(), "LoadedCount should be 2 for valid pools only");
   }
 
-  @Test
-  public void testAmmPoolCacheShouldFlush_EdgeCases() {
-    // Test when count is 0
-    assertFalse(ammPoolCache.ammPoolCacheShouldFlush(), "Should not flush when count is 0");
-
-    // Test when count is not divisible by 100
-    AmmPool pool = AmmPoolFactory.createDefaultAmmPool();
-    for (int i = 0; i < 99; i++) {
-      ammPoolCache.updateAmmPool(pool);
-    }
-    assertFalse(ammPoolCache.ammPoolCacheShouldFlush(), "Should not flush when count is not divisible by 100");
-
-    // Test when count is divisible by 100
-    ammPoolCache.updateAmmPool(pool);
-    assertTrue(ammPoolCache.ammPoolCacheShouldFlush(), "Should flush when count is divisible by 100");
-  }
 }
@@ -11,7 +11,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -69,7 +68,7 @@ public class AmmPositionCacheTest {
     // Clear latest positions
     Field latestPositionsField = AmmPositionCache.class.getDeclaredField("latestAmmPositions");
     latestPositionsField.setAccessible(true);
-    ConcurrentHashMap<String, AmmPosition> latestPositions = (ConcurrentHashMap<String, AmmPosition>) latestPositionsField
+    WriteBehindBuffer<AmmPosition> latestPositions = (WriteBehindBuffer<AmmPosition>) latestPositionsField
         .get(ammPositionCache);
     latestPositions.clear();
   }
@@ -238,7 +237,7 @@ public class AmmPositionCacheTest {
       Field latestPositionsField = AmmPositionCache.class.getDeclaredField("latestAmmPositions");
       latestPositionsField.setAccessible(true);
       @SuppressWarnings("unchecked")
-      Map<String, AmmPosition> latestPositions = (Map<String, AmmPosition>) latestPositionsField.get(ammPositionCache);
+      WriteBehindBuffer<AmmPosition> latestPositions = (WriteBehindBuffer<AmmPosition>) latestPositionsField.get(ammPositionCache);
 
       // Verify total number of positions
       assertEquals(2, latestPositions.size(), "Should have two positions with different identifiers");
@@ -321,48 +320,6 @@ public class AmmPositionCacheTest {
     verify(mockAmmPositionRocksDB).saveAmmPositionBatch(any());
   }
 
-  @Test
-  @DisplayName("ammPositionCacheShouldFlush_ShouldHandleAllCasesCorrectly")
-  public void testAmmPositionCacheShouldFlush() {
-    // Trường hợp 1: Ban đầu khi chưa có bản ghi nào được cập nhật (counter = 0)
-    assertFalse(ammPositionCache.ammPositionCacheShouldFlush(),
-        "Không nên flush khi counter = 0");
-
-    // Lấy tham chiếu đến counter để theo dõi giá trị
-    try {
-      Field updateCounterField = AmmPositionCache.class.getDeclaredField("updateCounter");
-      updateCounterField.setAccessible(true);
-      AtomicInteger counter = (AtomicInteger) updateCounterField.get(ammPositionCache);
-
-      // Trường hợp 2: Tăng counter lên một giá trị nhỏ hơn threshold
-      // Set counter = 50
-      counter.set(50);
-      assertFalse(ammPositionCache.ammPositionCacheShouldFlush(),
-          "Không nên flush khi counter < threshold (50 < 100)");
-
-      // Trường hợp 3: Tăng counter đến đúng ngưỡng threshold
-      // Set counter = 100
-      counter.set(100);
-      assertTrue(ammPositionCache.ammPositionCacheShouldFlush(),
-          "Nên flush khi counter = threshold (100 = 100)");
-
-      // Trường hợp 4: Tăng counter sau ngưỡng threshold
-      // Set counter = 101
-      counter.set(101);
-      assertFalse(ammPositionCache.ammPositionCacheShouldFlush(),
-          "Không nên flush khi counter > threshold nhưng không chia hết (101 % 100 != 0)");
-
-      // Trường hợp 5: Tăng counter đến bội số tiếp theo của threshold
-      // Set counter = 200
-      counter.set(200);
-      assertTrue(ammPositionCache.ammPositionCacheShouldFlush(),
-          "Nên flush khi counter là bội số của threshold (200 % 100 = 0)");
-
-    } catch (Exception e) {
-      fail("Không thể truy cập field updateCounter: " + e.getMessage());
-    }
-  }
-
   @Test
   @DisplayName("initializeAmmPositionCache_WithException should skip amm positions with null or empty identifier")
   void testInitializeAmmPositionCache_WithException_ShouldSkipAmmPositions_WithNullOrEmptyIdentifier()
@@ -394,4 +351,118 @@ public class AmmPositionCacheTest {
     assertEquals(0, cache.size(),
         "Cache nên trống vì cả hai position đều có identifier null hoặc rỗng");
   }
+
+  private AmmPosition indexedPosition(String identifier, String poolPair, String owner, int tickLower, int tickUpper) {
+    AmmPosition position = new AmmPosition(identifier, poolPair);
+    position.setOwnerAccountKey0(owner + ":btc");
+    position.setOwnerAccountKey1(owner + ":usdt");
+    position.setTickLowerIndex(tickLower);
+    position.setTickUpperIndex(tickUpper);
+    return position;
+  }
+
+  private List<String> identifiers(List<AmmPosition> positions) {
+    List<String> result = new ArrayList<>();
+    for (AmmPosition position : positions) {
+      result.add(position.getIdentifier());
+    }
+    return result;
+  }
+
+  @Test
+  @DisplayName("Index theo pool trả về position sắp theo tickLower/tickUpper và lọc theo tick hiện tại")
+  public void testPoolIndex_ShouldSortAndFilterByCurrentTick() {
+    ammPositionCache.updateAmmPosition(indexedPosition("p3", "BTC-USDT", "alice", 100, 300));
+    ammPositionCache.updateAmmPosition(indexedPosition("p1", "BTC-USDT", "alice", -200, 0));
+    ammPositionCache.updateAmmPosition(indexedPosition("p2", "BTC-USDT", "bob", -200, 200));
+    ammPositionCache.updateAmmPosition(indexedPosition("p4", "ETH-USDT", "bob", -100, 100));
+
+    assertEquals(Arrays.asList("p1", "p2", "p3"), identifiers(ammPositionCache.getAmmPositionsByPool("BTC-USDT")));
+    assertEquals(Arrays.asList("p2", "p3"), identifiers(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 100)));
+    // tickUpper không nằm trong khoảng active
+    assertEquals(Arrays.asList("p2"), identifiers(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0)));
+    assertTrue(ammPositionCache.getAmmPositionsByPool("SOL-USDT").isEmpty());
+    assertTrue(ammPositionCache.getAmmPositionsInRange("SOL-USDT", 0).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Index theo owner trả về position theo cả hai account key")
+  public void testOwnerIndex_ShouldReturnPositionsOfOwner() {
+    ammPositionCache.updateAmmPosition(indexedPosition("p1", "BTC-USDT", "alice", -200, 0));
+    ammPositionCache.updateAmmPosition(indexedPosition("p2", "ETH-USDT", "alice", -100, 100));
+    ammPositionCache.updateAmmPosition(indexedPosition("p3", "BTC-USDT", "bob", -100, 100));
+
+    List<String> byToken0 = identifiers(ammPositionCache.getAmmPositionsByOwner("alice:btc"));
+    byToken0.sort(null);
+    assertEquals(Arrays.asList("p1", "p2"), byToken0);
+    assertEquals(Arrays.asList("p3"), identifiers(ammPositionCache.getAmmPositionsByOwner("bob:usdt")));
+    assertTrue(ammPositionCache.getAmmPositionsByOwner("carol:btc").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Index được cập nhật khi position đổi tick hoặc owner")
+  public void testIndex_ShouldMoveEntry_WhenPositionChanges() {
+    AmmPosition position = ammPositionCache.getOrCreateAmmPosition("p1", "BTC-USDT");
+    // Position mới chưa có khoảng tick (0, 0) nên không active ở tick nào
+    assertEquals(Arrays.asList("p1"), identifiers(ammPositionCache.getAmmPositionsByPool("BTC-USDT")));
+    assertTrue(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0).isEmpty());
+
+    // Position được sửa trực tiếp rồi mới gọi updateAmmPosition
+    position.setTickLowerIndex(-60);
+    position.setTickUpperIndex(60);
+    position.setOwnerAccountKey0("alice:btc");
+    ammPositionCache.updateAmmPosition(position);
+
+    assertEquals(Arrays.asList("p1"), identifiers(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0)));
+    assertEquals(1, ammPositionCache.getAmmPositionsByPool("BTC-USDT").size());
+
+    position.setTickLowerIndex(120);
+    position.setTickUpperIndex(180);
+    position.setOwnerAccountKey0("bob:btc");
+    ammPositionCache.updateAmmPosition(position);
+
+    assertTrue(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0).isEmpty());
+    assertEquals(1, ammPositionCache.getAmmPositionsByPool("BTC-USDT").size());
+    assertTrue(ammPositionCache.getAmmPositionsByOwner("alice:btc").isEmpty());
+    assertEquals(Arrays.asList("p1"), identifiers(ammPositionCache.getAmmPositionsByOwner("bob:btc")));
+  }
+
+  @Test
+  @DisplayName("initializeAmmPositionCache dựng index từ dữ liệu RocksDB")
+  public void testInitializeAmmPositionCache_ShouldBuildIndexes() {
+    when(mockAmmPositionRocksDB.getAllAmmPositions()).thenReturn(Arrays.asList(
+        indexedPosition("p1", "BTC-USDT", "alice", -200, 200),
+        indexedPosition("p2", "BTC-USDT", "bob", 0, 100)));
+
+    ammPositionCache.initializeAmmPositionCache();
+
+    assertEquals(Arrays.asList("p1", "p2"), identifiers(ammPositionCache.getAmmPositionsByPool("BTC-USDT")));
+    assertEquals(Arrays.asList("p2"), identifiers(ammPositionCache.getAmmPositionsByOwner("bob:btc")));
+  }
+
+  @Test
+  @DisplayName("Position đã đóng bị gỡ khỏi index theo pool, theo owner và kết quả in-range")
+  public void testIndex_ShouldRemoveClosedPosition() {
+    AmmPosition closing = indexedPosition("p1", "BTC-USDT", "alice", -100, 100);
+    ammPositionCache.updateAmmPosition(closing);
+    ammPositionCache.updateAmmPosition(indexedPosition("p2", "BTC-USDT", "bob", -100, 100));
+
+    // Đã đóng nhưng chưa gọi updateAmmPosition: không còn xuất hiện trong kết quả
+    closing.setStatus(AmmPosition.STATUS_CLOSED);
+    assertEquals(Arrays.asList("p2"), identifiers(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0)));
+
+    ammPositionCache.updateAmmPosition(closing);
+
+    assertEquals(Arrays.asList("p2"), identifiers(ammPositionCache.getAmmPositionsByPool("BTC-USDT")));
+    assertEquals(Arrays.asList("p2"), identifiers(ammPositionCache.getAmmPositionsInRange("BTC-USDT", 0)));
+    assertTrue(ammPositionCache.getAmmPositionsByOwner("alice:btc").isEmpty());
+    assertTrue(ammPositionCache.getAmmPosition("p1").isPresent());
+
+    // Gỡ position cuối cùng thì entry rỗng của pool / owner cũng bị xóa
+    AmmPosition closedOther = indexedPosition("p2", "BTC-USDT", "bob", -100, 100);
+    closedOther.setStatus(AmmPosition.STATUS_CLOSED);
+    ammPositionCache.updateAmmPosition(closedOther);
+    assertTrue(ammPositionCache.getAmmPositionsByPool("BTC-USDT").isEmpty());
+    assertTrue(ammPositionCache.getAmmPositionsByOwner("bob:usdt").isEmpty());
+  }
 }
@@ -164,6 +164,25 @@ public class BalanceLockCacheTest {
         assertEquals(lock, locksMap.get(lock.getLockId()));
     }
 
+    @Test
+    @DisplayName("addBalanceLock should replace account keys with the interned symbol strings")
+    void addBalanceLock_ShouldInternAccountKeys() {
+        // Arrange
+        String interned = SymbolTable.getInstance().intern(SymbolTable.Kind.ACCOUNT, "btc:lock-owner");
+        String copy = new String("btc:lock-owner");
+        BalanceLock lock = BalanceLockFactory.create(ActionType.TRADE, "action-id", Arrays.asList(copy), "identifier");
+        lock.getLockedBalances().put(new String("btc:lock-owner"), BigDecimal.ONE);
+
+        // Act
+        balanceLockCache.addBalanceLock(lock);
+
+        // Assert
+        assertSame(interned, lock.getAccountKeys().get(0));
+        String lockedKey = lock.getLockedBalances().keySet().iterator().next();
+        assertSame(interned, lockedKey);
+        assertEquals(0, BigDecimal.ONE.compareTo(lock.getLockedBalances().get(interned)));
+    }
+
     @Test
     @DisplayName("addBalanceLockToBatch should add lock to batch")
     void addBalanceLockToBatch_ShouldAddLockToBatch() {
@@ -342,8 +361,8 @@ public class BalanceLockCacheTest {
     }
 
     @Test
-    @DisplayName("saveBalanceLockBatch should handle exception gracefully")
-    void saveBalanceLockBatch_ShouldHandleExceptionGracefully() {
+    @DisplayName("saveBalanceLockBatch should keep the batch and rethrow when saving fails")
+    void saveBalanceLockBatch_ShouldKeepBatch_WhenSaveFails() {
         // Arrange
         BalanceLock lock = BalanceLockFactory.create();
         balanceLockCache.addBalanceLockToBatch(lock);
@@ -351,12 +370,12 @@ public class BalanceLockCacheTest {
         doThrow(new RuntimeException("Test exception"))
             .when(mockBalanceLockRocksDB).saveBalanceLockBatch(any());
 
-        // Act - Should not throw
-        balanceLockCache.saveBalanceLockBatch();
+        // Act
+        assertThrows(RuntimeException.class, () -> balanceLockCache.saveBalanceLockBatch());
 
         // Assert
         verify(mockBalanceLockRocksDB).saveBalanceLockBatch(lockBatchMap);
-        assertTrue(lockBatchMap.isEmpty());
+        assertSame(lock, lockBatchMap.get(lock.getLockId()));
     }
 
     @Test
@@ -0,0 +1,69 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DeltaSnapshotMapTest {
+
+  @Test
+  @DisplayName("apply chỉ lưu thay đổi, phiên bản cũ giữ nguyên")
+  void apply_ShouldKeepPreviousVersion() {
+    TreeMap<Integer, String> entries = new TreeMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put(i, "v" + i);
+    }
+    DeltaSnapshotMap<Integer, String> first = DeltaSnapshotMap.of(entries);
+
+    Map<Integer, String> changes = new HashMap<>();
+    changes.put(5, "changed");
+    changes.put(6, null);
+    changes.put(2000, "added");
+    DeltaSnapshotMap<Integer, String> second = first.apply(changes);
+
+    assertEquals(3, second.pendingDeltaSize());
+    assertEquals("changed", second.get(5));
+    assertNull(second.get(6));
+    assertEquals("v7", second.get(7));
+
+    assertEquals(1000, second.toMap().size());
+    assertEquals("added", second.toMap().lastEntry().getValue());
+    assertFalse(second.toMap().containsKey(6));
+    assertEquals("v5", first.toMap().get(5));
+    assertEquals(1000, first.toMap().size());
+    assertThrows(UnsupportedOperationException.class, () -> second.toMap().put(1, "x"));
+  }
+
+  @Test
+  @DisplayName("Chuỗi delta được gộp vào base khi vượt ngưỡng hoặc sau khi đã dựng map đầy đủ")
+  void apply_ShouldCompactDeltas() {
+    TreeMap<Integer, String> entries = new TreeMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put(i, "v" + i);
+    }
+    DeltaSnapshotMap<Integer, String> map = DeltaSnapshotMap.of(entries);
+
+    // Ngưỡng gộp là max(64, 1000 / 4) = 250 thay đổi
+    for (int i = 0; i < 250; i++) {
+      map = map.apply(Map.of(i, "x" + i));
+    }
+    assertEquals(250, map.pendingDeltaSize());
+    map = map.apply(Map.of(250, "x250"));
+    assertEquals(0, map.pendingDeltaSize());
+    assertEquals("x250", map.get(250));
+    assertEquals("x0", map.get(0));
+
+    // Map đầy đủ đã dựng được dùng làm base của lần apply sau
+    map = map.apply(Map.of(1, "y1"));
+    map.toMap();
+    map = map.apply(Map.of(2, "y2"));
+    assertEquals(1, map.pendingDeltaSize());
+    assertEquals("y1", map.get(1));
+    assertEquals("y2", map.toMap().get(2));
+  }
+}
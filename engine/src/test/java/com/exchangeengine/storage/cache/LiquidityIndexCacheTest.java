@@ -0,0 +1,186 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.model.event.DisruptorEvent;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LiquidityIndexCacheTest {
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  private LiquidityIndexCache liquidityIndexCache;
+  private ReadSnapshotCache readSnapshotCache;
+  private AmmPool pool;
+  private TickBitmap tickBitmap;
+
+  @BeforeEach
+  void setUp() {
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+    ReadSnapshotCache.resetInstance();
+    LiquidityIndexCache.resetInstance();
+
+    pool = new AmmPool("BTC-USDT");
+    pool.setTickSpacing(60);
+    pool.setTxCount(1);
+    tickBitmap = new TickBitmap("BTC-USDT");
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Collections.singleton("BTC-USDT"));
+    when(tickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(tickBitmap));
+
+    liquidityIndexCache = LiquidityIndexCache.getInstance();
+    readSnapshotCache = ReadSnapshotCache.getInstance();
+  }
+
+  private Tick tick(int tickIndex, String liquidityNet) {
+    Tick tick = new Tick("BTC-USDT", tickIndex);
+    tick.setLiquidityNet(new BigDecimal(liquidityNet));
+    return tick;
+  }
+
+  private void putTick(Tick tick) {
+    tickBitmap.setBit(tick.getTickIndex());
+    when(tickCache.getTick("BTC-USDT", tick.getTickIndex())).thenReturn(Optional.of(tick));
+  }
+
+  /**
+   * Giả lập event trên disruptor thread: sửa tick, tăng txCount rồi publish
+   */
+  private void publishTicks(Tick... ticks) {
+    ProcessResult result = new ProcessResult(mock(DisruptorEvent.class)).setAmmPool(pool);
+    for (Tick tick : ticks) {
+      putTick(tick);
+      result.addTick(tick);
+    }
+    pool.setTxCount(pool.getTxCount() + 1);
+    readSnapshotCache.capture(result);
+    readSnapshotCache.publish();
+  }
+
+  @Test
+  @DisplayName("getIndex dựng index từ tick view đã publish, không đọc TickCache")
+  void getIndex_ShouldBuildFromPublishedView() {
+    // Given
+    putTick(tick(60, "500"));
+    putTick(tick(600, "-500"));
+    readSnapshotCache.seedTickViews();
+    clearInvocations(tickCache, tickBitmapCache);
+
+    // When
+    TickLiquidityIndex index = liquidityIndexCache.getIndex("BTC-USDT").orElseThrow();
+
+    // Then
+    assertEquals(60, index.getTickSpacing());
+    assertEquals(1L, index.getVersion());
+    assertEquals(0, new BigDecimal("500").compareTo(index.getLiquidityAt(120)));
+    assertEquals(0, BigDecimal.ZERO.compareTo(index.getLiquidityAt(600)));
+    assertSame(index, liquidityIndexCache.getIndex("BTC-USDT").orElseThrow());
+    verifyNoInteractions(tickCache, tickBitmapCache);
+  }
+
+  @Test
+  @DisplayName("publish chuyển index sang phiên bản pool mới bằng các tick thay đổi")
+  void publish_ShouldAdvanceIndex() {
+    // Given
+    readSnapshotCache.seedTickViews();
+    TickLiquidityIndex index = liquidityIndexCache.getIndex("BTC-USDT").orElseThrow();
+
+    // When - position mới [0, 120]
+    publishTicks(tick(0, "300"), tick(120, "-300"));
+
+    // Then
+    assertSame(index, liquidityIndexCache.getIndex("BTC-USDT").orElseThrow());
+    assertEquals(2L, index.getVersion());
+    assertEquals(0, new BigDecimal("300").compareTo(index.getLiquidityAt(60)));
+
+    // When - đóng position, ticks về 0
+    publishTicks(tick(0, "0"), tick(120, "0"));
+
+    // Then
+    assertEquals(3L, index.getVersion());
+    assertEquals(0, BigDecimal.ZERO.compareTo(index.getLiquidityAt(60)));
+    assertEquals(0, index.getTickCount());
+  }
+
+  @Test
+  @DisplayName("Index lệch phiên bản với view được dựng lại từ view")
+  void getIndex_ShouldRebuild_WhenVersionDiffers() {
+    readSnapshotCache.seedTickViews();
+    TickLiquidityIndex first = liquidityIndexCache.getIndex("BTC-USDT").orElseThrow();
+
+    // Index bị bỏ khi phiên bản trước không khớp
+    liquidityIndexCache.advance("BTC-USDT", 99L, 100L, Collections.emptyMap());
+    TickLiquidityIndex rebuilt = liquidityIndexCache.getIndex("BTC-USDT").orElseThrow();
+
+    assertNotSame(first, rebuilt);
+    assertEquals(1L, rebuilt.getVersion());
+  }
+
+  @Test
+  @DisplayName("read đọc view và index của cùng phiên bản pool")
+  void read_ShouldUseMatchingViewAndIndex() {
+    putTick(tick(60, "500"));
+    putTick(tick(600, "-500"));
+    readSnapshotCache.seedTickViews();
+
+    long version = liquidityIndexCache.read("BTC-USDT", (view, index) -> {
+      assertEquals(view.getPoolVersion(), index.getVersion());
+      return index.getVersion();
+    }).orElseThrow();
+
+    assertEquals(1L, version);
+  }
+
+  @Test
+  @DisplayName("getIndex trả về rỗng khi pool không tồn tại hoặc chưa publish")
+  void getIndex_ShouldReturnEmpty_WhenPoolMissing() {
+    when(ammPoolCache.getAmmPool("ETH-USDT")).thenReturn(Optional.empty());
+
+    assertFalse(liquidityIndexCache.getIndex("ETH-USDT").isPresent());
+    assertFalse(liquidityIndexCache.read("ETH-USDT", (view, index) -> index).isPresent());
+  }
+
+  @Test
+  @DisplayName("invalidate buộc lần dùng sau dựng lại index")
+  void invalidate_ShouldRebuildIndex() {
+    readSnapshotCache.seedTickViews();
+    TickLiquidityIndex first = liquidityIndexCache.getIndex("BTC-USDT").orElseThrow();
+
+    liquidityIndexCache.invalidate("BTC-USDT");
+
+    assertNotSame(first, liquidityIndexCache.getIndex("BTC-USDT").orElseThrow());
+  }
+}
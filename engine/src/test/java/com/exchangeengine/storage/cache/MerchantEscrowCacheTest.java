@@ -416,8 +416,8 @@ public class MerchantEscrowCacheTest {
     }
 
     @Test
-    @DisplayName("updateMerchantEscrow should update cache and save to RocksDB")
-    void updateMerchantEscrow_ShouldUpdateCacheAndSaveToRocksDB() {
+    @DisplayName("updateMerchantEscrow should update cache and add to batch")
+    void updateMerchantEscrow_ShouldUpdateCacheAndAddToBatch() {
         // Create test data
         MerchantEscrow testEscrow = MerchantEscrowFactory.createDefault();
         String identifier = testEscrow.getIdentifier();
@@ -430,8 +430,9 @@ public class MerchantEscrowCacheTest {
         assertTrue(result.isPresent(), "Should be in cache");
         assertEquals(identifier, result.get().getIdentifier(), "Identifiers should match");
         
-        // Verify it was saved to RocksDB
-        verify(mockRocksDB).saveMerchantEscrow(testEscrow);
+        // Verify it waits for the next flush instead of writing to RocksDB
+        verify(mockRocksDB, never()).saveMerchantEscrow(any());
+        assertEquals(1, merchantEscrowCache.pendingFlushCount());
     }
 
     @Test
@@ -517,7 +518,7 @@ public class MerchantEscrowCacheTest {
             java.lang.reflect.Field batchField = MerchantEscrowCache.class.getDeclaredField("latestMerchantEscrows");
             batchField.setAccessible(true);
             @SuppressWarnings("unchecked")
-            Map<String, MerchantEscrow> batch = (Map<String, MerchantEscrow>) batchField.get(cacheSpy);
+            WriteBehindBuffer<MerchantEscrow> batch = (WriteBehindBuffer<MerchantEscrow>) batchField.get(cacheSpy);
             
             // Verify the batch contains one entry
             assertEquals(1, batch.size(), "Batch should have 1 entry");
@@ -582,7 +583,7 @@ public class MerchantEscrowCacheTest {
             java.lang.reflect.Field batchField = MerchantEscrowCache.class.getDeclaredField("latestMerchantEscrows");
             batchField.setAccessible(true);
             @SuppressWarnings("unchecked")
-            Map<String, MerchantEscrow> batch = (Map<String, MerchantEscrow>) batchField.get(cacheSpy);
+            WriteBehindBuffer<MerchantEscrow> batch = (WriteBehindBuffer<MerchantEscrow>) batchField.get(cacheSpy);
             
             // Verify the batch contains one entry
             assertEquals(1, batch.size(), "Batch should have 1 entry");
@@ -608,12 +609,10 @@ public class MerchantEscrowCacheTest {
     }
 
     @Test
-    @DisplayName("addMerchantEscrowToBatch should flush when batch size reaches threshold")
-    void addMerchantEscrowToBatch_ShouldFlushWhenBatchSizeReachesThreshold() throws Exception {
-        // Access the private UPDATE_THRESHOLD field using reflection
-        java.lang.reflect.Field thresholdField = MerchantEscrowCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = thresholdField.getInt(null);
+    @DisplayName("addMerchantEscrowToBatch should leave flushing to FlushScheduler when batch size reaches threshold")
+    void addMerchantEscrowToBatch_ShouldNotFlushInlineWhenBatchSizeReachesThreshold() throws Exception {
+        // Số bản ghi từng kích hoạt flush inline
+        int threshold = 100;
         
         // Mock the flushMerchantEscrowToDisk method to do nothing
         MerchantEscrowCache cacheSpy = spy(merchantEscrowCache);
@@ -635,75 +634,9 @@ public class MerchantEscrowCacheTest {
             cacheSpy.addMerchantEscrowToBatch(escrow);
         }
         
-        // Verify flush was called
-        verify(cacheSpy).flushMerchantEscrowToDisk();
-    }
-
-    @Test
-    @DisplayName("merchantEscrowCacheShouldFlush should return true when counter is divisible by threshold")
-    void merchantEscrowCacheShouldFlush_ShouldReturnTrueWhenCounterIsDivisibleByThreshold() throws Exception {
-        // Access the private updateCounter field using reflection
-        java.lang.reflect.Field counterField = MerchantEscrowCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = 
-            (java.util.concurrent.atomic.AtomicInteger) counterField.get(merchantEscrowCache);
-        
-        // Access the private UPDATE_THRESHOLD field using reflection
-        java.lang.reflect.Field thresholdField = MerchantEscrowCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = thresholdField.getInt(null);
-        
-        // Set counter to threshold
-        counter.set(threshold);
-        
-        // Check should flush
-        boolean shouldFlush = merchantEscrowCache.merchantEscrowCacheShouldFlush();
-        
-        // Verify result
-        assertTrue(shouldFlush, "Should flush when counter is divisible by threshold");
-    }
-
-    @Test
-    @DisplayName("merchantEscrowCacheShouldFlush should return false when counter is 0")
-    void merchantEscrowCacheShouldFlush_ShouldReturnFalseWhenCounterIs0() throws Exception {
-        // Access the private updateCounter field using reflection
-        java.lang.reflect.Field counterField = MerchantEscrowCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = 
-            (java.util.concurrent.atomic.AtomicInteger) counterField.get(merchantEscrowCache);
-        
-        // Set counter to 0
-        counter.set(0);
-        
-        // Check should flush
-        boolean shouldFlush = merchantEscrowCache.merchantEscrowCacheShouldFlush();
-        
-        // Verify result
-        assertFalse(shouldFlush, "Should not flush when counter is 0");
-    }
-
-    @Test
-    @DisplayName("merchantEscrowCacheShouldFlush should return false when counter is not divisible by threshold")
-    void merchantEscrowCacheShouldFlush_ShouldReturnFalseWhenCounterIsNotDivisibleByThreshold() throws Exception {
-        // Access the private updateCounter field using reflection
-        java.lang.reflect.Field counterField = MerchantEscrowCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = 
-            (java.util.concurrent.atomic.AtomicInteger) counterField.get(merchantEscrowCache);
-        
-        // Access the private UPDATE_THRESHOLD field using reflection
-        java.lang.reflect.Field thresholdField = MerchantEscrowCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = thresholdField.getInt(null);
-        
-        // Set counter to not divisible by threshold
-        counter.set(threshold + 1);
-        
-        // Check should flush
-        boolean shouldFlush = merchantEscrowCache.merchantEscrowCacheShouldFlush();
-        
-        // Verify result
-        assertFalse(shouldFlush, "Should not flush when counter is not divisible by threshold");
+        // Batch chờ FlushScheduler (trigger SIZE), không flush trên thread ghi
+        verify(cacheSpy, never()).flushMerchantEscrowToDisk();
+        assertEquals(threshold, cacheSpy.pendingFlushCount());
     }
 
     @Test
@@ -740,36 +673,6 @@ public class MerchantEscrowCacheTest {
         verify(mockRocksDB, never()).saveMerchantEscrowBatch(any());
     }
 
-    @Test
-    @DisplayName("merchantEscrowCacheShouldFlush should handle edge cases")
-    void merchantEscrowCacheShouldFlush_ShouldHandleEdgeCases() throws Exception {
-        // Get access to updateCounter field to manipulate it directly
-        java.lang.reflect.Field updateCounterField = MerchantEscrowCache.class.getDeclaredField("updateCounter");
-        updateCounterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger updateCounter = 
-            (java.util.concurrent.atomic.AtomicInteger) updateCounterField.get(merchantEscrowCache);
-        
-        // Test with update counter set to 1
-        updateCounter.set(1);
-        assertFalse(merchantEscrowCache.merchantEscrowCacheShouldFlush(), "Should return false when counter is 1");
-        
-        // Test with update counter set to 99
-        updateCounter.set(99);
-        assertFalse(merchantEscrowCache.merchantEscrowCacheShouldFlush(), "Should return false when counter is 99");
-        
-        // Test with update counter set to 100
-        updateCounter.set(100);
-        assertTrue(merchantEscrowCache.merchantEscrowCacheShouldFlush(), "Should return true when counter is 100");
-        
-        // Test with update counter set to 200
-        updateCounter.set(200);
-        assertTrue(merchantEscrowCache.merchantEscrowCacheShouldFlush(), "Should return true when counter is 200");
-        
-        // Test with update counter set to 300
-        updateCounter.set(300);
-        assertTrue(merchantEscrowCache.merchantEscrowCacheShouldFlush(), "Should return true when counter is 300");
-    }
-
     @Test
     @DisplayName("Complete end-to-end test of cache operations")
     void completeEndToEndTest_ShouldHandleFullLifecycle() {
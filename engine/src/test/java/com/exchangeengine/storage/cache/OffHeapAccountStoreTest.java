@@ -0,0 +1,148 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.model.Account;
+
+class OffHeapAccountStoreTest {
+
+  @Test
+  @DisplayName("write và read nên giữ nguyên số dư, kể cả số dư vượt 64 bit")
+  void writeAndRead_ShouldRoundTripBalances() {
+    OffHeapAccountStore store = new OffHeapAccountStore();
+    Account account = new Account("btc:alice");
+    account.setAvailableBalance(new BigDecimal("123456789012345678901.0000000000000001"));
+    account.setFrozenBalance(new BigDecimal("0.5"));
+    account.setCreatedAt(1000L);
+    account.setUpdatedAt(2000L);
+
+    assertFalse(store.contains(3));
+    assertNull(store.read(3, "btc:alice"));
+
+    store.write(3, account);
+
+    Account restored = store.read(3, "btc:alice");
+    assertTrue(store.contains(3));
+    assertEquals("btc:alice", restored.getKey());
+    assertEquals(account.getAvailableBalance(), restored.getAvailableBalance());
+    assertEquals(account.getFrozenBalance(), restored.getFrozenBalance());
+    assertEquals(1000L, restored.getCreatedAt());
+    assertEquals(2000L, restored.getUpdatedAt());
+    assertEquals(1, store.size());
+    assertNull(store.read(2, "btc:bob"));
+    assertNull(store.read(-1, "btc:bob"));
+  }
+
+  @Test
+  @DisplayName("Store nên cấp thêm chunk khi id vượt quá chunk hiện có")
+  void write_ShouldGrowAcrossChunks() {
+    OffHeapAccountStore store = new OffHeapAccountStore();
+
+    store.write(0, new Account("btc:first"));
+    long firstCapacity = store.capacityBytes();
+    store.write(100000, new Account("btc:far"));
+
+    assertTrue(store.capacityBytes() > firstCapacity);
+    assertTrue(store.contains(0));
+    assertTrue(store.contains(100000));
+    assertFalse(store.contains(99999));
+    assertEquals(2, store.size());
+  }
+
+  @Test
+  @DisplayName("writeIfNewer chỉ ghi khi chưa có record hoặc account mang version hiện tại của record")
+  void writeIfNewer_ShouldCompareVersion() {
+    OffHeapAccountStore store = new OffHeapAccountStore();
+    Account first = new Account("btc:alice");
+    first.setAvailableBalance(new BigDecimal("1"));
+    first.setUpdatedAt(1000L);
+
+    assertTrue(store.writeIfNewer(0, first));
+    assertEquals(2L, first.getVersion());
+
+    Account stale = store.read(0, "btc:alice");
+    Account current = store.read(0, "btc:alice");
+    assertEquals(2L, current.getVersion());
+    current.setAvailableBalance(new BigDecimal("2"));
+    current.setUpdatedAt(1000L);
+    assertTrue(store.writeIfNewer(0, current));
+
+    // Cùng updatedAt nhưng đọc từ version cũ
+    stale.setAvailableBalance(new BigDecimal("3"));
+    stale.setUpdatedAt(1000L);
+    assertFalse(store.writeIfNewer(0, stale));
+    assertFalse(store.writeIfNewer(0, new Account("btc:alice")));
+
+    assertEquals(0, new BigDecimal("2").compareTo(store.read(0, "btc:alice").getAvailableBalance()));
+  }
+
+  @Test
+  @DisplayName("drainDirty nên trả về mỗi id một lần theo thứ tự và xóa bitmap")
+  void drainDirty_ShouldReturnEachIdOnce() {
+    OffHeapAccountStore store = new OffHeapAccountStore();
+    store.markDirty(70000);
+    store.markDirty(5);
+    store.markDirty(64);
+    store.markDirty(5);
+
+    assertEquals(3, store.dirtyCount());
+
+    List<Integer> drained = new ArrayList<>();
+    store.drainDirty(drained::add);
+
+    assertEquals(Arrays.asList(5, 64, 70000), drained);
+    assertEquals(0, store.dirtyCount());
+
+    drained.clear();
+    store.drainDirty(drained::add);
+    assertTrue(drained.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Reader đồng thời không được thấy available/frozen lệch nhau khi writer đang ghi")
+  void read_ShouldNeverSeeTornRecord() throws Exception {
+    OffHeapAccountStore store = new OffHeapAccountStore();
+    Account account = new Account("btc:alice");
+    account.setAvailableBalance(new BigDecimal("1000"));
+    store.write(0, account);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicReference<String> failure = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      while (running.get()) {
+        Account snapshot = store.read(0, "btc:alice");
+        BigDecimal total = snapshot.getTotalBalance();
+        if (total.compareTo(new BigDecimal("1000")) != 0) {
+          failure.set("Torn read: " + snapshot);
+          return;
+        }
+      }
+    });
+    reader.start();
+
+    // Chuyển qua lại giữa available và frozen, tổng luôn là 1000
+    BigDecimal step = new BigDecimal("0.0000000000000001");
+    for (int i = 0; i < 200000; i++) {
+      if (i % 2 == 0) {
+        account.increaseFrozenBalance(step, "lock");
+      } else {
+        account.decreaseFrozenIncreaseAvailableBalance(step);
+      }
+      store.write(0, account);
+    }
+    running.set(false);
+    reader.join();
+
+    assertNull(failure.get());
+  }
+}
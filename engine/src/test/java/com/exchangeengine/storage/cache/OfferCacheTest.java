@@ -3,6 +3,7 @@ package com.exchangeengine.storage.cache;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.exchangeengine.factory.OfferFactory;
 import com.exchangeengine.model.Offer;
+import com.exchangeengine.model.OfferBookEntry;
 import com.exchangeengine.storage.rocksdb.OfferRocksDB;
 
 @ExtendWith(MockitoExtension.class)
@@ -194,25 +196,12 @@ class OfferCacheTest {
     void updateOffer_ShouldNotUpdate_WhenOfferIsNull() {
         // Arrange
         reset(mockOfferRocksDB);  // Đảm bảo reset mock trước khi test
-        int initialUpdateCount = 0;
         
         // Act
         offerCache.updateOffer(null);
         
         // Assert
-        // Không kiểm tra gọi saveOffer vì có thể đã gọi từ trước
-        java.lang.reflect.Field field;
-        try {
-            field = OfferCache.class.getDeclaredField("updateCounter");
-            field.setAccessible(true);
-            java.util.concurrent.atomic.AtomicInteger counter = 
-                (java.util.concurrent.atomic.AtomicInteger) field.get(offerCache);
-            int currentCount = counter.get() - 1; // trừ đi 1 vì đã tăng khi setup
-            assertEquals(initialUpdateCount, currentCount, 
-                "Update counter should not increase when offer is null");
-        } catch (Exception e) {
-            fail("Failed to access updateCounter field: " + e.getMessage());
-        }
+        verify(mockOfferRocksDB, never()).saveOffer(any());
     }
 
     @Test
@@ -225,14 +214,14 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
 
         // Act
         offerCache.addOfferToBatch(offer);
 
         // Assert
-        Map<String, Offer> updatedLatestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> updatedLatestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         assertTrue(updatedLatestOffers.containsKey(offer.getIdentifier()), "Offer should be added to batch");
     }
 
@@ -275,7 +264,7 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
         latestOffers.put(olderOffer.getIdentifier(), olderOffer);
         
@@ -283,7 +272,7 @@ class OfferCacheTest {
         offerCache.addOfferToBatch(newerOffer);
         
         // Assert
-        Map<String, Offer> updatedLatestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> updatedLatestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         assertEquals(newerOffer, updatedLatestOffers.get(newerOffer.getIdentifier()), 
                 "Newer offer should replace older offer in batch");
     }
@@ -303,7 +292,7 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
         latestOffers.put(newerOffer.getIdentifier(), newerOffer);
         
@@ -311,24 +300,23 @@ class OfferCacheTest {
         offerCache.addOfferToBatch(olderOffer);
         
         // Assert
-        Map<String, Offer> updatedLatestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> updatedLatestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         assertEquals(newerOffer, updatedLatestOffers.get(newerOffer.getIdentifier()), 
                 "Newer offer should be kept when older offer is added");
     }
 
     @Test
-    @DisplayName("addOfferToBatch should flush when batch size reaches threshold")
-    void addOfferToBatch_ShouldFlush_WhenBatchSizeReachesThreshold() throws Exception {
+    @DisplayName("addOfferToBatch should leave flushing to FlushScheduler when batch size reaches threshold")
+    void addOfferToBatch_ShouldNotFlushInline_WhenBatchSizeReachesThreshold() throws Exception {
         // Arrange
-        java.lang.reflect.Field thresholdField = OfferCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = (int) thresholdField.get(null);
+        // Số bản ghi từng kích hoạt flush inline
+        int threshold = 100;
         
         // Clear latestOffers map
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
         
         // Add offers until just below threshold
@@ -344,44 +332,9 @@ class OfferCacheTest {
         Offer finalOffer = OfferFactory.create();
         offerCache.addOfferToBatch(finalOffer);
         
-        // Verify saveOfferBatch called
-        verify(mockOfferRocksDB, times(1)).saveOfferBatch(any());
-    }
-
-    @Test
-    @DisplayName("offerCacheShouldFlush should return false when update count is zero")
-    void offerCacheShouldFlush_ShouldReturnFalse_WhenUpdateCountIsZero() throws Exception {
-        // Arrange
-        java.lang.reflect.Field counterField = OfferCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = (java.util.concurrent.atomic.AtomicInteger) counterField.get(offerCache);
-        counter.set(0);
-        
-        // Act
-        boolean result = offerCache.offerCacheShouldFlush();
-        
-        // Assert
-        assertFalse(result, "Should return false when update count is zero");
-    }
-
-    @Test
-    @DisplayName("offerCacheShouldFlush should return true when update count is divisible by threshold")
-    void offerCacheShouldFlush_ShouldReturnTrue_WhenUpdateCountIsDivisibleByThreshold() throws Exception {
-        // Arrange
-        java.lang.reflect.Field thresholdField = OfferCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = (int) thresholdField.get(null);
-        
-        java.lang.reflect.Field counterField = OfferCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = (java.util.concurrent.atomic.AtomicInteger) counterField.get(offerCache);
-        counter.set(threshold);
-        
-        // Act
-        boolean result = offerCache.offerCacheShouldFlush();
-        
-        // Assert
-        assertTrue(result, "Should return true when update count is divisible by threshold");
+        // Batch chờ FlushScheduler (trigger SIZE), không flush trên thread ghi
+        verify(mockOfferRocksDB, never()).saveOfferBatch(any());
+        assertEquals(threshold, offerCache.pendingFlushCount());
     }
 
     @Test
@@ -391,7 +344,7 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
         
         // Act
@@ -408,7 +361,7 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         latestOffers.clear();
         
         // Add offer to batch
@@ -448,7 +401,7 @@ class OfferCacheTest {
         java.lang.reflect.Field latestOffersField = OfferCache.class.getDeclaredField("latestOffers");
         latestOffersField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Offer> latestOffers = (Map<String, Offer>) latestOffersField.get(offerCache);
+        WriteBehindBuffer<Offer> latestOffers = (WriteBehindBuffer<Offer>) latestOffersField.get(offerCache);
         Offer offer = OfferFactory.create();
         latestOffers.put(offer.getIdentifier(), offer);
         
@@ -610,4 +563,93 @@ class OfferCacheTest {
         assertEquals(newerOffer.getUpdatedAt(), result.get().getUpdatedAt(), 
                 "Offer should not be updated with older version from DB");
     }
+
+    private Offer bookOffer(String identifier, Offer.OfferType type, String price, long createdAtSecond,
+            String paymentMethodId, String countryCode) {
+        Offer offer = OfferFactory.withType(type);
+        offer.setIdentifier(identifier);
+        offer.setSymbol("USDT:VND");
+        offer.setPrice(new BigDecimal(price));
+        offer.setCreatedAt(Instant.ofEpochSecond(createdAtSecond));
+        offer.setPaymentMethodId(paymentMethodId);
+        offer.setCountryCode(countryCode);
+        offerCache.updateOffer(offer);
+        return offer;
+    }
+
+    private List<String> identifiers(List<OfferBookEntry> entries) {
+        List<String> ids = new ArrayList<>();
+        for (OfferBookEntry entry : entries) {
+            ids.add(entry.getIdentifier());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("getOfferBook should sort SELL offers by ascending price and BUY offers by descending price")
+    void getOfferBook_ShouldSortByPriceThenTime() {
+        bookOffer("sell-2", Offer.OfferType.SELL, "25100", 1, "bank", "VN");
+        bookOffer("sell-1", Offer.OfferType.SELL, "25000", 2, "bank", "VN");
+        bookOffer("sell-3", Offer.OfferType.SELL, "25000", 3, "bank", "VN");
+        bookOffer("buy-1", Offer.OfferType.BUY, "24900", 1, "bank", "VN");
+        bookOffer("buy-2", Offer.OfferType.BUY, "24950", 2, "bank", "VN");
+
+        assertEquals(List.of("sell-1", "sell-3", "sell-2"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 10)));
+        assertEquals(List.of("buy-2", "buy-1"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.BUY, null, null, 10)));
+        assertEquals(List.of("sell-1"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 1)));
+        assertEquals("buy-2", offerCache.getBestOffer("USDT:VND", Offer.OfferType.BUY).get().getIdentifier());
+        assertFalse(offerCache.getBestOffer("ETH:VND", Offer.OfferType.BUY).isPresent());
+    }
+
+    @Test
+    @DisplayName("getOfferBook should filter by payment method and country code")
+    void getOfferBook_ShouldFilterByPaymentMethodAndCountry() {
+        bookOffer("sell-1", Offer.OfferType.SELL, "25000", 1, "bank", "VN");
+        bookOffer("sell-2", Offer.OfferType.SELL, "25010", 2, "momo", "VN");
+        bookOffer("sell-3", Offer.OfferType.SELL, "25020", 3, "bank", "TH");
+
+        assertEquals(List.of("sell-1", "sell-3"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, "bank", null, 10)));
+        assertEquals(List.of("sell-1", "sell-2"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, "", "VN", 10)));
+        assertEquals(List.of("sell-2"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, "momo", "VN", 10)));
+    }
+
+    @Test
+    @DisplayName("updateOffer should move, refresh and remove offer book entries incrementally")
+    void updateOffer_ShouldMaintainOfferBookIncrementally() {
+        Offer first = bookOffer("sell-1", Offer.OfferType.SELL, "25000", 1, "bank", "VN");
+        Offer second = bookOffer("sell-2", Offer.OfferType.SELL, "25100", 2, "bank", "VN");
+
+        // Đổi giá: entry được chuyển vị trí
+        second.setPrice(new BigDecimal("24900"));
+        offerCache.updateOffer(second);
+        assertEquals(List.of("sell-2", "sell-1"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 10)));
+
+        // Khớp một phần: availableAmount của entry được cập nhật
+        second.partiallyFill(new BigDecimal("0.4"));
+        offerCache.updateOffer(second);
+        OfferBookEntry best = offerCache.getBestOffer("USDT:VND", Offer.OfferType.SELL).get();
+        assertEquals(0, new BigDecimal("0.6").compareTo(best.getAvailableAmount()));
+
+        // Khớp hết / bị tắt: offer rời khỏi sổ
+        second.fill();
+        offerCache.updateOffer(second);
+        first.setDisabled(true);
+        offerCache.updateOffer(first);
+        assertTrue(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 10).isEmpty());
+
+        // Bật lại rồi xóa khỏi cache
+        first.setDisabled(false);
+        offerCache.addOfferToBatch(first);
+        assertEquals(List.of("sell-1"),
+                identifiers(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 10)));
+        offerCache.removeOffer("sell-1");
+        assertTrue(offerCache.getOfferBook("USDT:VND", Offer.OfferType.SELL, null, null, 10).isEmpty());
+    }
 }
@@ -0,0 +1,78 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.model.Tick;
+
+class PoolTickMapTest {
+
+  @Test
+  @DisplayName("put và get nên giữ đúng tick qua nhiều lần resize")
+  void putAndGet_ShouldSurviveResize() {
+    PoolTickMap map = new PoolTickMap();
+
+    // Tick cách đều theo tickSpacing, cả âm và dương
+    for (int tickIndex = -6000; tickIndex <= 6000; tickIndex += 60) {
+      assertNull(map.put(new Tick("BTC-USDT", tickIndex)));
+    }
+
+    assertEquals(201, map.size());
+    for (int tickIndex = -6000; tickIndex <= 6000; tickIndex += 60) {
+      Tick tick = map.get(tickIndex);
+      assertNotNull(tick);
+      assertEquals(tickIndex, tick.getTickIndex());
+    }
+    assertNull(map.get(30));
+    assertNull(map.get(-6060));
+  }
+
+  @Test
+  @DisplayName("put nên thay thế tick cùng index và trả về tick cũ")
+  void put_ShouldReplaceSameIndex() {
+    PoolTickMap map = new PoolTickMap();
+    Tick first = new Tick("BTC-USDT", 100);
+    Tick second = new Tick("BTC-USDT", 100);
+
+    map.put(first);
+
+    assertSame(first, map.put(second));
+    assertSame(second, map.get(100));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  @DisplayName("putIfNewer chỉ thay thế khi updatedAt lớn hơn")
+  void putIfNewer_ShouldKeepNewestTick() {
+    PoolTickMap map = new PoolTickMap();
+    Tick newer = new Tick("BTC-USDT", 100);
+    newer.setUpdatedAt(2000L);
+    Tick older = new Tick("BTC-USDT", 100);
+    older.setUpdatedAt(1000L);
+
+    map.putIfNewer(newer);
+    map.putIfNewer(older);
+
+    assertSame(newer, map.get(100));
+  }
+
+  @Test
+  @DisplayName("drain nên trả về tất cả tick và làm rỗng bảng")
+  void drain_ShouldReturnAllAndClear() {
+    PoolTickMap map = new PoolTickMap();
+    for (int tickIndex = 0; tickIndex < 40; tickIndex++) {
+      map.put(new Tick("BTC-USDT", tickIndex));
+    }
+
+    List<Tick> drained = map.drain();
+
+    assertEquals(40, drained.size());
+    assertTrue(map.isEmpty());
+    assertNull(map.get(0));
+    assertTrue(map.values().isEmpty());
+  }
+}
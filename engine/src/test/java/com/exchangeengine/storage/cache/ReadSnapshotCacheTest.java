@@ -0,0 +1,279 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.Account;
+import com.exchangeengine.model.AmmPool;
+import com.exchangeengine.model.AmmPosition;
+import com.exchangeengine.model.ProcessResult;
+import com.exchangeengine.model.Tick;
+import com.exchangeengine.model.TickBitmap;
+import com.exchangeengine.model.event.DisruptorEvent;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReadSnapshotCacheTest {
+
+  @Mock
+  private AccountCache accountCache;
+
+  @Mock
+  private AmmPoolCache ammPoolCache;
+
+  @Mock
+  private TickCache tickCache;
+
+  @Mock
+  private TickBitmapCache tickBitmapCache;
+
+  @Mock
+  private AmmPositionCache ammPositionCache;
+
+  private ReadSnapshotCache readSnapshotCache;
+  private AmmPool pool;
+  private TickBitmap tickBitmap;
+
+  @BeforeEach
+  void setUp() {
+    AccountCache.setTestInstance(accountCache);
+    AmmPoolCache.setTestInstance(ammPoolCache);
+    TickCache.setTestInstance(tickCache);
+    TickBitmapCache.setTestInstance(tickBitmapCache);
+    AmmPositionCache.setTestInstance(ammPositionCache);
+
+    pool = new AmmPool("BTC-USDT");
+    tickBitmap = new TickBitmap("BTC-USDT");
+    when(ammPoolCache.getAmmPool("BTC-USDT")).thenReturn(Optional.of(pool));
+    when(tickBitmapCache.getTickBitmap("BTC-USDT")).thenReturn(Optional.of(tickBitmap));
+
+    ReadSnapshotCache.resetInstance();
+    readSnapshotCache = ReadSnapshotCache.getInstance();
+  }
+
+  @Test
+  @DisplayName("Account thay đổi chỉ hiện ra sau khi publish")
+  void getAccount_ShouldOnlySeeChangesAfterPublish() {
+    // Given
+    Account live = new Account("btc:user1");
+    live.setAvailableBalance(new BigDecimal("10"));
+    when(accountCache.getAccount("btc:user1")).thenReturn(Optional.of(live));
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAccount(live));
+    readSnapshotCache.publish();
+
+    Account before = readSnapshotCache.getAccount("btc:user1").orElseThrow();
+
+    // When - engine sửa account nhưng chưa kết thúc batch
+    live.setAvailableBalance(new BigDecimal("7"));
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAccount(live));
+
+    // Then
+    assertNotSame(live, before);
+    assertEquals(0, new BigDecimal("10").compareTo(readSnapshotCache.getAccount("btc:user1").get().getAvailableBalance()));
+
+    readSnapshotCache.publish();
+
+    assertEquals(0, new BigDecimal("7").compareTo(readSnapshotCache.getAccount("btc:user1").get().getAvailableBalance()));
+    assertEquals(0, new BigDecimal("10").compareTo(before.getAvailableBalance()));
+    assertEquals(2, readSnapshotCache.getEpoch());
+  }
+
+  @Test
+  @DisplayName("Account chưa có snapshot được đọc từ AccountCache và không được query thread đưa vào snapshot")
+  void getAccount_ShouldNotSeedSnapshot_WhenMissing() {
+    when(accountCache.getAccount("btc:user1")).thenAnswer(invocation -> Optional.of(new Account("btc:user1")));
+
+    Account first = readSnapshotCache.getAccount("btc:user1").orElseThrow();
+    Account second = readSnapshotCache.getAccount("btc:user1").orElseThrow();
+
+    assertNotSame(first, second);
+    verify(accountCache, times(2)).getAccount("btc:user1");
+    assertEquals(0, readSnapshotCache.getEpoch());
+  }
+
+  @Test
+  @DisplayName("Snapshot account chỉ giữ số account publish gần nhất theo giới hạn")
+  void publish_ShouldEvictOldestAccountSnapshots() {
+    ReadSnapshotCache bounded = new ReadSnapshotCache(2);
+    for (String key : new String[] { "btc:user1", "btc:user2", "btc:user3" }) {
+      Account account = new Account(key);
+      when(accountCache.getAccount(key)).thenReturn(Optional.of(account));
+      bounded.capture(new ProcessResult(mock(DisruptorEvent.class)).setAccount(account));
+      bounded.publish();
+    }
+    clearInvocations(accountCache);
+
+    bounded.getAccount("btc:user2");
+    bounded.getAccount("btc:user3");
+    verify(accountCache, never()).getAccount(anyString());
+
+    // user1 đã bị bỏ khỏi snapshot, đọc lại từ AccountCache
+    bounded.getAccount("btc:user1");
+    verify(accountCache).getAccount("btc:user1");
+  }
+
+  @Test
+  @DisplayName("invalidateAccount buộc lần đọc sau đọc lại từ cache")
+  void invalidateAccount_ShouldReloadFromCache() {
+    // Given
+    when(accountCache.getAccount("btc:user1")).thenAnswer(invocation -> Optional.of(new Account("btc:user1")));
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAccount(new Account("btc:user1")));
+    readSnapshotCache.publish();
+    Account first = readSnapshotCache.getAccount("btc:user1").orElseThrow();
+    assertSame(first, readSnapshotCache.getAccount("btc:user1").orElseThrow());
+
+    // When
+    readSnapshotCache.invalidateAccount("btc:user1");
+
+    // Then
+    assertNotSame(first, readSnapshotCache.getAccount("btc:user1").orElseThrow());
+  }
+
+  @Test
+  @DisplayName("publish cập nhật tick thay đổi và giữ nguyên view cũ cho reader đang đọc")
+  void publish_ShouldCopyOnWriteTickView() {
+    // Given - view ban đầu có tick 100
+    Tick tick100 = new Tick("BTC-USDT", 100);
+    tickBitmap.setBit(100);
+    when(tickCache.getTick("BTC-USDT", 100)).thenReturn(Optional.of(tick100));
+    pool.setTxCount(1);
+
+    ProcessResult first = new ProcessResult(mock(DisruptorEvent.class));
+    first.addTick(tick100);
+    readSnapshotCache.capture(first);
+    readSnapshotCache.publish();
+    ReadSnapshotCache.TickView oldView = readSnapshotCache.getTickView("BTC-USDT");
+
+    // When - swap khởi tạo tick 200 và xóa tick 100
+    Tick tick200 = new Tick("BTC-USDT", 200);
+    tickBitmap.setBit(200);
+    tickBitmap.clearBit(100);
+    when(tickCache.getTick("BTC-USDT", 200)).thenReturn(Optional.of(tick200));
+    pool.setTxCount(2);
+
+    ProcessResult second = new ProcessResult(mock(DisruptorEvent.class));
+    second.setAmmPool(pool);
+    second.addTick(tick100);
+    second.addTick(tick200);
+    readSnapshotCache.capture(second);
+    readSnapshotCache.publish();
+    ReadSnapshotCache.TickView newView = readSnapshotCache.getTickView("BTC-USDT");
+
+    // Then
+    assertTrue(oldView.isPublished());
+    assertEquals(1L, oldView.getPoolVersion());
+    assertEquals(1, oldView.getTicks().size());
+    assertTrue(oldView.getTicks().containsKey(100));
+
+    assertEquals(2L, newView.getPoolVersion());
+    assertEquals(2, newView.getPool().get().getTxCount());
+    assertNotSame(pool, newView.getPool().get());
+    assertEquals(1, oldView.getPool().get().getTxCount());
+    assertEquals(2L, newView.getEpoch());
+    assertEquals(1, newView.getTicks().size());
+    assertTrue(newView.getTicks().containsKey(200));
+    assertNotSame(tick200, newView.getTicks().get(200));
+    assertThrows(UnsupportedOperationException.class, () -> newView.getTicks().remove(200));
+  }
+
+  @Test
+  @DisplayName("getTickView không copy từ cache trên query thread khi pool chưa được publish")
+  void getTickView_ShouldNotReadLiveCache_WhenNotPublished() {
+    // Given
+    tickBitmap.setBit(100);
+    when(tickCache.getTick("BTC-USDT", 100)).thenReturn(Optional.of(new Tick("BTC-USDT", 100)));
+
+    // When
+    ReadSnapshotCache.TickView view = readSnapshotCache.getTickView("BTC-USDT");
+
+    // Then
+    assertFalse(view.isPublished());
+    assertTrue(view.getTicks().isEmpty());
+    assertFalse(readSnapshotCache.getAmmPool("BTC-USDT").isPresent());
+    verifyNoInteractions(tickCache, ammPositionCache);
+  }
+
+  @Test
+  @DisplayName("seedTickViews dựng view của mọi pool, getAmmPool trả về bản copy trong view")
+  void seedTickViews_ShouldPublishAllPools() {
+    // Given
+    tickBitmap.setBit(100);
+    tickBitmap.setBit(300);
+    when(tickCache.getTick("BTC-USDT", 100)).thenReturn(Optional.of(new Tick("BTC-USDT", 100)));
+    when(tickCache.getTick("BTC-USDT", 300)).thenReturn(Optional.of(new Tick("BTC-USDT", 300)));
+    when(ammPoolCache.getAmmPoolPairs()).thenReturn(Collections.singleton("BTC-USDT"));
+    pool.setTxCount(5);
+
+    // When
+    readSnapshotCache.seedTickViews();
+    ReadSnapshotCache.TickView view = readSnapshotCache.getTickView("BTC-USDT");
+
+    // Then
+    assertTrue(view.isPublished());
+    assertEquals(5L, view.getPoolVersion());
+    assertEquals(2, view.getTicks().size());
+    assertSame(view, readSnapshotCache.getTickView("BTC-USDT"));
+    assertNotSame(pool, readSnapshotCache.getAmmPool("BTC-USDT").get());
+    assertEquals(5, readSnapshotCache.getAmmPool("BTC-USDT").get().getTxCount());
+  }
+
+  @Test
+  @DisplayName("TickView giữ bản copy các position đang mở, cập nhật copy-on-write khi position thay đổi")
+  void publish_ShouldCopyOnWriteOpenPositions() {
+    // Given - pool có một position đang mở và một position đã đóng
+    AmmPosition open = new AmmPosition("p1", "BTC-USDT");
+    open.setStatus(AmmPosition.STATUS_OPEN);
+    AmmPosition closed = new AmmPosition("p2", "BTC-USDT");
+    closed.setStatus(AmmPosition.STATUS_CLOSED);
+    when(ammPositionCache.getAmmPositionsByPool("BTC-USDT")).thenReturn(java.util.Arrays.asList(open, closed));
+
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAmmPool(pool));
+    readSnapshotCache.publish();
+    ReadSnapshotCache.TickView first = readSnapshotCache.getTickView("BTC-USDT");
+    assertEquals(1, first.getPositions().size());
+    assertNotSame(open, first.getPositions().get("p1"));
+
+    // When - position mới được mở và p1 bị đóng
+    AmmPosition created = new AmmPosition("p3", "BTC-USDT");
+    created.setStatus(AmmPosition.STATUS_OPEN);
+    open.setStatus(AmmPosition.STATUS_CLOSED);
+    when(ammPositionCache.getAmmPosition("p1")).thenReturn(Optional.of(open));
+    when(ammPositionCache.getAmmPosition("p3")).thenReturn(Optional.of(created));
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAmmPosition(created));
+    readSnapshotCache.capture(new ProcessResult(mock(DisruptorEvent.class)).setAmmPosition(open));
+    readSnapshotCache.publish();
+    ReadSnapshotCache.TickView second = readSnapshotCache.getTickView("BTC-USDT");
+
+    // Then
+    assertTrue(first.getPositions().containsKey("p1"));
+    assertEquals(1, second.getPositions().size());
+    assertTrue(second.getPositions().containsKey("p3"));
+    assertThrows(UnsupportedOperationException.class, () -> second.getPositions().remove("p3"));
+    // Lần publish sau chỉ đọc các position thay đổi, không nạp lại cả pool
+    verify(ammPositionCache, times(1)).getAmmPositionsByPool("BTC-USDT");
+  }
+
+  @Test
+  @DisplayName("publish không làm gì khi không có thay đổi")
+  void publish_ShouldDoNothing_WhenNothingCaptured() {
+    readSnapshotCache.capture(null);
+    readSnapshotCache.publish();
+
+    assertEquals(0, readSnapshotCache.getEpoch());
+    verifyNoInteractions(accountCache, tickCache);
+  }
+}
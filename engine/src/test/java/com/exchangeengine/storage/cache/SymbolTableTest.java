@@ -0,0 +1,133 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.exchangeengine.extension.SingletonResetExtension;
+import com.exchangeengine.model.SymbolEntry;
+import com.exchangeengine.storage.rocksdb.SymbolRocksDB;
+
+@ExtendWith({ MockitoExtension.class, SingletonResetExtension.class })
+class SymbolTableTest {
+
+  @Mock
+  private SymbolRocksDB symbolRocksDB;
+
+  private SymbolTable symbolTable;
+
+  @BeforeEach
+  void setUp() {
+    SymbolRocksDB.setTestInstance(symbolRocksDB);
+    symbolTable = SymbolTable.getInstance();
+  }
+
+  @Test
+  @DisplayName("getOrAssignId nên cấp id liên tục theo từng loại và giữ nguyên id đã cấp")
+  void getOrAssignId_ShouldAssignDenseIdsPerKind() {
+    assertEquals(0, symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "btc:alice"));
+    assertEquals(1, symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "usdt:alice"));
+    assertEquals(0, symbolTable.getOrAssignId(SymbolTable.Kind.POOL, "BTC-USDT"));
+    assertEquals(0, symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, new String("btc:alice")));
+
+    assertEquals(1, symbolTable.getId(SymbolTable.Kind.ACCOUNT, "usdt:alice"));
+    assertEquals(-1, symbolTable.getId(SymbolTable.Kind.ACCOUNT, "eth:alice"));
+    assertEquals(-1, symbolTable.getId(SymbolTable.Kind.ACCOUNT, null));
+    assertEquals("usdt:alice", symbolTable.getName(SymbolTable.Kind.ACCOUNT, 1));
+    assertNull(symbolTable.getName(SymbolTable.Kind.ACCOUNT, 2));
+    assertNull(symbolTable.getName(SymbolTable.Kind.ACCOUNT, -1));
+    assertEquals(2, symbolTable.size(SymbolTable.Kind.ACCOUNT));
+  }
+
+  @Test
+  @DisplayName("intern nên trả về cùng một instance String cho các chuỗi bằng nhau")
+  void intern_ShouldReturnCanonicalInstance() {
+    String first = symbolTable.intern(SymbolTable.Kind.ACCOUNT, new String("btc:alice"));
+    String second = symbolTable.intern(SymbolTable.Kind.ACCOUNT, new String("btc:alice"));
+
+    assertSame(first, second);
+    assertNull(symbolTable.intern(SymbolTable.Kind.ACCOUNT, null));
+  }
+
+  @Test
+  @DisplayName("Bảng symbol nên tăng kích thước khi cấp nhiều id")
+  void getOrAssignId_ShouldGrowBeyondInitialCapacity() {
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "btc:user" + i));
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("btc:user" + i, symbolTable.getName(SymbolTable.Kind.ACCOUNT, i));
+    }
+  }
+
+  @Test
+  @DisplayName("initializeSymbolTable nên tải id đã lưu và cấp id mới sau id lớn nhất")
+  void initializeSymbolTable_ShouldLoadPersistedIds() {
+    when(symbolRocksDB.getAllSymbols()).thenReturn(Arrays.asList(
+        new SymbolEntry("account", "btc:alice", 0),
+        new SymbolEntry("account", "usdt:alice", 5),
+        new SymbolEntry("pool", "BTC-USDT", 2),
+        new SymbolEntry("unknown", "x", 0)));
+
+    symbolTable.initializeSymbolTable();
+
+    assertEquals(5, symbolTable.getId(SymbolTable.Kind.ACCOUNT, "usdt:alice"));
+    assertEquals(2, symbolTable.getId(SymbolTable.Kind.POOL, "BTC-USDT"));
+    assertEquals(6, symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "eth:alice"));
+    assertEquals(3, symbolTable.getOrAssignId(SymbolTable.Kind.POOL, "ETH-USDT"));
+
+    // Id đã tải không được lưu lại
+    symbolTable.flushSymbolsToDisk();
+    List<SymbolEntry> saved = captureSavedSymbols();
+    assertEquals(2, saved.size());
+    assertTrue(saved.contains(new SymbolEntry("account", "eth:alice", 6)));
+    assertTrue(saved.contains(new SymbolEntry("pool", "ETH-USDT", 3)));
+  }
+
+  @Test
+  @DisplayName("flushSymbolsToDisk nên chỉ lưu symbol mới một lần")
+  void flushSymbolsToDisk_ShouldSaveNewSymbolsOnce() {
+    symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "btc:alice");
+    symbolTable.getOrAssignId(SymbolTable.Kind.ACCOUNT, "btc:alice");
+
+    symbolTable.flushSymbolsToDisk();
+    symbolTable.flushSymbolsToDisk();
+
+    List<SymbolEntry> saved = captureSavedSymbols();
+    assertEquals(1, saved.size());
+    assertEquals("symbol:account:btc:alice", saved.get(0).getKey());
+  }
+
+  @Test
+  @DisplayName("initializeSymbolTable nên ném lỗi khi không đọc được RocksDB để dừng khởi động")
+  void initializeSymbolTable_ShouldFail_WhenLoadFails() {
+    when(symbolRocksDB.getAllSymbols()).thenThrow(new RuntimeException("DB Error"));
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> symbolTable.initializeSymbolTable());
+
+    assertTrue(exception.getMessage().contains("DB Error"));
+    verify(symbolRocksDB, never()).saveSymbolBatch(anyCollection());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<SymbolEntry> captureSavedSymbols() {
+    ArgumentCaptor<Collection<SymbolEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(symbolRocksDB).saveSymbolBatch(captor.capture());
+    return new ArrayList<>(captor.getValue());
+  }
+}
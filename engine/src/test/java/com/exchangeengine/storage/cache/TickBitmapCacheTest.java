@@ -69,15 +69,10 @@ public class TickBitmapCacheTest {
     // Clear latest bitmaps
     Field latestBitmapsField = TickBitmapCache.class.getDeclaredField("latestTickBitmaps");
     latestBitmapsField.setAccessible(true);
-    ConcurrentHashMap<String, TickBitmap> latestBitmaps = (ConcurrentHashMap<String, TickBitmap>) latestBitmapsField
+    WriteBehindBuffer<TickBitmap> latestBitmaps = (WriteBehindBuffer<TickBitmap>) latestBitmapsField
         .get(tickBitmapCache);
     latestBitmaps.clear();
 
-    // Reset update counter
-    Field updateCounterField = TickBitmapCache.class.getDeclaredField("updateCounter");
-    updateCounterField.setAccessible(true);
-    updateCounterField.set(tickBitmapCache, new java.util.concurrent.atomic.AtomicInteger(0));
-
     // Set test instance
     TickBitmapCache.setTestInstance(tickBitmapCache);
   }
@@ -252,7 +247,7 @@ public class TickBitmapCacheTest {
     try {
       Field latestBitmapsField = TickBitmapCache.class.getDeclaredField("latestTickBitmaps");
       latestBitmapsField.setAccessible(true);
-      Map<String, TickBitmap> latestBitmaps = (Map<String, TickBitmap>) latestBitmapsField.get(tickBitmapCache);
+      WriteBehindBuffer<TickBitmap> latestBitmaps = (WriteBehindBuffer<TickBitmap>) latestBitmapsField.get(tickBitmapCache);
       assertTrue(latestBitmaps.containsKey(bitmap.getPoolPair()), "Should add the bitmap to the batch");
     } catch (Exception e) {
       fail("Failed to access latestTickBitmaps field: " + e.getMessage());
@@ -275,7 +270,7 @@ public class TickBitmapCacheTest {
     // Verify bitmap was not added to batch
     Field batchField = TickBitmapCache.class.getDeclaredField("latestTickBitmaps");
     batchField.setAccessible(true);
-    Map<String, TickBitmap> batch = (Map<String, TickBitmap>) batchField.get(tickBitmapCache);
+    WriteBehindBuffer<TickBitmap> batch = (WriteBehindBuffer<TickBitmap>) batchField.get(tickBitmapCache);
     assertEquals(0, batch.size());
   }
 
@@ -315,7 +310,7 @@ public class TickBitmapCacheTest {
       Field latestBitmapsField = TickBitmapCache.class.getDeclaredField("latestTickBitmaps");
       latestBitmapsField.setAccessible(true);
       @SuppressWarnings("unchecked")
-      Map<String, TickBitmap> latestBitmaps = (Map<String, TickBitmap>) latestBitmapsField.get(tickBitmapCache);
+      WriteBehindBuffer<TickBitmap> latestBitmaps = (WriteBehindBuffer<TickBitmap>) latestBitmapsField.get(tickBitmapCache);
 
       // Verify total number of bitmaps
       assertEquals(2, latestBitmaps.size(), "Should have bitmaps for BTC-USDT and ETH-USDT");
@@ -336,40 +331,6 @@ public class TickBitmapCacheTest {
     }
   }
 
-  @Test
-  @DisplayName("tickBitmapCacheShouldFlush should return true when counter hits threshold")
-  public void testTickBitmapCacheShouldFlush() {
-    // Arrange & Assert
-    assertFalse(tickBitmapCache.tickBitmapCacheShouldFlush(), "Should not flush when no updates");
-
-    // Update bitmap many times to trigger flush threshold (UPDATE_THRESHOLD = 50)
-    TickBitmap bitmap = tickBitmapFactory.createEmptyBitmap("BTC-USDT");
-    for (int i = 0; i < 50; i++) {
-      tickBitmapCache.updateTickBitmap(bitmap);
-    }
-
-    // Should now return true
-    assertTrue(tickBitmapCache.tickBitmapCacheShouldFlush(), "Should flush after 50 updates");
-  }
-
-  @Test
-  @DisplayName("tickBitmapCacheShouldFlush should return false when counter is zero")
-  public void testTickBitmapCacheShouldFlush_EdgeCases() {
-    // Test when count is 0
-    assertFalse(tickBitmapCache.tickBitmapCacheShouldFlush(), "Should not flush when count is 0");
-
-    // Test when count is not divisible by 50
-    TickBitmap bitmap = tickBitmapFactory.createEmptyBitmap("BTC-USDT");
-    for (int i = 0; i < 49; i++) {
-      tickBitmapCache.updateTickBitmap(bitmap);
-    }
-    assertFalse(tickBitmapCache.tickBitmapCacheShouldFlush(), "Should not flush when count is not divisible by 50");
-
-    // Test when count is divisible by 50
-    tickBitmapCache.updateTickBitmap(bitmap);
-    assertTrue(tickBitmapCache.tickBitmapCacheShouldFlush(), "Should flush when count is divisible by 50");
-  }
-
   @Test
   @DisplayName("flushTickBitmapsToDisk should do nothing when batch is empty")
   public void testFlushTickBitmapsToDisk_WithEmptyBatch() {
@@ -397,7 +358,7 @@ public class TickBitmapCacheTest {
     try {
       Field latestBitmapsField = TickBitmapCache.class.getDeclaredField("latestTickBitmaps");
       latestBitmapsField.setAccessible(true);
-      Map<String, TickBitmap> latestBitmaps = (Map<String, TickBitmap>) latestBitmapsField.get(tickBitmapCache);
+      WriteBehindBuffer<TickBitmap> latestBitmaps = (WriteBehindBuffer<TickBitmap>) latestBitmapsField.get(tickBitmapCache);
       assertTrue(latestBitmaps.isEmpty(), "Batch should be cleared after flush");
     } catch (Exception e) {
       fail("Failed to access latestTickBitmaps field: " + e.getMessage());
@@ -4,18 +4,17 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -98,13 +97,13 @@ public class TickCacheTest {
     // Given
     Tick validTick = new Tick("BTC-USDT", 1);
 
-    // Create an invalid tick with null tickKey
+    // Create an invalid tick with null poolPair
     Tick invalidTick = mock(Tick.class);
-    when(invalidTick.getTickKey()).thenReturn(null);
+    when(invalidTick.getPoolPair()).thenReturn(null);
 
-    // Create another invalid tick with empty tickKey
+    // Create another invalid tick with empty poolPair
     Tick emptyKeyTick = mock(Tick.class);
-    when(emptyKeyTick.getTickKey()).thenReturn("");
+    when(emptyKeyTick.getPoolPair()).thenReturn("");
 
     List<Tick> mockTicks = Arrays.asList(validTick, invalidTick, emptyKeyTick);
     when(tickRocksDB.getAllTicks()).thenReturn(mockTicks);
@@ -118,14 +117,48 @@ public class TickCacheTest {
     assertTrue(resultTick1.isPresent());
 
     // Check total loaded count is 1
-    try {
-      java.lang.reflect.Field tickCacheField = TickCache.class.getDeclaredField("tickCache");
-      tickCacheField.setAccessible(true);
-      ConcurrentHashMap<String, Tick> cache = (ConcurrentHashMap<String, Tick>) tickCacheField.get(tickCache);
-      assertEquals(1, cache.size(), "Should only load valid ticks");
-    } catch (Exception e) {
-      fail("Could not access tickCache field: " + e.getMessage());
-    }
+    assertEquals(1, tickCache.size(), "Should only load valid ticks");
+  }
+
+  @Test
+  @DisplayName("Khởi tạo TickCache nên chuyển key cũ sang key nhị phân trước khi tải")
+  void initializeTickCache_ShouldMigrateLegacyKeysFirst() {
+    // Given
+    when(tickRocksDB.getAllTicks()).thenReturn(Arrays.asList(new Tick("BTC-USDT", 1)));
+
+    // When
+    tickCache.initializeTickCache();
+
+    // Then
+    org.mockito.InOrder inOrder = inOrder(tickRocksDB);
+    inOrder.verify(tickRocksDB).migrateLegacyKeys();
+    inOrder.verify(tickRocksDB).getAllTicks();
+  }
+
+  @Test
+  @DisplayName("getTick nên tìm được tick theo pool và index, kể cả tick âm")
+  void getTick_ByPoolAndIndex_ShouldHandleNegativeTicks() {
+    // Given
+    Tick negativeTick = new Tick("BTC-USDT", -600);
+    Tick positiveTick = new Tick("BTC-USDT", 600);
+    Tick otherPoolTick = new Tick("ETH-USDT", 600);
+    tickCache.updateTick(negativeTick);
+    tickCache.updateTick(positiveTick);
+    tickCache.updateTick(otherPoolTick);
+
+    // Then
+    assertSame(negativeTick, tickCache.getTick("BTC-USDT", -600).get());
+    assertSame(positiveTick, tickCache.getTick("BTC-USDT", 600).get());
+    assertSame(otherPoolTick, tickCache.getTick("ETH-USDT", 600).get());
+    assertFalse(tickCache.getTick("BTC-USDT", 0).isPresent());
+    assertFalse(tickCache.getTick("SOL-USDT", 600).isPresent());
+
+    // Key chuỗi cũ vẫn tra cứu được
+    assertSame(negativeTick, tickCache.getTick("BTC-USDT--600").get());
+    assertSame(positiveTick, tickCache.getTick("BTC-USDT-600").get());
+    assertFalse(tickCache.getTick("BTC-USDT-").isPresent());
+    assertFalse(tickCache.getTick("BTC-USDT-abc").isPresent());
+    assertEquals(3, tickCache.size());
   }
 
   @Test
@@ -196,29 +229,16 @@ public class TickCacheTest {
     assertEquals(tick, cachedTick.get());
 
     // Simulate flushing to disk to verify tick was added to batch
-    doNothing().when(tickRocksDB).saveTickBatch(anyMap());
+    doNothing().when(tickRocksDB).saveTickBatch(anyCollection());
     tickCache.flushTicksToDisk();
 
     // Verify saveTickBatch was called (indicates tick was in batch)
-    verify(tickRocksDB).saveTickBatch(anyMap());
+    verify(tickRocksDB).saveTickBatch(anyCollection());
   }
 
   @Test
   @DisplayName("addTickToBatch nên thêm tick mới và thay thế tick cũ nếu có timestamp mới hơn")
   void addTickToBatch_ShouldAddAndReplaceCorrectly() {
-    // Given
-    // Create a spy on the map to track real interactions
-    Map<String, Tick> latestTicksSpy = spy(new HashMap<>());
-
-    // Use reflection to set the latestTicks field in tickCache
-    try {
-      java.lang.reflect.Field latestTicksField = TickCache.class.getDeclaredField("latestTicks");
-      latestTicksField.setAccessible(true);
-      latestTicksField.set(tickCache, latestTicksSpy);
-    } catch (Exception e) {
-      fail("Could not set latestTicks field: " + e.getMessage());
-    }
-
     // Create older tick
     Tick olderTick = new Tick("BTC-USDT", 100);
     olderTick.setUpdatedAt(1000L);
@@ -227,67 +247,28 @@ public class TickCacheTest {
     Tick newerTick = new Tick("BTC-USDT", 100);
     newerTick.setUpdatedAt(2000L);
 
-    // When - add older tick first
-    tickCache.addTickToBatch(olderTick);
-
-    // Verify compute was called
-    verify(latestTicksSpy, times(1)).compute(eq(olderTick.getTickKey()), any());
-
-    // Then - add newer tick and verify it replaces older one
-    tickCache.addTickToBatch(newerTick);
-
-    // Check directly in the map
-    try {
-      java.lang.reflect.Field latestTicksField = TickCache.class.getDeclaredField("latestTicks");
-      latestTicksField.setAccessible(true);
-      Map<String, Tick> latestTicks = (Map<String, Tick>) latestTicksField.get(tickCache);
-
-      // Should have only one entry
-      assertEquals(1, latestTicks.size());
-
-      // The entry should be the newer tick
-      Tick storedTick = latestTicks.get(newerTick.getTickKey());
-      assertEquals(2000L, storedTick.getUpdatedAt());
-      assertSame(newerTick, storedTick);
-    } catch (Exception e) {
-      fail("Could not access latestTicks field: " + e.getMessage());
-    }
-
-    // Verify older tick is not replaced by an even older one
+    // Even older tick must not replace the newer one
     Tick evenOlderTick = new Tick("BTC-USDT", 100);
     evenOlderTick.setUpdatedAt(500L);
+
+    // When
+    tickCache.addTickToBatch(olderTick);
+    tickCache.addTickToBatch(newerTick);
     tickCache.addTickToBatch(evenOlderTick);
+    tickCache.flushTicksToDisk();
 
-    try {
-      java.lang.reflect.Field latestTicksField = TickCache.class.getDeclaredField("latestTicks");
-      latestTicksField.setAccessible(true);
-      Map<String, Tick> latestTicks = (Map<String, Tick>) latestTicksField.get(tickCache);
-
-      // Still should have only one entry
-      assertEquals(1, latestTicks.size());
-
-      // The entry should still be the newer tick
-      Tick storedTick = latestTicks.get(newerTick.getTickKey());
-      assertEquals(2000L, storedTick.getUpdatedAt());
-      assertSame(newerTick, storedTick);
-    } catch (Exception e) {
-      fail("Could not access latestTicks field: " + e.getMessage());
-    }
+    // Then - only the newest tick is written
+    List<Tick> saved = captureSavedTicks();
+    assertEquals(1, saved.size());
+    assertSame(newerTick, saved.get(0));
+    assertEquals(2000L, saved.get(0).getUpdatedAt());
   }
 
-  @Test
-  @DisplayName("tickCacheShouldFlush nên trả về true khi đạt ngưỡng")
-  void tickCacheShouldFlush_WhenReachingThreshold_ShouldReturnTrue() {
-    // Given - assuming BACKUP_BATCH_SIZE = 1000
-    Tick tick = new Tick("BTC-USDT", 1);
-
-    // Simulate 1000 updates
-    for (int i = 0; i < 1000; i++) {
-      tickCache.updateTick(tick);
-    }
-
-    // When & Then
-    assertTrue(tickCache.tickCacheShouldFlush());
+  @SuppressWarnings("unchecked")
+  private List<Tick> captureSavedTicks() {
+    ArgumentCaptor<Collection<Tick>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(tickRocksDB).saveTickBatch(captor.capture());
+    return new ArrayList<>(captor.getValue());
   }
 
   @Test
@@ -297,18 +278,6 @@ public class TickCacheTest {
     Tick tick1 = new Tick("BTC-USDT", 1);
     Tick tick2 = new Tick("ETH-USDT", 2);
 
-    // Create a spy on the map to track real interactions
-    Map<String, Tick> latestTicksSpy = spy(new HashMap<>());
-
-    // Use reflection to set the latestTicks field in tickCache
-    try {
-      java.lang.reflect.Field latestTicksField = TickCache.class.getDeclaredField("latestTicks");
-      latestTicksField.setAccessible(true);
-      latestTicksField.set(tickCache, latestTicksSpy);
-    } catch (Exception e) {
-      fail("Could not set latestTicks field: " + e.getMessage());
-    }
-
     tickCache.updateTick(tick1);
     tickCache.updateTick(tick2);
 
@@ -316,15 +285,42 @@ public class TickCacheTest {
     tickCache.flushTicksToDisk();
 
     // Then
-    // Verify compute was called for each tick (not put directly)
-    verify(latestTicksSpy, times(1)).compute(eq(tick1.getTickKey()), any());
-    verify(latestTicksSpy, times(1)).compute(eq(tick2.getTickKey()), any());
+    List<Tick> saved = captureSavedTicks();
+    assertEquals(2, saved.size());
+    assertTrue(saved.contains(tick1));
+    assertTrue(saved.contains(tick2));
+
+    // Batch was cleared: a second flush writes nothing, the cache still has the ticks
+    tickCache.flushTicksToDisk();
+    verify(tickRocksDB, times(1)).saveTickBatch(any());
+    assertTrue(tickCache.getTick("BTC-USDT", 1).isPresent());
+  }
 
-    // Verify saveTickBatch was called
-    verify(tickRocksDB).saveTickBatch(any());
+  @Test
+  @DisplayName("flushTicksToDisk trả tick lại batch khi lưu thất bại, giữ tick mới hơn")
+  void flushTicksToDisk_ShouldRequeueTicks_WhenSaveFails() {
+    Tick failed = new Tick("BTC-USDT", 1);
+    failed.setUpdatedAt(1_000L);
+    tickCache.addTickToBatch(failed);
+    tickCache.addTickToBatch(new Tick("BTC-USDT", 2));
+    doThrow(new RuntimeException("disk full")).when(tickRocksDB).saveTickBatch(anyCollection());
+
+    assertThrows(RuntimeException.class, () -> tickCache.flushTicksToDisk());
+    assertEquals(2, tickCache.pendingFlushCount());
+
+    // Tick mới hơn được ghi sau lần lưu lỗi thay thế bản được trả lại
+    Tick newer = new Tick("BTC-USDT", 1);
+    newer.setUpdatedAt(2_000L);
+    tickCache.addTickToBatch(newer);
+    doNothing().when(tickRocksDB).saveTickBatch(anyCollection());
+    tickCache.flushTicksToDisk();
 
-    // Verify the map was cleared
-    verify(latestTicksSpy).clear();
+    ArgumentCaptor<Collection<Tick>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(tickRocksDB, times(2)).saveTickBatch(captor.capture());
+    List<Tick> saved = new ArrayList<>(captor.getValue());
+    assertEquals(2, saved.size());
+    assertTrue(saved.stream().anyMatch(tick -> tick.getTickIndex() == 1 && tick.getUpdatedAt() == 2_000L));
+    assertEquals(0, tickCache.pendingFlushCount());
   }
 
   @Test
@@ -365,33 +361,4 @@ public class TickCacheTest {
     assertSame(testInstance, result);
   }
 
-  @Test
-  @DisplayName("tickCacheShouldFlush nên xử lý các trường hợp biên")
-  void tickCacheShouldFlush_EdgeCases() {
-    // Set updateCounter directly
-    try {
-      java.lang.reflect.Field updateCounterField = TickCache.class.getDeclaredField("updateCounter");
-      updateCounterField.setAccessible(true);
-
-      // Case 1: Count = 0
-      updateCounterField.set(tickCache, new AtomicInteger(0));
-      assertFalse(tickCache.tickCacheShouldFlush(), "Should return false when count is 0");
-
-      // Case 2: Count > 0 but not divisible by BACKUP_BATCH_SIZE (1000)
-      updateCounterField.set(tickCache, new AtomicInteger(999));
-      assertFalse(tickCache.tickCacheShouldFlush(),
-          "Should return false when count is not divisible by BACKUP_BATCH_SIZE");
-
-      // Case 3: Count divisible by BACKUP_BATCH_SIZE (1000)
-      updateCounterField.set(tickCache, new AtomicInteger(1000));
-      assertTrue(tickCache.tickCacheShouldFlush(), "Should return true when count is divisible by BACKUP_BATCH_SIZE");
-
-      // Case 4: Count divisible by BACKUP_BATCH_SIZE (2000)
-      updateCounterField.set(tickCache, new AtomicInteger(2000));
-      assertTrue(tickCache.tickCacheShouldFlush(), "Should return true when count is divisible by BACKUP_BATCH_SIZE");
-
-    } catch (Exception e) {
-      fail("Could not access updateCounter field: " + e.getMessage());
-    }
-  }
 }
@@ -0,0 +1,137 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.exchangeengine.util.ammPool.LiquidityUtils;
+import com.exchangeengine.util.ammPool.TickMath;
+
+class TickLiquidityIndexTest {
+
+  private static final BigDecimal TOLERANCE = new BigDecimal("0.000000001");
+
+  private static void assertClose(BigDecimal expected, BigDecimal actual) {
+    assertTrue(expected.subtract(actual).abs().compareTo(TOLERANCE) <= 0,
+        () -> "expected " + expected + " but was " + actual);
+  }
+
+  private static void addPosition(TickLiquidityIndex index, int lower, int upper, BigDecimal liquidity) {
+    index.setLiquidityNet(lower, index.getLiquidityNet(lower).add(liquidity));
+    index.setLiquidityNet(upper, index.getLiquidityNet(upper).subtract(liquidity));
+  }
+
+  @Test
+  @DisplayName("getLiquidityAt bằng tổng liquidityNet của các tick <= tick, giống duyệt tuần tự")
+  void getLiquidityAt_ShouldMatchLinearScan() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 60);
+    TreeMap<Integer, BigDecimal> nets = new TreeMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 200; i++) {
+      int lower = (random.nextInt(400) - 200) * 60;
+      int upper = lower + (random.nextInt(50) + 1) * 60;
+      BigDecimal liquidity = BigDecimal.valueOf(random.nextInt(10_000) + 1);
+      addPosition(index, lower, upper, liquidity);
+      nets.merge(lower, liquidity, BigDecimal::add);
+      nets.merge(upper, liquidity.negate(), BigDecimal::add);
+    }
+
+    for (int tick = -13_000; tick <= 16_000; tick += 77) {
+      BigDecimal expected = nets.headMap(tick, true).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+      assertEquals(0, expected.compareTo(index.getLiquidityAt(tick)), "tick " + tick);
+    }
+  }
+
+  @Test
+  @DisplayName("getAmountsInRange của một position bằng lượng token tính bằng LiquidityUtils")
+  void getAmountsInRange_ShouldMatchPositionAmounts() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 10);
+    BigDecimal liquidity = new BigDecimal("5000");
+    addPosition(index, -600, 900, liquidity);
+
+    for (int currentTick : new int[] { -1200, -600, -55, 0, 340, 900, 2000 }) {
+      BigDecimal sqrtPrice = TickMath.getSqrtRatioAtTick(currentTick);
+      BigDecimal[] expected = LiquidityUtils.getAmountsForLiquidity(sqrtPrice, TickMath.getSqrtRatioAtTick(-600),
+          TickMath.getSqrtRatioAtTick(900), liquidity);
+
+      BigDecimal[] actual = index.getAmountsInRange(-3000, 3000, currentTick, sqrtPrice);
+
+      assertClose(expected[0], actual[0]);
+      assertClose(expected[1], actual[1]);
+    }
+  }
+
+  @Test
+  @DisplayName("Tổng các bucket bằng lượng token của cả khoảng")
+  void getAmountsInRange_ShouldBeAdditiveAcrossBuckets() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 10);
+    addPosition(index, -600, 900, new BigDecimal("5000"));
+    addPosition(index, -100, 100, new BigDecimal("20000"));
+    BigDecimal sqrtPrice = TickMath.getSqrtRatioAtTick(35);
+
+    BigDecimal[] total = index.getAmountsInRange(-1000, 1000, 35, sqrtPrice);
+    BigDecimal amount0 = BigDecimal.ZERO;
+    BigDecimal amount1 = BigDecimal.ZERO;
+    for (int lower = -1000; lower < 1000; lower += 250) {
+      BigDecimal[] bucket = index.getAmountsInRange(lower, lower + 250, 35, sqrtPrice);
+      amount0 = amount0.add(bucket[0]);
+      amount1 = amount1.add(bucket[1]);
+    }
+
+    assertClose(total[0], amount0);
+    assertClose(total[1], amount1);
+    assertEquals(0, new BigDecimal("25000").compareTo(index.getLiquidityAt(35)));
+  }
+
+  @Test
+  @DisplayName("setLiquidityNet đặt lại cùng giá trị không làm thay đổi index, về 0 thì xóa tick")
+  void setLiquidityNet_ShouldApplyOnlyDelta() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 60);
+    index.setLiquidityNet(-120, new BigDecimal("100"));
+    index.setLiquidityNet(-120, new BigDecimal("100"));
+    index.setLiquidityNet(120, new BigDecimal("-100"));
+
+    assertEquals(0, new BigDecimal("100").compareTo(index.getLiquidityAt(0)));
+    assertEquals(2, index.getTickCount());
+
+    index.setLiquidityNet(-120, BigDecimal.ZERO);
+    index.setLiquidityNet(120, null);
+
+    assertEquals(0, BigDecimal.ZERO.compareTo(index.getLiquidityAt(0)));
+    assertEquals(0, index.getTickCount());
+  }
+
+  @Test
+  @DisplayName("setLiquidityNet từ chối tick không phải bội số của tickSpacing")
+  void setLiquidityNet_ShouldRejectUnalignedTick() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 60);
+
+    assertThrows(IllegalArgumentException.class, () -> index.setLiquidityNet(30, BigDecimal.ONE));
+  }
+
+  @Test
+  @DisplayName("apply cập nhật các tick thay đổi và phiên bản pool cùng lúc")
+  void apply_ShouldUpdateTicksAndVersion() {
+    TickLiquidityIndex index = new TickLiquidityIndex("BTC-USDT", 60, 3L);
+    index.setLiquidityNet(-120, new BigDecimal("100"));
+    index.setLiquidityNet(120, new BigDecimal("-100"));
+
+    Map<Integer, BigDecimal> changes = new HashMap<>();
+    changes.put(-120, null);
+    changes.put(120, null);
+    changes.put(0, new BigDecimal("50"));
+    index.apply(changes, 4L);
+
+    assertEquals(4L, index.getVersion());
+    assertEquals(1, index.getTickCount());
+    assertEquals(0, new BigDecimal("50").compareTo(index.getLiquidityAt(60)));
+  }
+}
@@ -195,24 +195,12 @@ class TradeCacheTest {
     void updateTrade_ShouldNotUpdate_WhenTradeIsNull() {
         // Arrange
         reset(mockTradeRocksDB);  // Đảm bảo reset mock trước khi test
-        int initialUpdateCount = 0;
         
         // Act
         tradeCache.updateTrade(null);
         
         // Assert
-        java.lang.reflect.Field field;
-        try {
-            field = TradeCache.class.getDeclaredField("updateCounter");
-            field.setAccessible(true);
-            java.util.concurrent.atomic.AtomicInteger counter = 
-                (java.util.concurrent.atomic.AtomicInteger) field.get(tradeCache);
-            int currentCount = counter.get() - 1; // trừ đi 1 vì đã tăng khi setup
-            assertEquals(initialUpdateCount, currentCount, 
-                "Update counter should not increase when trade is null");
-        } catch (Exception e) {
-            fail("Failed to access updateCounter field: " + e.getMessage());
-        }
+        verify(mockTradeRocksDB, never()).saveTrade(any());
     }
 
     @Test
@@ -225,14 +213,14 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
 
         // Act
         tradeCache.addTradeToBatch(trade);
 
         // Assert
-        Map<String, Trade> updatedLatestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> updatedLatestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         assertTrue(updatedLatestTrades.containsKey(trade.getIdentifier()), "Trade should be added to batch");
     }
 
@@ -275,7 +263,7 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
         latestTrades.put(olderTrade.getIdentifier(), olderTrade);
         
@@ -283,7 +271,7 @@ class TradeCacheTest {
         tradeCache.addTradeToBatch(newerTrade);
         
         // Assert
-        Map<String, Trade> updatedLatestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> updatedLatestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         assertEquals(newerTrade, updatedLatestTrades.get(newerTrade.getIdentifier()), 
                 "Newer trade should replace older trade in batch");
     }
@@ -303,7 +291,7 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
         latestTrades.put(newerTrade.getIdentifier(), newerTrade);
         
@@ -311,24 +299,23 @@ class TradeCacheTest {
         tradeCache.addTradeToBatch(olderTrade);
         
         // Assert
-        Map<String, Trade> updatedLatestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> updatedLatestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         assertEquals(newerTrade, updatedLatestTrades.get(newerTrade.getIdentifier()), 
                 "Newer trade should be kept when older trade is added");
     }
 
     @Test
-    @DisplayName("addTradeToBatch should flush when batch size reaches threshold")
-    void addTradeToBatch_ShouldFlush_WhenBatchSizeReachesThreshold() throws Exception {
+    @DisplayName("addTradeToBatch should leave flushing to FlushScheduler when batch size reaches threshold")
+    void addTradeToBatch_ShouldNotFlushInline_WhenBatchSizeReachesThreshold() throws Exception {
         // Arrange
-        java.lang.reflect.Field thresholdField = TradeCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = (int) thresholdField.get(null);
+        // Số bản ghi từng kích hoạt flush inline
+        int threshold = 100;
         
         // Clear latestTrades map
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
         
         // Add trades until just below threshold
@@ -344,44 +331,9 @@ class TradeCacheTest {
         Trade finalTrade = TradeFactory.create();
         tradeCache.addTradeToBatch(finalTrade);
         
-        // Verify saveTradeBatch called
-        verify(mockTradeRocksDB, times(1)).saveTradeBatch(any());
-    }
-
-    @Test
-    @DisplayName("tradeCacheShouldFlush should return false when update count is zero")
-    void tradeCacheShouldFlush_ShouldReturnFalse_WhenUpdateCountIsZero() throws Exception {
-        // Arrange
-        java.lang.reflect.Field counterField = TradeCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = (java.util.concurrent.atomic.AtomicInteger) counterField.get(tradeCache);
-        counter.set(0);
-        
-        // Act
-        boolean result = tradeCache.tradeCacheShouldFlush();
-        
-        // Assert
-        assertFalse(result, "Should return false when update count is zero");
-    }
-
-    @Test
-    @DisplayName("tradeCacheShouldFlush should return true when update count is divisible by threshold")
-    void tradeCacheShouldFlush_ShouldReturnTrue_WhenUpdateCountIsDivisibleByThreshold() throws Exception {
-        // Arrange
-        java.lang.reflect.Field thresholdField = TradeCache.class.getDeclaredField("UPDATE_THRESHOLD");
-        thresholdField.setAccessible(true);
-        int threshold = (int) thresholdField.get(null);
-        
-        java.lang.reflect.Field counterField = TradeCache.class.getDeclaredField("updateCounter");
-        counterField.setAccessible(true);
-        java.util.concurrent.atomic.AtomicInteger counter = (java.util.concurrent.atomic.AtomicInteger) counterField.get(tradeCache);
-        counter.set(threshold);
-        
-        // Act
-        boolean result = tradeCache.tradeCacheShouldFlush();
-        
-        // Assert
-        assertTrue(result, "Should return true when update count is divisible by threshold");
+        // Batch chờ FlushScheduler (trigger SIZE), không flush trên thread ghi
+        verify(mockTradeRocksDB, never()).saveTradeBatch(any());
+        assertEquals(threshold, tradeCache.pendingFlushCount());
     }
 
     @Test
@@ -391,7 +343,7 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
         
         // Act
@@ -408,7 +360,7 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         latestTrades.clear();
         
         // Add trade to batch
@@ -452,7 +404,7 @@ class TradeCacheTest {
         java.lang.reflect.Field latestTradesField = TradeCache.class.getDeclaredField("latestTrades");
         latestTradesField.setAccessible(true);
         @SuppressWarnings("unchecked")
-        Map<String, Trade> latestTrades = (Map<String, Trade>) latestTradesField.get(tradeCache);
+        WriteBehindBuffer<Trade> latestTrades = (WriteBehindBuffer<Trade>) latestTradesField.get(tradeCache);
         Trade trade = TradeFactory.create();
         latestTrades.put(trade.getIdentifier(), trade);
         
@@ -163,7 +163,7 @@ class WithdrawalCacheTest {
     // Truy cập trực tiếp vào map latestWithdrawals qua reflection
     Field latestWithdrawalsField = WithdrawalCache.class.getDeclaredField("latestWithdrawals");
     latestWithdrawalsField.setAccessible(true);
-    Map<String, CoinWithdrawal> latestWithdrawals = (Map<String, CoinWithdrawal>) latestWithdrawalsField
+    WriteBehindBuffer<CoinWithdrawal> latestWithdrawals = (WriteBehindBuffer<CoinWithdrawal>) latestWithdrawalsField
         .get(withdrawalCache);
 
     // Kiểm tra trạng thái cuối cùng của cache
@@ -274,7 +274,7 @@ class WithdrawalCacheTest {
     // Truy cập trực tiếp vào map latestWithdrawals qua reflection
     Field latestWithdrawalsField = WithdrawalCache.class.getDeclaredField("latestWithdrawals");
     latestWithdrawalsField.setAccessible(true);
-    Map<String, CoinWithdrawal> latestWithdrawals = (Map<String, CoinWithdrawal>) latestWithdrawalsField
+    WriteBehindBuffer<CoinWithdrawal> latestWithdrawals = (WriteBehindBuffer<CoinWithdrawal>) latestWithdrawalsField
         .get(withdrawalCache);
 
     // Kiểm tra trạng thái trước khi flush
@@ -284,7 +284,7 @@ class WithdrawalCacheTest {
 
     // Test flush with non-empty batch
     withdrawalCache.flushWithdrawalToDisk();
-    verify(mockWithdrawalRocksDB).saveWithdrawalBatch(latestWithdrawals);
+    verify(mockWithdrawalRocksDB).saveWithdrawalBatch(any());
 
     // Kiểm tra map đã được clear sau khi flush
     assertEquals(0, latestWithdrawals.size(), "Map should be empty after flush");
@@ -294,18 +294,4 @@ class WithdrawalCacheTest {
     verifyNoMoreInteractions(mockWithdrawalRocksDB);
   }
 
-  @Test
-  void testWithdrawalCacheShouldFlush() throws Exception {
-    // Act & Assert
-    assertFalse(withdrawalCache.withdrawalCacheShouldFlush(), "Should not flush when batch is empty");
-
-    // Thêm withdrawals đến khi đạt ngưỡng
-    for (int i = 0; i < 10000; i++) {
-      CoinWithdrawal withdrawal = CoinWithdrawalFactory.create("test_account", "id" + i, new BigDecimal("1.0"));
-      withdrawalCache.addWithdrawalToBatch(withdrawal);
-    }
-
-    // Should now return true
-    assertTrue(withdrawalCache.withdrawalCacheShouldFlush(), "Should flush when batch size reaches threshold");
-  }
 }
@@ -0,0 +1,103 @@
+package com.exchangeengine.storage.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindBufferTest {
+
+  @Test
+  @DisplayName("put với merger nên giữ bản ghi được merger chọn")
+  void put_ShouldApplyMerger() {
+    WriteBehindBuffer<Long> buffer = new WriteBehindBuffer<>("test",
+        (existing, incoming) -> incoming > existing ? incoming : existing);
+
+    buffer.put("a", 2L);
+    buffer.put("a", 1L);
+    buffer.put("b", 5L);
+
+    assertEquals(2L, buffer.get("a"));
+    assertEquals(2, buffer.size());
+    assertTrue(buffer.containsKey("b"));
+    assertTrue(buffer.pendingLagMillis() >= 0L);
+  }
+
+  @Test
+  @DisplayName("flush nên chuyển toàn bộ batch cho sink, cập nhật thống kê và để buffer rỗng")
+  void flush_ShouldDrainBatchAndRecordStats() {
+    WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test");
+    buffer.put("a", "1");
+    buffer.put("b", "2");
+
+    Map<String, String> saved = new HashMap<>();
+    assertEquals(2, buffer.flush(saved::putAll));
+
+    assertEquals(Map.of("a", "1", "b", "2"), saved);
+    assertTrue(buffer.isEmpty());
+    assertEquals(0L, buffer.pendingLagMillis());
+    assertEquals(2, buffer.getLastFlushSize());
+    assertEquals(2L, buffer.getTotalFlushed());
+    assertTrue(buffer.getLastFlushLagMillis() >= 0L);
+    assertTrue(buffer.getLastFlushDurationMillis() >= 0L);
+
+    assertEquals(0, buffer.flush(batch -> fail("Không được gọi sink khi buffer rỗng")));
+  }
+
+  @Test
+  @DisplayName("Sink lỗi nên trả batch về buffer nhưng không ghi đè bản mới hơn đến trong lúc flush")
+  void flush_ShouldRequeueOnFailure() {
+    WriteBehindBuffer<Long> buffer = new WriteBehindBuffer<>("test",
+        (existing, incoming) -> incoming > existing ? incoming : existing);
+    buffer.put("a", 1L);
+    buffer.put("b", 1L);
+
+    RuntimeException error = assertThrows(RuntimeException.class, () -> buffer.flush(batch -> {
+      buffer.put("a", 2L);
+      throw new RuntimeException("disk full");
+    }));
+
+    assertEquals("disk full", error.getMessage());
+    assertEquals(2L, buffer.get("a"));
+    assertEquals(1L, buffer.get("b"));
+    assertEquals(0L, buffer.getTotalFlushed());
+
+    Map<String, Long> saved = new HashMap<>();
+    buffer.flush(saved::putAll);
+    assertEquals(Map.of("a", 2L, "b", 1L), saved);
+  }
+
+  @Test
+  @DisplayName("Flush đồng thời với writer không được làm mất bản ghi nào")
+  void flush_ShouldNotLoseConcurrentWrites() throws Exception {
+    WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test");
+    Map<String, Integer> saved = new HashMap<>();
+    int writes = 200000;
+
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < writes; i++) {
+        buffer.put("k" + i, i);
+      }
+    });
+    AtomicBoolean done = new AtomicBoolean(false);
+    Thread flusher = new Thread(() -> {
+      while (!done.get()) {
+        buffer.flush(saved::putAll);
+      }
+    });
+
+    flusher.start();
+    writer.start();
+    writer.join();
+    done.set(true);
+    flusher.join();
+    buffer.flush(saved::putAll);
+
+    assertEquals(writes, saved.size());
+    assertEquals(writes, buffer.getTotalFlushed());
+  }
+}
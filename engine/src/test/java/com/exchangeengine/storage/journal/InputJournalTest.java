@@ -0,0 +1,199 @@
+package com.exchangeengine.storage.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.exchangeengine.model.ActionType;
+import com.exchangeengine.model.OperationType;
+import com.exchangeengine.model.event.CoinDepositEvent;
+import com.exchangeengine.model.event.DisruptorEvent;
+import com.exchangeengine.model.event.MerchantEscrowEvent;
+import com.exchangeengine.model.event.TradeEvent;
+
+class InputJournalTest {
+
+  // Đủ cho vài record, để test chuyển segment
+  private static final int SMALL_SEGMENT = 1024;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  @DisplayName("Event chưa bền được replay theo thứ tự qua nhiều segment và không bị ghi lại")
+  void replay_ShouldPublishEventsAfterDurableSequenceOnce() throws IOException {
+    InputJournal journal = open();
+    for (int i = 0; i < 20; i++) {
+      journal.append(i, deposit("event-" + i));
+    }
+    journal.close();
+    assertTrue(segmentFiles().size() > 1, "Segment nhỏ phải được chuyển nhiều lần");
+
+    // Lần chạy sau: RocksDB đã có tới sequence 11
+    InputJournal restarted = open();
+    assertEquals(19, restarted.getLastSequence());
+    List<String> replayed = new ArrayList<>();
+    long count = restarted.replay(11, event -> replayed.add(event.getEventId()));
+
+    assertEquals(8, count);
+    assertEquals("event-12", replayed.get(0));
+    assertEquals("event-19", replayed.get(7));
+    assertEquals(11, restarted.toJournalSequence(-1));
+    assertEquals(12, restarted.toJournalSequence(0));
+
+    // Event replay (sequence Disruptor 0..7) đi qua journal nhưng không ghi lại,
+    // event mới nối tiếp sau sequence 19
+    for (int i = 0; i < 8; i++) {
+      restarted.append(i, deposit("event-" + (12 + i)));
+    }
+    restarted.append(8, deposit("event-new"));
+    assertEquals(20, restarted.toJournalSequence(8));
+    assertEquals(20, restarted.getLastSequence());
+    assertEquals(1, restarted.getAppendedRecords());
+    restarted.close();
+
+    List<String> again = new ArrayList<>();
+    open().replay(19, event -> again.add(event.getEventId()));
+    assertEquals(List.of("event-new"), again);
+  }
+
+  @Test
+  @DisplayName("Record ghi dở ở cuối segment bị bỏ qua và ghi đè")
+  void open_ShouldTruncateTornRecord() throws IOException {
+    InputJournal journal = new InputJournal(true, dir, 64 * 1024, false);
+    journal.open();
+    journal.append(0, deposit("event-0"));
+    journal.append(1, deposit("event-1"));
+    journal.close();
+
+    // Hỏng một byte payload của record cuối như khi process chết giữa lúc ghi
+    Path segment = segmentFiles().get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(4);
+      channel.read(header, 0);
+      int secondRecord = JournalSegment.HEADER_SIZE + header.getInt(0);
+      channel.write(ByteBuffer.wrap(new byte[] { 0x7f }), secondRecord + JournalSegment.HEADER_SIZE + 3);
+    }
+
+    InputJournal restarted = new InputJournal(true, dir, 64 * 1024, false);
+    restarted.open();
+    assertEquals(0, restarted.getLastSequence());
+    assertEquals(0, restarted.replay(0, event -> fail("Không có event nào sau sequence 0")));
+
+    restarted.append(0, deposit("event-1-retry"));
+    restarted.close();
+    List<String> replayed = new ArrayList<>();
+    open().replay(-1, event -> replayed.add(event.getEventId()));
+    assertEquals(List.of("event-0", "event-1-retry"), replayed);
+  }
+
+  @Test
+  @DisplayName("Segment mà mọi record đã bền bị xóa khi chuyển segment")
+  void append_ShouldDeleteDurableSegmentsOnRoll() throws IOException {
+    InputJournal journal = open();
+    journal.replay(-1, event -> fail("Journal rỗng"));
+    for (int i = 0; i < 10; i++) {
+      journal.append(i, deposit("event-" + i));
+    }
+    assertTrue(segmentFiles().size() > 1);
+
+    journal.markDurable(9);
+    for (int i = 10; i < 30; i++) {
+      journal.append(i, deposit("event-" + i));
+    }
+
+    // Segment cũ nhất còn lại phải chứa record chưa bền (sau sequence 9)
+    List<Long> firstSequences = segmentFiles().stream().map(JournalSegment::parseFirstSequence)
+        .collect(Collectors.toList());
+    assertTrue(firstSequences.get(0) <= 10, "Không xóa segment còn record chưa bền");
+    assertTrue(firstSequences.get(1) > 10, "Segment chỉ chứa record đã bền phải bị xóa");
+    assertEquals(firstSequences.size(), journal.getSegmentCount());
+  }
+
+  @Test
+  @DisplayName("Journal tắt thì không tạo file và không replay")
+  void disabled_ShouldDoNothing() throws IOException {
+    Path journalDir = dir.resolve("disabled");
+    InputJournal journal = new InputJournal(false, journalDir, SMALL_SEGMENT, false);
+    journal.open();
+
+    assertFalse(journal.isEnabled());
+    assertEquals(0, journal.replay(-1, event -> fail("Không replay khi tắt")));
+    assertFalse(Files.exists(journalDir));
+  }
+
+  @Test
+  @DisplayName("Codec giữ nguyên dữ liệu của event, kể cả operationType của MerchantEscrowEvent")
+  void createMapper_ShouldRoundTripEvents() throws IOException {
+    TradeEvent trade = new TradeEvent();
+    trade.setEventId("trade-event");
+    trade.setActionType(ActionType.TRADE);
+    trade.setActionId("action-1");
+    trade.setOperationType(OperationType.TRADE_CREATE);
+    trade.setIdentifier("trade-1");
+    trade.setPrice(new BigDecimal("25000.123456789"));
+    trade.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_123L));
+    DisruptorEvent tradeEvent = new DisruptorEvent();
+    tradeEvent.setTradeEvent(trade);
+    tradeEvent.setTimestamp(42);
+
+    MerchantEscrowEvent escrow = new MerchantEscrowEvent();
+    escrow.setEventId("escrow-event");
+    escrow.setActionType(ActionType.MERCHANT_ESCROW);
+    escrow.setActionId("action-2");
+    escrow.setOperationType(OperationType.MERCHANT_ESCROW_MINT);
+    DisruptorEvent escrowEvent = new DisruptorEvent();
+    escrowEvent.setMerchantEscrowEvent(escrow);
+
+    var mapper = InputJournal.createMapper();
+    DisruptorEvent decodedTrade = mapper.readValue(mapper.writeValueAsBytes(tradeEvent), DisruptorEvent.class);
+    DisruptorEvent decodedEscrow = mapper.readValue(mapper.writeValueAsBytes(escrowEvent), DisruptorEvent.class);
+
+    assertEquals(tradeEvent, decodedTrade);
+    assertTrue(decodedTrade.isSuccess());
+    assertEquals(escrow, decodedEscrow.getMerchantEscrowEvent());
+    assertTrue(decodedEscrow.getMerchantEscrowEvent().validateRequiredFields().isEmpty());
+  }
+
+  private InputJournal open() throws IOException {
+    InputJournal journal = new InputJournal(true, dir, SMALL_SEGMENT, false);
+    journal.open();
+    return journal;
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(JournalSegment::isSegmentFile).sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static DisruptorEvent deposit(String eventId) {
+    CoinDepositEvent deposit = new CoinDepositEvent();
+    deposit.setEventId(eventId);
+    deposit.setActionType(ActionType.COIN_TRANSACTION);
+    deposit.setActionId("action-" + eventId);
+    deposit.setOperationType(OperationType.COIN_DEPOSIT_CREATE);
+    deposit.setIdentifier("deposit-" + eventId);
+    deposit.setAccountKey("btc:user1");
+    deposit.setAmount(BigDecimal.ONE);
+    deposit.setCoin("btc");
+    DisruptorEvent event = new DisruptorEvent();
+    event.setCoinDepositEvent(deposit);
+    return event;
+  }
+}
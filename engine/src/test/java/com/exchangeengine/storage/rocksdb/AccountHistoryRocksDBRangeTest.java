@@ -0,0 +1,127 @@
+package com.exchangeengine.storage.rocksdb;
+
+import com.exchangeengine.model.AccountHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test quét history theo key nhị phân trên RocksDB thật.
+ */
+class AccountHistoryRocksDBRangeTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService rocksDBService;
+  private AccountHistoryRocksDB accountHistoryRocksDB;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    rocksDBService = constructor.newInstance();
+    Field dbPath = RocksDBService.class.getDeclaredField("dbPath");
+    dbPath.setAccessible(true);
+    dbPath.set(rocksDBService, tempDir.toString());
+    rocksDBService.initialize();
+
+    RocksDBService.setTestInstance(rocksDBService);
+    AccountHistoryRocksDB.resetInstance();
+    accountHistoryRocksDB = AccountHistoryRocksDB.getInstance();
+
+    // Identifier sắp xếp ngược với thời gian để đảm bảo thứ tự chỉ theo timestamp
+    Map<String, AccountHistory> histories = new HashMap<>();
+    for (int i = 1; i <= 5; i++) {
+      AccountHistory history = new AccountHistory("btc:user1", "tx-" + (10 - i), "coin_deposit_create");
+      history.setTimestamp(i * 1000L);
+      histories.put(history.getKey(), history);
+    }
+    AccountHistory other = new AccountHistory("btc:user10", "tx-other", "coin_deposit_create");
+    other.setTimestamp(3000L);
+    histories.put(other.getKey(), other);
+    accountHistoryRocksDB.saveAccountHistoryBatch(histories);
+  }
+
+  @AfterEach
+  void tearDown() {
+    rocksDBService.close();
+    RocksDBService.resetInstance();
+    AccountHistoryRocksDB.resetInstance();
+  }
+
+  @Test
+  @DisplayName("Trang mới nhất trước, tiếp tục bằng cursor")
+  void getAccountHistoriesByTimeRange_ShouldPageNewestFirst() {
+    List<AccountHistory> firstPage = accountHistoryRocksDB.getAccountHistoriesByTimeRange("btc:user1", 0,
+        Long.MAX_VALUE, null, 2, true);
+    List<AccountHistory> secondPage = accountHistoryRocksDB.getAccountHistoriesByTimeRange("btc:user1", 0,
+        Long.MAX_VALUE, firstPage.get(1).getCursor(), 2, true);
+    List<AccountHistory> lastPage = accountHistoryRocksDB.getAccountHistoriesByTimeRange("btc:user1", 0,
+        Long.MAX_VALUE, secondPage.get(1).getCursor(), 2, true);
+
+    assertEquals(List.of(5000L, 4000L), timestamps(firstPage));
+    assertEquals(List.of(3000L, 2000L), timestamps(secondPage));
+    assertEquals(List.of(1000L), timestamps(lastPage));
+  }
+
+  @Test
+  @DisplayName("Lọc theo khoảng thời gian [fromTime, toTime) theo thứ tự tăng dần")
+  void getAccountHistoriesByTimeRange_ShouldFilterTimeRangeAscending() {
+    List<AccountHistory> histories = accountHistoryRocksDB.getAccountHistoriesByTimeRange("btc:user1", 2000L,
+        4000L, null, 10, false);
+
+    assertEquals(List.of(2000L, 3000L), timestamps(histories));
+    assertTrue(histories.stream().allMatch(history -> "btc:user1".equals(history.getAccountKey())));
+  }
+
+  @Test
+  @DisplayName("getAccountHistoriesByAccountKey trả về mới nhất trước")
+  void getAccountHistoriesByAccountKey_ShouldReturnNewestFirst() {
+    List<AccountHistory> histories = accountHistoryRocksDB.getAccountHistoriesByAccountKey("btc:user1", 3, null);
+
+    assertEquals(List.of(5000L, 4000L, 3000L), timestamps(histories));
+  }
+
+  @Test
+  @DisplayName("migrateLegacyKeys đưa history key chuỗi cũ vào truy vấn theo account, kể cả cùng millisecond")
+  void migrateLegacyKeys_ShouldMakeLegacyHistoryVisible() {
+    for (String identifier : List.of("legacy-a", "legacy-b")) {
+      AccountHistory legacy = new AccountHistory("btc:user1", identifier, "coin_deposit_create");
+      legacy.setTimestamp(500L);
+      legacy.setSequence(0);
+      rocksDBService.saveObject(legacy, rocksDBService.getAccountHistoryCF(), AccountHistory::getKey,
+          "account_history");
+    }
+    assertEquals(5, accountHistoryRocksDB.getAccountHistoriesByAccountKey("btc:user1", 10, null).size());
+
+    assertEquals(2, accountHistoryRocksDB.migrateLegacyKeys());
+    assertEquals(0, accountHistoryRocksDB.migrateLegacyKeys());
+
+    List<AccountHistory> histories = accountHistoryRocksDB.getAccountHistoriesByAccountKey("btc:user1", 10, null);
+    assertEquals(List.of(5000L, 4000L, 3000L, 2000L, 1000L, 500L, 500L), timestamps(histories));
+    assertEquals(8, accountHistoryRocksDB.getAllAccountHistories().size());
+
+    // Cursor của history cũ khớp với key mới
+    List<AccountHistory> lastPage = accountHistoryRocksDB.getAccountHistoriesByAccountKey("btc:user1", 10,
+        histories.get(5).getCursor());
+    assertEquals(1, lastPage.size());
+    assertNotEquals(histories.get(5).getIdentifier(), lastPage.get(0).getIdentifier());
+  }
+
+  private List<Long> timestamps(List<AccountHistory> histories) {
+    return histories.stream().map(AccountHistory::getTimestamp).collect(Collectors.toList());
+  }
+}
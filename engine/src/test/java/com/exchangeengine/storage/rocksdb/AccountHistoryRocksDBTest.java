@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -92,7 +93,7 @@ class AccountHistoryRocksDBTest {
     accountHistoryRocksDB.saveAccountHistory(history);
 
     // Then
-    verify(mockedRocksDBService).saveObject(
+    verify(mockedRocksDBService).saveObjectWithBinaryKey(
         eq(history),
         eq(mockedAccountHistoryCFHandle),
         any(), // không thể so sánh function reference
@@ -147,24 +148,25 @@ class AccountHistoryRocksDBTest {
   void testGetAccountHistoriesByAccountKey() {
     // Given
     String accountKey = "btc:user1";
-    String prefix = AccountHistory.generateAccountPrefix(accountKey);
     int limit = 100;
-    String lastKey = null;
+    String lastKey = "1700000000000-7";
 
     List<AccountHistory> expectedHistories = Arrays.asList(
         createTestHistory(accountKey, "deposit1", "DEPOSIT"),
         createTestHistory(accountKey, "deposit2", "DEPOSIT"),
         createTestHistory(accountKey, "withdrawal1", "WITHDRAWAL"));
 
-    when(mockedRocksDBService.getObjectsByPrefix(
-        eq(prefix),
+    when(mockedRocksDBService.getObjectsInRange(
+        aryEq(AccountHistory.generateBinaryTimeBound(accountKey, 0)),
+        aryEq(AccountHistory.generateBinaryTimeBound(accountKey, Long.MAX_VALUE)),
+        aryEq(AccountHistory.generateBinaryKey(accountKey, 1700000000000L, 7)),
+        eq(true),
         eq(limit),
-        eq(lastKey),
         eq(mockedAccountHistoryCFHandle),
         eq(AccountHistory.class),
         eq("account_history"))).thenReturn(expectedHistories);
 
-    // When
+    // When - mặc định mới nhất trước, lastKey là cursor của trang trước
     List<AccountHistory> resultHistories = accountHistoryRocksDB.getAccountHistoriesByAccountKey(accountKey, limit,
         lastKey);
 
@@ -198,8 +200,8 @@ class AccountHistoryRocksDBTest {
     accountHistoryRocksDB.saveAccountHistoryBatch(histories);
 
     // Then
-    verify(mockedRocksDBService).saveBatch(
-        eq(histories),
+    verify(mockedRocksDBService).saveBinaryKeyBatch(
+        eq(histories.values()),
         eq(mockedAccountHistoryCFHandle),
         any(), // không thể so sánh function reference
         eq("account_histories"));
@@ -0,0 +1,96 @@
+package com.exchangeengine.storage.rocksdb;
+
+import com.exchangeengine.model.Candle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test lưu và đọc nến theo key nhị phân trên RocksDB thật.
+ */
+class CandleRocksDBTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService rocksDBService;
+  private CandleRocksDB candleRocksDB;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    rocksDBService = constructor.newInstance();
+    Field dbPath = RocksDBService.class.getDeclaredField("dbPath");
+    dbPath.setAccessible(true);
+    dbPath.set(rocksDBService, tempDir.toString());
+    rocksDBService.initialize();
+
+    RocksDBService.setTestInstance(rocksDBService);
+    CandleRocksDB.resetInstance();
+    candleRocksDB = CandleRocksDB.getInstance();
+
+    // Market có tên là prefix của market khác và interval khác không được lẫn vào
+    List<Candle> candles = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      candles.add(candle("amm:BTC-USDT", "1m", i * 60_000L, "100"));
+    }
+    candles.add(candle("amm:BTC-USDT2", "1m", 60_000L, "1"));
+    candles.add(candle("amm:BTC-USDT", "1h", 0L, "1"));
+    candleRocksDB.saveCandleBatch(candles);
+  }
+
+  @AfterEach
+  void tearDown() {
+    rocksDBService.close();
+    RocksDBService.resetInstance();
+    CandleRocksDB.resetInstance();
+  }
+
+  @Test
+  @DisplayName("getCandles trả về nến trong [fromTime, toTime) theo thứ tự thời gian")
+  void getCandles_ShouldReturnRangeInTimeOrder() {
+    List<Candle> candles = candleRocksDB.getCandles("amm:BTC-USDT", "1m", 60_000L, 240_000L, 10);
+
+    assertEquals(List.of(60_000L, 120_000L, 180_000L), openTimes(candles));
+    assertTrue(candles.stream().allMatch(candle -> "amm:BTC-USDT".equals(candle.getMarket())));
+    assertEquals(2, candleRocksDB.getCandles("amm:BTC-USDT", "1m", 0L, Long.MAX_VALUE, 2).size());
+    assertEquals(1, candleRocksDB.getCandles("amm:BTC-USDT", "1h", 0L, Long.MAX_VALUE, 10).size());
+  }
+
+  @Test
+  @DisplayName("Lưu lại nến cùng openTime ghi đè bản cũ")
+  void saveCandleBatch_ShouldOverwriteSameOpenTime() {
+    candleRocksDB.saveCandleBatch(List.of(candle("amm:BTC-USDT", "1m", 60_000L, "105")));
+
+    List<Candle> candles = candleRocksDB.getCandles("amm:BTC-USDT", "1m", 60_000L, 120_000L, 10);
+
+    assertEquals(1, candles.size());
+    assertEquals(0, new BigDecimal("105").compareTo(candles.get(0).getClose()));
+  }
+
+  private Candle candle(String market, String interval, long openTime, String close) {
+    Candle candle = new Candle();
+    candle.setMarket(market);
+    candle.setInterval(interval);
+    candle.setOpenTime(openTime);
+    candle.setClose(new BigDecimal(close));
+    return candle;
+  }
+
+  private List<Long> openTimes(List<Candle> candles) {
+    return candles.stream().map(Candle::getOpenTime).collect(Collectors.toList());
+  }
+}
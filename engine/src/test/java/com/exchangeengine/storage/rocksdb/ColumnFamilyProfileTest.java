@@ -0,0 +1,57 @@
+package com.exchangeengine.storage.rocksdb;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.exchangeengine.util.EnvManager;
+
+@ExtendWith(MockitoExtension.class)
+class ColumnFamilyProfileTest {
+
+  @Mock
+  private EnvManager mockEnvManager;
+
+  @Test
+  @DisplayName("Profile mặc định phải theo kiểu truy cập của từng column family")
+  void defaultFor_ShouldMapColumnFamiliesToProfiles() {
+    assertEquals(ColumnFamilyProfile.POINT_LOOKUP, ColumnFamilyProfile.defaultFor(RocksDBConfig.ACCOUNT_CF));
+    assertEquals(ColumnFamilyProfile.POINT_LOOKUP, ColumnFamilyProfile.defaultFor(RocksDBConfig.TICK_CF));
+    assertEquals(ColumnFamilyProfile.POINT_LOOKUP, ColumnFamilyProfile.defaultFor(RocksDBConfig.AMM_POOL_CF));
+    assertEquals(ColumnFamilyProfile.PREFIX_SCAN, ColumnFamilyProfile.defaultFor(RocksDBConfig.ACCOUNT_HISTORIES_CF));
+    assertEquals(ColumnFamilyProfile.TIME_SERIES, ColumnFamilyProfile.defaultFor(RocksDBConfig.TRADE_CF));
+    assertEquals(ColumnFamilyProfile.TIME_SERIES, ColumnFamilyProfile.defaultFor(RocksDBConfig.CANDLE_CF));
+    assertEquals(ColumnFamilyProfile.HOT_SMALL, ColumnFamilyProfile.defaultFor(RocksDBConfig.TICK_BITMAP_CF));
+    assertEquals(ColumnFamilyProfile.STANDARD, ColumnFamilyProfile.defaultFor(RocksDBConfig.DEPOSIT_CF));
+    assertEquals(ColumnFamilyProfile.COLD, ColumnFamilyProfile.defaultFor(RocksDBConfig.DEPOSIT_ARCHIVE_CF));
+    assertEquals(ColumnFamilyProfile.COLD, ColumnFamilyProfile.defaultFor(RocksDBConfig.TRADE_ARCHIVE_CF));
+  }
+
+  @Test
+  @DisplayName("fromName phải không phân biệt hoa thường và trả về fallback khi tên sai")
+  void fromName_ShouldParseOrFallback() {
+    assertEquals(ColumnFamilyProfile.HOT_SMALL, ColumnFamilyProfile.fromName(" hot_small ", null));
+    assertEquals(ColumnFamilyProfile.STANDARD, ColumnFamilyProfile.fromName("unknown", ColumnFamilyProfile.STANDARD));
+    assertEquals(ColumnFamilyProfile.STANDARD, ColumnFamilyProfile.fromName("", ColumnFamilyProfile.STANDARD));
+    assertEquals(ColumnFamilyProfile.STANDARD, ColumnFamilyProfile.fromName(null, ColumnFamilyProfile.STANDARD));
+  }
+
+  @Test
+  @DisplayName("forColumnFamily phải ưu tiên ROCKSDB_CF_PROFILE_<CF>")
+  void forColumnFamily_ShouldUseEnvOverride() {
+    when(mockEnvManager.get(eq("ROCKSDB_CF_PROFILE_DEPOSITS"), anyString())).thenReturn("point_lookup");
+    when(mockEnvManager.get(eq("ROCKSDB_CF_PROFILE_TRADES"), anyString()))
+        .thenAnswer(invocation -> invocation.getArgument(1));
+
+    assertEquals(ColumnFamilyProfile.POINT_LOOKUP,
+        ColumnFamilyProfile.forColumnFamily(mockEnvManager, RocksDBConfig.DEPOSIT_CF));
+    assertEquals(ColumnFamilyProfile.TIME_SERIES,
+        ColumnFamilyProfile.forColumnFamily(mockEnvManager, RocksDBConfig.TRADE_CF));
+  }
+}
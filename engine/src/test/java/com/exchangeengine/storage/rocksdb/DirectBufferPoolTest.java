@@ -0,0 +1,44 @@
+package com.exchangeengine.storage.rocksdb;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DirectBufferPoolTest {
+
+  @Test
+  @DisplayName("acquire() phải dùng lại buffer đã trả về pool")
+  void acquire_ShouldReuseReleasedBuffer() {
+    DirectBufferPool pool = new DirectBufferPool(128, 2);
+
+    ByteBuffer buffer = pool.acquire(0);
+    buffer.put((byte) 1);
+    pool.release(buffer);
+
+    ByteBuffer reused = pool.acquire(64);
+    assertSame(buffer, reused);
+    assertTrue(reused.isDirect());
+    assertEquals(0, reused.position(), "Buffer lấy ra phải rỗng");
+    assertEquals(0, pool.pooledCount());
+  }
+
+  @Test
+  @DisplayName("release() chỉ giữ tối đa maxPooled buffer đúng kích thước")
+  void release_ShouldKeepAtMostMaxPooledBuffers() {
+    DirectBufferPool pool = new DirectBufferPool(128, 2);
+
+    ByteBuffer large = pool.acquire(1024);
+    assertEquals(1024, large.capacity());
+    pool.release(large);
+    pool.release(ByteBuffer.allocate(128));
+    assertEquals(0, pool.pooledCount());
+
+    pool.release(pool.acquire(0));
+    pool.release(ByteBuffer.allocateDirect(128));
+    pool.release(ByteBuffer.allocateDirect(128));
+    assertEquals(2, pool.pooledCount());
+  }
+}
@@ -0,0 +1,96 @@
+package com.exchangeengine.storage.rocksdb;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.WriteBatch;
+
+import com.exchangeengine.model.Account;
+import com.exchangeengine.util.JsonSerializer;
+
+class EncodedChunkTest {
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  @Test
+  @DisplayName("put() phải ghi đúng key UTF-8 và value JSON của từng bản ghi")
+  void put_ShouldWriteEachEntry() throws Exception {
+    DirectBufferPool pool = new DirectBufferPool(1024, 2);
+    EncodedChunk chunk = new EncodedChunk(pool);
+    Account ascii = new Account("btc:user1");
+    Account unicode = new Account("tài_khoản");
+
+    chunk.append(ascii.getKey(), ascii);
+    chunk.append(unicode.getKey(), unicode);
+    chunk.append(new byte[] { 0, 1, (byte) 0xFF }, ascii);
+
+    long bytes = 0;
+    try (WriteBatch batch = new WriteBatch()) {
+      ColumnFamilyHandle cf = mock(ColumnFamilyHandle.class);
+      for (int i = 0; i < chunk.size(); i++) {
+        bytes += chunk.put(batch, cf, i);
+      }
+
+      assertEquals(3, batch.count());
+      String content = new String(batch.data(), StandardCharsets.UTF_8);
+      assertTrue(content.contains("btc:user1"));
+      assertTrue(content.contains("tài_khoản"), "Key không phải ASCII phải được mã hóa UTF-8");
+      assertTrue(content.contains(new String(JsonSerializer.serialize(ascii), StandardCharsets.UTF_8)));
+      assertTrue(content.contains(new String(JsonSerializer.serialize(unicode), StandardCharsets.UTF_8)));
+    }
+
+    assertEquals(3, chunk.size());
+    assertEquals(chunk.bytes(), bytes);
+
+    chunk.release();
+    assertEquals(1, pool.pooledCount());
+  }
+
+  @Test
+  @DisplayName("Bản ghi lớn hơn buffer phải được chuyển sang buffer lớn hơn")
+  void append_ShouldGrowBuffer() throws Exception {
+    DirectBufferPool pool = new DirectBufferPool(64, 2);
+    EncodedChunk chunk = new EncodedChunk(pool);
+    Account account = new Account("a".repeat(100));
+
+    chunk.append(account.getKey(), account);
+
+    assertEquals(1, chunk.size());
+    assertTrue(chunk.bytes() > 64);
+    assertEquals(1, pool.pooledCount(), "Buffer ban đầu phải được trả về pool");
+    chunk.release();
+    assertEquals(1, pool.pooledCount(), "Buffer lớn không được trả về pool");
+  }
+
+  @Test
+  @DisplayName("Serialize lỗi phải trả buffer về trạng thái trước khi thêm")
+  void append_ShouldRollBackOnSerializationError() {
+    EncodedChunk chunk = new EncodedChunk(new DirectBufferPool(1024, 2));
+    Account good = new Account("good");
+    Account bad = new Account("bad");
+    chunk.append(good.getKey(), good);
+    int bytes = chunk.bytes();
+
+    try (MockedStatic<JsonSerializer> mockedJsonSerializer = Mockito.mockStatic(JsonSerializer.class)) {
+      mockedJsonSerializer.when(() -> JsonSerializer.serialize(eq(bad), any(OutputStream.class)))
+          .thenThrow(new RuntimeException("Serialize error"));
+
+      assertThrows(RuntimeException.class, () -> chunk.append(bad.getKey(), bad));
+    }
+
+    assertEquals(1, chunk.size());
+    assertEquals(bytes, chunk.bytes());
+  }
+}
@@ -25,6 +25,7 @@ class RocksDBConfigTest {
     assertEquals("balance_locks", RocksDBConfig.BALANCE_LOCK_CF);
     assertEquals("kafka_group_state", RocksDBConfig.KAFKA_GROUP_STATE_CF);
     assertEquals("settings", RocksDBConfig.SETTINGS_CF);
+    assertEquals("candles", RocksDBConfig.CANDLE_CF);
     // Test column family index constants
     assertEquals(0, RocksDBConfig.DEFAULT_CF_INDEX);
     assertEquals(1, RocksDBConfig.ACCOUNT_CF_INDEX);
@@ -42,6 +43,12 @@ class RocksDBConfigTest {
     assertEquals(13, RocksDBConfig.BALANCE_LOCK_CF_INDEX);
     assertEquals(14, RocksDBConfig.KAFKA_GROUP_STATE_CF_INDEX);
     assertEquals(15, RocksDBConfig.SETTINGS_CF_INDEX);
+    assertEquals(16, RocksDBConfig.CANDLE_CF_INDEX);
+    assertEquals(17, RocksDBConfig.DEPOSIT_ARCHIVE_CF_INDEX);
+    assertEquals(18, RocksDBConfig.WITHDRAWAL_ARCHIVE_CF_INDEX);
+    assertEquals(19, RocksDBConfig.AMM_POSITION_ARCHIVE_CF_INDEX);
+    assertEquals(20, RocksDBConfig.TRADE_ARCHIVE_CF_INDEX);
+    assertEquals(21, RocksDBConfig.BALANCE_LOCK_ARCHIVE_CF_INDEX);
     // Test batch size constants
     assertEquals(10000, RocksDBConfig.DEFAULT_MAX_RECORDS_PER_BATCH);
     assertEquals(50 * 1024 * 1024, RocksDBConfig.DEFAULT_MAX_BATCH_SIZE_BYTES); // 50MB
@@ -55,8 +62,12 @@ class RocksDBConfigTest {
 
     // Test history cache configuration constants
     assertEquals(8, RocksDBConfig.ACCOUNT_HISTORY_PREFIX_SIZE);
-    assertEquals(8, RocksDBConfig.BLOOM_FILTER_BITS_PER_KEY);
-    assertEquals(32, RocksDBConfig.BLOCK_CACHE_SIZE_MB);
+
+    // Test shared tuning defaults
+    assertEquals(256, RocksDBConfig.DEFAULT_BLOCK_CACHE_SIZE_MB);
+    assertEquals(256, RocksDBConfig.DEFAULT_WRITE_BUFFER_MANAGER_SIZE_MB);
+    assertEquals(64, RocksDBConfig.DEFAULT_RATE_LIMIT_MB_PER_SEC);
+    assertEquals(10, RocksDBConfig.DEFAULT_BLOOM_FILTER_BITS_PER_KEY);
   }
 
   @Test
@@ -95,28 +106,6 @@ class RocksDBConfigTest {
     options.close();
   }
 
-  @Test
-  void testCreateHistoryColumnFamilyOptions() {
-    // Arrange
-    long writeBufferSize = 128 * 1024 * 1024; // 128MB
-    int maxWriteBufferNumber = 5;
-    long targetFileSizeBase = 256 * 1024 * 1024; // 256MB
-
-    // Act
-    ColumnFamilyOptions options = RocksDBConfig.createHistoryColumnFamilyOptions(
-        writeBufferSize, maxWriteBufferNumber, targetFileSizeBase);
-
-    // Assert
-    assertNotNull(options);
-    assertEquals(writeBufferSize, options.writeBufferSize());
-    assertEquals(maxWriteBufferNumber, options.maxWriteBufferNumber());
-    assertEquals(targetFileSizeBase, options.targetFileSizeBase());
-    assertTrue(options.optimizeFiltersForHits());
-
-    // Clean up to avoid resource leak
-    options.close();
-  }
-
   @Test
   void testCreateWriteOptions() {
     // Act
@@ -151,5 +140,9 @@ class RocksDBConfigTest {
     assertTrue(RocksDBConfig.getWriteBufferSize() > 0);
     assertTrue(RocksDBConfig.getMaxWriteBufferNumber() > 0);
     assertTrue(RocksDBConfig.getTargetFileSizeBase() > 0);
+    assertTrue(RocksDBConfig.getBlockCacheSizeMb() > 0);
+    assertTrue(RocksDBConfig.getBloomFilterBitsPerKey() > 0);
+    assertEquals(ColumnFamilyProfile.PREFIX_SCAN,
+        RocksDBConfig.getColumnFamilyProfile(RocksDBConfig.ACCOUNT_HISTORIES_CF));
   }
 }
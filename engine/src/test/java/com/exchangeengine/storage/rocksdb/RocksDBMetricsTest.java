@@ -0,0 +1,175 @@
+package com.exchangeengine.storage.rocksdb;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.rocksdb.WriteStallCondition;
+import org.rocksdb.WriteStallInfo;
+
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+
+class RocksDBMetricsTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService service;
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    RocksDBService.resetInstance();
+    ReadSnapshotCache.resetInstance();
+  }
+
+  @Test
+  @DisplayName("collect() phải đọc property của từng column family và ticker của Statistics")
+  void collect_ShouldReportColumnFamilyPropertiesAndStatistics() throws Exception {
+    service = createService(tempDir.resolve("db").toString());
+    service.initialize();
+    byte[] value = new byte[1024];
+    for (int i = 0; i < 100; i++) {
+      service.getDb().put(service.getAccountCF(), ("btc:user" + i).getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    RocksDBMetrics metrics = new RocksDBMetrics(service, 1000, 64 * MB);
+    Map<String, Object> result = metrics.collect();
+
+    for (String cf : service.getColumnFamilies().keySet()) {
+      assertTrue(result.containsKey("cf." + cf + ".pendingCompactionBytes"), cf);
+      assertTrue(result.containsKey("cf." + cf + ".sstBytes"), cf);
+    }
+    assertTrue((Long) result.get("cf." + RocksDBConfig.ACCOUNT_CF + ".memtableBytes") > 0);
+    assertEquals(0L, result.get("db.writeStopped"));
+    assertEquals(0L, result.get("db.delayedWriteRate"));
+    assertTrue((Long) result.get("db.blockCacheUsage") > 0, "Memtable được tính vào block cache dùng chung");
+    assertTrue((Long) result.get("stats.bytesWritten") > 0);
+    assertEquals(false, result.get("stall.active"));
+    assertEquals(0L, result.get("alerts.writeStall"));
+    assertEquals(result, metrics.getMetrics());
+  }
+
+  @Test
+  @DisplayName("Stall micros tăng giữa hai lần thu thập phải tạo cảnh báo write stall")
+  void collect_ShouldAlertWhenStallMicrosIncrease() throws Exception {
+    RocksDBService mockService = mock(RocksDBService.class);
+    RocksDB db = mock(RocksDB.class);
+    Statistics statistics = mock(Statistics.class);
+    when(mockService.getDb()).thenReturn(db);
+    when(mockService.getColumnFamilies()).thenReturn(Collections.emptyMap());
+    when(mockService.getStatistics()).thenReturn(statistics);
+    when(statistics.getTickerCount(TickerType.STALL_MICROS)).thenReturn(0L, 0L, 5000L);
+
+    RocksDBMetrics metrics = new RocksDBMetrics(mockService, 1000, 0);
+
+    metrics.collect();
+    metrics.collect();
+    assertEquals(0, metrics.getWriteStallAlerts());
+
+    Map<String, Object> result = metrics.collect();
+    assertEquals(1, metrics.getWriteStallAlerts());
+    assertEquals(5000L, result.get("stats.stallMicros"));
+    assertEquals(1L, result.get("alerts.writeStall"));
+  }
+
+  @Test
+  @DisplayName("Dừng ghi hoặc tổng byte chờ compaction vượt ngưỡng phải tạo cảnh báo")
+  void collect_ShouldAlertOnStoppedWritesAndCompactionDebt() throws Exception {
+    RocksDBService mockService = mock(RocksDBService.class);
+    RocksDB db = mock(RocksDB.class);
+    ColumnFamilyHandle cf = mock(ColumnFamilyHandle.class);
+    when(mockService.getDb()).thenReturn(db);
+    when(mockService.getColumnFamilies()).thenReturn(Collections.singletonMap(RocksDBConfig.TRADE_CF, cf));
+    when(db.getLongProperty(eq(cf), anyString())).thenReturn(0L);
+    when(db.getLongProperty(cf, RocksDBMetrics.PENDING_COMPACTION_BYTES)).thenReturn(2 * MB);
+    when(db.getLongProperty(anyString())).thenReturn(0L);
+    when(db.getLongProperty(RocksDBMetrics.IS_WRITE_STOPPED)).thenReturn(1L);
+
+    RocksDBMetrics metrics = new RocksDBMetrics(mockService, 1000, MB);
+    Map<String, Object> result = metrics.collect();
+
+    assertEquals(2 * MB, result.get("cf." + RocksDBConfig.TRADE_CF + ".pendingCompactionBytes"));
+    assertEquals(2 * MB, result.get("db.pendingCompactionBytes"));
+    assertEquals(1, metrics.getWriteStallAlerts());
+    assertEquals(1, metrics.getCompactionDebtAlerts());
+    assertFalse(result.containsKey("stats.stallMicros"), "Không có Statistics thì không có ticker");
+  }
+
+  @Test
+  @DisplayName("WriteStallListener phải theo dõi trạng thái stall của từng column family")
+  void writeStallListener_ShouldTrackConditions() {
+    try (WriteStallListener listener = new WriteStallListener()) {
+      listener.onStallConditionsChanged(stallInfo(RocksDBConfig.TRADE_CF, WriteStallCondition.DELAYED,
+          WriteStallCondition.NORMAL));
+      listener.onStallConditionsChanged(stallInfo(RocksDBConfig.ACCOUNT_CF, WriteStallCondition.STOPPED,
+          WriteStallCondition.NORMAL));
+      assertTrue(listener.isStalled());
+      assertEquals(1, listener.getDelayedEvents());
+      assertEquals(1, listener.getStoppedEvents());
+      assertEquals(WriteStallCondition.STOPPED, listener.getConditions().get(RocksDBConfig.ACCOUNT_CF));
+
+      listener.onStallConditionsChanged(stallInfo(RocksDBConfig.TRADE_CF, WriteStallCondition.NORMAL,
+          WriteStallCondition.DELAYED));
+      listener.onStallConditionsChanged(stallInfo(RocksDBConfig.ACCOUNT_CF, WriteStallCondition.NORMAL,
+          WriteStallCondition.STOPPED));
+      assertFalse(listener.isStalled());
+    }
+  }
+
+  @Test
+  @DisplayName("start() và shutdown() có thể gọi nhiều lần")
+  void startAndShutdown_ShouldBeIdempotent() {
+    RocksDBService mockService = mock(RocksDBService.class);
+    RocksDBMetrics metrics = new RocksDBMetrics(mockService, 60000, 0);
+
+    metrics.start();
+    metrics.start();
+    metrics.shutdown();
+    metrics.shutdown();
+
+    verify(mockService, never()).getDb();
+  }
+
+  private static WriteStallInfo stallInfo(String columnFamily, WriteStallCondition current,
+      WriteStallCondition previous) {
+    WriteStallInfo info = mock(WriteStallInfo.class);
+    when(info.getColumnFamilyName()).thenReturn(columnFamily);
+    when(info.getCurrentCondition()).thenReturn(current);
+    when(info.getPreviousCondition()).thenReturn(previous);
+    return info;
+  }
+
+  private static RocksDBService createService(String dbPath) throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    RocksDBService service = constructor.newInstance();
+    Field field = RocksDBService.class.getDeclaredField("dbPath");
+    field.setAccessible(true);
+    field.set(service, dbPath);
+    return service;
+  }
+}
@@ -17,6 +17,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -275,8 +276,8 @@ class RocksDBServiceExtendedTest {
 
     @Test
     @Order(7)
-    @DisplayName("Test prepareDataPair() với keyExtractor trả về null")
-    void prepareDataPair_ShouldHandleNullKeyFromExtractor() throws Exception {
+    @DisplayName("Test saveBatch() với keyExtractor trả về null")
+    void saveBatch_ShouldSkipNullKeyFromExtractor() throws Exception {
         // Arrange
         setupMockedRocksDBService();
 
@@ -286,17 +287,11 @@ class RocksDBServiceExtendedTest {
 
         Account account = new Account("test");
 
-        // Lấy phương thức prepareDataPair thông qua reflection
-        Method prepareDataPairMethod = RocksDBService.class.getDeclaredMethod("prepareDataPair", Object.class,
-                KeyExtractor.class);
-        prepareDataPairMethod.setAccessible(true);
-
         // Act
-        Pair<byte[], byte[]> result = (Pair<byte[], byte[]>) prepareDataPairMethod.invoke(rocksDBService, account,
-                keyExtractor);
+        rocksDBService.saveBatch(Map.of("test", account), mockOfferCF, keyExtractor, "test_batch");
 
         // Assert
-        assertNull(result);
+        verify(mockDB, never()).write(any(WriteOptions.class), any(WriteBatch.class));
         verify(keyExtractor, atLeastOnce()).getKey(eq(account));
     }
 
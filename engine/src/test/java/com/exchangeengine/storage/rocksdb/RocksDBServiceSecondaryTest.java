@@ -0,0 +1,127 @@
+package com.exchangeengine.storage.rocksdb;
+
+import com.exchangeengine.model.Account;
+import com.exchangeengine.storage.cache.ReadSnapshotCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.RocksDBException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test RocksDBService khi mở dưới dạng secondary instance (query replica).
+ */
+class RocksDBServiceSecondaryTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService primary;
+  private RocksDBService secondary;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    String dbPath = tempDir.resolve("primary").toString();
+    primary = createService(dbPath, null);
+    primary.initialize();
+    secondary = createService(dbPath, tempDir.resolve("secondary").toString());
+    secondary.initialize();
+  }
+
+  @AfterEach
+  void tearDown() {
+    secondary.close();
+    primary.close();
+    RocksDBService.resetInstance();
+    AccountRocksDB.resetInstance();
+    ReadSnapshotCache.resetInstance();
+  }
+
+  @Test
+  @DisplayName("Secondary chỉ thấy dữ liệu mới sau khi catch up với primary")
+  void tryCatchUpWithPrimary_ShouldExposeNewWrites() throws Exception {
+    // Given
+    assertTrue(secondary.isSecondary());
+    assertFalse(primary.isSecondary());
+    saveAccount(primary, "btc:user1", "10");
+
+    // When - chưa catch up
+    assertFalse(readAccount(secondary, "btc:user1").isPresent());
+    secondary.tryCatchUpWithPrimary();
+
+    // Then
+    assertEquals(0, new BigDecimal("10").compareTo(readAccount(secondary, "btc:user1").get().getAvailableBalance()));
+  }
+
+  @Test
+  @DisplayName("Secondary không cho phép ghi")
+  void secondary_ShouldRejectWrites() {
+    assertThrows(RocksDBException.class, () -> secondary.getDb().put(secondary.getAccountCF(),
+        "btc:user1".getBytes(StandardCharsets.UTF_8), "{}".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("ReadSnapshotCache ở replica mode đọc account từ secondary sau mỗi lần catch up")
+  void readSnapshotCache_ShouldReadFromSecondary_InReplicaMode() {
+    // Given
+    saveAccount(primary, "btc:user1", "10");
+    RocksDBService.setTestInstance(secondary);
+    AccountRocksDB.resetInstance();
+    ReadSnapshotCache cache = ReadSnapshotCache.getInstance();
+    cache.enableReplicaMode();
+    cache.catchUpWithPrimary();
+    long epoch = cache.getEpoch();
+
+    assertTrue(cache.isReplicaMode());
+    assertEquals(0, new BigDecimal("10").compareTo(cache.getAccount("btc:user1").get().getAvailableBalance()));
+
+    // When
+    saveAccount(primary, "btc:user1", "4");
+    RocksDBService.setTestInstance(secondary);
+    AccountRocksDB.resetInstance();
+    cache.catchUpWithPrimary();
+
+    // Then
+    assertEquals(0, new BigDecimal("4").compareTo(cache.getAccount("btc:user1").get().getAvailableBalance()));
+    assertEquals(epoch + 1, cache.getEpoch());
+  }
+
+  private void saveAccount(RocksDBService service, String key, String balance) {
+    RocksDBService.setTestInstance(service);
+    AccountRocksDB.resetInstance();
+    Account account = new Account(key);
+    account.setAvailableBalance(new BigDecimal(balance));
+    AccountRocksDB.getInstance().saveAccount(account);
+  }
+
+  private Optional<Account> readAccount(RocksDBService service, String key) {
+    RocksDBService.setTestInstance(service);
+    AccountRocksDB.resetInstance();
+    return AccountRocksDB.getInstance().getAccount(key);
+  }
+
+  private static RocksDBService createService(String dbPath, String secondaryPath) throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    RocksDBService service = constructor.newInstance();
+    setField(service, "dbPath", dbPath);
+    setField(service, "secondaryPath", secondaryPath);
+    return service;
+  }
+
+  private static void setField(RocksDBService service, String name, Object value) throws Exception {
+    Field field = RocksDBService.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(service, value);
+  }
+}
@@ -2,6 +2,7 @@ package com.exchangeengine.storage.rocksdb;
 
 import com.exchangeengine.extension.RocksDBTestExtension;
 import com.exchangeengine.model.Account;
+import com.exchangeengine.storage.cache.WriteBehindBuffer;
 import com.exchangeengine.util.EnvManager;
 import com.exchangeengine.util.JsonSerializer;
 import org.junit.jupiter.api.*;
@@ -14,18 +15,23 @@ import org.rocksdb.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -85,6 +91,9 @@ class RocksDBServiceTest {
   @Mock
   private ColumnFamilyHandle mockSettingsCF;
 
+  @Mock
+  private ColumnFamilyHandle mockCandleCF;
+
   @Mock
   private WriteOptions mockWriteOptions;
 
@@ -268,6 +277,10 @@ class RocksDBServiceTest {
     settingsCFField.setAccessible(true);
     settingsCFField.set(rocksDBService, mockSettingsCF);
 
+    Field candleCFField = RocksDBService.class.getDeclaredField("candleCF");
+    candleCFField.setAccessible(true);
+    candleCFField.set(rocksDBService, mockCandleCF);
+
     Field writeOptionsField = RocksDBService.class.getDeclaredField("writeOptions");
     writeOptionsField.setAccessible(true);
     writeOptionsField.set(rocksDBService, mockWriteOptions);
@@ -417,6 +430,7 @@ class RocksDBServiceTest {
     assertSame(mockKafkaGroupStateCF, rocksDBService.getKafkaGroupStateCF(),
         "getKafkaGroupStateCF() phải trả về kafkaGroupStateCF field");
     assertSame(mockSettingsCF, rocksDBService.getSettingsCF(), "getSettingsCF() phải trả về settingsCF field");
+    assertSame(mockCandleCF, rocksDBService.getCandleCF(), "getCandleCF() phải trả về candleCF field");
     assertSame(mockWriteOptions, rocksDBService.getWriteOptions(), "getWriteOptions() phải trả về writeOptions field");
   }
 
@@ -611,7 +625,8 @@ class RocksDBServiceTest {
     assertTrue(result2.isEmpty(), "Kết quả phải là empty Optional khi key là rỗng");
 
     // Xác minh rằng db.get không được gọi
-    verify(mockDB, never()).get(any(ColumnFamilyHandle.class), any(byte[].class));
+    verify(mockDB, never()).get(any(ColumnFamilyHandle.class), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class));
   }
 
   @Test
@@ -621,8 +636,9 @@ class RocksDBServiceTest {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Cấu hình mockDB để trả về null khi gọi get (dữ liệu không tồn tại)
-    when(mockDB.get(any(ColumnFamilyHandle.class), any(byte[].class))).thenReturn(null);
+    // Cấu hình mockDB để trả về NOT_FOUND khi gọi get (dữ liệu không tồn tại)
+    when(mockDB.get(any(ColumnFamilyHandle.class), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class))).thenReturn(RocksDB.NOT_FOUND);
 
     // Gọi getObject
     Optional<Account> result = rocksDBService.getObject("test_key", mockAccountCF, Account.class, "test");
@@ -631,7 +647,8 @@ class RocksDBServiceTest {
     assertTrue(result.isEmpty(), "Kết quả phải là empty Optional khi dữ liệu không tồn tại");
 
     // Xác minh rằng db.get đã được gọi một lần
-    verify(mockDB, times(1)).get(eq(mockAccountCF), any(byte[].class));
+    verify(mockDB, times(1)).get(eq(mockAccountCF), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class));
   }
 
   @Test
@@ -646,12 +663,21 @@ class RocksDBServiceTest {
     testAccount.setAvailableBalance(new BigDecimal("100.0"));
     byte[] serializedData = new byte[] { 1, 2, 3 };
 
-    // Cấu hình mockDB để trả về dữ liệu khi gọi get
-    when(mockDB.get(any(ColumnFamilyHandle.class), any(byte[].class))).thenReturn(serializedData);
+    // Cấu hình mockDB để ghi dữ liệu vào value buffer khi gọi get
+    when(mockDB.get(any(ColumnFamilyHandle.class), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class))).thenAnswer(invocation -> {
+          ByteBuffer key = invocation.getArgument(2);
+          byte[] keyBytes = new byte[key.remaining()];
+          key.get(keyBytes);
+          assertEquals("test_key", new String(keyBytes, StandardCharsets.UTF_8));
+          invocation.<ByteBuffer>getArgument(3).put(serializedData);
+          return serializedData.length;
+        });
 
     // Cấu hình JsonSerializer.deserialize để trả về đối tượng testAccount
     try (MockedStatic<JsonSerializer> mockedJsonSerializer = Mockito.mockStatic(JsonSerializer.class)) {
-      mockedJsonSerializer.when(() -> JsonSerializer.deserialize(eq(serializedData), eq(Account.class)))
+      mockedJsonSerializer.when(() -> JsonSerializer.deserialize(
+          argThat((ByteBuffer value) -> value.remaining() == serializedData.length), eq(Account.class)))
           .thenReturn(testAccount);
 
       // Gọi getObject
@@ -662,9 +688,11 @@ class RocksDBServiceTest {
       assertEquals(testAccount, result.get(), "Dữ liệu trả về phải khớp với dữ liệu mong đợi");
 
       // Xác minh rằng db.get và JsonSerializer.deserialize đã được gọi
-      verify(mockDB, times(1)).get(eq(mockAccountCF), any(byte[].class));
+      verify(mockDB, times(1)).get(eq(mockAccountCF), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class));
       mockedJsonSerializer.verify(
-          () -> JsonSerializer.deserialize(eq(serializedData), eq(Account.class)),
+          () -> JsonSerializer.deserialize(
+          argThat((ByteBuffer value) -> value.remaining() == serializedData.length), eq(Account.class)),
           times(1));
     }
   }
@@ -677,8 +705,8 @@ class RocksDBServiceTest {
     setupMockedRocksDBService();
 
     // Cấu hình mockDB để ném RocksDBException khi gọi get
-    when(mockDB.get(any(ColumnFamilyHandle.class), any(byte[].class)))
-        .thenThrow(new RocksDBException("Test exception"));
+    when(mockDB.get(any(ColumnFamilyHandle.class), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class))).thenThrow(new RocksDBException("Test exception"));
 
     // Gọi getObject và kiểm tra rằng RuntimeException được ném ra
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -692,7 +720,8 @@ class RocksDBServiceTest {
         "Nguyên nhân lỗi phải là RocksDBException");
 
     // Xác minh rằng db.get đã được gọi một lần
-    verify(mockDB, times(1)).get(eq(mockAccountCF), any(byte[].class));
+    verify(mockDB, times(1)).get(eq(mockAccountCF), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class));
   }
 
   @Test
@@ -838,9 +867,12 @@ class RocksDBServiceTest {
       mockedConfig.when(() -> RocksDBConfig.createDBOptions(anyInt())).thenCallRealMethod();
       mockedConfig.when(() -> RocksDBConfig.createStandardColumnFamilyOptions(anyLong(), anyInt(), anyLong()))
           .thenCallRealMethod();
-      mockedConfig.when(() -> RocksDBConfig.createHistoryColumnFamilyOptions(anyLong(), anyInt(), anyLong()))
-          .thenCallRealMethod();
+      mockedConfig.when(() -> RocksDBConfig.getColumnFamilyProfile(anyString()))
+          .thenAnswer(invocation -> ColumnFamilyProfile.defaultFor(invocation.getArgument(0)));
+      mockedConfig.when(RocksDBConfig::getBlockCacheSizeMb).thenReturn(8);
+      mockedConfig.when(RocksDBConfig::getBloomFilterBitsPerKey).thenReturn(10);
       mockedConfig.when(RocksDBConfig::createWriteOptions).thenCallRealMethod();
+      mockedConfig.when(RocksDBConfig::getSerializationThreads).thenReturn(1);
 
       // Reset instance để áp dụng đường dẫn mới
       RocksDBService.resetInstance();
@@ -961,147 +993,125 @@ class RocksDBServiceTest {
 
   @Test
   @Order(22)
-  @DisplayName("estimateItemSize() phải ước tính kích thước trung bình của một item")
-  void estimateItemSize_ShouldEstimateAverageItemSize() throws Exception {
+  @DisplayName("saveBatch() phải ghi key UTF-8 và value JSON vào WriteBatch")
+  void saveBatch_ShouldWriteUtf8KeyAndJsonValue() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test
-    Map<String, Account> data = new HashMap<>();
-    Account account = new Account("test_account");
-    account.setAvailableBalance(new BigDecimal("100.0"));
-    data.put("test_account", account);
-
-    // Mock KeyExtractor
-    KeyExtractor<Account> keyExtractor = mock(KeyExtractor.class);
-    when(keyExtractor.getKey(account)).thenReturn("test_account");
-
-    // Mock JsonSerializer để trả về byte[] giả
-    byte[] mockSerializedData = new byte[] { 1, 2, 3 };
-
-    try (MockedStatic<JsonSerializer> mockedJsonSerializer = Mockito.mockStatic(JsonSerializer.class)) {
-      mockedJsonSerializer.when(() -> JsonSerializer.serialize(account)).thenReturn(mockSerializedData);
-
-      // Lấy phương thức estimateItemSize thông qua reflection
-      Method estimateItemSizeMethod = RocksDBService.class.getDeclaredMethod("estimateItemSize", Map.class,
-          KeyExtractor.class);
-      estimateItemSizeMethod.setAccessible(true);
+    Account account = createTestAccount("tài_khoản:1", new BigDecimal("100.0"));
+    Map<String, Account> data = Map.of(account.getKey(), account);
 
-      // Gọi phương thức
-      long estimatedSize = (long) estimateItemSizeMethod.invoke(rocksDBService, data, keyExtractor);
+    // Lấy nội dung WriteBatch khi db.write được gọi (batch bị đóng sau đó)
+    List<byte[]> writtenData = new ArrayList<>();
+    doAnswer(invocation -> {
+      WriteBatch batch = invocation.getArgument(1);
+      assertEquals(1, batch.count());
+      writtenData.add(batch.data());
+      return null;
+    }).when(mockDB).write(any(WriteOptions.class), any(WriteBatch.class));
 
-      // Kiểm tra kết quả
-      // Kích thước ước tính = (key size + value size) * 1.3
-      // key size = "test_account".getBytes().length = 11
-      // value size = mockSerializedData.length = 3
-      // (11 + 3) * 1.3 = 18.2, làm tròn lên 19
-      assertEquals(19, estimatedSize, "Kích thước ước tính phải bằng (key size + value size) * 1.3");
-    }
+    // Gọi saveBatch
+    rocksDBService.saveBatch(data, mockAccountCF, Account::getKey, "test_batch");
+
+    // Kiểm tra key và value trong batch
+    assertEquals(1, writtenData.size());
+    String content = new String(writtenData.get(0), StandardCharsets.UTF_8);
+    assertTrue(content.contains("tài_khoản:1"), "Key phải được mã hóa UTF-8");
+    assertTrue(content.contains(new String(JsonSerializer.serialize(account), StandardCharsets.UTF_8)),
+        "Value phải là JSON của account");
+    assertTrue(rocksDBService.getBytesWritten() > 0, "bytesWritten phải tăng sau khi ghi");
   }
 
   @Test
   @Order(23)
-  @DisplayName("estimateItemSize() phải trả về giá trị mặc định khi có lỗi")
-  void estimateItemSize_ShouldReturnDefaultSizeOnError() throws Exception {
+  @DisplayName("saveBinaryKeyBatch() phải lưu đủ bản ghi khi dữ liệu được serialize song song")
+  void saveBinaryKeyBatch_ShouldSaveAllItemsWhenSerializedInParallel() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test với KeyExtractor ném ngoại lệ
-    Map<String, Account> data = new HashMap<>();
-    Account account = new Account("test_account");
-    data.put("test_account", account);
+    // Nhiều hơn một chunk để dùng serializationExecutor
+    int count = RocksDBConfig.SERIALIZATION_CHUNK_SIZE * 3 + 7;
+    List<Account> accounts = new ArrayList<>(createTestData(count).values());
 
-    KeyExtractor<Account> keyExtractor = mock(KeyExtractor.class);
-    when(keyExtractor.getKey(account)).thenThrow(new RuntimeException("Test exception"));
+    AtomicInteger written = new AtomicInteger();
+    doAnswer(invocation -> {
+      written.addAndGet(invocation.<WriteBatch>getArgument(1).count());
+      return null;
+    }).when(mockDB).write(any(WriteOptions.class), any(WriteBatch.class));
 
-    // Lấy phương thức estimateItemSize thông qua reflection
-    Method estimateItemSizeMethod = RocksDBService.class.getDeclaredMethod("estimateItemSize", Map.class,
-        KeyExtractor.class);
-    estimateItemSizeMethod.setAccessible(true);
-
-    // Gọi phương thức
-    long estimatedSize = (long) estimateItemSizeMethod.invoke(rocksDBService, data, keyExtractor);
+    // Gọi saveBinaryKeyBatch
+    rocksDBService.saveBinaryKeyBatch(accounts, mockAccountCF,
+        account -> account.getKey().getBytes(StandardCharsets.UTF_8), "test_batch");
 
-    // Kiểm tra kết quả - phải trả về giá trị mặc định 1024
-    assertEquals(1024, estimatedSize, "Kích thước ước tính phải là giá trị mặc định khi có lỗi");
+    // Kiểm tra tất cả bản ghi đã được ghi trong một batch
+    assertEquals(count, written.get(), "Số bản ghi đã ghi phải bằng số item");
+    verify(mockDB, times(1)).write(any(WriteOptions.class), any(WriteBatch.class));
   }
 
   @Test
   @Order(24)
-  @DisplayName("saveBatchInternal() phải lưu batch dữ liệu thành công")
-  void saveBatchInternal_ShouldSaveBatchDataSuccessfully() throws Exception {
+  @DisplayName("commitBatch() phải ghi batch và cộng số byte đã ghi")
+  void commitBatch_ShouldWriteBatchAndCountBytes() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test
-    List<Pair<byte[], byte[]>> items = new ArrayList<>();
-    items.add(new Pair<>("key1".getBytes(), "value1".getBytes()));
-    items.add(new Pair<>("key2".getBytes(), "value2".getBytes()));
-
-    // Lấy phương thức saveBatchInternal thông qua reflection
-    Method saveBatchInternalMethod = RocksDBService.class.getDeclaredMethod("saveBatchInternal", List.class,
-        ColumnFamilyHandle.class, String.class);
-    saveBatchInternalMethod.setAccessible(true);
+    // Lấy phương thức commitBatch thông qua reflection
+    Method commitBatchMethod = RocksDBService.class.getDeclaredMethod("commitBatch", WriteBatch.class,
+        int.class, long.class);
+    commitBatchMethod.setAccessible(true);
 
     // Gọi phương thức
-    int result = (int) saveBatchInternalMethod.invoke(rocksDBService, items, mockAccountCF, "test_batch");
+    int result = (int) commitBatchMethod.invoke(rocksDBService, new WriteBatch(), 2, 42L);
 
     // Kiểm tra kết quả
     assertEquals(2, result, "Số lượng bản ghi đã lưu phải bằng số lượng items");
+    assertEquals(42L, rocksDBService.getBytesWritten());
 
-    // Xác minh rằng db.write được gọi với WriteBatch chứa đúng dữ liệu
+    // Xác minh rằng db.write được gọi
     verify(mockDB, times(1)).write((WriteOptions) eq(mockWriteOptions), (WriteBatch) any());
   }
 
   @Test
   @Order(25)
-  @DisplayName("saveBatchInternal() phải trả về 0 cho danh sách rỗng")
-  void saveBatchInternal_ShouldReturnZeroForEmptyList() throws Exception {
+  @DisplayName("saveBatch() không ghi gì khi không có item hợp lệ")
+  void saveBatch_ShouldNotWriteWhenNoValidItems() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo danh sách rỗng
-    List<Pair<byte[], byte[]>> items = new ArrayList<>();
-
-    // Lấy phương thức saveBatchInternal thông qua reflection
-    Method saveBatchInternalMethod = RocksDBService.class.getDeclaredMethod("saveBatchInternal", List.class,
-        ColumnFamilyHandle.class, String.class);
-    saveBatchInternalMethod.setAccessible(true);
-
-    // Gọi phương thức
-    int result = (int) saveBatchInternalMethod.invoke(rocksDBService, items, mockAccountCF, "test_batch");
+    // Chỉ có item với key rỗng
+    Map<String, Account> data = Map.of("emptyKey", new Account(""));
 
-    // Kiểm tra kết quả
-    assertEquals(0, result, "Kết quả phải là 0 cho danh sách rỗng");
+    // Gọi saveBatch
+    rocksDBService.saveBatch(data, mockAccountCF, Account::getKey, "test_batch");
 
     // Xác minh rằng db.write không được gọi
     verify(mockDB, never()).write((WriteOptions) any(), (WriteBatch) any());
+    assertEquals(0L, rocksDBService.getBytesWritten());
   }
 
   @Test
   @Order(26)
-  @DisplayName("saveBatchInternal() phải xử lý ngoại lệ khi batch write thất bại")
-  void saveBatchInternal_ShouldHandleExceptionWhenBatchWriteFails() throws Exception {
+  @DisplayName("commitBatch() phải ném lại ngoại lệ khi batch write thất bại")
+  void commitBatch_ShouldThrowWhenBatchWriteFails() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test
-    List<Pair<byte[], byte[]>> items = new ArrayList<>();
-    items.add(new Pair<>("key1".getBytes(), "value1".getBytes()));
-
     // Cấu hình mockDB để ném ngoại lệ khi gọi write
     doThrow(new RocksDBException("Test exception")).when(mockDB).write((WriteOptions) any(), (WriteBatch) any());
 
-    // Lấy phương thức saveBatchInternal thông qua reflection
-    Method saveBatchInternalMethod = RocksDBService.class.getDeclaredMethod("saveBatchInternal", List.class,
-        ColumnFamilyHandle.class, String.class);
-    saveBatchInternalMethod.setAccessible(true);
+    // Lấy phương thức commitBatch thông qua reflection
+    Method commitBatchMethod = RocksDBService.class.getDeclaredMethod("commitBatch", WriteBatch.class,
+        int.class, long.class);
+    commitBatchMethod.setAccessible(true);
 
     // Gọi phương thức
-    int result = (int) saveBatchInternalMethod.invoke(rocksDBService, items, mockAccountCF, "test_batch");
+    java.lang.reflect.InvocationTargetException thrown = assertThrows(
+        java.lang.reflect.InvocationTargetException.class,
+        () -> commitBatchMethod.invoke(rocksDBService, new WriteBatch(), 1, 42L));
 
     // Kiểm tra kết quả
-    assertEquals(0, result, "Kết quả phải là 0 khi có lỗi");
+    assertTrue(thrown.getCause() instanceof RocksDBException);
+    assertEquals(0L, rocksDBService.getBytesWritten(), "Batch lỗi không được tính vào bytesWritten");
 
     // Xác minh rằng db.write đã được gọi
     verify(mockDB, times(1)).write((WriteOptions) any(), (WriteBatch) any());
@@ -1109,28 +1119,35 @@ class RocksDBServiceTest {
 
   @Test
   @Order(27)
-  @DisplayName("estimateItemSize() phải trả về giá trị mặc định cho data rỗng")
-  void estimateItemSize_ShouldReturnDefaultSizeForEmptyData() throws Exception {
+  @DisplayName("getObject() phải mở rộng value buffer và đọc lại khi value lớn hơn buffer")
+  void getObject_ShouldGrowValueBufferWhenValueIsLarger() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test rỗng
-    Map<String, Account> emptyData = new HashMap<>();
-    KeyExtractor<Account> keyExtractor = mock(KeyExtractor.class);
-
-    // Lấy phương thức estimateItemSize thông qua reflection
-    Method estimateItemSizeMethod = RocksDBService.class.getDeclaredMethod("estimateItemSize", Map.class,
-        KeyExtractor.class);
-    estimateItemSizeMethod.setAccessible(true);
-
-    // Gọi phương thức
-    long estimatedSize = (long) estimateItemSizeMethod.invoke(rocksDBService, emptyData, keyExtractor);
+    // Value lớn hơn buffer mặc định của thread
+    Account account = createTestAccount("test_key", new BigDecimal("100.0"));
+    byte[] json = JsonSerializer.serialize(account);
+    byte[] largeValue = new byte[64 * 1024];
+    Arrays.fill(largeValue, (byte) ' ');
+    System.arraycopy(json, 0, largeValue, 0, json.length);
+
+    when(mockDB.get(any(ColumnFamilyHandle.class), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class))).thenAnswer(invocation -> {
+          ByteBuffer value = invocation.getArgument(3);
+          if (value.remaining() >= largeValue.length) {
+            value.put(largeValue);
+          }
+          return largeValue.length;
+        });
 
-    // Kiểm tra kết quả - phải trả về giá trị mặc định 1024
-    assertEquals(1024, estimatedSize, "Kích thước ước tính phải là giá trị mặc định cho data rỗng");
+    // Gọi getObject
+    Optional<Account> result = rocksDBService.getObject("test_key", mockAccountCF, Account.class, "test");
 
-    // Xác minh rằng keyExtractor không được gọi
-    verify(keyExtractor, never()).getKey(any());
+    // Kiểm tra kết quả
+    assertTrue(result.isPresent());
+    assertEquals("test_key", result.get().getKey());
+    verify(mockDB, times(2)).get(eq(mockAccountCF), any(ReadOptions.class), any(ByteBuffer.class),
+        any(ByteBuffer.class));
   }
 
   @Test
@@ -1173,19 +1190,19 @@ class RocksDBServiceTest {
     // Mock KeyExtractor để trả về key tương ứng
     KeyExtractor<Account> keyExtractor = Account::getKey;
 
-    // Mock JsonSerializer để trả về byte[] giả
-    byte[] mockSerializedData = new byte[] { 1, 2, 3 };
+    // Mock JsonSerializer (serialize vào stream không ghi gì)
     try (MockedStatic<JsonSerializer> mockedJsonSerializer = Mockito.mockStatic(JsonSerializer.class)) {
-      mockedJsonSerializer.when(() -> JsonSerializer.serialize(validAccount)).thenReturn(mockSerializedData);
-
       // Gọi saveBatch
       rocksDBService.saveBatch(data, mockAccountCF, keyExtractor, "test_batch");
 
       // Xác minh rằng chỉ có item hợp lệ được xử lý
       verify(mockDB, times(1)).write(any(WriteOptions.class), any(WriteBatch.class));
-      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(validAccount), atLeast(1));
-      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(nullKeyAccount), never());
-      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(emptyKeyAccount), never());
+      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(eq(validAccount), any(OutputStream.class)),
+          times(1));
+      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(eq(nullKeyAccount), any(OutputStream.class)),
+          never());
+      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(eq(emptyKeyAccount), any(OutputStream.class)),
+          never());
     }
   }
 
@@ -1205,13 +1222,16 @@ class RocksDBServiceTest {
     KeyExtractor<Account> keyExtractor = Account::getKey;
 
     // Mock JsonSerializer để ném ngoại lệ cho account2
-    byte[] mockSerializedData = new byte[] { 1, 2, 3 };
     try (MockedStatic<JsonSerializer> mockedJsonSerializer = Mockito.mockStatic(JsonSerializer.class)) {
-      // Cấu hình mock cho account1 thành công và account2 ném ngoại lệ
-      mockedJsonSerializer.when(() -> JsonSerializer.serialize(account1)).thenReturn(mockSerializedData);
-      mockedJsonSerializer.when(() -> JsonSerializer.serialize(account2))
+      mockedJsonSerializer.when(() -> JsonSerializer.serialize(eq(account2), any(OutputStream.class)))
           .thenThrow(new RuntimeException("Serialize error"));
 
+      // Chỉ account1 được ghi vào batch
+      doAnswer(invocation -> {
+        assertEquals(1, invocation.<WriteBatch>getArgument(1).count());
+        return null;
+      }).when(mockDB).write(any(WriteOptions.class), any(WriteBatch.class));
+
       // Gọi saveBatch
       rocksDBService.saveBatch(data, mockAccountCF, keyExtractor, "test_batch");
 
@@ -1247,8 +1267,8 @@ class RocksDBServiceTest {
 
   @Test
   @Order(32)
-  @DisplayName("saveBatch() nên xử lý lỗi khi write batch thất bại")
-  void saveBatch_ShouldHandleWriteBatchErrors() throws Exception {
+  @DisplayName("saveBatch() nên ném lỗi khi write batch thất bại")
+  void saveBatch_ShouldThrowWhenWriteBatchFails() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
@@ -1266,75 +1286,39 @@ class RocksDBServiceTest {
       doThrow(new RocksDBException("Write error")).when(mockDB)
           .write(any(WriteOptions.class), any(WriteBatch.class));
 
-      // Gọi saveBatch - không nên ném ngoại lệ ra ngoài
-      rocksDBService.saveBatch(data, mockAccountCF, keyExtractor, "test_batch");
+      // Gọi saveBatch - lỗi phải được ném ra để cache giữ lại batch
+      RuntimeException thrown = assertThrows(RuntimeException.class,
+          () -> rocksDBService.saveBatch(data, mockAccountCF, keyExtractor, "test_batch"));
 
-      // Xác minh rằng write được gọi và xử lý lỗi
+      // Xác minh rằng write được gọi và lỗi gốc được giữ
+      assertTrue(thrown.getCause() instanceof RocksDBException);
       verify(mockDB, times(1)).write(any(WriteOptions.class), any(WriteBatch.class));
     }
   }
 
   @Test
   @Order(33)
-  @DisplayName("prepareDataPair() phải tạo cặp key-value thành công")
-  void prepareDataPair_ShouldCreateKeyValuePairSuccessfully() throws Exception {
-    // Thiết lập RocksDBService với mock
-    setupMockedRocksDBService();
-
-    // Tạo dữ liệu test
-    Account account = createTestAccount("test_key", new BigDecimal("100.0"));
-    KeyExtractor<Account> keyExtractor = Account::getKey;
-
-    // Mock JsonSerializer để trả về byte[] giả
-    byte[] mockSerializedData = new byte[] { 1, 2, 3 };
-    try (MockedStatic<JsonSerializer> mockedJsonSerializer = setupMockedJsonSerializer(account, mockSerializedData)) {
-      // Lấy phương thức prepareDataPair thông qua reflection
-      Method prepareDataPairMethod = RocksDBService.class.getDeclaredMethod("prepareDataPair", Object.class,
-          KeyExtractor.class);
-      prepareDataPairMethod.setAccessible(true);
-
-      // Gọi phương thức
-      Pair<byte[], byte[]> result = (Pair<byte[], byte[]>) prepareDataPairMethod.invoke(rocksDBService, account,
-          keyExtractor);
-
-      // Kiểm tra kết quả
-      assertNotNull(result, "Kết quả không được null");
-      assertArrayEquals("test_key".getBytes(), result.getKey(), "Key phải khớp");
-      assertArrayEquals(mockSerializedData, result.getValue(), "Value phải khớp");
-
-      // Xác minh rằng JsonSerializer.serialize được gọi
-      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(account), times(1));
-    }
-  }
-
-  @Test
-  @Order(34)
-  @DisplayName("prepareDataPair() phải trả về null khi có lỗi xảy ra")
-  void prepareDataPair_ShouldReturnNullOnError() throws Exception {
+  @DisplayName("WriteBehindBuffer nên giữ lại bản ghi khi RocksDB write của sink thất bại")
+  void writeBehindBuffer_ShouldRequeueWhenRocksDBWriteFails() throws Exception {
     // Thiết lập RocksDBService với mock
     setupMockedRocksDBService();
 
-    // Tạo dữ liệu test
+    WriteBehindBuffer<Account> buffer = new WriteBehindBuffer<>("accounts");
     Account account = createTestAccount("test_key", new BigDecimal("100.0"));
-    KeyExtractor<Account> keyExtractor = Account::getKey;
+    buffer.put(account.getKey(), account);
 
-    // Mock JsonSerializer để ném ngoại lệ
-    try (MockedStatic<JsonSerializer> mockedJsonSerializer = setupMockedJsonSerializerWithException(account,
-        new RuntimeException("Serialize error"))) {
-      // Lấy phương thức prepareDataPair thông qua reflection
-      Method prepareDataPairMethod = RocksDBService.class.getDeclaredMethod("prepareDataPair", Object.class,
-          KeyExtractor.class);
-      prepareDataPairMethod.setAccessible(true);
+    doThrow(new RocksDBException("Write error")).doNothing().when(mockDB)
+        .write(any(WriteOptions.class), any(WriteBatch.class));
 
-      // Gọi phương thức
-      Pair<byte[], byte[]> result = (Pair<byte[], byte[]>) prepareDataPairMethod.invoke(rocksDBService, account,
-          keyExtractor);
+    // Lần đầu RocksDB lỗi: flush ném lỗi và bản ghi vẫn chờ flush
+    assertThrows(RuntimeException.class,
+        () -> buffer.flush(data -> rocksDBService.saveBatch(data, mockAccountCF, Account::getKey, "accounts")));
+    assertEquals(1, buffer.size());
+    assertSame(account, buffer.get("test_key"));
 
-      // Kiểm tra kết quả
-      assertNull(result, "Kết quả phải là null khi có lỗi");
-
-      // Xác minh rằng JsonSerializer.serialize được gọi
-      mockedJsonSerializer.verify(() -> JsonSerializer.serialize(account), times(1));
-    }
+    // Lần sau ghi thành công và buffer được xóa
+    assertEquals(1, buffer.flush(data -> rocksDBService.saveBatch(data, mockAccountCF, Account::getKey, "accounts")));
+    assertTrue(buffer.isEmpty());
+    verify(mockDB, times(2)).write(any(WriteOptions.class), any(WriteBatch.class));
   }
 }
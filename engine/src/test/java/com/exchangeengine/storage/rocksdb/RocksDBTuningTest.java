@@ -0,0 +1,140 @@
+package com.exchangeengine.storage.rocksdb;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.RocksDB;
+import org.rocksdb.TickerType;
+
+class RocksDBTuningTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  private RocksDBTuning tuning;
+
+  @BeforeEach
+  void setUp() {
+    tuning = new RocksDBTuning(8 * MB, 16 * MB, 4 * MB, 10, 64 * MB, 3, 64 * MB, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    tuning.close();
+  }
+
+  @Test
+  @DisplayName("Mọi profile phải cache index/filter block và có bloom filter")
+  void columnFamilyOptions_ShouldCacheIndexAndFilterBlocks() {
+    for (ColumnFamilyProfile profile : ColumnFamilyProfile.values()) {
+      BlockBasedTableConfig table = (BlockBasedTableConfig) tuning.columnFamilyOptions(profile).tableFormatConfig();
+
+      assertTrue(table.cacheIndexAndFilterBlocks(), profile + " phải cache index/filter block");
+      assertNotNull(table.filterPolicy(), profile + " phải có bloom filter");
+    }
+  }
+
+  @Test
+  @DisplayName("Memtable của mọi column family phải được tính vào block cache dùng chung")
+  void writeBufferManager_ShouldChargeSharedBlockCache(@TempDir Path dir) throws Exception {
+    List<ColumnFamilyDescriptor> descriptors = Arrays.asList(
+        new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY,
+            tuning.columnFamilyOptions(ColumnFamilyProfile.STANDARD)),
+        new ColumnFamilyDescriptor(RocksDBConfig.TICK_BITMAP_CF.getBytes(StandardCharsets.UTF_8),
+            tuning.columnFamilyOptions(ColumnFamilyProfile.HOT_SMALL)));
+    List<ColumnFamilyHandle> handles = new ArrayList<>();
+
+    try (DBOptions options = tuning.applyTo(RocksDBConfig.createDBOptions(10));
+        RocksDB db = RocksDB.open(options, dir.toString(), descriptors, handles)) {
+      byte[] value = new byte[1024];
+      for (int i = 0; i < 1000; i++) {
+        db.put(handles.get(1), ("bitmap:" + i).getBytes(StandardCharsets.UTF_8), value);
+      }
+
+      assertTrue(tuning.getBlockCache().getUsage() > 0, "Memtable phải được tính vào block cache");
+      assertTrue(tuning.getStatistics().getTickerCount(TickerType.BYTES_WRITTEN) > 0,
+          "Statistics phải được gắn vào database");
+      assertArrayEquals(value, db.get(handles.get(1), "bitmap:1".getBytes(StandardCharsets.UTF_8)));
+      handles.forEach(ColumnFamilyHandle::close);
+    }
+  }
+
+  @Test
+  @DisplayName("POINT_LOOKUP phải bật hash index trong data block")
+  void pointLookup_ShouldUseHashIndex() {
+    ColumnFamilyOptions options = tuning.columnFamilyOptions(ColumnFamilyProfile.POINT_LOOKUP);
+    BlockBasedTableConfig table = (BlockBasedTableConfig) options.tableFormatConfig();
+
+    assertEquals(DataBlockIndexType.kDataBlockBinaryAndHash, table.dataBlockIndexType());
+    assertEquals(CompressionType.LZ4_COMPRESSION, options.compressionType());
+    assertEquals(64 * MB, options.writeBufferSize());
+  }
+
+  @Test
+  @DisplayName("PREFIX_SCAN và TIME_SERIES phải nén ZSTD ở level cuối")
+  void historyProfiles_ShouldUseZstdBottommost() {
+    ColumnFamilyOptions prefix = tuning.columnFamilyOptions(ColumnFamilyProfile.PREFIX_SCAN);
+    ColumnFamilyOptions timeSeries = tuning.columnFamilyOptions(ColumnFamilyProfile.TIME_SERIES);
+
+    assertEquals(CompressionType.ZSTD_COMPRESSION, prefix.bottommostCompressionType());
+    assertEquals(CompressionType.ZSTD_COMPRESSION, timeSeries.bottommostCompressionType());
+    assertTrue(prefix.optimizeFiltersForHits());
+    assertTrue(timeSeries.levelCompactionDynamicLevelBytes());
+  }
+
+  @Test
+  @DisplayName("HOT_SMALL phải dùng memtable nhỏ, block nhỏ và không nén")
+  void hotSmall_ShouldUseSmallBuffersWithoutCompression() {
+    ColumnFamilyOptions options = tuning.columnFamilyOptions(ColumnFamilyProfile.HOT_SMALL);
+    BlockBasedTableConfig table = (BlockBasedTableConfig) options.tableFormatConfig();
+
+    assertEquals(RocksDBConfig.HOT_SMALL_WRITE_BUFFER_SIZE_MB * MB, options.writeBufferSize());
+    assertEquals(4 * 1024, table.blockSize());
+    assertEquals(CompressionType.NO_COMPRESSION, options.compressionType());
+  }
+
+  @Test
+  @DisplayName("COLD phải nén ZSTD ở mọi level và dùng block lớn")
+  void cold_ShouldUseZstdAndLargeBlocks() {
+    ColumnFamilyOptions options = tuning.columnFamilyOptions(ColumnFamilyProfile.COLD);
+    BlockBasedTableConfig table = (BlockBasedTableConfig) options.tableFormatConfig();
+
+    assertEquals(CompressionType.ZSTD_COMPRESSION, options.compressionType());
+    assertEquals(CompressionType.ZSTD_COMPRESSION, options.bottommostCompressionType());
+    assertEquals(16 * 1024, table.blockSize());
+    assertTrue(options.levelCompactionDynamicLevelBytes());
+  }
+
+  @Test
+  @DisplayName("Rate limiter và statistics chỉ được tạo khi được bật")
+  void rateLimiterAndStatistics_ShouldBeOptional() {
+    try (DBOptions options = tuning.applyTo(new DBOptions())) {
+      assertNotNull(tuning.getRateLimiter());
+    }
+
+    try (RocksDBTuning unlimited = new RocksDBTuning(8 * MB, 0, 0, 10, 64 * MB, 3, 64 * MB, false)) {
+      assertNull(unlimited.getRateLimiter());
+      assertNull(unlimited.getStatistics());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.exchangeengine.storage.rocksdb;
+
+import com.exchangeengine.model.SymbolEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test lưu và đọc bảng symbol trong settings CF trên RocksDB thật.
+ */
+class SymbolRocksDBTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService rocksDBService;
+  private SymbolRocksDB symbolRocksDB;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    rocksDBService = constructor.newInstance();
+    Field dbPath = RocksDBService.class.getDeclaredField("dbPath");
+    dbPath.setAccessible(true);
+    dbPath.set(rocksDBService, tempDir.toString());
+    rocksDBService.initialize();
+
+    RocksDBService.setTestInstance(rocksDBService);
+    SymbolRocksDB.resetInstance();
+    symbolRocksDB = SymbolRocksDB.getInstance();
+  }
+
+  @AfterEach
+  void tearDown() {
+    rocksDBService.close();
+    RocksDBService.resetInstance();
+    SymbolRocksDB.resetInstance();
+  }
+
+  @Test
+  @DisplayName("saveSymbolBatch và getAllSymbols nên lưu và đọc lại các symbol")
+  void saveAndLoadSymbols() {
+    symbolRocksDB.saveSymbolBatch(Arrays.asList(
+        new SymbolEntry("account", "btc:alice", 0),
+        new SymbolEntry("account", "usdt:alice", 1),
+        new SymbolEntry("pool", "BTC-USDT", 0)));
+    // Cài đặt khác trong settings CF không bị đọc nhầm
+    rocksDBService.saveObject("other", rocksDBService.getSettingsCF(), value -> "setting:other", "setting");
+
+    List<SymbolEntry> symbols = symbolRocksDB.getAllSymbols();
+
+    assertEquals(3, symbols.size());
+    assertTrue(symbols.contains(new SymbolEntry("account", "usdt:alice", 1)));
+    assertTrue(symbols.contains(new SymbolEntry("pool", "BTC-USDT", 0)));
+  }
+
+  @Test
+  @DisplayName("saveSymbolBatch nên bỏ qua batch rỗng")
+  void saveSymbolBatch_ShouldIgnoreEmptyBatch() {
+    symbolRocksDB.saveSymbolBatch(Collections.emptyList());
+
+    assertTrue(symbolRocksDB.getAllSymbols().isEmpty());
+  }
+}
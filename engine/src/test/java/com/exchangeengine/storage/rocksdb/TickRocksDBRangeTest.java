@@ -0,0 +1,92 @@
+package com.exchangeengine.storage.rocksdb;
+
+import com.exchangeengine.model.Tick;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test key nhị phân của tick và việc chuyển key chuỗi cũ trên RocksDB thật.
+ */
+class TickRocksDBRangeTest {
+
+  @TempDir
+  Path tempDir;
+
+  private RocksDBService rocksDBService;
+  private TickRocksDB tickRocksDB;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Constructor<RocksDBService> constructor = RocksDBService.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    rocksDBService = constructor.newInstance();
+    Field dbPath = RocksDBService.class.getDeclaredField("dbPath");
+    dbPath.setAccessible(true);
+    dbPath.set(rocksDBService, tempDir.toString());
+    rocksDBService.initialize();
+
+    RocksDBService.setTestInstance(rocksDBService);
+    TickRocksDB.resetInstance();
+    tickRocksDB = TickRocksDB.getInstance();
+  }
+
+  @AfterEach
+  void tearDown() {
+    rocksDBService.close();
+    RocksDBService.resetInstance();
+    TickRocksDB.resetInstance();
+  }
+
+  @Test
+  @DisplayName("getPoolTicks trả về tick của đúng pool theo thứ tự index, kể cả tick âm")
+  void getPoolTicks_ShouldReturnPoolTicksInIndexOrder() {
+    // Pool có tên là prefix của pool khác không được lẫn vào
+    tickRocksDB.saveTickBatch(Arrays.asList(
+        new Tick("BTC-USDT", 600),
+        new Tick("BTC-USDT", -600),
+        new Tick("BTC-USDT", 0),
+        new Tick("BTC-USDT", -887272),
+        new Tick("BTC-USDT2", 60),
+        new Tick("ETH-USDT", -60)));
+
+    List<Integer> indexes = tickRocksDB.getPoolTicks("BTC-USDT").stream()
+        .map(Tick::getTickIndex)
+        .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList(-887272, -600, 0, 600), indexes);
+    assertTrue(tickRocksDB.getTick("BTC-USDT", -600).isPresent());
+    assertFalse(tickRocksDB.getTick("BTC-USDT", 60).isPresent());
+  }
+
+  @Test
+  @DisplayName("migrateLegacyKeys chuyển key chuỗi cũ sang key nhị phân và xóa key cũ")
+  void migrateLegacyKeys_ShouldRewriteStringKeys() {
+    Tick legacyTick = new Tick("BTC-USDT", -600);
+    rocksDBService.saveObject(legacyTick, rocksDBService.getTickCF(), Tick::getTickKey, "tick");
+    rocksDBService.saveObject(new Tick("BTC-USDT", 600), rocksDBService.getTickCF(), Tick::getTickKey, "tick");
+    tickRocksDB.saveTick(new Tick("BTC-USDT", 0));
+
+    assertEquals(2, tickRocksDB.migrateLegacyKeys());
+    assertEquals(0, tickRocksDB.migrateLegacyKeys());
+
+    assertEquals(3, tickRocksDB.getAllTicks().size());
+    assertTrue(tickRocksDB.getTick("BTC-USDT", -600).isPresent());
+    assertFalse(rocksDBService.getObject(legacyTick.getTickKey(), rocksDBService.getTickCF(), Tick.class, "tick")
+        .isPresent());
+    assertEquals(Arrays.asList(-600, 0, 600), tickRocksDB.getPoolTicks("BTC-USDT").stream()
+        .map(Tick::getTickIndex)
+        .collect(Collectors.toList()));
+  }
+}
@@ -1,19 +1,21 @@
 package com.exchangeengine.storage.rocksdb;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.rocksdb.ColumnFamilyHandle;
@@ -61,32 +63,77 @@ public class TickRocksDBTest {
   void saveTick_ShouldSaveTickToRocksDB() {
     // Given
     Tick tick = new Tick("BTC-USDT", 100);
-    doNothing().when(rocksDBService).saveObject(any(Tick.class), any(ColumnFamilyHandle.class), any(KeyExtractor.class),
-        anyString());
+    doNothing().when(rocksDBService).saveObjectWithBinaryKey(any(Tick.class), any(ColumnFamilyHandle.class),
+        any(BinaryKeyExtractor.class), anyString());
 
     // When
     tickRocksDB.saveTick(tick);
 
     // Then
-    verify(rocksDBService).saveObject(eq(tick), eq(tickCF), any(KeyExtractor.class), eq("tick"));
+    verify(rocksDBService).saveObjectWithBinaryKey(eq(tick), eq(tickCF), any(BinaryKeyExtractor.class), eq("tick"));
   }
 
   @Test
-  @DisplayName("getTick nên lấy tick từ RocksDB")
+  @DisplayName("getTick nên lấy tick từ RocksDB theo key nhị phân")
   void getTick_ShouldRetrieveTickFromRocksDB() {
     // Given
-    String tickKey = "BTC-USDT-100";
+    byte[] tickKey = Tick.generateBinaryKey("BTC-USDT", 100);
     Tick expectedTick = new Tick("BTC-USDT", 100);
-    when(rocksDBService.getObject(eq(tickKey), eq(tickCF), eq(Tick.class), eq("tick")))
+    when(rocksDBService.getObjectByBinaryKey(aryEq(tickKey), eq(tickCF), eq(Tick.class), eq("tick")))
         .thenReturn(Optional.of(expectedTick));
 
     // When
-    Optional<Tick> result = tickRocksDB.getTick(tickKey);
+    Optional<Tick> result = tickRocksDB.getTick("BTC-USDT", 100);
 
     // Then
     assertTrue(result.isPresent());
     assertEquals(expectedTick, result.get());
-    verify(rocksDBService).getObject(eq(tickKey), eq(tickCF), eq(Tick.class), eq("tick"));
+  }
+
+  @Test
+  @DisplayName("getPoolTicks nên range scan toàn bộ key của pool")
+  void getPoolTicks_ShouldScanPoolKeyRange() {
+    // Given
+    List<Tick> expectedTicks = Arrays.asList(new Tick("BTC-USDT", -100), new Tick("BTC-USDT", 100));
+    ArgumentCaptor<byte[]> lowerCaptor = ArgumentCaptor.forClass(byte[].class);
+    ArgumentCaptor<byte[]> upperCaptor = ArgumentCaptor.forClass(byte[].class);
+    when(rocksDBService.getObjectsInRange(lowerCaptor.capture(), upperCaptor.capture(), isNull(), eq(false),
+        eq(Integer.MAX_VALUE), eq(tickCF), eq(Tick.class), eq("ticks"))).thenReturn(expectedTicks);
+
+    // When
+    List<Tick> result = tickRocksDB.getPoolTicks("BTC-USDT");
+
+    // Then
+    assertEquals(expectedTicks, result);
+    byte[] lower = lowerCaptor.getValue();
+    byte[] upper = upperCaptor.getValue();
+    for (int tickIndex : new int[] { Integer.MIN_VALUE, -887272, 0, 887272, Integer.MAX_VALUE }) {
+      byte[] key = Tick.generateBinaryKey("BTC-USDT", tickIndex);
+      assertTrue(Arrays.compareUnsigned(lower, key) <= 0);
+      assertTrue(Arrays.compareUnsigned(key, upper) < 0);
+    }
+    // Key của pool khác không nằm trong khoảng
+    assertTrue(Arrays.compareUnsigned(Tick.generateBinaryKey("BTC-USDTX", 0), upper) >= 0);
+  }
+
+  @Test
+  @DisplayName("migrateLegacyKeys chỉ chuyển các key chuỗi cũ")
+  void migrateLegacyKeys_ShouldOnlyMatchLegacyKeys() {
+    // Given
+    ArgumentCaptor<Predicate<byte[]>> legacyCaptor = ArgumentCaptor.forClass(Predicate.class);
+    when(rocksDBService.migrateToBinaryKeys(eq(tickCF), eq(Tick.class), legacyCaptor.capture(),
+        any(BinaryKeyExtractor.class), eq("ticks"))).thenReturn(2);
+
+    // When
+    int migrated = tickRocksDB.migrateLegacyKeys();
+
+    // Then
+    assertEquals(2, migrated);
+    Predicate<byte[]> isLegacy = legacyCaptor.getValue();
+    assertTrue(isLegacy.test("BTC-USDT-100".getBytes()));
+    assertTrue(isLegacy.test("BTC-USDT--100".getBytes()));
+    assertFalse(isLegacy.test(Tick.generateBinaryKey("BTC-USDT", 100)));
+    assertFalse(isLegacy.test(Tick.generateBinaryKey("BTC-USDT", -100)));
   }
 
   @Test
@@ -116,18 +163,16 @@ public class TickRocksDBTest {
     Tick tick1 = new Tick("BTC-USDT", 100);
     Tick tick2 = new Tick("ETH-USDT", 200);
 
-    Map<String, Tick> ticks = new HashMap<>();
-    ticks.put(tick1.getTickKey(), tick1);
-    ticks.put(tick2.getTickKey(), tick2);
+    Collection<Tick> ticks = Arrays.asList(tick1, tick2);
 
-    doNothing().when(rocksDBService).saveBatch(anyMap(), any(ColumnFamilyHandle.class), any(KeyExtractor.class),
-        anyString());
+    doNothing().when(rocksDBService).saveBinaryKeyBatch(anyCollection(), any(ColumnFamilyHandle.class),
+        any(BinaryKeyExtractor.class), anyString());
 
     // When
     tickRocksDB.saveTickBatch(ticks);
 
     // Then
-    verify(rocksDBService).saveBatch(eq(ticks), eq(tickCF), any(KeyExtractor.class), eq("ticks"));
+    verify(rocksDBService).saveBinaryKeyBatch(eq(ticks), eq(tickCF), any(BinaryKeyExtractor.class), eq("ticks"));
   }
 
   @Test
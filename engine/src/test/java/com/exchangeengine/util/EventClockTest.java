@@ -0,0 +1,72 @@
+package com.exchangeengine.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventClockTest {
+
+  @AfterEach
+  void tearDown() {
+    EventClock.end();
+  }
+
+  @Test
+  @DisplayName("Trong event, thời gian là timestamp của event")
+  void currentTimeMillis_ShouldReturnEventTime_WhenInEvent() {
+    EventClock.begin(1_000L, 0);
+
+    assertEquals(1_000L, EventClock.currentTimeMillis());
+    assertEquals(Instant.ofEpochMilli(1_000L), EventClock.now());
+  }
+
+  @Test
+  @DisplayName("Ngoài event, thời gian là giờ hệ thống")
+  void currentTimeMillis_ShouldReturnSystemTime_OutsideEvent() {
+    EventClock.begin(1_000L, 0);
+    EventClock.end();
+
+    long before = System.currentTimeMillis();
+    long now = EventClock.currentTimeMillis();
+
+    assertTrue(now >= before);
+  }
+
+  @Test
+  @DisplayName("Event trên một thread không ảnh hưởng thread khác")
+  void currentTimeMillis_ShouldBeThreadConfined() throws InterruptedException {
+    EventClock.begin(1_000L, 0);
+    AtomicLong other = new AtomicLong();
+
+    Thread thread = new Thread(() -> other.set(EventClock.currentTimeMillis()));
+    thread.start();
+    thread.join();
+
+    assertTrue(other.get() > 1_000L);
+    assertEquals(1_000L, EventClock.currentTimeMillis());
+  }
+
+  @Test
+  @DisplayName("Trong event, số thứ tự lấy từ sequence của event và thứ tự trong event")
+  void nextSequence_ShouldDeriveFromEventSequence() {
+    EventClock.begin(1_000L, 5);
+    long first = EventClock.nextSequence();
+    long second = EventClock.nextSequence();
+
+    // Replay cùng event cho ra cùng số thứ tự
+    EventClock.begin(1_000L, 5);
+    assertEquals(first, EventClock.nextSequence());
+
+    EventClock.begin(1_000L, 6);
+    long next = EventClock.nextSequence();
+
+    assertEquals(5L << EventClock.ORDINAL_BITS, first);
+    assertEquals(first + 1, second);
+    assertTrue(next > second);
+  }
+}
@@ -4,11 +4,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -213,4 +215,24 @@ class JsonSerializerTest {
       JsonSerializer.deserialize(invalidBytes, TestClass.class);
     });
   }
+
+  @Test
+  @DisplayName("serialize to stream and deserialize from direct ByteBuffer should round-trip")
+  void serializeToStream_AndDeserializeFromByteBuffer_ShouldRoundTrip() {
+    // Arrange
+    TestClass original = new TestClass("Ann", 30, true);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    JsonSerializer.serialize(original, out);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(out.size());
+    buffer.put(out.toByteArray()).flip();
+    TestClass deserialized = JsonSerializer.deserialize(buffer, TestClass.class);
+
+    // Assert
+    assertArrayEquals(JsonSerializer.serialize(original), out.toByteArray());
+    assertEquals("Ann", deserialized.getName());
+    assertEquals(30, deserialized.getAge());
+    assertTrue(deserialized.isActive());
+  }
 }